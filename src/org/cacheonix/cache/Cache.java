@@ -15,6 +15,7 @@ package org.cacheonix.cache;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,9 +23,12 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.cacheonix.Cacheonix;
+import org.cacheonix.cache.entry.AttributeExtractor;
 import org.cacheonix.cache.entry.CacheEntry;
 import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.entry.IndexedEntryFilter;
 import org.cacheonix.cache.executor.Aggregator;
+import org.cacheonix.cache.executor.EntryProcessor;
 import org.cacheonix.cache.executor.Executable;
 import org.cacheonix.cache.subscriber.EntryModifiedEvent;
 import org.cacheonix.cache.subscriber.EntryModifiedSubscriber;
@@ -161,6 +165,24 @@ public interface Cache<K extends Serializable, V extends Serializable> extends C
     */
    Set<Entry<K, V>> entrySet();
 
+   /**
+    * Returns an iterator over the mappings contained in this cache. Unlike {@link #entrySet()}, {@link #keySet()} and
+    * {@link #values()}, the iterator does not copy the whole cache to the caller's heap.
+    * <p/>
+    * <b>Distributed cache</b>: The iterator fetches the entries in pages of about <code>pageSize</code> entries. The next
+    * page is fetched in background while the current page is being iterated. The iterator tolerates re-balancing of the
+    * cluster. It returns each mapping that exists for the whole time of the iteration exactly once and may or may not
+    * return mappings that are added or removed during the iteration.
+    * <p/>
+    * The iterator supports the <tt>Iterator.remove</tt> operation that removes the last returned mapping from the
+    * cache. The iterator is not thread-safe.
+    *
+    * @param pageSize the desired number of entries in a page.
+    * @return an iterator over the mappings contained in this cache.
+    * @throws IllegalArgumentException if <code>pageSize</code> is not positive.
+    */
+   Iterator<Entry<K, V>> entryIterator(int pageSize);
+
 
    /**
     * Returns a set view of the keys contained in this map.  The set is backed by the map, so changes to the map are
@@ -470,6 +492,41 @@ public interface Cache<K extends Serializable, V extends Serializable> extends C
    void removeEventSubscriber(final K key, final EntryModifiedSubscriber subscriber) throws NotSubscribedException;
 
 
+   /**
+    * Adds a subscriber to events about modifications of any cache element that match the filter.
+    * <p/>
+    * An event matches the filter if the filter matches the entry after the modification or the entry before the
+    * modification. This way the subscriber is notified both when an entry starts and when it stops satisfying the
+    * filter's criteria. For removed, evicted and expired entries the filter is applied to the entry that was removed.
+    * <p/>
+    * In a distributed cache, the filter is evaluated by the cluster nodes that own the cache data, and only events that
+    * match the filter are sent to the subscriber. The subscription stays in effect when the data moves between cluster
+    * nodes. Event content flags returned by the subscriber define the content of the delivered events.
+    * <p/>
+    * The <code>subscriber</code> may not receive <code>EntryModifiedEvent</code>s about modifications that happen
+    * immediately after this method returns control to a calling thread.
+    * <p/>
+    * Use <code>removeCacheEventSubscriber()</code> to un-subscribe.
+    *
+    * @param filter     the filter that selects events of interest or <code>null</code> to receive all events.
+    * @param subscriber the subscriber to an event when a cache element is added, updated or removed.
+    * @see #removeCacheEventSubscriber(EntryModifiedSubscriber)
+    * @see EntryFilter
+    * @see EntryModifiedEvent
+    */
+   void addCacheEventSubscriber(final EntryFilter filter, final EntryModifiedSubscriber subscriber);
+
+
+   /**
+    * Un-subscribes the subscriber previously added by <code>addCacheEventSubscriber()</code>.
+    *
+    * @param subscriber the subscriber to un-subscribe.
+    * @throws NotSubscribedException if the subscriber is not subscribed to cache-wide events.
+    * @see #addCacheEventSubscriber(EntryFilter, EntryModifiedSubscriber)
+    */
+   void removeCacheEventSubscriber(final EntryModifiedSubscriber subscriber) throws NotSubscribedException;
+
+
    /**
     * Returns size of keys and values in bytes. Returns zero if eviction based on object size is not enabled for this
     * cache.
@@ -563,6 +620,36 @@ public interface Cache<K extends Serializable, V extends Serializable> extends C
     */
    Serializable execute(EntryFilter entryFilter, Executable executable, Aggregator aggregator);
 
+   /**
+    * Returns the entries of this cache that satisfy the filtering criteria provided by the <code>entryFilter</code>.
+    * <p/>
+    * <b>Distributed cache</b>: The filter runs in parallel on all nodes of the cluster that carry cached data. If the
+    * filter is an {@link IndexedEntryFilter} and the cache has an index configured for the filter's extractor, only
+    * the entries found in the index are tested, so a selective query does not scan the whole cache.
+    *
+    * @param entryFilter the filter that is called to decide if a cache entry should be returned.
+    * @return a map of the keys and values of the matching entries. The map is detached from the cache.
+    * @see #execute(EntryFilter, Executable, Aggregator)
+    * @see AttributeExtractor
+    */
+   Map<K, V> query(EntryFilter entryFilter);
+
+   /**
+    * Returns the attributes extracted from the values of the entries of this cache that satisfy the filtering criteria
+    * provided by the <code>entryFilter</code>.
+    * <p/>
+    * <b>Distributed cache</b>: The filter and the extractor run in parallel on all nodes of the cluster that carry
+    * cached data. Only the keys and the extracted attributes are sent back, so projecting a small attribute of a large
+    * value saves transferring the whole value.
+    *
+    * @param entryFilter the filter that is called to decide if a cache entry should be projected.
+    * @param extractor   the extractor of the projected attribute.
+    * @return a map of the keys of the matching entries and the attributes extracted from their values. The map is
+    *         detached from the cache.
+    * @see #query(EntryFilter)
+    */
+   Map<K, Object> project(EntryFilter entryFilter, AttributeExtractor extractor);
+
    /**
     * Invokes the <code>executable</code> for a subset of entries in this cache that is defined by the
     * <code>keySet</code>. An <code>aggregator</code> performs conversion of partial results provided by the
@@ -581,4 +668,34 @@ public interface Cache<K extends Serializable, V extends Serializable> extends C
     * @see #execute(EntryFilter, Executable, Aggregator)
     */
    Serializable executeAll(Set<K> keySet, Executable executable, Aggregator aggregator);
+
+   /**
+    * Invokes the <code>entryProcessor</code> for the entry with the given key. The entry processor runs atomically
+    * against the entry: no other updates to the entry can happen while the processor runs.
+    * <p/>
+    * <b>Distributed cache</b>: The <code>entryProcessor</code> runs on the cluster node that owns the key. Changes made
+    * by the processor are replicated the same way as changes made by <code>put()</code> and <code>remove()</code>. Only
+    * the result of processing is sent back. This eliminates a read-modify-write loop that sends the value over the
+    * network twice.
+    *
+    * @param key            the key of the entry to process.
+    * @param entryProcessor the entry processor to invoke.
+    * @return the result returned by the <code>entryProcessor</code>.
+    * @see #invokeAll(Set, EntryProcessor)
+    */
+   Serializable invoke(K key, EntryProcessor entryProcessor);
+
+   /**
+    * Invokes the <code>entryProcessor</code> for each entry with a key in the <code>keySet</code>. The entry processor
+    * runs atomically against each entry. Processing of different entries is not atomic as a whole.
+    * <p/>
+    * <b>Distributed cache</b>: Cacheonix sends requests for all keys at once so that the entries are processed in
+    * parallel on the cluster nodes that own the keys.
+    *
+    * @param keySet         the set of keys of the entries to process.
+    * @param entryProcessor the entry processor to invoke.
+    * @return a map of the keys to the results returned by the <code>entryProcessor</code>.
+    * @see #invoke(Serializable, EntryProcessor)
+    */
+   Map<K, Serializable> invokeAll(Set<K> keySet, EntryProcessor entryProcessor);
 }
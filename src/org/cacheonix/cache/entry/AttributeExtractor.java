@@ -0,0 +1,51 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.cache.entry;
+
+import java.io.Serializable;
+
+/**
+ * Extracts an attribute from a cache value. Cacheonix uses attribute extractors to maintain secondary indexes of
+ * partitioned caches and to evaluate index-aware filters.
+ * <p/>
+ * An extractor is configured for a cache by adding an <code>index</code> element to the cache store:
+ * <pre>
+ *    &lt;partitionedCache name="customer.cache"&gt;
+ *       &lt;store&gt;
+ *          &lt;lru maxElements="10000" maxBytes="10mb"/&gt;
+ *          <b>&lt;index className="my.project.CityExtractor"/&gt;</b>
+ *       &lt;/store&gt;
+ *    &lt;/partitionedCache&gt;
+ * </pre>
+ * <p/>
+ * An index is identified by the class of its extractor, so a filter uses an index if the filter was created with an
+ * extractor of the same class as the configured one. The extractor must have a public no-argument constructor.
+ * <p/>
+ * <b>Important:</b> Implementations of this method must be fast and must not use blocking operations such as I/O
+ * because Cacheonix calls the extractor every time an indexed entry is modified.
+ *
+ * @see IndexedEntryFilter
+ */
+public interface AttributeExtractor extends Serializable {
+
+   /**
+    * Extracts an attribute from a cache value.
+    *
+    * @param value the cache value. The value is never <code>null</code>.
+    * @return the attribute or <code>null</code> if the value does not have the attribute. Non-null attributes must be
+    *         mutually comparable and their natural ordering must be consistent with <code>equals()</code>. Entries with
+    *         <code>null</code> attributes never match index-aware filters.
+    */
+   Object extract(Object value);
+}
@@ -0,0 +1,70 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.cache.entry;
+
+import java.io.Serializable;
+
+/**
+ * A filter that matches entries with an attribute equal to a given value.
+ *
+ * @see AttributeExtractor
+ */
+public final class EqualsFilter extends IndexedEntryFilter {
+
+   private static final long serialVersionUID = 0L;
+
+   /**
+    * The value to match.
+    */
+   private final Serializable value;
+
+
+   /**
+    * Creates EqualsFilter.
+    *
+    * @param extractor the extractor of the tested attribute.
+    * @param value     the value to match.
+    */
+   public EqualsFilter(final AttributeExtractor extractor, final Serializable value) {
+
+      super(extractor);
+      this.value = value;
+   }
+
+
+   /**
+    * Returns the value to match.
+    *
+    * @return the value to match.
+    */
+   public Serializable getValue() {
+
+      return value;
+   }
+
+
+   public boolean matchesAttribute(final Object attribute) {
+
+      return attribute.equals(value);
+   }
+
+
+   public String toString() {
+
+      return "EqualsFilter{" +
+              "extractor=" + getExtractor() +
+              ", value=" + value +
+              '}';
+   }
+}
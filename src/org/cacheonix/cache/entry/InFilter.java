@@ -0,0 +1,74 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.cache.entry;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A filter that matches entries with an attribute equal to one of given values.
+ *
+ * @see AttributeExtractor
+ */
+public final class InFilter extends IndexedEntryFilter {
+
+   private static final long serialVersionUID = 0L;
+
+   /**
+    * The values to match.
+    */
+   private final ArrayList<Serializable> values; // NOPMD
+
+
+   /**
+    * Creates InFilter.
+    *
+    * @param extractor the extractor of the tested attribute.
+    * @param values    the values to match.
+    */
+   public InFilter(final AttributeExtractor extractor, final Collection<? extends Serializable> values) {
+
+      super(extractor);
+      this.values = new ArrayList<Serializable>(values);
+   }
+
+
+   /**
+    * Returns the values to match.
+    *
+    * @return an unmodifiable list of the values to match.
+    */
+   public List<Serializable> getValues() {
+
+      return Collections.unmodifiableList(values);
+   }
+
+
+   public boolean matchesAttribute(final Object attribute) {
+
+      return values.contains(attribute);
+   }
+
+
+   public String toString() {
+
+      return "InFilter{" +
+              "extractor=" + getExtractor() +
+              ", values=" + values +
+              '}';
+   }
+}
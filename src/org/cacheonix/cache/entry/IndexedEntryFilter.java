@@ -0,0 +1,91 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.cache.entry;
+
+import java.io.Serializable;
+
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.executor.Aggregator;
+import org.cacheonix.cache.executor.Executable;
+import org.cacheonix.impl.util.ArgumentValidator;
+
+/**
+ * A filter that tests an attribute of a cache value. If the cache has an index configured for the filter's extractor,
+ * Cacheonix looks up matching entries in the index instead of testing every entry in the cache.
+ *
+ * @see EqualsFilter
+ * @see RangeFilter
+ * @see InFilter
+ * @see Cache#execute(EntryFilter, Executable, Aggregator)
+ * @see Cache#query(EntryFilter)
+ */
+public abstract class IndexedEntryFilter implements EntryFilter<Serializable, Serializable> {
+
+   private static final long serialVersionUID = 0L;
+
+   /**
+    * The extractor of the tested attribute.
+    */
+   private final AttributeExtractor extractor;
+
+
+   /**
+    * Creates IndexedEntryFilter.
+    *
+    * @param extractor the extractor of the tested attribute.
+    */
+   IndexedEntryFilter(final AttributeExtractor extractor) {
+
+      ArgumentValidator.validateArgumentNotNull(extractor, "extractor");
+      this.extractor = extractor;
+   }
+
+
+   /**
+    * Returns the extractor of the tested attribute.
+    *
+    * @return the extractor of the tested attribute.
+    */
+   public final AttributeExtractor getExtractor() {
+
+      return extractor;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation extracts the attribute from the entry value and tests the attribute.
+    */
+   public final boolean matches(final CacheEntry cacheEntry) {
+
+      final Object value = cacheEntry.getValue();
+      if (value == null) {
+
+         return false;
+      }
+
+      final Object attribute = extractor.extract(value);
+      return attribute != null && matchesAttribute(attribute);
+   }
+
+
+   /**
+    * Returns <code>true</code> if the attribute satisfies this filter's criteria.
+    *
+    * @param attribute the attribute to test. The attribute is never <code>null</code>.
+    * @return <code>true</code> if the attribute satisfies this filter's criteria.
+    */
+   public abstract boolean matchesAttribute(Object attribute);
+}
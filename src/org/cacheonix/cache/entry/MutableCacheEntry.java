@@ -0,0 +1,48 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.cache.entry;
+
+import java.io.Serializable;
+
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.executor.EntryProcessor;
+
+/**
+ * A cache entry that an <code>EntryProcessor</code> can modify. Modifications become visible to the rest of the cache
+ * only after <code>EntryProcessor.process()</code> returns.
+ *
+ * @see EntryProcessor#process(MutableCacheEntry)
+ * @see Cache#invoke(Serializable, EntryProcessor)
+ */
+public interface MutableCacheEntry extends CacheEntry {
+
+   /**
+    * Returns <code>true</code> if the cache contains a mapping for the key of this entry.
+    *
+    * @return <code>true</code> if the cache contains a mapping for the key of this entry.
+    */
+   boolean exists();
+
+   /**
+    * Sets a new value of this entry. The entry is created if it does not exist.
+    *
+    * @param value the new value.
+    */
+   void setValue(Serializable value);
+
+   /**
+    * Removes this entry from the cache.
+    */
+   void remove();
+}
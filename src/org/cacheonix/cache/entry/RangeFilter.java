@@ -0,0 +1,148 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.cache.entry;
+
+import java.io.Serializable;
+
+/**
+ * A filter that matches entries with an attribute within a range of values. The attribute is compared to the range
+ * bounds using the natural ordering of the bounds.
+ *
+ * @see AttributeExtractor
+ */
+public final class RangeFilter extends IndexedEntryFilter {
+
+   private static final long serialVersionUID = 0L;
+
+   /**
+    * The lower bound or <code>null</code> if the range has no lower bound.
+    */
+   private final Serializable from;
+
+   /**
+    * <code>true</code> if the lower bound is included in the range.
+    */
+   private final boolean fromInclusive;
+
+   /**
+    * The upper bound or <code>null</code> if the range has no upper bound.
+    */
+   private final Serializable to;
+
+   /**
+    * <code>true</code> if the upper bound is included in the range.
+    */
+   private final boolean toInclusive;
+
+
+   /**
+    * Creates RangeFilter.
+    *
+    * @param extractor     the extractor of the tested attribute.
+    * @param from          the lower bound or <code>null</code> if the range has no lower bound. The bound must be
+    *                      <code>Comparable</code> to the attributes.
+    * @param fromInclusive <code>true</code> if the lower bound is included in the range.
+    * @param to            the upper bound or <code>null</code> if the range has no upper bound. The bound must be
+    *                      <code>Comparable</code> to the attributes.
+    * @param toInclusive   <code>true</code> if the upper bound is included in the range.
+    */
+   public RangeFilter(final AttributeExtractor extractor, final Serializable from, final boolean fromInclusive,
+           final Serializable to, final boolean toInclusive) {
+
+      super(extractor);
+      this.from = from;
+      this.fromInclusive = fromInclusive;
+      this.to = to;
+      this.toInclusive = toInclusive;
+   }
+
+
+   /**
+    * Returns the lower bound.
+    *
+    * @return the lower bound or <code>null</code> if the range has no lower bound.
+    */
+   public Serializable getFrom() {
+
+      return from;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the lower bound is included in the range.
+    *
+    * @return <code>true</code> if the lower bound is included in the range.
+    */
+   public boolean isFromInclusive() {
+
+      return fromInclusive;
+   }
+
+
+   /**
+    * Returns the upper bound.
+    *
+    * @return the upper bound or <code>null</code> if the range has no upper bound.
+    */
+   public Serializable getTo() {
+
+      return to;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the upper bound is included in the range.
+    *
+    * @return <code>true</code> if the upper bound is included in the range.
+    */
+   public boolean isToInclusive() {
+
+      return toInclusive;
+   }
+
+
+   @SuppressWarnings("unchecked")
+   public boolean matchesAttribute(final Object attribute) {
+
+      if (from != null) {
+
+         final int result = ((Comparable) from).compareTo(attribute);
+         if (result > 0 || result == 0 && !fromInclusive) {
+            return false;
+         }
+      }
+
+      if (to != null) {
+
+         final int result = ((Comparable) to).compareTo(attribute);
+         if (result < 0 || result == 0 && !toInclusive) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+
+   public String toString() {
+
+      return "RangeFilter{" +
+              "extractor=" + getExtractor() +
+              ", from=" + from +
+              ", fromInclusive=" + fromInclusive +
+              ", to=" + to +
+              ", toInclusive=" + toInclusive +
+              '}';
+   }
+}
@@ -0,0 +1,45 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.cache.executor;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.entry.MutableCacheEntry;
+
+/**
+ * Processes a single cache entry atomically. Cacheonix sends the entry processor to the cluster node that owns the key
+ * and runs it against the stored entry. Only the result of processing travels back to the caller.
+ */
+public interface EntryProcessor extends Serializable {
+
+   /**
+    * Processes a cache entry and returns a result. No other updates to the entry can happen while this method runs.
+    * Changes made to the <code>entry</code> are stored and replicated after this method returns. Changes are discarded
+    * if this method throws an exception.
+    * <p/>
+    * <b>Important:</b> Implementations of this method must not use blocking operations such as I/O. The implementations
+    * of this method must not use any synchronization or access threading APIs. The implementations of this method
+    * should also avoid making any assumptions about the execution environment except the provided <code>entry</code>
+    * because it can and will be executed on any node in the cluster. The method may be called more than once for the
+    * same invocation if the key owner changes while the cluster is reconfiguring.
+    *
+    * @param entry the entry to process.
+    * @return the result of processing. The result may be null if the logic allows for no result.
+    * @see Cache#invoke(Serializable, EntryProcessor)
+    * @see Cache#invokeAll(Set, EntryProcessor)
+    */
+   Serializable process(MutableCacheEntry entry);
+}
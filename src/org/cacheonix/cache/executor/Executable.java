@@ -31,14 +31,19 @@ public interface Executable extends Serializable {
     * cached data that is local to a cluster node it runs on. The final aggregation of the results is performed by an
     * instance of <code>Aggregator</code> provided to <code>execute()</code>.
     * <p/>
+    * A distributed cache calls this method once per batch of at most 1000 entries rather than once per cluster node.
+    * The result of each call is a separate partial result passed to the <code>Aggregator</code>, so the
+    * <code>Aggregator</code> must not assume that there is one partial result per node. A node that holds no matching
+    * entries calls this method once with an empty collection.
+    * <p/>
     * <b>Important:</b> Implementations of this method must not use blocking operations such as I/O. The implementations
     * of this method must not use any synchronization or access threading APIs. The implementations of this method
     * should also avoid making any assumptions about the execution environment except the provided
     * <code>cacheEntries</code> because it can and will be executed on any node in the cluster. If initial set up is
     * required, it should be performed before calling <code>Cache.execute()</code>.
     *
-    * @param cacheEntries a Set of CacheEntries to process. This is a subset of the complete set of cache entries. It
-    *                     resides on the same cluster node that this method runs on.
+    * @param cacheEntries a batch of CacheEntries to process. This is a subset of the cache entries that reside on the
+    *                     same cluster node that this method runs on.
     * @return the result of processing.
     * @see Aggregator
     * @see Cache#execute(Executable, Aggregator)
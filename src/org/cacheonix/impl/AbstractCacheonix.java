@@ -18,6 +18,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -40,6 +41,7 @@ import org.cacheonix.impl.config.SystemProperty;
 import org.cacheonix.impl.util.StringUtils;
 import org.cacheonix.impl.util.exception.ExceptionUtils;
 import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.impl.util.thread.OrderedEventExecutor;
 import org.cacheonix.impl.util.thread.UserThreadFactory;
 
 import static org.cacheonix.impl.config.ConfigurationConstants.CACHE_TEMPLATE_NAME_DEFAULT;
@@ -65,9 +67,17 @@ public abstract class AbstractCacheonix extends Cacheonix {
    private static final Logger LOG = Logger.getLogger(AbstractCacheonix.class); // NOPMD
 
    /**
-    * A single-threaded Executor used to run event notification outside of main processing loop.
+    * The maximum number of executable batches waiting for an executable thread. A running execution has at most one
+    * batch queued per node, so the limit is reached only when too many executions run at once. A rejected batch makes
+    * the request re-submit its buckets.
     */
-   private final ExecutorService eventNotificationExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+   private static final int MAX_QUEUED_EXECUTABLES = 1000;
+
+   /**
+    * An Executor used to run event notification outside of main processing loop. Notifications for different
+    * subscribers run in parallel, notifications for the same subscriber run in order.
+    */
+   private final ExecutorService eventNotificationExecutor = OrderedEventExecutor.createUserEventExecutor("CacheonixEventNotifier");
 
    /**
     * A shutdown hook to be called when a JVM shuts down.
@@ -109,6 +119,11 @@ public abstract class AbstractCacheonix extends Cacheonix {
 
    protected final Timer timer;
 
+   /**
+    * A timer dedicated to updating the clock's coarse time.
+    */
+   private final Timer tickerTimer;
+
    protected final Clock clock;
 
    /**
@@ -117,6 +132,11 @@ public abstract class AbstractCacheonix extends Cacheonix {
     */
    private final ThreadPoolExecutor threadPoolExecutor;
 
+   /**
+    * A thread pool to run user executables outside of the cache processor threads.
+    */
+   private final ThreadPoolExecutor executableExecutor;
+
    /**
     * A scheduler responsible for scheduling prefetch orders.
     */
@@ -136,9 +156,14 @@ public abstract class AbstractCacheonix extends Cacheonix {
       this.cacheConfigMap = createCacheConfigMap(config);
       this.config = config;
       this.timer = new Timer("CacheonixTimer");
-      this.clock = new ClockImpl(1000L).attachTo(timer);
+      this.tickerTimer = new Timer("CacheonixClockTicker", true);
+      final ClockImpl clockImpl = new ClockImpl(1000L);
+      clockImpl.attachTo(timer);
+      clockImpl.attachTickerTo(tickerTimer, ClockImpl.DEFAULT_TICK_PERIOD_MILLIS);
+      this.clock = clockImpl;
       this.threadPoolExecutor = new ThreadPoolExecutor(1, 2, 20, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new UserThreadFactory("CacheonixExecutor"));
       this.prefetchScheduler = new PrefetchScheduler(new PrefetchStageThreadPoolAdapter(threadPoolExecutor));
+      this.executableExecutor = createExecutableExecutor();
    }
 
 
@@ -153,6 +178,17 @@ public abstract class AbstractCacheonix extends Cacheonix {
    }
 
 
+   /**
+    * Timer dedicated to updating the clock's coarse time.
+    *
+    * @return the timer dedicated to updating the clock's coarse time.
+    */
+   protected final Timer getTickerTimer() {
+
+      return tickerTimer;
+   }
+
+
    /**
     * This Cacheonix instance's system clock.
     *
@@ -170,6 +206,34 @@ public abstract class AbstractCacheonix extends Cacheonix {
    }
 
 
+   /**
+    * Returns the thread pool used to run user executables outside of the cache processor threads.
+    *
+    * @return the thread pool used to run user executables outside of the cache processor threads.
+    */
+   protected final ThreadPoolExecutor getExecutableExecutor() {
+
+      return executableExecutor;
+   }
+
+
+   /**
+    * Creates a thread pool to run user executables. The pool has a thread per available processor and a bounded
+    * queue. Idle threads terminate so that a Cacheonix instance that never executes anything does not hold threads.
+    *
+    * @return a new thread pool to run user executables.
+    */
+   private static ThreadPoolExecutor createExecutableExecutor() {
+
+      final int threadCount = Runtime.getRuntime().availableProcessors();
+      final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 20, TimeUnit.SECONDS,
+              new ArrayBlockingQueue<Runnable>(MAX_QUEUED_EXECUTABLES),
+              new UserThreadFactory("CacheonixExecutableExecutor"));
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+   }
+
+
    /**
     * Returns the scheduler responsible for scheduling prefetch orders.
     *
@@ -77,6 +77,7 @@ import org.cacheonix.impl.net.cluster.ClusterProcessorImpl;
 import org.cacheonix.impl.net.cluster.ClusterProcessorKey;
 import org.cacheonix.impl.net.cluster.MulticastClientProcessorKey;
 import org.cacheonix.impl.net.cluster.MulticastMessageListener;
+import org.cacheonix.impl.net.cluster.PhiAccrualFailureDetector;
 import org.cacheonix.impl.net.cluster.ReplicatedStateProcessorKey;
 import org.cacheonix.impl.net.multicast.sender.MulticastSender;
 import org.cacheonix.impl.net.multicast.sender.PlainMulticastSender;
@@ -202,7 +203,7 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
       this.clusterProcessor = createClusterProcessor(clock, timer, router, multicastSender, serverConfig, address,
               initialClusterUUID);
       this.sender = new Sender(address, serverConfig.getSocketTimeoutMillis(),
-              serverConfig.getSelectorTimeoutMillis(), getClock());
+              serverConfig.getSelectorTimeoutMillis(), getClock(), serverConfig.isSeparateBulkConnection());
       this.router.setOutput(sender);
       this.sender.setRouter(router);
    }
@@ -219,7 +220,8 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
 
          return new MulticastServerImpl(multicastConfiguration.getMulticastAddress(),
                  multicastConfiguration.getMulticastPort(),
-                 multicastConfiguration.getMulticastTTL());
+                 multicastConfiguration.getMulticastTTL(),
+                 serverConfig.getClusterConfiguration().getMaximumMulticastPacketSize());
       }
    }
 
@@ -257,13 +259,15 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
             knownReceiverAddresses.add(new ReceiverAddress(receiverTcpAddress, receiverTcpPort));
          }
 
-         return new TCPMulticastSender(router, localAddress, knownReceiverAddresses);
+         return new TCPMulticastSender(router, localAddress, knownReceiverAddresses,
+                 broadcastConfiguration.getKnownAddressFanOut());
       } else {
 
          // This is multicast
          return new PlainMulticastSender(multicastConfiguration.getMulticastAddress(),
                  multicastConfiguration.getMulticastPort(),
-                 multicastConfiguration.getMulticastTTL());
+                 multicastConfiguration.getMulticastTTL(),
+                 serverConfig.getClusterConfiguration().getMaximumMulticastPacketSize());
       }
    }
 
@@ -299,6 +303,7 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
          // Set up cluster processor
          clusterProcessor.subscribeMulticastMessageListener(this);
          clusterProcessor.getProcessorState().setReplicateState(replicatedState);
+         clusterProcessor.getProcessorState().getLockLeaseRegistry().setEnabled(serverConfig.isLockAffinity());
          router.register(MulticastClientProcessorKey.getInstance(), clusterProcessor);
          router.register(ReplicatedStateProcessorKey.getInstance(), clusterProcessor);
          router.register(ClusterProcessorKey.getInstance(), clusterProcessor);
@@ -359,7 +364,11 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
          partitionSizeBytes = fixed == null ? lru.getMaxBytes() : fixed.getMaxBytes();
       }
 
-      postJoinGroupRequest(partitionSizeBytes, true, group.getReplicaCount(), cacheName,
+      // Use the bucket count of the group if the partition has been configured
+      final int bucketCount = group.isPartitionConfigured() ? group.getBucketCount()
+              : createAllTemplate.getStore().getBucketCount();
+
+      postJoinGroupRequest(partitionSizeBytes, true, group.getReplicaCount(), bucketCount, cacheName,
               createAllTemplate.getName(), group.getMaxElements());
    }
 
@@ -385,7 +394,7 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
 
 
    private void postJoinGroupRequest(final long desiredPartitionSize, final boolean partitionContributor,
-           final int desiredReplicaCount, final String cacheName,
+           final int desiredReplicaCount, final int desiredBucketCount, final String cacheName,
            final String cacheConfigName,
            final long desiredMaxElements) {
       // Create request
@@ -396,6 +405,7 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
       announcement.setClusterUUID(clusterProcessor.getProcessorState().getClusterView().getClusterUUID());
       announcement.setCacheConfigName(cacheConfigName);
       announcement.setReplicaCount(desiredReplicaCount);
+      announcement.setBucketCount(desiredBucketCount);
 
       // Post
       clusterProcessor.post(announcement);
@@ -615,13 +625,21 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
       final long clusterSurveyTimeoutMillis = clusterConfiguration.getClusterSurveyTimeoutMillis();
       final long clusterAnnouncementTimeoutMillis = clusterConfiguration.getClusterAnnouncementTimeoutMillis();
       final long gracefulShutdownTimeoutMillis = serverConfig.getGracefulShutdownTimeoutMillis();
+      final int maximumMulticastPacketSize = clusterConfiguration.getMaximumMulticastPacketSize();
       final String clusterName = clusterConfiguration.getName();
 
-      return new ClusterProcessorImpl(clusterName, clock, timer, router, multicastSender, address,
-              homeAloneTimeoutMillis,
-              worstCaseLatencyMillis, gracefulShutdownTimeoutMillis, clusterSurveyTimeoutMillis,
-              clusterAnnouncementTimeoutMillis,
+      final ClusterProcessor clusterProcessor = new ClusterProcessorImpl(clusterName, clock, timer, router,
+              multicastSender, address, homeAloneTimeoutMillis, worstCaseLatencyMillis, gracefulShutdownTimeoutMillis,
+              clusterSurveyTimeoutMillis, clusterAnnouncementTimeoutMillis, maximumMulticastPacketSize,
               initialClusterUUID);
+
+      // Set up adaptive failure detection
+      final double failureDetectorThreshold = clusterConfiguration.getFailureDetectorThreshold();
+      clusterProcessor.getProcessorState().setNeighborFailureDetector(failureDetectorThreshold > 0.0
+              ? new PhiAccrualFailureDetector(failureDetectorThreshold,
+              clusterConfiguration.getFailureDetectorAcceptablePauseMillis()) : null);
+
+      return clusterProcessor;
    }
 
 
@@ -705,11 +723,12 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
       final boolean partitionContributor = cacheConfig.isPartitionContributor();
 
       final int desiredReplicaCount = store.getReplication().getReplicaCount();
+      final int desiredBucketCount = store.getBucketCount();
       final long desiredMaxElements = lru == null ? 0L : lru.getMaxElements();
 
       // Post reliable mcast message to the replicate state
       postJoinGroupRequest(desiredPartitionSize, partitionContributor,
-              desiredReplicaCount, cacheName, cacheConfig.getName(), desiredMaxElements);
+              desiredReplicaCount, desiredBucketCount, cacheName, cacheConfig.getName(), desiredMaxElements);
    }
 
 
@@ -875,9 +894,10 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
 
                // Create cache processor
                final ExecutorService eventNotificationExecutor = getEventNotificationExecutor();
+               final ExecutorService executableExecutor = getExecutableExecutor();
                final PrefetchScheduler prefetchScheduler = getPrefetchScheduler();
                final CacheProcessor newCacheProcessor = new CacheProcessorImpl(timer, clock, prefetchScheduler,
-                       router, eventNotificationExecutor, group, cacheName, address, cacheConfig);
+                       router, eventNotificationExecutor, executableExecutor, group, cacheName, address, cacheConfig);
                newCacheProcessor.startup();
 
                // Register a subscriber to entry modification event subscriber configuration events
@@ -1112,11 +1132,13 @@ public final class DistributedCacheonix extends AbstractCacheonix implements Mul
          // Shutdown prefetch scheduler
          getPrefetchScheduler().shutdown();
 
-         // Shutdown thread pool
+         // Shutdown thread pools
          getThreadPoolExecutor().shutdownNow();
+         getExecutableExecutor().shutdownNow();
 
          // Destroy timer
          getTimer().cancel();
+         getTickerTimer().cancel();
 
          // Terminate event notification executor
          getEventNotificationExecutor().shutdownNow();
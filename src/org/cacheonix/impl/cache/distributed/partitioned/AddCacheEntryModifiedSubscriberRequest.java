@@ -0,0 +1,294 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.subscriber.EntryModifiedSubscriber;
+import org.cacheonix.impl.cache.store.AsynchronousEntryModifiedSubscriberAdapter;
+import org.cacheonix.impl.cache.store.BinaryEntryModifiedSubscriberAdapter;
+import org.cacheonix.impl.cache.store.SafeEntryUpdateSubscriber;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.processor.Request;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.net.processor.RouteByReferenceRequest;
+import org.cacheonix.impl.net.processor.SimpleWaiter;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+import org.cacheonix.impl.util.array.HashSet;
+
+/**
+ * A <b>local</b> cache request to register a cache-wide subscriber in the local <code>CacheProcessor</code> and to
+ * initiate subscription sequence.
+ * <p/>
+ * This request initiates the subscription sequence by posting a reliable mcast message
+ * <code>AddCacheEntryModifiedSubscriptionAnnouncement</code>. The request finishes when all primary bucket owners
+ * have confirmed that they registered the subscription, so that modifications made after the subscription completes
+ * are not missed.
+ * <p/>
+ * This request is sent by <code>PartitionedCache.addCacheEventSubscriber()</code>.
+ *
+ * @see PartitionedCache#addCacheEventSubscriber(EntryFilter, EntryModifiedSubscriber)
+ * @see AddCacheEntryModifiedSubscriptionAnnouncement
+ */
+public final class AddCacheEntryModifiedSubscriberRequest extends LocalCacheRequest implements RouteByReferenceRequest {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * A filter evaluated by bucket owners or <code>null</code> if the subscriber is interested in all entries.
+    */
+   private EntryFilter filter = null;
+
+   /**
+    * A local subscriber as provided by the client. This is a transient field.
+    */
+   private EntryModifiedSubscriber localSubscriber = null;
+
+   private ClusterNodeAddress subscriberAddress = null;
+
+
+   private AddCacheEntryModifiedSubscriberRequest() {
+
+   }
+
+
+   public AddCacheEntryModifiedSubscriberRequest(final String cacheName) {
+
+      super(TYPE_CACHE_ADD_CACHE_ENTRY_MODIFIED_SUBSCRIBER_REQUEST, cacheName);
+   }
+
+
+   /**
+    * Sets a filter evaluated by bucket owners.
+    *
+    * @param filter the filter or <code>null</code> if the subscriber is interested in all entries.
+    */
+   public void setFilter(final EntryFilter filter) {
+
+      this.filter = filter;
+   }
+
+
+   EntryFilter getFilter() {
+
+      return filter;
+   }
+
+
+   /**
+    * Sets the local subscriber as provided by the client.
+    *
+    * @param localSubscriber the local subscriber as provided by the client.
+    */
+   public void setLocalSubscriber(final EntryModifiedSubscriber localSubscriber) {
+
+      this.localSubscriber = localSubscriber;
+   }
+
+
+   EntryModifiedSubscriber getLocalSubscriber() {
+
+      return localSubscriber;
+   }
+
+
+   public void setSubscriberAddress(final ClusterNodeAddress subscriberAddress) {
+
+      this.subscriberAddress = subscriberAddress;
+   }
+
+
+   ClusterNodeAddress getSubscriberAddress() {
+
+      return subscriberAddress;
+   }
+
+
+   protected void executeOperational() {
+
+      final CacheProcessor processor = getCacheProcessor();
+
+      //
+      // Register local receiver of notification messages
+      //
+      final int subscriberIdentity = System.identityHashCode(localSubscriber);
+      final Map<Integer, LocalSubscription> localSubscriptions = processor.getLocalEntryModifiedSubscriptions();
+      LocalSubscription localSubscription = localSubscriptions.get(subscriberIdentity);
+      if (localSubscription == null) {
+
+         // Subscriber not found, create subscription
+         final Executor eventNotificationExecutor = processor.getEventNotificationExecutor();
+         final SafeEntryUpdateSubscriber safeSubscriber = new SafeEntryUpdateSubscriber(localSubscriber);
+         final AsynchronousEntryModifiedSubscriberAdapter asynchronousSubscriber = new AsynchronousEntryModifiedSubscriberAdapter(
+                 eventNotificationExecutor, safeSubscriber);
+         localSubscription = new LocalSubscription();
+         localSubscription.setSubscriber(new BinaryEntryModifiedSubscriberAdapter(asynchronousSubscriber));
+         localSubscriptions.put(subscriberIdentity, localSubscription);
+      }
+      localSubscription.setCacheWide(true);
+
+      //
+      // Send reliable mcast announcement to begin subscription process
+      //
+
+      // Create subscription information
+      final EntryModifiedSubscription subscription = new EntryModifiedSubscription(subscriberIdentity,
+              subscriberAddress, localSubscriber.getNotificationMode(), localSubscriber.getEventContentFlags(),
+              localSubscriber.getModificationTypes(), filter);
+
+      // Wait for confirmations from the subscriber node and the primary bucket owners
+      final HashSet<ClusterNodeAddress> expectedAddresses = new HashSet<ClusterNodeAddress>(3); // NOPMD
+      expectedAddresses.add(subscriberAddress);
+      final int bucketCount = processor.getBucketCount();
+      for (int bucketNumber = 0; bucketNumber < bucketCount; bucketNumber++) {
+
+         final ClusterNodeAddress bucketOwner = processor.getBucketOwner(0, bucketNumber);
+         if (bucketOwner != null) {
+
+            expectedAddresses.add(bucketOwner);
+         }
+      }
+      ((Waiter) getWaiter()).setExpectedAddresses(expectedAddresses);
+
+      // Post announcement
+      processor.post(new AddCacheEntryModifiedSubscriptionAnnouncement(getCacheName(), subscription, getUuid()));
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation simply posts <code>Response.RESULT_RETRY</code>.
+    */
+   protected void executeBlocked() {
+
+      // If the CacheProcessor is in Blocked state, there is a good chance
+      // the reliable multicast is disabled, so it is better simply to wait.
+      getProcessor().post(createResponse(Response.RESULT_RETRY));
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns {@link Waiter}.
+    */
+   protected org.cacheonix.impl.net.processor.Waiter createWaiter() {
+
+      return new Waiter(this);
+   }
+
+
+   public String toString() {
+
+      return "AddCacheEntryModifiedSubscriberRequest{" +
+              "filter=" + filter +
+              ", subscriber=" + localSubscriber +
+              ", subscriberAddress=" + subscriberAddress +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * Waits for success responses from the subscriber node and the primary bucket owners. Finishes immediately if a
+    * response is not a success.
+    */
+   static final class Waiter extends SimpleWaiter {
+
+      /**
+       * Addresses of nodes that have not confirmed the subscription yet.
+       */
+      private HashSet<ClusterNodeAddress> expectedAddresses = null; // NOPMD
+
+
+      /**
+       * Creates waiter.
+       *
+       * @param request the request.
+       */
+      Waiter(final Request request) {
+
+         super(request);
+      }
+
+
+      /**
+       * Sets addresses of nodes that should confirm the subscription.
+       *
+       * @param expectedAddresses the addresses of nodes that should confirm the subscription.
+       */
+      synchronized void setExpectedAddresses(final HashSet<ClusterNodeAddress> expectedAddresses) { // NOPMD
+
+         this.expectedAddresses = expectedAddresses;
+      }
+
+
+      /**
+       * {@inheritDoc}
+       */
+      public synchronized void notifyResponseReceived(final Response response) throws InterruptedException {
+
+         if (response.getResultCode() == Response.RESULT_SUCCESS && expectedAddresses != null) {
+
+            expectedAddresses.remove(response.getSender());
+            if (!expectedAddresses.isEmpty()) {
+
+               // Continue waiting
+               return;
+            }
+         }
+
+         super.notifyResponseReceived(response);
+      }
+
+
+      /**
+       * {@inheritDoc}
+       * <p/>
+       * This implementation stops waiting for the node that left.
+       */
+      public synchronized void notifyNodeLeft(final ClusterNodeAddress address) {
+
+         if (isFinished() || expectedAddresses == null) {
+
+            super.notifyNodeLeft(address);
+            return;
+         }
+
+         expectedAddresses.remove(address);
+         if (expectedAddresses.isEmpty()) {
+
+            finish();
+         }
+      }
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new AddCacheEntryModifiedSubscriberRequest(); // NOPMD
+      }
+   }
+}
@@ -0,0 +1,198 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.cacheonix.impl.cluster.node.state.group.Group;
+import org.cacheonix.impl.cluster.node.state.group.GroupMessage;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.net.processor.UUID;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A reliable totally ordered multicast message to register a cache-wide modification subscription in the replicated
+ * state.
+ * <p/>
+ * Modifying the replicated state notifies <code>EntryEventSubscriptionConfigurationSubscriber</code> at each cache
+ * member that in turn attaches the subscription to the member's primary buckets. Because bucket ownership changes are
+ * ordered with this message, a bucket that moves to a new owner later gets the subscription from the replicated
+ * state.
+ * <p/>
+ * After updating the replicated state, each cache member confirms the subscription to the originating
+ * <code>AddCacheEntryModifiedSubscriberRequest</code>.
+ *
+ * @see AddCacheEntryModifiedSubscriberRequest
+ * @see AddRemoteCacheEntryModifiedSubscriberMessage
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class AddCacheEntryModifiedSubscriptionAnnouncement extends GroupMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * The subscription information.
+    */
+   private EntryModifiedSubscription subscription = null;
+
+   /**
+    * The UUID of the request to respond to at the subscriber node.
+    */
+   private UUID requestUUID = null;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public AddCacheEntryModifiedSubscriptionAnnouncement() {
+
+   }
+
+
+   /**
+    * Creates AddCacheEntryModifiedSubscriptionAnnouncement.
+    *
+    * @param cacheName    a cache name.
+    * @param subscription the subscription information.
+    * @param requestUUID  the UUID of the request to respond to at the subscriber node.
+    */
+   public AddCacheEntryModifiedSubscriptionAnnouncement(final String cacheName,
+                                                        final EntryModifiedSubscription subscription,
+                                                        final UUID requestUUID) {
+
+      super(TYPE_REGISTER_CACHE_SUBSCRIPTION_ANNOUNCEMENT, Group.GROUP_TYPE_CACHE, cacheName);
+      this.subscription = subscription;
+      this.requestUUID = requestUUID;
+   }
+
+
+   EntryModifiedSubscription getSubscription() {
+
+      return subscription;
+   }
+
+
+   UUID getRequestUUID() {
+
+      return requestUUID;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation adds the subscription to the group and confirms the subscription to the originating request if
+    * this node is a member of the cache group. The local cache processor registers the subscription with its buckets
+    * before it processes any request sent after the confirmation.
+    */
+   public void execute() {
+
+      final Group group = getReplicatedState().getGroup(getGroupType(), getGroupName());
+      if (group == null) {
+
+         return;
+      }
+
+      group.addCacheEntryModifiedSubscription(subscription);
+
+      if (group.getGroupMember(getProcessor().getAddress()) != null) {
+
+         final CacheResponse response = new CacheResponse(getGroupName());
+         response.setResponseToClass(AddCacheEntryModifiedSubscriberRequest.class);
+         response.setResponseToUUID(requestUUID);
+         response.setResultCode(Response.RESULT_SUCCESS);
+         response.setReceiver(subscription.getSubscriberAddress());
+         getProcessor().post(response);
+      }
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      subscription.writeWire(out);
+      SerializerUtils.writeUuid(requestUUID, out);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      subscription = new EntryModifiedSubscription();
+      subscription.readWire(in);
+      requestUUID = SerializerUtils.readUuid(in);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final AddCacheEntryModifiedSubscriptionAnnouncement that = (AddCacheEntryModifiedSubscriptionAnnouncement) o;
+
+      if (subscription != null ? !subscription.equals(that.subscription) : that.subscription != null) {
+         return false;
+      }
+      if (requestUUID != null ? !requestUUID.equals(that.requestUUID) : that.requestUUID != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (subscription != null ? subscription.hashCode() : 0);
+      result = 31 * result + (requestUUID != null ? requestUUID.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "AddCacheEntryModifiedSubscriptionAnnouncement{" +
+              "subscription=" + subscription +
+              ", requestUUID=" + requestUUID +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new AddCacheEntryModifiedSubscriptionAnnouncement();
+      }
+   }
+}
@@ -0,0 +1,137 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A local CacheMessage that registers a RemoteEntryModifiedSubscriber for a cache-wide subscription with all primary
+ * buckets owned by the local cache processor.
+ * <p/>
+ * The message is sent by <code>EntryEventSubscriptionConfigurationSubscriber</code> after the cache-wide subscription
+ * is added to the replicated state. Buckets that the cache processor receives later get the subscription from the
+ * replicated state.
+ *
+ * @see EntryEventSubscriptionConfigurationSubscriber#notifyCacheSubscriptionAdded(EntryModifiedSubscription)
+ * @see CacheProcessorImpl#setBucket(int, Integer, Bucket)
+ */
+public final class AddRemoteCacheEntryModifiedSubscriberMessage extends LocalCacheMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * A subscription information.
+    */
+   private EntryModifiedSubscription subscription = null;
+
+
+   /**
+    * Required by Wireable.
+    */
+   private AddRemoteCacheEntryModifiedSubscriberMessage() {
+
+   }
+
+
+   /**
+    * Creates AddRemoteCacheEntryModifiedSubscriberMessage
+    *
+    * @param cacheName a cache name.
+    */
+   public AddRemoteCacheEntryModifiedSubscriberMessage(final String cacheName) {
+
+      super(TYPE_CACHE_ADD_REMOTE_CACHE_SUBSCRIBER_MESSAGE, cacheName);
+   }
+
+
+   /**
+    * Sets a subscription definition.
+    *
+    * @param subscription the subscription definition.
+    */
+   public void setSubscription(final EntryModifiedSubscription subscription) {
+
+      this.subscription = subscription;
+   }
+
+
+   EntryModifiedSubscription getSubscription() {
+
+      return subscription;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation creates a RemoteEntryModifiedSubscriber and sets it to the owned primary buckets.
+    *
+    * @see RemoteEntryModifiedSubscriber
+    */
+   protected void executeOperational() {
+
+      final CacheProcessor cacheProcessor = getCacheProcessor();
+
+      // Create a message-sending subscriber
+      final RemoteEntryModifiedSubscriber subscriber = new RemoteEntryModifiedSubscriber();
+      subscriber.setSubscription(subscription);
+      subscriber.setCacheName(getCacheName());
+      subscriber.setProcessor(cacheProcessor);
+
+      // Add subscriber to the held primary buckets. Ownership is not checked because a bucket that has already
+      // arrived in a transfer may not be owned yet, and CacheProcessorImpl.setBucket() would not see it again.
+      final int bucketCount = cacheProcessor.getBucketCount();
+      for (int bucketNumber = 0; bucketNumber < bucketCount; bucketNumber++) {
+
+         if (cacheProcessor.hasBucket(0, bucketNumber)) {
+
+            cacheProcessor.getBucket(0, bucketNumber).addCacheEventSubscriber(subscription.getSubscriberAddress(),
+                    subscription.getFilter(), subscriber);
+         }
+      }
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   protected void executeBlocked() {
+
+      executeOperational();
+   }
+
+
+   public String toString() {
+
+      return "AddRemoteCacheEntryModifiedSubscriberMessage{" +
+              "subscription=" + subscription +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new AddRemoteCacheEntryModifiedSubscriberMessage(); // NOPMD
+      }
+   }
+}
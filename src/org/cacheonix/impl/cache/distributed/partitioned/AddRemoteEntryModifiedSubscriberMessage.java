@@ -147,7 +147,7 @@ public final class AddRemoteEntryModifiedSubscriberMessage extends LocalCacheMes
          final RemoteEntryModifiedSubscriber subscriber = new RemoteEntryModifiedSubscriber();
          subscriber.setSubscription(subscription);
          subscriber.setCacheName(getCacheName());
-         subscriber.setProcessor(getProcessor());
+         subscriber.setProcessor(cacheProcessor);
 
          // Add subscriber to the bucket
 
@@ -19,27 +19,34 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import org.cacheonix.CacheonixException;
 import org.cacheonix.cache.CacheStatistics;
+import org.cacheonix.cache.entry.AttributeExtractor;
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.entry.IndexedEntryFilter;
 import org.cacheonix.impl.RuntimeIOException;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.cache.item.InvalidObjectException;
 import org.cacheonix.impl.cache.store.BinaryEntryModifiedSubscriber;
 import org.cacheonix.impl.cache.store.BinaryStore;
+import org.cacheonix.impl.cache.store.BinaryStoreElementProcedure;
 import org.cacheonix.impl.cache.store.PreviousValue;
 import org.cacheonix.impl.cache.store.ReadableElement;
 import org.cacheonix.impl.cache.store.SharedCounter;
 import org.cacheonix.impl.clock.Clock;
 import org.cacheonix.impl.clock.Time;
 import org.cacheonix.impl.config.LeaseConfiguration;
+import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
 import org.cacheonix.impl.util.IOUtils;
+import org.cacheonix.impl.util.array.HashMap;
 import org.cacheonix.impl.util.logging.Logger;
 
 /**
@@ -64,6 +71,11 @@ public final class Bucket implements Wireable {
     */
    private static final Logger LOG = Logger.getLogger(Bucket.class); // NOPMD
 
+   /**
+    * The minimum number of key update sequence numbers to hold before forgetting the ones below the update floor.
+    */
+   private static final int MIN_UPDATE_SEQUENCE_PRUNE_SIZE = 1024;
+
    private transient volatile boolean reconfiguring = false;
 
    /**
@@ -88,6 +100,17 @@ public final class Bucket implements Wireable {
     */
    private BinaryStore keyStore = null;
 
+   /**
+    * Sequence numbers of the last replica updates applied to the keys of this bucket. Used only at replica owners to
+    * reject re-submitted updates that were superseded by a later update of the key.
+    */
+   private HashMap<Binary, Time> updateSequences = null; // NOPMD
+
+   /**
+    * The number of update sequence numbers at which the sequence numbers below the update floor are forgotten.
+    */
+   private transient int updateSequencePruneSize = MIN_UPDATE_SEQUENCE_PRUNE_SIZE;
+
 
    /**
     * Required by Externalizable.
@@ -274,12 +297,91 @@ public final class Bucket implements Wireable {
    }
 
 
+   /**
+    * Adds to the <code>keyStore</code> a subscriber to modifications of all entries that match the filter.
+    *
+    * @param subscriberAddress the address of the subscriber's node.
+    * @param filter            the filter or <code>null</code> if the subscriber is interested in all entries.
+    * @param subscriber        the subscriber to add.
+    */
+   public void addCacheEventSubscriber(final ClusterNodeAddress subscriberAddress, final EntryFilter filter,
+           final BinaryEntryModifiedSubscriber subscriber) {
+
+      keyStore.addCacheEventSubscriber(subscriberAddress, filter, subscriber);
+   }
+
+
+   /**
+    * Removes from the <code>keyStore</code> a subscriber to modifications of all entries.
+    *
+    * @param subscriberAddress  the address of the subscriber's node.
+    * @param subscriberIdentity the subscriber identity.
+    * @return <code>true</code> if the subscriber was registered.
+    */
+   public boolean removeCacheEventSubscriber(final ClusterNodeAddress subscriberAddress,
+           final int subscriberIdentity) {
+
+      return keyStore.removeCacheEventSubscriber(subscriberAddress, subscriberIdentity);
+   }
+
+
+   /**
+    * Adds to the <code>keyStore</code> a secondary index of the keys by an attribute of the values. Does nothing if the
+    * <code>keyStore</code> already has an index built by an extractor of the same class.
+    *
+    * @param extractor the extractor of the indexed attribute.
+    */
+   public void addIndex(final AttributeExtractor extractor) {
+
+      keyStore.addIndex(extractor);
+   }
+
+
+   /**
+    * Executes a procedure for each entry that matches an index-aware filter by looking the entries up in the
+    * <code>keyStore</code>'s index.
+    *
+    * @param filter    the filter.
+    * @param procedure the procedure to execute.
+    * @return <code>true</code> if the entries were looked up in the index or <code>false</code> if the
+    *         <code>keyStore</code> does not have an index that can serve the filter.
+    */
+   public boolean forEachEntry(final IndexedEntryFilter filter, final BinaryStoreElementProcedure procedure) {
+
+      return keyStore.forEachEntry(filter, procedure);
+   }
+
+
+   /**
+    * Executes a procedure for each entry of the <code>keyStore</code> that has not expired.
+    *
+    * @param procedure the procedure to execute.
+    */
+   public void forEachEntry(final BinaryStoreElementProcedure procedure) {
+
+      keyStore.forEachEntry(procedure);
+   }
+
+
    public int size() {
 
       return keyStore.size();
    }
 
 
+   /**
+    * Removes elements that have expired.
+    *
+    * @param maxElements the maximum number of due elements to process.
+    * @return the number of due elements processed.
+    * @see BinaryStore#expire(int)
+    */
+   public int expire(final int maxElements) {
+
+      return keyStore.expire(maxElements);
+   }
+
+
    public boolean isReconfiguring() {
 
       return reconfiguring;
@@ -416,6 +518,58 @@ public final class Bucket implements Wireable {
    }
 
 
+   /**
+    * Returns <code>true</code> if a replica update of the key is stale, that is if this bucket has already applied an
+    * update of the key with the same or a greater sequence number.
+    *
+    * @param key      the updated key.
+    * @param sequence the sequence number of the update.
+    * @return <code>true</code> if the replica update is stale.
+    */
+   public boolean isStaleUpdate(final Binary key, final Time sequence) {
+
+      if (updateSequences == null) {
+
+         return false;
+      }
+
+      final Time lastSequence = updateSequences.get(key);
+      return lastSequence != null && lastSequence.compareTo(sequence) >= 0;
+   }
+
+
+   /**
+    * Registers a replica update of the key applied to this bucket. Sequence numbers of keys last updated before the
+    * update floor are forgotten once there are enough of them because updates older than the floor cannot arrive.
+    *
+    * @param key         the updated key.
+    * @param sequence    the sequence number of the update.
+    * @param updateFloor the sequence number of the oldest update of the bucket that the primary owner has not finished.
+    */
+   public void notifyUpdateApplied(final Binary key, final Time sequence, final Time updateFloor) {
+
+      if (updateSequences == null) {
+
+         updateSequences = new HashMap<Binary, Time>(1);
+      }
+
+      updateSequences.put(key, sequence);
+
+      if (updateSequences.size() >= updateSequencePruneSize) {
+
+         for (final Iterator<Time> iterator = updateSequences.values().iterator(); iterator.hasNext(); ) {
+
+            if (iterator.next().compareTo(updateFloor) < 0) {
+
+               iterator.remove();
+            }
+         }
+
+         updateSequencePruneSize = Math.max(MIN_UPDATE_SEQUENCE_PRUNE_SIZE, updateSequences.size() << 1);
+      }
+   }
+
+
    /**
     * Returns expiration time of the read lease.
     *
@@ -464,6 +618,8 @@ public final class Bucket implements Wireable {
    public void transferTo(final Bucket receiverBucket) {
 
       keyStore.transferTo(receiverBucket.keyStore);
+      receiverBucket.updateSequences = updateSequences;
+      updateSequences = null;
    }
 
 
@@ -474,6 +630,18 @@ public final class Bucket implements Wireable {
       bucketNumber = in.readShort();
       keyStore = new BinaryStore();
       keyStore.readWire(in);
+
+      // Update sequences
+      final int updateSequenceCount = in.readInt();
+      if (updateSequenceCount > 0) {
+
+         updateSequences = new HashMap<Binary, Time>(updateSequenceCount);
+         for (int i = 0; i < updateSequenceCount; i++) {
+
+            final Binary key = SerializerUtils.readBinary(in);
+            updateSequences.put(key, SerializerUtils.readTime(in));
+         }
+      }
    }
 
 
@@ -483,6 +651,20 @@ public final class Bucket implements Wireable {
       out.writeLong(leaseDurationMillis);
       out.writeShort(bucketNumber);
       keyStore.writeWire(out);
+
+      // Update sequences
+      if (updateSequences == null) {
+
+         out.writeInt(0);
+      } else {
+
+         out.writeInt(updateSequences.size());
+         for (final Entry<Binary, Time> entry : updateSequences.entrySet()) {
+
+            SerializerUtils.writeBinary(out, entry.getKey());
+            SerializerUtils.writeTime(entry.getValue(), out);
+         }
+      }
    }
 
 
@@ -13,13 +13,14 @@
  */
 package org.cacheonix.impl.cache.distributed.partitioned;
 
-import org.cacheonix.impl.util.hashcode.HashCode;
-import org.cacheonix.impl.util.hashcode.HashCodeType;
 import org.cacheonix.impl.util.logging.Logger;
 
 /**
  * A calculator of a bucket number for an object.
  * <p/>
+ * The calculator mixes the object's hash code with the MurmurHash3 32-bit finalizer so that keys with poorly
+ * distributed hash codes, such as sequential numbers, spread evenly across buckets. The mixed hash is mapped to a bucket
+ * with a multiply-shift instead of a division. The calculator does not allocate objects.
  * <p/>
  *
  * @author <a href="mailto:simeshev@cacheonix.org">Slava Imeshev</a>
@@ -45,7 +46,6 @@ public final class BucketIndexCalculator {
     *
     * @param bucketCount number of buckets, should be the same for all nodes in the cluster.
     */
-   @SuppressWarnings("SameParameterValue")
    public BucketIndexCalculator(final int bucketCount) {
 
       this.bucketCount = bucketCount;
@@ -53,16 +53,58 @@ public final class BucketIndexCalculator {
 
 
    /**
-    * Calculates bucket index based on
+    * Calculates bucket index based on the object's hash code.
     *
     * @param object object for that to calculate bucket index.
     * @return bucket index for this object, from 0 to numberOfBuckets - 1
     */
    public int calculateBucketIndex(final Object object) {
 
-      final HashCode hashCode = new HashCode(HashCodeType.NORMAL);
-      hashCode.add(object.hashCode());
-      return (hashCode.getValue() & 0x7FFFFFFF) % bucketCount;
+      return calculateBucketIndex(object.hashCode(), bucketCount);
+   }
+
+
+   /**
+    * Returns the number of buckets.
+    *
+    * @return the number of buckets.
+    */
+   public int getBucketCount() {
+
+      return bucketCount;
+   }
+
+
+   /**
+    * Calculates bucket index based on a hash code.
+    *
+    * @param hashCode    the hash code of an object for that to calculate bucket index.
+    * @param bucketCount number of buckets.
+    * @return bucket index for this hash code, from 0 to bucketCount - 1
+    */
+   public static int calculateBucketIndex(final int hashCode, final int bucketCount) {
+
+      // Map the mixed hash from [0, 2^32) to [0, bucketCount)
+      return (int) (((long) mix(hashCode) & 0xFFFFFFFFL) * (long) bucketCount >>> 32);
+   }
+
+
+   /**
+    * MurmurHash3 32-bit finalizer. Each bit of the input affects each bit of the result with probability of about one
+    * half.
+    *
+    * @param hashCode the hash code to mix.
+    * @return the mixed hash code.
+    */
+   private static int mix(final int hashCode) {
+
+      int h = hashCode;
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      h ^= h >>> 16;
+      return h;
    }
 
 
@@ -128,14 +128,10 @@ public abstract class BucketSetRequest extends AggregatingRequest {
 
    public PrepareResult prepare() {
 
-      // All root bucket set requests require a full bucket set
+      // Root bucket set requests create the set of buckets to process
       if (isRootRequest()) {
 
-         final int bucketCount = getCacheProcessor().getBucketCount();
-         bucketSet  = new IntHashSet(bucketCount);
-         for (int i = 0; i < bucketCount; i++) {
-            bucketSet.add(i);
-         }
+         bucketSet = createRootBucketSet(getCacheProcessor().getBucketCount());
       }
 
       // Call super
@@ -143,6 +139,23 @@ public abstract class BucketSetRequest extends AggregatingRequest {
    }
 
 
+   /**
+    * Creates a set of bucket numbers the root request should process. This implementation returns a complete bucket
+    * set. Requests that process a part of the cache may override this method.
+    *
+    * @param bucketCount the total number of buckets.
+    * @return the set of bucket numbers the root request should process.
+    */
+   protected IntHashSet createRootBucketSet(final int bucketCount) {
+
+      final IntHashSet result = new IntHashSet(bucketCount);
+      for (int i = 0; i < bucketCount; i++) {
+         result.add(i);
+      }
+      return result;
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -187,6 +200,18 @@ public abstract class BucketSetRequest extends AggregatingRequest {
       //
       final AggregatingResponse response = (AggregatingResponse) createResponse(Response.RESULT_SUCCESS);
       response.setRejectedBuckets(rejectedBuckets);
+
+      //
+      // Complete processing outside of the processor thread if requested. Asynchronous
+      // processing is read-only so there is nothing to replicate or to invalidate.
+      //
+      if (processingResult.isAsynchronous()) {
+
+         processingResult.getAsynchronousProcessing().start(response);
+
+         return;
+      }
+
       response.setResult(processingResult.getResult());
 
       //
@@ -434,6 +459,21 @@ public abstract class BucketSetRequest extends AggregatingRequest {
    // ==================================================================================================================
 
 
+   /**
+    * Processing that produces the result of a bucket set request outside of the processor thread.
+    */
+   protected interface AsynchronousProcessing {
+
+      /**
+       * Starts processing. This method is called on the processor thread. The processing must post the response when
+       * it completes.
+       *
+       * @param response the response to post. The response has the rejected buckets set.
+       */
+      void start(AggregatingResponse response);
+   }
+
+
    /**
     * The object holding result of the call to {@link BucketSetRequest#processBuckets(List)}.
     */
@@ -449,6 +489,11 @@ public abstract class BucketSetRequest extends AggregatingRequest {
        */
       private List<Bucket> modifiedBuckets = null;
 
+      /**
+       * Processing to complete outside of the processor thread or null if the result is already known.
+       */
+      private AsynchronousProcessing asynchronousProcessing = null;
+
 
       /**
        * Creates new result.
@@ -463,6 +508,40 @@ public abstract class BucketSetRequest extends AggregatingRequest {
       }
 
 
+      /**
+       * Creates a result that is produced by processing outside of the processor thread. The processing must access
+       * buckets only on the processor thread and must not modify the cache.
+       *
+       * @param asynchronousProcessing the processing that produces the result.
+       */
+      public ProcessingResult(final AsynchronousProcessing asynchronousProcessing) {
+
+         this.asynchronousProcessing = asynchronousProcessing;
+      }
+
+
+      /**
+       * Returns <code>true</code> if the result should be produced by processing outside of the processor thread.
+       *
+       * @return <code>true</code> if the result should be produced by processing outside of the processor thread.
+       */
+      public boolean isAsynchronous() {
+
+         return asynchronousProcessing != null;
+      }
+
+
+      /**
+       * Returns the processing to complete outside of the processor thread.
+       *
+       * @return the processing to complete outside of the processor thread or null if the result is already known.
+       */
+      public AsynchronousProcessing getAsynchronousProcessing() {
+
+         return asynchronousProcessing;
+      }
+
+
       /**
        * Returns true if has a non-null, non-empty set of modified bucket numbers.
        *
@@ -501,6 +580,7 @@ public abstract class BucketSetRequest extends AggregatingRequest {
          return "Result{" +
                  "result=" + result +
                  ", modifiedBuckets=" + StringUtils.sizeToString(modifiedBuckets) +
+                 ", asynchronousProcessing=" + asynchronousProcessing +
                  '}';
       }
    }
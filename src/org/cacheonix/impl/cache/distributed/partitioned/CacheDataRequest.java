@@ -169,6 +169,35 @@ public abstract class CacheDataRequest extends CacheRequest {
    }
 
 
+   /**
+    * Extends the lease of the bucket to a full lease duration from now, bounded by the element's time to live. Unlike
+    * {@link #renewLease(Bucket, Time)}, the lease is extended even if it has not expired yet. This allows refreshing a
+    * cached element before its lease expires.
+    *
+    * @param bucket                    the bucket the element belongs to.
+    * @param desiredLeaseExtensionTime element's time to live.
+    * @return new lease time for the element.
+    */
+   final Time extendLease(final Bucket bucket, final Time desiredLeaseExtensionTime) {
+
+      final Time currentTime = getProcessor().getClock().currentTime();
+      Time newLeaseExpirationTime = currentTime.add(bucket.getLeaseDurationMillis());
+      if (desiredLeaseExtensionTime != null && newLeaseExpirationTime.compareTo(desiredLeaseExtensionTime) > 0) {
+
+         // New lease time is too long
+         newLeaseExpirationTime = desiredLeaseExtensionTime;
+      }
+
+      final Time leaseExpirationTime = bucket.getLeaseExpirationTime();
+      if (leaseExpirationTime == null || leaseExpirationTime.compareTo(newLeaseExpirationTime) < 0) {
+
+         bucket.setLeaseExpirationTime(newLeaseExpirationTime);
+      }
+
+      return newLeaseExpirationTime;
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -73,6 +73,9 @@ public final class CacheNodeLeftMessage extends LocalCacheMessage {
       // Notify waiters
       processor.notifyNodeLeft(leftAddress);
 
+      // Forget replication lag of the node. Notifying waiters has re-submitted its pending updates to new owners.
+      processor.getReplicationLagTracker().removeReplicaOwner(leftAddress);
+
       // Clear local cache
       final FrontCache frontCache = processor.getFrontCache();
       if (frontCache != null) {
@@ -1,10 +1,12 @@
 package org.cacheonix.impl.cache.distributed.partitioned;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
 import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.entry.AttributeExtractor;
 import org.cacheonix.cache.subscriber.EntryModifiedSubscriber;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.cache.store.BinaryEntryModifiedSubscriberAdapter;
@@ -60,6 +62,13 @@ public interface CacheProcessor extends RequestProcessor {
     */
    Executor getEventNotificationExecutor();
 
+   /**
+    * Returns an executor used to run user executables outside of the processor's loop.
+    *
+    * @return the executor used to run user executables outside of the processor's loop.
+    */
+   Executor getExecutableExecutor();
+
    FrontCache getFrontCache();
 
    ClusterNodeAddress getBucketOwner(int storageNumber, int bucketNumber);
@@ -72,6 +81,43 @@ public interface CacheProcessor extends RequestProcessor {
 
    int getReplicaCount();
 
+   /**
+    * Returns the number of replicas that must apply a write before the primary owner responds to the write. The rest of
+    * the replicas are updated asynchronously.
+    *
+    * @return the number of replicas that must apply a write before the primary owner responds to the write.
+    */
+   int getAcknowledgedReplicaCount();
+
+   /**
+    * Returns a tracker of asynchronous replica updates posted by this cache processor.
+    *
+    * @return the tracker of asynchronous replica updates posted by this cache processor.
+    */
+   ReplicationLagTracker getReplicationLagTracker();
+
+   /**
+    * Returns a tracker of read rates of keys served by this cache processor as a primary owner.
+    *
+    * @return the tracker of read rates of keys served by this cache processor as a primary owner.
+    */
+   HotKeyTracker getHotKeyTracker();
+
+   /**
+    * Returns a batcher of entry modification events sent by this cache processor to remote subscribers.
+    *
+    * @return the batcher of entry modification events sent by this cache processor to remote subscribers.
+    */
+   EntryModifiedNotificationBatcher getEntryModifiedNotificationBatcher();
+
+   /**
+    * Returns the extractors of the secondary indexes configured for the cache. Primary buckets held by this cache
+    * processor maintain an index for each extractor.
+    *
+    * @return the extractors of the secondary indexes configured for the cache.
+    */
+   List<AttributeExtractor> getIndexExtractors();
+
    int getBucketCount();
 
    /**
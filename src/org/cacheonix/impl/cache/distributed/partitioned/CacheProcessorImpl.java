@@ -14,13 +14,20 @@
 package org.cacheonix.impl.cache.distributed.partitioned;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.Executor;
 
+import org.cacheonix.CacheonixException;
+import org.cacheonix.ShutdownException;
 import org.cacheonix.cache.datastore.DataStore;
+import org.cacheonix.cache.entry.AttributeExtractor;
 import org.cacheonix.cache.invalidator.CacheInvalidator;
 import org.cacheonix.cache.subscriber.EntryModifiedSubscriber;
 import org.cacheonix.impl.cache.datasource.BinaryStoreDataSource;
@@ -44,12 +51,16 @@ import org.cacheonix.impl.cluster.node.state.group.Group;
 import org.cacheonix.impl.config.DataSourceConfiguration;
 import org.cacheonix.impl.config.DataStoreConfiguration;
 import org.cacheonix.impl.config.FrontCacheConfiguration;
+import org.cacheonix.impl.config.IndexConfiguration;
 import org.cacheonix.impl.config.InvalidatorConfiguration;
 import org.cacheonix.impl.config.OverflowToDiskConfiguration;
 import org.cacheonix.impl.config.PartitionedCacheConfiguration;
+import org.cacheonix.impl.config.PartitionedCacheStoreConfiguration;
 import org.cacheonix.impl.config.PropertyConfiguration;
+import org.cacheonix.impl.config.ReplicationConfiguration;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.AbstractRequestProcessor;
+import org.cacheonix.impl.net.processor.Command;
 import org.cacheonix.impl.net.processor.Router;
 import org.cacheonix.impl.util.ArgumentValidator;
 import org.cacheonix.impl.util.Assert;
@@ -59,9 +70,9 @@ import org.cacheonix.impl.util.array.HashSet;
 import org.cacheonix.impl.util.array.IntObjectHashMap;
 import org.cacheonix.impl.util.array.ObjectObjectProcedure;
 import org.cacheonix.impl.util.array.ObjectProcedure;
+import org.cacheonix.impl.util.exception.ExceptionUtils;
 import org.cacheonix.impl.util.logging.Logger;
 
-import static org.cacheonix.impl.config.ConfigurationConstants.BUCKET_COUNT;
 import static org.cacheonix.impl.config.ConfigurationConstants.STORAGE_FILE_EXTENSION;
 import static org.cacheonix.impl.config.ConfigurationConstants.STORAGE_FILE_PREFIX;
 
@@ -81,6 +92,16 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
     */
    private static final Logger LOG = Logger.getLogger(CacheProcessor.class); // NOPMD
 
+   /**
+    * A period of removing expired elements from buckets that are not written to.
+    */
+   private static final long EXPIRATION_PERIOD_MILLIS = 1000L;
+
+   /**
+    * The maximum number of due elements to process per bucket per expiration period.
+    */
+   private static final int MAX_EXPIRED_ELEMENTS_PER_BUCKET = 1000;
+
    /**
     * An object size calculator.
     */
@@ -92,14 +113,14 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
    private final DummyObjectSizeCalculator dummyObjectSizeCalculator = new DummyObjectSizeCalculator();
 
    /**
-    * Bucket index calculator.
+    * The executor used to execute event notifications outside of the processor's loop.
     */
-   private final BucketIndexCalculator bucketCalculator = new BucketIndexCalculator(BUCKET_COUNT);
+   private final Executor eventNotificationExecutor;
 
    /**
-    * The executor used to execute event notifications outside of the processor's loop.
+    * The executor used to run user executables outside of the processor's loop.
     */
-   private final Executor eventNotificationExecutor;
+   private final Executor executableExecutor;
 
 
    /**
@@ -153,10 +174,40 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
 
    private int state = STATE_OPERATIONAL;
 
-   private final FrontCache frontCache;
+   /**
+    * The front cache. The front cache is created when the first partition contributor has configured the partition.
+    *
+    * @see #getFrontCache()
+    */
+   private FrontCache frontCache = null;
 
    private final BinaryStoreDataSource dataSource;
 
+   /**
+    * Tracks asynchronous replica updates.
+    */
+   private final ReplicationLagTracker replicationLagTracker;
+
+   /**
+    * Tracks read rates of keys and detects hot keys.
+    */
+   private final HotKeyTracker hotKeyTracker;
+
+   /**
+    * Accumulates entry modification events sent to remote subscribers.
+    */
+   private final EntryModifiedNotificationBatcher entryModifiedNotificationBatcher;
+
+   /**
+    * Extractors of the configured secondary indexes.
+    */
+   private final List<AttributeExtractor> indexExtractors;
+
+   /**
+    * A periodic task that removes expired elements. Set at startup.
+    */
+   private ExpirationTask expirationTask = null;
+
 
    /**
     * Constructs a distributed cache.
@@ -166,6 +217,7 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
     * @param prefetchStage             a scheduler responsible for scheduling prefetch orders.
     * @param router                    a router.
     * @param eventNotificationExecutor an executor for event notifications.
+    * @param executableExecutor        an executor for user executables.
     * @param group                     a group.
     * @param cacheName                 a cache name.
     * @param address                   local address.
@@ -173,14 +225,14 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
     * @throws StorageException if a storage error occured.
     */
    public CacheProcessorImpl(final Timer timer, final Clock clock, final PrefetchStage prefetchStage,
-           final Router router, final Executor eventNotificationExecutor, final Group group,
-           final String cacheName, final ClusterNodeAddress address,
+           final Router router, final Executor eventNotificationExecutor, final Executor executableExecutor,
+           final Group group, final String cacheName, final ClusterNodeAddress address,
            final PartitionedCacheConfiguration cacheConfig) throws StorageException {
 
       super(clock, timer, "CacheProcessor:" + address.getTcpPort(), address, router);
       this.eventNotificationExecutor = eventNotificationExecutor;
+      this.executableExecutor = executableExecutor;
       this.group = group;
-      this.frontCache = createFrontCache(cacheConfig.getFrontCacheConfiguration());
       this.cacheName = ArgumentValidator.validateArgumentNotBlank(cacheName, "cacheName");
       this.cacheConfig = cacheConfig;
       this.dataSource = createDataSource(cacheName, cacheConfig, prefetchStage, getRouter(), getClock());
@@ -189,6 +241,13 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
       this.bucketStorages = createLocalBucketsStorage(group.getReplicaCount());
       this.byteCounter = new SharedCounter(group.getPartitionSizeBytes());
       this.elementCounter = new SharedCounter(group.getMaxElements());
+      this.replicationLagTracker = new ReplicationLagTracker(cacheConfig.isPartitionContributor()
+              ? cacheConfig.getStore().getReplication().getMaxReplicationLagMillis()
+              : ReplicationConfiguration.DEFAULT_MAX_REPLICATION_LAG_MILLIS);
+      this.hotKeyTracker = new HotKeyTracker(cacheConfig.isPartitionContributor()
+              ? cacheConfig.getStore().getHotKeyThreshold() : 0, HotKeyTracker.DEFAULT_SKETCH_SIZE);
+      this.entryModifiedNotificationBatcher = createEntryModifiedNotificationBatcher(cacheConfig);
+      this.indexExtractors = createIndexExtractors(cacheName, cacheConfig);
    }
 
 
@@ -216,8 +275,20 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
    }
 
 
+   public Executor getExecutableExecutor() {
+
+      return executableExecutor;
+   }
+
+
    public FrontCache getFrontCache() {
 
+      // The front cache is organized by buckets so it cannot be created before the bucket count is known
+      if (frontCache == null && group.isPartitionConfigured()) {
+
+         frontCache = createFrontCache(cacheConfig.getFrontCacheConfiguration());
+      }
+
       return frontCache;
    }
 
@@ -262,7 +333,7 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
 
    public int getBucketNumber(final Binary key) {
 
-      return bucketCalculator.calculateBucketIndex(key);
+      return BucketIndexCalculator.calculateBucketIndex(key.hashCode(), group.getBucketCount());
    }
 
 
@@ -272,6 +343,38 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
    }
 
 
+   public int getAcknowledgedReplicaCount() {
+
+      // NOTE: The replica count is agreed upon cluster-wide by the group while the acknowledgement
+      // is a local setting of the primary owner, so it cannot exceed the number of replicas.
+      return Math.min(getReplicaCount(), cacheConfig.getStore().getReplication().getAcknowledgedReplicaCount());
+   }
+
+
+   public ReplicationLagTracker getReplicationLagTracker() {
+
+      return replicationLagTracker;
+   }
+
+
+   public HotKeyTracker getHotKeyTracker() {
+
+      return hotKeyTracker;
+   }
+
+
+   public EntryModifiedNotificationBatcher getEntryModifiedNotificationBatcher() {
+
+      return entryModifiedNotificationBatcher;
+   }
+
+
+   public List<AttributeExtractor> getIndexExtractors() {
+
+      return indexExtractors;
+   }
+
+
    public int getBucketCount() {
 
       return group.getBucketCount();
@@ -320,6 +423,12 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
       // Set entry modification subscribers
       if (primaryStorage) {
 
+         // Index the bucket. Indexes are not transferred with the bucket.
+         for (final AttributeExtractor indexExtractor : indexExtractors) {
+
+            bucket.addIndex(indexExtractor);
+         }
+
          // REVIEWME: simeshev@cacheonix.org - 2011-02-09 -> Possibility of ConcurrentModificationException. Switch
          // to creating a replicated copy of the modification subscriptions at each CacheProcessor. The try/catch
          // block is only a temp solution.
@@ -361,6 +470,17 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
 
             LOG.error("Failed to add subscribers to bucket " + bucket + " at storage " + storageNumber + ": " + e, e);
          }
+
+         // Set cache-wide subscribers
+         for (final EntryModifiedSubscription subscription : group.getCacheEntryModifiedSubscriptions()) {
+
+            final RemoteEntryModifiedSubscriber subscriber = new RemoteEntryModifiedSubscriber();
+            subscriber.setSubscription(subscription);
+            subscriber.setCacheName(getCacheName());
+            subscriber.setProcessor(this);
+
+            bucket.addCacheEventSubscriber(subscription.getSubscriberAddress(), subscription.getFilter(), subscriber);
+         }
       }
 
       return bucketStorages[storageNumber].put(bucketNumber, bucket);
@@ -429,6 +549,45 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
    }
 
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation extends the default behaviour by scheduling periodic removal of expired elements.
+    */
+   public void startup() {
+
+      super.startup();
+
+      expirationTask = new ExpirationTask();
+      getTimer().schedule(expirationTask, EXPIRATION_PERIOD_MILLIS, EXPIRATION_PERIOD_MILLIS);
+   }
+
+
+   /**
+    * Removes elements that have expired from the primary and replica buckets held by this processor. Puts remove a
+    * few expired elements each, so buckets that are only read would otherwise keep expired elements until they are
+    * accessed.
+    */
+   void expireBuckets() {
+
+      for (final IntObjectHashMap<Bucket> bucketStorage : bucketStorages) {
+
+         if (bucketStorage == null) {
+            continue;
+         }
+
+         bucketStorage.forEachValue(new ObjectProcedure<Bucket>() {
+
+            public boolean execute(final Bucket bucket) {
+
+               bucket.expire(MAX_EXPIRED_ELEMENTS_PER_BUCKET);
+               return true;
+            }
+         });
+      }
+   }
+
+
    /**
     * {@inheritDoc}
     * <p/>
@@ -438,6 +597,11 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
 
       try {
 
+         if (expirationTask != null) {
+
+            expirationTask.cancel();
+         }
+
          super.shutdown();
       } finally {
 
@@ -445,6 +609,7 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
          destroyBucketStorages();
          destroyFrontCache();
          destroyEntryModifiedSubscriptions();
+         entryModifiedNotificationBatcher.shutdown();
       }
    }
 
@@ -624,7 +789,111 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
     */
    private FrontCache createFrontCache(final FrontCacheConfiguration frontCacheConfiguration) {
 
-      return frontCacheConfiguration == null ? null : new FrontCacheImpl(getClock(), frontCacheConfiguration);
+      return frontCacheConfiguration == null ? null : new FrontCacheImpl(getClock(), group.getBucketCount(),
+              frontCacheConfiguration);
+   }
+
+
+   /**
+    * Creates extractors of the secondary indexes configured for the cache.
+    *
+    * @param cacheName   the cache name.
+    * @param cacheConfig the cache configuration.
+    * @return the list of extractors. The list is empty if the cache member does not contribute to the partition.
+    */
+   private static List<AttributeExtractor> createIndexExtractors(final String cacheName,
+           final PartitionedCacheConfiguration cacheConfig) {
+
+      if (!cacheConfig.isPartitionContributor()) {
+
+         return Collections.emptyList();
+      }
+
+      final List<IndexConfiguration> indexConfigurations = cacheConfig.getStore().getIndexes();
+      final List<AttributeExtractor> result = new ArrayList<AttributeExtractor>(indexConfigurations.size());
+      for (final IndexConfiguration indexConfiguration : indexConfigurations) {
+
+         final String className = indexConfiguration.getClassName();
+         try {
+
+            final Class<?> clazz = Class.forName(className);
+            if (!AttributeExtractor.class.isAssignableFrom(clazz)) {
+
+               throw new CacheonixException("Class " + className + " configured as an index extractor for cache "
+                       + cacheName + " does not implement interface " + AttributeExtractor.class.getName());
+            }
+
+            result.add((AttributeExtractor) clazz.getConstructor().newInstance());
+         } catch (final CacheonixException e) {
+
+            throw e;
+         } catch (final Exception e) {
+
+            throw new CacheonixException("Cannot create index extractor " + className + " for cache " + cacheName
+                    + ": " + e, e);
+         }
+      }
+
+      return Collections.unmodifiableList(result);
+   }
+
+
+   /**
+    * Creates a batcher of entry modification events. Only partition contributors send entry modification events, so
+    * the batcher of a cache member that does not contribute to the partition never accumulates events.
+    *
+    * @param cacheConfig the cache configuration.
+    * @return the new batcher of entry modification events.
+    */
+   private EntryModifiedNotificationBatcher createEntryModifiedNotificationBatcher(
+           final PartitionedCacheConfiguration cacheConfig) {
+
+      if (!cacheConfig.isPartitionContributor()) {
+
+         return new EntryModifiedNotificationBatcher(this, 0L, 1, false);
+      }
+
+      final PartitionedCacheStoreConfiguration storeConfig = cacheConfig.getStore();
+      return new EntryModifiedNotificationBatcher(this, storeConfig.getEventBatchWindowMillis(),
+              storeConfig.getEventBatchSize(), storeConfig.isEventCoalescing());
+   }
+
+
+   /**
+    * A timer task that enqueues a command to remove expired elements to the processor.
+    */
+   private final class ExpirationTask extends TimerTask {
+
+      public void run() {
+
+         try {
+            if (!isShutdown()) {
+               enqueue(new ExpirationCommand());
+            }
+         } catch (final InterruptedException e) {
+            ExceptionUtils.ignoreException(e, "Nothing we can do");
+         } catch (final ShutdownException e) {
+            ExceptionUtils.ignoreException(e, "Processor is shutdown");
+         }
+      }
+   }
+
+
+   /**
+    * A command that removes expired elements in the processor thread.
+    */
+   private final class ExpirationCommand implements Command {
+
+      public void execute() {
+
+         expireBuckets();
+      }
+
+
+      public String toString() {
+
+         return "ExpirationCommand{cacheName='" + cacheName + "'}";
+      }
    }
 
 
@@ -638,7 +907,9 @@ public final class CacheProcessorImpl extends AbstractRequestProcessor implement
               ", byteCounter=" + byteCounter +
               ", state=" + state +
               ", bucketStorages=" + (bucketStorages == null ? null : bucketStorages.length) +
-              ", bucketCalculator=" + bucketCalculator +
+              ", replicationLagTracker=" + replicationLagTracker +
+              ", hotKeyTracker=" + hotKeyTracker +
+              ", entryModifiedNotificationBatcher=" + entryModifiedNotificationBatcher +
               ", cacheConfig=" + cacheConfig +
               ", diskStorages=" + (diskStorages == null ? null : Arrays.asList(diskStorages)) +
               ", localEntryModifiedSubscriptions=" + localEntryModifiedSubscriptions +
@@ -23,6 +23,10 @@ import org.cacheonix.impl.util.logging.Logger;
 /**
  * An implementation of CacheEntry used by distributed cached.
  * <p/>
+ * The key and the value are deserialized lazily and at most once, so an entry filter, an extractor and an executable
+ * that read the same entry share a single copy, and the value of an entry that is only inspected by key is never
+ * deserialized.
+ * <p/>
  *
  * @author <a href="mailto:simeshev@cacheonix.org">Slava Imeshev</a>
  * @see KeySetRequest#processKeys(List)
@@ -42,6 +46,18 @@ final class DistributedCacheEntry implements CacheEntry {
 
    private final Binary value;
 
+   /**
+    * The deserialized key or <code>null</code> if the key has not been deserialized yet.
+    */
+   private Object keyObject = null;
+
+   /**
+    * The deserialized value. Valid only if {@link #valueDeserialized} is <code>true</code>.
+    */
+   private Object valueObject = null;
+
+   private boolean valueDeserialized = false;
+
    /**
     * Time the element was created.
     */
@@ -64,13 +80,22 @@ final class DistributedCacheEntry implements CacheEntry {
 
    public Object getKey() {
 
-      return key.getValue();
+      if (keyObject == null) {
+
+         keyObject = key.getValue();
+      }
+      return keyObject;
    }
 
 
    public Object getValue() {
 
-      return value.getValue();
+      if (!valueDeserialized) {
+
+         valueObject = value.getValue();
+         valueDeserialized = true;
+      }
+      return valueObject;
    }
 
 
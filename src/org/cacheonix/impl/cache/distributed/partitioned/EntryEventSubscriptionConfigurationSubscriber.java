@@ -138,6 +138,64 @@ public final class EntryEventSubscriptionConfigurationSubscriber {
    }
 
 
+   /**
+    * Notifies this subscriber that a cache-wide subscription was added.
+    * <p/>
+    * This implementation posts <code>AddRemoteCacheEntryModifiedSubscriberMessage</code> to the local processor in
+    * order to add the subscription to its primary buckets.
+    *
+    * @param subscription the subscription.
+    * @see AddRemoteCacheEntryModifiedSubscriberMessage#executeOperational()
+    */
+   public void notifyCacheSubscriptionAdded(final EntryModifiedSubscription subscription) {
+
+      try {
+
+         // Post message
+         final AddRemoteCacheEntryModifiedSubscriberMessage message = new AddRemoteCacheEntryModifiedSubscriberMessage(
+                 cacheName);
+         message.setReceiver(processor.getAddress());
+         message.setSubscription(subscription);
+         processor.post(message);
+      } catch (final Exception e) {
+
+         // This is a synchronous call from replicated
+         // state,  so log and ignore the exception.
+
+         LOG.error("Unexpected error while processing notifyCacheSubscriptionAdded(): " + e, e);
+      }
+   }
+
+
+   /**
+    * Notifies this subscriber that a cache-wide subscription was removed.
+    * <p/>
+    * This implementation posts <code>RemoveRemoteCacheEntryModifiedSubscriberMessage</code> to the local processor in
+    * order to remove the subscription from its primary buckets.
+    *
+    * @param subscription the subscription.
+    */
+   public void notifyCacheSubscriptionRemoved(final EntryModifiedSubscription subscription) {
+
+      try {
+
+         // Post message
+         final RemoveRemoteCacheEntryModifiedSubscriberMessage message = new RemoveRemoteCacheEntryModifiedSubscriberMessage(
+                 cacheName);
+         message.setReceiver(processor.getAddress());
+         message.setSubscriberAddress(subscription.getSubscriberAddress());
+         message.setSubscriberIdentity(subscription.getSubscriberIdentity());
+         processor.post(message);
+      } catch (final Exception e) {
+
+         // This is a synchronous call from replicated
+         // state,  so log and ignore the exception.
+
+         LOG.error("Unexpected error while processing notifyCacheSubscriptionRemoved(): " + e, e);
+      }
+   }
+
+
    public String toString() {
 
       return "EntryEventSubscriptionConfigurationSubscriber{" +
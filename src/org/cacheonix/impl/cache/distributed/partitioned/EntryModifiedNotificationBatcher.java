@@ -0,0 +1,383 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimerTask;
+
+import org.cacheonix.ShutdownException;
+import org.cacheonix.cache.subscriber.EntryModifiedNotificationMode;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.cache.subscriber.BinaryEntryModifiedEvent;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.processor.Command;
+import org.cacheonix.impl.util.array.HashMap;
+import org.cacheonix.impl.util.array.IntObjectHashMap;
+import org.cacheonix.impl.util.array.ObjectProcedure;
+import org.cacheonix.impl.util.exception.ExceptionUtils;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * Accumulates entry modification events that a primary bucket owner sends to remote subscribers.
+ * <p/>
+ * Every bucket has its own <code>RemoteEntryModifiedSubscriber</code>, so without accumulation a burst of updates
+ * produces a notification message per modification. The batcher collects events for subscribers that requested
+ * {@link EntryModifiedNotificationMode#BATCH} notifications from all buckets of the cache processor and sends them as a
+ * single message per subscriber when the batch window closes or when the batch reaches its max size. If coalescing is
+ * enabled, a newer event for a key replaces the pending event for the same key.
+ * <p/>
+ * The batcher is accessed from the cache processor thread only. A flush is scheduled on the processor's timer that
+ * enqueues a flush command back to the processor.
+ *
+ * @see RemoteEntryModifiedSubscriber#notifyKeysUpdated(List)
+ */
+public final class EntryModifiedNotificationBatcher {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(EntryModifiedNotificationBatcher.class); // NOPMD
+
+   /**
+    * The cache processor that owns this batcher.
+    */
+   private final CacheProcessor processor;
+
+   /**
+    * A time to accumulate events before sending them. Zero disables accumulation.
+    */
+   private final long windowMillis;
+
+   /**
+    * A max number of events in a batch. A batch that reaches this size is sent immediately.
+    */
+   private final int maxBatchSize;
+
+   /**
+    * If true, a newer event for a key replaces the pending event for the same key.
+    */
+   private final boolean coalescing;
+
+   /**
+    * Pending batches by subscriber address and subscriber identity.
+    */
+   private final HashMap<ClusterNodeAddress, IntObjectHashMap<Batch>> batches = new HashMap<ClusterNodeAddress, IntObjectHashMap<Batch>>(1);
+
+   /**
+    * A scheduled flush or null if there is no flush scheduled.
+    */
+   private FlushTask flushTask = null;
+
+
+   /**
+    * Creates EntryModifiedNotificationBatcher.
+    *
+    * @param processor    the cache processor that owns this batcher.
+    * @param windowMillis a time to accumulate events before sending them. Zero disables accumulation.
+    * @param maxBatchSize a max number of events in a batch.
+    * @param coalescing   true if a newer event for a key should replace the pending event for the same key.
+    */
+   EntryModifiedNotificationBatcher(final CacheProcessor processor, final long windowMillis, final int maxBatchSize,
+           final boolean coalescing) {
+
+      this.processor = processor;
+      this.windowMillis = windowMillis;
+      this.maxBatchSize = maxBatchSize;
+      this.coalescing = coalescing;
+   }
+
+
+   /**
+    * Returns <code>true</code> if this batcher accumulates events.
+    *
+    * @return <code>true</code> if this batcher accumulates events.
+    */
+   boolean isEnabled() {
+
+      return windowMillis > 0L;
+   }
+
+
+   /**
+    * Submits events for a subscriber. The events are sent immediately if accumulation is disabled or if the subscriber
+    * requested single notifications. Otherwise, the events are added to the subscriber's pending batch.
+    *
+    * @param subscription the subscription to send the events to.
+    * @param events       the events to send.
+    */
+   public void submit(final EntryModifiedSubscription subscription, final List<BinaryEntryModifiedEvent> events) {
+
+      if (!isEnabled() || !EntryModifiedNotificationMode.BATCH.equals(subscription.getNotificationMode())) {
+
+         post(subscription, events);
+         return;
+      }
+
+      // Find the batch
+      final ClusterNodeAddress subscriberAddress = subscription.getSubscriberAddress();
+      IntObjectHashMap<Batch> addressBatches = batches.get(subscriberAddress);
+      if (addressBatches == null) {
+
+         addressBatches = new IntObjectHashMap<Batch>(1);
+         batches.put(subscriberAddress, addressBatches);
+      }
+
+      final int subscriberIdentity = subscription.getSubscriberIdentity();
+      Batch batch = addressBatches.get(subscriberIdentity);
+      if (batch == null) {
+
+         batch = new Batch(subscription, coalescing);
+         addressBatches.put(subscriberIdentity, batch);
+      }
+
+      batch.addAll(events);
+
+      // Send the batch if it is full
+      if (batch.size() >= maxBatchSize) {
+
+         post(subscription, batch.getEvents());
+         addressBatches.remove(subscriberIdentity);
+         if (addressBatches.isEmpty()) {
+
+            batches.remove(subscriberAddress);
+         }
+      }
+
+      // Schedule a flush
+      if (flushTask == null && !batches.isEmpty()) {
+
+         flushTask = new FlushTask();
+         processor.getTimer().schedule(flushTask, windowMillis);
+      }
+   }
+
+
+   /**
+    * Sends all pending batches.
+    */
+   void flush() {
+
+      cancelFlushTask();
+
+      if (batches.isEmpty()) {
+         return;
+      }
+
+      for (final IntObjectHashMap<Batch> addressBatches : batches.values()) {
+
+         addressBatches.forEachValue(new ObjectProcedure<Batch>() {
+
+            public boolean execute(final Batch batch) {
+
+               post(batch.getSubscription(), batch.getEvents());
+               return true;
+            }
+         });
+      }
+
+      batches.clear();
+   }
+
+
+   /**
+    * Discards pending batches and cancels a scheduled flush.
+    */
+   void shutdown() {
+
+      cancelFlushTask();
+      batches.clear();
+   }
+
+
+   /**
+    * Returns a number of pending events.
+    *
+    * @return the number of pending events.
+    */
+   int getPendingEventCount() {
+
+      final int[] result = {0};
+      for (final IntObjectHashMap<Batch> addressBatches : batches.values()) {
+
+         addressBatches.forEachValue(new ObjectProcedure<Batch>() {
+
+            public boolean execute(final Batch batch) {
+
+               result[0] += batch.size();
+               return true;
+            }
+         });
+      }
+      return result[0];
+   }
+
+
+   private void cancelFlushTask() {
+
+      if (flushTask != null) {
+
+         flushTask.cancel();
+         flushTask = null;
+      }
+   }
+
+
+   private void post(final EntryModifiedSubscription subscription, final List<BinaryEntryModifiedEvent> events) {
+
+      final EntryModifiedNotificationMessage entryModifiedMessage = new EntryModifiedNotificationMessage(
+              processor.getCacheName());
+      entryModifiedMessage.setSubscriberIdentity(subscription.getSubscriberIdentity());
+      entryModifiedMessage.setReceiver(subscription.getSubscriberAddress());
+      entryModifiedMessage.setEvents(events);
+
+      try {
+
+         processor.post(entryModifiedMessage);
+      } catch (final Exception e) {
+
+         LOG.warn("Error while posting an entry modified event message: " + e, e);
+      }
+   }
+
+
+   public String toString() {
+
+      return "EntryModifiedNotificationBatcher{" +
+              "windowMillis=" + windowMillis +
+              ", maxBatchSize=" + maxBatchSize +
+              ", coalescing=" + coalescing +
+              ", batches=" + batches.size() +
+              '}';
+   }
+
+
+   /**
+    * Pending events of a single subscriber.
+    */
+   private static final class Batch {
+
+      private final EntryModifiedSubscription subscription;
+
+      private final List<BinaryEntryModifiedEvent> events = new ArrayList<BinaryEntryModifiedEvent>(1);
+
+      /**
+       * Positions of events in the list by key or null if coalescing is disabled.
+       */
+      private final HashMap<Binary, Integer> positions;
+
+
+      Batch(final EntryModifiedSubscription subscription, final boolean coalescing) {
+
+         this.subscription = subscription;
+         this.positions = coalescing ? new HashMap<Binary, Integer>(1) : null;
+      }
+
+
+      void addAll(final List<BinaryEntryModifiedEvent> newEvents) {
+
+         for (final BinaryEntryModifiedEvent event : newEvents) {
+
+            final Binary key = event.getUpdatedKey();
+            if (positions == null || key == null) {
+
+               events.add(event);
+               continue;
+            }
+
+            // Last value wins
+            final Integer position = positions.get(key);
+            if (position == null) {
+
+               positions.put(key, events.size());
+               events.add(event);
+            } else {
+
+               events.set(position, event);
+            }
+         }
+      }
+
+
+      int size() {
+
+         return events.size();
+      }
+
+
+      EntryModifiedSubscription getSubscription() {
+
+         return subscription;
+      }
+
+
+      List<BinaryEntryModifiedEvent> getEvents() {
+
+         return events;
+      }
+   }
+
+
+   /**
+    * A timer task that enqueues a flush command to the processor when the batch window closes.
+    */
+   private final class FlushTask extends TimerTask {
+
+      public void run() {
+
+         try {
+            if (!processor.isShutdown()) {
+               processor.enqueue(new FlushCommand(this));
+            }
+         } catch (final InterruptedException e) {
+            ExceptionUtils.ignoreException(e, "Nothing we can do");
+         } catch (final ShutdownException e) {
+            ExceptionUtils.ignoreException(e, "Processor is shutdown");
+         }
+      }
+   }
+
+
+   /**
+    * A command that flushes pending batches in the processor thread.
+    */
+   private final class FlushCommand implements Command {
+
+      private final FlushTask task;
+
+
+      FlushCommand(final FlushTask task) {
+
+         this.task = task;
+      }
+
+
+      public void execute() {
+
+         // Ignore flushes that were superseded by a flush caused by a full batch
+         if (task == flushTask) {
+
+            flush();
+         }
+      }
+
+
+      public String toString() {
+
+         return "FlushCommand{batcher=" + EntryModifiedNotificationBatcher.this + '}';
+      }
+   }
+}
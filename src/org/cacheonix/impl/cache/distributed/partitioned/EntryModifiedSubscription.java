@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import org.cacheonix.cache.entry.EntryFilter;
 import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
 import org.cacheonix.cache.subscriber.EntryModifiedEventType;
 import org.cacheonix.cache.subscriber.EntryModifiedNotificationMode;
@@ -64,6 +65,11 @@ public final class EntryModifiedSubscription implements Wireable {
 
    private HashSet<EntryModifiedEventType> modificationTypes = null; // NOPMD
 
+   /**
+    * A filter of a cache-wide subscription or <code>null</code> if the subscription is not filtered.
+    */
+   private EntryFilter filter = null;
+
 
    /**
     * Required by Wireable.
@@ -95,6 +101,27 @@ public final class EntryModifiedSubscription implements Wireable {
    }
 
 
+   /**
+    * Creates a cache-wide <code>EntryModifiedSubscription</code>.
+    *
+    * @param subscriberIdentity subscriber object's identity as returned by {@link System#identityHashCode(Object)}.
+    * @param subscriberAddress  subscriber's address.
+    * @param notificationMode   event notification mode.
+    * @param eventContentFlags  event flags.
+    * @param modificationTypes  event operations.
+    * @param filter             the filter evaluated by bucket owners or <code>null</code> if the subscriber is
+    *                           interested in all entries.
+    */
+   public EntryModifiedSubscription(final int subscriberIdentity, final ClusterNodeAddress subscriberAddress,
+                                    final EntryModifiedNotificationMode notificationMode,
+                                    final List<EntryModifiedEventContentFlag> eventContentFlags,
+                                    final Set<EntryModifiedEventType> modificationTypes, final EntryFilter filter) {
+
+      this(subscriberIdentity, subscriberAddress, notificationMode, eventContentFlags, modificationTypes);
+      this.filter = filter;
+   }
+
+
    /**
     * Returns subscriber's address.
     *
@@ -152,6 +179,17 @@ public final class EntryModifiedSubscription implements Wireable {
    }
 
 
+   /**
+    * Returns a filter of a cache-wide subscription.
+    *
+    * @return the filter of the cache-wide subscription or <code>null</code> if the subscription is not filtered.
+    */
+   public EntryFilter getFilter() {
+
+      return filter;
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -195,13 +233,14 @@ public final class EntryModifiedSubscription implements Wireable {
       }
 
       out.writeInt(subscriberIdentity);
+      SerializerUtils.writeObject(out, filter);
    }
 
 
    /**
     * {@inheritDoc}
     */
-   public void readWire(final DataInputStream in) throws IOException {
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
 
       subscriberAddress = SerializerUtils.readAddress(in);
 
@@ -225,6 +264,7 @@ public final class EntryModifiedSubscription implements Wireable {
       }
 
       subscriberIdentity = in.readInt();
+      filter = SerializerUtils.readObject(in);
    }
 
 
@@ -282,6 +322,7 @@ public final class EntryModifiedSubscription implements Wireable {
               ", notificationMode=" + notificationMode +
               ", eventContentFlags=" + eventContentFlags +
               ", subscriberIdentity=" + subscriberIdentity +
+              ", filter=" + filter +
               '}';
    }
 
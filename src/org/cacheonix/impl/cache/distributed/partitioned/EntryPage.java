@@ -0,0 +1,92 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.cacheonix.impl.cache.item.Binary;
+
+/**
+ * A page of cache entries collected from a range of buckets by {@link GetEntryPageRequest}.
+ *
+ * @see PagedEntryIterator
+ */
+final class EntryPage {
+
+   /**
+    * The entries of the buckets in the page's range.
+    */
+   private final List<Entry<Binary, Binary>> entries;
+
+   /**
+    * The number of the first bucket of the next page or <code>-1</code> if this is the last page.
+    */
+   private final int nextBucket;
+
+
+   /**
+    * Creates a new <code>EntryPage</code>.
+    *
+    * @param entries    the entries of the buckets in the page's range.
+    * @param nextBucket the number of the first bucket of the next page or <code>-1</code> if this is the last page.
+    */
+   EntryPage(final List<Entry<Binary, Binary>> entries, final int nextBucket) {
+
+      this.entries = entries;
+      this.nextBucket = nextBucket;
+   }
+
+
+   /**
+    * Returns the entries of the buckets in the page's range.
+    *
+    * @return the entries of the buckets in the page's range.
+    */
+   public List<Entry<Binary, Binary>> getEntries() {
+
+      return entries;
+   }
+
+
+   /**
+    * Returns the number of the first bucket of the next page.
+    *
+    * @return the number of the first bucket of the next page or <code>-1</code> if this is the last page.
+    */
+   public int getNextBucket() {
+
+      return nextBucket;
+   }
+
+
+   /**
+    * Returns <code>true</code> if this is the last page.
+    *
+    * @return <code>true</code> if this is the last page.
+    */
+   public boolean isLast() {
+
+      return nextBucket < 0;
+   }
+
+
+   public String toString() {
+
+      return "EntryPage{" +
+              "entries.size()=" + entries.size() +
+              ", nextBucket=" + nextBucket +
+              '}';
+   }
+}
@@ -23,14 +23,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.cacheonix.ShutdownException;
+import org.cacheonix.cache.entry.AttributeExtractor;
 import org.cacheonix.cache.entry.CacheEntry;
 import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.entry.IndexedEntryFilter;
 import org.cacheonix.cache.executor.Aggregator;
 import org.cacheonix.cache.executor.Executable;
 import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.cache.store.BinaryStoreElementProcedure;
+import org.cacheonix.impl.net.processor.Command;
 import org.cacheonix.impl.net.processor.Message;
 import org.cacheonix.impl.net.processor.Response;
 import org.cacheonix.impl.net.processor.WaiterUtils;
@@ -38,11 +42,16 @@ import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
 import org.cacheonix.impl.util.IOUtils;
+import org.cacheonix.impl.util.array.IntHashSet;
+import org.cacheonix.impl.util.exception.ExceptionUtils;
 import org.cacheonix.impl.util.logging.Logger;
 
 /**
  * Request to invoke an executable on a set of buckets.
  * <p/>
+ * The executable runs outside of the cache processor thread, so a long execution does not block key requests to the
+ * cache. Entries are passed to the executable in batches taken from the buckets one after another, each batch producing
+ * a partial result.
  *
  * @author <a href="mailto:simeshev@cacheonix.org">Slava Imeshev</a>
  * @see PartitionedCache#execute(Executable, Aggregator)
@@ -62,6 +71,11 @@ public final class ExecuteRequest extends BucketSetRequest {
    private static final Logger LOG = Logger.getLogger(ExecuteRequest.class); // NOPMD
 
 
+   /**
+    * The maximum number of entries passed to a single call to {@link Executable#execute(Collection)}.
+    */
+   static final int BATCH_SIZE = 1000;
+
    /**
     * Mandatory executable.
     */
@@ -109,83 +123,68 @@ public final class ExecuteRequest extends BucketSetRequest {
    /**
     * {@inheritDoc}
     * <p/>
-    * This implementation clears buckets that it owns and submits sub-requests to clear replicas.
+    * This implementation returns processing that feeds the bucket entries to the executable in batches outside of the
+    * processor thread.
     */
-   @SuppressWarnings("ThrowableInstanceNeverThrown")
    protected ProcessingResult processBuckets(final List<Bucket> bucketsToProcess) {
 
-      final List<Object> results = new ArrayList<Object>(1);
-      try {
-         //noinspection ControlFlowStatementWithoutBraces
-         if (LOG.isDebugEnabled()) LOG.debug("ooooooooooooooo Executing ExecuteRequest: " + this);
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("ooooooooooooooo Executing ExecuteRequest: " + this);
 
-         // Calculate size
-         int size = 0;
-         for (final Bucket bucket : bucketsToProcess) {
-            size += bucket.size();
-         }
+      return new ProcessingResult(new BatchExecution(bucketsToProcess, findIndexExtractor()));
+   }
 
-         // Convert bucket entries to cache entries
-         final ArrayList<CacheEntry> cacheEntries = new ArrayList<CacheEntry>(size);
-         for (final Bucket bucket : bucketsToProcess) {
 
-            if (bucket.isEmpty()) {
-               continue;
-            }
+   /**
+    * Returns the extractor of a configured index that can serve the entry filter.
+    *
+    * @return the extractor of a configured index that can serve the entry filter or <code>null</code> if the filter is
+    *         not index-aware or if there is no index for the filter's extractor.
+    */
+   private AttributeExtractor findIndexExtractor() {
 
-            // Convert bucket entries tp cache entries
-            final Set<Entry<Binary, Binary>> entries = bucket.entrySet();
-            for (final Entry<Binary, Binary> entry : entries) {
+      if (!(entryFilter instanceof IndexedEntryFilter)) {
 
-               // REVIEWME: simeshev@cacheonix.org - 2010-05-20 - Consider passing
-               // whole entry to DistributedCacheEntry - this will save saving
-               // a reference in the list.
+         return null;
+      }
 
-               // REVIEWME: simeshev@cacheonix.org - 2010-05-20 - Consider using
-               // a limited size batch of entries instead of collecting them all
-               // together.
+      final Class filterExtractorClass = ((IndexedEntryFilter) entryFilter).getExtractor().getClass();
+      for (final AttributeExtractor indexExtractor : getCacheProcessor().getIndexExtractors()) {
 
-               // REVIEWME: simeshev@cacheonix.org -> 2016-04-17 - Find a way to
-               // determine the expirationTime and createdTime for DistributedCacheEntry.
-               final DistributedCacheEntry executableCacheEntry = new DistributedCacheEntry(entry.getKey(),
-                       entry.getValue(), null, null);
-               if (entryFilter == null || entryFilter.matches(executableCacheEntry)) {
-                  cacheEntries.add(executableCacheEntry);
-               }
-            }
+         if (indexExtractor.getClass().equals(filterExtractorClass)) {
+
+            return indexExtractor;
          }
+      }
 
-         // Execute
+      return null;
+   }
 
-         // Remember interrupted flag in case 3-rd party executable tries to rise it.
-         final boolean interruptedBeforeExecute = Thread.currentThread().isInterrupted();
 
-         final Serializable result;
-         try {
-            result = executable.execute(cacheEntries);
+   /**
+    * Adds the bucket entries to pass to the filter to the snapshot. If there is an index that can serve the filter,
+    * adds only the entries found in the index. The entries are still passed to the filter, so the index only narrows
+    * the set of the tested entries.
+    *
+    * @param bucket            the bucket.
+    * @param indexExtractor    the extractor of the index to use or <code>null</code> if there is no index.
+    * @param snapshotProcedure the procedure collecting the snapshot.
+    */
+   private void takeSnapshot(final Bucket bucket, final AttributeExtractor indexExtractor,
+           final SnapshotProcedure snapshotProcedure) {
 
-         } finally {
+      if (indexExtractor != null) {
 
-            // Restore interrupted status if it changed by the Executable
-            if (interruptedBeforeExecute) {
-               if (!Thread.currentThread().isInterrupted()) {
-                  Thread.currentThread().interrupt();
-               }
-            } else {
-               if (Thread.currentThread().isInterrupted()) {
-                  Thread.interrupted();
-               }
-            }
-         }
+         // A bucket promoted from a replica has not been indexed yet
+         bucket.addIndex(indexExtractor);
 
-         results.add(result);
-      } catch (final RuntimeException e) {
-         // Do not trust 3-rd party executables
-         results.add(e);
+         if (bucket.forEachEntry((IndexedEntryFilter) entryFilter, snapshotProcedure)) {
+
+            return;
+         }
       }
 
-      // Return result
-      return new ProcessingResult(results, null);
+      bucket.forEachEntry(snapshotProcedure);
    }
 
 
@@ -272,6 +271,266 @@ public final class ExecuteRequest extends BucketSetRequest {
    }
 
 
+   /**
+    * Collects bucket entries into a list of cache entries. The entries are visited in place, so taking a snapshot does
+    * not copy the bucket's entry set.
+    */
+   static final class SnapshotProcedure implements BinaryStoreElementProcedure {
+
+      private final List<CacheEntry> snapshot;
+
+
+      SnapshotProcedure(final List<CacheEntry> snapshot) {
+
+         this.snapshot = snapshot;
+      }
+
+
+      public boolean processEntry(final Binary key, final Binary value) {
+
+         snapshot.add(new DistributedCacheEntry(key, value, null, null));
+         return true;
+      }
+   }
+
+
+   /**
+    * Feeds bucket entries to the executable in batches of at most {@link #BATCH_SIZE} entries.
+    * <p/>
+    * The execution alternates between the processor thread and the executable executor. On the processor thread it
+    * takes a snapshot of the next whole buckets until the snapshot holds at least {@link #BATCH_SIZE} entries. The
+    * executable executor then passes the matching entries of the snapshot to the executable and adds the result of
+    * each batch to the response as soon as the batch completes. Neither the time spent on the processor thread nor the
+    * heap held by the snapshot grow with the number of entries on the node.
+    * <p/>
+    * A bucket that the node stopped owning before its snapshot was taken is added to the response's rejected buckets,
+    * so the root request re-submits it to the new owner.
+    */
+   final class BatchExecution implements AsynchronousProcessing, Runnable {
+
+      /**
+       * Buckets that have not been visited yet.
+       */
+      private final LinkedList<Bucket> buckets; // NOPMD
+
+      /**
+       * The extractor of the index to use or <code>null</code> if there is no index.
+       */
+      private final AttributeExtractor indexExtractor;
+
+      /**
+       * Results of the executed batches. This is the result of the response.
+       */
+      private final LinkedList<Object> results = new LinkedList<Object>(); // NOPMD
+
+      /**
+       * Entries that matched the filter but have not been executed yet.
+       */
+      private List<CacheEntry> batch = new ArrayList<CacheEntry>(BATCH_SIZE);
+
+      /**
+       * The snapshot to execute next.
+       */
+      private List<CacheEntry> snapshot = null;
+
+      /**
+       * The response to post when the execution completes.
+       */
+      private AggregatingResponse response = null;
+
+
+      BatchExecution(final List<Bucket> buckets, final AttributeExtractor indexExtractor) {
+
+         this.buckets = new LinkedList<Bucket>(buckets);
+         this.indexExtractor = indexExtractor;
+      }
+
+
+      public void start(final AggregatingResponse response) {
+
+         this.response = response;
+         this.response.setResult(results);
+
+         takeNextSnapshot();
+      }
+
+
+      /**
+       * Takes a snapshot of the next buckets and hands it to the executable executor. This method is called on the
+       * processor thread.
+       */
+      void takeNextSnapshot() {
+
+         final CacheProcessor processor = getCacheProcessor();
+         final int storageNumber = getStorageNumber();
+         final List<CacheEntry> nextSnapshot = new ArrayList<CacheEntry>(BATCH_SIZE);
+         final SnapshotProcedure snapshotProcedure = new SnapshotProcedure(nextSnapshot);
+         while (nextSnapshot.size() < BATCH_SIZE && !buckets.isEmpty()) {
+
+            final Bucket bucket = buckets.removeFirst();
+            final int bucketNumber = bucket.getBucketNumber();
+            if (processor.getBucket(storageNumber, bucketNumber) != bucket
+                    || !processor.isBucketOwner(storageNumber, bucketNumber) || bucket.isReconfiguring()) {
+
+               reject(bucketNumber);
+               continue;
+            }
+
+            if (!bucket.isEmpty()) {
+
+               takeSnapshot(bucket, indexExtractor, snapshotProcedure);
+            }
+         }
+         snapshot = nextSnapshot;
+
+         try {
+
+            processor.getExecutableExecutor().execute(this);
+         } catch (final RejectedExecutionException e) {
+
+            // The executor is full or shutting down. The root request will re-submit the buckets.
+            response.setResultCode(Response.RESULT_RETRY);
+            response.setResult("Executable executor rejected execution: " + e);
+            respond(response);
+         }
+      }
+
+
+      private void reject(final int bucketNumber) {
+
+         IntHashSet rejectedBuckets = response.getRejectedBuckets();
+         if (rejectedBuckets == null) {
+
+            rejectedBuckets = new IntHashSet(1);
+            response.setRejectedBuckets(rejectedBuckets);
+         }
+         rejectedBuckets.add(bucketNumber);
+      }
+
+
+      /**
+       * Executes the snapshot. This method is called by the executable executor.
+       */
+      public void run() {
+
+         try {
+
+            for (final CacheEntry cacheEntry : snapshot) {
+
+               if (entryFilter == null || entryFilter.matches(cacheEntry)) {
+
+                  batch.add(cacheEntry);
+                  if (batch.size() == BATCH_SIZE) {
+
+                     results.add(execute(batch));
+                     batch = new ArrayList<CacheEntry>(BATCH_SIZE);
+                  }
+               }
+            }
+            snapshot = null;
+
+            // Continue with the next buckets on the processor thread
+            if (!buckets.isEmpty()) {
+
+               continueOnProcessorThread();
+               return;
+            }
+
+            // Execute the last batch. The executable is called at least once.
+            if (!batch.isEmpty() || results.isEmpty()) {
+
+               results.add(execute(batch));
+            }
+         } catch (final RuntimeException e) {
+
+            // Do not trust 3-rd party executables
+            results.add(e);
+         }
+
+         batch = null;
+         respond(response);
+      }
+
+
+      private void continueOnProcessorThread() {
+
+         try {
+
+            getCacheProcessor().enqueue(new NextSnapshotCommand(this));
+         } catch (final InterruptedException e) {
+
+            ExceptionUtils.ignoreException(e, "Nothing we can do");
+         } catch (final ShutdownException e) {
+
+            ExceptionUtils.ignoreException(e, "Processor is shutdown");
+         }
+      }
+
+
+      private Serializable execute(final Collection<CacheEntry> batch) {
+
+         // Remember interrupted flag in case 3-rd party executable tries to rise it.
+         final boolean interruptedBeforeExecute = Thread.currentThread().isInterrupted();
+         try {
+
+            return executable.execute(batch);
+         } finally {
+
+            // Restore interrupted status if it changed by the Executable
+            if (interruptedBeforeExecute) {
+               if (!Thread.currentThread().isInterrupted()) {
+                  Thread.currentThread().interrupt();
+               }
+            } else {
+               if (Thread.currentThread().isInterrupted()) {
+                  Thread.interrupted();
+               }
+            }
+         }
+      }
+
+
+      public String toString() {
+
+         return "BatchExecution{" +
+                 "buckets.size()=" + buckets.size() +
+                 ", results.size()=" + results.size() +
+                 ", executable=" + executable +
+                 ", entryFilter=" + entryFilter +
+                 '}';
+      }
+   }
+
+
+   /**
+    * A command that continues a batch execution on the processor thread.
+    */
+   private static final class NextSnapshotCommand implements Command {
+
+      private final BatchExecution batchExecution;
+
+
+      NextSnapshotCommand(final BatchExecution batchExecution) {
+
+         this.batchExecution = batchExecution;
+      }
+
+
+      public void execute() {
+
+         batchExecution.takeNextSnapshot();
+      }
+
+
+      public String toString() {
+
+         return "NextSnapshotCommand{" +
+                 "batchExecution=" + batchExecution +
+                 '}';
+      }
+   }
+
+
    /**
     * A class factory.
     */
@@ -33,4 +33,11 @@ public interface FrontCache {
     * @param bucketNumber the bucket number to invalidate.
     */
    void clearBucket(int bucketNumber);
+
+   /**
+    * Returns the tracker that decides when elements of this front cache should be refreshed ahead of expiration.
+    *
+    * @return the refresh-ahead tracker.
+    */
+   RefreshAheadTracker getRefreshAheadTracker();
 }
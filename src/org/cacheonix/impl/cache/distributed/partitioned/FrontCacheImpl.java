@@ -27,7 +27,6 @@ import org.cacheonix.impl.cache.util.StandardObjectSizeCalculator;
 import org.cacheonix.impl.clock.Clock;
 import org.cacheonix.impl.clock.Time;
 import org.cacheonix.impl.config.CacheStoreConfiguration;
-import org.cacheonix.impl.config.ConfigurationConstants;
 import org.cacheonix.impl.config.FrontCacheConfiguration;
 
 /**
@@ -39,7 +38,7 @@ public final class FrontCacheImpl implements FrontCache {
    /**
     * Bucket index calculator.
     */
-   private final BucketIndexCalculator bucketCalculator = new BucketIndexCalculator(ConfigurationConstants.BUCKET_COUNT);
+   private final BucketIndexCalculator bucketCalculator;
 
    private final ObjectSizeCalculator objectSizeCalculator = new StandardObjectSizeCalculator();
 
@@ -67,13 +66,16 @@ public final class FrontCacheImpl implements FrontCache {
 
    private final BinaryStoreContext binaryStoreContext;
 
+   private final RefreshAheadTracker refreshAheadTracker;
 
-   FrontCacheImpl(final Clock clock, final FrontCacheConfiguration frontCacheConfiguration) {
+
+   FrontCacheImpl(final Clock clock, final int bucketCount, final FrontCacheConfiguration frontCacheConfiguration) {
 
       // Basic fields
       this.clock = clock;
       this.frontCacheConfiguration = frontCacheConfiguration;
-      this.keyStores = new BinaryStore[ConfigurationConstants.BUCKET_COUNT];
+      this.bucketCalculator = new BucketIndexCalculator(bucketCount);
+      this.keyStores = new BinaryStore[bucketCount];
 
       // Fields derived from cache configuration
       final CacheStoreConfiguration storeConfiguration = frontCacheConfiguration.getStore();
@@ -82,6 +84,11 @@ public final class FrontCacheImpl implements FrontCache {
       this.timeToLiveMillis = storeConfiguration.getExpiration().getTimeToLiveMillis();
       this.idleTimeMillis = storeConfiguration.getExpiration().getIdleTimeMillis();
 
+      // Zero max elements means unlimited, the tracker then applies its own limit
+      this.refreshAheadTracker = new RefreshAheadTracker(frontCacheConfiguration.getRefreshAheadTimeMillis(),
+              frontCacheConfiguration.getRefreshAheadReads(),
+              (int) Math.min(storeConfiguration.getLru().getMaxElements(), (long) Integer.MAX_VALUE));
+
       // Context
       this.binaryStoreContext = new BinaryStoreContextImpl();
       this.binaryStoreContext.setObjectSizeCalculator(objectSizeCalculator);
@@ -153,4 +160,10 @@ public final class FrontCacheImpl implements FrontCache {
          binaryStore.clear();
       }
    }
+
+
+   public RefreshAheadTracker getRefreshAheadTracker() {
+
+      return refreshAheadTracker;
+   }
 }
@@ -0,0 +1,258 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.net.processor.Message;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.net.processor.WaiterUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+import org.cacheonix.impl.util.array.IntHashSet;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * Obtains and collects entries of a range of buckets from the bucket owners. Unlike {@link GetEntrySetRequest} that
+ * collects the whole cache, this request lets a client walk the cache page by page so that only a page of entries has
+ * to fit the client's heap.
+ * <p/>
+ * A page is defined by bucket numbers rather than by keys, so a bucket that moves to another owner while the cache is
+ * being walked is neither skipped nor returned twice: the bucket set request routes a bucket to its new owner, and a
+ * page that could not be completed is re-requested as a whole.
+ *
+ * @see PagedEntryIterator
+ */
+public final class GetEntryPageRequest extends BucketSetRequest {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(GetEntryPageRequest.class); // NOPMD
+
+   /**
+    * The number of the first bucket of the page.
+    */
+   private int firstBucket = 0;
+
+   /**
+    * The maximum number of buckets in the page.
+    */
+   private int bucketSpan = 0;
+
+   /**
+    * The number of the first bucket of the next page or <code>-1</code> if this is the last page. Set when the root
+    * request prepares its bucket set.
+    */
+   private int nextBucket = -1;
+
+
+   /**
+    * Required by <code>Wireable<code>.
+    */
+   public GetEntryPageRequest() {
+
+   }
+
+
+   /**
+    * Creates a new <code>GetEntryPageRequest</code>.
+    *
+    * @param cacheName   the cache name.
+    * @param firstBucket the number of the first bucket of the page.
+    * @param bucketSpan  the maximum number of buckets in the page.
+    */
+   public GetEntryPageRequest(final String cacheName, final int firstBucket, final int bucketSpan) {
+
+      super(TYPE_CACHE_ENTRY_PAGE_REQUEST, cacheName, true);
+      this.firstBucket = firstBucket;
+      this.bucketSpan = bucketSpan;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns the buckets from <code>firstBucket</code> up to <code>bucketSpan</code> buckets and
+    * remembers where the next page starts.
+    */
+   protected IntHashSet createRootBucketSet(final int bucketCount) {
+
+      final int start = Math.min(firstBucket, bucketCount - 1);
+      final int end = Math.min(start + Math.max(bucketSpan, 1), bucketCount);
+      final IntHashSet result = new IntHashSet(end - start);
+      for (int i = start; i < end; i++) {
+         result.add(i);
+      }
+      nextBucket = end < bucketCount ? end : -1;
+      return result;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation collects the entries of the buckets.
+    */
+   protected ProcessingResult processBuckets(final List<Bucket> bucketsToProcess) {
+
+      // Calculate bucket size
+      int size = 0;
+      for (final Bucket bucket : bucketsToProcess) {
+         size += bucket.size();
+      }
+
+      // Collect
+      final Collection<Entry<Binary, Binary>> partialEntries = new ArrayList<Entry<Binary, Binary>>(size);
+      for (final Bucket bucket : bucketsToProcess) {
+         partialEntries.addAll(bucket.entrySet());
+      }
+
+      // Return result
+      return new ProcessingResult(partialEntries, null);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation combines partial entries to an {@link EntryPage}.
+    */
+   @SuppressWarnings("unchecked")
+   protected Object aggregate(final List<Response> partialResponses) {
+
+      final LinkedList<Entry<Binary, Binary>> result = new LinkedList<Entry<Binary, Binary>>();
+      for (final Message partialResponse : partialResponses) {
+
+         if (partialResponse instanceof CacheResponse) {
+            final CacheResponse cacheResponse = (CacheResponse) partialResponse;
+            final int resultCode = cacheResponse.getResultCode();
+            final Object partialResult = cacheResponse.getResult();
+            switch (resultCode) {
+               case Response.RESULT_ERROR:
+                  return WaiterUtils.resultToThrowable(partialResult);
+               case Response.RESULT_INACCESSIBLE:
+               case Response.RESULT_RETRY:
+
+                  return cacheResponse.createRetryException();
+               case Response.RESULT_SUCCESS:
+                  result.addAll((Collection<Entry<Binary, Binary>>) partialResult);
+                  break;
+               default:
+                  return WaiterUtils.unknownResultToThrowable(resultCode, partialResult);
+            }
+         }
+      }
+
+      return new EntryPage(result, nextBucket);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   protected BucketSetRequest createRequest() {
+
+      return new GetEntryPageRequest(getCacheName(), firstBucket, bucketSpan);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      firstBucket = in.readInt();
+      bucketSpan = in.readInt();
+      nextBucket = in.readInt();
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeInt(firstBucket);
+      out.writeInt(bucketSpan);
+      out.writeInt(nextBucket);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (!(o instanceof GetEntryPageRequest)) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final GetEntryPageRequest that = (GetEntryPageRequest) o;
+
+      if (firstBucket != that.firstBucket) {
+         return false;
+      }
+      if (bucketSpan != that.bucketSpan) {
+         return false;
+      }
+      return nextBucket == that.nextBucket;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + firstBucket;
+      result = 31 * result + bucketSpan;
+      result = 31 * result + nextBucket;
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "GetEntryPageRequest{" +
+              "firstBucket=" + firstBucket +
+              ", bucketSpan=" + bucketSpan +
+              ", nextBucket=" + nextBucket +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new GetEntryPageRequest();
+      }
+   }
+}
@@ -55,7 +55,11 @@ public class GetKeyOwnerRequest extends ClusterRequest {
 
    private int storageNumber = 0;
 
-   private int bucketNumber = 0;
+   /**
+    * A hash code of the key. The bucket number is calculated from the hash code using the bucket count of the cache
+    * group.
+    */
+   private int keyHashCode = 0;
 
 
    /**
@@ -67,12 +71,12 @@ public class GetKeyOwnerRequest extends ClusterRequest {
    }
 
 
-   public GetKeyOwnerRequest(final String cacheName, final int storageNumber, final int bucketNumber) {
+   public GetKeyOwnerRequest(final String cacheName, final int storageNumber, final int keyHashCode) {
 
       super(TYPE_CLUSTER_KEY_OWNER);
       this.cacheName = cacheName;
       this.storageNumber = storageNumber;
-      this.bucketNumber = bucketNumber;
+      this.keyHashCode = keyHashCode;
    }
 
 
@@ -88,9 +92,9 @@ public class GetKeyOwnerRequest extends ClusterRequest {
    }
 
 
-   public int getBucketNumber() {
+   public int getKeyHashCode() {
 
-      return bucketNumber;
+      return keyHashCode;
    }
 
 
@@ -102,8 +106,11 @@ public class GetKeyOwnerRequest extends ClusterRequest {
       final Group group = state.getGroup(Group.GROUP_TYPE_CACHE, cacheName);
       if (group == null) {
          postRetry("Cache " + cacheName + " is offline");
+      } else if (!group.isPartitionConfigured()) {
+         postRetry("Cache " + cacheName + " has no partition contributors");
       } else {
          final Response response = createResponse(Response.RESULT_SUCCESS);
+         final int bucketNumber = BucketIndexCalculator.calculateBucketIndex(keyHashCode, group.getBucketCount());
          final ClusterNodeAddress bucketOwner = group.getBucketOwner(storageNumber, bucketNumber);
          if (bucketOwner == null) {
 
@@ -155,7 +162,7 @@ public class GetKeyOwnerRequest extends ClusterRequest {
       super.writeWire(out);
       SerializerUtils.writeString(cacheName, out);
       out.writeInt(storageNumber);
-      out.writeShort(bucketNumber);
+      out.writeInt(keyHashCode);
    }
 
 
@@ -164,7 +171,7 @@ public class GetKeyOwnerRequest extends ClusterRequest {
       super.readWire(in);
       cacheName = SerializerUtils.readString(in);
       storageNumber = in.readInt();
-      bucketNumber = in.readShort();
+      keyHashCode = in.readInt();
    }
 
 
@@ -13,6 +13,10 @@
  */
 package org.cacheonix.impl.cache.distributed.partitioned;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import org.cacheonix.CacheonixException;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.cache.item.InvalidObjectException;
@@ -51,6 +55,12 @@ public final class GetRequest extends KeyRequest {
     */
    private static final Logger LOG = Logger.getLogger(GetRequest.class); // NOPMD
 
+   /**
+    * A flag indicating that this request refreshes a front cache element ahead of its expiration. The key owner extends
+    * the lease of the bucket for such request so that the refreshed element gets a new expiration time.
+    */
+   private boolean refreshAhead = false;
+
 
    /**
     * Required by <code>Wireable<code>.
@@ -79,7 +89,7 @@ public final class GetRequest extends KeyRequest {
          CacheableValue result = null;
          final CacheProcessor processor = getCacheProcessor();
          final FrontCache frontCache = processor.getFrontCache();
-         if (frontCache != null) {
+         if (frontCache != null && !refreshAhead) {
 
             // There is front cache
             final ReadableElement element = frontCache.get(getKey());
@@ -89,6 +99,8 @@ public final class GetRequest extends KeyRequest {
                final Time expirationTime = element.getExpirationTime();
                final Time createdTime = element.getCreatedTime();
                result = new CacheableValue(getValue(element), null, createdTime, expirationTime);
+
+               refreshAheadIfRequired(frontCache, expirationTime);
             }
          }
 
@@ -141,6 +153,33 @@ public final class GetRequest extends KeyRequest {
    }
 
 
+   /**
+    * Registers the read of a front cache element with the refresh-ahead tracker and posts a request to refresh the
+    * element from the key owner if the element is read often and is about to expire. The response to the refresh
+    * request puts the fresh element to the front cache.
+    *
+    * @param frontCache     the front cache.
+    * @param expirationTime the expiration time of the front cache element.
+    */
+   private void refreshAheadIfRequired(final FrontCache frontCache, final Time expirationTime) {
+
+      final RefreshAheadTracker refreshAheadTracker = frontCache.getRefreshAheadTracker();
+      if (expirationTime == null || !refreshAheadTracker.isEnabled()) {
+
+         return;
+      }
+
+      final CacheProcessor processor = getCacheProcessor();
+      final long currentMillis = processor.getClock().currentTimeMillis();
+      if (refreshAheadTracker.registerRead(getKey(), expirationTime.getMillis(), currentMillis)) {
+
+         final GetRequest refreshRequest = new GetRequest(getCacheName(), getKey());
+         refreshRequest.refreshAhead = true;
+         processor.post(refreshRequest);
+      }
+   }
+
+
    protected ProcessingResult processKey(final Bucket bucket, final Binary key) {
 
       try {
@@ -159,13 +198,28 @@ public final class GetRequest extends KeyRequest {
             final Binary value = getValue(element);
 
             // Calculate expiration time
-            final Time resultExpirationTime = isWillCache() ? renewLease(bucket, element.getExpirationTime()) : null;
+            final Time resultExpirationTime;
+            if (isWillCache()) {
+
+               resultExpirationTime = refreshAhead ? extendLease(bucket, element.getExpirationTime()) : renewLease(bucket,
+                       element.getExpirationTime());
+            } else {
+
+               resultExpirationTime = null;
+            }
 
             // Set result
             final Time expirationTime = element.getExpirationTime();
             final Time createdTime = element.getCreatedTime();
             final CacheableValue cacheableValue = new CacheableValue(value, resultExpirationTime, createdTime,
                     expirationTime);
+
+            // Push hot keys to front caches
+            if (isPrimaryRequest()) {
+
+               pushIfHot(bucket, key, value, expirationTime);
+            }
+
             return new ProcessingResult(cacheableValue, null);
          }
       } catch (final Exception e) {
@@ -175,22 +229,124 @@ public final class GetRequest extends KeyRequest {
    }
 
 
+   /**
+    * Registers the read with the hot key tracker and pushes the value to the front caches of all cache members if the
+    * key is hot and if the previously pushed value has expired.
+    *
+    * @param bucket         the bucket the key belongs to.
+    * @param key            the key.
+    * @param value          the value of the key.
+    * @param expirationTime the expiration time of the element.
+    */
+   private void pushIfHot(final Bucket bucket, final Binary key, final Binary value, final Time expirationTime) {
+
+      final CacheProcessor processor = getCacheProcessor();
+      final HotKeyTracker hotKeyTracker = processor.getHotKeyTracker();
+      if (!hotKeyTracker.isEnabled()) {
+
+         return;
+      }
+
+      final long currentMillis = processor.getClock().currentTimeMillis();
+      if (hotKeyTracker.registerRead(key, currentMillis) && hotKeyTracker.isPushRequired(key, currentMillis)) {
+
+         // Renew the lease so that a write to the bucket clears the pushed value
+         final Time leaseExpirationTime = renewLease(bucket, expirationTime);
+         hotKeyTracker.notifyPushed(key, leaseExpirationTime.getMillis());
+         processor.post(new PushHotKeyAnnouncement(getCacheName(), key, value, leaseExpirationTime));
+      }
+   }
+
+
    /**
     * {@inheritDoc}
     */
    public KeyRequest createRequest() {
 
-      return new GetRequest(getCacheName(), getKey());
+      final GetRequest request = new GetRequest(getCacheName(), getKey());
+      request.refreshAhead = refreshAhead;
+      return request;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   protected org.cacheonix.impl.net.processor.Waiter createWaiter() {
+
+      return new Waiter(this);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+
+      refreshAhead = in.readBoolean();
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+
+      out.writeBoolean(refreshAhead);
    }
 
 
    public String toString() {
 
       return "GetRequest{" +
+              "refreshAhead=" + refreshAhead +
               "} " + super.toString();
    }
 
 
+   /**
+    * A waiter that notifies the refresh-ahead tracker when a refresh request finishes.
+    */
+   @SuppressWarnings("ClassNameSameAsAncestorName")
+   static final class Waiter extends KeyRequest.Waiter {
+
+      /**
+       * Creates waiter.
+       *
+       * @param request request this owner belongs to.
+       */
+      Waiter(final GetRequest request) {
+
+         super(request);
+      }
+
+
+      /**
+       * {@inheritDoc}
+       * <p/>
+       * This implementation lets the next read start a new refresh once the refresh request has finished.
+       */
+      protected synchronized void notifyFinished() {
+
+         super.notifyFinished();
+
+         final GetRequest request = (GetRequest) getRequest();
+         if (request.refreshAhead && request.getProcessor() != null) {
+
+            final FrontCache frontCache = ((CacheProcessor) request.getProcessor()).getFrontCache();
+            if (frontCache != null) {
+
+               frontCache.getRefreshAheadTracker().notifyRefreshFinished(request.getKey());
+            }
+         }
+      }
+   }
+
+
    /**
     * A class factory.
     */
@@ -0,0 +1,362 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.util.array.HashMap;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * Tracks read rates of keys served by a primary bucket owner and detects hot keys.
+ * <p/>
+ * The tracker counts reads using the Space-Saving top-K sketch that keeps a fixed number of counters. When the sketch
+ * is full, a new key replaces the key with the smallest count and inherits that count as a counting error. At the end
+ * of every measurement period the keys whose guaranteed read rate reached the threshold become the hot set for the next
+ * period, and the sketch starts over.
+ * <p/>
+ * The primary owner pushes values of hot keys to the front caches of all cache members.
+ */
+public final class HotKeyTracker {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(HotKeyTracker.class); // NOPMD
+
+   /**
+    * Default number of keys the sketch tracks.
+    */
+   static final int DEFAULT_SKETCH_SIZE = 64;
+
+   /**
+    * A period over that read rates are measured.
+    */
+   static final long MEASUREMENT_PERIOD_MILLIS = 1000L;
+
+   /**
+    * A read rate per second that makes a key hot. Zero disables hot key detection.
+    */
+   private final int hotKeyThreshold;
+
+   /**
+    * Max number of counters in the sketch.
+    */
+   private final int sketchSize;
+
+   /**
+    * Read counters for the current measurement period.
+    */
+   private final HashMap<Binary, KeyCounter> counters;
+
+   /**
+    * Hot keys detected at the end of the last measurement period.
+    */
+   private HashMap<Binary, HotKey> hotKeys = new HashMap<Binary, HotKey>(1);
+
+   /**
+    * A time the current measurement period started or -1 if no reads have been registered yet.
+    */
+   private long periodStartMillis = -1L;
+
+
+   /**
+    * Creates HotKeyTracker.
+    *
+    * @param hotKeyThreshold a read rate per second that makes a key hot. Zero disables hot key detection.
+    * @param sketchSize      max number of keys the sketch tracks.
+    */
+   HotKeyTracker(final int hotKeyThreshold, final int sketchSize) {
+
+      this.hotKeyThreshold = hotKeyThreshold;
+      this.sketchSize = sketchSize;
+      this.counters = new HashMap<Binary, KeyCounter>(sketchSize);
+   }
+
+
+   /**
+    * Returns <code>true</code> if hot key detection is enabled.
+    *
+    * @return <code>true</code> if hot key detection is enabled.
+    */
+   boolean isEnabled() {
+
+      return hotKeyThreshold > 0;
+   }
+
+
+   /**
+    * Registers a read of a key.
+    *
+    * @param key           the key that was read.
+    * @param currentMillis current time.
+    * @return <code>true</code> if the key is hot.
+    */
+   synchronized boolean registerRead(final Binary key, final long currentMillis) {
+
+      if (!isEnabled()) {
+
+         return false;
+      }
+
+      rollOverPeriod(currentMillis);
+
+      KeyCounter counter = counters.get(key);
+      if (counter == null) {
+
+         if (counters.size() < sketchSize) {
+
+            counter = new KeyCounter(key, 0L);
+         } else {
+
+            // Replace the key with the smallest count
+            final KeyCounter minCounter = findMinCounter();
+            counters.remove(minCounter.key);
+            counter = new KeyCounter(key, minCounter.count);
+         }
+         counters.put(key, counter);
+      }
+      counter.count++;
+
+      return hotKeys.containsKey(key);
+   }
+
+
+   /**
+    * Returns <code>true</code> if the key is hot and the value pushed to front caches has expired.
+    *
+    * @param key           the key to check.
+    * @param currentMillis current time.
+    * @return <code>true</code> if the key is hot and the value pushed to front caches has expired.
+    */
+   synchronized boolean isPushRequired(final Binary key, final long currentMillis) {
+
+      final HotKey hotKey = hotKeys.get(key);
+      return hotKey != null && currentMillis >= hotKey.pushedUntilMillis;
+   }
+
+
+   /**
+    * Registers that a value of a hot key was pushed to front caches.
+    *
+    * @param key                   the hot key.
+    * @param leaseExpirationMillis a time until that front caches may serve the pushed value.
+    */
+   synchronized void notifyPushed(final Binary key, final long leaseExpirationMillis) {
+
+      final HotKey hotKey = hotKeys.get(key);
+      if (hotKey != null) {
+
+         hotKey.pushedUntilMillis = leaseExpirationMillis;
+         hotKey.pushCount++;
+      }
+   }
+
+
+   /**
+    * Returns a list of hot keys detected at the end of the last measurement period.
+    *
+    * @return the list of hot keys detected at the end of the last measurement period.
+    */
+   public synchronized List<HotKey> getHotKeys() {
+
+      final List<HotKey> result = new ArrayList<HotKey>(hotKeys.size());
+      for (final HotKey hotKey : hotKeys.values()) {
+
+         result.add(new HotKey(hotKey.key, hotKey.readRate, hotKey.pushedUntilMillis, hotKey.pushCount));
+      }
+      return result;
+   }
+
+
+   /**
+    * Returns the read rate per second that makes a key hot.
+    *
+    * @return the read rate per second that makes a key hot. Zero means that hot key detection is disabled.
+    */
+   public int getHotKeyThreshold() {
+
+      return hotKeyThreshold;
+   }
+
+
+   private void rollOverPeriod(final long currentMillis) {
+
+      if (periodStartMillis < 0L) {
+
+         periodStartMillis = currentMillis;
+         return;
+      }
+
+      final long periodMillis = currentMillis - periodStartMillis;
+      if (periodMillis < MEASUREMENT_PERIOD_MILLIS) {
+
+         return;
+      }
+
+      // Promote keys with the guaranteed read rate at or above the threshold
+      final HashMap<Binary, HotKey> newHotKeys = new HashMap<Binary, HotKey>(1);
+      for (final KeyCounter counter : counters.values()) {
+
+         final long readRate = (counter.count - counter.error) * 1000L / periodMillis;
+         if (readRate >= hotKeyThreshold) {
+
+            final HotKey previous = hotKeys.get(counter.key);
+            final HotKey hotKey = previous == null ? new HotKey(counter.key, readRate, 0L, 0L)
+                    : new HotKey(counter.key, readRate, previous.pushedUntilMillis, previous.pushCount);
+            newHotKeys.put(counter.key, hotKey);
+
+            //noinspection ControlFlowStatementWithoutBraces
+            if (previous == null && LOG.isDebugEnabled()) LOG.debug("Promoted hot key: " + hotKey); // NOPMD
+         }
+      }
+
+      hotKeys = newHotKeys;
+      counters.clear();
+      periodStartMillis = currentMillis;
+   }
+
+
+   private KeyCounter findMinCounter() {
+
+      KeyCounter result = null;
+      for (final KeyCounter counter : counters.values()) {
+
+         if (result == null || counter.count < result.count) {
+
+            result = counter;
+         }
+      }
+      return result;
+   }
+
+
+   public synchronized String toString() {
+
+      return "HotKeyTracker{" +
+              "hotKeyThreshold=" + hotKeyThreshold +
+              ", sketchSize=" + sketchSize +
+              ", hotKeys=" + hotKeys.size() +
+              ", trackedKeys=" + counters.size() +
+              ", periodStartMillis=" + periodStartMillis +
+              '}';
+   }
+
+
+   /**
+    * A counter of reads of a key.
+    */
+   private static final class KeyCounter {
+
+      private final Binary key;
+
+      /**
+       * A count inherited from the replaced key. The count overestimates the actual number of reads by at most this
+       * value.
+       */
+      private final long error;
+
+      private long count;
+
+
+      KeyCounter(final Binary key, final long error) {
+
+         this.key = key;
+         this.error = error;
+         this.count = error;
+      }
+
+
+      public String toString() {
+
+         return "KeyCounter{" +
+                 "key=" + key +
+                 ", count=" + count +
+                 ", error=" + error +
+                 '}';
+      }
+   }
+
+
+   /**
+    * A hot key and its read rate.
+    */
+   public static final class HotKey {
+
+      private final Binary key;
+
+      private final long readRate;
+
+      private long pushedUntilMillis;
+
+      private long pushCount;
+
+
+      HotKey(final Binary key, final long readRate, final long pushedUntilMillis, final long pushCount) {
+
+         this.key = key;
+         this.readRate = readRate;
+         this.pushedUntilMillis = pushedUntilMillis;
+         this.pushCount = pushCount;
+      }
+
+
+      /**
+       * Returns the hot key.
+       *
+       * @return the hot key.
+       */
+      public Binary getKey() {
+
+         return key;
+      }
+
+
+      /**
+       * Returns the number of reads per second measured over the last measurement period.
+       *
+       * @return the number of reads per second measured over the last measurement period.
+       */
+      public long getReadRate() {
+
+         return readRate;
+      }
+
+
+      /**
+       * Returns the number of times the value of the key was pushed to front caches.
+       *
+       * @return the number of times the value of the key was pushed to front caches.
+       */
+      public long getPushCount() {
+
+         return pushCount;
+      }
+
+
+      public String toString() {
+
+         return "HotKey{" +
+                 "key=" + key +
+                 ", readRate=" + readRate +
+                 ", pushedUntilMillis=" + pushedUntilMillis +
+                 ", pushCount=" + pushCount +
+                 '}';
+      }
+   }
+}
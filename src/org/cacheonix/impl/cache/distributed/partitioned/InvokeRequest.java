@@ -0,0 +1,346 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.cacheonix.CacheonixException;
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.executor.EntryProcessor;
+import org.cacheonix.impl.cache.entry.MutableCacheEntryImpl;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.cache.item.InvalidObjectException;
+import org.cacheonix.impl.cache.storage.disk.StorageException;
+import org.cacheonix.impl.cache.store.PreviousValue;
+import org.cacheonix.impl.cache.store.ReadableElement;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+import org.cacheonix.impl.util.logging.Logger;
+
+import static org.cacheonix.impl.cache.store.BinaryStoreUtils.getCreatedTime;
+import static org.cacheonix.impl.cache.store.BinaryStoreUtils.getExpirationTime;
+import static org.cacheonix.impl.cache.store.BinaryStoreUtils.getValue;
+
+/**
+ * InvokeRequest runs an entry processor against a key according to specification defined by {@link
+ * Cache#invoke(Serializable, EntryProcessor)}.
+ * <p/>
+ * The primary owner runs the entry processor. Replica owners do not run the entry processor. Instead, they receive the
+ * outcome of processing and apply it the same way as <code>PutRequest</code> and <code>RemoveRequest</code> do.
+ *
+ * @noinspection NonFinalFieldReferencedInHashCode, NonFinalFieldReferenceInEquals, RedundantIfStatement
+ */
+public final class InvokeRequest extends KeyRequest {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(InvokeRequest.class); // NOPMD
+
+   /**
+    * Replica update: the entry was not modified.
+    */
+   static final byte REPLICA_UPDATE_NONE = 0;
+
+   /**
+    * Replica update: the entry was set to {@link #replicaValue}.
+    */
+   static final byte REPLICA_UPDATE_PUT = 1;
+
+   /**
+    * Replica update: the entry was removed.
+    */
+   static final byte REPLICA_UPDATE_REMOVE = 2;
+
+   /**
+    * The entry processor to run at the primary owner. Replica requests don't carry the entry processor.
+    */
+   private EntryProcessor entryProcessor = null;
+
+   /**
+    * The outcome of processing that replicas should apply.
+    */
+   private byte replicaUpdate = REPLICA_UPDATE_NONE;
+
+   /**
+    * The value replicas should set if {@link #replicaUpdate} is {@link #REPLICA_UPDATE_PUT}.
+    */
+   private Binary replicaValue = null;
+
+
+   /**
+    * Required by <code>Wireable<code>.
+    *
+    * @see Wireable
+    */
+   public InvokeRequest() {
+
+   }
+
+
+   public InvokeRequest(final ClusterNodeAddress sender, final String cacheName, final Binary key,
+                        final EntryProcessor entryProcessor) {
+
+      super(TYPE_CACHE_INVOKE_REQUEST, cacheName, false, false);
+      this.entryProcessor = entryProcessor;
+      this.setSender(sender);
+      this.setKey(key);
+   }
+
+
+   private InvokeRequest(final String cacheName, final Binary key, final byte replicaUpdate,
+                         final Binary replicaValue) {
+
+      super(TYPE_CACHE_INVOKE_REQUEST, cacheName, false, false);
+      this.replicaUpdate = replicaUpdate;
+      this.replicaValue = replicaValue;
+      this.setKey(key);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation runs the entry processor if this is a primary request and remembers the outcome so that
+    * {@link #createRequest()} can pass it to replicas. A replica request applies the outcome.
+    * <p/>
+    * A replica request that is re-submitted after a retry arrives as a primary request without the entry processor.
+    * Such request applies the carried outcome and passes it on to the replicas.
+    */
+   protected ProcessingResult processKey(final Bucket bucket, final Binary key) {
+
+      try {
+
+         if (isPrimaryRequest() && entryProcessor != null) {
+
+            return process(bucket, key);
+         } else {
+
+            // Replica update request
+            if (replicaUpdate == REPLICA_UPDATE_PUT) {
+
+               bucket.put(key, replicaValue, null);
+            } else if (replicaUpdate == REPLICA_UPDATE_REMOVE) {
+
+               bucket.remove(key);
+            }
+
+            final boolean modified = isPrimaryRequest() && replicaUpdate != REPLICA_UPDATE_NONE;
+            return new ProcessingResult(null, modified ? key : null);
+         }
+      } catch (final InvalidObjectException e) {
+
+         throw new CacheonixException(e);
+      } catch (final StorageException e) {
+
+         throw new CacheonixException(e);
+      }
+   }
+
+
+   private ProcessingResult process(final Bucket bucket, final Binary key) throws InvalidObjectException,
+           StorageException {
+
+      final ReadableElement element = bucket.get(key);
+      final MutableCacheEntryImpl entry = new MutableCacheEntryImpl(key, getValue(element), element != null,
+              getCreatedTime(element), getExpirationTime(element));
+
+      // Remember interrupted flag in case 3-rd party entry processor tries to rise it.
+      final boolean interruptedBeforeProcess = Thread.currentThread().isInterrupted();
+
+      final Serializable result;
+      try {
+
+         result = entryProcessor.process(entry);
+      } catch (final RuntimeException e) {
+
+         // Do not trust 3-rd party entry processors. Changes are discarded, the error is returned as a result.
+         return new ProcessingResult(e, null);
+      } finally {
+
+         // Restore interrupted status if it changed by the entry processor
+         if (interruptedBeforeProcess) {
+            if (!Thread.currentThread().isInterrupted()) {
+               Thread.currentThread().interrupt();
+            }
+         } else {
+            if (Thread.currentThread().isInterrupted()) {
+               Thread.interrupted();
+            }
+         }
+      }
+
+      // Apply changes
+      Binary modifiedKey = null;
+      if (entry.isModified()) {
+
+         if (entry.exists()) {
+
+            bucket.put(key, entry.getBinaryValue(), null);
+            replicaUpdate = REPLICA_UPDATE_PUT;
+            replicaValue = entry.getBinaryValue();
+            modifiedKey = key;
+         } else {
+
+            final PreviousValue previousValue = bucket.remove(key);
+            if (previousValue.isPreviousValuePresent()) {
+
+               replicaUpdate = REPLICA_UPDATE_REMOVE;
+               modifiedKey = key;
+            }
+         }
+      }
+
+      return new ProcessingResult(result, modifiedKey);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation creates a replica request that carries the outcome of processing instead of the entry
+    * processor.
+    */
+   public KeyRequest createRequest() {
+
+      return new InvokeRequest(getCacheName(), getKey(), replicaUpdate, replicaValue);
+   }
+
+
+   /**
+    * Returns the entry processor.
+    *
+    * @return the entry processor or <code>null</code> if this is a replica request.
+    */
+   EntryProcessor getEntryProcessor() {
+
+      return entryProcessor;
+   }
+
+
+   /**
+    * Returns the outcome of processing that replicas should apply.
+    *
+    * @return the outcome of processing that replicas should apply.
+    */
+   byte getReplicaUpdate() {
+
+      return replicaUpdate;
+   }
+
+
+   /**
+    * Returns the value replicas should set.
+    *
+    * @return the value replicas should set.
+    */
+   Binary getReplicaValue() {
+
+      return replicaValue;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeByte(replicaUpdate);
+      SerializerUtils.writeBinary(out, replicaValue);
+
+      // Must be written last because it is read through an ObjectInputStream
+      SerializerUtils.writeObject(out, entryProcessor);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      replicaUpdate = in.readByte();
+      replicaValue = SerializerUtils.readBinary(in);
+      entryProcessor = SerializerUtils.readObject(in);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final InvokeRequest that = (InvokeRequest) o;
+
+      if (replicaUpdate != that.replicaUpdate) {
+         return false;
+      }
+      if (replicaValue != null ? !replicaValue.equals(that.replicaValue) : that.replicaValue != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (int) replicaUpdate;
+      result = 31 * result + (replicaValue != null ? replicaValue.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "InvokeRequest{" +
+              "entryProcessor=" + entryProcessor +
+              ", replicaUpdate=" + replicaUpdate +
+              ", replicaValue=" + replicaValue +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new InvokeRequest();
+      }
+   }
+}
@@ -92,6 +92,39 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
     */
    private boolean lockReconfiguringBucket = false;
 
+   /**
+    * If true, this is a replica request that the primary owner posted without waiting for its completion. This field
+    * is used only at the primary owner and it is not sent over the wire.
+    */
+   private boolean asynchronousReplicaUpdate = false;
+
+   /**
+    * A time the primary owner posted an asynchronous replica request. This field is used only at the primary owner and
+    * it is not sent over the wire.
+    */
+   private long replicaUpdateSentMillis = 0L;
+
+   /**
+    * An owner of the replica an asynchronous replica request is sent to. This field is used only at the primary owner
+    * and it is not sent over the wire.
+    */
+   private ClusterNodeAddress replicaOwner = null;
+
+   /**
+    * A sequence number of a replica update or null if the update is not sequenced. Write updates are sequenced if some
+    * replicas are updated asynchronously so that a replica owner can reject a re-submitted update that was superseded
+    * by a later update of the key.
+    */
+   private Time replicaUpdateSequence = null;
+
+   /**
+    * A sequence number of the oldest update of the bucket that the primary owner has not finished when it sent this
+    * update.
+    *
+    * @see ReplicationLagTracker#getUpdateFloor(int, Time)
+    */
+   private Time replicaUpdateFloor = null;
+
 
    /**
     * Required to support <code>Wireable</code>.
@@ -271,8 +304,24 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
          return;
       }
 
+      // Skip a re-submitted replica update that was superseded by a later update of the key
+      final boolean sequenced = isReplicaRequest() && replicaUpdateSequence != null;
+      if (sequenced && bucket.isStaleUpdate(key, replicaUpdateSequence)) {
+
+         if (LOG.isDebugEnabled()) {
+            LOG.debug("Skipping stale replica update of bucket " + bucketNumber + '@' + storageNumber + ": " + this);
+         }
+
+         cacheProcessor.post(createResponse(RESULT_SUCCESS));
+         return;
+      }
+
       // Process
       final ProcessingResult processingResult = processKey(bucket, key);
+      if (sequenced) {
+
+         bucket.notifyUpdateApplied(key, replicaUpdateSequence, replicaUpdateFloor);
+      }
 
       // Create response and set result
       final CacheResponse response = (CacheResponse) createResponse(RESULT_SUCCESS);
@@ -313,8 +362,10 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
 
          // There are subrequests
 
+         final boolean waitForReplicas = hasSynchronousReplicaUpdates(subrequests);
+
          // Post invalidate
-         if (invalidate) {
+         if (invalidate && waitForReplicas) {
 
             // Most important is that first all subrequests are created and attached and only then posted.
             cacheProcessor.post(createInvalidateAnnouncement(response));
@@ -325,10 +376,36 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
 
             cacheProcessor.post(subrequest);
          }
+
+         // Respond without waiting for replicas if all replica updates are asynchronous
+         if (!waitForReplicas) {
+
+            respond(invalidate, response);
+         }
       }
    }
 
 
+   /**
+    * Returns <code>true</code> if at least one of the subrequests has to complete before the primary owner responds.
+    *
+    * @param subrequests the replica subrequests.
+    * @return <code>true</code> if at least one of the subrequests has to complete before the primary owner responds.
+    */
+   private static boolean hasSynchronousReplicaUpdates(final List<? extends KeyRequest> subrequests) {
+
+      for (final KeyRequest subrequest : subrequests) {
+
+         if (!subrequest.asynchronousReplicaUpdate) {
+
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+
    private void respond(final boolean invalidate, final CacheResponse response) {
 
       if (invalidate) {
@@ -384,6 +461,11 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
 
    /**
     * Splits data carried by an implementation of <code>KeyRequest</code> into a collection of requests to replicas.
+    * <p/>
+    * Requests to the first {@link CacheProcessor#getAcknowledgedReplicaCount()} replicas are attached to this request so
+    * that the response is posted only when they complete. Requests to the rest of the replicas are asynchronous unless
+    * the replica owner lags behind more than allowed. If some replicas may be updated asynchronously, write requests
+    * to all replicas carry a sequence number.
     *
     * @param response the pre-created response.
     * @return a Collection of requests, each carrying parts of data per owner.
@@ -393,10 +475,15 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
 
       final CacheProcessor cacheProcessor = getCacheProcessor();
       final int replicaCount = cacheProcessor.getReplicaCount();
+      final int acknowledgedReplicaCount = cacheProcessor.getAcknowledgedReplicaCount();
+      final ReplicationLagTracker replicationLagTracker = cacheProcessor.getReplicationLagTracker();
       final int bucketNumber = cacheProcessor.getBucketNumber(key);
       Assert.assertTrue(replicaCount > 0, "Replica count should be greater than zero");
       final List<KeyRequest> result = new ArrayList<KeyRequest>(replicaCount);
       final Waiter ownerWaiter = (Waiter) getWaiter();
+      final boolean asynchronous = acknowledgedReplicaCount < replicaCount;
+      final long currentMillis = asynchronous ? cacheProcessor.getClock().currentTimeMillis() : 0L;
+      final Time sequence = asynchronous && !isReadRequest() ? cacheProcessor.getClock().currentTime() : null;
       for (int i = 1; i <= replicaCount; i++) {
 
          final ClusterNodeAddress owner = cacheProcessor.getBucketOwner(i, bucketNumber);
@@ -405,10 +492,34 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
             final KeyRequest subrequest = createRequest();
             subrequest.setReceiver(owner);
             subrequest.storageNumber = i;
-            ownerWaiter.attachSubrequest(response, subrequest);
+            subrequest.replicaUpdateSequence = sequence;
+            if (i <= acknowledgedReplicaCount || replicationLagTracker.isLagExceeded(owner, currentMillis)) {
+
+               ownerWaiter.attachSubrequest(response, subrequest);
+            } else {
+
+               subrequest.asynchronousReplicaUpdate = true;
+               subrequest.replicaUpdateSentMillis = currentMillis;
+               subrequest.replicaOwner = owner;
+               replicationLagTracker.notifyUpdateSent(owner, currentMillis);
+               if (sequence != null) {
+
+                  replicationLagTracker.notifySequenceSent(bucketNumber, sequence);
+               }
+            }
             result.add(subrequest);
          }
       }
+
+      // Let replica owners know which sequence numbers they no longer need
+      if (sequence != null) {
+
+         final Time updateFloor = replicationLagTracker.getUpdateFloor(bucketNumber, sequence);
+         for (final KeyRequest subrequest : result) {
+
+            subrequest.replicaUpdateFloor = updateFloor;
+         }
+      }
       return result;
    }
 
@@ -435,6 +546,8 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
       key = SerializerUtils.readBinary(in);
       storageNumber = in.readInt();
       prepared = in.readBoolean();
+      replicaUpdateSequence = SerializerUtils.readTime(in);
+      replicaUpdateFloor = SerializerUtils.readTime(in);
    }
 
 
@@ -450,6 +563,8 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
       SerializerUtils.writeBinary(out, key);
       out.writeInt(storageNumber);
       out.writeBoolean(prepared);
+      SerializerUtils.writeTime(replicaUpdateSequence, out);
+      SerializerUtils.writeTime(replicaUpdateFloor, out);
    }
 
    // ==================================================================================================================
@@ -536,11 +651,16 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
 
             if (getOwnerWaiter() == null) {
 
-               // This is a root request - try to cache result
-               if (getResult() instanceof CacheableValue) {
+               final KeyRequest keyRequest = (KeyRequest) getRequest();
+               if (keyRequest.asynchronousReplicaUpdate) {
+
+                  // This is an asynchronous replica update posted by the primary owner
+                  finishAsynchronousReplicaUpdate(keyRequest);
+
+               } else if (getResult() instanceof CacheableValue) {
 
-                  final KeyRequest request = (KeyRequest) getRequest();
-                  final CacheProcessor processor = (CacheProcessor) request.getProcessor();
+                  // This is a root request - try to cache result
+                  final CacheProcessor processor = (CacheProcessor) keyRequest.getProcessor();
                   final FrontCache frontCache = processor.getFrontCache();
                   if (frontCache != null) {
 
@@ -550,7 +670,7 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
                      if (expirationTime != null && expirationTime.compareTo(currentTime) > 0) {
 
                         // Cache
-                        frontCache.put(request.getKey(), cacheableValue.getBinaryValue(), expirationTime);
+                        frontCache.put(keyRequest.getKey(), cacheableValue.getBinaryValue(), expirationTime);
                      }
                   }
                }
@@ -580,6 +700,55 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
 
          super.notifyFinished();
       }
+
+
+      /**
+       * Registers completion of the asynchronous replica update and re-submits the update if the replica owner asked to
+       * retry. The re-submitted update keeps its sequence number so that the replica owner can reject it if the key has
+       * been updated since.
+       *
+       * @param request the asynchronous replica update.
+       */
+      private void finishAsynchronousReplicaUpdate(final KeyRequest request) {
+
+         final CacheProcessor processor = (CacheProcessor) request.getProcessor();
+         final ReplicationLagTracker replicationLagTracker = processor.getReplicationLagTracker();
+         final long currentMillis = processor.getClock().currentTimeMillis();
+         replicationLagTracker.notifyUpdateFinished(request.replicaOwner, request.replicaUpdateSentMillis,
+                 currentMillis);
+
+         final int bucketNumber = processor.getBucketNumber(request.getKey());
+         final Time sequence = request.replicaUpdateSequence;
+
+         // Re-submit to the current replica owner if required
+         if (getResult() instanceof RetryException) {
+
+            final ClusterNodeAddress owner = processor.getBucketOwner(request.storageNumber, bucketNumber);
+            if (owner != null) {
+
+               final KeyRequest retry = request.createRequest();
+               retry.setReceiver(owner);
+               retry.storageNumber = request.storageNumber;
+               retry.asynchronousReplicaUpdate = true;
+               retry.replicaUpdateSentMillis = currentMillis;
+               retry.replicaOwner = owner;
+               retry.replicaUpdateSequence = sequence;
+               if (sequence != null) {
+
+                  retry.replicaUpdateFloor = replicationLagTracker.getUpdateFloor(bucketNumber, sequence);
+               }
+               replicationLagTracker.notifyUpdateSent(owner, currentMillis);
+               processor.post(retry);
+               return;
+            }
+         }
+
+         // The update has finished
+         if (sequence != null) {
+
+            replicationLagTracker.notifySequenceFinished(bucketNumber, sequence);
+         }
+      }
    }
 
 
@@ -591,6 +760,8 @@ public abstract class KeyRequest extends CacheDataRequest implements Prepareable
               ", bucketNumber=" + bucketNumber +
               ", key=" + key +
               ", lockReconfiguringBucket=" + lockReconfiguringBucket +
+              ", asynchronousReplicaUpdate=" + asynchronousReplicaUpdate +
+              ", replicaUpdateSequence=" + replicaUpdateSequence +
               "} " + super.toString();
    }
 }
@@ -25,7 +25,6 @@ import org.cacheonix.impl.RuntimeIOException;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.cluster.node.state.group.Group;
-import org.cacheonix.impl.config.ConfigurationConstants;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
 import org.cacheonix.impl.net.processor.Message;
@@ -60,7 +59,6 @@ public abstract class KeySetAnnouncement extends AggregatingAnnouncement {
     */
    private static final Logger LOG = Logger.getLogger(KeySetAnnouncement.class); // NOPMD
 
-   private final BucketIndexCalculator bucketCalculator = new BucketIndexCalculator(ConfigurationConstants.BUCKET_COUNT);
 
    /**
     * Set of keys to process placed in buckets. At the root they are assigned to bucket 0 because all root needs is a
@@ -274,6 +272,7 @@ public abstract class KeySetAnnouncement extends AggregatingAnnouncement {
       final ReplicatedState replicatedState = processor.getProcessorState().getReplicatedState();
       final Group group = replicatedState.getGroup(Group.GROUP_TYPE_CACHE, getCacheName());
       final BucketOwnershipAssignment bucketOwnershipAssignment = group.getBucketOwnershipAssignment();
+      final BucketIndexCalculator bucketCalculator = new BucketIndexCalculator(group.getBucketCount());
 
       // Iterate bucket set
       keySetToSplit.forEachValue(new ObjectProcedure<HashSet<Binary>>() {
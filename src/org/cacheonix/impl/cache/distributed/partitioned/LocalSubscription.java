@@ -31,6 +31,11 @@ public final class LocalSubscription {
 
    private BinaryEntryModifiedSubscriber subscriber = null;
 
+   /**
+    * <code>true</code> if the subscriber is subscribed to modifications of all entries that match its filter.
+    */
+   private boolean cacheWide = false;
+
 
    public BinaryEntryModifiedSubscriber getSubscriber() {
 
@@ -50,6 +55,29 @@ public final class LocalSubscription {
    }
 
 
+   public boolean isCacheWide() {
+
+      return cacheWide;
+   }
+
+
+   public void setCacheWide(final boolean cacheWide) {
+
+      this.cacheWide = cacheWide;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the subscriber is not subscribed to any keys and is not subscribed cache-wide.
+    *
+    * @return <code>true</code> if the subscription can be removed from the local CacheProcessor state.
+    */
+   public boolean isEmpty() {
+
+      return keys.isEmpty() && !cacheWide;
+   }
+
+
    public void addKeys(final HashSet<Binary> keys) { // NOPMD
 
       this.keys.addAll(keys);
@@ -73,6 +101,7 @@ public final class LocalSubscription {
       return "LocalSubscription{" +
               "keys=" + keys +
               ", subscriber=" + subscriber +
+              ", cacheWide=" + cacheWide +
               '}';
    }
 }
@@ -0,0 +1,223 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.cache.util.EntryImpl;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.processor.ResponseWaiter;
+import org.cacheonix.impl.net.processor.RetryException;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * An iterator over the entries of a partitioned cache that fetches the entries page by page using {@link
+ * GetEntryPageRequest}. Only the current page and the page being prefetched are held in the client's heap.
+ * <p/>
+ * A page is a range of buckets. The iterator adjusts the number of buckets in a page so that a page holds about
+ * <code>pageSize</code> entries. As soon as a page arrives, the request for the next page is posted so that the next
+ * page is transferred while the caller is processing the current one.
+ * <p/>
+ * The iterator is weakly consistent: it returns each entry that exists for the whole time of the iteration exactly once
+ * and may or may not return entries added or removed during the iteration. The iterator is not thread-safe.
+ *
+ * @see PartitionedCache#entryIterator(int)
+ */
+final class PagedEntryIterator<K extends Serializable, V extends Serializable> implements Iterator<Entry<K, V>> {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(PagedEntryIterator.class); // NOPMD
+
+   /**
+    * The maximum number of buckets in a page.
+    */
+   private static final int MAX_BUCKET_SPAN = Integer.MAX_VALUE / 2;
+
+   private final Retrier retrier = new Retrier();
+
+   private final ClusterProcessor clusterProcessor;
+
+   private final Map<K, V> cache;
+
+   private final String cacheName;
+
+   /**
+    * The desired number of entries in a page.
+    */
+   private final int pageSize;
+
+   /**
+    * The entries of the current page.
+    */
+   private Iterator<Entry<Binary, Binary>> page = null;
+
+   /**
+    * The number of the first bucket of the next page to fetch or <code>-1</code> if all pages have been fetched.
+    */
+   private int nextBucket = 0;
+
+   /**
+    * The number of buckets to request in the next page. Starts with a single bucket and then is adjusted by the number
+    * of entries in the received pages.
+    */
+   private int bucketSpan = 1;
+
+   /**
+    * The waiter for the prefetched next page or <code>null</code> if the next page has not been requested yet.
+    */
+   private ResponseWaiter prefetchedPage = null;
+
+   /**
+    * The key of the entry last returned by {@link #next()} or <code>null</code> if it was removed or if {@link
+    * #next()} has not been called yet.
+    */
+   private K lastKey = null;
+
+
+   /**
+    * Creates a new <code>PagedEntryIterator</code>.
+    *
+    * @param clusterProcessor the cluster processor to send page requests to.
+    * @param cache            the cache to remove entries from.
+    * @param cacheName        the cache name.
+    * @param pageSize         the desired number of entries in a page.
+    */
+   PagedEntryIterator(final ClusterProcessor clusterProcessor, final Map<K, V> cache, final String cacheName,
+           final int pageSize) {
+
+      this.clusterProcessor = clusterProcessor;
+      this.cacheName = cacheName;
+      this.pageSize = pageSize;
+      this.cache = cache;
+   }
+
+
+   public boolean hasNext() {
+
+      while ((page == null || !page.hasNext()) && nextBucket >= 0) {
+
+         fetchPage();
+      }
+
+      return page != null && page.hasNext();
+   }
+
+
+   @SuppressWarnings("unchecked")
+   public Entry<K, V> next() {
+
+      if (!hasNext()) {
+         throw new NoSuchElementException();
+      }
+
+      final Entry<Binary, Binary> binaryEntry = page.next();
+
+      // Release the entry as soon as it is returned
+      page.remove();
+
+      final K key = (K) binaryEntry.getKey().getValue();
+      lastKey = key;
+      return new EntryImpl(key, binaryEntry.getValue().getValue());
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation removes the entry from the cache.
+    */
+   public void remove() {
+
+      if (lastKey == null) {
+         throw new IllegalStateException("next() has not been called or the entry has already been removed");
+      }
+
+      cache.remove(lastKey);
+      lastKey = null;
+   }
+
+
+   /**
+    * Waits for the next page, makes it current and posts a request for the page after it.
+    */
+   private void fetchPage() {
+
+      final int firstBucket = nextBucket;
+      final EntryPage entryPage = (EntryPage) retrier.retryUntilDone(new Retryable("entryIterator") {
+
+         public Object execute() throws RetryException {
+
+            // Use the prefetched page if any. A retry re-requests the whole page.
+            final ResponseWaiter waiter = prefetchedPage == null ? requestPage(firstBucket) : prefetchedPage;
+            prefetchedPage = null;
+            return waiter.waitForResult();
+         }
+      });
+
+      page = entryPage.getEntries().iterator();
+      nextBucket = entryPage.getNextBucket();
+      if (!entryPage.isLast()) {
+
+         bucketSpan = adjustBucketSpan(bucketSpan, nextBucket - firstBucket, entryPage.getEntries().size());
+         prefetchedPage = requestPage(nextBucket);
+      }
+   }
+
+
+   private ResponseWaiter requestPage(final int firstBucket) {
+
+      return clusterProcessor.route(new GetEntryPageRequest(cacheName, firstBucket, bucketSpan));
+   }
+
+
+   /**
+    * Calculates the number of buckets to request in the next page.
+    *
+    * @param currentSpan   the number of buckets that has been requested in the received page.
+    * @param bucketsRead   the number of buckets in the received page.
+    * @param entriesRead   the number of entries in the received page.
+    * @return the number of buckets that should hold about <code>pageSize</code> entries.
+    */
+   private int adjustBucketSpan(final int currentSpan, final int bucketsRead, final int entriesRead) {
+
+      if (entriesRead == 0) {
+
+         // Empty buckets, look further
+         return currentSpan >= MAX_BUCKET_SPAN ? MAX_BUCKET_SPAN : currentSpan << 1;
+      }
+
+      final long span = (long) pageSize * (long) bucketsRead / (long) entriesRead;
+      return (int) Math.max(1L, Math.min(span, (long) MAX_BUCKET_SPAN));
+   }
+
+
+   public String toString() {
+
+      return "PagedEntryIterator{" +
+              "cacheName='" + cacheName + '\'' +
+              ", pageSize=" + pageSize +
+              ", nextBucket=" + nextBucket +
+              ", bucketSpan=" + bucketSpan +
+              '}';
+   }
+}
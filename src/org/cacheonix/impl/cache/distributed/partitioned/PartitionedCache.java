@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -27,14 +28,19 @@ import java.util.concurrent.TimeUnit;
 import org.cacheonix.CacheonixException;
 import org.cacheonix.cache.CacheStatistics;
 import org.cacheonix.cache.NotSubscribedException;
+import org.cacheonix.cache.entry.AttributeExtractor;
 import org.cacheonix.cache.entry.CacheEntry;
 import org.cacheonix.cache.entry.EntryFilter;
 import org.cacheonix.cache.executor.Aggregator;
+import org.cacheonix.cache.executor.EntryProcessor;
 import org.cacheonix.cache.executor.Executable;
 import org.cacheonix.cache.subscriber.EntryModifiedSubscriber;
 import org.cacheonix.cluster.CacheMember;
 import org.cacheonix.impl.cache.CacheonixCache;
 import org.cacheonix.impl.cache.entry.CacheEntryImpl;
+import org.cacheonix.impl.cache.entry.ProjectionExecutable;
+import org.cacheonix.impl.cache.entry.QueryAggregator;
+import org.cacheonix.impl.cache.entry.QueryExecutable;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.cache.item.BinaryFactory;
 import org.cacheonix.impl.cache.item.BinaryFactoryBuilder;
@@ -44,11 +50,11 @@ import org.cacheonix.impl.cache.item.InvalidObjectException;
 import org.cacheonix.impl.cache.util.EntryImpl;
 import org.cacheonix.impl.clock.Clock;
 import org.cacheonix.impl.clock.Time;
-import org.cacheonix.impl.config.ConfigurationConstants;
 import org.cacheonix.impl.lock.DistributedReadWriteLock;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
 import org.cacheonix.impl.net.processor.Message;
+import org.cacheonix.impl.net.processor.ResponseWaiter;
 import org.cacheonix.impl.net.processor.RetryException;
 import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.net.serializer.SerializerFactory;
@@ -118,12 +124,6 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
     */
    private final ClusterProcessor clusterProcessor;
 
-   /**
-    * Bucket index calculator.
-    */
-   private final BucketIndexCalculator bucketCalculator = new BucketIndexCalculator(
-           ConfigurationConstants.BUCKET_COUNT);
-
    /**
     * Cluster clock.
     */
@@ -199,6 +199,20 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
    }
 
 
+   @SuppressWarnings("unchecked")
+   public Map<K, V> query(final EntryFilter entryFilter) {
+
+      return (Map<K, V>) execute(entryFilter, new QueryExecutable(), new QueryAggregator());
+   }
+
+
+   @SuppressWarnings("unchecked")
+   public Map<K, Object> project(final EntryFilter entryFilter, final AttributeExtractor extractor) {
+
+      return (Map<K, Object>) execute(entryFilter, new ProjectionExecutable(extractor), new QueryAggregator());
+   }
+
+
    public Serializable executeAll(final Set<K> keys, final Executable executable, final Aggregator aggregator) {
 
       // Optimize for single size key set
@@ -225,6 +239,82 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
    }
 
 
+   /**
+    * {@inheritDoc}
+    */
+   public Serializable invoke(final K key, final EntryProcessor entryProcessor) {
+
+      // Create a copy to get a bullet-proof guarantee that it can pass through the wire
+      final EntryProcessor entryProcessorCopy = copy(entryProcessor);
+
+      return (Serializable) retrier.retryUntilDone(new Retryable("invoke") {
+
+         public Object execute() throws RetryException {
+
+            final ClusterProcessor clusterProcessor = PartitionedCache.this.clusterProcessor;
+            final Binary binaryKey = createBinary(key);
+            final InvokeRequest request = new InvokeRequest(address, cacheName, binaryKey, entryProcessorCopy);
+            return clusterProcessor.execute(request);
+         }
+      });
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation posts requests for all keys before waiting for results. Only the keys that were asked to retry
+    * are re-sent on the next attempt.
+    */
+   public Map<K, Serializable> invokeAll(final Set<K> keys, final EntryProcessor entryProcessor) {
+
+      // Create a copy to get a bullet-proof guarantee that it can pass through the wire
+      final EntryProcessor entryProcessorCopy = copy(entryProcessor);
+
+      final Map<K, Serializable> result = new HashMap<K, Serializable>(keys.size());
+      final Set<K> pendingKeys = new HashSet<K>(keys);
+      retrier.retryUntilDone(new Retryable("invokeAll") {
+
+         public Object execute() throws RetryException {
+
+            // Post requests
+            final ClusterProcessor clusterProcessor = PartitionedCache.this.clusterProcessor;
+            final Map<K, ResponseWaiter> responseWaiters = new HashMap<K, ResponseWaiter>(pendingKeys.size());
+            for (final K key : pendingKeys) {
+
+               final InvokeRequest request = new InvokeRequest(address, cacheName, createBinary(key),
+                       entryProcessorCopy);
+               responseWaiters.put(key, clusterProcessor.route(request));
+            }
+
+            // Collect results
+            RetryException retryException = null;
+            for (final Entry<K, ResponseWaiter> entry : responseWaiters.entrySet()) {
+
+               try {
+
+                  final K key = entry.getKey();
+                  result.put(key, (Serializable) entry.getValue().waitForResult());
+                  pendingKeys.remove(key);
+               } catch (final RetryException e) {
+
+                  retryException = e;
+               }
+            }
+
+            // Retry keys that were not processed
+            if (retryException != null) {
+
+               throw retryException;
+            }
+
+            return null;
+         }
+      });
+      return result;
+   }
+
+
    public int size() {
 
       return ((Number) retrier.retryUntilDone(new Retryable("size") {
@@ -390,6 +480,21 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
    }
 
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation walks the cache in ranges of buckets using {@link GetEntryPageRequest}.
+    */
+   public Iterator<Entry<K, V>> entryIterator(final int pageSize) {
+
+      if (pageSize <= 0) {
+         throw new IllegalArgumentException("Page size should be positive: " + pageSize);
+      }
+
+      return new PagedEntryIterator<K, V>(clusterProcessor, this, cacheName, pageSize);
+   }
+
+
    public Set<K> keySet() {
 
       //noinspection unchecked
@@ -629,20 +734,25 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
    }
 
 
+   /**
+    * Converts a set of keys to a root key set of a <code>KeySetRequest</code>. The keys are placed in bucket 0 because
+    * the request splits the root key set by the keys' bucket owners using the bucket count of the cache.
+    *
+    * @param keys the set of keys to convert.
+    * @return the root key set.
+    */
    private IntObjectHashMap<HashSet<Binary>> toBinaryKeySet(final Set<K> keys) {
 
-      final IntObjectHashMap<HashSet<Binary>> binaryKeySet = new IntObjectHashMap<HashSet<Binary>>(1);
+      final HashSet<Binary> binaries = new HashSet<Binary>(keys.size());
       for (final K key : keys) {
 
-         final int bucketNumber = bucketCalculator.calculateBucketIndex(key);
-         HashSet<Binary> binaries = binaryKeySet.get(bucketNumber);
-         if (binaries == null) {
-
-            binaries = new HashSet<Binary>(1);
-            binaryKeySet.put(bucketNumber, binaries);
-         }
          binaries.add(createBinary(key));
       }
+      final IntObjectHashMap<HashSet<Binary>> binaryKeySet = new IntObjectHashMap<HashSet<Binary>>(1);
+      if (!binaries.isEmpty()) {
+
+         binaryKeySet.put(0, binaries);
+      }
       return binaryKeySet;
    }
 
@@ -818,8 +928,7 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
          public Object execute() throws RetryException {
 
             final ClusterProcessor clusterProcessor = PartitionedCache.this.clusterProcessor;
-            final GetKeyOwnerRequest request = new GetKeyOwnerRequest(cacheName, 0,
-                    bucketCalculator.calculateBucketIndex(key));
+            final GetKeyOwnerRequest request = new GetKeyOwnerRequest(cacheName, 0, key.hashCode());
             request.setReceiver(address);
             final ClusterNodeAddress owner = clusterProcessor.execute(request);
             return new CacheMemberImpl(owner, cacheName);
@@ -923,6 +1032,63 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
    }
 
 
+   /**
+    * {@inheritDoc}
+    */
+   public void addCacheEventSubscriber(final EntryFilter filter, final EntryModifiedSubscriber subscriber) {
+
+      final ClusterProcessor clusterProcessor = this.clusterProcessor;
+
+      retrier.retryUntilDone(new Retryable("addCacheEventSubscriber") {
+
+         public Object execute() throws RetryException {
+
+            // Create request
+            final AddCacheEntryModifiedSubscriberRequest request = new AddCacheEntryModifiedSubscriberRequest(
+                    cacheName);
+            request.setSubscriberAddress(address);
+            request.setLocalSubscriber(subscriber);
+            request.setReceiver(address);
+            request.setFilter(filter);
+
+            // Wait until done
+            clusterProcessor.execute(request);
+
+            // Done
+            return null;
+         }
+      });
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void removeCacheEventSubscriber(final EntryModifiedSubscriber subscriber) throws NotSubscribedException {
+
+      final ClusterProcessor clusterProcessor = this.clusterProcessor;
+
+      retrier.retryUntilDone(new Retryable("removeCacheEventSubscriber") {
+
+         public Object execute() throws RetryException {
+
+            // Create request
+            final RemoveCacheEntryModifiedSubscriberRequest request = new RemoveCacheEntryModifiedSubscriberRequest(
+                    cacheName);
+            request.setSubscriberAddress(address);
+            request.setSubscriber(subscriber);
+            request.setReceiver(address);
+
+            // Wait until done
+            clusterProcessor.execute(request);
+
+            // Done
+            return null;
+         }
+      });
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -971,6 +1137,22 @@ public final class PartitionedCache<K extends Serializable, V extends Serializab
    }
 
 
+   private static EntryProcessor copy(final EntryProcessor entryProcessor) {
+
+      final EntryProcessor entryProcessorCopy;
+      try {
+         final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+         final byte[] bytes = serializer.serialize(entryProcessor);
+         entryProcessorCopy = (EntryProcessor) serializer.deserialize(bytes);
+      } catch (final RuntimeException e) {
+         throw e;
+      } catch (final Exception e) {
+         throw new RuntimeInvalidObjectException(e);
+      }
+      return entryProcessorCopy;
+   }
+
+
    private static EntryFilter copy(final EntryFilter filter) {
 
       final EntryFilter filterCopy;
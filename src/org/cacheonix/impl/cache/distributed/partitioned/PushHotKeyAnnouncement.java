@@ -0,0 +1,187 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.clock.Time;
+import org.cacheonix.impl.cluster.node.state.group.Group;
+import org.cacheonix.impl.cluster.node.state.group.GroupMessage;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A reliable totally ordered multicast message that a primary bucket owner sends to push a value of a hot key to the
+ * front caches of all cache members.
+ * <p/>
+ * The primary owner renews the read lease of the key's bucket before sending this announcement, so a write to the
+ * bucket posts a {@link ClearFrontCacheBucketAnnouncement} that is delivered after this announcement.
+ *
+ * @see PushHotKeyMessage
+ * @see HotKeyTracker
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class PushHotKeyAnnouncement extends GroupMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   private Binary key = null;
+
+   private Binary value = null;
+
+   /**
+    * A time until that the front caches may serve the value.
+    */
+   private Time leaseExpirationTime = null;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public PushHotKeyAnnouncement() {
+
+   }
+
+
+   /**
+    * Creates PushHotKeyAnnouncement.
+    *
+    * @param cacheName           a cache name.
+    * @param key                 a hot key.
+    * @param value               a value of the hot key.
+    * @param leaseExpirationTime a time until that the front caches may serve the value.
+    */
+   public PushHotKeyAnnouncement(final String cacheName, final Binary key, final Binary value,
+                                 final Time leaseExpirationTime) {
+
+      super(TYPE_CACHE_PUSH_HOT_KEY_ANNOUNCEMENT, Group.GROUP_TYPE_CACHE, cacheName);
+      this.key = key;
+      this.value = value;
+      this.leaseExpirationTime = leaseExpirationTime;
+   }
+
+
+   Binary getKey() {
+
+      return key;
+   }
+
+
+   Binary getValue() {
+
+      return value;
+   }
+
+
+   Time getLeaseExpirationTime() {
+
+      return leaseExpirationTime;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation posts the value to the local cache processor.
+    */
+   public void execute() {
+
+      getProcessor().post(new PushHotKeyMessage(getGroupName(), key, value, leaseExpirationTime));
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      SerializerUtils.writeBinary(out, key);
+      SerializerUtils.writeBinary(out, value);
+      SerializerUtils.writeTime(leaseExpirationTime, out);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      key = SerializerUtils.readBinary(in);
+      value = SerializerUtils.readBinary(in);
+      leaseExpirationTime = SerializerUtils.readTime(in);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final PushHotKeyAnnouncement that = (PushHotKeyAnnouncement) o;
+
+      if (key != null ? !key.equals(that.key) : that.key != null) {
+         return false;
+      }
+      if (value != null ? !value.equals(that.value) : that.value != null) {
+         return false;
+      }
+      if (leaseExpirationTime != null ? !leaseExpirationTime.equals(that.leaseExpirationTime) : that.leaseExpirationTime != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (key != null ? key.hashCode() : 0);
+      result = 31 * result + (value != null ? value.hashCode() : 0);
+      result = 31 * result + (leaseExpirationTime != null ? leaseExpirationTime.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "PushHotKeyAnnouncement{" +
+              "key=" + key +
+              ", value=" + value +
+              ", leaseExpirationTime=" + leaseExpirationTime +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new PushHotKeyAnnouncement();
+      }
+   }
+}
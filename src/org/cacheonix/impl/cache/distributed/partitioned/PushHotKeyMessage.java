@@ -0,0 +1,139 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.clock.Time;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * This message puts a value of a hot key to the front cache of the local cache.
+ *
+ * @see PushHotKeyAnnouncement
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class PushHotKeyMessage extends LocalCacheMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   private Binary key = null;
+
+   private Binary value = null;
+
+   private Time leaseExpirationTime = null;
+
+
+   private PushHotKeyMessage() {
+
+   }
+
+
+   public PushHotKeyMessage(final String cacheName, final Binary key, final Binary value,
+                            final Time leaseExpirationTime) {
+
+      super(Wireable.TYPE_CACHE_PUSH_HOT_KEY_MESSAGE, cacheName);
+
+      this.key = key;
+      this.value = value;
+      this.leaseExpirationTime = leaseExpirationTime;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation puts the value to the front cache if the front cache is present and if the lease has not
+    * expired yet.
+    */
+   protected void executeOperational() {
+
+      final CacheProcessor cacheProcessor = getCacheProcessor();
+
+      final FrontCache frontCache = cacheProcessor.getFrontCache();
+      if (frontCache != null && leaseExpirationTime.compareTo(cacheProcessor.getClock().currentTime()) > 0) {
+
+         frontCache.put(key, value, leaseExpirationTime);
+      }
+   }
+
+
+   protected void executeBlocked() {
+
+      // Buckets may be moving, do nothing
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final PushHotKeyMessage that = (PushHotKeyMessage) o;
+
+      if (key != null ? !key.equals(that.key) : that.key != null) {
+         return false;
+      }
+      if (value != null ? !value.equals(that.value) : that.value != null) {
+         return false;
+      }
+      if (leaseExpirationTime != null ? !leaseExpirationTime.equals(that.leaseExpirationTime) : that.leaseExpirationTime != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (key != null ? key.hashCode() : 0);
+      result = 31 * result + (value != null ? value.hashCode() : 0);
+      result = 31 * result + (leaseExpirationTime != null ? leaseExpirationTime.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "PushHotKeyMessage{" +
+              "key=" + key +
+              ", value=" + value +
+              ", leaseExpirationTime=" + leaseExpirationTime +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new PushHotKeyMessage(); // NOPMD
+      }
+   }
+}
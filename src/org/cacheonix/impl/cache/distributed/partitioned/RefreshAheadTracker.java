@@ -0,0 +1,221 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.util.array.HashMap;
+import org.cacheonix.impl.util.array.HashSet;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * Tracks reads of front cache elements and decides when an element should be refreshed from the key owner ahead of its
+ * expiration.
+ * <p/>
+ * The tracker counts reads of an element from the time the element was put to the front cache. A read of an element
+ * that was read at least <code>refreshAheadReads</code> times and that expires in less than
+ * <code>refreshAheadTimeMillis</code> starts a refresh. The front cache continues serving the element while the
+ * refresh is in progress, and only one refresh per key runs at a time. The refreshed element replaces the old one with
+ * a new expiration time, so the reads of hot keys never wait for the owner.
+ */
+public final class RefreshAheadTracker {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(RefreshAheadTracker.class); // NOPMD
+
+   /**
+    * Max number of keys which reads are counted when the number of elements in the front cache is not limited.
+    */
+   static final int DEFAULT_MAX_TRACKED_KEYS = 100000;
+
+   /**
+    * A time before the expiration of an element when a read starts a refresh. Zero disables refresh-ahead.
+    */
+   private final long refreshAheadTimeMillis;
+
+   /**
+    * A number of reads that makes an element eligible for refresh-ahead.
+    */
+   private final int refreshAheadReads;
+
+   /**
+    * Max number of keys which reads are counted.
+    */
+   private final int maxTrackedKeys;
+
+   /**
+    * Read counters.
+    */
+   private final HashMap<Binary, ReadCounter> counters = new HashMap<Binary, ReadCounter>(1); // NOPMD
+
+   /**
+    * Keys being refreshed.
+    */
+   private final HashSet<Binary> refreshingKeys = new HashSet<Binary>(1); // NOPMD
+
+
+   /**
+    * Creates RefreshAheadTracker.
+    *
+    * @param refreshAheadTimeMillis a time before the expiration of an element when a read starts a refresh. Zero
+    *                               disables refresh-ahead.
+    * @param refreshAheadReads      a number of reads that makes an element eligible for refresh-ahead.
+    * @param maxTrackedKeys         max number of keys which reads are counted. Zero or less means that the number of
+    *                               elements in the front cache is not limited, in which case {@link
+    *                               #DEFAULT_MAX_TRACKED_KEYS} keys are tracked.
+    */
+   RefreshAheadTracker(final long refreshAheadTimeMillis, final int refreshAheadReads, final int maxTrackedKeys) {
+
+      this.refreshAheadTimeMillis = refreshAheadTimeMillis;
+      this.refreshAheadReads = refreshAheadReads;
+      this.maxTrackedKeys = maxTrackedKeys > 0 ? maxTrackedKeys : DEFAULT_MAX_TRACKED_KEYS;
+   }
+
+
+   /**
+    * Returns <code>true</code> if refresh-ahead is enabled.
+    *
+    * @return <code>true</code> if refresh-ahead is enabled.
+    */
+   boolean isEnabled() {
+
+      return refreshAheadTimeMillis > 0L;
+   }
+
+
+   /**
+    * Registers a read of a front cache element.
+    *
+    * @param key              the key of the element.
+    * @param expirationMillis the expiration time of the element.
+    * @param currentMillis    current time.
+    * @return <code>true</code> if the caller should start refreshing the element. The caller must call {@link
+    *         #notifyRefreshFinished(Binary)} when the refresh finishes.
+    */
+   synchronized boolean registerRead(final Binary key, final long expirationMillis, final long currentMillis) {
+
+      if (!isEnabled()) {
+
+         return false;
+      }
+
+      // Start counting over if the element has been replaced
+      ReadCounter counter = counters.get(key);
+      if (counter == null || counter.expirationMillis != expirationMillis) {
+
+         if (counter == null && counters.size() >= maxTrackedKeys) {
+
+            removeExpiredCounters(currentMillis);
+            if (counters.size() >= maxTrackedKeys) {
+
+               return false;
+            }
+         }
+
+         counter = new ReadCounter(expirationMillis);
+         counters.put(key, counter);
+      }
+      counter.reads++;
+
+      if (counter.reads < refreshAheadReads || expirationMillis - currentMillis > refreshAheadTimeMillis) {
+
+         return false;
+      }
+
+      // Refresh unless already refreshing
+      return refreshingKeys.add(key);
+   }
+
+
+   /**
+    * Notifies the tracker that a refresh of an element has finished, successfully or not. A failed refresh is
+    * restarted by a next read.
+    *
+    * @param key the key of the refreshed element.
+    */
+   synchronized void notifyRefreshFinished(final Binary key) {
+
+      refreshingKeys.remove(key);
+      counters.remove(key);
+   }
+
+
+   /**
+    * Returns max number of keys which reads are counted.
+    *
+    * @return the max number of keys which reads are counted.
+    */
+   int getMaxTrackedKeys() {
+
+      return maxTrackedKeys;
+   }
+
+
+   /**
+    * Returns a number of keys being refreshed.
+    *
+    * @return the number of keys being refreshed.
+    */
+   synchronized int getRefreshingKeyCount() {
+
+      return refreshingKeys.size();
+   }
+
+
+   private void removeExpiredCounters(final long currentMillis) {
+
+      for (final Iterator<Entry<Binary, ReadCounter>> iterator = counters.entrySet().iterator(); iterator.hasNext(); ) {
+
+         if (iterator.next().getValue().expirationMillis <= currentMillis) {
+
+            iterator.remove();
+         }
+      }
+   }
+
+
+   public synchronized String toString() {
+
+      return "RefreshAheadTracker{" +
+              "refreshAheadTimeMillis=" + refreshAheadTimeMillis +
+              ", refreshAheadReads=" + refreshAheadReads +
+              ", maxTrackedKeys=" + maxTrackedKeys +
+              ", counters.size()=" + counters.size() +
+              ", refreshingKeys.size()=" + refreshingKeys.size() +
+              '}';
+   }
+
+
+   /**
+    * A number of reads of an element since it was put to the front cache.
+    */
+   private static final class ReadCounter {
+
+      private final long expirationMillis;
+
+      private int reads = 0;
+
+
+      ReadCounter(final long expirationMillis) {
+
+         this.expirationMillis = expirationMillis;
+      }
+   }
+}
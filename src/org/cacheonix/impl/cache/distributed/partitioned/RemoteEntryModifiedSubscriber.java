@@ -21,7 +21,6 @@ import org.cacheonix.cache.subscriber.EntryModifiedEventType;
 import org.cacheonix.cache.subscriber.EntryModifiedNotificationMode;
 import org.cacheonix.impl.cache.store.BinaryEntryModifiedSubscriber;
 import org.cacheonix.impl.cache.subscriber.BinaryEntryModifiedEvent;
-import org.cacheonix.impl.net.processor.RequestProcessor;
 import org.cacheonix.impl.util.logging.Logger;
 
 /**
@@ -40,9 +39,9 @@ public final class RemoteEntryModifiedSubscriber implements BinaryEntryModifiedS
    private static final Logger LOG = Logger.getLogger(KeySetAnnouncement.class); // NOPMD
 
    /**
-    * Processor used to send the notification message.
+    * Cache processor used to send the notification message.
     */
-   private RequestProcessor processor = null;
+   private CacheProcessor processor = null;
 
    /**
     * Subscription description.
@@ -59,25 +58,15 @@ public final class RemoteEntryModifiedSubscriber implements BinaryEntryModifiedS
    /**
     * {@inheritDoc}
     * <p/>
-    * This implementation creates and posts a notification message to the subscriber described by
-    * <code>subscription</code>.
+    * This implementation submits the events to the cache processor's notification batcher that sends them to the
+    * subscriber described by <code>subscription</code>.
     *
     * @see #subscription
+    * @see EntryModifiedNotificationBatcher#submit(EntryModifiedSubscription, List)
     */
    public void notifyKeysUpdated(final List<BinaryEntryModifiedEvent> events) {
 
-      final EntryModifiedNotificationMessage entryModifiedMessage = new EntryModifiedNotificationMessage(cacheName);
-      entryModifiedMessage.setSubscriberIdentity(subscription.getSubscriberIdentity());
-      entryModifiedMessage.setReceiver(subscription.getSubscriberAddress());
-      entryModifiedMessage.setEvents(events);
-
-      try {
-
-         processor.post(entryModifiedMessage);
-      } catch (final Exception e) {
-
-         LOG.warn("Error while posting an entry modified event message: " + e, e);
-      }
+      processor.getEntryModifiedNotificationBatcher().submit(subscription, events);
    }
 
 
@@ -115,9 +104,11 @@ public final class RemoteEntryModifiedSubscriber implements BinaryEntryModifiedS
 
 
    /**
-    * {@inheritDoc}
+    * Sets the cache processor used to send the notification message.
+    *
+    * @param processor the cache processor used to send the notification message.
     */
-   public void setProcessor(final RequestProcessor processor) {
+   public void setProcessor(final CacheProcessor processor) {
 
       this.processor = processor;
    }
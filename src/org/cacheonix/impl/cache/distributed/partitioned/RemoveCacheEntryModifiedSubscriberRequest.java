@@ -0,0 +1,166 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.Map;
+
+import org.cacheonix.cache.NotSubscribedException;
+import org.cacheonix.cache.subscriber.EntryModifiedSubscriber;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.net.processor.RouteByReferenceRequest;
+import org.cacheonix.impl.net.processor.SimpleWaiter;
+import org.cacheonix.impl.net.processor.Waiter;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A <b>local</b> cache request to unregister a cache-wide subscriber from the local <code>CacheProcessor</code> and to
+ * initiate an un-subscription sequence.
+ * <p/>
+ * This request initiates the un-subscription sequence by posting a reliable mcast message
+ * <code>RemoveCacheEntryModifiedSubscriptionAnnouncement</code>.
+ * <p/>
+ * This request is sent by <code>PartitionedCache.removeCacheEventSubscriber()</code>.
+ *
+ * @see PartitionedCache#removeCacheEventSubscriber(EntryModifiedSubscriber)
+ * @see RemoveCacheEntryModifiedSubscriptionAnnouncement
+ */
+public final class RemoveCacheEntryModifiedSubscriberRequest extends LocalCacheRequest implements RouteByReferenceRequest {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   private ClusterNodeAddress subscriberAddress = null;
+
+   private transient EntryModifiedSubscriber subscriber = null;
+
+
+   private RemoveCacheEntryModifiedSubscriberRequest() {
+
+   }
+
+
+   public RemoveCacheEntryModifiedSubscriberRequest(final String cacheName) {
+
+      super(TYPE_CACHE_REMOVE_CACHE_ENTRY_MODIFIED_SUBSCRIBER_REQUEST, cacheName);
+   }
+
+
+   public void setSubscriber(final EntryModifiedSubscriber subscriber) {
+
+      this.subscriber = subscriber;
+   }
+
+
+   EntryModifiedSubscriber getSubscriber() {
+
+      return subscriber;
+   }
+
+
+   public void setSubscriberAddress(final ClusterNodeAddress subscriberAddress) {
+
+      this.subscriberAddress = subscriberAddress;
+   }
+
+
+   ClusterNodeAddress getSubscriberAddress() {
+
+      return subscriberAddress;
+   }
+
+
+   protected void executeOperational() {
+
+      final CacheProcessor processor = getCacheProcessor();
+
+      //
+      // Remove local subscription
+      //
+
+      final Map<Integer, LocalSubscription> localSubscriptions = processor.getLocalEntryModifiedSubscriptions();
+      final int subscriberIdentity = System.identityHashCode(subscriber);
+      final LocalSubscription localSubscription = localSubscriptions.get(subscriberIdentity);
+      if (localSubscription == null || !localSubscription.isCacheWide()) {
+
+         // Not subscribed, return error. It's OK to return an exception
+         // because this is a local request/response.
+         final Response errorResponse = createResponse(Response.RESULT_ERROR);
+         errorResponse.setResult(new NotSubscribedException(subscriber.toString()));
+         getProcessor().post(errorResponse);
+         return;
+      }
+
+      localSubscription.setCacheWide(false);
+      if (localSubscription.isEmpty()) {
+
+         localSubscriptions.remove(subscriberIdentity);
+      }
+
+      //
+      // Send reliable mcast announcement to begin un-subscription process
+      //
+
+      processor.post(new RemoveCacheEntryModifiedSubscriptionAnnouncement(getCacheName(), subscriberAddress,
+              subscriberIdentity, getUuid()));
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation simply posts <code>Response.RESULT_RETRY</code>.
+    */
+   protected void executeBlocked() {
+
+      // If the CacheProcessor is in Blocked state, there is a good chance
+      // the reliable multicast is disabled, so it is better simply to wait.
+      getProcessor().post(createResponse(Response.RESULT_RETRY));
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns {@link SimpleWaiter}.
+    */
+   protected Waiter createWaiter() {
+
+      return new SimpleWaiter(this);
+   }
+
+
+   public String toString() {
+
+      return "RemoveCacheEntryModifiedSubscriberRequest{" +
+              "subscriberAddress=" + subscriberAddress +
+              ", subscriber=" + subscriber +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new RemoveCacheEntryModifiedSubscriberRequest(); // NOPMD
+      }
+   }
+}
@@ -0,0 +1,204 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.cacheonix.impl.cluster.node.state.group.Group;
+import org.cacheonix.impl.cluster.node.state.group.GroupMessage;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.net.processor.UUID;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A reliable totally ordered multicast message to remove a cache-wide modification subscription from the replicated
+ * state.
+ * <p/>
+ * After updating the replicated state at the subscriber node, this announcement responds to the originating
+ * <code>RemoveCacheEntryModifiedSubscriberRequest</code>.
+ *
+ * @see RemoveCacheEntryModifiedSubscriberRequest
+ * @see RemoveRemoteCacheEntryModifiedSubscriberMessage
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class RemoveCacheEntryModifiedSubscriptionAnnouncement extends GroupMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   private ClusterNodeAddress subscriberAddress = null;
+
+   private int subscriberIdentity = 0;
+
+   /**
+    * The UUID of the request to respond to at the subscriber node.
+    */
+   private UUID requestUUID = null;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public RemoveCacheEntryModifiedSubscriptionAnnouncement() {
+
+   }
+
+
+   /**
+    * Creates RemoveCacheEntryModifiedSubscriptionAnnouncement.
+    *
+    * @param cacheName          a cache name.
+    * @param subscriberAddress  the address of the subscriber.
+    * @param subscriberIdentity the identity of the subscriber.
+    * @param requestUUID        the UUID of the request to respond to at the subscriber node.
+    */
+   public RemoveCacheEntryModifiedSubscriptionAnnouncement(final String cacheName,
+                                                           final ClusterNodeAddress subscriberAddress,
+                                                           final int subscriberIdentity, final UUID requestUUID) {
+
+      super(TYPE_UNREGISTER_CACHE_SUBSCRIPTION_ANNOUNCEMENT, Group.GROUP_TYPE_CACHE, cacheName);
+      this.subscriberAddress = subscriberAddress;
+      this.subscriberIdentity = subscriberIdentity;
+      this.requestUUID = requestUUID;
+   }
+
+
+   ClusterNodeAddress getSubscriberAddress() {
+
+      return subscriberAddress;
+   }
+
+
+   int getSubscriberIdentity() {
+
+      return subscriberIdentity;
+   }
+
+
+   UUID getRequestUUID() {
+
+      return requestUUID;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation removes the subscription from the group and responds to the originating request if this is
+    * the subscriber node.
+    */
+   public void execute() {
+
+      final Group group = getReplicatedState().getGroup(getGroupType(), getGroupName());
+      if (group != null) {
+
+         group.removeCacheEntryModifiedSubscription(subscriberAddress, subscriberIdentity);
+      }
+
+      if (getProcessor().getAddress().equals(subscriberAddress)) {
+
+         final CacheResponse response = new CacheResponse(getGroupName());
+         response.setResponseToClass(RemoveCacheEntryModifiedSubscriberRequest.class);
+         response.setResponseToUUID(requestUUID);
+         response.setResultCode(Response.RESULT_SUCCESS);
+         response.setReceiver(subscriberAddress);
+         getProcessor().post(response);
+      }
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      SerializerUtils.writeAddress(subscriberAddress, out);
+      out.writeInt(subscriberIdentity);
+      SerializerUtils.writeUuid(requestUUID, out);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      subscriberAddress = SerializerUtils.readAddress(in);
+      subscriberIdentity = in.readInt();
+      requestUUID = SerializerUtils.readUuid(in);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final RemoveCacheEntryModifiedSubscriptionAnnouncement that = (RemoveCacheEntryModifiedSubscriptionAnnouncement) o;
+
+      if (subscriberIdentity != that.subscriberIdentity) {
+         return false;
+      }
+      if (subscriberAddress != null ? !subscriberAddress.equals(that.subscriberAddress) : that.subscriberAddress != null) {
+         return false;
+      }
+      if (requestUUID != null ? !requestUUID.equals(that.requestUUID) : that.requestUUID != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (subscriberAddress != null ? subscriberAddress.hashCode() : 0);
+      result = 31 * result + subscriberIdentity;
+      result = 31 * result + (requestUUID != null ? requestUUID.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "RemoveCacheEntryModifiedSubscriptionAnnouncement{" +
+              "subscriberAddress=" + subscriberAddress +
+              ", subscriberIdentity=" + subscriberIdentity +
+              ", requestUUID=" + requestUUID +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new RemoveCacheEntryModifiedSubscriptionAnnouncement();
+      }
+   }
+}
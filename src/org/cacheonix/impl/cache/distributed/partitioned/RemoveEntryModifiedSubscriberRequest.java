@@ -146,7 +146,7 @@ public final class RemoveEntryModifiedSubscriberRequest extends LocalCacheReques
       }
 
       // Remove subscriber if it is not interested in any keys.
-      if (!localSubscription.hasKeys()) {
+      if (localSubscription.isEmpty()) {
 
          // No keys left, remove subscription
          localSubscriptions.remove(subscriberIdentity);
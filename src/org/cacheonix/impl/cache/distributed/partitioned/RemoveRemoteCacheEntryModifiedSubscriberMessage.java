@@ -0,0 +1,142 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A local CacheMessage that removes a RemoteEntryModifiedSubscriber of a cache-wide subscription from all primary
+ * buckets owned by the local cache processor.
+ * <p/>
+ * The message is sent by <code>EntryEventSubscriptionConfigurationSubscriber</code> after the cache-wide subscription
+ * is removed from the replicated state, either by a subscriber or due to the subscriber leaving the cache group.
+ *
+ * @see EntryEventSubscriptionConfigurationSubscriber#notifyCacheSubscriptionRemoved(EntryModifiedSubscription)
+ */
+public final class RemoveRemoteCacheEntryModifiedSubscriberMessage extends LocalCacheMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   private ClusterNodeAddress subscriberAddress = null;
+
+   private int subscriberIdentity = 0;
+
+
+   /**
+    * Required by Wireable.
+    */
+   private RemoveRemoteCacheEntryModifiedSubscriberMessage() {
+
+   }
+
+
+   /**
+    * Creates RemoveRemoteCacheEntryModifiedSubscriberMessage
+    *
+    * @param cacheName a cache name.
+    */
+   public RemoveRemoteCacheEntryModifiedSubscriberMessage(final String cacheName) {
+
+      super(TYPE_CACHE_REMOVE_REMOTE_CACHE_SUBSCRIBER_MESSAGE, cacheName);
+   }
+
+
+   /**
+    * Sets an address of the subscriber's node. Subscriber identities are unique only within a node.
+    *
+    * @param subscriberAddress the address of the subscriber's node.
+    */
+   public void setSubscriberAddress(final ClusterNodeAddress subscriberAddress) {
+
+      this.subscriberAddress = subscriberAddress;
+   }
+
+
+   ClusterNodeAddress getSubscriberAddress() {
+
+      return subscriberAddress;
+   }
+
+
+   /**
+    * Sets a subscriber identity.
+    *
+    * @param subscriberIdentity the subscriber identity.
+    */
+   public void setSubscriberIdentity(final int subscriberIdentity) {
+
+      this.subscriberIdentity = subscriberIdentity;
+   }
+
+
+   int getSubscriberIdentity() {
+
+      return subscriberIdentity;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation removes a RemoteEntryModifiedSubscriber from the owned primary buckets.
+    */
+   protected void executeOperational() {
+
+      final CacheProcessor cacheProcessor = getCacheProcessor();
+
+      final int bucketCount = cacheProcessor.getBucketCount();
+      for (int bucketNumber = 0; bucketNumber < bucketCount; bucketNumber++) {
+
+         if (cacheProcessor.hasBucket(0, bucketNumber)) {
+
+            cacheProcessor.getBucket(0, bucketNumber).removeCacheEventSubscriber(subscriberAddress, subscriberIdentity);
+         }
+      }
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   protected void executeBlocked() {
+
+      executeOperational();
+   }
+
+
+   public String toString() {
+
+      return "RemoveRemoteCacheEntryModifiedSubscriberMessage{" +
+              "subscriberAddress=" + subscriberAddress +
+              ", subscriberIdentity=" + subscriberIdentity +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new RemoveRemoteCacheEntryModifiedSubscriberMessage(); // NOPMD
+      }
+   }
+}
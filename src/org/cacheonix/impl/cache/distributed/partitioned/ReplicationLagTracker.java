@@ -0,0 +1,335 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cacheonix.impl.clock.Time;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.util.array.HashMap;
+import org.cacheonix.impl.util.array.IntObjectHashMap;
+import org.cacheonix.impl.util.array.LongArrayList;
+
+/**
+ * Tracks asynchronous replica updates posted by a primary bucket owner and provides replication lag metrics per replica
+ * bucket owner.
+ * <p/>
+ * A replication lag of a replica owner is the age of the oldest replica update that was sent to the owner but that
+ * has not been acknowledged yet.
+ * <p/>
+ * The tracker also keeps sequence numbers of unfinished asynchronous updates per bucket. The oldest of them is the
+ * update floor of the bucket: every update of the bucket with a lower sequence number has finished, so replica owners
+ * may forget sequence numbers of keys last updated before the floor.
+ */
+public final class ReplicationLagTracker {
+
+   /**
+    * A max time the asynchronous replica updates may lag behind the primary owner.
+    */
+   private final long maxReplicationLagMillis;
+
+   /**
+    * Replication lags by a replica owner address.
+    */
+   private final HashMap<ClusterNodeAddress, ReplicaLag> replicaLags = new HashMap<ClusterNodeAddress, ReplicaLag>(1);
+
+   /**
+    * Sequence numbers of unfinished asynchronous updates by a bucket number, in order of sending.
+    */
+   private final IntObjectHashMap<LinkedList<Time>> pendingSequences = new IntObjectHashMap<LinkedList<Time>>(1); // NOPMD
+
+
+   /**
+    * Creates ReplicationLagTracker.
+    *
+    * @param maxReplicationLagMillis the max time the asynchronous replica updates may lag behind the primary owner.
+    */
+   ReplicationLagTracker(final long maxReplicationLagMillis) {
+
+      this.maxReplicationLagMillis = maxReplicationLagMillis;
+   }
+
+
+   /**
+    * Registers an asynchronous replica update sent to a replica owner.
+    *
+    * @param replicaOwner an address of the replica owner.
+    * @param sentMillis   a time the update was sent.
+    */
+   synchronized void notifyUpdateSent(final ClusterNodeAddress replicaOwner, final long sentMillis) {
+
+      ReplicaLag replicaLag = replicaLags.get(replicaOwner);
+      if (replicaLag == null) {
+
+         replicaLag = new ReplicaLag();
+         replicaLags.put(replicaOwner, replicaLag);
+      }
+
+      replicaLag.pendingSentMillis.add(sentMillis);
+   }
+
+
+   /**
+    * Registers completion of an asynchronous replica update. An update completes when the replica owner acknowledges
+    * it, when the replica owner leaves or when the update is resubmitted.
+    *
+    * @param replicaOwner   an address of the replica owner.
+    * @param sentMillis     a time the update was sent.
+    * @param finishedMillis a time the update finished.
+    */
+   synchronized void notifyUpdateFinished(final ClusterNodeAddress replicaOwner, final long sentMillis,
+           final long finishedMillis) {
+
+      final ReplicaLag replicaLag = replicaLags.get(replicaOwner);
+      if (replicaLag == null) {
+
+         return;
+      }
+
+      // Replica owners process updates in order so the update is normally the first one
+      final LongArrayList pendingSentMillis = replicaLag.pendingSentMillis;
+      final int index = pendingSentMillis.indexOf(sentMillis);
+      if (index >= 0) {
+
+         pendingSentMillis.remove(index);
+      }
+
+      final long lagMillis = finishedMillis - sentMillis;
+      replicaLag.lastLagMillis = lagMillis;
+      replicaLag.acknowledgedUpdateCount++;
+      if (lagMillis > replicaLag.maxLagMillis) {
+
+         replicaLag.maxLagMillis = lagMillis;
+      }
+   }
+
+
+   /**
+    * Registers an asynchronous update of a bucket that was sent with the given sequence number. The sequence number
+    * stays pending until {@link #notifySequenceFinished(int, Time)} is called, including while the update is being
+    * re-submitted.
+    *
+    * @param bucketNumber the number of the updated bucket.
+    * @param sequence     the sequence number of the update.
+    */
+   synchronized void notifySequenceSent(final int bucketNumber, final Time sequence) {
+
+      LinkedList<Time> sequences = pendingSequences.get(bucketNumber); // NOPMD
+      if (sequences == null) {
+
+         sequences = new LinkedList<Time>(); // NOPMD
+         pendingSequences.put(bucketNumber, sequences);
+      }
+
+      sequences.add(sequence);
+   }
+
+
+   /**
+    * Registers completion of an asynchronous update of a bucket.
+    *
+    * @param bucketNumber the number of the updated bucket.
+    * @param sequence     the sequence number of the update.
+    */
+   synchronized void notifySequenceFinished(final int bucketNumber, final Time sequence) {
+
+      final LinkedList<Time> sequences = pendingSequences.get(bucketNumber); // NOPMD
+      if (sequences == null) {
+
+         return;
+      }
+
+      sequences.remove(sequence);
+      if (sequences.isEmpty()) {
+
+         pendingSequences.remove(bucketNumber);
+      }
+   }
+
+
+   /**
+    * Returns the update floor of a bucket.
+    *
+    * @param bucketNumber the bucket number.
+    * @param currentTime  the current time. Returned if there are no unfinished updates of the bucket.
+    * @return the sequence number of the oldest unfinished asynchronous update of the bucket or the current time if
+    *         there are no such updates.
+    */
+   synchronized Time getUpdateFloor(final int bucketNumber, final Time currentTime) {
+
+      final LinkedList<Time> sequences = pendingSequences.get(bucketNumber); // NOPMD
+      return sequences == null ? currentTime : sequences.getFirst();
+   }
+
+
+   /**
+    * Forgets a replica owner that left the cluster. Updates pending at the owner are re-submitted to the new replica
+    * owner and are tracked there.
+    *
+    * @param replicaOwner an address of the replica owner.
+    */
+   synchronized void removeReplicaOwner(final ClusterNodeAddress replicaOwner) {
+
+      replicaLags.remove(replicaOwner);
+   }
+
+
+   /**
+    * Returns <code>true</code> if the replication lag of the replica owner exceeded the configured maximum. A primary
+    * owner should wait for the replica owner to apply a write if the lag is exceeded.
+    *
+    * @param replicaOwner  an address of the replica owner.
+    * @param currentMillis current time.
+    * @return <code>true</code> if the replication lag of the replica owner exceeded the configured maximum.
+    */
+   synchronized boolean isLagExceeded(final ClusterNodeAddress replicaOwner, final long currentMillis) {
+
+      return getReplicationLagMillis(replicaOwner, currentMillis) > maxReplicationLagMillis;
+   }
+
+
+   /**
+    * Returns the current replication lag of the replica owner.
+    *
+    * @param replicaOwner  an address of the replica owner.
+    * @param currentMillis current time.
+    * @return the age of the oldest unacknowledged update sent to the replica owner or zero if there are no such
+    *         updates.
+    */
+   public synchronized long getReplicationLagMillis(final ClusterNodeAddress replicaOwner, final long currentMillis) {
+
+      final ReplicaLag replicaLag = replicaLags.get(replicaOwner);
+      if (replicaLag == null || replicaLag.pendingSentMillis.isEmpty()) {
+
+         return 0L;
+      }
+
+      return currentMillis - replicaLag.pendingSentMillis.min();
+   }
+
+
+   /**
+    * Returns the number of asynchronous updates sent to the replica owner that have not been acknowledged yet.
+    *
+    * @param replicaOwner an address of the replica owner.
+    * @return the number of asynchronous updates sent to the replica owner that have not been acknowledged yet.
+    */
+   public synchronized int getPendingUpdateCount(final ClusterNodeAddress replicaOwner) {
+
+      final ReplicaLag replicaLag = replicaLags.get(replicaOwner);
+      return replicaLag == null ? 0 : replicaLag.pendingSentMillis.size();
+   }
+
+
+   /**
+    * Returns the number of asynchronous updates acknowledged by the replica owner.
+    *
+    * @param replicaOwner an address of the replica owner.
+    * @return the number of asynchronous updates acknowledged by the replica owner.
+    */
+   public synchronized long getAcknowledgedUpdateCount(final ClusterNodeAddress replicaOwner) {
+
+      final ReplicaLag replicaLag = replicaLags.get(replicaOwner);
+      return replicaLag == null ? 0L : replicaLag.acknowledgedUpdateCount;
+   }
+
+
+   /**
+    * Returns the time it took the replica owner to acknowledge the last asynchronous update.
+    *
+    * @param replicaOwner an address of the replica owner.
+    * @return the time it took the replica owner to acknowledge the last asynchronous update.
+    */
+   public synchronized long getLastReplicationLagMillis(final ClusterNodeAddress replicaOwner) {
+
+      final ReplicaLag replicaLag = replicaLags.get(replicaOwner);
+      return replicaLag == null ? 0L : replicaLag.lastLagMillis;
+   }
+
+
+   /**
+    * Returns the longest time it took the replica owner to acknowledge an asynchronous update.
+    *
+    * @param replicaOwner an address of the replica owner.
+    * @return the longest time it took the replica owner to acknowledge an asynchronous update.
+    */
+   public synchronized long getMaxReplicationLagMillis(final ClusterNodeAddress replicaOwner) {
+
+      final ReplicaLag replicaLag = replicaLags.get(replicaOwner);
+      return replicaLag == null ? 0L : replicaLag.maxLagMillis;
+   }
+
+
+   /**
+    * Returns a list of replica owners this tracker has metrics for.
+    *
+    * @return the list of replica owners this tracker has metrics for.
+    */
+   public synchronized List<ClusterNodeAddress> getReplicaOwners() {
+
+      return new ArrayList<ClusterNodeAddress>(replicaLags.keySet());
+   }
+
+
+   /**
+    * Returns the max time the asynchronous replica updates may lag behind the primary owner.
+    *
+    * @return the max time the asynchronous replica updates may lag behind the primary owner.
+    */
+   public long getMaxReplicationLagMillis() {
+
+      return maxReplicationLagMillis;
+   }
+
+
+   public synchronized String toString() {
+
+      return "ReplicationLagTracker{" +
+              "maxReplicationLagMillis=" + maxReplicationLagMillis +
+              ", replicaLags=" + replicaLags +
+              ", pendingSequences=" + pendingSequences.size() +
+              '}';
+   }
+
+
+   /**
+    * Replication lag of a single replica owner.
+    */
+   private static final class ReplicaLag {
+
+      /**
+       * Times the unacknowledged updates were sent, in order of sending.
+       */
+      private final LongArrayList pendingSentMillis = new LongArrayList(1);
+
+      private long acknowledgedUpdateCount = 0L;
+
+      private long lastLagMillis = 0L;
+
+      private long maxLagMillis = 0L;
+
+
+      public String toString() {
+
+         return "ReplicaLag{" +
+                 "pendingUpdateCount=" + pendingSentMillis.size() +
+                 ", acknowledgedUpdateCount=" + acknowledgedUpdateCount +
+                 ", lastLagMillis=" + lastLagMillis +
+                 ", maxLagMillis=" + maxLagMillis +
+                 '}';
+      }
+   }
+}
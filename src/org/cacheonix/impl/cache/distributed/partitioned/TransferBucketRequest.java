@@ -248,6 +248,18 @@ public final class TransferBucketRequest extends CacheRequest {
    }
 
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns {@link #PRIORITY_BULK} because a bucket transfer may carry megabytes of cache data
+    * that should not delay the marker and key messages sent to the same node.
+    */
+   public int getPriority() {
+
+      return PRIORITY_BULK;
+   }
+
+
    @SuppressWarnings("RedundantMethodOverride")
    protected org.cacheonix.impl.net.processor.Waiter createWaiter() {
 
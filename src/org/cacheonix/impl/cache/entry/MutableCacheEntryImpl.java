@@ -0,0 +1,151 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.entry;
+
+import java.io.Serializable;
+
+import org.cacheonix.cache.entry.MutableCacheEntry;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.clock.Time;
+
+import static org.cacheonix.impl.cache.item.BinaryUtils.toBinary;
+
+/**
+ * An implementation of <code>MutableCacheEntry</code> that is passed to an <code>EntryProcessor</code>. The entry
+ * records changes made by the processor so that the caller can apply them to the store after the processor returns.
+ */
+public final class MutableCacheEntryImpl implements MutableCacheEntry {
+
+   private final Binary key;
+
+   private Binary value;
+
+   private boolean exists;
+
+   /**
+    * Time the element was created.
+    */
+   private final Time createdTime;
+
+   /**
+    * Time to expire.
+    */
+   private final Time expirationTime;
+
+   /**
+    * <code>true</code> if the entry processor called <code>setValue()</code> or <code>remove()</code>.
+    */
+   private boolean modified = false;
+
+
+   /**
+    * Creates a new instance of <tt>MutableCacheEntryImpl</tt>
+    *
+    * @param key            the key.
+    * @param value          the current value.
+    * @param exists         <code>true</code> if the store contains a mapping for the key.
+    * @param createdTime    the time this entry was created.
+    * @param expirationTime the time this entry expires.
+    */
+   public MutableCacheEntryImpl(final Binary key, final Binary value, final boolean exists, final Time createdTime,
+                                final Time expirationTime) {
+
+      this.key = key;
+      this.value = value;
+      this.exists = exists;
+      this.createdTime = createdTime;
+      this.expirationTime = expirationTime;
+   }
+
+
+   public Object getKey() {
+
+      return key.getValue();
+   }
+
+
+   public Object getValue() {
+
+      return value == null ? null : value.getValue();
+   }
+
+
+   public Time getExpirationTime() {
+
+      return expirationTime;
+   }
+
+
+   public Time getCreatedTime() {
+
+      return createdTime;
+   }
+
+
+   public boolean exists() {
+
+      return exists;
+   }
+
+
+   public void setValue(final Serializable value) {
+
+      this.value = toBinary(value);
+      this.exists = true;
+      this.modified = true;
+   }
+
+
+   public void remove() {
+
+      this.value = null;
+      this.exists = false;
+      this.modified = true;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the entry processor modified this entry.
+    *
+    * @return <code>true</code> if the entry processor modified this entry.
+    */
+   public boolean isModified() {
+
+      return modified;
+   }
+
+
+   /**
+    * Returns the current value of this entry in a binary form.
+    *
+    * @return the current value of this entry in a binary form.
+    */
+   public Binary getBinaryValue() {
+
+      return value;
+   }
+
+
+   public String toString() {
+
+      return "MutableCacheEntryImpl{" +
+              "key=" + key +
+              ", value=" + value +
+              ", exists=" + exists +
+              ", createdTime=" + createdTime +
+              ", expirationTime=" + expirationTime +
+              ", modified=" + modified +
+              '}';
+   }
+}
@@ -0,0 +1,78 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.entry;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.entry.AttributeExtractor;
+import org.cacheonix.cache.entry.CacheEntry;
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.executor.Executable;
+import org.cacheonix.impl.util.ArgumentValidator;
+
+/**
+ * An executable that collects the keys of the entries passed to it and the attributes extracted from their values.
+ * The extractor runs where the entries are stored, so only the extracted attributes are sent back to the caller.
+ *
+ * @see Cache#project(EntryFilter, AttributeExtractor)
+ * @see QueryAggregator
+ */
+public final class ProjectionExecutable implements Executable {
+
+   private static final long serialVersionUID = 0L;
+
+   private final AttributeExtractor extractor;
+
+
+   /**
+    * Creates a new <code>ProjectionExecutable</code>.
+    *
+    * @param extractor the extractor of the projected attribute.
+    * @throws IllegalArgumentException if the extractor is null.
+    */
+   public ProjectionExecutable(final AttributeExtractor extractor) {
+
+      ArgumentValidator.validateArgumentNotNull(extractor, "extractor");
+      this.extractor = extractor;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns a <code>HashMap</code> of the keys of the entries and the attributes extracted from
+    * their values. The attribute of an entry with a <code>null</code> value is <code>null</code>.
+    */
+   public Serializable execute(final Collection<CacheEntry> cacheEntries) {
+
+      final HashMap<Object, Object> result = new HashMap<Object, Object>(cacheEntries.size()); // NOPMD
+      for (final CacheEntry cacheEntry : cacheEntries) {
+
+         final Object value = cacheEntry.getValue();
+         result.put(cacheEntry.getKey(), value == null ? null : extractor.extract(value));
+      }
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "ProjectionExecutable{" +
+              "extractor=" + extractor +
+              '}';
+   }
+}
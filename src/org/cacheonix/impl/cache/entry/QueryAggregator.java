@@ -0,0 +1,56 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.entry;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.entry.AttributeExtractor;
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.executor.Aggregator;
+
+/**
+ * An aggregator that merges the maps produced by {@link QueryExecutable} and {@link ProjectionExecutable}.
+ *
+ * @see Cache#query(EntryFilter)
+ * @see Cache#project(EntryFilter, AttributeExtractor)
+ */
+public final class QueryAggregator implements Aggregator {
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns a <code>HashMap</code> that contains all entries of the partial results.
+    */
+   @SuppressWarnings("unchecked")
+   public Serializable aggregate(final Collection<Serializable> partialExecutionResults) {
+
+      final HashMap<Object, Object> result = new HashMap<Object, Object>(1); // NOPMD
+      for (final Serializable partialResult : partialExecutionResults) {
+
+         result.putAll((Map<Object, Object>) partialResult);
+      }
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "QueryAggregator{}";
+   }
+}
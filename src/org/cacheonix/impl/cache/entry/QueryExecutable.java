@@ -0,0 +1,56 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.entry;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.entry.CacheEntry;
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.executor.Executable;
+
+/**
+ * An executable that collects the keys and values of the entries passed to it.
+ *
+ * @see Cache#query(EntryFilter)
+ * @see QueryAggregator
+ */
+public final class QueryExecutable implements Executable {
+
+   private static final long serialVersionUID = 0L;
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns a <code>HashMap</code> of the keys and values of the entries.
+    */
+   public Serializable execute(final Collection<CacheEntry> cacheEntries) {
+
+      final HashMap<Object, Object> result = new HashMap<Object, Object>(cacheEntries.size()); // NOPMD
+      for (final CacheEntry cacheEntry : cacheEntries) {
+
+         result.put(cacheEntry.getKey(), cacheEntry.getValue());
+      }
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "QueryExecutable{}";
+   }
+}
@@ -17,10 +17,13 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -33,9 +36,11 @@ import org.cacheonix.ShutdownException;
 import org.cacheonix.cache.CacheStatistics;
 import org.cacheonix.cache.NotSubscribedException;
 import org.cacheonix.cache.datastore.DataStore;
+import org.cacheonix.cache.entry.AttributeExtractor;
 import org.cacheonix.cache.entry.CacheEntry;
 import org.cacheonix.cache.entry.EntryFilter;
 import org.cacheonix.cache.executor.Aggregator;
+import org.cacheonix.cache.executor.EntryProcessor;
 import org.cacheonix.cache.executor.Executable;
 import org.cacheonix.cache.invalidator.CacheInvalidator;
 import org.cacheonix.cache.loader.CacheLoader;
@@ -48,6 +53,10 @@ import org.cacheonix.impl.cache.datastore.DummyDataStore;
 import org.cacheonix.impl.cache.distributed.partitioned.BinaryStoreContext;
 import org.cacheonix.impl.cache.distributed.partitioned.BinaryStoreContextImpl;
 import org.cacheonix.impl.cache.entry.CacheEntryImpl;
+import org.cacheonix.impl.cache.entry.MutableCacheEntryImpl;
+import org.cacheonix.impl.cache.entry.ProjectionExecutable;
+import org.cacheonix.impl.cache.entry.QueryAggregator;
+import org.cacheonix.impl.cache.entry.QueryExecutable;
 import org.cacheonix.impl.cache.invalidator.DummyCacheInvalidator;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.cache.item.BinaryUtils;
@@ -91,6 +100,16 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
     */
    private static final Logger LOG = Logger.getLogger(LocalCache.class); // NOPMD
 
+   /**
+    * A period of removing expired elements from the store.
+    */
+   private static final long EXPIRATION_PERIOD_MILLIS = 1000L;
+
+   /**
+    * The maximum number of due elements to process per expiration period.
+    */
+   private static final int MAX_EXPIRED_ELEMENTS_PER_PERIOD = 1000;
+
 
    /**
     * Holds read/write lock.
@@ -147,6 +166,11 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
     */
    private final ElementEventNotification eventNotification;
 
+   /**
+    * A periodic task that removes expired elements.
+    */
+   private final TimerTask expirationTask = new ExpirationTask();
+
 
    /**
     * @param name
@@ -165,10 +189,11 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
     *                                  DummyCacheInvalidator}
     * @param loader
     * @param eventNotification
+    * @param timer                     a timer to schedule periodic removal of expired elements.
     */
    public LocalCache(final String name, final long maxSizeElements, final long maxSizeBytes,
            final long expirationIntervalMillis, final long idleIntervalMillis, final Clock clock,
-           final Executor eventNotificationExecutor, final DiskStorage overflowDiskStorage,
+           final Timer timer, final Executor eventNotificationExecutor, final DiskStorage overflowDiskStorage,
            final ObjectSizeCalculator objectSizeCalculator,
            final BinaryStoreDataSource dataSource, final DataStore dataStore,
            final CacheInvalidator invalidator, final CacheLoader loader,
@@ -206,6 +231,9 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
 
          // Set the atomic reference
          this.binaryStore.set(newBinaryStore);
+
+         // Reads don't remove expired elements, so expire them periodically
+         timer.schedule(expirationTask, EXPIRATION_PERIOD_MILLIS, EXPIRATION_PERIOD_MILLIS);
       } catch (final RuntimeException e) {
 
          throw e;
@@ -414,6 +442,50 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
    }
 
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The local cache is already in the caller's heap, so this implementation iterates a detached copy of the entry set
+    * and ignores <code>pageSize</code>.
+    */
+   public Iterator<Entry<K, V>> entryIterator(final int pageSize) {
+
+      if (pageSize <= 0) {
+         throw new IllegalArgumentException("Page size should be positive: " + pageSize);
+      }
+
+      final Iterator<Entry<K, V>> iterator = entrySet().iterator();
+      return new Iterator<Entry<K, V>>() {
+
+         private Entry<K, V> lastEntry = null;
+
+
+         public boolean hasNext() {
+
+            return iterator.hasNext();
+         }
+
+
+         public Entry<K, V> next() {
+
+            lastEntry = iterator.next();
+            return lastEntry;
+         }
+
+
+         public void remove() {
+
+            if (lastEntry == null) {
+               throw new IllegalStateException("next() has not been called or the entry has already been removed");
+            }
+
+            LocalCache.this.remove(lastEntry.getKey());
+            lastEntry = null;
+         }
+      };
+   }
+
+
    /**
     * Returns a set view of the keys contained in this map.  The set is detached from the map, so changes to the map are
     * not reflected in the set, and vice-versa.
@@ -747,6 +819,8 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
     */
    public void shutdown() {
 
+      expirationTask.cancel();
+
       writeLock.lock();
       try {
 
@@ -843,6 +917,20 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
    }
 
 
+   @SuppressWarnings("unchecked")
+   public Map<K, V> query(final EntryFilter entryFilter) {
+
+      return (Map<K, V>) execute(entryFilter, new QueryExecutable(), new QueryAggregator());
+   }
+
+
+   @SuppressWarnings("unchecked")
+   public Map<K, Object> project(final EntryFilter entryFilter, final AttributeExtractor extractor) {
+
+      return (Map<K, Object>) execute(entryFilter, new ProjectionExecutable(extractor), new QueryAggregator());
+   }
+
+
    public Serializable executeAll(final Set<K> keySet, final Executable executable,
            final Aggregator aggregator) {
 
@@ -881,6 +969,90 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
    }
 
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation runs the entry processor while holding the write lock.
+    */
+   public Serializable invoke(final K key, final EntryProcessor entryProcessor) {
+
+      final Binary binaryKey = toBinary(toSerializable("key", key));
+      writeLock.lock();
+      try {
+
+         return invoke(validStorage(), binaryKey, entryProcessor);
+      } finally {
+         writeLock.unlock();
+      }
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public Map<K, Serializable> invokeAll(final Set<K> keySet, final EntryProcessor entryProcessor) {
+
+      final Map<K, Serializable> result = new HashMap<K, Serializable>(keySet.size());
+      writeLock.lock();
+      try {
+
+         final BinaryStore store = validStorage();
+         for (final K key : keySet) {
+
+            result.put(key, invoke(store, toBinary(toSerializable("key", key)), entryProcessor));
+         }
+      } finally {
+         writeLock.unlock();
+      }
+      return result;
+   }
+
+
+   /**
+    * Runs an entry processor against an entry and applies changes made by the processor. Must be called while holding
+    * the write lock.
+    *
+    * @param store          the store.
+    * @param binaryKey      the key of the entry to process.
+    * @param entryProcessor the entry processor to run.
+    * @return the result returned by the entry processor.
+    */
+   private static Serializable invoke(final BinaryStore store, final Binary binaryKey,
+                                      final EntryProcessor entryProcessor) {
+
+      final MutableCacheEntryImpl entry;
+      try {
+
+         final ReadableElement element = store.get(binaryKey);
+         entry = new MutableCacheEntryImpl(binaryKey, BinaryStoreUtils.getValue(element), element != null,
+                 BinaryStoreUtils.getCreatedTime(element), BinaryStoreUtils.getExpirationTime(element));
+      } catch (final RuntimeException e) {
+
+         throw e;
+      } catch (final Exception e) {
+
+         throw new CacheonixException(e);
+      }
+
+      // Process
+      final Serializable result = entryProcessor.process(entry);
+
+      // Apply changes
+      if (entry.isModified()) {
+
+         if (entry.exists()) {
+
+            store.put(binaryKey, entry.getBinaryValue());
+         } else {
+
+            store.remove(binaryKey);
+         }
+      }
+
+      return result;
+   }
+
+
    public boolean removeAll(final Set<K> keySet) {
 
       writeLock.lock();
@@ -978,6 +1150,25 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
    }
 
 
+   /**
+    * Removes elements that have expired since the last put or the last call to this method.
+    */
+   void expire() {
+
+      writeLock.lock();
+      try {
+
+         final BinaryStore store = binaryStore.get();
+         if (store != null) {
+
+            store.expire(MAX_EXPIRED_ELEMENTS_PER_PERIOD);
+         }
+      } finally {
+         writeLock.unlock();
+      }
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -1078,6 +1269,41 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
    }
 
 
+   /**
+    * {@inheritDoc}
+    */
+   public void addCacheEventSubscriber(final EntryFilter filter, final EntryModifiedSubscriber subscriber) {
+
+      final BinaryEntryModifiedSubscriberAdapter binarySubscriber = makeBinarySubscriber(subscriber);
+
+      writeLock.lock();
+      try {
+
+         validStorage().addCacheEventSubscriber(null, filter, binarySubscriber);
+      } finally {
+         writeLock.unlock();
+      }
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void removeCacheEventSubscriber(final EntryModifiedSubscriber subscriber) throws NotSubscribedException {
+
+      writeLock.lock();
+      try {
+
+         if (!validStorage().removeCacheEventSubscriber(null, System.identityHashCode(subscriber))) {
+
+            throw new NotSubscribedException(subscriber.toString());
+         }
+      } finally {
+         writeLock.unlock();
+      }
+   }
+
+
    /**
     * @return maximum number of elements in memory.
     */
@@ -1241,4 +1467,22 @@ public final class LocalCache<K extends Serializable, V extends Serializable> im
 //              '}';
 //   }
 
+
+
+   /**
+    * A timer task that removes expired elements under the write lock.
+    */
+   private final class ExpirationTask extends TimerTask {
+
+      public void run() {
+
+         try {
+
+            expire();
+         } catch (final RuntimeException e) {
+
+            LOG.warn("Error while removing expired elements from cache " + name + ": " + e, e);
+         }
+      }
+   }
 }
@@ -216,8 +216,8 @@ public final class LocalCacheonix extends AbstractCacheonix {
 
          // Create cache
          final LocalCache result = new LocalCache(cacheName, maxElements, maxBytes, expirationTimeMillis,
-                 idleTimeMillis, clock, getEventNotificationExecutor(), diskStorage, objectSizeCalculator,
-                 dataSource, dataStore, invalidator, loader, elementEventNotification);
+                 idleTimeMillis, clock, getTimer(), getEventNotificationExecutor(), diskStorage,
+                 objectSizeCalculator, dataSource, dataStore, invalidator, loader, elementEventNotification);
 
          prefetchElementUpdater.setLocalCache(result);
 
@@ -298,11 +298,13 @@ public final class LocalCacheonix extends AbstractCacheonix {
             // Shutdown prefetch scheduler
             getPrefetchScheduler().shutdown();
 
-            // Shutdown thread pool
+            // Shutdown thread pools
             getThreadPoolExecutor().shutdownNow();
+            getExecutableExecutor().shutdownNow();
 
             // Destroy timer
             getTimer().cancel();
+            getTickerTimer().cancel();
 
             // Terminate event notification executor
             getEventNotificationExecutor().shutdownNow();
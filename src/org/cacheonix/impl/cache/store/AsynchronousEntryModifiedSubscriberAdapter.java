@@ -13,6 +13,8 @@
  */
 package org.cacheonix.impl.cache.store;
 
+import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Executor;
@@ -23,6 +25,8 @@ import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
 import org.cacheonix.cache.subscriber.EntryModifiedEventType;
 import org.cacheonix.cache.subscriber.EntryModifiedNotificationMode;
 import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.impl.util.thread.OrderedEventExecutor;
+import org.cacheonix.impl.util.thread.OverflowPolicy;
 
 /**
  * This adapter converts a given subscriber to an asynchronous one.
@@ -65,23 +69,32 @@ public final class AsynchronousEntryModifiedSubscriberAdapter implements Identit
    /**
     * {@inheritDoc}
     * <p/>
-    * This implementation executes delegate's notifyKeysUpdated() asynchronously using the executor.
+    * This implementation executes delegate's notifyKeysUpdated() asynchronously using the executor. If the executor is
+    * an {@link OrderedEventExecutor}, notifications for the subscriber are executed in order, and notifications for
+    * different subscribers may be executed in parallel. If the executor coalesces notifications, the events are
+    * submitted per key so that a pending event for a key can be replaced by a newer event for the same key.
     */
    public void notifyKeysUpdated(final List<EntryModifiedEvent> events) {
 
-      executor.execute(new Runnable() {
+      if (executor instanceof OrderedEventExecutor) {
 
-         public void run() {
+         final OrderedEventExecutor orderedExecutor = (OrderedEventExecutor) executor;
+         final Integer orderingKey = delegate.getIdentity();
+         if (orderedExecutor.getOverflowPolicy() == OverflowPolicy.COALESCE) {
 
-            try {
+            for (final EntryModifiedEvent event : events) {
 
-               delegate.notifyKeysUpdated(events);
-            } catch (final Exception e) {
-
-               LOG.error(e, e);
+               final CoalescingKey coalescingKey = new CoalescingKey(orderingKey, event.getUpdatedKey());
+               orderedExecutor.execute(orderingKey, coalescingKey, new Notification(Collections.singletonList(event)));
             }
+         } else {
+
+            orderedExecutor.execute(orderingKey, new Notification(events));
          }
-      });
+      } else {
+
+         executor.execute(new Notification(events));
+      }
    }
 
 
@@ -124,4 +137,83 @@ public final class AsynchronousEntryModifiedSubscriberAdapter implements Identit
               "delegate=" + delegate +
               '}';
    }
+
+
+   /**
+    * Calls delegate's notifyKeysUpdated().
+    */
+   private final class Notification implements Runnable {
+
+      private final List<EntryModifiedEvent> events;
+
+
+      Notification(final List<EntryModifiedEvent> events) {
+
+         this.events = events;
+      }
+
+
+      public void run() {
+
+         try {
+
+            delegate.notifyKeysUpdated(events);
+         } catch (final Exception e) {
+
+            LOG.error(e, e);
+         }
+      }
+   }
+
+   /**
+    * Identifies a pending notification about a key for a subscriber.
+    */
+   private static final class CoalescingKey {
+
+      private final Integer subscriberIdentity;
+
+      private final Serializable key;
+
+
+      CoalescingKey(final Integer subscriberIdentity, final Serializable key) {
+
+         this.subscriberIdentity = subscriberIdentity;
+         this.key = key;
+      }
+
+
+      public boolean equals(final Object o) {
+
+         if (this == o) {
+            return true;
+         }
+         if (o == null || getClass() != o.getClass()) {
+            return false;
+         }
+
+         final CoalescingKey that = (CoalescingKey) o;
+
+         if (!subscriberIdentity.equals(that.subscriberIdentity)) {
+            return false;
+         }
+         return key != null ? key.equals(that.key) : that.key == null;
+      }
+
+
+      public int hashCode() {
+
+         int result = subscriberIdentity.hashCode();
+         result = 31 * result + (key != null ? key.hashCode() : 0);
+         return result;
+      }
+
+
+      public String toString() {
+
+         return "CoalescingKey{" +
+                 "subscriberIdentity=" + subscriberIdentity +
+                 ", key=" + key +
+                 '}';
+      }
+   }
 }
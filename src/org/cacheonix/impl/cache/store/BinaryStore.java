@@ -29,6 +29,9 @@ import org.cacheonix.CacheonixException;
 import org.cacheonix.cache.CacheStatistics;
 import org.cacheonix.cache.NotSubscribedException;
 import org.cacheonix.cache.datastore.DataStore;
+import org.cacheonix.cache.entry.AttributeExtractor;
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.entry.IndexedEntryFilter;
 import org.cacheonix.cache.subscriber.EntryModifiedEventType;
 import org.cacheonix.impl.RuntimeIOException;
 import org.cacheonix.impl.RuntimeStorageException;
@@ -45,6 +48,7 @@ import org.cacheonix.impl.cache.storage.disk.StorageException;
 import org.cacheonix.impl.clock.Clock;
 import org.cacheonix.impl.clock.Time;
 import org.cacheonix.impl.clock.TimeImpl;
+import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
@@ -92,6 +96,17 @@ public final class BinaryStore implements Wireable {
     */
    private static final int INITIAL_CAPACITY = 11;
 
+   /**
+    * Tick of the expiration wheel.
+    */
+   private static final long EXPIRATION_TICK_MILLIS = 100L;
+
+   /**
+    * The maximum number of due elements to remove from the expiration wheel per put. Must be greater than one for the
+    * reaping to keep up with the puts.
+    */
+   private static final int MAX_EXPIRED_ELEMENTS_PER_PUT = 8;
+
    /**
     * System clock.
     */
@@ -142,10 +157,53 @@ public final class BinaryStore implements Wireable {
    private final transient Map<Binary, List<BinaryEntryModifiedSubscriber>> updateSubscribers = new HashMap<Binary, List<BinaryEntryModifiedSubscriber>>(
            1); // NOPMD
 
+   /**
+    * A list of subscribers for the events when any element that matches a subscriber's filter is modified.
+    */
+   private final transient List<CacheEventSubscriber> cacheEventSubscribers = new ArrayList<CacheEventSubscriber>(1); // NOPMD
+
+   /**
+    * Secondary indexes of the keys by attributes of the values.
+    */
+   private final transient List<BinaryStoreIndex> indexes = new ArrayList<BinaryStoreIndex>(1); // NOPMD
+
    private BinaryStoreContext binaryStoreContext = null;
 
    private BinaryStoreElementContext binaryStoreElementContext = null;
 
+   /**
+    * Index of the elements by the time they expire. Used to remove expired elements without waiting for them to be
+    * accessed.
+    */
+   private transient ExpirationWheel expirationWheel = null;
+
+   /**
+    * Removes an element that is due in the expiration wheel if it has expired, or puts it back otherwise.
+    */
+   private final transient ObjectProcedure<BinaryStoreElement> expirationProcedure = new ObjectProcedure<BinaryStoreElement>() {
+
+      public boolean execute(final BinaryStoreElement element) {
+
+         try {
+
+            if (element.isExpired(clock) || !element.isValid()) {
+
+               removeElement(element, EXPIRE);
+            } else {
+
+               // The idle time was extended
+               expirationWheel.schedule(element);
+            }
+
+            return true;
+         } catch (final IOException e) {
+            throw new RuntimeIOException(e);
+         } catch (final StorageException e) {
+            throw new RuntimeStorageException(e);
+         }
+      }
+   };
+
 
    public BinaryStore() {
 
@@ -162,6 +220,7 @@ public final class BinaryStore implements Wireable {
       this.expirationInterval = expirationIntervalMillis == 0 ? null : new TimeImpl(expirationIntervalMillis, 0L);
       this.idleInterval = idleIntervalMillis == 0 ? null : new TimeImpl(idleIntervalMillis, 0L);
       this.elements = new HashMap<Binary, BinaryStoreElement>(INITIAL_CAPACITY);
+      this.expirationWheel = new ExpirationWheel(EXPIRATION_TICK_MILLIS, clock.coarseTimeMillis());
       this.initLinkedList();
    }
 
@@ -186,6 +245,27 @@ public final class BinaryStore implements Wireable {
    }
 
 
+   /**
+    * Removes elements that have expired since the last call. Puts remove a few expired elements each, so a store
+    * that is not written to must be expired periodically by its owner. The caller must hold the same lock it holds
+    * for modifications.
+    *
+    * @param maxElements the maximum number of due elements to process. The remaining due elements are processed by
+    *                    the next call.
+    * @return the number of due elements processed.
+    */
+   public int expire(final int maxElements) {
+
+      // A store read from the wire is not indexed until its clock is set
+      if (expirationWheel == null) {
+
+         return 0;
+      }
+
+      return expirationWheel.expire(clock.coarseTimeMillis(), maxElements, expirationProcedure);
+   }
+
+
    /**
     * Attaches this store to a shared element counter. The counter value is adjusted according to the content of this
     * store.
@@ -295,6 +375,16 @@ public final class BinaryStore implements Wireable {
    public void setClock(final Clock clock) {
 
       this.clock = clock;
+
+      // Index elements read from the wire
+      if (expirationWheel == null) {
+
+         expirationWheel = new ExpirationWheel(EXPIRATION_TICK_MILLIS, clock.coarseTimeMillis());
+         for (BinaryStoreElement element = header.getAfter(); !element.equals(header); element = element.getAfter()) {
+
+            expirationWheel.schedule(element);
+         }
+      }
    }
 
 
@@ -317,6 +407,11 @@ public final class BinaryStore implements Wireable {
 
       // Clear elements
       elements.clear();
+      expirationWheel.clear();
+      for (final BinaryStoreIndex index : indexes) {
+
+         index.clear();
+      }
 
       // Re-initialize linked list
       initLinkedList();
@@ -542,6 +637,7 @@ public final class BinaryStore implements Wireable {
       // Put into the element map
       final BinaryStoreElement newElement = createElement(key, value, createdTime, expirationTime);
       final BinaryStoreElement replacedElement = elements.put(newElement.getKey(), newElement);
+      indexElement(newElement.getKey(), value);
 
       // Calculate new size
       final long newElementSizeBytes = newElement.getSizeBytes();
@@ -566,7 +662,7 @@ public final class BinaryStore implements Wireable {
          }
 
          // Notify update listeners
-         newElement.notifyModificationSubscribers(null, ADD);
+         notifyModificationSubscribers(newElement, null, ADD);
 
       } else {
 
@@ -594,10 +690,11 @@ public final class BinaryStore implements Wireable {
 
 
          // Notify update listeners
-         newElement.notifyModificationSubscribers(replacedElement, UPDATE);
+         notifyModificationSubscribers(newElement, replacedElement, UPDATE);
 
          // Remove replaced element
          replacedElement.removeFromLRUList();
+         expirationWheel.cancel(replacedElement);
          removeFromDiskStorage(replacedElement);
       }
 
@@ -607,6 +704,7 @@ public final class BinaryStore implements Wireable {
 
       // Add new new element to the end of the linked list
       addToLRUList(newElement);
+      expirationWheel.schedule(newElement);
 
       // Store element in the user-provided data store
 
@@ -619,6 +717,9 @@ public final class BinaryStore implements Wireable {
       // Evict elements if exceeded byte size
       guardByteSize();
 
+      // Remove some of the elements that have expired since the last put
+      expire(MAX_EXPIRED_ELEMENTS_PER_PUT);
+
       return !returnReplacedValue || replacedElement == null || replacedElement.isExpired(
               clock) ? null : replacedElement;
    }
@@ -765,7 +866,7 @@ public final class BinaryStore implements Wireable {
 
       // Notify listeners
       assert EVICT.equals(eventType) || EXPIRE.equals(eventType);
-      element.notifyModificationSubscribers(element, eventType);
+      notifyModificationSubscribers(element, element, eventType);
 
       elements.remove(element.getKey());
 
@@ -783,6 +884,8 @@ public final class BinaryStore implements Wireable {
 
       element.cancelPrefetch();
       element.removeFromLRUList();
+      expirationWheel.cancel(element);
+      unindexElement(element.getKey());
       byteCounter.subtract(element.getSizeBytes());
       elementCounter.decrement();
       removeFromDiskStorage(element);
@@ -803,7 +906,7 @@ public final class BinaryStore implements Wireable {
            final Time expirationTime) {
 
       // Create element
-      final Time idleTime = idleInterval == null ? null : clock.currentTime().add(idleInterval);
+      final Time idleTime = calculateIdleTime(idleInterval);
       final BinaryStoreElement binaryStoreElement = new BinaryStoreElement(key, value, createdTime,
               expirationTime, idleTime);
 
@@ -881,6 +984,43 @@ public final class BinaryStore implements Wireable {
    }
 
 
+   /**
+    * Executes a procedure for each entry that has not expired. Unlike {@link #entrySet()}, this method does not copy
+    * the entries into a set and does not remove expired elements. The procedure must not modify this store.
+    *
+    * @param procedure the procedure to execute. Returning <code>false</code> from the procedure stops the iteration.
+    */
+   public void forEachEntry(final BinaryStoreElementProcedure procedure) {
+
+      if (elements.isEmpty()) {
+
+         return;
+      }
+
+      final Time idleTime = calculateIdleTime(idleInterval);
+
+      elements.forEachValue(new ObjectProcedure<BinaryStoreElement>() {
+
+         public boolean execute(final BinaryStoreElement element) {
+
+            if (element.isExpired(clock) || !element.isValid()) {
+
+               return true;
+            }
+
+            try {
+
+               // Update access time
+               element.setIdleTime(idleTime);
+               return procedure.processEntry(element.getKey(), getValue(element));
+            } catch (final StorageException e) {
+               throw new RuntimeStorageException(e);
+            }
+         }
+      });
+   }
+
+
    /**
     * Returns a set view of the keys contained in this map.  The set is detached from the map, so changes to the map are
     * not reflected in the set, and vice-versa.
@@ -1050,8 +1190,10 @@ public final class BinaryStore implements Wireable {
 
             final Binary binaryValue = getValue(element);
 
-            element.notifyModificationSubscribers(element, REMOVE); // Self means 'remove'
+            notifyModificationSubscribers(element, element, REMOVE); // Self means 'remove'
             element.removeFromLRUList();
+            expirationWheel.cancel(element);
+            unindexElement(key);
             removeFromDiskStorage(element);
 
             return new PreviousValue(binaryValue, true);
@@ -1100,8 +1242,10 @@ public final class BinaryStore implements Wireable {
          elementCounter.decrement();
 
          // Notify
-         element.notifyModificationSubscribers(element, REMOVE); // Self means 'remove'
+         notifyModificationSubscribers(element, element, REMOVE); // Self means 'remove'
          element.removeFromLRUList();
+         expirationWheel.cancel(element);
+         unindexElement(binaryKey);
 
          // Remove from disk storage
          removeFromDiskStorage(element);
@@ -1168,6 +1312,225 @@ public final class BinaryStore implements Wireable {
    }
 
 
+   /**
+    * Notifies the element's subscribers and the cache-wide subscribers about the modification of the element.
+    *
+    * @param element         the modified element.
+    * @param previousElement the element replaced by the element, the element itself if it was removed or
+    *                        <code>null</code> if the element was added.
+    * @param updateType      the modification type.
+    * @throws StorageException if the value could not be read from the storage.
+    */
+   private void notifyModificationSubscribers(final BinaryStoreElement element,
+           final BinaryStoreElement previousElement, final EntryModifiedEventType updateType) throws StorageException {
+
+      element.notifyModificationSubscribers(previousElement, updateType);
+
+      if (!cacheEventSubscribers.isEmpty()) {
+
+         element.notifyCacheEventSubscribers(previousElement, updateType, cacheEventSubscribers);
+      }
+   }
+
+
+   /**
+    * Adds a subscriber to modifications of all entries in this store that match the filter. Adding a subscriber with
+    * the address and the identity of an already registered subscriber replaces the registered subscriber.
+    *
+    * @param subscriberAddress the address of the subscriber's node or <code>null</code> if the subscriber is local.
+    * @param filter            the filter or <code>null</code> if the subscriber is interested in all entries.
+    * @param subscriber        the subscriber to add.
+    */
+   public void addCacheEventSubscriber(final ClusterNodeAddress subscriberAddress, final EntryFilter filter,
+           final BinaryEntryModifiedSubscriber subscriber) {
+
+      removeCacheEventSubscriber(subscriberAddress, subscriber.getIdentity());
+
+      cacheEventSubscribers.add(new CacheEventSubscriber(subscriberAddress, filter, subscriber));
+   }
+
+
+   /**
+    * Removes a subscriber to modifications of all entries in this store.
+    *
+    * @param subscriberAddress  the address of the subscriber's node or <code>null</code> if the subscriber is local.
+    * @param subscriberIdentity the subscriber identity.
+    * @return <code>true</code> if the subscriber was registered.
+    */
+   public boolean removeCacheEventSubscriber(final ClusterNodeAddress subscriberAddress,
+           final int subscriberIdentity) {
+
+      for (final Iterator<CacheEventSubscriber> iterator = cacheEventSubscribers.iterator(); iterator.hasNext(); ) {
+
+         if (iterator.next().isSubscriber(subscriberAddress, subscriberIdentity)) {
+
+            iterator.remove();
+
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+
+   /**
+    * Adds a secondary index of the keys by an attribute of the values and indexes the elements in this store. Does
+    * nothing if this store already has an index built by an extractor of the same class.
+    *
+    * @param extractor the extractor of the indexed attribute.
+    */
+   public void addIndex(final AttributeExtractor extractor) {
+
+      if (findIndex(extractor) != null) {
+
+         return;
+      }
+
+      final BinaryStoreIndex index = new BinaryStoreIndex(extractor);
+      elements.forEachEntry(new ObjectObjectProcedure<Binary, BinaryStoreElement>() {
+
+         public boolean execute(final Binary key, final BinaryStoreElement element) {
+
+            try {
+
+               index.put(key, getValue(element));
+               return true;
+            } catch (final StorageException e) {
+               throw new RuntimeStorageException(e);
+            }
+         }
+      });
+
+      indexes.add(index);
+   }
+
+
+   /**
+    * Returns <code>true</code> if this store has an index built by an extractor of the same class as the given
+    * extractor.
+    *
+    * @param extractor the extractor to check.
+    * @return <code>true</code> if this store has an index built by an extractor of the same class as the given
+    *         extractor.
+    */
+   public boolean hasIndex(final AttributeExtractor extractor) {
+
+      return findIndex(extractor) != null;
+   }
+
+
+   /**
+    * Returns the entries that match an index-aware filter by looking them up in the index of the filter's extractor.
+    * Unlike {@link #entrySet()}, this method visits only the matching entries. The set is detached from the map.
+    *
+    * @param filter the filter.
+    * @return the entries that match the filter or <code>null</code> if this store does not have an index that can
+    *         serve the filter.
+    */
+   public Set<Entry<Binary, Binary>> entrySet(final IndexedEntryFilter filter) {
+
+      final Set<Entry<Binary, Binary>> result = new HashSet<Entry<Binary, Binary>>(11);
+      final boolean indexed = forEachEntry(filter, new BinaryStoreElementProcedure() {
+
+         public boolean processEntry(final Binary key, final Binary value) {
+
+            result.add(new BinaryStoreEntry(key, value));
+            return true;
+         }
+      });
+
+      return indexed ? result : null;
+   }
+
+
+   /**
+    * Executes a procedure for each entry that matches an index-aware filter by looking the entries up in the index of
+    * the filter's extractor. Unlike {@link #entrySet(IndexedEntryFilter)}, this method does not copy the entries into a
+    * set. The procedure must not modify this store.
+    *
+    * @param filter    the filter.
+    * @param procedure the procedure to execute. Returning <code>false</code> from the procedure stops the iteration.
+    * @return <code>true</code> if the entries were looked up in the index or <code>false</code> if this store does not
+    *         have an index that can serve the filter. The procedure is not executed if this method returns
+    *         <code>false</code>.
+    */
+   public boolean forEachEntry(final IndexedEntryFilter filter, final BinaryStoreElementProcedure procedure) {
+
+      final BinaryStoreIndex index = findIndex(filter.getExtractor());
+      if (index == null) {
+
+         return false;
+      }
+
+      final Collection<Binary> keys = index.select(filter);
+      if (keys == null) {
+
+         return false;
+      }
+
+      final Time idleTime = calculateIdleTime(idleInterval);
+      try {
+
+         for (final Binary key : keys) {
+
+            // The index may still hold expired elements that have not been removed yet
+            final BinaryStoreElement element = elements.get(key);
+            if (element != null && !element.isExpired(clock) && element.isValid()) {
+
+               element.setIdleTime(idleTime);
+               if (!procedure.processEntry(key, getValue(element))) {
+
+                  break;
+               }
+            }
+         }
+      } catch (final StorageException e) {
+         throw new RuntimeStorageException(e);
+      }
+
+      return true;
+   }
+
+
+   /**
+    * Returns the index by the attribute extractor.
+    *
+    * @param extractor the attribute extractor.
+    * @return the index or <code>null</code> if this store is not indexed by the extractor.
+    */
+   BinaryStoreIndex findIndex(final AttributeExtractor extractor) {
+
+      for (final BinaryStoreIndex index : indexes) {
+
+         if (index.isIndexedBy(extractor)) {
+
+            return index;
+         }
+      }
+
+      return null;
+   }
+
+
+   private void indexElement(final Binary key, final Binary value) {
+
+      for (final BinaryStoreIndex index : indexes) {
+
+         index.put(key, value);
+      }
+   }
+
+
+   private void unindexElement(final Binary key) {
+
+      for (final BinaryStoreIndex index : indexes) {
+
+         index.remove(key);
+      }
+   }
+
+
    /**
     * Removes an event subscriber.
     *
@@ -1347,6 +1710,8 @@ public final class BinaryStore implements Wireable {
                byteCounter.subtract(element.getSizeBytes());
                elementCounter.decrement();
                element.removeFromLRUList();
+               expirationWheel.cancel(element);
+               unindexElement(key);
 
                // Remove from the storage
                try {
@@ -1531,6 +1896,8 @@ public final class BinaryStore implements Wireable {
                // Register element
                receiverStore.addToLRUList(newElement);
                receiverStore.elements.put(binaryKey, newElement);
+               receiverStore.expirationWheel.schedule(newElement);
+               receiverStore.indexElement(binaryKey, binaryValue);
 
                // Adjust counters
                receiverStore.byteCounter.add(newElement.getSizeBytes());
@@ -1671,7 +2038,8 @@ public final class BinaryStore implements Wireable {
 
       } else {
 
-         return clock.currentTime().add(idleInterval);
+         // Use coarse time because the idle time is recalculated on every access
+         return new TimeImpl(clock.coarseTimeMillis() + idleInterval.getMillis(), idleInterval.getCount());
       }
    }
 
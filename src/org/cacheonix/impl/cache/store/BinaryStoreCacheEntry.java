@@ -0,0 +1,108 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.store;
+
+import org.cacheonix.cache.entry.CacheEntry;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.clock.Time;
+
+/**
+ * A cache entry passed to entry filters of cache-wide subscribers. The key and the value are converted to objects
+ * only when requested by the filter.
+ */
+final class BinaryStoreCacheEntry implements CacheEntry {
+
+   /**
+    * The key.
+    */
+   private final Binary key;
+
+   /**
+    * The value.
+    */
+   private final Binary value;
+
+   /**
+    * Time the element was created.
+    */
+   private final Time createdTime;
+
+   /**
+    * Time to expire.
+    */
+   private final Time expirationTime;
+
+
+   /**
+    * Creates a new instance of <tt>BinaryStoreCacheEntry</tt>
+    *
+    * @param key            the key.
+    * @param value          the value.
+    * @param createdTime    the time this entry was created.
+    * @param expirationTime the time this entry expires.
+    */
+   BinaryStoreCacheEntry(final Binary key, final Binary value, final Time createdTime, final Time expirationTime) {
+
+      this.key = key;
+      this.value = value;
+      this.createdTime = createdTime;
+      this.expirationTime = expirationTime;
+   }
+
+
+   public Object getKey() {
+
+      return toObject(key);
+   }
+
+
+   public Object getValue() {
+
+      return toObject(value);
+   }
+
+
+   public Time getExpirationTime() {
+
+      return expirationTime;
+   }
+
+
+   public Time getCreatedTime() {
+
+      return createdTime;
+   }
+
+
+   private static Object toObject(final Binary binary) {
+
+      if (binary == null) {
+
+         return null;
+      }
+
+      return binary.getValue();
+   }
+
+
+   public String toString() {
+
+      return "BinaryStoreCacheEntry{" +
+              "key=" + key +
+              ", value=" + value +
+              ", createdTime=" + createdTime +
+              ", expirationTime=" + expirationTime +
+              '}';
+   }
+}
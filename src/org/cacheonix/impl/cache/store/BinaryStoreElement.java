@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import org.cacheonix.cache.entry.EntryFilter;
 import org.cacheonix.cache.invalidator.Invalidateable;
 import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
 import org.cacheonix.cache.subscriber.EntryModifiedEventType;
@@ -77,7 +78,7 @@ public final class BinaryStoreElement implements Invalidateable, Wireable, Reada
     * Shallow size of empty BinaryStoreElement used to calculate total byte size in memory of BinaryStoreElement. See
     * <code>BinaryStoreElementTest.testWriteReadWire()</code> for calculation.
     */
-   static final int SIZE_CACHE_ELEMENT_OVERHEAD = 136;
+   static final int SIZE_CACHE_ELEMENT_OVERHEAD = 152;
 
 
    /**
@@ -118,6 +119,21 @@ public final class BinaryStoreElement implements Invalidateable, Wireable, Reada
     */
    private transient BinaryStoreElement after = null;
 
+   /**
+    * Element before in the expiration wheel slot.
+    */
+   private transient BinaryStoreElement expirationBefore = null;
+
+   /**
+    * Element after in the expiration wheel slot.
+    */
+   private transient BinaryStoreElement expirationAfter = null;
+
+   /**
+    * Index of the expiration wheel slot holding this element or <code>-1</code> if the element is not in the wheel.
+    */
+   private transient int expirationSlot = -1;
+
    /**
     * Recorder size in bytes.
     */
@@ -242,32 +258,21 @@ public final class BinaryStoreElement implements Invalidateable, Wireable, Reada
     * @param clock
     * @return <code>true</code> if this cache element expired.
     */
-   @SuppressWarnings("ReuseOfLocalVariable")
    public boolean isExpired(final Clock clock) {
 
-      Time currentTime = null;
-      if (expirationTime != null) {
+      if (expirationTime == null && idleTime == null) {
 
-         currentTime = clock.currentTime();
-         if (currentTime.compareTo(expirationTime) > 0) {
-
-            return true;
-         }
+         return false;
       }
 
-      if (idleTime != null) {
-
-         if (currentTime == null) {
-
-            currentTime = clock.currentTime();
-         }
-
-         if (currentTime.compareTo(idleTime) > 0) {
+      // Coarse time is sufficient for expiration and does not require reading the clock for every element
+      final long currentTimeMillis = clock.coarseTimeMillis();
+      if (expirationTime != null && currentTimeMillis > expirationTime.getMillis()) {
 
-            return true;
-         }
+         return true;
       }
-      return false;
+
+      return idleTime != null && currentTimeMillis > idleTime.getMillis();
    }
 
 
@@ -330,6 +335,42 @@ public final class BinaryStoreElement implements Invalidateable, Wireable, Reada
    }
 
 
+   BinaryStoreElement getExpirationBefore() {
+
+      return expirationBefore;
+   }
+
+
+   void setExpirationBefore(final BinaryStoreElement expirationBefore) {
+
+      this.expirationBefore = expirationBefore;
+   }
+
+
+   BinaryStoreElement getExpirationAfter() {
+
+      return expirationAfter;
+   }
+
+
+   void setExpirationAfter(final BinaryStoreElement expirationAfter) {
+
+      this.expirationAfter = expirationAfter;
+   }
+
+
+   int getExpirationSlot() {
+
+      return expirationSlot;
+   }
+
+
+   void setExpirationSlot(final int expirationSlot) {
+
+      this.expirationSlot = expirationSlot;
+   }
+
+
    /**
     * @return cache element key.
     */
@@ -678,44 +719,116 @@ public final class BinaryStoreElement implements Invalidateable, Wireable, Reada
          // Check interest
          if (!subscriber.getModificationTypes().contains(updateType)) {
 
-            return;
+            continue;
          }
 
-         // Calculate parameters based on flags
-         Binary eventKey = null;
-         Binary eventValue = null;
-         Binary eventPreviousValue = null;
-         for (final EntryModifiedEventContentFlag eventContentFlag : subscriber.getEventContentFlags()) {
+         // Send event
+         subscriber.notifyKeysUpdated(Collections.singletonList(createEvent(subscriber, previousElement, updateType)));
+      }
+   }
 
-            if (NEED_KEY.equals(eventContentFlag)) {
 
-               eventKey = key;
-            } else if (NEED_NEW_VALUE.equals(eventContentFlag)) {
+   /**
+    * Notifies cache-wide subscribers which filters match the modification of this element.
+    *
+    * @param previousElement the element replaced by this element, this element if this element was removed or
+    *                        <code>null</code> if this element was added.
+    * @param updateType      the modification type.
+    * @param subscribers     the cache-wide subscribers.
+    * @throws StorageException if the value could not be read from the storage.
+    */
+   void notifyCacheEventSubscribers(final BinaryStoreElement previousElement, final EntryModifiedEventType updateType,
+           final List<CacheEventSubscriber> subscribers) throws StorageException {
 
-               eventValue = updateType.equals(REMOVE) || updateType.equals(EVICT) ? null : getValue();
-            } else if (NEED_PREVIOUS_VALUE.equals(eventContentFlag)) {
+      for (final CacheEventSubscriber cacheEventSubscriber : subscribers) {
 
-               eventPreviousValue = previousElement == null ? null : previousElement.getValue();
-            } else if (NEED_ALL.equals(eventContentFlag)) {
+         // Check interest
+         final BinaryEntryModifiedSubscriber subscriber = cacheEventSubscriber.getSubscriber();
+         if (!subscriber.getModificationTypes().contains(updateType)) {
 
-               // A superposition of actions taken by individual flags
+            continue;
+         }
 
-               eventKey = key;
-               eventValue = updateType.equals(REMOVE) ? null : getValue();
-               eventPreviousValue = previousElement == null ? null : previousElement.getValue();
+         // Check filter
+         if (!matches(cacheEventSubscriber.getFilter(), previousElement)) {
 
-               break; // No need to traverse through other flags
-            }
+            continue;
          }
 
          // Send event
-         final BinaryEntryModifiedEvent event = new BinaryEntryModifiedEvent(updateType, eventKey, eventValue,
-                 eventPreviousValue, createdTime, updateCounter, null);
-         subscriber.notifyKeysUpdated(Collections.singletonList(event));
+         subscriber.notifyKeysUpdated(Collections.singletonList(createEvent(subscriber, previousElement, updateType)));
       }
    }
 
 
+   /**
+    * Returns <code>true</code> if the filter matches this element or the element this element replaced. Returns
+    * <code>false</code> if the filter throws an exception.
+    */
+   private boolean matches(final EntryFilter filter, final BinaryStoreElement previousElement) throws StorageException {
+
+      if (filter == null) {
+
+         return true;
+      }
+
+      try {
+
+         if (filter.matches(new BinaryStoreCacheEntry(key, getValue(), createdTime, expirationTime))) {
+
+            return true;
+         }
+
+         return previousElement != null && previousElement != this && filter.matches( // NOPMD
+                 new BinaryStoreCacheEntry(key, previousElement.getValue(), previousElement.createdTime,
+                         previousElement.expirationTime));
+      } catch (final RuntimeException e) {
+
+         // Isolate errors thrown by user code
+         LOG.warn("Error while evaluating entry filter " + filter + ": " + e, e);
+         return false;
+      }
+   }
+
+
+   /**
+    * Creates an event containing the information requested by the subscriber's event content flags.
+    */
+   private BinaryEntryModifiedEvent createEvent(final BinaryEntryModifiedSubscriber subscriber,
+           final BinaryStoreElement previousElement, final EntryModifiedEventType updateType) throws StorageException {
+
+      // Calculate parameters based on flags
+      Binary eventKey = null;
+      Binary eventValue = null;
+      Binary eventPreviousValue = null;
+      for (final EntryModifiedEventContentFlag eventContentFlag : subscriber.getEventContentFlags()) {
+
+         if (NEED_KEY.equals(eventContentFlag)) {
+
+            eventKey = key;
+         } else if (NEED_NEW_VALUE.equals(eventContentFlag)) {
+
+            eventValue = updateType.equals(REMOVE) || updateType.equals(EVICT) ? null : getValue();
+         } else if (NEED_PREVIOUS_VALUE.equals(eventContentFlag)) {
+
+            eventPreviousValue = previousElement == null ? null : previousElement.getValue();
+         } else if (NEED_ALL.equals(eventContentFlag)) {
+
+            // A superposition of actions taken by individual flags
+
+            eventKey = key;
+            eventValue = updateType.equals(REMOVE) ? null : getValue();
+            eventPreviousValue = previousElement == null ? null : previousElement.getValue();
+
+            break; // No need to traverse through other flags
+         }
+      }
+
+      return new BinaryEntryModifiedEvent(updateType, eventKey, eventValue, eventPreviousValue, createdTime,
+              updateCounter, null);
+   }
+
+
    public final int getWireableType() {
 
       return TYPE_BINARY_STORE_ELEMENT;
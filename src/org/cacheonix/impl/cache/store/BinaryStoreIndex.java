@@ -0,0 +1,281 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.cacheonix.cache.entry.AttributeExtractor;
+import org.cacheonix.cache.entry.EqualsFilter;
+import org.cacheonix.cache.entry.InFilter;
+import org.cacheonix.cache.entry.IndexedEntryFilter;
+import org.cacheonix.cache.entry.RangeFilter;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.util.array.HashMap;
+import org.cacheonix.impl.util.array.HashSet;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * A secondary index of the keys of a binary store by an attribute of the values.
+ * <p/>
+ * The index keeps the keys sorted by the attribute so that it can serve equality, in-set and range lookups. It also
+ * keeps the attribute of each key so that a key can be removed from the index without reading its value.
+ *
+ * @see BinaryStore#addIndex(AttributeExtractor)
+ */
+final class BinaryStoreIndex {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(BinaryStoreIndex.class); // NOPMD
+
+   /**
+    * The extractor of the indexed attribute.
+    */
+   private final AttributeExtractor extractor;
+
+   /**
+    * Keys by attribute.
+    */
+   private final TreeMap<Object, HashSet<Binary>> keysByAttribute = new TreeMap<Object, HashSet<Binary>>(); // NOPMD
+
+   /**
+    * Attributes by key.
+    */
+   private final HashMap<Binary, Object> attributesByKey = new HashMap<Binary, Object>(1); // NOPMD
+
+
+   /**
+    * Creates BinaryStoreIndex.
+    *
+    * @param extractor the extractor of the indexed attribute.
+    */
+   BinaryStoreIndex(final AttributeExtractor extractor) {
+
+      this.extractor = extractor;
+   }
+
+
+   /**
+    * Returns <code>true</code> if this index is built by an extractor of the same class as the given extractor.
+    *
+    * @param otherExtractor the extractor to check.
+    * @return <code>true</code> if this index is built by an extractor of the same class as the given extractor.
+    */
+   boolean isIndexedBy(final AttributeExtractor otherExtractor) {
+
+      return extractor.getClass().equals(otherExtractor.getClass());
+   }
+
+
+   /**
+    * Indexes a key by the attribute of its value. A previous attribute of the key is removed from the index.
+    *
+    * @param key   the key.
+    * @param value the value.
+    */
+   void put(final Binary key, final Binary value) {
+
+      remove(key);
+
+      final Object attribute = extract(value);
+      if (attribute == null) {
+
+         return;
+      }
+
+      try {
+
+         HashSet<Binary> keys = keysByAttribute.get(attribute);
+         if (keys == null) {
+
+            keys = new HashSet<Binary>(1);
+            keysByAttribute.put(attribute, keys);
+         }
+
+         keys.add(key);
+         attributesByKey.put(key, attribute);
+      } catch (final ClassCastException e) {
+
+         LOG.warn("Attribute is not comparable to other attributes and will not be indexed: " + attribute, e);
+      }
+   }
+
+
+   /**
+    * Removes a key from the index.
+    *
+    * @param key the key to remove.
+    */
+   void remove(final Binary key) {
+
+      final Object attribute = attributesByKey.remove(key);
+      if (attribute == null) {
+
+         return;
+      }
+
+      final HashSet<Binary> keys = keysByAttribute.get(attribute);
+      keys.remove(key);
+      if (keys.isEmpty()) {
+
+         keysByAttribute.remove(attribute);
+      }
+   }
+
+
+   /**
+    * Removes all keys from the index.
+    */
+   void clear() {
+
+      keysByAttribute.clear();
+      attributesByKey.clear();
+   }
+
+
+   /**
+    * Returns the number of indexed keys.
+    *
+    * @return the number of indexed keys.
+    */
+   int size() {
+
+      return attributesByKey.size();
+   }
+
+
+   /**
+    * Looks up the keys of the values that match the filter.
+    *
+    * @param filter the filter.
+    * @return the keys of the values that match the filter or <code>null</code> if the index cannot serve the filter.
+    */
+   Collection<Binary> select(final IndexedEntryFilter filter) {
+
+      try {
+
+         if (filter instanceof EqualsFilter) {
+
+            return select(Collections.<Object>singletonList(((EqualsFilter) filter).getValue()));
+         } else if (filter instanceof InFilter) {
+
+            return select(((InFilter) filter).getValues());
+         } else if (filter instanceof RangeFilter) {
+
+            return select((RangeFilter) filter);
+         } else {
+
+            return null;
+         }
+      } catch (final IllegalArgumentException e) {
+
+         // The lower bound of the range is greater than the upper bound
+         return Collections.emptyList();
+      } catch (final ClassCastException e) {
+
+         // The filter's values are not comparable to the attributes, let the caller test all entries
+         LOG.debug("Cannot use index for filter " + filter + ": " + e);
+         return null;
+      }
+   }
+
+
+   private Collection<Binary> select(final Collection<?> values) {
+
+      final ArrayList<Binary> result = new ArrayList<Binary>(values.size());
+      for (final Object value : values) {
+
+         if (value != null) {
+
+            final HashSet<Binary> keys = keysByAttribute.get(value);
+            if (keys != null) {
+
+               result.addAll(keys);
+            }
+         }
+      }
+      return result;
+   }
+
+
+   private Collection<Binary> select(final RangeFilter filter) {
+
+      final Object from = filter.getFrom();
+      final Object to = filter.getTo();
+
+      final SortedMap<Object, HashSet<Binary>> range;
+      if (from == null && to == null) {
+
+         range = keysByAttribute;
+      } else if (from == null) {
+
+         range = keysByAttribute.headMap(to, filter.isToInclusive());
+      } else if (to == null) {
+
+         range = keysByAttribute.tailMap(from, filter.isFromInclusive());
+      } else {
+
+         range = keysByAttribute.subMap(from, filter.isFromInclusive(), to, filter.isToInclusive());
+      }
+
+      final ArrayList<Binary> result = new ArrayList<Binary>(range.size());
+      for (final Map.Entry<Object, HashSet<Binary>> entry : range.entrySet()) {
+
+         result.addAll(entry.getValue());
+      }
+      return result;
+   }
+
+
+   private Object extract(final Binary value) {
+
+      if (value == null) {
+
+         return null;
+      }
+
+      final Object object = value.getValue();
+      if (object == null) {
+
+         return null;
+      }
+
+      try {
+
+         return extractor.extract(object);
+      } catch (final RuntimeException e) {
+
+         // Do not trust 3-rd party extractors
+         LOG.warn("Error while extracting an attribute using " + extractor + ": " + e, e);
+         return null;
+      }
+   }
+
+
+   public String toString() {
+
+      return "BinaryStoreIndex{" +
+              "extractor=" + extractor +
+              ", size=" + attributesByKey.size() +
+              '}';
+   }
+}
@@ -0,0 +1,94 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.store;
+
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+
+/**
+ * A subscriber to modifications of all entries in a store that match a filter. A subscriber is identified by the
+ * address of the subscriber's node and by the subscriber identity, because identities are unique only within a node.
+ */
+final class CacheEventSubscriber {
+
+   /**
+    * The address of the subscriber's node or <code>null</code> if the subscriber is local.
+    */
+   private final ClusterNodeAddress subscriberAddress;
+
+   /**
+    * The filter or <code>null</code> if the subscriber is interested in all entries.
+    */
+   private final EntryFilter filter;
+
+   /**
+    * The subscriber.
+    */
+   private final BinaryEntryModifiedSubscriber subscriber;
+
+
+   /**
+    * Creates a new instance of <tt>CacheEventSubscriber</tt>
+    *
+    * @param subscriberAddress the address of the subscriber's node or <code>null</code> if the subscriber is local.
+    * @param filter            the filter or <code>null</code> if the subscriber is interested in all entries.
+    * @param subscriber        the subscriber.
+    */
+   CacheEventSubscriber(final ClusterNodeAddress subscriberAddress, final EntryFilter filter,
+           final BinaryEntryModifiedSubscriber subscriber) {
+
+      this.subscriberAddress = subscriberAddress;
+      this.filter = filter;
+      this.subscriber = subscriber;
+   }
+
+
+   public EntryFilter getFilter() {
+
+      return filter;
+   }
+
+
+   public BinaryEntryModifiedSubscriber getSubscriber() {
+
+      return subscriber;
+   }
+
+
+   /**
+    * Returns <code>true</code> if this is the subscriber with the given address and identity.
+    *
+    * @param subscriberAddress  the address of the subscriber's node or <code>null</code> if the subscriber is local.
+    * @param subscriberIdentity the subscriber identity.
+    * @return <code>true</code> if this is the subscriber with the given address and identity.
+    */
+   boolean isSubscriber(final ClusterNodeAddress subscriberAddress, final int subscriberIdentity) {
+
+      if (subscriber.getIdentity() != subscriberIdentity) {
+         return false;
+      }
+      return this.subscriberAddress == null ? subscriberAddress == null : this.subscriberAddress.equals(
+              subscriberAddress);
+   }
+
+
+   public String toString() {
+
+      return "CacheEventSubscriber{" +
+              "subscriberAddress=" + subscriberAddress +
+              ", filter=" + filter +
+              ", subscriber=" + subscriber +
+              '}';
+   }
+}
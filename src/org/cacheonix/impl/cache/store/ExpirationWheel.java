@@ -0,0 +1,335 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.store;
+
+import java.util.Arrays;
+
+import org.cacheonix.impl.clock.Time;
+import org.cacheonix.impl.util.array.ObjectProcedure;
+
+/**
+ * A hierarchical timing wheel that indexes {@link BinaryStoreElement}s by the time they expire.
+ * <p/>
+ * The wheel has {@link #LEVEL_COUNT} levels of {@link #SLOT_COUNT} slots. A slot at level <code>n</code> covers
+ * <code>SLOT_COUNT^n</code> ticks. Elements that are far from expiration sit in the upper levels and are moved to
+ * lower levels as the wheel turns, so that {@link #expire(long, int, ObjectProcedure)} visits only elements that are
+ * due. Slots are intrusive doubly-linked lists, so adding and removing an element costs O(1) and does not allocate.
+ * <p/>
+ * The wheel is not thread safe. It is accessed under the same protection as the owning {@link BinaryStore}.
+ */
+final class ExpirationWheel {
+
+   private static final int SLOT_BITS = 6;
+
+   private static final int SLOT_COUNT = 1 << SLOT_BITS;
+
+   private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+   private static final int LEVEL_COUNT = 4;
+
+   /**
+    * The farthest tick ahead that the wheel can hold.
+    */
+   private static final long MAX_DELTA_TICKS = (1L << (SLOT_BITS * LEVEL_COUNT)) - 1L;
+
+   /**
+    * Tick duration.
+    */
+   private final long tickMillis;
+
+   /**
+    * Slot heads. Allocated when the first element is added.
+    */
+   private BinaryStoreElement[] slots = null;
+
+   /**
+    * The last tick that has been completely processed.
+    */
+   private long processedTick;
+
+   /**
+    * The last tick for which the upper levels were cascaded.
+    */
+   private long cascadedTick;
+
+   /**
+    * Number of elements in the wheel.
+    */
+   private int size = 0;
+
+
+   /**
+    * Creates a timing wheel.
+    *
+    * @param tickMillis        tick duration.
+    * @param currentTimeMillis current time.
+    */
+   ExpirationWheel(final long tickMillis, final long currentTimeMillis) {
+
+      this.tickMillis = tickMillis;
+      this.processedTick = currentTimeMillis / tickMillis;
+      this.cascadedTick = processedTick;
+   }
+
+
+   /**
+    * Adds the element to the wheel according to its expiration and idle time. An element that is already in the wheel
+    * is moved. An element that neither expires nor idles is not added.
+    *
+    * @param element the element to add.
+    */
+   void schedule(final BinaryStoreElement element) {
+
+      cancel(element);
+
+      final long deadlineMillis = deadlineMillis(element);
+      if (deadlineMillis == Long.MAX_VALUE) {
+
+         return;
+      }
+
+      // The element is due at the first tick that starts after the deadline
+      place(element, deadlineMillis / tickMillis + 1L);
+   }
+
+
+   /**
+    * Removes the element from the wheel. Does nothing if the element is not in the wheel.
+    *
+    * @param element the element to remove.
+    */
+   void cancel(final BinaryStoreElement element) {
+
+      final int slot = element.getExpirationSlot();
+      if (slot < 0) {
+
+         return;
+      }
+
+      final BinaryStoreElement before = element.getExpirationBefore();
+      final BinaryStoreElement after = element.getExpirationAfter();
+      if (before == null) {
+
+         slots[slot] = after;
+      } else {
+
+         before.setExpirationAfter(after);
+      }
+
+      if (after != null) {
+
+         after.setExpirationBefore(before);
+      }
+
+      element.setExpirationBefore(null);
+      element.setExpirationAfter(null);
+      element.setExpirationSlot(-1);
+      size--;
+   }
+
+
+   /**
+    * Turns the wheel up to the current time and passes elements that are due to the procedure. The elements are
+    * removed from the wheel before they are passed to the procedure. The procedure may add an element back if it has
+    * not expired yet.
+    *
+    * @param currentTimeMillis current time.
+    * @param maxElements       the maximum number of elements to pass to the procedure. The remaining due elements are
+    *                          processed by the next call.
+    * @param procedure         the procedure to receive elements that are due.
+    * @return the number of elements passed to the procedure.
+    */
+   int expire(final long currentTimeMillis, final int maxElements,
+           final ObjectProcedure<BinaryStoreElement> procedure) {
+
+      final long currentTick = currentTimeMillis / tickMillis;
+      if (size == 0) {
+
+         // Nothing to do, just catch up
+         if (currentTick > processedTick) {
+
+            processedTick = currentTick;
+            cascadedTick = currentTick;
+         }
+         return 0;
+      }
+
+      int processed = 0;
+      while (processedTick < currentTick) {
+
+         final long tick = processedTick + 1L;
+         if (cascadedTick < tick) {
+
+            cascade(tick);
+            cascadedTick = tick;
+         }
+
+         final int slot = (int) (tick & SLOT_MASK);
+         while (slots[slot] != null) {
+
+            if (processed >= maxElements) {
+
+               return processed;
+            }
+
+            final BinaryStoreElement element = slots[slot];
+            cancel(element);
+            processed++;
+            procedure.execute(element);
+         }
+
+         processedTick = tick;
+      }
+
+      return processed;
+   }
+
+
+   /**
+    * Removes all elements from the wheel.
+    */
+   void clear() {
+
+      if (slots != null) {
+
+         for (final BinaryStoreElement head : slots) {
+
+            for (BinaryStoreElement element = head; element != null; ) {
+
+               final BinaryStoreElement after = element.getExpirationAfter();
+               element.setExpirationBefore(null);
+               element.setExpirationAfter(null);
+               element.setExpirationSlot(-1);
+               element = after;
+            }
+         }
+         Arrays.fill(slots, null);
+      }
+      size = 0;
+   }
+
+
+   /**
+    * Returns the number of elements in the wheel.
+    *
+    * @return the number of elements in the wheel.
+    */
+   int size() {
+
+      return size;
+   }
+
+
+   /**
+    * Moves elements of the upper level slots that start at the given tick to the lower levels.
+    *
+    * @param tick the tick about to be processed.
+    */
+   private void cascade(final long tick) {
+
+      for (int level = 1; level < LEVEL_COUNT; level++) {
+
+         final int shift = SLOT_BITS * level;
+         if ((tick & ((1L << shift) - 1L)) != 0L) {
+
+            // Not at the boundary of this level, so not at the boundaries of upper levels either
+            return;
+         }
+
+         final int slot = (level << SLOT_BITS) + (int) ((tick >>> shift) & SLOT_MASK);
+         BinaryStoreElement element = slots[slot];
+         slots[slot] = null;
+         while (element != null) {
+
+            final BinaryStoreElement after = element.getExpirationAfter();
+            element.setExpirationBefore(null);
+            element.setExpirationAfter(null);
+            element.setExpirationSlot(-1);
+            size--;
+            schedule(element);
+            element = after;
+         }
+      }
+   }
+
+
+   /**
+    * Links the element into the slot for the given tick.
+    *
+    * @param element the element.
+    * @param dueTick the tick the element is due at.
+    */
+   private void place(final BinaryStoreElement element, final long dueTick) {
+
+      if (slots == null) {
+
+         slots = new BinaryStoreElement[LEVEL_COUNT << SLOT_BITS];
+      }
+
+      // Elements that are already due go to the next tick to process
+      final long nextTick = processedTick + 1L;
+      long tick = Math.max(dueTick, nextTick);
+      if (tick - nextTick > MAX_DELTA_TICKS) {
+
+         // Too far, park at the farthest tick. The element will be placed again when the tick is reached.
+         tick = nextTick + MAX_DELTA_TICKS;
+      }
+
+      final long delta = tick - nextTick;
+      int level = 0;
+      while (level < LEVEL_COUNT - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+
+         level++;
+      }
+
+      final int slot = (level << SLOT_BITS) + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+      final BinaryStoreElement head = slots[slot];
+      element.setExpirationBefore(null);
+      element.setExpirationAfter(head);
+      element.setExpirationSlot(slot);
+      if (head != null) {
+
+         head.setExpirationBefore(element);
+      }
+      slots[slot] = element;
+      size++;
+   }
+
+
+   /**
+    * Returns the earliest of the element's expiration and idle time.
+    *
+    * @param element the element.
+    * @return the earliest of the element's expiration and idle time or <code>Long.MAX_VALUE</code> if the element
+    * neither expires nor idles.
+    */
+   private static long deadlineMillis(final BinaryStoreElement element) {
+
+      final Time expirationTime = element.getExpirationTime();
+      final Time idleTime = element.getIdleTime();
+      final long expirationMillis = expirationTime == null ? Long.MAX_VALUE : expirationTime.getMillis();
+      final long idleMillis = idleTime == null ? Long.MAX_VALUE : idleTime.getMillis();
+      return Math.min(expirationMillis, idleMillis);
+   }
+
+
+   public String toString() {
+
+      return "ExpirationWheel{" +
+              "tickMillis=" + tickMillis +
+              ", processedTick=" + processedTick +
+              ", size=" + size +
+              '}';
+   }
+}
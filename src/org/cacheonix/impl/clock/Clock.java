@@ -12,6 +12,27 @@ public interface Clock {
     */
    Time currentTime();
 
+   /**
+    * Returns milliseconds of current physical time. Unlike {@link #currentTime()}, this method does not advance the
+    * event count and does not create a {@link Time} object, so it should be used by the code that needs only
+    * millisecond precision. The returned value never goes back and is never less than the milliseconds of the last
+    * time returned by {@link #currentTime()}.
+    *
+    * @return milliseconds of current physical time.
+    */
+   long currentTimeMillis();
+
+   /**
+    * Returns milliseconds of current physical time as of the last tick of a background ticker. Reading the coarse time
+    * costs a single volatile read, and the result may lag behind {@link #currentTimeMillis()} by up to the tick period.
+    * The coarse time should be used for checks that tolerate such lag, such as expiration and idle time checks, and
+    * should not be used to order events. If the ticker is not running, this method returns {@link
+    * #currentTimeMillis()}.
+    *
+    * @return milliseconds of current physical time as of the last tick.
+    */
+   long coarseTimeMillis();
+
    /**
     * Adjusts the current time to the given time. This method is used when synchronizing clocks. The clock is adjusted
     * if the current local time is behind. Does nothing if the parameter <code>time</code> is null.
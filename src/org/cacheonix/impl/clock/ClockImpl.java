@@ -15,11 +15,17 @@ package org.cacheonix.impl.clock;
 
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.cacheonix.impl.util.logging.Logger;
 
 /**
  * A monotonic physical clock.
+ * <p/>
+ * The clock does not lock on the common path. The last returned reading is kept in a single word that packs the
+ * milliseconds in the upper bits and the event count in the lower {@link #COUNT_BITS} bits, and is advanced with a
+ * compare-and-set. The mutex is entered only to initialize the clock, to correct a detected wall clock jump and to
+ * move the clock forward in {@link #adjust(Time)}.
  */
 public final class ClockImpl implements Clock {
 
@@ -30,6 +36,24 @@ public final class ClockImpl implements Clock {
 
    private static final long JUMP_DETECTION_PERIOD_MILLIS = 1000L;
 
+   /**
+    * Default period of updates of the coarse time.
+    */
+   public static final long DEFAULT_TICK_PERIOD_MILLIS = 5L;
+
+   /**
+    * Number of lower bits of the packed reading occupied by the event count. An overflow of the count carries into
+    * the milliseconds, which keeps the clock monotonic.
+    */
+   private static final int COUNT_BITS = 20;
+
+   private static final long COUNT_MASK = (1L << COUNT_BITS) - 1L;
+
+   /**
+    * A marker meaning that the wall clock has not been read yet.
+    */
+   private static final long NOT_SET = Long.MIN_VALUE;
+
 
    /**
     * Mutex.
@@ -58,30 +82,31 @@ public final class ClockImpl implements Clock {
 
 
    /**
-    * Offset set by the dump detection protocol.
+    * Offset set by the dump detection protocol. Written only while holding the mutex.
     */
-   private long offsetMillis = 0L;
+   private volatile long offsetMillis = 0L;
 
    /**
-    * System clock reading set by the last call to {@link #readClock()}.
+    * System clock reading set by the last call to {@link #readClock()}. Only moves forward.
     */
-   private long lastClockReadingMillis = 0;
+   private final AtomicLong lastClockReadingMillis = new AtomicLong(NOT_SET);
 
    /**
+    * Offset set by the clock synchronization protocol {@link #adjust(Time)}. Written only while holding the mutex.
     */
-   private boolean needToSetClockReadingMillis = true;
+   private volatile long adjustmentMillis = 0L;
 
    /**
-    * Offset set by the clock synchronization protocol {@link #adjust(Time)}.
+    * The last returned time packed as <code>(millis &lt;&lt; COUNT_BITS) | count</code>. The initial value is one
+    * millisecond before zero so that the first reading always starts a new millisecond.
     */
-   private long adjustmentMillis = 0L;
-
-   private long lastReturnedClockMillis = 0L;
+   private final AtomicLong lastReturnedTime = new AtomicLong(-1L << COUNT_BITS);
 
    /**
-    * Event count used to advance the monotonic clock in cases repeated reads of the wall clock return the same value.
+    * Coarse time in milliseconds updated by the ticker set up by {@link #attachTickerTo(Timer, long)}, or {@link
+    * #NOT_SET} if the ticker has not been set up.
     */
-   private long count = 0L;
+   private volatile long coarseTimeMillis = NOT_SET;
 
 
    ClockImpl(final long minimalInterProcessDelayNanos, final long jumpDetectionPeriodMillis,
@@ -121,33 +146,87 @@ public final class ClockImpl implements Clock {
    }
 
 
+   /**
+    * Initializes a ticker that updates the coarse time returned by {@link #coarseTimeMillis()}. The timer should be
+    * dedicated to the ticker because a task delayed by other tasks leaves the coarse time behind.
+    *
+    * @param timer            the timer to use to update the coarse time.
+    * @param tickPeriodMillis the period of updates.
+    * @return this to enabled call cascading.
+    */
+   public Clock attachTickerTo(final Timer timer, final long tickPeriodMillis) {
+
+      tick();
+
+      timer.scheduleAtFixedRate(new TimerTask() {
+
+         public void run() {
+
+            tick();
+         }
+      }, tickPeriodMillis, tickPeriodMillis);
+
+      return this;
+   }
+
+
+   /**
+    * Updates the coarse time.
+    */
+   void tick() {
+
+      coarseTimeMillis = currentTimeMillis();
+   }
+
+
    /**
     * This method must be called at least twice as often as {@link #JUMP_DETECTION_PERIOD_MILLIS}. If system time moved
     * farther than that, or if it moved backwards, there was a discontinuation and this method will set up an offset.
+    * <p/>
+    * A reading that is within the allowed discontinuity is recorded without locking. Initialization and jump
+    * correction are done under the mutex.
     *
     * @return current monotonic clock reading.
     */
    private long readClock() {
 
-      final long currentTimeMillis = wallClock.currentTimeMillis();
+      final long currentClockReadingMillis = wallClock.currentTimeMillis() + offsetMillis;
+      final long lastReadingMillis = lastClockReadingMillis.get();
+      final long differential = currentClockReadingMillis - lastReadingMillis;
+      if (lastReadingMillis == NOT_SET || differential < 0 || differential > maxDiscontinuityMillis) {
+
+         return readClockSlow();
+      }
+
+      return advance(lastClockReadingMillis, currentClockReadingMillis);
+   }
+
+
+   /**
+    * Reads the wall clock under the mutex and corrects a jump if there was one.
+    *
+    * @return current monotonic clock reading.
+    */
+   private long readClockSlow() {
 
       synchronized (lock) {
 
+         final long currentTimeMillis = wallClock.currentTimeMillis();
          final long currentClockReadingMillis = currentTimeMillis + offsetMillis;
 
          // Init
-         if (needToSetClockReadingMillis) {
+         if (lastClockReadingMillis.get() == NOT_SET) {
 
-            lastClockReadingMillis = currentTimeMillis;
-            needToSetClockReadingMillis = false;
+            lastClockReadingMillis.set(currentTimeMillis);
          }
 
-         final long differential = currentClockReadingMillis - lastClockReadingMillis;
+         final long lastReadingMillis = lastClockReadingMillis.get();
+         final long differential = currentClockReadingMillis - lastReadingMillis;
          if (differential > maxDiscontinuityMillis) {
 
             // The clock jumped forward, should not be more than jumpDetectionPrecisionMillis
             offsetMillis += jumpDetectionPeriodMillis - differential;
-            lastClockReadingMillis = currentTimeMillis + offsetMillis;
+            return advance(lastClockReadingMillis, currentTimeMillis + offsetMillis);
 
          } else if (differential < 0) {
 
@@ -155,12 +234,11 @@ public final class ClockImpl implements Clock {
 
             // Expected: lastSystemClockReadingMillis + jumpDetectionPeriodMillis
             offsetMillis -= differential;
+            return lastReadingMillis;
          } else {
 
-            lastClockReadingMillis = currentClockReadingMillis;
+            return advance(lastClockReadingMillis, currentClockReadingMillis);
          }
-
-         return lastClockReadingMillis;
       }
    }
 
@@ -170,26 +248,26 @@ public final class ClockImpl implements Clock {
     */
    public Time currentTime() {
 
-      synchronized (lock) {
-
-         // Correct jumps if any
-         final long currentClockMillis = readClock();
-         if (currentClockMillis == lastReturnedClockMillis) {
+      // Correct jumps if any
+      final long currentClockMillis = readClock() + adjustmentMillis;
+      while (true) {
 
-            // The millisecond time is the same, increment event counter
-            count++;
+         final long last = lastReturnedTime.get();
+         final long next;
+         if (currentClockMillis > last >> COUNT_BITS) {
 
+            // Moved to a new millisecond, reset counter
+            next = currentClockMillis << COUNT_BITS;
          } else {
 
-            // Update last returned
-            lastReturnedClockMillis = currentClockMillis;
+            // The millisecond time is the same, increment event counter
+            next = last + 1L;
+         }
 
-            // Reset counter
-            count = 0;
+         if (lastReturnedTime.compareAndSet(last, next)) {
 
+            return new TimeImpl(next >> COUNT_BITS, next & COUNT_MASK);
          }
-
-         return new TimeImpl(currentClockMillis + adjustmentMillis, count);
       }
    }
 
@@ -197,6 +275,27 @@ public final class ClockImpl implements Clock {
    /**
     * {@inheritDoc}
     */
+   public long currentTimeMillis() {
+
+      return Math.max(readClock() + adjustmentMillis, lastReturnedTime.get() >> COUNT_BITS);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public long coarseTimeMillis() {
+
+      final long result = coarseTimeMillis;
+      return result == NOT_SET ? currentTimeMillis() : result;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * A time that is not ahead of the last returned time is ignored without locking.
+    */
    public void adjust(final Time time) {
 
       if (time == null) {
@@ -205,40 +304,72 @@ public final class ClockImpl implements Clock {
          return;
       }
 
+      final long packedTime = pack(time);
+      if (packedTime <= lastReturnedTime.get()) {
+
+         // The clock is already ahead
+         return;
+      }
+
       synchronized (lock) {
 
-         final Time currentTime = currentTime();
-         if (time.compareTo(currentTime) > 0) {
+         final long currentClockMillis = readClock() + adjustmentMillis;
+         if (time.getMillis() > currentClockMillis) {
+
+            adjustmentMillis += time.getMillis() - currentClockMillis;
+         }
 
-            adjustmentMillis = time.getMillis() - currentTime.getMillis();
+         // Make sure that the next reading is after the given time
+         advance(lastReturnedTime, packedTime);
+      }
+   }
+
+
+   /**
+    * Moves the value forward to the given value if it is behind it.
+    *
+    * @param value the value to advance.
+    * @param to    the value to advance to.
+    * @return the resulting value.
+    */
+   private static long advance(final AtomicLong value, final long to) {
 
-            if (adjustmentMillis == 0) {
+      while (true) {
 
-               count = time.getCount() + 1;
-            } else {
+         final long current = value.get();
+         if (current >= to) {
 
-               count = time.getCount();
-            }
+            return current;
+         }
+
+         if (value.compareAndSet(current, to)) {
+
+            return to;
          }
       }
    }
 
 
-   public String toString() {
+   private static long pack(final Time time) {
 
-      synchronized (lock) {
+      return (time.getMillis() << COUNT_BITS) | Math.min(time.getCount(), COUNT_MASK);
+   }
 
-         return "Clock{" +
-                 "lastClockReadingMillis=" + lastClockReadingMillis +
-                 ", count=" + count +
-                 ", offsetMillis=" + offsetMillis +
-                 ", adjustmentMillis=" + adjustmentMillis +
-                 ", minimalInterProcessDelayNanos=" + minimalInterProcessDelayNanos +
-                 ", jumpDetectionPeriodMillis=" + jumpDetectionPeriodMillis +
-                 ", maxDiscontinuityMillis=" + maxDiscontinuityMillis +
-                 ", lastReturnedClockMillis=" + lastReturnedClockMillis +
-                 ", wallClock=" + wallClock +
-                 '}';
-      }
+
+   public String toString() {
+
+      final long lastReturned = lastReturnedTime.get();
+      return "Clock{" +
+              "lastClockReadingMillis=" + lastClockReadingMillis.get() +
+              ", count=" + (lastReturned & COUNT_MASK) +
+              ", offsetMillis=" + offsetMillis +
+              ", adjustmentMillis=" + adjustmentMillis +
+              ", minimalInterProcessDelayNanos=" + minimalInterProcessDelayNanos +
+              ", jumpDetectionPeriodMillis=" + jumpDetectionPeriodMillis +
+              ", maxDiscontinuityMillis=" + maxDiscontinuityMillis +
+              ", lastReturnedClockMillis=" + (lastReturned >> COUNT_BITS) +
+              ", coarseTimeMillis=" + coarseTimeMillis +
+              ", wallClock=" + wallClock +
+              '}';
    }
 }
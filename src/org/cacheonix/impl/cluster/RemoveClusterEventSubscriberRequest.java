@@ -13,8 +13,6 @@
  */
 package org.cacheonix.impl.cluster;
 
-import java.util.concurrent.Executor;
-
 import org.cacheonix.cluster.ClusterConfiguration;
 import org.cacheonix.cluster.ClusterEventSubscriber;
 import org.cacheonix.cluster.ClusterEventSubscriptionEndedEvent;
@@ -25,6 +23,7 @@ import org.cacheonix.impl.net.cluster.LocalClusterRequest;
 import org.cacheonix.impl.net.processor.Response;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
+import org.cacheonix.impl.util.thread.OrderedEventExecutor;
 
 /**
  * A request to add a cluster event subscriber.
@@ -124,8 +123,8 @@ public final class RemoveClusterEventSubscriberRequest extends LocalClusterReque
       final ClusterEventSubscriptionEndedEvent subscriptionEndedEvent = new ClusterEventSubscriptionEndedEventImpl(clusterConfiguration);
 
       // Notify the subscriber that the subscription started
-      final Executor executor = processorState.getUserEventExecutor();
-      executor.execute(new Runnable() {
+      final OrderedEventExecutor executor = processorState.getUserEventExecutor();
+      executor.execute(clusterEventSubscriber, new Runnable() {
 
          public void run() {
 
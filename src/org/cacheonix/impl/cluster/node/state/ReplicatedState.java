@@ -9,7 +9,7 @@ import org.cacheonix.impl.cluster.node.state.group.Group;
 import org.cacheonix.impl.cluster.node.state.group.GroupEventSubscriber;
 import org.cacheonix.impl.cluster.node.state.group.GroupEventSubscriberList;
 import org.cacheonix.impl.cluster.node.state.group.GroupKey;
-import org.cacheonix.impl.lock.LockRegistry;
+import org.cacheonix.impl.lock.LockPartitionAssignment;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.serializer.Wireable;
 
@@ -93,9 +93,17 @@ public interface ReplicatedState extends Wireable {
    Collection<Group> getGroups();
 
    /**
-    * Returns a lock registry managed by this replicated state.
+    * Notifies the replicated state that a node joined the cluster.
     *
-    * @return a lock registry managed by this replicated state.
+    * @param joined the address of the node that joined the cluster.
     */
-   LockRegistry getLockRegistry();
+   void notifyClusterNodeJoined(ClusterNodeAddress joined);
+
+   /**
+    * Returns an assignment of lock partitions to cluster members. The lock queues are kept by the owners of the
+    * partitions and are not a part of the replicated state.
+    *
+    * @return the assignment of lock partitions to cluster members.
+    */
+   LockPartitionAssignment getLockPartitionAssignment();
 }
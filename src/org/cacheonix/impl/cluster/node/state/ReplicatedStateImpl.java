@@ -28,8 +28,7 @@ import org.cacheonix.impl.cluster.node.state.group.Group;
 import org.cacheonix.impl.cluster.node.state.group.GroupEventSubscriber;
 import org.cacheonix.impl.cluster.node.state.group.GroupEventSubscriberList;
 import org.cacheonix.impl.cluster.node.state.group.GroupKey;
-import org.cacheonix.impl.lock.LockRegistry;
-import org.cacheonix.impl.lock.LockRegistryImpl;
+import org.cacheonix.impl.lock.LockPartitionAssignment;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.net.serializer.SerializerFactory;
@@ -66,9 +65,9 @@ public final class ReplicatedStateImpl implements ReplicatedState {
    private Map<GroupKey, Group> groupMap = new ConcurrentHashMap<GroupKey, Group>(5);
 
    /**
-    * A replicated state responsible for maintaining lock state information.
+    * An assignment of lock partitions to cluster members.
     */
-   private LockRegistry lockRegistry = new LockRegistryImpl();
+   private volatile LockPartitionAssignment lockPartitionAssignment = new LockPartitionAssignment();
 
    /**
     *
@@ -105,8 +104,8 @@ public final class ReplicatedStateImpl implements ReplicatedState {
          }
       }
 
-      // Set lock registry
-      this.lockRegistry = newState.getLockRegistry();
+      // Set lock partition assignment
+      this.lockPartitionAssignment = newState.getLockPartitionAssignment();
    }
 
 
@@ -148,9 +147,10 @@ public final class ReplicatedStateImpl implements ReplicatedState {
          registerGroup(group.getGroupType(), group.getName(), group);
       }
 
-      //
-      lockRegistry = new LockRegistryImpl();
-      lockRegistry.readWire(in);
+      // Read lock partition assignment
+      final LockPartitionAssignment assignment = new LockPartitionAssignment();
+      assignment.readWire(in);
+      lockPartitionAssignment = assignment;
    }
 
 
@@ -163,8 +163,8 @@ public final class ReplicatedStateImpl implements ReplicatedState {
          entry.getValue().writeWire(out);
       }
 
-      // Write lock registry
-      lockRegistry.writeWire(out);
+      // Write lock partition assignment
+      lockPartitionAssignment.writeWire(out);
    }
 
 
@@ -230,6 +230,14 @@ public final class ReplicatedStateImpl implements ReplicatedState {
 
          groupKeyGroupEntry.getValue().removeMembers(nodesLeft);
       }
+
+      lockPartitionAssignment = lockPartitionAssignment.removeMembers(nodesLeft);
+   }
+
+
+   public void notifyClusterNodeJoined(final ClusterNodeAddress joined) {
+
+      lockPartitionAssignment = lockPartitionAssignment.addMember(joined);
    }
 
 
@@ -285,9 +293,9 @@ public final class ReplicatedStateImpl implements ReplicatedState {
    }
 
 
-   public LockRegistry getLockRegistry() {
+   public LockPartitionAssignment getLockPartitionAssignment() {
 
-      return lockRegistry;
+      return lockPartitionAssignment;
    }
 
 
@@ -295,7 +303,7 @@ public final class ReplicatedStateImpl implements ReplicatedState {
 
       return "ReplicatedState{" +
               "groupMap=" + groupMap +
-              ", lockRegistry=" + lockRegistry +
+              ", lockPartitionAssignment=" + lockPartitionAssignment +
               '}';
    }
 
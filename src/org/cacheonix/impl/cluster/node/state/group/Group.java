@@ -18,6 +18,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -141,6 +142,12 @@ public final class Group implements Wireable {
     */
    private final IntObjectHashMap<HashMap<Binary, HashSet<EntryModifiedSubscription>>> entryModifiedSubscriptions = new IntObjectHashMap<HashMap<Binary, HashSet<EntryModifiedSubscription>>>();
 
+   /**
+    * Cache-wide modification subscriptions. The list is replaced on modification so that cache processors can read it
+    * without synchronization.
+    */
+   private volatile List<EntryModifiedSubscription> cacheEntryModifiedSubscriptions = new ArrayList<EntryModifiedSubscription>(0);
+
 
    public Group(final String name, final int groupType) {
 
@@ -217,6 +224,85 @@ public final class Group implements Wireable {
    }
 
 
+   /**
+    * Returns replicated cache-wide modification subscriptions.
+    *
+    * @return the unmodifiable list of replicated cache-wide modification subscriptions.
+    */
+   public List<EntryModifiedSubscription> getCacheEntryModifiedSubscriptions() {
+
+      return Collections.unmodifiableList(cacheEntryModifiedSubscriptions);
+   }
+
+
+   /**
+    * Adds a cache-wide modification subscription.
+    *
+    * @param subscription the subscription to add.
+    */
+   public void addCacheEntryModifiedSubscription(final EntryModifiedSubscription subscription) {
+
+      for (final EntryModifiedSubscription existingSubscription : cacheEntryModifiedSubscriptions) {
+
+         if (isSameSubscriber(existingSubscription, subscription.getSubscriberAddress(),
+                 subscription.getSubscriberIdentity())) {
+
+            LOG.warn("Duplicate subscription: " + subscription);
+            return;
+         }
+      }
+
+      final List<EntryModifiedSubscription> newSubscriptions = new ArrayList<EntryModifiedSubscription>(
+              cacheEntryModifiedSubscriptions.size() + 1);
+      newSubscriptions.addAll(cacheEntryModifiedSubscriptions);
+      newSubscriptions.add(subscription);
+      cacheEntryModifiedSubscriptions = newSubscriptions;
+
+      // Notify subscriber
+      if (entryEventSubscriptionConfigurationSubscriber != null) {
+
+         entryEventSubscriptionConfigurationSubscriber.notifyCacheSubscriptionAdded(subscription);
+      }
+   }
+
+
+   /**
+    * Removes a cache-wide modification subscription.
+    *
+    * @param subscriberAddress  the address of the subscriber to un-subscribe.
+    * @param subscriberIdentity the identity of the subscriber to un-subscribe.
+    */
+   public void removeCacheEntryModifiedSubscription(final ClusterNodeAddress subscriberAddress,
+                                                    final int subscriberIdentity) {
+
+      final List<EntryModifiedSubscription> newSubscriptions = new ArrayList<EntryModifiedSubscription>(
+              cacheEntryModifiedSubscriptions.size());
+      for (final EntryModifiedSubscription subscription : cacheEntryModifiedSubscriptions) {
+
+         if (isSameSubscriber(subscription, subscriberAddress, subscriberIdentity)) {
+
+            // Notify subscriber
+            if (entryEventSubscriptionConfigurationSubscriber != null) {
+
+               entryEventSubscriptionConfigurationSubscriber.notifyCacheSubscriptionRemoved(subscription);
+            }
+         } else {
+
+            newSubscriptions.add(subscription);
+         }
+      }
+      cacheEntryModifiedSubscriptions = newSubscriptions;
+   }
+
+
+   private static boolean isSameSubscriber(final EntryModifiedSubscription subscription,
+                                           final ClusterNodeAddress subscriberAddress, final int subscriberIdentity) {
+
+      return subscription.getSubscriberIdentity() == subscriberIdentity
+              && subscription.getSubscriberAddress().equals(subscriberAddress);
+   }
+
+
    /**
     * Adds member to the group.
     *
@@ -338,6 +424,16 @@ public final class Group implements Wireable {
          });
 
 
+         // Remove cache-wide entry modified subscriptions
+         for (final EntryModifiedSubscription subscription : cacheEntryModifiedSubscriptions) {
+
+            if (subscription.getSubscriberAddress().equals(leftAddress)) {
+
+               removeCacheEntryModifiedSubscription(leftAddress, subscription.getSubscriberIdentity());
+            }
+         }
+
+
          // Add to the partition contributors left
          if (foundMember.isPartitionContributor()) {
 
@@ -491,8 +587,11 @@ public final class Group implements Wireable {
    }
 
 
-   public void configurePartition(final int replicaCount, final long partitionSizeBytes, final long maxElements) {
+   public void configurePartition(final int bucketCount, final int replicaCount, final long partitionSizeBytes,
+           final long maxElements) {
 
+      Assert.assertTrue(bucketCount > 0 && bucketCount <= ConfigurationConstants.MAX_BUCKET_COUNT,
+              "Bucket count should be a positive integer not greater than {0}", ConfigurationConstants.MAX_BUCKET_COUNT);
       Assert.assertTrue(replicaCount >= 0, "Replica count should be a greater or equal zero integer");
       Assert.assertTrue(partitionSizeBytes > 0L, "Partition size should be a positive long");
       Assert.assertTrue(!this.partitionConfigured, "Partition should not be configured");
@@ -500,7 +599,7 @@ public final class Group implements Wireable {
       Assert.assertTrue(this.partitionSizeBytes == 0L, "Partition size should not be initialized");
 
       // Init assignment
-      this.bucketOwnershipAssignment = new BucketOwnershipAssignment(name, ConfigurationConstants.BUCKET_COUNT, replicaCount);
+      this.bucketOwnershipAssignment = new BucketOwnershipAssignment(name, bucketCount, replicaCount);
       this.replicaCount = replicaCount;
       this.partitionSizeBytes = partitionSizeBytes;
       this.maxElements = maxElements;
@@ -614,10 +713,16 @@ public final class Group implements Wireable {
       out.writeLong(partitionSizeBytes);
       out.writeLong(maxElements);
       bucketOwnershipAssignment.writeWire(out);
+
+      final List<EntryModifiedSubscription> subscriptions = cacheEntryModifiedSubscriptions;
+      out.writeInt(subscriptions.size());
+      for (final EntryModifiedSubscription subscription : subscriptions) {
+         subscription.writeWire(out);
+      }
    }
 
 
-   public void readWire(final DataInputStream in) throws IOException {
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
 
       version = in.readLong();
       groupType = in.readInt();
@@ -636,6 +741,15 @@ public final class Group implements Wireable {
       maxElements = in.readLong();
       bucketOwnershipAssignment = new BucketOwnershipAssignment();
       bucketOwnershipAssignment.readWire(in);
+
+      final int subscriptionsSize = in.readInt();
+      final List<EntryModifiedSubscription> subscriptions = new ArrayList<EntryModifiedSubscription>(subscriptionsSize);
+      for (int i = 0; i < subscriptionsSize; i++) {
+         final EntryModifiedSubscription subscription = new EntryModifiedSubscription();
+         subscription.readWire(in);
+         subscriptions.add(subscription);
+      }
+      cacheEntryModifiedSubscriptions = subscriptions;
    }
 
 
@@ -57,6 +57,11 @@ public final class JoinGroupMessage extends GroupMessage {
 
    private int replicaCount = -1;
 
+   /**
+    * Desired number of buckets.
+    */
+   private int bucketCount = -1;
+
    /**
     * A max number of elements in memory.
     */
@@ -124,6 +129,17 @@ public final class JoinGroupMessage extends GroupMessage {
    }
 
 
+   /**
+    * Sets desired bucket count.
+    *
+    * @param bucketCount desired bucket count to set.
+    */
+   public void setBucketCount(final int bucketCount) {
+
+      this.bucketCount = bucketCount;
+   }
+
+
    public long getHeapSizeBytes() {
 
       return heapSizeBytes;
@@ -154,6 +170,12 @@ public final class JoinGroupMessage extends GroupMessage {
    }
 
 
+   public int getBucketCount() {
+
+      return bucketCount;
+   }
+
+
    public void execute() {
 
       final ReplicatedState replicatedState = getReplicatedState();
@@ -170,7 +192,7 @@ public final class JoinGroupMessage extends GroupMessage {
          group = new Group(groupName, groupType);
          if (partitionContributor) {
 
-            group.configurePartition(replicaCount, partitionSize, maxElements);
+            group.configurePartition(bucketCount, replicaCount, partitionSize, maxElements);
          }
 
          // Register group
@@ -185,7 +207,7 @@ public final class JoinGroupMessage extends GroupMessage {
             // Set partition size if necessary
             if (!group.isPartitionConfigured()) {
 
-               group.configurePartition(replicaCount, partitionSize, maxElements);
+               group.configurePartition(bucketCount, replicaCount, partitionSize, maxElements);
             }
 
             // Check if our heap is big enough.
@@ -216,6 +238,7 @@ public final class JoinGroupMessage extends GroupMessage {
       heapSizeBytes = in.readLong();
       maxElements = in.readLong();
       replicaCount = in.readInt();
+      bucketCount = in.readInt();
       cacheConfigName = SerializerUtils.readString(in);
    }
 
@@ -228,6 +251,7 @@ public final class JoinGroupMessage extends GroupMessage {
       out.writeLong(heapSizeBytes);
       out.writeLong(maxElements);
       out.writeInt(replicaCount);
+      out.writeInt(bucketCount);
       SerializerUtils.writeString(cacheConfigName, out);
    }
 
@@ -261,6 +285,9 @@ public final class JoinGroupMessage extends GroupMessage {
       if (replicaCount != that.replicaCount) {
          return false;
       }
+      if (bucketCount != that.bucketCount) {
+         return false;
+      }
       if (cacheConfigName != null ? !cacheConfigName.equals(that.cacheConfigName) : that.cacheConfigName != null) {
          return false;
       }
@@ -277,6 +304,7 @@ public final class JoinGroupMessage extends GroupMessage {
       result = 31 * result + (partitionContributor ? 1 : 0);
       result = 31 * result + (cacheConfigName != null ? cacheConfigName.hashCode() : 0);
       result = 31 * result + replicaCount;
+      result = 31 * result + bucketCount;
       result = 31 * result + (int) maxElements;
       return result;
    }
@@ -291,6 +319,7 @@ public final class JoinGroupMessage extends GroupMessage {
               ", partitionContributor=" + partitionContributor +
               ", cacheConfigName='" + cacheConfigName + '\'' +
               ", replicaCount=" + replicaCount +
+              ", bucketCount=" + bucketCount +
               ", maxSize=" + maxElements +
               "} " + super.toString();
    }
@@ -24,6 +24,8 @@ import org.w3c.dom.Node;
  */
 public final class BroadcastConfiguration extends DocumentReader {
 
+   private static final int DEFAULT_KNOWN_ADDRESS_FAN_OUT = 4;
+
 
    /**
     * Field multicast.
@@ -35,6 +37,12 @@ public final class BroadcastConfiguration extends DocumentReader {
     */
    private List<KnownAddressBroadcastConfiguration> knownAddresses = null;
 
+   /**
+    * Maximum number of cluster members a node forwards a multicast frame to when broadcasting to known addresses. Zero
+    * means that the originator of a frame sends it to every known address directly.
+    */
+   private int knownAddressFanOut = DEFAULT_KNOWN_ADDRESS_FAN_OUT;
+
 
    /**
     * Returns the value of field 'knownAddress'.
@@ -47,6 +55,31 @@ public final class BroadcastConfiguration extends DocumentReader {
    }
 
 
+   /**
+    * Returns the maximum number of cluster members a node forwards a multicast frame to when broadcasting to known
+    * addresses. Zero means that the originator of a frame sends it to every known address directly.
+    *
+    * @return the maximum number of cluster members a node forwards a multicast frame to.
+    */
+   public int getKnownAddressFanOut() {
+
+      return knownAddressFanOut;
+   }
+
+
+   /**
+    * Sets the maximum number of cluster members a node forwards a multicast frame to when broadcasting to known
+    * addresses.
+    *
+    * @param knownAddressFanOut the maximum number of cluster members a node forwards a multicast frame to. Zero means
+    *                           that the originator of a frame sends it to every known address directly.
+    */
+   public void setKnownAddressFanOut(final int knownAddressFanOut) {
+
+      this.knownAddressFanOut = knownAddressFanOut;
+   }
+
+
    /**
     * Returns the value of field 'multicast'.
     *
@@ -81,7 +114,10 @@ public final class BroadcastConfiguration extends DocumentReader {
 
    protected void readAttribute(final String attributeName, final Attr attributeNode, final String attributeValue) {
 
-      // This element doesn't have attributes yet
+      if ("knownAddressFanOut".equals(attributeName)) {
+
+         knownAddressFanOut = Integer.parseInt(attributeValue);
+      }
    }
 
 
@@ -96,6 +132,7 @@ public final class BroadcastConfiguration extends DocumentReader {
       return "BroadcastConfiguration{" +
               "multicast=" + multicast +
               ", knownAddresses=" + knownAddresses +
+              ", knownAddressFanOut=" + knownAddressFanOut +
               "} ";
    }
 }
@@ -17,6 +17,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.cacheonix.impl.net.cluster.PhiAccrualFailureDetector;
+import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.util.StringUtils;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Node;
@@ -36,6 +38,12 @@ public final class ClusterConfiguration extends DocumentReader {
 
    private static final int DEFAULT_MINIMUM_NODE_COUNT = 1;
 
+   private static final int DEFAULT_MAXIMUM_MULTICAST_PACKET_SIZE = Frame.MAXIMUM_MULTICAST_PACKET_SIZE;
+
+   private static final double DEFAULT_FAILURE_DETECTOR_THRESHOLD = PhiAccrualFailureDetector.DEFAULT_THRESHOLD;
+
+   private static final long DEFAULT_FAILURE_DETECTOR_ACCEPTABLE_PAUSE_MILLIS = PhiAccrualFailureDetector.DEFAULT_ACCEPTABLE_PAUSE_MILLIS;
+
    /**
     * The cluster name limits cluster membership and communication only to the cluster having this name. The default is
     * "Cacheonix".
@@ -78,6 +86,26 @@ public final class ClusterConfiguration extends DocumentReader {
     */
    private long minimumNodeCount = DEFAULT_MINIMUM_NODE_COUNT;
 
+   /**
+    * Maximum size of a multicast datagram in bytes. Messages larger than this are split into multiple datagrams. All
+    * nodes of the cluster must use the same value. The default is 1468 bytes, which fits a standard Ethernet frame.
+    */
+   private int maximumMulticastPacketSize = DEFAULT_MAXIMUM_MULTICAST_PACKET_SIZE;
+
+   /**
+    * Suspicion level at that the adaptive failure detector considers the previous node on the ring failed. The
+    * detector is fed by heartbeats that each node sends to the next node on the ring every 500 milliseconds
+    * independently of the marker, so a member that holds the marker does not look failed. Zero disables the adaptive
+    * failure detector so that failures are detected by the marker timeout only. The default is 8.
+    */
+   private double failureDetectorThreshold = DEFAULT_FAILURE_DETECTOR_THRESHOLD;
+
+   /**
+    * Pause in heartbeat arrivals that the adaptive failure detector tolerates in addition to the observed mean time
+    * between heartbeats. The default is 1 second.
+    */
+   private long failureDetectorAcceptablePauseMillis = DEFAULT_FAILURE_DETECTOR_ACCEPTABLE_PAUSE_MILLIS;
+
    /**
     * Field propertyList.
     */
@@ -202,6 +230,91 @@ public final class ClusterConfiguration extends DocumentReader {
    }
 
 
+   /**
+    * Returns the maximum size of a multicast datagram in bytes. Messages larger than this are split into multiple
+    * datagrams. All nodes of the cluster must use the same value. The default is 1468 bytes.
+    *
+    * @return the maximum size of a multicast datagram in bytes.
+    */
+   public int getMaximumMulticastPacketSize() {
+
+      return maximumMulticastPacketSize;
+   }
+
+
+   /**
+    * Sets the maximum size of a multicast datagram in bytes.
+    *
+    * @param maximumMulticastPacketSize the maximum size of a multicast datagram in bytes.
+    * @throws IllegalArgumentException if the size is outside of the supported range.
+    */
+   public void setMaximumMulticastPacketSize(final int maximumMulticastPacketSize) throws IllegalArgumentException {
+
+      if (maximumMulticastPacketSize < Frame.MINIMUM_CONFIGURABLE_MULTICAST_PACKET_SIZE
+              || maximumMulticastPacketSize > Frame.MAXIMUM_CONFIGURABLE_MULTICAST_PACKET_SIZE) {
+
+         throw new IllegalArgumentException("Maximum multicast packet size should be between "
+                 + Frame.MINIMUM_CONFIGURABLE_MULTICAST_PACKET_SIZE + " and "
+                 + Frame.MAXIMUM_CONFIGURABLE_MULTICAST_PACKET_SIZE + " but it was " + maximumMulticastPacketSize);
+      }
+
+      this.maximumMulticastPacketSize = maximumMulticastPacketSize;
+   }
+
+
+   /**
+    * Returns the suspicion level at that the adaptive failure detector considers the previous node on the ring failed.
+    * Zero means that the adaptive failure detector is disabled. The default is 8.
+    *
+    * @return the suspicion level at that the adaptive failure detector considers the predecessor failed.
+    */
+   public double getFailureDetectorThreshold() {
+
+      return failureDetectorThreshold;
+   }
+
+
+   /**
+    * Sets the suspicion level at that the adaptive failure detector considers the previous node on the ring failed.
+    *
+    * @param failureDetectorThreshold the suspicion level. Zero disables the adaptive failure detector.
+    * @throws IllegalArgumentException if the threshold is negative.
+    */
+   public void setFailureDetectorThreshold(final double failureDetectorThreshold) throws IllegalArgumentException {
+
+      if (failureDetectorThreshold < 0.0) {
+
+         throw new IllegalArgumentException("Failure detector threshold cannot be negative: " + failureDetectorThreshold);
+      }
+
+      this.failureDetectorThreshold = failureDetectorThreshold;
+   }
+
+
+   /**
+    * Returns the pause in heartbeat arrivals that the adaptive failure detector tolerates in addition to the observed
+    * mean time between heartbeats. The default is 1 second.
+    *
+    * @return the acceptable pause in milliseconds.
+    */
+   public long getFailureDetectorAcceptablePauseMillis() {
+
+      return failureDetectorAcceptablePauseMillis;
+   }
+
+
+   /**
+    * Sets the pause in heartbeat arrivals that the adaptive failure detector tolerates in addition to the observed
+    * mean time between heartbeats.
+    *
+    * @param failureDetectorAcceptablePauseMillis the acceptable pause in milliseconds.
+    */
+   public void setFailureDetectorAcceptablePauseMillis(final long failureDetectorAcceptablePauseMillis) {
+
+      this.failureDetectorAcceptablePauseMillis = failureDetectorAcceptablePauseMillis;
+   }
+
+
    /**
     * Returns the cluster name. The cluster name limits cluster membership and communication only to the cluster having
     * this name. The default is "Cacheonix".
@@ -424,6 +537,15 @@ public final class ClusterConfiguration extends DocumentReader {
       } else if ("minimumNodeCount".equals(attributeName)) {
 
          minimumNodeCount = Integer.parseInt(attributeValue);
+      } else if ("maximumMulticastPacketSize".equals(attributeName)) {
+
+         setMaximumMulticastPacketSize(Integer.parseInt(attributeValue));
+      } else if ("failureDetectorThreshold".equals(attributeName)) {
+
+         setFailureDetectorThreshold(Double.parseDouble(attributeValue));
+      } else if ("failureDetectorAcceptablePause".equals(attributeName)) {
+
+         failureDetectorAcceptablePauseMillis = StringUtils.readTime(attributeValue);
       }
    }
 
@@ -445,6 +567,9 @@ public final class ClusterConfiguration extends DocumentReader {
       homeAloneTimeoutMillis = DEFAULT_HOME_ALONE_TIMEOUT_MILLS;
       worstCaseLatencyMillis = DEFAULT_WORST_CASE_LATENCY_MILLS;
       minimumNodeCount = DEFAULT_MINIMUM_NODE_COUNT;
+      maximumMulticastPacketSize = DEFAULT_MAXIMUM_MULTICAST_PACKET_SIZE;
+      failureDetectorThreshold = DEFAULT_FAILURE_DETECTOR_THRESHOLD;
+      failureDetectorAcceptablePauseMillis = DEFAULT_FAILURE_DETECTOR_ACCEPTABLE_PAUSE_MILLIS;
 
       // Apply overrides if any
       applyCommandLineOverwriteToClusterAnnouncementTimeoutMillis();
@@ -492,6 +617,9 @@ public final class ClusterConfiguration extends DocumentReader {
               ", clusterSurveyTimeoutMillis=" + clusterSurveyTimeoutMillis +
               ", worstCaseLatencyMillis=" + worstCaseLatencyMillis +
               ", minimumNodeCount=" + minimumNodeCount +
+              ", maximumMulticastPacketSize=" + maximumMulticastPacketSize +
+              ", failureDetectorThreshold=" + failureDetectorThreshold +
+              ", failureDetectorAcceptablePauseMillis=" + failureDetectorAcceptablePauseMillis +
               ", propertyList=" + propertyList +
               "} ";
    }
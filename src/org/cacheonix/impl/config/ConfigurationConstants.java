@@ -61,12 +61,26 @@ public final class ConfigurationConstants {
    public static final long DEFAULT_LEASE_TIME_MILLIS = StringUtils.readTime("5ms");
 
    /**
-    * Bucket count, should be the same for all nodes in the cluster.
+    * Default bucket count. A partitioned cache uses this bucket count if its configuration does not set one. The
+    * bucket count is set by the first partition contributor and it is the same for all nodes in the cluster.
     * <p/>
     * <b>DO NOT CHANGE THIS CONSTANT!</b>
     */
    public static final int BUCKET_COUNT = 2053;
 
+   /**
+    * Max bucket count. Bucket numbers are sent over the wire as shorts.
+    */
+   public static final int MAX_BUCKET_COUNT = Short.MAX_VALUE;
+
+   /**
+    * Lock partition count. Lock queues are partitioned by their keys onto cluster members. All nodes in the cluster
+    * must use the same lock partition count.
+    * <p/>
+    * <b>DO NOT CHANGE THIS CONSTANT!</b>
+    */
+   public static final int LOCK_PARTITION_COUNT = 271;
+
    /**
     * Extension for the storage files used in Cacheonix.
     */
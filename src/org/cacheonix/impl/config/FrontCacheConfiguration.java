@@ -13,6 +13,7 @@
  */
 package org.cacheonix.impl.config;
 
+import org.cacheonix.impl.util.StringUtils;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Node;
 
@@ -21,11 +22,27 @@ import org.w3c.dom.Node;
  */
 public final class FrontCacheConfiguration extends DocumentReader {
 
+   /**
+    * Default value of {@link #refreshAheadReads}.
+    */
+   public static final int DEFAULT_REFRESH_AHEAD_READS = 2;
+
    /**
     * Field store.
     */
    private CacheStoreConfiguration store = null;
 
+   /**
+    * A time before the expiration of a front cache element when a read of the element starts refreshing it from the
+    * key owner. Zero disables refresh-ahead.
+    */
+   private long refreshAheadTimeMillis = 0L;
+
+   /**
+    * A number of reads of a front cache element that makes the element eligible for refresh-ahead.
+    */
+   private int refreshAheadReads = DEFAULT_REFRESH_AHEAD_READS;
+
 
    /**
     * Returns the value of field 'store'.
@@ -38,6 +55,29 @@ public final class FrontCacheConfiguration extends DocumentReader {
    }
 
 
+   /**
+    * Returns a time before the expiration of a front cache element when a read of the element starts refreshing it from
+    * the key owner.
+    *
+    * @return the refresh-ahead time in milliseconds. Zero means that refresh-ahead is disabled.
+    */
+   public long getRefreshAheadTimeMillis() {
+
+      return refreshAheadTimeMillis;
+   }
+
+
+   /**
+    * Returns a number of reads of a front cache element that makes the element eligible for refresh-ahead.
+    *
+    * @return the number of reads of a front cache element that makes the element eligible for refresh-ahead.
+    */
+   public int getRefreshAheadReads() {
+
+      return refreshAheadReads;
+   }
+
+
    protected void readNode(final String nodeName, final Node childNode) {
 
       if ("store".equals(nodeName)) {
@@ -50,7 +90,13 @@ public final class FrontCacheConfiguration extends DocumentReader {
 
    protected void readAttribute(final String attributeName, final Attr attributeNode, final String attributeValue) {
 
-      // This element doesn't have attributes yet
+      if ("refreshAheadTime".equals(attributeName)) {
+
+         refreshAheadTimeMillis = StringUtils.readTime(attributeValue);
+      } else if ("refreshAheadReads".equals(attributeName)) {
+
+         refreshAheadReads = Integer.parseInt(attributeValue);
+      }
    }
 
 
@@ -64,6 +110,8 @@ public final class FrontCacheConfiguration extends DocumentReader {
 
       return "FrontCacheConfiguration{" +
               "store=" + store +
+              ", refreshAheadTimeMillis=" + refreshAheadTimeMillis +
+              ", refreshAheadReads=" + refreshAheadReads +
               '}';
    }
 }
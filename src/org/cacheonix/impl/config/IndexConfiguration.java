@@ -0,0 +1,70 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.config;
+
+import org.cacheonix.cache.entry.AttributeExtractor;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Node;
+
+/**
+ * A configuration of a secondary index of a partitioned cache.
+ *
+ * @see AttributeExtractor
+ */
+public final class IndexConfiguration extends DocumentReader {
+
+   /**
+    * A name of the attribute extractor class.
+    */
+   private String className = null;
+
+
+   /**
+    * Returns the name of the attribute extractor class.
+    *
+    * @return the name of the attribute extractor class.
+    */
+   public String getClassName() {
+
+      return className;
+   }
+
+
+   protected void readNode(final String nodeName, final Node childNode) {
+
+   }
+
+
+   protected void readAttribute(final String attributeName, final Attr attributeNode, final String attributeValue) {
+
+      if ("className".equals(attributeName)) {
+
+         className = attributeValue;
+      }
+   }
+
+
+   @Override
+   void postProcessRead() {
+
+   }
+
+
+   public String toString() {
+
+      return "IndexConfiguration{" +
+              "className='" + className + '\'' +
+              '}';
+   }
+}
@@ -13,6 +13,11 @@
  */
 package org.cacheonix.impl.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cacheonix.impl.util.StringUtils;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Node;
 
 /**
@@ -21,6 +26,44 @@ import org.w3c.dom.Node;
 @SuppressWarnings("WeakerAccess")
 public final class PartitionedCacheStoreConfiguration extends CacheStoreConfiguration {
 
+   /**
+    * Default value of {@link #eventBatchSize}.
+    */
+   public static final int DEFAULT_EVENT_BATCH_SIZE = 1000;
+
+   /**
+    * Number of buckets the cache keys are distributed between. The first partition contributor sets the bucket count
+    * for the whole cluster.
+    */
+   private int bucketCount = ConfigurationConstants.BUCKET_COUNT;
+
+   /**
+    * A read rate per second that makes a key hot. Values of hot keys are pushed to front caches of all cache members.
+    * Zero disables hot key detection.
+    */
+   private int hotKeyThreshold = 0;
+
+   /**
+    * A time a primary bucket owner accumulates entry modification events for a subscriber that requested batch
+    * notifications. Zero disables accumulation.
+    */
+   private long eventBatchWindowMillis = 0L;
+
+   /**
+    * A max number of accumulated entry modification events sent to a subscriber in a single message.
+    */
+   private int eventBatchSize = DEFAULT_EVENT_BATCH_SIZE;
+
+   /**
+    * If true, a newer accumulated entry modification event for a key replaces the older one.
+    */
+   private boolean eventCoalescing = false;
+
+   /**
+    * Secondary indexes.
+    */
+   private final List<IndexConfiguration> indexes = new ArrayList<IndexConfiguration>(1);
+
    /**
     * Field replication.
     */
@@ -59,6 +102,74 @@ public final class PartitionedCacheStoreConfiguration extends CacheStoreConfigur
    }
 
 
+   /**
+    * Returns the number of buckets the cache keys are distributed between.
+    *
+    * @return the number of buckets the cache keys are distributed between.
+    */
+   public int getBucketCount() {
+
+      return bucketCount;
+   }
+
+
+   /**
+    * Returns the read rate per second that makes a key hot.
+    *
+    * @return the read rate per second that makes a key hot. Zero means that hot key detection is disabled.
+    */
+   public int getHotKeyThreshold() {
+
+      return hotKeyThreshold;
+   }
+
+
+   /**
+    * Returns the time a primary bucket owner accumulates entry modification events for a subscriber that requested
+    * batch notifications.
+    *
+    * @return the time a primary bucket owner accumulates entry modification events. Zero means that accumulation is
+    *         disabled.
+    */
+   public long getEventBatchWindowMillis() {
+
+      return eventBatchWindowMillis;
+   }
+
+
+   /**
+    * Returns the max number of accumulated entry modification events sent to a subscriber in a single message.
+    *
+    * @return the max number of accumulated entry modification events sent to a subscriber in a single message.
+    */
+   public int getEventBatchSize() {
+
+      return eventBatchSize;
+   }
+
+
+   /**
+    * Returns <code>true</code> if a newer accumulated entry modification event for a key replaces the older one.
+    *
+    * @return <code>true</code> if a newer accumulated entry modification event for a key replaces the older one.
+    */
+   public boolean isEventCoalescing() {
+
+      return eventCoalescing;
+   }
+
+
+   /**
+    * Returns a copy of the list of secondary index configurations.
+    *
+    * @return a copy of the list of secondary index configurations.
+    */
+   public List<IndexConfiguration> getIndexes() {
+
+      return new ArrayList<IndexConfiguration>(indexes);
+   }
+
+
    /**
     * Returns the value of field 'coherence'.
     *
@@ -92,6 +203,11 @@ public final class PartitionedCacheStoreConfiguration extends CacheStoreConfigur
          coherence = new CoherenceConfiguration();
          coherence.setPartitionedCacheStoreConfiguration(this);
          coherence.read(childNode);
+      } else if ("index".equals(nodeName)) {
+
+         final IndexConfiguration index = new IndexConfiguration();
+         index.read(childNode);
+         indexes.add(index);
       } else {
 
          super.readNode(nodeName, childNode);
@@ -99,6 +215,30 @@ public final class PartitionedCacheStoreConfiguration extends CacheStoreConfigur
    }
 
 
+   protected void readAttribute(final String attributeName, final Attr attributeNode, final String attributeValue) {
+
+      if ("bucketCount".equals(attributeName)) {
+
+         bucketCount = Integer.parseInt(attributeValue);
+      } else if ("hotKeyThreshold".equals(attributeName)) {
+
+         hotKeyThreshold = Integer.parseInt(attributeValue);
+      } else if ("eventBatchWindow".equals(attributeName)) {
+
+         eventBatchWindowMillis = StringUtils.readTime(attributeValue);
+      } else if ("eventBatchSize".equals(attributeName)) {
+
+         eventBatchSize = Integer.parseInt(attributeValue);
+      } else if ("eventCoalescing".equals(attributeName)) {
+
+         eventCoalescing = Boolean.parseBoolean(attributeValue);
+      } else {
+
+         super.readAttribute(attributeName, attributeNode, attributeValue);
+      }
+   }
+
+
    protected void postProcessRead() {
 
       super.postProcessRead();
@@ -136,7 +276,13 @@ public final class PartitionedCacheStoreConfiguration extends CacheStoreConfigur
    public String toString() {
 
       return "PartitionedCacheStoreConfiguration{" +
-              "replication=" + replication +
+              "bucketCount=" + bucketCount +
+              ", hotKeyThreshold=" + hotKeyThreshold +
+              ", eventBatchWindowMillis=" + eventBatchWindowMillis +
+              ", eventBatchSize=" + eventBatchSize +
+              ", eventCoalescing=" + eventCoalescing +
+              ", indexes=" + indexes +
+              ", replication=" + replication +
               ", coherence=" + coherence +
               "} " + super.toString();
    }
@@ -13,6 +13,7 @@
  */
 package org.cacheonix.impl.config;
 
+import org.cacheonix.impl.util.StringUtils;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Node;
 
@@ -21,11 +22,33 @@ import org.w3c.dom.Node;
  */
 public final class ReplicationConfiguration extends DocumentReader {
 
+   /**
+    * A value of <code>acknowledgedReplicaCount</code> meaning that all replicas must acknowledge a write.
+    */
+   public static final int ALL_REPLICAS = -1;
+
+   /**
+    * Default max replication lag.
+    */
+   public static final long DEFAULT_MAX_REPLICATION_LAG_MILLIS = StringUtils.readTime("1s");
+
    /**
     * A number of backup copies to be made for each element of this cache.
     */
    private int replicaCount = 0;
 
+   /**
+    * A number of replicas that must apply a write before the write is acknowledged to the client. The rest of the
+    * replicas are updated asynchronously.
+    */
+   private int acknowledgedReplicaCount = ALL_REPLICAS;
+
+   /**
+    * A max time the asynchronous replica updates may lag behind the primary owner before writes fall back to waiting
+    * for all replicas.
+    */
+   private long maxReplicationLagMillis = DEFAULT_MAX_REPLICATION_LAG_MILLIS;
+
 
    /**
     * Returns the number of backup copies to be made for each element of this cache.
@@ -38,6 +61,35 @@ public final class ReplicationConfiguration extends DocumentReader {
    }
 
 
+   /**
+    * Returns the number of replicas that must apply a write before the write is acknowledged to the client. Zero means
+    * that a write is acknowledged as soon as the primary owner applied it.
+    *
+    * @return the number of replicas that must apply a write before the write is acknowledged to the client, never
+    *         greater than the replica count.
+    */
+   public int getAcknowledgedReplicaCount() {
+
+      if (acknowledgedReplicaCount == ALL_REPLICAS || acknowledgedReplicaCount > replicaCount) {
+
+         return replicaCount;
+      }
+
+      return acknowledgedReplicaCount;
+   }
+
+
+   /**
+    * Returns the max time the asynchronous replica updates may lag behind the primary owner.
+    *
+    * @return the max time the asynchronous replica updates may lag behind the primary owner.
+    */
+   public long getMaxReplicationLagMillis() {
+
+      return maxReplicationLagMillis;
+   }
+
+
    protected void readNode(final String nodeName, final Node childNode) {
 
       // This element doesn't have child elements yet
@@ -49,6 +101,12 @@ public final class ReplicationConfiguration extends DocumentReader {
       if ("replicaCount".equals(attributeName)) {
 
          replicaCount = Integer.parseInt(attributeValue);
+      } else if ("acknowledgedReplicaCount".equals(attributeName)) {
+
+         acknowledgedReplicaCount = Integer.parseInt(attributeValue);
+      } else if ("maxReplicationLag".equals(attributeName)) {
+
+         maxReplicationLagMillis = StringUtils.readTime(attributeValue);
       }
    }
 
@@ -65,6 +123,8 @@ public final class ReplicationConfiguration extends DocumentReader {
    public void setUpDefaults() {
 
       replicaCount = 0;
+      acknowledgedReplicaCount = ALL_REPLICAS;
+      maxReplicationLagMillis = DEFAULT_MAX_REPLICATION_LAG_MILLIS;
    }
 
 
@@ -72,6 +132,8 @@ public final class ReplicationConfiguration extends DocumentReader {
 
       return "ReplicationConfiguration{" +
               "replicaCount=" + replicaCount +
+              ", acknowledgedReplicaCount=" + acknowledgedReplicaCount +
+              ", maxReplicationLagMillis=" + maxReplicationLagMillis +
               '}';
    }
 }
@@ -150,6 +150,18 @@ public final class ServerConfiguration extends DocumentReader {
 
    private boolean hasSocketTimeoutMillis = false;
 
+   /**
+    * If <code>true</code>, bulk transfers such as bucket transfers are sent through separate TCP connections so that
+    * they don't delay cluster control traffic.
+    */
+   private boolean separateBulkConnection = false;
+
+   /**
+    * If <code>true</code>, a write lock acquired by this node is kept by the node after it is unlocked and is re-granted
+    * locally until another node asks for it.
+    */
+   private boolean lockAffinity = false;
+
 
    @SuppressWarnings("WeakerAccess")
    public ServerConfiguration() {
@@ -281,6 +293,54 @@ public final class ServerConfiguration extends DocumentReader {
    }
 
 
+   /**
+    * Returns <code>true</code> if bulk transfers such as bucket transfers are sent through separate TCP connections so
+    * that they don't delay cluster control traffic.
+    *
+    * @return <code>true</code> if bulk transfers are sent through separate TCP connections.
+    */
+   public boolean isSeparateBulkConnection() {
+
+      return separateBulkConnection;
+   }
+
+
+   /**
+    * Sets the flag that bulk transfers such as bucket transfers are sent through separate TCP connections.
+    *
+    * @param separateBulkConnection <code>true</code> if bulk transfers should be sent through separate TCP
+    *                               connections.
+    */
+   public void setSeparateBulkConnection(final boolean separateBulkConnection) {
+
+      this.separateBulkConnection = separateBulkConnection;
+   }
+
+
+   /**
+    * Returns <code>true</code> if a write lock acquired by this node is kept by the node after it is unlocked and is
+    * re-granted locally until another node asks for it.
+    *
+    * @return <code>true</code> if lock affinity is enabled.
+    */
+   public boolean isLockAffinity() {
+
+      return lockAffinity;
+   }
+
+
+   /**
+    * Sets the flag that a write lock acquired by this node is kept by the node after it is unlocked and is re-granted
+    * locally until another node asks for it.
+    *
+    * @param lockAffinity <code>true</code> if lock affinity should be enabled.
+    */
+   public void setLockAffinity(final boolean lockAffinity) {
+
+      this.lockAffinity = lockAffinity;
+   }
+
+
    /**
     * Returns the NIO selector should block for while waiting for a channel to become ready, must be greater than zero.
     *
@@ -469,6 +529,12 @@ public final class ServerConfiguration extends DocumentReader {
       } else if ("selectorTimeout".equals(attributeName)) {
 
          setSelectorTimeoutMillis(systemOrAttribute(CACHEONIX_SELECTOR_TIMEOUT_MILLIS, readTime(attributeValue)));
+      } else if ("separateBulkConnection".equals(attributeName)) {
+
+         separateBulkConnection = Boolean.parseBoolean(attributeValue);
+      } else if ("lockAffinity".equals(attributeName)) {
+
+         lockAffinity = Boolean.parseBoolean(attributeValue);
       }
    }
 
@@ -569,6 +635,8 @@ public final class ServerConfiguration extends DocumentReader {
               ", hasDefaultUnlockTimeoutMillis=" + hasDefaultUnlockTimeoutMillis +
               ", socketTimeoutMillis=" + socketTimeoutMillis +
               ", hasSocketTimeoutMillis=" + hasSocketTimeoutMillis +
+              ", separateBulkConnection=" + separateBulkConnection +
+              ", lockAffinity=" + lockAffinity +
               "} ";
    }
 }
@@ -18,6 +18,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.cacheonix.impl.util.StringUtils;
 import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.impl.util.thread.OverflowPolicy;
 
 /**
  * Holds names of Cacheonix system properties.
@@ -218,6 +219,29 @@ public final class SystemProperty {
     */
    private static final String NAME_CACHEONIX_SELECTOR_TIMEOUT = "cacheonix.selector.timeout";
 
+   /**
+    * The number of threads that run user event notifications in parallel. Notifications for the same subscriber are
+    * always run in order. Default is the number of available processors.
+    */
+   private static final String NAME_CACHEONIX_EVENT_NOTIFICATION_THREADS = "cacheonix.event.notification.threads";
+
+   /**
+    * The maximum number of queued user event notifications per notification thread. Default is 100000.
+    */
+   private static final String NAME_CACHEONIX_EVENT_NOTIFICATION_QUEUE_CAPACITY = "cacheonix.event.notification.queue.capacity";
+
+   /**
+    * The action to take when the queue of user event notifications is full, one of <code>block</code>,
+    * <code>drop-oldest</code> or <code>coalesce</code>. Default is <code>block</code>. The policy applies to user
+    * threads only: Cacheonix processor threads never wait and discard the oldest queued notification instead.
+    */
+   private static final String NAME_CACHEONIX_EVENT_NOTIFICATION_OVERFLOW_POLICY = "cacheonix.event.notification.overflow.policy";
+
+   /**
+    * Default value of {@link #NAME_CACHEONIX_EVENT_NOTIFICATION_QUEUE_CAPACITY}.
+    */
+   private static final int DEFAULT_EVENT_NOTIFICATION_QUEUE_CAPACITY = 100000;
+
    /**
     * Value of property {@link #NAME_CACHEONIX_MACHINE_NAME}.
     */
@@ -420,6 +444,63 @@ public final class SystemProperty {
    }
 
 
+   /**
+    * Returns the number of threads that run user event notifications in parallel.
+    *
+    * @return the number of threads that run user event notifications in parallel.
+    * @see #NAME_CACHEONIX_EVENT_NOTIFICATION_THREADS
+    */
+   public static int getEventNotificationThreads() {
+
+      final Integer threads = propertyToInteger(NAME_CACHEONIX_EVENT_NOTIFICATION_THREADS);
+      if (threads == null || threads <= 0) {
+         return Runtime.getRuntime().availableProcessors();
+      }
+      return threads;
+   }
+
+
+   /**
+    * Returns the maximum number of queued user event notifications per notification thread.
+    *
+    * @return the maximum number of queued user event notifications per notification thread.
+    * @see #NAME_CACHEONIX_EVENT_NOTIFICATION_QUEUE_CAPACITY
+    */
+   public static int getEventNotificationQueueCapacity() {
+
+      final Integer capacity = propertyToInteger(NAME_CACHEONIX_EVENT_NOTIFICATION_QUEUE_CAPACITY);
+      if (capacity == null || capacity <= 0) {
+         return DEFAULT_EVENT_NOTIFICATION_QUEUE_CAPACITY;
+      }
+      return capacity;
+   }
+
+
+   /**
+    * Returns the action to take when the queue of user event notifications is full.
+    *
+    * @return the action to take when the queue of user event notifications is full.
+    * @see #NAME_CACHEONIX_EVENT_NOTIFICATION_OVERFLOW_POLICY
+    */
+   public static OverflowPolicy getEventNotificationOverflowPolicy() {
+
+      final String property = System.getProperty(NAME_CACHEONIX_EVENT_NOTIFICATION_OVERFLOW_POLICY);
+      if (StringUtils.isBlank(property)) {
+         return OverflowPolicy.BLOCK;
+      }
+
+      try {
+
+         return OverflowPolicy.valueOf(property.trim().toUpperCase().replace('-', '_'));
+      } catch (final IllegalArgumentException e) {
+
+         LOG.warn("Invalid property \"" + NAME_CACHEONIX_EVENT_NOTIFICATION_OVERFLOW_POLICY + "\" (" + property
+                 + "), won't use: " + e);
+         return OverflowPolicy.BLOCK;
+      }
+   }
+
+
    public static boolean isShowThreadType() {
 
       return propertyToBoolean(System.getProperty(NAME_CACHEONIX_SHOW_TREAD_TYPE, "false"));
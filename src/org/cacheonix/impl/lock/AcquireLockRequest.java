@@ -16,29 +16,25 @@ package org.cacheonix.impl.lock;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Iterator;
 
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.clock.Time;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
-import org.cacheonix.impl.net.processor.InvalidMessageException;
 import org.cacheonix.impl.net.processor.Request;
 import org.cacheonix.impl.net.processor.Response;
-import org.cacheonix.impl.net.processor.SimpleWaiter;
 import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
-import org.cacheonix.impl.util.MutableBoolean;
-import org.cacheonix.impl.util.array.ObjectProcedure;
 import org.cacheonix.impl.util.logging.Logger;
 
 /**
- * A reliable multicast message to acquire a lock.
+ * A request to acquire a lock. The request is sent to the primary owner of the lock partition that holds the lock
+ * queue.
  * <p/>
- * This message supports a sending a response to a sender. The response is sent when the replicated state is processed
- * at the requester ClusterProcessor.
+ * The owner responds as soon as the lock is granted. If the lock cannot be granted immediately, the request waits in
+ * the lock queue until the lock is released, the requester's wait expires or a deadlock is detected.
  */
 @SuppressWarnings("RedundantIfStatement")
 public final class AcquireLockRequest extends LockRequest {
@@ -72,7 +68,7 @@ public final class AcquireLockRequest extends LockRequest {
 
 
    /**
-    * Time after that a cluster representative will begin a forced lock release in milliseconds.
+    * Time after that the partition owner will begin a forced lock release in milliseconds.
     */
    private Time forcedUnlockTime = null;
 
@@ -110,9 +106,9 @@ public final class AcquireLockRequest extends LockRequest {
 
 
    /**
-    * Returns the time duration after that a cluster representative will begin a forced lock release.
+    * Returns the time duration after that the partition owner will begin a forced lock release.
     *
-    * @return the time duration after that a cluster representative will begin a forced lock release.
+    * @return the time duration after that the partition owner will begin a forced lock release.
     */
    Time getForcedUnlockTime() {
 
@@ -120,28 +116,20 @@ public final class AcquireLockRequest extends LockRequest {
    }
 
 
-   public void validate() throws InvalidMessageException {
-
-      super.validate();
-
-      // Check if this is an mcast message
-      if (isReceiverSet()) {
-
-         throw new InvalidMessageException("This is a reliable mcast message, so receivers should always be empty");
-      }
-   }
-
-
    /**
     * {@inheritDoc}
     */
    public void execute() {
 
-      final ClusterProcessor processor = getClusterProcessor();
+      final LockRegistry lockRegistry = getPartitionedLockManager().admit(this);
+      if (lockRegistry == null) {
+         return;
+      }
 
-      final LockRegistry lockRegistry = processor.getProcessorState().getReplicatedState().getLockRegistry();
       final LockQueue lockQueue = lockRegistry.getLockQueue(getLockRegionName(), getLockKey());
 
+      // A retried request replaces the request the requester has given up on
+      removeRetriedRequest(lockQueue);
 
       if (isReadLock()) {
 
@@ -158,6 +146,26 @@ public final class AcquireLockRequest extends LockRequest {
    }
 
 
+   /**
+    * Removes a pending request of the same owner thread. Such a request is left in the queue if the requester has
+    * retried after its response was lost.
+    *
+    * @param lockQueue the lock queue.
+    */
+   private void removeRetriedRequest(final LockQueue lockQueue) {
+
+      for (final Iterator<AcquireLockRequest> iterator = lockQueue.getPendingRequests().iterator(); iterator.hasNext(); ) {
+
+         final AcquireLockRequest pendingRequest = iterator.next();
+         if (pendingRequest.getOwnerThreadID() == getOwnerThreadID()
+                 && pendingRequest.getOwnerAddress().equals(getOwnerAddress())) {
+
+            iterator.remove();
+         }
+      }
+   }
+
+
    private void processWriteLock(final LockQueue lockQueue) {
 
       //noinspection ControlFlowStatementWithoutBraces
@@ -244,15 +252,19 @@ public final class AcquireLockRequest extends LockRequest {
 
       // Respond
       respondLockGranted();
+
+      // Replicate the owners to the backup owner
+      getPartitionedLockManager().replicate(getClusterProcessor(), getLockRegionName(), getLockKey(), lockQueue);
    }
 
 
    /**
-    * Tries to enqueue this request. This method may immediately respond with <code>RESULT_LOCK_WAIT_EXPIRED</code> or
-    * <code>RESULT_DETECTED_DEADLOCK</code>.
+    * Tries to enqueue this request. This method immediately responds with <code>RESULT_LOCK_WAIT_EXPIRED</code> if
+    * the request may not wait. An enqueued request starts a deadlock probe and asks a lease holder to give the lock
+    * back.
     *
-    * @see #RESULT_DETECTED_DEADLOCK
     * @see #RESULT_LOCK_WAIT_EXPIRED
+    * @see DeadlockProbe
     */
    private void tryToEnqueue(final LockQueue lockQueue) {
 
@@ -262,149 +274,25 @@ public final class AcquireLockRequest extends LockRequest {
       if (hasTimeout() && getTimeoutMillis() == 0) {
 
          respondLockWaitExpired();
+         return;
       }
 
-      if (isDeadlock()) {
-
-         respondDetectedDeadlock();
-      } else {
-
-         // Enqueue
-
-         //noinspection ControlFlowStatementWithoutBraces
-         if (LOG.isDebugEnabled()) LOG.debug("Enqueueing: " + this); // NOPMD
-
-         //noinspection ControlFlowStatementWithoutBraces
-         if (LOG.isDebugEnabled()) LOG.debug("Lock queue: " + lockQueue); // NOPMD
-
-         lockQueue.getPendingRequests().add(this);
-      }
-   }
-
-
-   /**
-    * Detects if enqueueing this request will cause a deadlock.
-    * <p/>
-    * The algorithm is the following:
-    * <p/>
-    * 1. Get the current owner of the desired lock.
-    * <p/>
-    * 2. For each lock we own, find if there is the owner of the desired lock in the pending request queue.
-    * <p/>
-    * 3. If there is, the deadlock is detected.
-    *
-    * @return returns <code>true</code> if the deadlock is detected.
-    */
-   private boolean isDeadlock() {
-
-      final LockRegistry lockRegistry = getClusterProcessor().getProcessorState().getReplicatedState().getLockRegistry();
-
-      final MutableBoolean result = new MutableBoolean(false);
-
-      // For all lock queues
-      lockRegistry.getLockQueues().forEachValue(new ObjectProcedure<LockQueue>() {
-
-         public boolean execute(final LockQueue lockQueue) {
-
-            // Check write lock owner
-            final LockOwner writeLockOwner = lockQueue.getWriteLockOwner();
-            if (waitsForOurLocks(writeLockOwner)) {
-
-               // Deadlock
-               result.set(true);
-
-               // Stop iterating
-               return false;
-            }
-
-            // Check read lock owners
-            final List<LockOwner> readLockOwners = lockQueue.getReadLockOwners();
-            for (final LockOwner readLockOwner : readLockOwners) {
-
-               if (waitsForOurLocks(readLockOwner)) {
-
-                  // Deadlock
-                  result.set(true);
+      // Enqueue
 
-                  // Stop iterating
-                  return false;
-
-               }
-            }
-
-            // Next lock queue
-            return true;
-         }
-      });
-
-      return result.get();
-   }
-
-
-   private boolean waitsForOurLocks(final LockOwner lockOwner) {
-
-      if (lockOwner == null) {
-         return false;
-      }
-
-
-      final LockRequest thisRequest = this;
-      final MutableBoolean result = new MutableBoolean(false);
-
-      final LockRegistry lockRegistry = getClusterProcessor().getProcessorState().getReplicatedState().getLockRegistry();
-      lockRegistry.getLockQueues().forEachValue(new ObjectProcedure<LockQueue>() {
-
-         public boolean execute(final LockQueue lockQueue) {
-
-
-            // Check write lock owner
-            final LockOwner writeLockOwner = lockQueue.getWriteLockOwner();
-
-            if (writeLockOwner != null && writeLockOwner.cameFromRequester(thisRequest)) {
-
-               // We own write lock in this queue
-               final LinkedList<AcquireLockRequest> pendingRequests = lockQueue.getPendingRequests();
-               for (final AcquireLockRequest pendingRequest : pendingRequests) {
-
-                  if (lockOwner.cameFromRequester(pendingRequest)) {
-
-                     //
-                     result.set(true);
-
-                     // Stop iterating
-                     return false;
-                  }
-               }
-            }
-
-            final List<LockOwner> readLockOwners = lockQueue.getReadLockOwners();
-            for (final LockOwner readLockOwner : readLockOwners) {
-
-               if (readLockOwner.cameFromRequester(thisRequest)) {
-
-                  final LinkedList<AcquireLockRequest> pendingRequests = lockQueue.getPendingRequests();
-                  for (final AcquireLockRequest pendingRequest : pendingRequests) {
-
-                     if (lockOwner.cameFromRequester(pendingRequest)) {
-
-                        //
-                        result.set(true);
-
-                        // Stop iterating
-                        return false;
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Enqueueing: " + this); // NOPMD
 
-                     }
-                  }
-               }
-            }
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Lock queue: " + lockQueue); // NOPMD
 
-            // Continue iterating
-            return true;
-         }
-      });
+      lockQueue.getPendingRequests().add(this);
 
+      // Look for a deadlock through the lock holders
+      final ClusterProcessor processor = getClusterProcessor();
+      DeadlockProbe.start(processor, this, lockQueue);
 
-      return result.get();
+      // Ask the lease holder to give back the lock
+      LockLeaseRegistry.revokeIfContended(processor, getLockRegionName(), getLockKey(), lockQueue);
    }
 
 
@@ -413,24 +301,20 @@ public final class AcquireLockRequest extends LockRequest {
     */
    private void respondLockGranted() {
 
-      final ClusterProcessor processor = getClusterProcessor();
-      if (processor.getAddress().equals(getOwnerAddress())) {
-         processor.post(createLockGrantedResponse());
-      }
+      getProcessor().post(createLockGrantedResponse());
    }
 
 
    /**
-    * Posts a response that a deadlock is detected.
+    * Creates a response that a deadlock is detected.
+    *
+    * @return the response that a deadlock is detected.
     */
-   private void respondDetectedDeadlock() {
+   Response createDetectedDeadlockResponse() {
 
-      final ClusterProcessor processor = getClusterProcessor();
-      if (processor.getAddress().equals(getOwnerAddress())) {
-         final Response response = createResponse(Response.RESULT_SUCCESS);
-         response.setResult(RESULT_DETECTED_DEADLOCK);
-         processor.post(response);
-      }
+      final Response response = createResponse(Response.RESULT_SUCCESS);
+      response.setResult(RESULT_DETECTED_DEADLOCK);
+      return response;
    }
 
 
@@ -455,11 +339,7 @@ public final class AcquireLockRequest extends LockRequest {
       //noinspection ControlFlowStatementWithoutBraces
       if (LOG.isDebugEnabled()) LOG.debug("Responding lock wait expired: " + this); // NOPMD
 
-      final ClusterProcessor processor = getClusterProcessor();
-      if (processor.getAddress().equals(getOwnerAddress())) {
-
-         processor.post(createLockWaitExpiredResponse());
-      }
+      getProcessor().post(createLockWaitExpiredResponse());
    }
 
 
@@ -531,7 +411,7 @@ public final class AcquireLockRequest extends LockRequest {
    }
 
 
-   public static class Waiter extends SimpleWaiter {
+   static final class Waiter extends LockRequest.Waiter {
 
       Waiter(final Request request) {
 
@@ -549,8 +429,8 @@ public final class AcquireLockRequest extends LockRequest {
                  request.getLockRegionName(),
                  request.getLockKey(), request.getOwnerAddress(), request.getOwnerThreadID(),
                  request.getOwnerThreadName(),
-                 request.isReadLock());
-         announcement.setSender(getRequest().getProcessor().getAddress());
+                 request.isReadLock(), request.getUuid());
+         announcement.setReceiver(request.getReceiver());
          announcement.setResponseRequired(false);
          getRequest().getProcessor().post(announcement);
       }
@@ -0,0 +1,474 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.processor.UUID;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * A probe that looks for a cycle in the wait-for graph of the lock owners.
+ * <p/>
+ * Lock queues are spread over the owners of the lock partitions, so no node sees all the locks. When an acquire lock
+ * request has to wait, the owner of the partition sends a probe to the node of each lock holder. The probe follows the
+ * holders as follows:
+ * <p/>
+ * 1. At the holder's node ({@link #STAGE_HOME}), the probe finds the lock the holder thread waits for and moves to the
+ * owner of that lock's partition. If the holder does not wait for a lock, the probe stops.
+ * <p/>
+ * 2. At the partition owner ({@link #STAGE_OWNER}), the probe moves to the node of each holder of the lock. If one of
+ * the holders is the requester that started the probe, there is a deadlock.
+ * <p/>
+ * 3. When a deadlock is detected ({@link #STAGE_DETECTED}), the probe returns to the owner of the partition of the
+ * requested lock that removes the request from the lock queue and responds with {@link
+ * AcquireLockRequest#RESULT_DETECTED_DEADLOCK}.
+ * <p/>
+ * The lock fields of the probe identify the lock the probe is at, and the owner fields identify the holder the probe
+ * follows.
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class DeadlockProbe extends LockRequest {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(DeadlockProbe.class); // NOPMD
+
+   /**
+    * The probe is at the node of the lock holder.
+    */
+   static final byte STAGE_HOME = 0;
+
+   /**
+    * The probe is at the owner of the partition of the lock the holder waits for.
+    */
+   static final byte STAGE_OWNER = 1;
+
+   /**
+    * The probe is returning to the owner of the partition of the requested lock.
+    */
+   static final byte STAGE_DETECTED = 2;
+
+   /**
+    * Maximum number of locks a probe visits.
+    */
+   static final int MAX_HOP_COUNT = 64;
+
+   private byte stage = STAGE_HOME;
+
+   private ClusterNodeAddress initiatorAddress = null;
+
+   private int initiatorThreadID = 0;
+
+   private UUID initiatorRequestUUID = null;
+
+   private String initiatorLockRegionName = null;
+
+   private Binary initiatorLockKey = null;
+
+   private int hopCount = 0;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public DeadlockProbe() {
+
+   }
+
+
+   private DeadlockProbe(final byte stage, final String lockRegionName, final Binary lockKey,
+           final LockOwner holder, final AcquireLockRequest initiator, final int hopCount) {
+
+      this(stage, lockRegionName, lockKey, holder.getAddress(), holder.getThreadID(), holder.getThreadName(),
+              initiator.getOwnerAddress(), initiator.getOwnerThreadID(), initiator.getUuid(),
+              initiator.getLockRegionName(), initiator.getLockKey(), hopCount);
+   }
+
+
+   DeadlockProbe(final byte stage, final String lockRegionName, final Binary lockKey,
+           final ClusterNodeAddress holderAddress, final int holderThreadID, final String holderThreadName,
+           final ClusterNodeAddress initiatorAddress, final int initiatorThreadID, final UUID initiatorRequestUUID,
+           final String initiatorLockRegionName, final Binary initiatorLockKey, final int hopCount) {
+
+      super(TYPE_LOCK_DEADLOCK_PROBE, lockRegionName, lockKey, holderAddress, holderThreadID, holderThreadName, false);
+      this.stage = stage;
+      this.initiatorAddress = initiatorAddress;
+      this.initiatorThreadID = initiatorThreadID;
+      this.initiatorRequestUUID = initiatorRequestUUID;
+      this.initiatorLockRegionName = initiatorLockRegionName;
+      this.initiatorLockKey = initiatorLockKey;
+      this.hopCount = hopCount;
+      setResponseRequired(false);
+   }
+
+
+   /**
+    * Sends probes to the nodes of the holders of the lock the request waits for.
+    *
+    * @param processor the cluster processor.
+    * @param request   the acquire lock request that has been enqueued.
+    * @param lockQueue the lock queue.
+    */
+   static void start(final ClusterProcessor processor, final AcquireLockRequest request, final LockQueue lockQueue) {
+
+      for (final LockOwner holder : getHolders(lockQueue)) {
+
+         if (!holder.cameFromRequester(request)) {
+
+            final DeadlockProbe probe = new DeadlockProbe(STAGE_HOME, request.getLockRegionName(),
+                    request.getLockKey(), holder, request, 0);
+            probe.setReceiver(holder.getAddress());
+            processor.post(probe);
+         }
+      }
+   }
+
+
+   byte getStage() {
+
+      return stage;
+   }
+
+
+   int getHopCount() {
+
+      return hopCount;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void execute() {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Processing deadlock probe: " + this); // NOPMD
+
+      switch (stage) {
+
+         case STAGE_HOME:
+
+            executeAtHome();
+            break;
+
+         case STAGE_OWNER:
+
+            executeAtOwner();
+            break;
+
+         case STAGE_DETECTED:
+
+            executeDetected();
+            break;
+
+         default:
+
+            LOG.warn("Unknown deadlock probe stage: " + stage);
+      }
+   }
+
+
+   /**
+    * Finds the lock the holder thread waits for and moves the probe to the owner of its partition.
+    */
+   private void executeAtHome() {
+
+      final ClusterProcessor processor = getClusterProcessor();
+      for (final org.cacheonix.impl.net.processor.Waiter waiter : processor.getWaiterList().getWaiters()) {
+
+         if (waiter.isFinished() || !(waiter.getRequest() instanceof AcquireLockRequest)) {
+            continue;
+         }
+
+         final AcquireLockRequest request = (AcquireLockRequest) waiter.getRequest();
+         if (request.getOwnerThreadID() == getOwnerThreadID() && processor.getAddress().equals(request.getOwnerAddress())) {
+
+            final ClusterNodeAddress primaryOwner = getPrimaryOwner(processor, request.getLockRegionName(),
+                    request.getLockKey());
+            if (primaryOwner != null) {
+
+               final DeadlockProbe probe = copy(STAGE_OWNER, request.getLockRegionName(), request.getLockKey(),
+                       getOwnerAddress(), getOwnerThreadID(), getOwnerThreadName(), hopCount + 1);
+               probe.setReceiver(primaryOwner);
+               processor.post(probe);
+            }
+
+            // A thread waits for one lock at a time
+            return;
+         }
+      }
+   }
+
+
+   /**
+    * Moves the probe to the nodes of the lock holders, or back to the requested lock if the requester holds the lock.
+    */
+   private void executeAtOwner() {
+
+      final LockRegistry lockRegistry = getPartitionedLockManager().admit(this);
+      if (lockRegistry == null) {
+         return;
+      }
+
+      final LockQueue lockQueue = lockRegistry.findLockQueue(getLockRegionName(), getLockKey());
+      if (lockQueue == null || !isWaiting(lockQueue)) {
+
+         // The holder has stopped waiting
+         return;
+      }
+
+      final ClusterProcessor processor = getClusterProcessor();
+      for (final LockOwner holder : getHolders(lockQueue)) {
+
+         if (holder.getThreadID() == initiatorThreadID && holder.getAddress().equals(initiatorAddress)) {
+
+            final ClusterNodeAddress primaryOwner = getPrimaryOwner(processor, initiatorLockRegionName,
+                    initiatorLockKey);
+            if (primaryOwner != null) {
+
+               final DeadlockProbe probe = copy(STAGE_DETECTED, initiatorLockRegionName, initiatorLockKey,
+                       initiatorAddress, initiatorThreadID, holder.getThreadName(), hopCount);
+               probe.setReceiver(primaryOwner);
+               processor.post(probe);
+            }
+            return;
+         }
+      }
+
+      if (hopCount >= MAX_HOP_COUNT) {
+         return;
+      }
+
+      for (final LockOwner holder : getHolders(lockQueue)) {
+
+         if (holder.getThreadID() != getOwnerThreadID() || !holder.getAddress().equals(getOwnerAddress())) {
+
+            final DeadlockProbe probe = copy(STAGE_HOME, getLockRegionName(), getLockKey(), holder.getAddress(),
+                    holder.getThreadID(), holder.getThreadName(), hopCount);
+            probe.setReceiver(holder.getAddress());
+            processor.post(probe);
+         }
+      }
+   }
+
+
+   /**
+    * Removes the request that started the probe from the lock queue and responds that a deadlock is detected.
+    */
+   private void executeDetected() {
+
+      final LockRegistry lockRegistry = getPartitionedLockManager().admit(this);
+      if (lockRegistry == null) {
+         return;
+      }
+
+      final LockQueue lockQueue = lockRegistry.findLockQueue(getLockRegionName(), getLockKey());
+      if (lockQueue == null) {
+         return;
+      }
+
+      final ClusterProcessor processor = getClusterProcessor();
+      for (final Iterator<AcquireLockRequest> iterator = lockQueue.getPendingRequests().iterator(); iterator.hasNext(); ) {
+
+         final AcquireLockRequest request = iterator.next();
+         if (request.getUuid().equals(initiatorRequestUUID)) {
+
+            //noinspection ControlFlowStatementWithoutBraces
+            if (LOG.isDebugEnabled()) LOG.debug("Detected deadlock: " + request); // NOPMD
+
+            iterator.remove();
+            processor.post(request.createDetectedDeadlockResponse());
+         }
+      }
+
+      // The removed request might have blocked the requests behind it
+      if (new NextLockRequestGranter(processor, lockQueue).grantNextLockRequests()) {
+
+         getPartitionedLockManager().replicate(processor, getLockRegionName(), getLockKey(), lockQueue);
+      }
+
+      // Discard the queue if nobody holds or waits for the lock
+      lockRegistry.removeLockQueueIfEmpty(getLockRegionName(), getLockKey());
+   }
+
+
+   /**
+    * Returns <code>true</code> if the holder the probe follows waits in the lock queue.
+    */
+   private boolean isWaiting(final LockQueue lockQueue) {
+
+      for (final AcquireLockRequest request : lockQueue.getPendingRequests()) {
+
+         if (request.getOwnerThreadID() == getOwnerThreadID() && request.getOwnerAddress().equals(getOwnerAddress())) {
+
+            return true;
+         }
+      }
+      return false;
+   }
+
+
+   private DeadlockProbe copy(final byte stage, final String lockRegionName, final Binary lockKey,
+           final ClusterNodeAddress holderAddress, final int holderThreadID, final String holderThreadName,
+           final int hopCount) {
+
+      return new DeadlockProbe(stage, lockRegionName, lockKey, holderAddress, holderThreadID, holderThreadName,
+              initiatorAddress, initiatorThreadID, initiatorRequestUUID, initiatorLockRegionName, initiatorLockKey,
+              hopCount);
+   }
+
+
+   private static ClusterNodeAddress getPrimaryOwner(final ClusterProcessor processor, final String lockRegionName,
+           final Binary lockKey) {
+
+      return processor.getProcessorState().getReplicatedState().getLockPartitionAssignment().getPrimaryOwner(
+              lockRegionName, lockKey);
+   }
+
+
+   private static List<LockOwner> getHolders(final LockQueue lockQueue) {
+
+      final List<LockOwner> result = new ArrayList<LockOwner>(lockQueue.getReadLockOwners());
+      final LockOwner writeLockOwner = lockQueue.getWriteLockOwner();
+      if (writeLockOwner != null) {
+
+         result.add(writeLockOwner);
+      }
+      return result;
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeByte(stage);
+      SerializerUtils.writeAddress(initiatorAddress, out);
+      out.writeInt(initiatorThreadID);
+      SerializerUtils.writeUuid(initiatorRequestUUID, out);
+      SerializerUtils.writeString(initiatorLockRegionName, out);
+      SerializerUtils.writeBinary(out, initiatorLockKey);
+      out.writeInt(hopCount);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      stage = in.readByte();
+      initiatorAddress = SerializerUtils.readAddress(in);
+      initiatorThreadID = in.readInt();
+      initiatorRequestUUID = SerializerUtils.readUuid(in);
+      initiatorLockRegionName = SerializerUtils.readString(in);
+      initiatorLockKey = SerializerUtils.readBinary(in);
+      hopCount = in.readInt();
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final DeadlockProbe that = (DeadlockProbe) o;
+
+      if (hopCount != that.hopCount) {
+         return false;
+      }
+      if (initiatorThreadID != that.initiatorThreadID) {
+         return false;
+      }
+      if (stage != that.stage) {
+         return false;
+      }
+      if (initiatorAddress != null ? !initiatorAddress.equals(that.initiatorAddress) : that.initiatorAddress != null) {
+         return false;
+      }
+      if (initiatorLockKey != null ? !initiatorLockKey.equals(that.initiatorLockKey) : that.initiatorLockKey != null) {
+         return false;
+      }
+      if (initiatorLockRegionName != null ? !initiatorLockRegionName.equals(that.initiatorLockRegionName) : that.initiatorLockRegionName != null) {
+         return false;
+      }
+      if (initiatorRequestUUID != null ? !initiatorRequestUUID.equals(that.initiatorRequestUUID) : that.initiatorRequestUUID != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (int) stage;
+      result = 31 * result + (initiatorAddress != null ? initiatorAddress.hashCode() : 0);
+      result = 31 * result + initiatorThreadID;
+      result = 31 * result + (initiatorRequestUUID != null ? initiatorRequestUUID.hashCode() : 0);
+      result = 31 * result + (initiatorLockRegionName != null ? initiatorLockRegionName.hashCode() : 0);
+      result = 31 * result + (initiatorLockKey != null ? initiatorLockKey.hashCode() : 0);
+      result = 31 * result + hopCount;
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "DeadlockProbe{" +
+              "stage=" + stage +
+              ", initiatorAddress=" + initiatorAddress +
+              ", initiatorThreadID=" + initiatorThreadID +
+              ", initiatorRequestUUID=" + initiatorRequestUUID +
+              ", hopCount=" + hopCount +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new DeadlockProbe();
+      }
+   }
+}
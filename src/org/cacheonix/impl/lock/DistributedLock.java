@@ -15,6 +15,7 @@ package org.cacheonix.impl.lock;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.cacheonix.impl.cache.distributed.partitioned.Retrier;
 import org.cacheonix.impl.cache.distributed.partitioned.Retryable;
@@ -30,6 +31,12 @@ import org.cacheonix.locks.Lock;
 
 /**
  * A distributed lock.
+ * <p/>
+ * If lock affinity is enabled, write locks are leased to this node: once granted, a write lock stays with the node
+ * after it is unlocked and is granted to the next local thread without a round trip through the cluster, until another
+ * owner asks for it.
+ *
+ * @see LockLeaseRegistry
  */
 public final class DistributedLock implements Lock {
 
@@ -128,10 +135,138 @@ public final class DistributedLock implements Lock {
    private boolean acquireLock(final Long waitForLockTime,
                                final long unlockTimeoutMillis) throws DeadlockException {
 
-      // Request
+      if (isLockAffinity()) {
+
+         if (readLock) {
+
+            // A thread holding a leased write lock may also read
+            final LockLease lease = findLeaseHeldByCurrentThread();
+            if (lease != null && lease.isHeld()) {
+
+               lease.lockRead();
+               return true;
+            }
+         } else {
+
+            final Boolean leased = acquireLease(waitForLockTime, unlockTimeoutMillis);
+            if (leased != null) {
+
+               return leased;
+            }
+         }
+      }
+
       final Thread thread = Thread.currentThread();
-      final String ownerThreadName = thread.getName();
-      final int ownerThreadID = System.identityHashCode(thread);
+      return acquireLock(waitForLockTime, unlockTimeoutMillis, System.identityHashCode(thread), thread.getName());
+   }
+
+
+   /**
+    * Acquires a write lock leased to this node. Threads of this node take turns holding the lease, and the lease is
+    * acquired from the cluster only if the node does not hold it already.
+    *
+    * @param waitForLockTime     time to wait. Null means wait forever.
+    * @param unlockTimeoutMillis the unlock timeout
+    * @return <code>true</code> if the lock was granted. <code>false</code> if the lock couldn't be acquired in the
+    *         given wait time. <code>null</code> if the current thread already holds a lock on this key that is not
+    *         leased, so the write lock must be acquired by the thread itself.
+    * @throws DeadlockException if a deadlock is detected.
+    */
+   private Boolean acquireLease(final Long waitForLockTime, final long unlockTimeoutMillis) throws DeadlockException {
+
+      final long startedMillis = clusterProcessor.getClock().currentTimeMillis();
+      final LockLeaseRegistry lockLeaseRegistry = getLockLeaseRegistry();
+      final LockQueueKey lockQueueKey = new LockQueueKey(lockRegionName, lockKey);
+
+      // Take the local lock of the lease
+      LockLease lease;
+      while (true) {
+
+         lease = lockLeaseRegistry.getLease(lockQueueKey);
+         if (!lockLeaseRegistry.lockLocally(lease, waitForLockTime)) {
+            return Boolean.FALSE;
+         }
+
+         if (lockLeaseRegistry.isCurrent(lockQueueKey, lease)) {
+            break;
+         }
+
+         // The lease was removed while we were waiting for it
+         lease.getLocalLock().unlock();
+      }
+
+      final ReentrantLock localLock = lease.getLocalLock();
+      if (localLock.getHoldCount() > 1) {
+
+         // Reentrant lock, the lease is already ours
+         return Boolean.TRUE;
+      }
+
+      boolean granted = false;
+      try {
+
+         if (lease.isHeld()) {
+
+            if (!lease.isRevokeRequested()
+                    && !lease.expiresBefore(clusterProcessor.getClock().currentTime().add(unlockTimeoutMillis))) {
+
+               // Re-grant the lease locally
+               granted = true;
+               return Boolean.TRUE;
+            }
+
+            // Another owner waits for the lock, or the lease may be forcibly
+            // released before the new owner's unlock timeout. Give it back and
+            // acquire it again.
+            releaseLease(lease);
+         } else if (getEntryCount(true) > 0 || getEntryCount(false) > 0) {
+
+            // The thread's own lock cannot be combined with the lease. Let the
+            // thread acquire the write lock itself so that it can upgrade.
+            return null;
+         }
+
+         // Acquire the lease from the cluster
+         lease.setRevokeRequested(false);
+         final Long remainingWaitTime = waitForLockTime == null ? null : Long.valueOf(Math.max(0L,
+                 waitForLockTime - (clusterProcessor.getClock().currentTimeMillis() - startedMillis)));
+         final long leaseTimeoutMillis = unlockTimeoutMillis > Long.MAX_VALUE / 2L
+                 ? unlockTimeoutMillis : unlockTimeoutMillis * 2L;
+         final Time forcedUnlockTime = clusterProcessor.getClock().currentTime().add(leaseTimeoutMillis);
+         if (acquireLock(remainingWaitTime, leaseTimeoutMillis, LockLeaseRegistry.LEASE_THREAD_ID,
+                 LockLeaseRegistry.LEASE_THREAD_NAME)) {
+
+            lease.granted(forcedUnlockTime);
+            granted = true;
+         }
+
+         return Boolean.valueOf(granted);
+      } finally {
+
+         if (!granted) {
+
+            lockLeaseRegistry.removeIfIdle(lockQueueKey, lease);
+            localLock.unlock();
+         }
+      }
+   }
+
+
+   /**
+    * Acquires a distributed lock for the given owner thread.
+    *
+    * @param waitForLockTime     time to wait. Null means wait forever.
+    * @param unlockTimeoutMillis the unlock timeout
+    * @param ownerThreadID       the ID of the owner thread.
+    * @param ownerThreadName     the name of the owner thread.
+    * @return <code>true</code> if the lock was granted. <code>false</code> if the lock couldn't be acquired in the
+    *         given wait time.
+    * @throws DeadlockException if a deadlock is detected.
+    */
+   private boolean acquireLock(final Long waitForLockTime, final long unlockTimeoutMillis, final int ownerThreadID,
+                               final String ownerThreadName) throws DeadlockException {
+
+      // Request
       final ClusterNodeAddress ownerAddress = clusterProcessor.getAddress();
 
       final Integer result = (Integer) retrier.retryUntilDone(new Retryable("acquireLock") {
@@ -141,6 +276,7 @@ public final class DistributedLock implements Lock {
             final Time forcedUnlockTime = clusterProcessor.getClock().currentTime().add(unlockTimeoutMillis);
             final AcquireLockRequest request = new AcquireLockRequest(lockRegionName, lockKey, ownerAddress,
                     ownerThreadID, ownerThreadName, readLock, forcedUnlockTime);
+            request.setReceiver(getPrimaryOwner());
 
             if (waitForLockTime != null) {
                request.setTimeoutMillis(waitForLockTime);
@@ -164,20 +300,25 @@ public final class DistributedLock implements Lock {
     */
    public void unlock() throws BrokenLockException {
 
-      final Thread thread = Thread.currentThread();
-      final int threadID = System.identityHashCode(thread);
-      final String threadName = thread.getName();
+      if (isLockAffinity()) {
 
-      // Request
-      final Integer result = (Integer) retrier.retryUntilDone(new Retryable("unlock") {
+         final LockLease lease = findLeaseHeldByCurrentThread();
+         if (lease != null && readLock && lease.getReadHoldCount() > 0) {
 
-         public Object execute() throws RetryException {
+            lease.unlockRead();
+            unlockLease(lease);
+            return;
+         }
 
-            final ReleaseLockRequest request = new ReleaseLockRequest(lockRegionName, lockKey, clusterProcessor.getAddress(),
-                    threadID, threadName, readLock);
-            return clusterProcessor.execute(request);
+         if (lease != null && !readLock && lease.getWriteHoldCount() > 0) {
+
+            unlockLease(lease);
+            return;
          }
-      });
+      }
+
+      final Thread thread = Thread.currentThread();
+      final Integer result = releaseLock(System.identityHashCode(thread), thread.getName(), readLock);
 
       if (ReleaseLockRequest.RESULT_RELEASED.equals(result)) {
          return;
@@ -189,6 +330,95 @@ public final class DistributedLock implements Lock {
    }
 
 
+   /**
+    * Unlocks a lock leased to this node. The lease is given back to the cluster only if another owner has asked for
+    * it.
+    *
+    * @param lease the lease held by the current thread.
+    * @throws BrokenLockException if the lease was forcibly released.
+    */
+   private void unlockLease(final LockLease lease) throws BrokenLockException {
+
+      final ReentrantLock localLock = lease.getLocalLock();
+      if (localLock.getHoldCount() > 1) {
+
+         // Reentrant unlock
+         localLock.unlock();
+         return;
+      }
+
+      try {
+
+         if (!lease.isHeld()) {
+
+            // The lease was forcibly released while the current thread was holding it
+            throw new BrokenLockException();
+         }
+
+         if (lease.isRevokeRequested() && ReleaseLockRequest.RESULT_LOCK_BROKEN.equals(releaseLease(lease))) {
+            throw new BrokenLockException();
+         }
+      } finally {
+
+         getLockLeaseRegistry().removeIfIdle(new LockQueueKey(lockRegionName, lockKey), lease);
+         localLock.unlock();
+      }
+
+      // The revoke may have been requested after the check above while the cluster
+      // processor could not take the local lock. Give the lease back if no other
+      // local thread has taken it.
+      if (lease.isRevokeRequested() && lease.isHeld() && localLock.tryLock()) {
+         try {
+
+            if (lease.isHeld()) {
+
+               releaseLease(lease);
+            }
+         } finally {
+
+            getLockLeaseRegistry().removeIfIdle(new LockQueueKey(lockRegionName, lockKey), lease);
+            localLock.unlock();
+         }
+      }
+   }
+
+
+   /**
+    * Gives the lease back to the cluster. Must be called while holding the local lock of the lease.
+    *
+    * @param lease the lease.
+    * @return the result of the release request.
+    */
+   private Integer releaseLease(final LockLease lease) {
+
+      lease.released();
+      return releaseLock(LockLeaseRegistry.LEASE_THREAD_ID, LockLeaseRegistry.LEASE_THREAD_NAME, false);
+   }
+
+
+   /**
+    * Releases a distributed lock held by the given owner thread.
+    *
+    * @param threadID   the ID of the owner thread.
+    * @param threadName the name of the owner thread.
+    * @param readLock   a read lock flag. If false, it is a write lock.
+    * @return the result of the release request.
+    */
+   private Integer releaseLock(final int threadID, final String threadName, final boolean readLock) {
+
+      return (Integer) retrier.retryUntilDone(new Retryable("unlock") {
+
+         public Object execute() throws RetryException {
+
+            final ReleaseLockRequest request = new ReleaseLockRequest(lockRegionName, lockKey, clusterProcessor.getAddress(),
+                    threadID, threadName, readLock);
+            request.setReceiver(getPrimaryOwner());
+            return clusterProcessor.execute(request);
+         }
+      });
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -201,6 +431,27 @@ public final class DistributedLock implements Lock {
 
    public int getEntryCount() {
 
+      if (isLockAffinity()) {
+
+         final LockLease lease = findLeaseHeldByCurrentThread();
+         if (lease != null && lease.isHeld()) {
+
+            return readLock ? lease.getReadHoldCount() : lease.getWriteHoldCount();
+         }
+      }
+
+      return getEntryCount(readLock);
+   }
+
+
+   /**
+    * Returns the number of times the current thread has acquired a lock on this key that is not leased.
+    *
+    * @param readLock a read lock flag. If false, it is a write lock.
+    * @return the number of times the current thread has acquired the lock.
+    */
+   private int getEntryCount(final boolean readLock) {
+
       final Thread thread = Thread.currentThread();
       final int threadID = System.identityHashCode(thread);
       final String threadName = thread.getName();
@@ -211,13 +462,61 @@ public final class DistributedLock implements Lock {
 
             final EntryCountRequest request = new EntryCountRequest(lockRegionName, lockKey, clusterProcessor.getAddress(),
                     threadID, threadName, readLock);
-            request.setReceiver(clusterProcessor.getAddress()); // Set receiver to self.
+            request.setReceiver(getPrimaryOwner());
             return clusterProcessor.execute(request);
          }
       });
    }
 
 
+   /**
+    * Returns the primary owner of the lock partition that holds the lock queue for this lock.
+    *
+    * @return the primary owner of the lock partition.
+    * @throws RetryException if the lock partitions have not been assigned yet.
+    */
+   private ClusterNodeAddress getPrimaryOwner() throws RetryException {
+
+      final LockPartitionAssignment assignment = clusterProcessor.getProcessorState().getReplicatedState()
+              .getLockPartitionAssignment();
+      final ClusterNodeAddress primaryOwner = assignment.getPrimaryOwner(lockRegionName, lockKey);
+      if (primaryOwner == null) {
+
+         throw new RetryException("Lock partitions have not been assigned yet");
+      }
+      return primaryOwner;
+   }
+
+
+   /**
+    * Returns <code>true</code> if write locks are leased to this node.
+    *
+    * @return <code>true</code> if lock affinity is enabled.
+    */
+   private boolean isLockAffinity() {
+
+      return getLockLeaseRegistry().isEnabled();
+   }
+
+
+   /**
+    * Returns a lease on this lock if the current thread holds it.
+    *
+    * @return the lease or <code>null</code> if the current thread does not hold a lease on this lock.
+    */
+   private LockLease findLeaseHeldByCurrentThread() {
+
+      final LockLease lease = getLockLeaseRegistry().findLease(new LockQueueKey(lockRegionName, lockKey));
+      return lease != null && lease.getLocalLock().isHeldByCurrentThread() ? lease : null;
+   }
+
+
+   private LockLeaseRegistry getLockLeaseRegistry() {
+
+      return clusterProcessor.getProcessorState().getLockLeaseRegistry();
+   }
+
+
    public String toString() {
 
       return "DistributedLock{" +
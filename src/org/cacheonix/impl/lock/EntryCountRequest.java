@@ -16,9 +16,6 @@ package org.cacheonix.impl.lock;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
-import org.cacheonix.impl.net.cluster.ClusterProcessorKey;
-import org.cacheonix.impl.net.processor.InvalidMessageException;
-import org.cacheonix.impl.net.processor.ProcessorKey;
 import org.cacheonix.impl.net.processor.Response;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
@@ -42,16 +39,6 @@ public final class EntryCountRequest extends LockRequest {
    }
 
 
-   public void validate() throws InvalidMessageException {
-
-      super.validate();
-
-      if (!getReceiver().isAddressOf(getProcessor().getAddress())) {
-         throw new InvalidMessageException("Entry count request should be local");
-      }
-   }
-
-
    public EntryCountRequest(final String lockRegionName, final Binary lockKey, final ClusterNodeAddress ownerAddress,
                             final int ownerThreadID,
                             final String ownerThreadName, final boolean readLock) {
@@ -60,22 +47,16 @@ public final class EntryCountRequest extends LockRequest {
    }
 
 
-   /**
-    * {@inheritDoc}
-    */
-   protected ProcessorKey getProcessorKey() {
-
-      return ClusterProcessorKey.getInstance();
-   }
-
-
    public void execute() {
 
-      final ClusterProcessor processor = getClusterProcessor();
+      final LockRegistry lockRegistry = getPartitionedLockManager().admit(this);
+      if (lockRegistry == null) {
+         return;
+      }
 
-      final LockRegistry lockRegistry = processor.getProcessorState().getReplicatedState().getLockRegistry();
-      final LockQueue lockQueue = lockRegistry.getLockQueue(getLockRegionName(), getLockKey());
-      final int lockEntryCount = lockQueue.getLockEntryCount(this);
+      final ClusterProcessor processor = getClusterProcessor();
+      final LockQueue lockQueue = lockRegistry.findLockQueue(getLockRegionName(), getLockKey());
+      final int lockEntryCount = lockQueue == null ? 0 : lockQueue.getLockEntryCount(this);
       final Response response = createResponse(Response.RESULT_SUCCESS);
       response.setResult(lockEntryCount);
       processor.post(response);
@@ -0,0 +1,195 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.cacheonix.impl.clock.Time;
+
+/**
+ * A node-local lease on a distributed write lock.
+ * <p/>
+ * While the lease is held, the cluster sees the write lock as owned by the node rather than by a particular thread, and
+ * threads of the node take turns holding the lock by acquiring the local lock of the lease. The lease is given back to
+ * the cluster only when another owner asks for the lock.
+ *
+ * @see LockLeaseRegistry
+ */
+final class LockLease {
+
+   /**
+    * A local lock that serializes threads of this node that hold the distributed lock.
+    */
+   private final LocalLock localLock = new LocalLock();
+
+   /**
+    * <code>true</code> if the cluster has granted the write lock to this node.
+    */
+   private volatile boolean held = false;
+
+   /**
+    * <code>true</code> if another owner has asked for the lock, and the lease must be released as soon as no local
+    * thread holds it.
+    */
+   private volatile boolean revokeRequested = false;
+
+   /**
+    * The cluster time after that the partition owner will begin a forced release of the lease. Guarded by {@link
+    * #localLock}.
+    */
+   private Time forcedUnlockTime = null;
+
+   /**
+    * The number of read locks the thread holding the lease has acquired on top of the write lock. Guarded by {@link
+    * #localLock}.
+    */
+   private int readHoldCount = 0;
+
+
+   LocalLock getLocalLock() {
+
+      return localLock;
+   }
+
+
+   /**
+    * Returns the number of read locks the current thread has acquired on top of the leased write lock. Must be called
+    * while holding the local lock.
+    *
+    * @return the number of read locks.
+    */
+   int getReadHoldCount() {
+
+      return readHoldCount;
+   }
+
+
+   /**
+    * Returns the number of write locks the current thread has acquired. Must be called while holding the local lock.
+    *
+    * @return the number of write locks.
+    */
+   int getWriteHoldCount() {
+
+      return localLock.getHoldCount() - readHoldCount;
+   }
+
+
+   /**
+    * Acquires a read lock on top of the leased write lock. Must be called while holding the local lock.
+    */
+   void lockRead() {
+
+      localLock.lock();
+      readHoldCount++;
+   }
+
+
+   /**
+    * Releases a read lock acquired on top of the leased write lock. Must be called while holding the local lock.
+    */
+   void unlockRead() {
+
+      readHoldCount--;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the cluster has granted the write lock to this node.
+    *
+    * @return <code>true</code> if the cluster has granted the write lock to this node.
+    */
+   boolean isHeld() {
+
+      return held;
+   }
+
+
+   /**
+    * Marks the lease as granted by the cluster. Must be called while holding the local lock.
+    *
+    * @param forcedUnlockTime the cluster time after that the partition owner will begin a forced release of the
+    *                         lease.
+    */
+   void granted(final Time forcedUnlockTime) {
+
+      this.forcedUnlockTime = forcedUnlockTime;
+      this.held = true;
+   }
+
+
+   /**
+    * Marks the lease as not granted.
+    */
+   void released() {
+
+      held = false;
+   }
+
+
+   boolean isRevokeRequested() {
+
+      return revokeRequested;
+   }
+
+
+   void setRevokeRequested(final boolean revokeRequested) {
+
+      this.revokeRequested = revokeRequested;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the lease may be forcibly released before the given time. Must be called while
+    * holding the local lock.
+    *
+    * @param time the time to check.
+    * @return <code>true</code> if the lease may be forcibly released before the given time.
+    */
+   boolean expiresBefore(final Time time) {
+
+      return forcedUnlockTime == null || forcedUnlockTime.compareTo(time) < 0;
+   }
+
+
+   public String toString() {
+
+      return "LockLease{" +
+              "held=" + held +
+              ", revokeRequested=" + revokeRequested +
+              ", forcedUnlockTime=" + forcedUnlockTime +
+              ", localLock=" + localLock +
+              '}';
+   }
+
+
+   /**
+    * A local lock of the lease that exposes its owner thread for deadlock detection.
+    */
+   static final class LocalLock extends ReentrantLock {
+
+      private static final long serialVersionUID = 0L;
+
+
+      /**
+       * Returns the thread that holds this lock.
+       *
+       * @return the thread that holds this lock or <code>null</code> if the lock is not held.
+       */
+      Thread getOwnerThread() {
+
+         return getOwner();
+      }
+   }
+}
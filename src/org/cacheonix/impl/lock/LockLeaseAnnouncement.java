@@ -0,0 +1,161 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A message from the owner of a lock partition to the node that holds a lease on a lock. The owner either asks the
+ * node to give the lease back because another owner waits for the lock, or lets the node know that the lease has been
+ * released forcibly.
+ *
+ * @see LockLeaseRegistry
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class LockLeaseAnnouncement extends LockRequest {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * <code>true</code> if the lease should be given back, <code>false</code> if the lease has been released.
+    */
+   private boolean revoke = false;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public LockLeaseAnnouncement() {
+
+   }
+
+
+   /**
+    * Creates a lease announcement.
+    *
+    * @param lockRegionName a name of the region where the lock is placed.
+    * @param lockKey        a lock identifier.
+    * @param leaseOwner     the address of the node that holds the lease.
+    * @param revoke         <code>true</code> if the lease should be given back, <code>false</code> if the lease has
+    *                       been released.
+    */
+   public LockLeaseAnnouncement(final String lockRegionName, final Binary lockKey, final ClusterNodeAddress leaseOwner,
+           final boolean revoke) {
+
+      super(TYPE_LOCK_LEASE_ANNOUNCEMENT, lockRegionName, lockKey, leaseOwner, LockLeaseRegistry.LEASE_THREAD_ID,
+              LockLeaseRegistry.LEASE_THREAD_NAME, false);
+      this.revoke = revoke;
+      setResponseRequired(false);
+   }
+
+
+   public boolean isRevoke() {
+
+      return revoke;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This message is processed by the node that holds the lease rather than by the owner of the lock partition.
+    */
+   public void execute() {
+
+      final ClusterProcessor processor = getClusterProcessor();
+      final LockLeaseRegistry lockLeaseRegistry = processor.getProcessorState().getLockLeaseRegistry();
+      if (revoke) {
+
+         lockLeaseRegistry.revoke(processor, getLockRegionName(), getLockKey());
+      } else {
+
+         lockLeaseRegistry.leaseReleased(getLockRegionName(), getLockKey());
+      }
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeBoolean(revoke);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      revoke = in.readBoolean();
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final LockLeaseAnnouncement that = (LockLeaseAnnouncement) o;
+
+      if (revoke != that.revoke) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (revoke ? 1 : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "LockLeaseAnnouncement{" +
+              "revoke=" + revoke +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new LockLeaseAnnouncement();
+      }
+   }
+}
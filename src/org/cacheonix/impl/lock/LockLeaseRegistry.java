@@ -0,0 +1,408 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.locks.DeadlockException;
+
+/**
+ * A node-local registry of leases on distributed write locks.
+ * <p/>
+ * When lock affinity is enabled, a node that acquires a write lock keeps it after the owner thread unlocks it, and
+ * grants it to the next local thread without a round trip through the cluster. The lock is given back when the
+ * owner of the lock partition asks for it because another owner is waiting for it. The cluster sees such a lock as owned by the node
+ * under the reserved thread ID {@link #LEASE_THREAD_ID}.
+ * <p/>
+ * The registry is not replicated. Cluster-side methods of this registry are called by the cluster processor thread,
+ * lock and unlock methods are called by user threads. The cluster cannot see threads of a node waiting for each other's
+ * leases, so the registry detects such deadlocks itself.
+ *
+ * @see LockLease
+ */
+public final class LockLeaseRegistry {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(LockLeaseRegistry.class); // NOPMD
+
+   /**
+    * A thread ID used as a lock owner thread ID for the leases. Identity hash codes are never negative, so this ID
+    * cannot clash with the ID of a real thread.
+    */
+   static final int LEASE_THREAD_ID = -1;
+
+   /**
+    * A thread name used as a lock owner thread name for the leases.
+    */
+   static final String LEASE_THREAD_NAME = "CacheonixLockLease";
+
+   /**
+    * How often a thread waiting for a lease held by another local thread checks for a deadlock.
+    */
+   private static final long DEADLOCK_CHECK_INTERVAL_MILLIS = 10L;
+
+   private final ConcurrentHashMap<LockQueueKey, LockLease> leases = new ConcurrentHashMap<LockQueueKey, LockLease>(1);
+
+   /**
+    * Local threads waiting for leases held by other local threads.
+    */
+   private final ConcurrentHashMap<Thread, LocalWait> localWaits = new ConcurrentHashMap<Thread, LocalWait>(1);
+
+   /**
+    * A counter used to order local waits.
+    */
+   private final AtomicLong localWaitCounter = new AtomicLong();
+
+   /**
+    * <code>true</code> if write locks should be leased to this node.
+    */
+   private volatile boolean enabled = false;
+
+
+   /**
+    * Returns <code>true</code> if write locks are leased to this node.
+    *
+    * @return <code>true</code> if write locks are leased to this node.
+    */
+   public boolean isEnabled() {
+
+      return enabled;
+   }
+
+
+   /**
+    * Enables or disables lock affinity.
+    *
+    * @param enabled <code>true</code> if write locks should be leased to this node.
+    */
+   public void setEnabled(final boolean enabled) {
+
+      this.enabled = enabled;
+   }
+
+
+   /**
+    * Returns a lease for the given lock, creates the lease if it does not exist.
+    *
+    * @param lockQueueKey the lock.
+    * @return the lease.
+    */
+   LockLease getLease(final LockQueueKey lockQueueKey) {
+
+      final LockLease lease = leases.get(lockQueueKey);
+      if (lease != null) {
+         return lease;
+      }
+
+      final LockLease newLease = new LockLease();
+      final LockLease existingLease = leases.putIfAbsent(lockQueueKey, newLease);
+      return existingLease == null ? newLease : existingLease;
+   }
+
+
+   /**
+    * Returns a lease for the given lock.
+    *
+    * @param lockQueueKey the lock.
+    * @return the lease or <code>null</code> if the lease does not exist.
+    */
+   LockLease findLease(final LockQueueKey lockQueueKey) {
+
+      return leases.get(lockQueueKey);
+   }
+
+
+   /**
+    * Returns <code>true</code> if the lease is the one registered for the lock. A lease that a thread obtained from the
+    * registry may be removed before the thread has acquired its local lock.
+    *
+    * @param lockQueueKey the lock.
+    * @param lease        the lease to check.
+    * @return <code>true</code> if the lease is the one registered for the lock.
+    */
+   boolean isCurrent(final LockQueueKey lockQueueKey, final LockLease lease) {
+
+      //noinspection ObjectEquality
+      return leases.get(lockQueueKey) == lease; // NOPMD
+   }
+
+
+   /**
+    * Acquires the local lock of a lease.
+    *
+    * @param lease           the lease.
+    * @param waitForLockTime time to wait. Null means wait forever.
+    * @return <code>true</code> if the local lock was acquired.
+    * @throws DeadlockException if waiting for the lease would cause a deadlock between local threads.
+    */
+   boolean lockLocally(final LockLease lease, final Long waitForLockTime) throws DeadlockException {
+
+      final LockLease.LocalLock localLock = lease.getLocalLock();
+      if (localLock.tryLock()) {
+         return true;
+      }
+
+      final Thread thread = Thread.currentThread();
+      final long waitUntilMillis = waitForLockTime == null
+              ? Long.MAX_VALUE : System.currentTimeMillis() + waitForLockTime;
+      final LocalWait localWait = new LocalWait(lease, localWaitCounter.incrementAndGet());
+      localWaits.put(thread, localWait);
+      try {
+
+         while (true) {
+
+            if (closesDeadlock(thread, localWait)) {
+               throw new DeadlockException();
+            }
+
+            final long remainingMillis = waitUntilMillis - System.currentTimeMillis();
+            if (remainingMillis <= 0L) {
+               return false;
+            }
+
+            if (localLock.tryLock(Math.min(remainingMillis, DEADLOCK_CHECK_INTERVAL_MILLIS), TimeUnit.MILLISECONDS)) {
+               return true;
+            }
+         }
+      } catch (final InterruptedException ignored) {
+
+         thread.interrupt();
+         return false;
+      } finally {
+
+         localWaits.remove(thread);
+      }
+   }
+
+
+   /**
+    * Returns <code>true</code> if the wait of the given thread is the latest wait in a cycle of local threads waiting
+    * for each other's leases. Only the latest wait is reported so that exactly one thread of the cycle gives up.
+    *
+    * @param thread    the waiting thread.
+    * @param localWait the wait of the thread.
+    * @return <code>true</code> if the thread's wait closes a deadlock.
+    */
+   private boolean closesDeadlock(final Thread thread, final LocalWait localWait) {
+
+      LocalWait wait = localWait;
+      for (int i = 0; i <= localWaits.size(); i++) {
+
+         final Thread owner = wait.lease.getLocalLock().getOwnerThread();
+         if (owner == null) {
+            return false;
+         }
+
+         //noinspection ObjectEquality
+         if (owner == thread) { // NOPMD
+            return true;
+         }
+
+         wait = localWaits.get(owner);
+         if (wait == null || wait.order > localWait.order) {
+            return false;
+         }
+      }
+
+      return false;
+   }
+
+
+   /**
+    * Removes the lease if the cluster has not granted it and no other local thread waits for it. Must be called by the
+    * thread holding the local lock of the lease.
+    *
+    * @param lockQueueKey the lock.
+    * @param lease        the lease.
+    */
+   void removeIfIdle(final LockQueueKey lockQueueKey, final LockLease lease) {
+
+      if (!lease.isHeld() && !lease.getLocalLock().hasQueuedThreads()) {
+
+         leases.remove(lockQueueKey, lease);
+      }
+   }
+
+
+   /**
+    * Asks the node that holds a lease on the lock to give it back if another owner waits for the lock. Called by the
+    * cluster processor thread of the owner of the lock partition after the lock queue has changed.
+    *
+    * @param processor      the cluster processor.
+    * @param lockRegionName a name of the region where the lock is placed.
+    * @param lockKey        a lock identifier.
+    * @param lockQueue      the lock queue.
+    * @see #revoke(ClusterProcessor, String, Binary)
+    */
+   public static void revokeIfContended(final ClusterProcessor processor, final String lockRegionName,
+           final Binary lockKey, final LockQueue lockQueue) {
+
+      final LockOwner writeLockOwner = lockQueue.getWriteLockOwner();
+      if (lockQueue.getPendingRequests().isEmpty() || !isLease(writeLockOwner)) {
+
+         return;
+      }
+
+      final LockLeaseAnnouncement announcement = new LockLeaseAnnouncement(lockRegionName, lockKey,
+              writeLockOwner.getAddress(), true);
+      announcement.setReceiver(writeLockOwner.getAddress());
+      processor.post(announcement);
+   }
+
+
+   /**
+    * Gives the lease back at the request of the owner of the lock partition. If no local thread holds the lease, posts
+    * a request to release it right away. Otherwise, the thread holding the lease releases it when it unlocks. Called by
+    * the cluster processor thread.
+    *
+    * @param processor      the cluster processor.
+    * @param lockRegionName a name of the region where the lock is placed.
+    * @param lockKey        a lock identifier.
+    */
+   public void revoke(final ClusterProcessor processor, final String lockRegionName, final Binary lockKey) {
+
+      final LockLease lease = leases.get(new LockQueueKey(lockRegionName, lockKey));
+      if (lease == null) {
+
+         // Nothing is known about the lease locally, give it back
+         postLeaseRelease(processor, lockRegionName, lockKey);
+         return;
+      }
+
+      lease.setRevokeRequested(true);
+
+      final ReentrantLock localLock = lease.getLocalLock();
+      if (localLock.tryLock()) {
+         try {
+
+            if (lease.isHeld()) {
+
+               lease.released();
+               postLeaseRelease(processor, lockRegionName, lockKey);
+            }
+         } finally {
+            localLock.unlock();
+         }
+      }
+   }
+
+
+   /**
+    * Marks the lease as released. Called by the cluster processor thread when the cluster has released the lease,
+    * including a forced release by the owner of the lock partition.
+    *
+    * @param lockRegionName a name of the region where the lock is placed.
+    * @param lockKey        a lock identifier.
+    */
+   public void leaseReleased(final String lockRegionName, final Binary lockKey) {
+
+      final LockLease lease = leases.get(new LockQueueKey(lockRegionName, lockKey));
+      if (lease != null) {
+
+         lease.released();
+      }
+   }
+
+
+   /**
+    * Marks all leases as released. Called when the replicated state is replaced, for instance when this node joins a
+    * cluster, because the new state does not contain the leases granted before.
+    */
+   public void invalidate() {
+
+      for (final LockLease lease : leases.values()) {
+
+         lease.released();
+      }
+   }
+
+
+   /**
+    * Returns <code>true</code> if the lock owner is a lease granted to the node with the given address.
+    *
+    * @param lockOwner the lock owner to check. Can be <code>null</code>.
+    * @param address   the node address.
+    * @return <code>true</code> if the lock owner is a lease granted to the node with the given address.
+    */
+   public static boolean isLeaseOwner(final LockOwner lockOwner, final ClusterNodeAddress address) {
+
+      return isLease(lockOwner) && lockOwner.getAddress().equals(address);
+   }
+
+
+   private static boolean isLease(final LockOwner lockOwner) {
+
+      return lockOwner != null && lockOwner.getThreadID() == LEASE_THREAD_ID && !lockOwner.isReadLock()
+              && lockOwner.getAddress() != null;
+   }
+
+
+   private static void postLeaseRelease(final ClusterProcessor processor, final String lockRegionName,
+           final Binary lockKey) {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Releasing contended lock lease: " + lockKey); // NOPMD
+
+      final ClusterNodeAddress primaryOwner = processor.getProcessorState().getReplicatedState()
+              .getLockPartitionAssignment().getPrimaryOwner(lockRegionName, lockKey);
+      if (primaryOwner == null) {
+         return;
+      }
+
+      final ReleaseLockRequest request = new ReleaseLockRequest(lockRegionName, lockKey, processor.getAddress(),
+              LEASE_THREAD_ID, LEASE_THREAD_NAME, false);
+      request.setResponseRequired(false);
+      request.setReceiver(primaryOwner);
+      processor.post(request);
+   }
+
+
+   public String toString() {
+
+      return "LockLeaseRegistry{" +
+              "enabled=" + enabled +
+              ", leases=" + leases.size() +
+              ", localWaits=" + localWaits.size() +
+              '}';
+   }
+
+
+   /**
+    * A wait of a local thread for a lease held by another local thread.
+    */
+   private static final class LocalWait {
+
+      private final LockLease lease;
+
+      private final long order;
+
+
+      LocalWait(final LockLease lease, final long order) {
+
+         this.lease = lease;
+         this.order = order;
+      }
+   }
+}
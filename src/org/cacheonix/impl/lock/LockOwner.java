@@ -19,7 +19,7 @@ import java.io.IOException;
 
 import org.cacheonix.impl.clock.Time;
 import org.cacheonix.impl.net.ClusterNodeAddress;
-import org.cacheonix.impl.net.cluster.MulticastMarker;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
 import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
@@ -46,13 +46,13 @@ public final class LockOwner implements Wireable {
    private boolean readLock = false;
 
    /**
-    * The cluster time at that a cluster representative will begin a forced lock release. If null, means that it is not
+    * The cluster time at that the partition owner will begin a forced lock release. If null, means that it is not
     * set yet.
     * <p/>
-    * NOTE: simeshev@cacheonix.org - 2010-08-12 - This is a transient field and makes sense only on the cluster
-    * representative.. If the cluster representative changes, the forced unlock process will start from scratches.
+    * The forced release is initiated by the primary owner of the lock partition. If the primary owner changes, the
+    * forced unlock process will start from scratches.
     *
-    * @see MulticastMarker#processUnlockTimeouts()
+    * @see PartitionedLockManager#processTimeouts(ClusterProcessor)
     */
    private Time unlockTimeout = null;
 
@@ -136,12 +136,12 @@ public final class LockOwner implements Wireable {
 
 
    /**
-    * Returns cluster time at that a cluster representative will begin a forced lock release. If null, means that it is
+    * Returns cluster time at that the partition owner will begin a forced lock release. If null, means that it is
     * not set yet.
     *
-    * @return the cluster time at that a cluster representative will begin a forced lock release. If null, means that it
+    * @return the cluster time at that the partition owner will begin a forced lock release. If null, means that it
     *         is not set yet.
-    * @see MulticastMarker#processUnlockTimeouts()
+    * @see PartitionedLockManager#processTimeouts(ClusterProcessor)
     */
    public Time getUnlockTimeout() {
 
@@ -161,6 +161,19 @@ public final class LockOwner implements Wireable {
    }
 
 
+   /**
+    * Returns a copy of this lock owner.
+    *
+    * @return the copy of this lock owner.
+    */
+   public LockOwner copy() {
+
+      final LockOwner copy = new LockOwner(threadID, address, threadName, unlockTimeout, readLock);
+      copy.entryCount = entryCount;
+      return copy;
+   }
+
+
    public boolean cameFromRequester(final LockRequest request) {
 
       return threadID == request.getOwnerThreadID() && address.equals(request.getOwnerAddress());
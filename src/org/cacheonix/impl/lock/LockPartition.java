@@ -0,0 +1,187 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cacheonix.impl.net.ClusterNodeAddress;
+
+/**
+ * A node-local view of a lock partition.
+ * <p/>
+ * On the primary owner the partition is active and holds the lock queues. While the primary owner waits for the lock
+ * queues from the previous primary owner, the partition is inactive and requests for it are parked. On the backup owner
+ * the partition holds a copy of the lock owners.
+ * <p/>
+ * This class is not thread safe. It is accessed by the cluster processor thread only.
+ */
+final class LockPartition {
+
+   private final int number;
+
+   /**
+    * The lock queues of the partition or <code>null</code> if the partition is not active on this node.
+    */
+   private LockRegistry registry = null;
+
+   /**
+    * A copy of the lock owners kept by the backup owner or <code>null</code> if there is no copy.
+    */
+   private LockRegistry backup = null;
+
+   /**
+    * The previous primary owner that is expected to transfer the lock queues to this node or <code>null</code> if
+    * this node is not waiting for a transfer.
+    */
+   private ClusterNodeAddress awaitedOwner = null;
+
+   /**
+    * The time this node began waiting for the transfer.
+    */
+   private long awaitingSinceMillis = 0L;
+
+   /**
+    * Requests received while waiting for the transfer.
+    */
+   private final LinkedList<LockRequest> parkedRequests = new LinkedList<LockRequest>(); // NOPMD
+
+
+   LockPartition(final int number) {
+
+      this.number = number;
+   }
+
+
+   int getNumber() {
+
+      return number;
+   }
+
+
+   boolean isActive() {
+
+      return registry != null;
+   }
+
+
+   LockRegistry getRegistry() {
+
+      return registry;
+   }
+
+
+   /**
+    * Activates the partition. The backup copy is dropped and the wait for a transfer ends.
+    *
+    * @param registry the lock queues of the partition.
+    */
+   void activate(final LockRegistry registry) {
+
+      this.registry = registry;
+      this.backup = null;
+      this.awaitedOwner = null;
+      this.awaitingSinceMillis = 0L;
+   }
+
+
+   /**
+    * Deactivates the partition.
+    *
+    * @return the lock queues of the partition.
+    */
+   LockRegistry deactivate() {
+
+      final LockRegistry result = registry;
+      registry = null;
+      return result;
+   }
+
+
+   boolean isAwaiting() {
+
+      return awaitedOwner != null;
+   }
+
+
+   ClusterNodeAddress getAwaitedOwner() {
+
+      return awaitedOwner;
+   }
+
+
+   long getAwaitingSinceMillis() {
+
+      return awaitingSinceMillis;
+   }
+
+
+   void await(final ClusterNodeAddress previousOwner, final long sinceMillis) {
+
+      this.awaitedOwner = previousOwner;
+      this.awaitingSinceMillis = sinceMillis;
+   }
+
+
+   void cancelAwaiting() {
+
+      awaitedOwner = null;
+      awaitingSinceMillis = 0L;
+   }
+
+
+   LockRegistry getBackup() {
+
+      return backup;
+   }
+
+
+   void setBackup(final LockRegistry backup) {
+
+      this.backup = backup;
+   }
+
+
+   void park(final LockRequest request) {
+
+      parkedRequests.add(request);
+   }
+
+
+   /**
+    * Removes and returns the parked requests in the order they were received.
+    *
+    * @return the parked requests.
+    */
+   List<LockRequest> takeParkedRequests() {
+
+      final List<LockRequest> result = new ArrayList<LockRequest>(parkedRequests);
+      parkedRequests.clear();
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "LockPartition{" +
+              "number=" + number +
+              ", registry=" + registry +
+              ", backup=" + backup +
+              ", awaitedOwner=" + awaitedOwner +
+              ", awaitingSinceMillis=" + awaitingSinceMillis +
+              ", parkedRequests.size()=" + parkedRequests.size() +
+              '}';
+   }
+}
@@ -0,0 +1,356 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.cacheonix.impl.cache.distributed.partitioned.BucketIndexCalculator;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.config.ConfigurationConstants;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * An assignment of lock partitions to cluster members.
+ * <p/>
+ * Lock queues are partitioned by the hash of their {@link LockQueueKey}. Each partition has a primary owner that keeps
+ * the lock queues of the partition and processes lock requests for them, and a backup owner that keeps a copy of the
+ * lock owners in case the primary owner leaves.
+ * <p/>
+ * The assignment is a part of the replicated state. It is changed only by cluster membership announcements, so all
+ * members see the same assignment for the same version. Owners are chosen by rendezvous hashing, so a membership
+ * change moves only the partitions of the member that joined or left.
+ * <p/>
+ * This class is immutable.
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class LockPartitionAssignment implements Wireable {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * Number of lock partitions.
+    */
+   public static final int PARTITION_COUNT = ConfigurationConstants.LOCK_PARTITION_COUNT;
+
+   private static final ClusterNodeAddress[] EMPTY_MEMBERS = new ClusterNodeAddress[0];
+
+   /**
+    * The version of the assignment. The version is incremented each time the members change.
+    */
+   private long version = 0L;
+
+   /**
+    * Members sorted in their natural order.
+    */
+   private ClusterNodeAddress[] members = EMPTY_MEMBERS;
+
+   /**
+    * Primary owners indexed by the partition number. Calculated from the members.
+    */
+   private transient ClusterNodeAddress[] primaryOwners = new ClusterNodeAddress[PARTITION_COUNT];
+
+   /**
+    * Backup owners indexed by the partition number. Calculated from the members.
+    */
+   private transient ClusterNodeAddress[] backupOwners = new ClusterNodeAddress[PARTITION_COUNT];
+
+
+   /**
+    * Required by Wireable. Creates an empty assignment.
+    */
+   public LockPartitionAssignment() {
+
+   }
+
+
+   private LockPartitionAssignment(final long version, final ClusterNodeAddress[] members) {
+
+      this.version = version;
+      this.members = members;
+      assignOwners();
+   }
+
+
+   /**
+    * Returns a number of the partition that holds the lock queue for the given lock.
+    *
+    * @param lockRegionName the name of the lock region.
+    * @param lockKey        the lock key.
+    * @return the number of the partition, from 0 to {@link #PARTITION_COUNT} - 1.
+    */
+   public static int getPartition(final String lockRegionName, final Binary lockKey) {
+
+      return BucketIndexCalculator.calculateBucketIndex(new LockQueueKey(lockRegionName, lockKey).hashCode(),
+              PARTITION_COUNT);
+   }
+
+
+   public long getVersion() {
+
+      return version;
+   }
+
+
+   /**
+    * Returns the members in their natural order.
+    *
+    * @return the members in their natural order.
+    */
+   public List<ClusterNodeAddress> getMembers() {
+
+      return new ArrayList<ClusterNodeAddress>(Arrays.asList(members));
+   }
+
+
+   public boolean contains(final ClusterNodeAddress address) {
+
+      return Arrays.binarySearch(members, address) >= 0;
+   }
+
+
+   /**
+    * Returns the primary owner of the partition.
+    *
+    * @param partition the partition number.
+    * @return the primary owner or <code>null</code> if there are no members.
+    */
+   public ClusterNodeAddress getPrimaryOwner(final int partition) {
+
+      return primaryOwners[partition];
+   }
+
+
+   /**
+    * Returns the primary owner of the partition that holds the lock queue for the given lock.
+    *
+    * @param lockRegionName the name of the lock region.
+    * @param lockKey        the lock key.
+    * @return the primary owner or <code>null</code> if there are no members.
+    */
+   public ClusterNodeAddress getPrimaryOwner(final String lockRegionName, final Binary lockKey) {
+
+      return primaryOwners[getPartition(lockRegionName, lockKey)];
+   }
+
+
+   /**
+    * Returns the backup owner of the partition.
+    *
+    * @param partition the partition number.
+    * @return the backup owner or <code>null</code> if there are less than two members.
+    */
+   public ClusterNodeAddress getBackupOwner(final int partition) {
+
+      return backupOwners[partition];
+   }
+
+
+   /**
+    * Returns an assignment that includes the given member.
+    *
+    * @param address the address of the member.
+    * @return the new assignment or this assignment if it already includes the member.
+    */
+   public LockPartitionAssignment addMember(final ClusterNodeAddress address) {
+
+      if (contains(address)) {
+
+         return this;
+      }
+
+      final ClusterNodeAddress[] newMembers = Arrays.copyOf(members, members.length + 1);
+      newMembers[members.length] = address;
+      Arrays.sort(newMembers);
+      return new LockPartitionAssignment(version + 1L, newMembers);
+   }
+
+
+   /**
+    * Returns an assignment that does not include the given members.
+    *
+    * @param addresses the addresses of the members to remove.
+    * @return the new assignment or this assignment if it does not include any of the members.
+    */
+   public LockPartitionAssignment removeMembers(final Collection<ClusterNodeAddress> addresses) {
+
+      final List<ClusterNodeAddress> newMembers = new ArrayList<ClusterNodeAddress>(members.length);
+      for (final ClusterNodeAddress member : members) {
+
+         if (!addresses.contains(member)) {
+
+            newMembers.add(member);
+         }
+      }
+
+      if (newMembers.size() == members.length) {
+
+         return this;
+      }
+
+      return new LockPartitionAssignment(version + 1L, newMembers.toArray(new ClusterNodeAddress[newMembers.size()]));
+   }
+
+
+   /**
+    * Assigns each partition to the two members with the highest weight for the partition.
+    */
+   private void assignOwners() {
+
+      for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+
+         ClusterNodeAddress primary = null;
+         ClusterNodeAddress backup = null;
+         for (final ClusterNodeAddress member : members) {
+
+            if (primary == null || isHeavier(partition, member, primary)) {
+
+               backup = primary;
+               primary = member;
+            } else if (backup == null || isHeavier(partition, member, backup)) {
+
+               backup = member;
+            }
+         }
+
+         primaryOwners[partition] = primary;
+         backupOwners[partition] = backup;
+      }
+   }
+
+
+   private static boolean isHeavier(final int partition, final ClusterNodeAddress member,
+           final ClusterNodeAddress other) {
+
+      final int memberWeight = weight(partition, member);
+      final int otherWeight = weight(partition, other);
+      if (memberWeight != otherWeight) {
+
+         return memberWeight > otherWeight;
+      }
+
+      //noinspection unchecked
+      return member.compareTo(other) > 0;
+   }
+
+
+   /**
+    * Calculates a weight of the member for the partition. The weight depends only on the partition and the address,
+    * so it is the same on all members.
+    */
+   private static int weight(final int partition, final ClusterNodeAddress member) {
+
+      int h = member.hashCode() ^ partition * 0x9e3779b9;
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      h ^= h >>> 16;
+      return h;
+   }
+
+
+   public int getWireableType() {
+
+      return TYPE_LOCK_PARTITION_ASSIGNMENT;
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      out.writeLong(version);
+      out.writeInt(members.length);
+      for (final ClusterNodeAddress member : members) {
+
+         SerializerUtils.writeAddress(member, out);
+      }
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException {
+
+      version = in.readLong();
+      final int size = in.readInt();
+      members = new ClusterNodeAddress[size];
+      for (int i = 0; i < size; i++) {
+
+         members[i] = SerializerUtils.readAddress(in);
+      }
+      primaryOwners = new ClusterNodeAddress[PARTITION_COUNT];
+      backupOwners = new ClusterNodeAddress[PARTITION_COUNT];
+      assignOwners();
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+
+      final LockPartitionAssignment that = (LockPartitionAssignment) o;
+
+      if (version != that.version) {
+         return false;
+      }
+      if (!Arrays.equals(members, that.members)) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = (int) (version ^ version >>> 32);
+      result = 31 * result + Arrays.hashCode(members);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "LockPartitionAssignment{" +
+              "version=" + version +
+              ", members=" + Arrays.toString(members) +
+              '}';
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new LockPartitionAssignment();
+      }
+   }
+}
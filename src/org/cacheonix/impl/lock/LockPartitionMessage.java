@@ -0,0 +1,168 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.cacheonix.impl.net.cluster.ClusterMessage;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+
+/**
+ * A message that moves the lock queues of a lock partition between its owners.
+ * <p/>
+ * The message carries the version of the {@link LockPartitionAssignment} the sender acted upon. A receiver that has
+ * not reached this version yet defers the message until it does, so the receiver and the sender agree on the owners
+ * of the partition when the message is applied.
+ */
+@SuppressWarnings("RedundantIfStatement")
+abstract class LockPartitionMessage extends ClusterMessage {
+
+   /**
+    * The partition number.
+    */
+   private int partition = 0;
+
+   /**
+    * The version of the lock partition assignment the sender acted upon.
+    */
+   private long version = 0L;
+
+
+   LockPartitionMessage(final int wireableType) {
+
+      super(wireableType);
+   }
+
+
+   LockPartitionMessage(final int wireableType, final int partition, final long version) {
+
+      super(wireableType);
+      this.partition = partition;
+      this.version = version;
+   }
+
+
+   public final int getPartition() {
+
+      return partition;
+   }
+
+
+   public final long getVersion() {
+
+      return version;
+   }
+
+
+   protected final void processNormal() {
+
+      receive();
+   }
+
+
+   protected final void processBlocked() {
+
+      receive();
+   }
+
+
+   protected final void processRecovery() {
+
+      receive();
+   }
+
+
+   protected final void processCleanup() {
+
+      receive();
+   }
+
+
+   private void receive() {
+
+      final ClusterProcessor processor = getClusterProcessor();
+      processor.getProcessorState().getPartitionedLockManager().receive(processor, this);
+   }
+
+
+   /**
+    * Applies this message once the receiver has reached the version of the lock partition assignment the sender acted
+    * upon.
+    *
+    * @param processor the cluster processor.
+    * @param manager   the node-local manager of the lock partitions.
+    */
+   abstract void apply(ClusterProcessor processor, PartitionedLockManager manager);
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeInt(partition);
+      out.writeLong(version);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      partition = in.readInt();
+      version = in.readLong();
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final LockPartitionMessage that = (LockPartitionMessage) o;
+
+      if (partition != that.partition) {
+         return false;
+      }
+      if (version != that.version) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + partition;
+      result = 31 * result + (int) (version ^ version >>> 32);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "LockPartitionMessage{" +
+              "partition=" + partition +
+              ", version=" + version +
+              "} " + super.toString();
+   }
+}
@@ -0,0 +1,170 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * Carries the lock owners of a lock partition. A primary owner that loses the partition hands it off to the new
+ * primary owner, and a primary owner sends a full copy to a new backup owner. Pending requests are not transferred,
+ * the previous owner asks their requesters to retry.
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class LockPartitionTransfer extends LockPartitionMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * <code>true</code> if this is a copy for the backup owner, <code>false</code> if this is a hand-off to the new
+    * primary owner.
+    */
+   private boolean backup = false;
+
+   /**
+    * The lock owners of the partition.
+    */
+   private LockRegistry registry = null;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public LockPartitionTransfer() {
+
+      super(TYPE_LOCK_PARTITION_TRANSFER);
+   }
+
+
+   /**
+    * Creates a partition transfer.
+    *
+    * @param partition the partition number.
+    * @param version   the version of the lock partition assignment the sender acted upon.
+    * @param backup    <code>true</code> if this is a copy for the backup owner, <code>false</code> if this is a
+    *                  hand-off to the new primary owner.
+    * @param registry  the lock owners of the partition. The registry must not be shared with the sender.
+    */
+   public LockPartitionTransfer(final int partition, final long version, final boolean backup,
+           final LockRegistry registry) {
+
+      super(TYPE_LOCK_PARTITION_TRANSFER, partition, version);
+      this.backup = backup;
+      this.registry = registry;
+   }
+
+
+   public boolean isBackup() {
+
+      return backup;
+   }
+
+
+   public LockRegistry getRegistry() {
+
+      return registry;
+   }
+
+
+   void apply(final ClusterProcessor processor, final PartitionedLockManager manager) {
+
+      if (backup) {
+
+         manager.receiveBackupCopy(processor, this);
+      } else {
+
+         manager.receiveHandOff(processor, this);
+      }
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeBoolean(backup);
+      registry.writeWire(out);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      backup = in.readBoolean();
+      registry = new LockRegistryImpl();
+      registry.readWire(in);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final LockPartitionTransfer that = (LockPartitionTransfer) o;
+
+      if (backup != that.backup) {
+         return false;
+      }
+      if (registry != null ? !registry.equals(that.registry) : that.registry != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (backup ? 1 : 0);
+      result = 31 * result + (registry != null ? registry.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "LockPartitionTransfer{" +
+              "backup=" + backup +
+              ", registry=" + registry +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new LockPartitionTransfer();
+      }
+   }
+}
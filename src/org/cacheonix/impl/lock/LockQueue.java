@@ -38,6 +38,14 @@ public interface LockQueue extends Wireable {
     */
    boolean areReadLocksGranted();
 
+   /**
+    * Returns <code>true</code> if this lock queue has neither lock owners nor pending lock requests. An empty lock
+    * queue carries no state and is equivalent to a lock queue that was not created yet.
+    *
+    * @return <code>true</code> if this lock queue has neither lock owners nor pending lock requests.
+    */
+   boolean isEmpty();
+
    /**
     * Return true if there is only read request and it belongs to a particular lock request.
     *
@@ -92,4 +100,12 @@ public interface LockQueue extends Wireable {
     * @return <code>true</code> if a forced release had been initiated for the given lock owner.
     */
    boolean isRegisteredInForcedReleases(LockOwner ownerToCheck);
+
+   /**
+    * Returns a copy of this lock queue that holds copies of the lock owners but not the pending requests. The copy is
+    * used to replicate the lock owners to the backup owner of the lock partition.
+    *
+    * @return the copy of the lock owners.
+    */
+   LockQueue copyOwners();
 }
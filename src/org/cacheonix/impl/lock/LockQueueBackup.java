@@ -0,0 +1,162 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * Replicates the lock owners of a single lock queue from the primary owner of the lock partition to the backup owner.
+ * An empty lock queue means that nobody holds the lock anymore.
+ * <p/>
+ * The primary owner does not wait for the backup owner, so replicating a change does not add to the time it takes to
+ * acquire or release a lock.
+ */
+@SuppressWarnings("RedundantIfStatement")
+public final class LockQueueBackup extends LockPartitionMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   private LockQueueKey lockQueueKey = null;
+
+   /**
+    * The lock owners. Pending requests are not replicated.
+    */
+   private LockQueue lockQueue = null;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public LockQueueBackup() {
+
+      super(TYPE_LOCK_QUEUE_BACKUP);
+   }
+
+
+   /**
+    * Creates a lock queue backup.
+    *
+    * @param partition    the partition number.
+    * @param version      the version of the lock partition assignment the sender acted upon.
+    * @param lockQueueKey the key of the lock queue.
+    * @param lockQueue    the lock owners. The lock queue must not be shared with the sender.
+    */
+   public LockQueueBackup(final int partition, final long version, final LockQueueKey lockQueueKey,
+           final LockQueue lockQueue) {
+
+      super(TYPE_LOCK_QUEUE_BACKUP, partition, version);
+      this.lockQueueKey = lockQueueKey;
+      this.lockQueue = lockQueue;
+   }
+
+
+   public LockQueueKey getLockQueueKey() {
+
+      return lockQueueKey;
+   }
+
+
+   public LockQueue getLockQueue() {
+
+      return lockQueue;
+   }
+
+
+   void apply(final ClusterProcessor processor, final PartitionedLockManager manager) {
+
+      manager.receiveBackup(processor, this);
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      lockQueueKey.writeWire(out);
+      lockQueue.writeWire(out);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      lockQueueKey = new LockQueueKey();
+      lockQueueKey.readWire(in);
+      lockQueue = new LockQueueImpl();
+      lockQueue.readWire(in);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final LockQueueBackup that = (LockQueueBackup) o;
+
+      if (lockQueueKey != null ? !lockQueueKey.equals(that.lockQueueKey) : that.lockQueueKey != null) {
+         return false;
+      }
+      if (lockQueue != null ? !lockQueue.equals(that.lockQueue) : that.lockQueue != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (lockQueueKey != null ? lockQueueKey.hashCode() : 0);
+      result = 31 * result + (lockQueue != null ? lockQueue.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "LockQueueBackup{" +
+              "lockQueueKey=" + lockQueueKey +
+              ", lockQueue=" + lockQueue +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new LockQueueBackup();
+      }
+   }
+}
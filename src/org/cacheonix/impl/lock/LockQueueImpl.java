@@ -51,7 +51,7 @@ public final class LockQueueImpl implements LockQueue {
    /**
     * A registry of forced release announcements. Contains both read and write lock owners.
     * <p/>
-    * Note that it transient and makes sense only on the cluster representative.
+    * Note that it transient and makes sense only on the primary owner of the lock partition.
     */
    private final transient LinkedList<LockOwner> forcedReleasesRegistry = new LinkedList<LockOwner>(); // NOPMD
 
@@ -79,6 +79,12 @@ public final class LockQueueImpl implements LockQueue {
    }
 
 
+   public boolean isEmpty() {
+
+      return writeLockOwner == null && readLockOwners.isEmpty() && pendingRequests.isEmpty();
+   }
+
+
    @SuppressWarnings("SimplifiableIfStatement")
    public boolean isOnlyReadLockCameFrom(final AcquireLockRequest acquireLockRequest) {
 
@@ -280,6 +286,17 @@ public final class LockQueueImpl implements LockQueue {
    }
 
 
+   public LockQueue copyOwners() {
+
+      final LockQueueImpl copy = new LockQueueImpl();
+      copy.writeLockOwner = writeLockOwner == null ? null : writeLockOwner.copy();
+      for (final LockOwner readLockOwner : readLockOwners) {
+         copy.readLockOwners.add(readLockOwner.copy());
+      }
+      return copy;
+   }
+
+
    public void writeWire(final DataOutputStream out) throws IOException {
 
       if (writeLockOwner == null) {
@@ -288,6 +305,10 @@ public final class LockQueueImpl implements LockQueue {
          out.writeBoolean(false);
          writeLockOwner.writeWire(out);
       }
+      out.writeInt(readLockOwners.size());
+      for (final LockOwner readLockOwner : readLockOwners) {
+         readLockOwner.writeWire(out);
+      }
       out.writeInt(pendingRequests.size());
       for (final AcquireLockRequest lockRequest : pendingRequests) {
          lockRequest.writeWire(out);
@@ -303,6 +324,12 @@ public final class LockQueueImpl implements LockQueue {
          writeLockOwner = new LockOwner();
          writeLockOwner.readWire(in);
       }
+      final int readLockOwnerCount = in.readInt();
+      for (int i = 0; i < readLockOwnerCount; i++) {
+         final LockOwner readLockOwner = new LockOwner();
+         readLockOwner.readWire(in);
+         readLockOwners.add(readLockOwner);
+      }
       final int size = in.readInt();
       for (int i = 0; i < size; i++) {
          final AcquireLockRequest lockRequest = new AcquireLockRequest();
@@ -17,5 +17,27 @@ public interface LockRegistry extends Wireable {
     */
    LockQueue getLockQueue(String lockRegionName, Binary lockKey);
 
+   /**
+    * Returns a lock queue for a lock identified by the combination of <code>lockRegionName</code> and
+    * <code>lockKey</code>. Unlike {@link #getLockQueue(String, Binary)}, does not create the lock queue if it does not
+    * exist.
+    *
+    * @param lockRegionName a name of the region where this lock is placed.
+    * @param lockKey        a lock identifier.
+    * @return the lock queue or <code>null</code> if the lock queue does not exist.
+    */
+   LockQueue findLockQueue(String lockRegionName, Binary lockKey);
+
+   /**
+    * Removes a lock queue for a lock identified by the combination of <code>lockRegionName</code> and
+    * <code>lockKey</code> if the lock queue is empty. Lock queues are created on demand, so removing them once they
+    * become empty keeps the registry proportional to the number of locks being held or waited for.
+    *
+    * @param lockRegionName a name of the region where this lock is placed.
+    * @param lockKey        a lock identifier.
+    * @see LockQueue#isEmpty()
+    */
+   void removeLockQueueIfEmpty(String lockRegionName, Binary lockKey);
+
    HashMap<LockQueueKey, LockQueue> getLockQueues();
 }
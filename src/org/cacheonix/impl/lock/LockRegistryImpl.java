@@ -70,6 +70,29 @@ public final class LockRegistryImpl implements LockRegistry {
    }
 
 
+   /**
+    * {@inheritDoc}
+    */
+   public LockQueue findLockQueue(final String lockRegionName, final Binary lockKey) {
+
+      return lockQueues.get(new LockQueueKey(lockRegionName, lockKey));
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void removeLockQueueIfEmpty(final String lockRegionName, final Binary lockKey) {
+
+      final LockQueueKey lockQueueKey = new LockQueueKey(lockRegionName, lockKey);
+      final LockQueue lockQueue = lockQueues.get(lockQueueKey);
+      if (lockQueue != null && lockQueue.isEmpty()) {
+
+         lockQueues.remove(lockQueueKey);
+      }
+   }
+
+
    public HashMap<LockQueueKey, LockQueue> getLockQueues() { // NOPMD
 
       return lockQueues;
@@ -89,11 +112,27 @@ public final class LockRegistryImpl implements LockRegistry {
 
    /**
     * {@inheritDoc}
+    * <p/>
+    * This implementation writes only lock queues that are not empty. Lock queues are created on demand and are not
+    * removed after the lock is released, so empty queues can make up most of the registry. Skipping them keeps
+    * replicated state sent to joining nodes compact.
+    *
+    * @see LockQueue#isEmpty()
     */
    public void writeWire(final DataOutputStream out) throws IOException {
 
+      // Count non-empty lock queues
+      int size = 0;
+      for (final LockQueue lockQueue : lockQueues.values()) {
+
+         if (!lockQueue.isEmpty()) {
+
+            size++;
+         }
+      }
+
       // Write map size
-      out.writeInt(lockQueues.size());
+      out.writeInt(size);
 
       // Write map entries
       final IOException[] exception = new IOException[1];
@@ -101,6 +140,11 @@ public final class LockRegistryImpl implements LockRegistry {
 
          public boolean execute(final LockQueueKey key, final LockQueue value) {
 
+            if (value.isEmpty()) {
+
+               return true;
+            }
+
             try {
 
                key.writeWire(out);
@@ -20,17 +20,22 @@ import java.io.IOException;
 import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.cluster.ClusterProcessorKey;
 import org.cacheonix.impl.net.cluster.ClusterResponse;
-import org.cacheonix.impl.net.cluster.ReplicatedStateProcessorKey;
+import org.cacheonix.impl.net.processor.InvalidMessageException;
 import org.cacheonix.impl.net.processor.ProcessorKey;
 import org.cacheonix.impl.net.processor.Request;
 import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.net.processor.RetryException;
 import org.cacheonix.impl.net.processor.SimpleWaiter;
-import org.cacheonix.impl.net.processor.Waiter;
 import org.cacheonix.impl.net.serializer.SerializerUtils;
 
 /**
- * A request to acquire a lock.
+ * A point-to-point request about a lock. Lock requests are sent to the primary owner of the lock partition that holds
+ * the lock queue.
+ *
+ * @see LockPartitionAssignment
+ * @see PartitionedLockManager
  */
 @SuppressWarnings("RedundantIfStatement")
 abstract class LockRequest extends Request {
@@ -107,10 +112,28 @@ abstract class LockRequest extends Request {
     */
    protected ProcessorKey getProcessorKey() {
 
-      return ReplicatedStateProcessorKey.getInstance();
+      return ClusterProcessorKey.getInstance();
+   }
+
+
+   public void validate() throws InvalidMessageException {
+
+      super.validate();
+
+      if (!isReceiverSet()) {
+         throw new InvalidMessageException("Lock request should be sent to the owner of the lock partition");
+      }
    }
 
 
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * Lock requests are executed by the cluster processor thread and do not block.
+    */
+   public abstract void execute();
+
+
    /**
     * Returns the name of the lock region.
     *
@@ -188,6 +211,17 @@ abstract class LockRequest extends Request {
    }
 
 
+   /**
+    * Returns a node-local manager of the lock partitions.
+    *
+    * @return the node-local manager of the lock partitions.
+    */
+   final PartitionedLockManager getPartitionedLockManager() {
+
+      return getClusterProcessor().getProcessorState().getPartitionedLockManager();
+   }
+
+
    /**
     * Creates a response with receiver set to the sender of this message and a populated responseToUUID.
     *
@@ -207,7 +241,7 @@ abstract class LockRequest extends Request {
 
    public Waiter createWaiter() {
 
-      return new SimpleWaiter(this);
+      return new Waiter(this);
    }
 
 
@@ -293,4 +327,30 @@ abstract class LockRequest extends Request {
               ", ownerThreadName='" + ownerThreadName + '\'' +
               "} " + super.toString();
    }
+
+
+   /**
+    * A waiter for a response from the owner of the lock partition.
+    */
+   static class Waiter extends SimpleWaiter {
+
+      Waiter(final Request request) {
+
+         super(request);
+      }
+
+
+      /**
+       * {@inheritDoc}
+       * <p/>
+       * The owner of the lock partition may leave before responding. The request is then retried with the new owner.
+       */
+      protected synchronized void notifyFinished() {
+
+         if (!isResponseReceived()) {
+            setResult(new RetryException("Finished waiting for response without receiving a result"));
+         }
+         super.notifyFinished();
+      }
+   }
 }
@@ -46,13 +46,26 @@ public final class NextLockRequestGranter {
 
    /**
     * Grants next lock request(s) while possible. The granter is capable of detecting if there is work to do.
+    *
+    * @return <code>true</code> if granted at least one lock request.
     */
-   public void grantNextLockRequests() {
+   public boolean grantNextLockRequests() {
 
       // Grant next lock request(s) while possible.
-      //noinspection StatementWithEmptyBody
-      while (grantNextLockRequest()) { // NOPMD
+      boolean granted = false;
+      while (grantNextLockRequest()) {
+         granted = true;
+      }
+
+      // Ask the lease owner to give back its lease if other owners still wait for it
+      final AcquireLockRequest waitingRequest = lockQueue.getPendingRequests().peek();
+      if (waitingRequest != null) {
+
+         LockLeaseRegistry.revokeIfContended(clusterProcessor, waitingRequest.getLockRegionName(),
+                 waitingRequest.getLockKey(), lockQueue);
       }
+
+      return granted;
    }
 
 
@@ -161,9 +174,7 @@ public final class NextLockRequestGranter {
 
    private void respondLockGranted(final AcquireLockRequest request) {
 
-      if (clusterProcessor.getAddress().equals(request.getOwnerAddress())) {
-         clusterProcessor.post(request.createLockGrantedResponse());
-      }
+      clusterProcessor.post(request.createLockGrantedResponse());
    }
 
 
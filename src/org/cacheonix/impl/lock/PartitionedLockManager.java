@@ -0,0 +1,721 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.clock.Time;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.cluster.ClusterProcessorState;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * A node-local manager of the lock partitions.
+ * <p/>
+ * Lock queues are partitioned by their keys onto cluster members according to the {@link LockPartitionAssignment} in
+ * the replicated state. The primary owner of a partition keeps its lock queues and processes all lock requests for
+ * them, so an uncontended acquire or release costs one round trip between the requester and the owner. The primary
+ * owner replicates the lock owners to the backup owner asynchronously.
+ * <p/>
+ * When the assignment changes, the previous primary owner hands the lock owners off to the new primary owner and asks
+ * the requesters waiting in the lock queues to retry. The new primary owner parks requests until the hand-off arrives.
+ * If the previous primary owner has left the cluster, the backup owner becomes the primary owner and activates the
+ * partition from its copy.
+ * <p/>
+ * This class is not thread safe. It is accessed by the cluster processor thread only.
+ */
+public final class PartitionedLockManager {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(PartitionedLockManager.class); // NOPMD
+
+   /**
+    * Time a new primary owner waits for the hand-off from the previous primary owner before it activates the partition
+    * from its backup copy.
+    */
+   static final long HAND_OFF_TIMEOUT_MILLIS = 10000L;
+
+   /**
+    * Partitions indexed by the partition number. Created on demand.
+    */
+   private final LockPartition[] partitions = new LockPartition[LockPartitionAssignment.PARTITION_COUNT];
+
+   /**
+    * Messages sent for an assignment version this node has not reached yet, in the order they were received.
+    */
+   private final LinkedList<LockPartitionMessage> deferredMessages = new LinkedList<LockPartitionMessage>(); // NOPMD
+
+
+   /**
+    * Returns the lock registry of the partition that holds the lock queue for the request if this node can process the
+    * request now. Otherwise, parks the request if the partition is on its way to this node, or rejects it.
+    * <p/>
+    * A rejected request that requires a response is answered with {@link Response#RESULT_RETRY}, so the requester
+    * retries with the current owner. A rejected request that does not require a response is forwarded to the current
+    * owner.
+    *
+    * @param request the lock request.
+    * @return the lock registry of the partition or <code>null</code> if the request was parked or rejected.
+    */
+   LockRegistry admit(final LockRequest request) {
+
+      final ClusterProcessor processor = request.getClusterProcessor();
+      final ClusterProcessorState processorState = processor.getProcessorState();
+      if (processorState.getReplicatedStateTransfer().isPending()) {
+
+         // The assignment is not known yet
+         reject(processor, request, null);
+         return null;
+      }
+
+      final LockPartitionAssignment assignment = processorState.getReplicatedState().getLockPartitionAssignment();
+      final int number = LockPartitionAssignment.getPartition(request.getLockRegionName(), request.getLockKey());
+      final ClusterNodeAddress primaryOwner = assignment.getPrimaryOwner(number);
+      if (!processor.getAddress().equals(primaryOwner)) {
+
+         reject(processor, request, primaryOwner);
+         return null;
+      }
+
+      final LockPartition partition = getPartition(number);
+      if (!partition.isActive()) {
+
+         //noinspection ControlFlowStatementWithoutBraces
+         if (LOG.isDebugEnabled()) LOG.debug("Parking request until partition arrives: " + request); // NOPMD
+
+         partition.park(request);
+         return null;
+      }
+
+      return partition.getRegistry();
+   }
+
+
+   private static void reject(final ClusterProcessor processor, final LockRequest request,
+           final ClusterNodeAddress primaryOwner) {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Rejecting request, primary owner: " + primaryOwner + ", request: " + request); // NOPMD
+
+      if (request.isResponseRequired()) {
+
+         processor.post(request.createResponse(Response.RESULT_RETRY));
+      } else if (primaryOwner != null && !processor.getAddress().equals(primaryOwner)) {
+
+         request.setSender(processor.getAddress());
+         request.setReceiver(primaryOwner);
+         processor.post(request);
+      }
+   }
+
+
+   /**
+    * Replicates the lock owners of a lock queue to the backup owner of its partition.
+    *
+    * @param processor      the cluster processor.
+    * @param lockRegionName the name of the lock region.
+    * @param lockKey        the lock key.
+    * @param lockQueue      the lock queue.
+    */
+   void replicate(final ClusterProcessor processor, final String lockRegionName, final Binary lockKey,
+           final LockQueue lockQueue) {
+
+      final LockPartitionAssignment assignment = getAssignment(processor);
+      final int number = LockPartitionAssignment.getPartition(lockRegionName, lockKey);
+      final ClusterNodeAddress backupOwner = assignment.getBackupOwner(number);
+      if (backupOwner == null) {
+         return;
+      }
+
+      final LockQueueBackup backup = new LockQueueBackup(number, assignment.getVersion(),
+              new LockQueueKey(lockRegionName, lockKey), lockQueue.copyOwners());
+      backup.setReceiver(backupOwner);
+      processor.post(backup);
+   }
+
+
+   /**
+    * Moves the partitions after the assignment has changed.
+    *
+    * @param processor the cluster processor.
+    * @param previous  the previous assignment.
+    * @param current   the current assignment.
+    */
+   public void reassign(final ClusterProcessor processor, final LockPartitionAssignment previous,
+           final LockPartitionAssignment current) {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Reassigning lock partitions from " + previous + " to " + current); // NOPMD
+
+      final ClusterNodeAddress self = processor.getAddress();
+      for (int number = 0; number < partitions.length; number++) {
+
+         final ClusterNodeAddress primaryOwner = current.getPrimaryOwner(number);
+         final ClusterNodeAddress backupOwner = current.getBackupOwner(number);
+         if (self.equals(primaryOwner)) {
+
+            final LockPartition partition = getPartition(number);
+            if (partition.isActive()) {
+
+               if (backupOwner != null && !backupOwner.equals(previous.getBackupOwner(number))) {
+
+                  sendBackupCopy(processor, partition, current);
+               }
+            } else if (partition.isAwaiting()) {
+
+               if (!current.contains(partition.getAwaitedOwner())) {
+
+                  // The previous owner left before handing the partition off
+                  activate(processor, partition, partition.getBackup(), current);
+               }
+            } else {
+
+               final ClusterNodeAddress previousOwner = previous.getPrimaryOwner(number);
+               if (previousOwner != null && !self.equals(previousOwner) && current.contains(previousOwner)) {
+
+                  partition.await(previousOwner, processor.getClock().currentTimeMillis());
+               } else {
+
+                  activate(processor, partition, partition.getBackup(), current);
+               }
+            }
+         } else {
+
+            final LockPartition partition = partitions[number];
+            if (partition == null) {
+               continue;
+            }
+
+            if (partition.isActive()) {
+
+               handOff(processor, partition, primaryOwner, current);
+            } else if (partition.isAwaiting()) {
+
+               partition.cancelAwaiting();
+               for (final LockRequest request : partition.takeParkedRequests()) {
+
+                  reject(processor, request, primaryOwner);
+               }
+            }
+
+            if (!self.equals(backupOwner)) {
+
+               partition.setBackup(null);
+            }
+         }
+      }
+
+      processDeferredMessages(processor);
+   }
+
+
+   /**
+    * Removes the owners and the pending requests of the nodes that are not in the assignment from the active
+    * partitions. Grants pending lock requests if the removed owners held locks.
+    *
+    * @param processor the cluster processor.
+    */
+   public void removeOwnersNotInAssignment(final ClusterProcessor processor) {
+
+      final LockPartitionAssignment assignment = getAssignment(processor);
+      for (final LockPartition partition : partitions) {
+
+         if (partition == null || !partition.isActive()) {
+            continue;
+         }
+
+         final LockRegistry registry = partition.getRegistry();
+         final List<LockQueueKey> emptyLockQueueKeys = new ArrayList<LockQueueKey>(1);
+         for (final Entry<LockQueueKey, LockQueue> entry : registry.getLockQueues().entrySet()) {
+
+            final LockQueue lockQueue = entry.getValue();
+            final boolean removed = removeOwnersNotIn(assignment, lockQueue);
+            final boolean granted = new NextLockRequestGranter(processor, lockQueue).grantNextLockRequests();
+            if (removed || granted) {
+
+               final LockQueueKey key = entry.getKey();
+               replicate(processor, key.getLockRegionName(), key.getLockKey(), lockQueue);
+            }
+
+            if (lockQueue.isEmpty()) {
+
+               emptyLockQueueKeys.add(entry.getKey());
+            }
+         }
+
+         for (final LockQueueKey key : emptyLockQueueKeys) {
+
+            registry.removeLockQueueIfEmpty(key.getLockRegionName(), key.getLockKey());
+         }
+      }
+   }
+
+
+   /**
+    * Receives a partition message. The message is deferred if this node has not reached the assignment version the
+    * sender acted upon.
+    *
+    * @param processor the cluster processor.
+    * @param message   the message.
+    */
+   void receive(final ClusterProcessor processor, final LockPartitionMessage message) {
+
+      if (processor.getProcessorState().getReplicatedStateTransfer().isPending()
+              || message.getVersion() > getAssignment(processor).getVersion()) {
+
+         //noinspection ControlFlowStatementWithoutBraces
+         if (LOG.isDebugEnabled()) LOG.debug("Deferring message until assignment is updated: " + message); // NOPMD
+
+         deferredMessages.add(message);
+         return;
+      }
+
+      message.apply(processor, this);
+   }
+
+
+   /**
+    * Receives the lock owners of a partition handed off by the previous primary owner.
+    *
+    * @param processor the cluster processor.
+    * @param transfer  the hand-off.
+    */
+   void receiveHandOff(final ClusterProcessor processor, final LockPartitionTransfer transfer) {
+
+      final LockPartitionAssignment assignment = getAssignment(processor);
+      final int number = transfer.getPartition();
+      final ClusterNodeAddress primaryOwner = assignment.getPrimaryOwner(number);
+      if (!processor.getAddress().equals(primaryOwner)) {
+
+         // The partition has moved on while the hand-off was on its way
+         if (primaryOwner != null) {
+
+            final LockPartitionTransfer forward = new LockPartitionTransfer(number, assignment.getVersion(), false,
+                    transfer.getRegistry());
+            forward.setReceiver(primaryOwner);
+            processor.post(forward);
+         }
+         return;
+      }
+
+      final LockPartition partition = getPartition(number);
+      if (partition.isActive()) {
+
+         // The partition was activated without waiting for the hand-off. Keep the
+         // owners that this node does not know about.
+         LOG.warn("Received a hand-off for an active lock partition " + number + " from " + transfer.getSender());
+         final LockRegistry registry = partition.getRegistry();
+         for (final Entry<LockQueueKey, LockQueue> entry : transfer.getRegistry().getLockQueues().entrySet()) {
+
+            final LockQueueKey key = entry.getKey();
+            if (registry.findLockQueue(key.getLockRegionName(), key.getLockKey()) == null) {
+
+               registry.getLockQueues().put(key, entry.getValue());
+            }
+         }
+         removeOwnersNotIn(assignment, registry);
+         sendBackupCopy(processor, partition, assignment);
+      } else {
+
+         activate(processor, partition, transfer.getRegistry(), assignment);
+      }
+   }
+
+
+   /**
+    * Receives a full copy of the lock owners of a partition from its primary owner.
+    *
+    * @param processor the cluster processor.
+    * @param transfer  the copy.
+    */
+   void receiveBackupCopy(final ClusterProcessor processor, final LockPartitionTransfer transfer) {
+
+      final LockPartition partition = findBackupPartition(processor, transfer);
+      if (partition != null) {
+
+         partition.setBackup(transfer.getRegistry());
+      }
+   }
+
+
+   /**
+    * Receives a change of a lock queue from the primary owner of its partition.
+    *
+    * @param processor the cluster processor.
+    * @param backup    the change.
+    */
+   void receiveBackup(final ClusterProcessor processor, final LockQueueBackup backup) {
+
+      final LockPartition partition = findBackupPartition(processor, backup);
+      if (partition == null) {
+         return;
+      }
+
+      LockRegistry registry = partition.getBackup();
+      if (registry == null) {
+
+         registry = new LockRegistryImpl();
+         partition.setBackup(registry);
+      }
+
+      if (backup.getLockQueue().isEmpty()) {
+
+         registry.getLockQueues().remove(backup.getLockQueueKey());
+      } else {
+
+         registry.getLockQueues().put(backup.getLockQueueKey(), backup.getLockQueue());
+      }
+   }
+
+
+   /**
+    * Returns the partition if this node is its backup owner and the sender of the message is its primary owner.
+    *
+    * @return the partition or <code>null</code> if the message is outdated.
+    */
+   private LockPartition findBackupPartition(final ClusterProcessor processor, final LockPartitionMessage message) {
+
+      final LockPartitionAssignment assignment = getAssignment(processor);
+      final int number = message.getPartition();
+      if (!processor.getAddress().equals(assignment.getBackupOwner(number))
+              || !message.getSender().equals(assignment.getPrimaryOwner(number))) {
+
+         //noinspection ControlFlowStatementWithoutBraces
+         if (LOG.isDebugEnabled()) LOG.debug("Ignoring outdated backup: " + message); // NOPMD
+         return null;
+      }
+
+      return getPartition(number);
+   }
+
+
+   /**
+    * Posts forced releases of the locks held longer than their unlock timeout and activates the partitions that have
+    * not received a hand-off in {@link #HAND_OFF_TIMEOUT_MILLIS}.
+    * <p/>
+    * This method is called by the processor thread periodically.
+    *
+    * @param processor the cluster processor.
+    */
+   public void processTimeouts(final ClusterProcessor processor) {
+
+      final long currentTimeMillis = processor.getClock().currentTimeMillis();
+      final Time currentTime = processor.getClock().currentTime();
+      for (final LockPartition partition : partitions) {
+
+         if (partition == null) {
+            continue;
+         }
+
+         if (partition.isAwaiting() && currentTimeMillis - partition.getAwaitingSinceMillis() >= HAND_OFF_TIMEOUT_MILLIS) {
+
+            LOG.warn("Lock partition " + partition.getNumber() + " has not been handed off by "
+                    + partition.getAwaitedOwner() + " in " + HAND_OFF_TIMEOUT_MILLIS + " ms, activating from backup");
+            activate(processor, partition, partition.getBackup(), getAssignment(processor));
+         }
+
+         if (partition.isActive()) {
+
+            for (final Entry<LockQueueKey, LockQueue> entry : partition.getRegistry().getLockQueues().entrySet()) {
+
+               final LockQueue lockQueue = entry.getValue();
+               beginReleasingExpiredLock(processor, currentTime, entry.getKey(), lockQueue,
+                       lockQueue.getWriteLockOwner());
+               for (final LockOwner readLockOwner : lockQueue.getReadLockOwners()) {
+
+                  beginReleasingExpiredLock(processor, currentTime, entry.getKey(), lockQueue, readLockOwner);
+               }
+            }
+         }
+      }
+   }
+
+
+   /**
+    * For a given lock owner, if its time to unlock expired, posts a request to release the lock to this node.
+    */
+   private static void beginReleasingExpiredLock(final ClusterProcessor processor, final Time currentTime,
+           final LockQueueKey lockQueueKey, final LockQueue lockQueue, final LockOwner lockOwner) {
+
+      // Nothing to release
+      if (lockOwner == null || lockOwner.getUnlockTimeout() == null) {
+         return;
+      }
+
+      // Check if already registered
+      if (lockQueue.isRegisteredInForcedReleases(lockOwner)) {
+         return;
+      }
+
+      if (currentTime.compareTo(lockOwner.getUnlockTimeout()) > 0) {
+
+         // Register forced release
+         lockQueue.registerForcedRelease(lockOwner);
+
+         // Release
+         final ReleaseLockRequest request = new ReleaseLockRequest(lockQueueKey.getLockRegionName(),
+                 lockQueueKey.getLockKey(), lockOwner.getAddress(), lockOwner.getThreadID(), lockOwner.getThreadName(),
+                 lockOwner.isReadLock());
+         request.setResponseRequired(false); // Important to avoid sending useless response
+         request.setReceiver(processor.getAddress());
+         processor.post(request);
+      }
+   }
+
+
+   /**
+    * Drops all partitions. This method is called when this node begins receiving the replicated state of another
+    * cluster.
+    */
+   public void clear() {
+
+      for (int i = 0; i < partitions.length; i++) {
+
+         partitions[i] = null;
+      }
+      deferredMessages.clear();
+   }
+
+
+   /**
+    * Returns the partition or <code>null</code> if this node knows nothing about it.
+    *
+    * @param number the partition number.
+    * @return the partition or <code>null</code> if this node knows nothing about it.
+    */
+   LockPartition findPartition(final int number) {
+
+      return partitions[number];
+   }
+
+
+   private LockPartition getPartition(final int number) {
+
+      LockPartition partition = partitions[number];
+      if (partition == null) {
+
+         partition = new LockPartition(number);
+         partitions[number] = partition;
+      }
+      return partition;
+   }
+
+
+   /**
+    * Hands a partition off to its new primary owner. Requesters waiting in the lock queues are asked to retry with the
+    * new owner.
+    */
+   private static void handOff(final ClusterProcessor processor, final LockPartition partition,
+           final ClusterNodeAddress primaryOwner, final LockPartitionAssignment assignment) {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Handing lock partition " + partition.getNumber() + " off to " + primaryOwner); // NOPMD
+
+      final LockRegistry registry = partition.deactivate();
+      for (final LockQueue lockQueue : registry.getLockQueues().values()) {
+
+         for (final AcquireLockRequest request : lockQueue.getPendingRequests()) {
+
+            processor.post(request.createResponse(Response.RESULT_RETRY));
+         }
+         lockQueue.getPendingRequests().clear();
+      }
+
+      if (primaryOwner != null) {
+
+         final LockPartitionTransfer transfer = new LockPartitionTransfer(partition.getNumber(),
+                 assignment.getVersion(), false, copyOwners(registry));
+         transfer.setReceiver(primaryOwner);
+         processor.post(transfer);
+      }
+
+      // Keep the owners in case this node is the new backup owner
+      partition.setBackup(registry);
+   }
+
+
+   /**
+    * Activates a partition on its primary owner and runs the requests parked while it was on its way.
+    */
+   private void activate(final ClusterProcessor processor, final LockPartition partition,
+           final LockRegistry registry, final LockPartitionAssignment assignment) {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Activating lock partition " + partition.getNumber()); // NOPMD
+
+      final LockRegistry activeRegistry = registry == null ? new LockRegistryImpl() : registry;
+      removeOwnersNotIn(assignment, activeRegistry);
+      partition.activate(activeRegistry);
+
+      sendBackupCopy(processor, partition, assignment);
+
+      for (final LockRequest request : partition.takeParkedRequests()) {
+
+         request.execute();
+      }
+   }
+
+
+   private static void sendBackupCopy(final ClusterProcessor processor, final LockPartition partition,
+           final LockPartitionAssignment assignment) {
+
+      final ClusterNodeAddress backupOwner = assignment.getBackupOwner(partition.getNumber());
+      if (backupOwner == null) {
+         return;
+      }
+
+      final LockPartitionTransfer transfer = new LockPartitionTransfer(partition.getNumber(), assignment.getVersion(),
+              true, copyOwners(partition.getRegistry()));
+      transfer.setReceiver(backupOwner);
+      processor.post(transfer);
+   }
+
+
+   private void processDeferredMessages(final ClusterProcessor processor) {
+
+      if (deferredMessages.isEmpty()) {
+         return;
+      }
+
+      final List<LockPartitionMessage> messages = new ArrayList<LockPartitionMessage>(deferredMessages);
+      deferredMessages.clear();
+      for (final LockPartitionMessage message : messages) {
+
+         receive(processor, message);
+      }
+   }
+
+
+   private static LockPartitionAssignment getAssignment(final ClusterProcessor processor) {
+
+      return processor.getProcessorState().getReplicatedState().getLockPartitionAssignment();
+   }
+
+
+   /**
+    * Creates a copy of the lock owners of the registry. Pending requests are not copied.
+    */
+   private static LockRegistry copyOwners(final LockRegistry registry) {
+
+      final LockRegistry copy = new LockRegistryImpl();
+      for (final Entry<LockQueueKey, LockQueue> entry : registry.getLockQueues().entrySet()) {
+
+         final LockQueue lockQueue = entry.getValue().copyOwners();
+         if (!lockQueue.isEmpty()) {
+
+            copy.getLockQueues().put(entry.getKey(), lockQueue);
+         }
+      }
+      return copy;
+   }
+
+
+   /**
+    * Removes the owners and pending requests of the nodes that are not in the assignment from the registry. Removes
+    * the lock queues that become empty.
+    */
+   private static void removeOwnersNotIn(final LockPartitionAssignment assignment, final LockRegistry registry) {
+
+      final List<LockQueueKey> emptyLockQueueKeys = new ArrayList<LockQueueKey>(1);
+      for (final Entry<LockQueueKey, LockQueue> entry : registry.getLockQueues().entrySet()) {
+
+         final LockQueue lockQueue = entry.getValue();
+         removeOwnersNotIn(assignment, lockQueue);
+         if (lockQueue.isEmpty()) {
+
+            emptyLockQueueKeys.add(entry.getKey());
+         }
+      }
+
+      for (final LockQueueKey key : emptyLockQueueKeys) {
+
+         registry.removeLockQueueIfEmpty(key.getLockRegionName(), key.getLockKey());
+      }
+   }
+
+
+   /**
+    * Removes the owners and pending requests of the nodes that are not in the assignment from the lock queue.
+    *
+    * @return <code>true</code> if the lock owners changed.
+    */
+   private static boolean removeOwnersNotIn(final LockPartitionAssignment assignment, final LockQueue lockQueue) {
+
+      boolean removed = false;
+
+      // Clear write lock owner
+      final LockOwner writeLockOwner = lockQueue.getWriteLockOwner();
+      if (writeLockOwner != null && !assignment.contains(writeLockOwner.getAddress())) {
+
+         lockQueue.clearWriteLockOwner();
+         removed = true;
+      }
+
+      // Clear read lock owners
+      for (final Iterator<LockOwner> iterator = lockQueue.getReadLockOwners().iterator(); iterator.hasNext(); ) {
+
+         if (!assignment.contains(iterator.next().getAddress())) {
+
+            iterator.remove();
+            removed = true;
+         }
+      }
+
+      // Remove pending requests
+      for (final Iterator<AcquireLockRequest> iterator = lockQueue.getPendingRequests().iterator(); iterator.hasNext(); ) {
+
+         if (!assignment.contains(iterator.next().getOwnerAddress())) {
+
+            iterator.remove();
+         }
+      }
+
+      return removed;
+   }
+
+
+   public String toString() {
+
+      int active = 0;
+      int awaiting = 0;
+      int backup = 0;
+      for (final LockPartition partition : partitions) {
+
+         if (partition != null) {
+
+            active += partition.isActive() ? 1 : 0;
+            awaiting += partition.isAwaiting() ? 1 : 0;
+            backup += partition.getBackup() != null ? 1 : 0;
+         }
+      }
+
+      return "PartitionedLockManager{" +
+              "active=" + active +
+              ", awaiting=" + awaiting +
+              ", backup=" + backup +
+              ", deferredMessages.size()=" + deferredMessages.size() +
+              '}';
+   }
+}
@@ -14,10 +14,8 @@
 package org.cacheonix.impl.lock;
 
 import org.cacheonix.impl.cache.item.Binary;
-import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
-import org.cacheonix.impl.net.processor.RequestProcessor;
 import org.cacheonix.impl.net.processor.Response;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
@@ -71,25 +69,34 @@ public final class ReleaseLockRequest extends LockRequest {
     */
    public void execute() {
 
-      final ClusterProcessor processor = getClusterProcessor();
+      final LockRegistry lockRegistry = getPartitionedLockManager().admit(this);
+      if (lockRegistry == null) {
+         return;
+      }
 
-      final ReplicatedState state = processor.getProcessorState().getReplicatedState();
-      final LockRegistry lockRegistry = state.getLockRegistry();
-      final LockQueue lockQueue = lockRegistry.getLockQueue(getLockRegionName(), getLockKey());
+      final ClusterProcessor processor = getClusterProcessor();
+      final LockQueue lockQueue = lockRegistry.findLockQueue(getLockRegionName(), getLockKey());
 
       // Release lock
-      final boolean released = lockQueue.releaseLock(this);
+      final boolean released = lockQueue != null && lockQueue.releaseLock(this);
       if (released) {
 
          // Successfully unlocked
          respondUnlocked();
+
+         // Let the lease owner know that its lease is gone if this node has released it forcibly
+         if (getOwnerThreadID() == LockLeaseRegistry.LEASE_THREAD_ID && lockQueue.getWriteLockOwner() == null
+                 && processor.getAddress().equals(getSender())) {
+
+            notifyLeaseReleased(processor);
+         }
       } else {
 
          // Could not find the lock. This is possible if:
          //
          // a) Number of calls to unlock() is greater than number of locks().
          //
-         // b) This was a lock cancel request caused by the timeout that
+         // b) This was a forced release caused by the timeout that
          //    came after the lock was explicitly released.
          //
 
@@ -102,44 +109,55 @@ public final class ReleaseLockRequest extends LockRequest {
       // Lock was released.  Try to grant next lock(s) request in queue
       final NextLockRequestGranter nextLockRequestGranter = new NextLockRequestGranter(processor, lockQueue);
       nextLockRequestGranter.grantNextLockRequests();
+
+      // Replicate the owners to the backup owner
+      getPartitionedLockManager().replicate(processor, getLockRegionName(), getLockKey(), lockQueue);
+
+      // Discard the queue if nobody holds or waits for the lock
+      lockRegistry.removeLockQueueIfEmpty(getLockRegionName(), getLockKey());
+   }
+
+
+   private void notifyLeaseReleased(final ClusterProcessor processor) {
+
+      if (processor.getAddress().equals(getOwnerAddress())) {
+
+         processor.getProcessorState().getLockLeaseRegistry().leaseReleased(getLockRegionName(), getLockKey());
+      } else {
+
+         final LockLeaseAnnouncement announcement = new LockLeaseAnnouncement(getLockRegionName(), getLockKey(),
+                 getOwnerAddress(), false);
+         announcement.setReceiver(getOwnerAddress());
+         processor.post(announcement);
+      }
    }
 
 
    private void respondLockBroken() {
 
-      // This is possible if this mcast message was
-      // sent from the MulticastMarker as a result of a timeout.
+      // This is possible if this request was posted
+      // by the owner of the lock partition as a result of a timeout.
       if (!isResponseRequired()) {
          return;
       }
 
-
-      // Respond if requester is a local node.
-      final RequestProcessor processor = getProcessor();
-      if (processor.getAddress().equals(getOwnerAddress())) {
-         final Response errorResponse = createResponse(Response.RESULT_SUCCESS);
-         errorResponse.setResult(RESULT_LOCK_BROKEN);
-         processor.post(errorResponse);
-      }
+      final Response errorResponse = createResponse(Response.RESULT_SUCCESS);
+      errorResponse.setResult(RESULT_LOCK_BROKEN);
+      getProcessor().post(errorResponse);
    }
 
 
    private void respondUnlocked() {
 
-      // This is possible if this mcast message was
-      // sent from the MulticastMarker as a result of a timeout.
+      // This is possible if this request was posted
+      // by the owner of the lock partition as a result of a timeout.
       if (!isResponseRequired()) {
          return;
       }
 
-
-      // Respond if requester is a local node.
-      final RequestProcessor processor = getProcessor();
-      if (processor.getAddress().equals(getOwnerAddress())) {
-         final Response response = createResponse(Response.RESULT_SUCCESS);
-         response.setResult(RESULT_RELEASED);
-         processor.post(response);
-      }
+      final Response response = createResponse(Response.RESULT_SUCCESS);
+      response.setResult(RESULT_RELEASED);
+      getProcessor().post(response);
    }
 
 
@@ -13,20 +13,25 @@
  */
 package org.cacheonix.impl.lock;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedList;
 
 import org.cacheonix.impl.cache.item.Binary;
-import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.processor.UUID;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
 
 /**
- * A reliable mcast message to cancel a wait for a lock. This announcement may arrive after the lock was granted. If so,
- * it is ignored.
+ * A message to cancel a wait for a lock. The message is sent to the primary owner of the lock partition by the requester
+ * that has given up waiting. This message may arrive after the lock was granted. If so, it is ignored.
  */
+@SuppressWarnings("RedundantIfStatement")
 public final class WaitForLockExpiredAnnouncement extends LockRequest {
 
    /**
@@ -34,6 +39,11 @@ public final class WaitForLockExpiredAnnouncement extends LockRequest {
     */
    public static final WireableBuilder BUILDER = new Builder();
 
+   /**
+    * The UUID of the acquire lock request which wait has expired.
+    */
+   private UUID requestUUID = null;
+
 
    public WaitForLockExpiredAnnouncement() {
 
@@ -42,38 +52,114 @@ public final class WaitForLockExpiredAnnouncement extends LockRequest {
 
    public WaitForLockExpiredAnnouncement(final String lockRegionName, final Binary lockKey,
                                          final ClusterNodeAddress ownerAddress, final int threadID,
-                                         final String threadName, final boolean readLock) {
+                                         final String threadName, final boolean readLock, final UUID requestUUID) {
 
       super(TYPE_WAIT_FOR_LOCK_EXPIRED_ANNOUNCEMENT, lockRegionName, lockKey, ownerAddress, threadID, threadName, readLock);
+      this.requestUUID = requestUUID;
+   }
+
+
+   /**
+    * Returns the UUID of the acquire lock request which wait has expired.
+    *
+    * @return the UUID of the acquire lock request which wait has expired.
+    */
+   UUID getRequestUUID() {
+
+      return requestUUID;
    }
 
 
    public void execute() {
 
-      // Find lock being cancelled
+      final LockRegistry lockRegistry = getPartitionedLockManager().admit(this);
+      if (lockRegistry == null) {
+         return;
+      }
 
-      final ClusterProcessor processor = getClusterProcessor();
+      // Find lock being cancelled
+      final LockQueue lockQueue = lockRegistry.findLockQueue(getLockRegionName(), getLockKey());
+      if (lockQueue == null) {
 
-      final ReplicatedState state = processor.getProcessorState().getReplicatedState();
-      final LockRegistry lockRegistry = state.getLockRegistry();
-      final LockQueue lockQueue = lockRegistry.getLockQueue(getLockRegionName(), getLockKey());
+         // Nobody holds or waits for the lock
+         return;
+      }
 
+      final ClusterProcessor processor = getClusterProcessor();
       final LinkedList<AcquireLockRequest> lockRequests = lockQueue.getPendingRequests();
       for (final Iterator<AcquireLockRequest> iterator = lockRequests.iterator(); iterator.hasNext(); ) {
 
          final AcquireLockRequest request = iterator.next();
-         if (request.isReadLock() == isReadLock() && request.getOwnerThreadID() == getOwnerThreadID()
-                 && request.getOwnerAddress().equals(getOwnerAddress())) {
+         if (request.getUuid().equals(requestUUID)) {
 
             // Found - remove from waiting
             iterator.remove();
 
             // Respond
-            if (processor.getAddress().equals(request.getOwnerAddress())) {
-               processor.post(request.createLockWaitExpiredResponse());
-            }
+            processor.post(request.createLockWaitExpiredResponse());
          }
       }
+
+      // The removed request might have blocked the requests behind it
+      if (new NextLockRequestGranter(processor, lockQueue).grantNextLockRequests()) {
+
+         getPartitionedLockManager().replicate(processor, getLockRegionName(), getLockKey(), lockQueue);
+      }
+
+      // Discard the queue if nobody holds or waits for the lock
+      lockRegistry.removeLockQueueIfEmpty(getLockRegionName(), getLockKey());
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      SerializerUtils.writeUuid(requestUUID, out);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      requestUUID = SerializerUtils.readUuid(in);
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final WaitForLockExpiredAnnouncement that = (WaitForLockExpiredAnnouncement) o;
+
+      if (requestUUID != null ? !requestUUID.equals(that.requestUUID) : that.requestUUID != null) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (requestUUID != null ? requestUUID.hashCode() : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "WaitForLockExpiredAnnouncement{" +
+              "requestUUID=" + requestUUID +
+              "} " + super.toString();
    }
 
 
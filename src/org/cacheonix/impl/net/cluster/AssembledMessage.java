@@ -10,4 +10,12 @@ public interface AssembledMessage {
    Message getMessage();
 
    long getStartFrameNumber();
+
+   /**
+    * Returns the number of the frame that completed the message. A message is delivered when its last frame is
+    * delivered.
+    *
+    * @return the number of the frame that completed the message.
+    */
+   long getEndFrameNumber();
 }
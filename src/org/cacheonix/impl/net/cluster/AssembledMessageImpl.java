@@ -25,11 +25,14 @@ final class AssembledMessageImpl implements AssembledMessage {
 
    private final long startFrame;
 
+   private final long endFrame;
 
-   AssembledMessageImpl(final Message message, final long startFrame) {
+
+   AssembledMessageImpl(final Message message, final long startFrame, final long endFrame) {
 
       this.message = message;
       this.startFrame = startFrame;
+      this.endFrame = endFrame;
    }
 
 
@@ -45,6 +48,12 @@ final class AssembledMessageImpl implements AssembledMessage {
    }
 
 
+   public long getEndFrameNumber() {
+
+      return endFrame;
+   }
+
+
    public boolean equals(final Object o) {
 
       if (this == o) {
@@ -59,6 +68,9 @@ final class AssembledMessageImpl implements AssembledMessage {
       if (startFrame != that.startFrame) {
          return false;
       }
+      if (endFrame != that.endFrame) {
+         return false;
+      }
       if (message != null ? !message.equals(that.message) : that.message != null) {
          return false;
       }
@@ -71,6 +83,7 @@ final class AssembledMessageImpl implements AssembledMessage {
 
       int result = message != null ? message.hashCode() : 0;
       result = 31 * result + (int) (startFrame ^ startFrame >>> 32);
+      result = 31 * result + (int) (endFrame ^ endFrame >>> 32);
       return result;
    }
 
@@ -80,6 +93,7 @@ final class AssembledMessageImpl implements AssembledMessage {
       return "AssembledMessage{" +
               "message=" + message +
               ", startFrame=" + startFrame +
+              ", endFrame=" + endFrame +
               '}';
    }
 }
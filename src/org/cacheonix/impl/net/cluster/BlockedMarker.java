@@ -448,8 +448,10 @@ public final class BlockedMarker extends OperationalMarker {
 
                processorState.updateLastOperationalClusterView(joinStatus.getLastOperationalClusterView());
 
-               processorState.getReplicatedState().reset(joinStatus.getReplicatedState());
+               // A blocked cluster does not deliver messages, so the sequence numbers
+               // of this node do not tell which messages the snapshot must include.
                processor.getMessageAssembler().setParts(joinStatus.getMessageAssemblerParts());
+               processor.beginReplicatedStateTransfer(joinStatus.getJoiningToProcess(), null);
                joinStatus.clear();
 
 
@@ -505,7 +507,6 @@ public final class BlockedMarker extends OperationalMarker {
                   final MarkerListRequest markerListRequest = new MarkerListRequest(self,
                           processorState.getClusterView(),
                           processorState.getLastOperationalClusterView(),
-                          processorState.getReplicatedState(),
                           processor.getMessageAssembler().getParts());
                   markerListRequest.setReceiver(joiningNodeAddress);
 
@@ -23,6 +23,9 @@ import org.cacheonix.cluster.ClusterEventSubscriber;
 import org.cacheonix.cluster.ClusterMember;
 import org.cacheonix.cluster.ClusterMemberJoinedEvent;
 import org.cacheonix.impl.cluster.ClusterMemberJoinedEventImpl;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.lock.LockPartitionAssignment;
+import org.cacheonix.impl.lock.PartitionedLockManager;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Message;
 import org.cacheonix.impl.net.processor.ProcessorKey;
@@ -108,6 +111,9 @@ public final class ClusterNodeJoinedAnnouncement extends Message {
          processor.notifyReset();
       }
 
+      // Move the lock partitions that the joined node owns now
+      reassignLockPartitions(processor);
+
       // Notify mcast listeners about join
       processor.notifyNodesJoined(singletonList(joined));
 
@@ -124,6 +130,32 @@ public final class ClusterNodeJoinedAnnouncement extends Message {
    }
 
 
+   /**
+    * Adds the joined node to the lock partition assignment and moves the lock partitions. The joined node itself waits
+    * for the partitions it owns now from their previous owners.
+    *
+    * @param processor the cluster processor.
+    */
+   private void reassignLockPartitions(final ClusterProcessor processor) {
+
+      final ClusterProcessorState processorState = processor.getProcessorState();
+      final ReplicatedState replicatedState = processorState.getReplicatedState();
+      final LockPartitionAssignment previousAssignment = replicatedState.getLockPartitionAssignment();
+      replicatedState.notifyClusterNodeJoined(joined);
+      final LockPartitionAssignment currentAssignment = replicatedState.getLockPartitionAssignment();
+
+      final PartitionedLockManager lockManager = processorState.getPartitionedLockManager();
+      if (processor.getAddress().equals(joined)) {
+
+         // The snapshot of the replicated state may already include this node
+         lockManager.reassign(processor, currentAssignment.removeMembers(singletonList(joined)), currentAssignment);
+      } else if (!currentAssignment.equals(previousAssignment)) {
+
+         lockManager.reassign(processor, previousAssignment, currentAssignment);
+      }
+   }
+
+
    /**
     * Notifies cluster event subscribers that a member joined.
     */
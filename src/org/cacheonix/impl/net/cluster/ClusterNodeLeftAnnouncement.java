@@ -16,22 +16,16 @@ package org.cacheonix.impl.net.cluster;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
 
 import org.cacheonix.cluster.ClusterConfiguration;
 import org.cacheonix.cluster.ClusterEventSubscriber;
 import org.cacheonix.cluster.ClusterMember;
 import org.cacheonix.impl.cluster.ClusterMemberLeftEventImpl;
-import org.cacheonix.impl.lock.AcquireLockRequest;
-import org.cacheonix.impl.lock.LockOwner;
-import org.cacheonix.impl.lock.LockQueue;
-import org.cacheonix.impl.lock.LockQueueKey;
-import org.cacheonix.impl.lock.LockRegistry;
-import org.cacheonix.impl.lock.NextLockRequestGranter;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.lock.LockPartitionAssignment;
+import org.cacheonix.impl.lock.PartitionedLockManager;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Message;
 import org.cacheonix.impl.net.processor.ProcessorKey;
@@ -109,14 +103,26 @@ public final class ClusterNodeLeftAnnouncement extends Message {
       final List<ClusterNodeAddress> nodesLeft = Collections.singletonList(leave);
       final ClusterProcessor processor = (ClusterProcessor) getProcessor();
 
-      processor.getProcessorState().getReplicatedState().notifyClusterNodesLeft(nodesLeft);
+      final ClusterProcessorState processorState = processor.getProcessorState();
+      final ReplicatedState replicatedState = processorState.getReplicatedState();
+      final LockPartitionAssignment previousAssignment = replicatedState.getLockPartitionAssignment();
+      replicatedState.notifyClusterNodesLeft(nodesLeft);
+
+      // Take over the lock partitions of the left node
+      final PartitionedLockManager lockManager = processorState.getPartitionedLockManager();
+      final LockPartitionAssignment currentAssignment = replicatedState.getLockPartitionAssignment();
+      if (!currentAssignment.equals(previousAssignment)) {
+
+         lockManager.reassign(processor, previousAssignment, currentAssignment);
+      }
+
       processor.notifyNodesLeft(nodesLeft);
 
       // Notify event subscribers
       notifyClusterEventSubscribersMemberLeft();
 
-      // Process the effect of left nodes on the replicated lock queue.
-      removeFromLockQueue(nodesLeft);
+      // Process the effect of left nodes on the lock queues owned by this node.
+      lockManager.removeOwnersNotInAssignment(processor);
    }
 
 
@@ -155,52 +161,6 @@ public final class ClusterNodeLeftAnnouncement extends Message {
    }
 
 
-   /**
-    * Removes left nodes from the replicated lock queue. Grants pending lock requests if the left nodes held locks.
-    *
-    * @param nodesLeft a collection of addresses of nodes that left the cluster.
-    */
-   private void removeFromLockQueue(final Collection<ClusterNodeAddress> nodesLeft) {
-
-      final ClusterProcessor processor = (ClusterProcessor) getProcessor();
-
-      final LockRegistry lockRegistry = processor.getProcessorState().getReplicatedState().getLockRegistry();
-      for (final Entry<LockQueueKey, LockQueue> entry : lockRegistry.getLockQueues().entrySet()) {
-
-         // Process a particular lock queue
-         final LockQueue lockQueue = entry.getValue();
-         for (final ClusterNodeAddress leftAddress : nodesLeft) {
-
-            // Clear write lock owner
-            final LockOwner writeLockOwner = lockQueue.getWriteLockOwner();
-            if (writeLockOwner != null && writeLockOwner.getAddress().equals(leftAddress)) {
-               lockQueue.clearWriteLockOwner();
-            }
-
-            // Clear read lock owner
-            for (final Iterator<LockOwner> iter = lockQueue.getReadLockOwners().iterator(); iter.hasNext(); ) {
-               final LockOwner readLockOwner = iter.next();
-               if (readLockOwner.getAddress().equals(leftAddress)) {
-                  iter.remove();
-               }
-            }
-
-            // Remove address from the request queue
-            for (final Iterator<AcquireLockRequest> iter = lockQueue.getPendingRequests().iterator(); iter.hasNext(); ) {
-               final AcquireLockRequest request = iter.next();
-               if (request.getOwnerAddress().equals(leftAddress)) {
-                  iter.remove();
-               }
-            }
-         }
-
-         // Grant next request(s). The granter is capable of detecting if there is work do do
-         final NextLockRequestGranter nextLockRequestGranter = new NextLockRequestGranter(processor, lockQueue);
-         nextLockRequestGranter.grantNextLockRequests();
-      }
-   }
-
-
    public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
 
       super.readWire(in);
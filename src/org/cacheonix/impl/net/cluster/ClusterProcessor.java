@@ -20,6 +20,7 @@ import java.util.Queue;
 import org.cacheonix.CacheonixException;
 import org.cacheonix.ShutdownMode;
 import org.cacheonix.impl.cache.distributed.partitioned.CacheProcessor;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.multicast.server.MulticastServerListener;
 import org.cacheonix.impl.net.processor.Frame;
@@ -94,6 +95,28 @@ public interface ClusterProcessor extends RequestProcessor, MulticastServerListe
     */
    void deliverAssembledMulticastMessages() throws IOException;
 
+   /**
+    * Begins a transfer of the replicated state to this node after it joined a cluster. The replicated state is
+    * cleared, and a snapshot is requested from the provider. Until the snapshot is applied, replicated state messages
+    * are buffered, and this node does not send multicast messages.
+    *
+    * @param provider the cluster member to request the snapshot from.
+    * @param baseline the number of the last frame delivered to this node before it joined or <code>null</code> if
+    *                 unknown.
+    * @see ReplicatedStateTransfer
+    */
+   void beginReplicatedStateTransfer(ClusterNodeAddress provider, Long baseline);
+
+   /**
+    * Applies a snapshot of the replicated state and the messages buffered since the transfer began that the snapshot
+    * does not include.
+    *
+    * @param version         the number of the last frame delivered to the snapshot.
+    * @param replicatedState the snapshot.
+    * @see #beginReplicatedStateTransfer(ClusterNodeAddress, Long)
+    */
+   void finishReplicatedStateTransfer(long version, ReplicatedState replicatedState);
+
    /**
     * Notify messages waiting for the delivery notification
     *
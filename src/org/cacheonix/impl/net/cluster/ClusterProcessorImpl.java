@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
@@ -31,6 +32,9 @@ import org.cacheonix.ShutdownMode;
 import org.cacheonix.impl.cache.distributed.partitioned.CacheProcessor;
 import org.cacheonix.impl.cache.distributed.partitioned.ShutdownCacheProcessorMessage;
 import org.cacheonix.impl.clock.Clock;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.cluster.node.state.ReplicatedStateImpl;
+import org.cacheonix.impl.lock.LockPartitionAssignment;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.multicast.sender.MulticastSender;
 import org.cacheonix.impl.net.processor.AbstractRequestProcessor;
@@ -68,6 +72,22 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
     */
    private static final Logger LOG = Logger.getLogger(ClusterProcessorImpl.class); // NOPMD
 
+   /**
+    * A period of sending heartbeats to the next node on the ring and of checking the neighbor failure detector.
+    */
+   static final long HEARTBEAT_INTERVAL_MILLIS = 500L;
+
+   /**
+    * A period of checking if a snapshot of the replicated state requested after joining has arrived. The snapshot is
+    * requested again if it has not arrived in this time.
+    */
+   static final long STATE_TRANSFER_RETRY_MILLIS = 2000L;
+
+   /**
+    * A period of checking the lock partitions owned by this node for expired locks and late hand-offs.
+    */
+   static final long LOCK_TIMEOUT_INTERVAL_MILLIS = 100L;
+
 
    private final long gracefulShutdownTimeoutMillis;
 
@@ -120,7 +140,7 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
    /**
     * A utility to use to partition load.
     */
-   private final PayloadPartitioner partitioner = new PayloadPartitioner();
+   private final PayloadPartitioner partitioner;
 
 
    /**
@@ -138,6 +158,27 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
     */
    private final ClusterProcessorState processorState = new ClusterProcessorStateImpl();
 
+   /**
+    * The next node on the ring that the heartbeats are sent to or <code>null</code> if this node is alone. Set by the
+    * processor thread and read by the timer thread.
+    */
+   private final AtomicReference<ClusterNodeAddress> heartbeatReceiver = new AtomicReference<ClusterNodeAddress>(null);
+
+   /**
+    * A periodic task that sends heartbeats and checks the neighbor failure detector. Set at startup.
+    */
+   private HeartbeatTask heartbeatTask = null;
+
+   /**
+    * A periodic task that repeats requests for a snapshot of the replicated state. Set at startup.
+    */
+   private ReplicatedStateTransferTask replicatedStateTransferTask = null;
+
+   /**
+    * A periodic task that checks the lock partitions owned by this node for timeouts. Set at startup.
+    */
+   private LockTimeoutTask lockTimeoutTask = null;
+
 
    /**
     * Creates a new ClusterProcessor with cluster view initialised to self.
@@ -151,13 +192,15 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
     * @param worstCaseLatencyMillis
     * @param gracefulShutdownTimeoutMillis
     * @param clusterSurveyTimeoutMillis
+    * @param maximumMulticastPacketSize
     * @param initialClusterUUID
     */
    public ClusterProcessorImpl(final String clusterName, final Clock clock, final Timer timer,
            final Router router, final MulticastSender multicastSender, final ClusterNodeAddress self,
            final long homeAloneTimeout, final long worstCaseLatencyMillis,
            final long gracefulShutdownTimeoutMillis, final long clusterSurveyTimeoutMillis,
-           final long clusterAnnouncementTimeoutMillis, final UUID initialClusterUUID) {
+           final long clusterAnnouncementTimeoutMillis, final int maximumMulticastPacketSize,
+           final UUID initialClusterUUID) {
 
       super(clock, timer, "ClusterProcessor:" + self.getTcpPort(), self, router);
 
@@ -175,6 +218,8 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
       this.processorState.setClusterAnnouncementTimeoutMillis(clusterAnnouncementTimeoutMillis);
       this.gracefulShutdownTimeoutMillis = gracefulShutdownTimeoutMillis;
       this.processorState.setWorstCaseLatencyMillis(worstCaseLatencyMillis);
+      this.processorState.setMaximumMulticastPacketSize(maximumMulticastPacketSize);
+      this.partitioner = new PayloadPartitioner(maximumMulticastPacketSize);
       this.processorState.setClusterView(new ClusterViewImpl(initialClusterUUID, self));
       this.markerTimeout = new ObtainMulticastMarkerTimeout(this);
       this.multicastSender = multicastSender;
@@ -253,11 +298,70 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
 
       multicastMessageListeners.notifyNodeBlocked();
 
+      // Own all lock partitions while alone
+      final ReplicatedState replicatedState = processorState.getReplicatedState();
+      final LockPartitionAssignment previousAssignment = replicatedState.getLockPartitionAssignment();
+      replicatedState.notifyClusterNodeJoined(getAddress());
+      processorState.getPartitionedLockManager().reassign(this, previousAssignment,
+              replicatedState.getLockPartitionAssignment());
+
       final BlockedMarker blockedMarker = new BlockedMarker(processorState.getClusterView().getClusterUUID());
       blockedMarker.setTargetMajorityClusterSize(processorState.getTargetMajoritySize());
       blockedMarker.setNextAnnouncementTime(getClock().currentTime());
       blockedMarker.setReceiver(getAddress());
       post(blockedMarker);
+
+      // Begin sending heartbeats
+      heartbeatTask = new HeartbeatTask();
+      getTimer().schedule(heartbeatTask, HEARTBEAT_INTERVAL_MILLIS, HEARTBEAT_INTERVAL_MILLIS);
+
+      // Begin checking for lost replicated state snapshots
+      replicatedStateTransferTask = new ReplicatedStateTransferTask();
+      getTimer().schedule(replicatedStateTransferTask, STATE_TRANSFER_RETRY_MILLIS, STATE_TRANSFER_RETRY_MILLIS);
+
+      // Begin checking for expired locks
+      lockTimeoutTask = new LockTimeoutTask();
+      getTimer().schedule(lockTimeoutTask, LOCK_TIMEOUT_INTERVAL_MILLIS, LOCK_TIMEOUT_INTERVAL_MILLIS);
+   }
+
+
+   /**
+    * Updates the receiver of the heartbeats and initiates recovery if the neighbor failure detector suspects that the
+    * previous node on the ring has failed. A marker timeout detects the same failure only after the worst case
+    * latency multiplied by the cluster size has passed.
+    * <p/>
+    * This method is called by the processor thread.
+    */
+   void detectNeighborFailure() {
+
+      final ClusterView clusterView = processorState.getClusterView();
+      final ClusterNodeAddress nextElement = clusterView.getNextElement();
+      heartbeatReceiver.set(getAddress().equals(nextElement) ? null : nextElement);
+
+      final PhiAccrualFailureDetector failureDetector = processorState.getNeighborFailureDetector();
+      if (failureDetector == null || processorState.getState() != ClusterProcessorState.STATE_NORMAL) {
+         return;
+      }
+
+      if (!failureDetector.isSuspected(getClock().currentTimeMillis())) {
+         return;
+      }
+
+      final long timeoutMillis = failureDetector.calculateTimeoutMillis();
+
+      if (LOG.isDebugEnabled()) {
+         LOG.debug("Suspecting " + processorState.getHeartbeatNeighbor() + ", initiating recovery: " + failureDetector);
+      }
+
+      // Collect a new history after the recovery
+      failureDetector.reset();
+
+      // Begin recovery the same way as a marker timeout does. The recovery is skipped if a marker arrives first.
+      final MarkerTimeoutMessage markerTimeoutMessage = new MarkerTimeoutMessage();
+      markerTimeoutMessage.setMarkerCounterAtTimeoutCreate(processorState.getMarkerCounter());
+      markerTimeoutMessage.setTimeoutMillis(timeoutMillis);
+      markerTimeoutMessage.setReceiver(getAddress());
+      post(markerTimeoutMessage);
    }
 
 
@@ -451,6 +555,24 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
       // Shutdown marker timeout
       markerTimeout.shutdown();
 
+      // Stop sending heartbeats
+      if (heartbeatTask != null) {
+
+         heartbeatTask.cancel();
+      }
+
+      // Stop checking for lost replicated state snapshots
+      if (replicatedStateTransferTask != null) {
+
+         replicatedStateTransferTask.cancel();
+      }
+
+      // Stop checking for expired locks
+      if (lockTimeoutTask != null) {
+
+         lockTimeoutTask.cancel();
+      }
+
       // Shutdown user messages thread
       processorState.getUserEventExecutor().shutdownNow();
 
@@ -531,6 +653,7 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
       messageAssembler.clear();
       processorState.getSubmittalQueue().clear();
       processorState.setHighestSequenceNumberDelivered(null);
+      processorState.getReplicatedStateTransfer().clear();
       awaitingDeliveryNotification.clear();
 
       // Handle waiters
@@ -664,16 +787,7 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
 
             case Wireable.DESTINATION_REPLICATED_STATE:
 
-               try {
-
-//                  if (assembledMessage.getStartFrameNumber() < 20) {
-                  //noinspection ControlFlowStatementWithoutBraces
-//                     if (LOG.isDebugEnabled()) LOG.debug("message: " + message); // NOPMD
-//                  }
-                  processMessage(message, false);
-               } catch (final InterruptedException ignored) {
-                  Thread.currentThread().interrupt();
-               }
+               deliverToReplicatedState(assembledMessage);
                break;
             case Wireable.DESTINATION_MULTICAST_CLIENT:
 
@@ -687,6 +801,136 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
    }
 
 
+   /**
+    * Delivers a message to the replicated state. While a snapshot of the replicated state is pending, the message is
+    * buffered. After the snapshot has been applied, messages that the snapshot already includes are dropped.
+    *
+    * @param assembledMessage the message to deliver.
+    * @throws IOException if an I/O error occurred while processing the message.
+    */
+   private void deliverToReplicatedState(final AssembledMessage assembledMessage) throws IOException {
+
+      final ReplicatedStateTransfer transfer = processorState.getReplicatedStateTransfer();
+      if (transfer.isPending()) {
+
+         transfer.addDelta(assembledMessage);
+         return;
+      }
+
+      // A node joined announcement does not change the replicated state but notifies
+      // local listeners, so it is processed even if the snapshot includes it.
+      final Message message = assembledMessage.getMessage();
+      if (transfer.isIncludedInSnapshot(assembledMessage) && !(message instanceof ClusterNodeJoinedAnnouncement)) {
+
+         return;
+      }
+
+      try {
+
+         processMessage(message, false);
+      } catch (final InterruptedException ignored) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void beginReplicatedStateTransfer(final ClusterNodeAddress provider, final Long baseline) {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Beginning replicated state transfer from " + provider); // NOPMD
+
+      processorState.getReplicatedState().reset(new ReplicatedStateImpl());
+      processorState.getLockLeaseRegistry().invalidate();
+      processorState.getPartitionedLockManager().clear();
+      processorState.getReplicatedStateTransfer().begin(provider, baseline);
+
+      requestReplicatedStateSnapshot(provider);
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void finishReplicatedStateTransfer(final long version, final ReplicatedState replicatedState) {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Finishing replicated state transfer, version: " + version); // NOPMD
+
+      processorState.getReplicatedState().reset(replicatedState);
+      completeReplicatedStateTransfer(version);
+   }
+
+
+   /**
+    * Requests a snapshot of the replicated state again if the snapshot has not arrived in {@link
+    * #STATE_TRANSFER_RETRY_MILLIS}. If the provider has left the cluster, the snapshot is requested from the next node
+    * on the ring. If this node is alone, it has nobody to get the state from, and the transfer is completed with the
+    * messages buffered so far.
+    * <p/>
+    * This method is called by the processor thread.
+    */
+   void retryReplicatedStateTransfer() {
+
+      final ReplicatedStateTransfer transfer = processorState.getReplicatedStateTransfer();
+      if (!transfer.isPending()) {
+         return;
+      }
+
+      if (getClock().currentTimeMillis() - transfer.getRequestTimeMillis() < STATE_TRANSFER_RETRY_MILLIS) {
+         return;
+      }
+
+      final ClusterView clusterView = processorState.getClusterView();
+      if (!clusterView.contains(transfer.getProvider())) {
+
+         transfer.setProvider(clusterView.getNextElement());
+      }
+
+      if (getAddress().equals(transfer.getProvider())) {
+
+         LOG.warn("No cluster members left to transfer the replicated state from, continuing with the local state");
+         completeReplicatedStateTransfer(-1L);
+
+         // Own all lock partitions while alone
+         final ReplicatedState replicatedState = processorState.getReplicatedState();
+         replicatedState.notifyClusterNodeJoined(getAddress());
+         processorState.getPartitionedLockManager().reassign(this, new LockPartitionAssignment(),
+                 replicatedState.getLockPartitionAssignment());
+         return;
+      }
+
+      requestReplicatedStateSnapshot(transfer.getProvider());
+   }
+
+
+   private void requestReplicatedStateSnapshot(final ClusterNodeAddress provider) {
+
+      processorState.getReplicatedStateTransfer().setRequestTimeMillis(getClock().currentTimeMillis());
+
+      final GetReplicatedStateSnapshotMessage request = new GetReplicatedStateSnapshotMessage();
+      request.setReceiver(provider);
+      post(request);
+   }
+
+
+   private void completeReplicatedStateTransfer(final long version) {
+
+      for (final AssembledMessage delta : processorState.getReplicatedStateTransfer().complete(version)) {
+
+         try {
+
+            deliverToReplicatedState(delta);
+         } catch (final IOException e) {
+
+            LOG.error("Error while applying a buffered replicated state message: " + e, e);
+         }
+      }
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -823,4 +1067,132 @@ public final class ClusterProcessorImpl extends AbstractRequestProcessor impleme
 
       return processorState;
    }
+
+
+   /**
+    * A timer task that sends a heartbeat to the next node on the ring and enqueues a command to check the neighbor
+    * failure detector to the processor. The heartbeat is sent by the timer thread so that it is not delayed while the
+    * processor thread is busy.
+    */
+   private final class HeartbeatTask extends TimerTask {
+
+      public void run() {
+
+         try {
+            if (!isShutdown()) {
+
+               final ClusterNodeAddress receiver = heartbeatReceiver.get();
+               if (receiver != null) {
+
+                  final NeighborHeartbeat heartbeat = new NeighborHeartbeat();
+                  heartbeat.setReceiver(receiver);
+                  post(heartbeat);
+               }
+
+               enqueue(new DetectNeighborFailureCommand());
+            }
+         } catch (final InterruptedException e) {
+            ExceptionUtils.ignoreException(e, "Nothing we can do");
+         } catch (final ShutdownException e) {
+            ExceptionUtils.ignoreException(e, "Processor is shutdown");
+         }
+      }
+   }
+
+
+   /**
+    * A timer task that enqueues a command to repeat a lost request for a snapshot of the replicated state.
+    */
+   private final class ReplicatedStateTransferTask extends TimerTask {
+
+      public void run() {
+
+         try {
+            if (!isShutdown()) {
+
+               enqueue(new RetryReplicatedStateTransferCommand());
+            }
+         } catch (final InterruptedException e) {
+            ExceptionUtils.ignoreException(e, "Nothing we can do");
+         } catch (final ShutdownException e) {
+            ExceptionUtils.ignoreException(e, "Processor is shutdown");
+         }
+      }
+   }
+
+
+   /**
+    * A timer task that enqueues a command to check the lock partitions owned by this node for timeouts.
+    */
+   private final class LockTimeoutTask extends TimerTask {
+
+      public void run() {
+
+         try {
+            if (!isShutdown()) {
+
+               enqueue(new LockTimeoutCommand());
+            }
+         } catch (final InterruptedException e) {
+            ExceptionUtils.ignoreException(e, "Nothing we can do");
+         } catch (final ShutdownException e) {
+            ExceptionUtils.ignoreException(e, "Processor is shutdown");
+         }
+      }
+   }
+
+
+   /**
+    * A command that releases expired locks and activates lock partitions which hand-off is late in the processor
+    * thread.
+    */
+   private final class LockTimeoutCommand implements Command {
+
+      public void execute() {
+
+         processorState.getPartitionedLockManager().processTimeouts(ClusterProcessorImpl.this);
+      }
+
+
+      public String toString() {
+
+         return "LockTimeoutCommand{}";
+      }
+   }
+
+
+   /**
+    * A command that repeats a lost request for a snapshot of the replicated state in the processor thread.
+    */
+   private final class RetryReplicatedStateTransferCommand implements Command {
+
+      public void execute() {
+
+         retryReplicatedStateTransfer();
+      }
+
+
+      public String toString() {
+
+         return "RetryReplicatedStateTransferCommand{}";
+      }
+   }
+
+
+   /**
+    * A command that checks the neighbor failure detector in the processor thread.
+    */
+   private final class DetectNeighborFailureCommand implements Command {
+
+      public void execute() {
+
+         detectNeighborFailure();
+      }
+
+
+      public String toString() {
+
+         return "DetectNeighborFailureCommand{}";
+      }
+   }
 }
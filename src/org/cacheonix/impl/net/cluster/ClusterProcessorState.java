@@ -16,14 +16,16 @@ package org.cacheonix.impl.net.cluster;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.ExecutorService;
 
 import org.cacheonix.cluster.ClusterEventSubscriber;
 import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.lock.LockLeaseRegistry;
+import org.cacheonix.impl.lock.PartitionedLockManager;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.net.processor.ProcessorState;
 import org.cacheonix.impl.util.array.HashSet;
+import org.cacheonix.impl.util.thread.OrderedEventExecutor;
 import org.cacheonix.impl.util.time.Timeout;
 
 /**
@@ -144,6 +146,54 @@ public interface ClusterProcessorState extends ProcessorState {
     */
    void setWorstCaseLatencyMillis(long worstCaseLatencyMillis);
 
+   /**
+    * Returns the adaptive failure detector fed by arrival times of heartbeats from the previous node on the ring.
+    *
+    * @return the adaptive failure detector or <code>null</code> if the failures are detected by the marker timeout
+    *         only.
+    */
+   PhiAccrualFailureDetector getNeighborFailureDetector();
+
+   /**
+    * Sets the adaptive failure detector fed by arrival times of heartbeats from the previous node on the ring.
+    *
+    * @param neighborFailureDetector the adaptive failure detector or <code>null</code> to detect failures by the marker
+    *                                timeout only.
+    */
+   void setNeighborFailureDetector(PhiAccrualFailureDetector neighborFailureDetector);
+
+   /**
+    * Records arrival of a heartbeat from the previous node on the ring. The failure detector keeps the history of the
+    * current neighbor only, so the history is reset when the heartbeat arrives from a different node. Heartbeats from
+    * nodes that are not in the cluster view are ignored.
+    *
+    * @param neighbor   the node that sent the heartbeat.
+    * @param timeMillis the time the heartbeat arrived.
+    */
+   void registerNeighborHeartbeat(ClusterNodeAddress neighbor, long timeMillis);
+
+   /**
+    * Returns the node that sent the heartbeats the neighbor failure detector is fed with.
+    *
+    * @return the node that sent the heartbeats the neighbor failure detector is fed with or <code>null</code> if no
+    *         heartbeats have arrived yet.
+    */
+   ClusterNodeAddress getHeartbeatNeighbor();
+
+   /**
+    * Returns the maximum size of a multicast datagram, in bytes. All members of the cluster must agree on this value.
+    *
+    * @return the maximum size of a multicast datagram, in bytes.
+    */
+   int getMaximumMulticastPacketSize();
+
+   /**
+    * Sets the maximum size of a multicast datagram, in bytes.
+    *
+    * @param maximumMulticastPacketSize the maximum size of a multicast datagram, in bytes.
+    */
+   void setMaximumMulticastPacketSize(int maximumMulticastPacketSize);
+
    /**
     * Returns the time interval that defines how often Cacheonix cluster announces itself using multicast.
     *
@@ -233,6 +283,13 @@ public interface ClusterProcessorState extends ProcessorState {
     */
    void setJoinStatus(JoinStatus joinStatus);
 
+   /**
+    * Returns a transfer of the replicated state to this node after it joined a cluster.
+    *
+    * @return the transfer of the replicated state to this node.
+    */
+   ReplicatedStateTransfer getReplicatedStateTransfer();
+
    /**
     * Returns join requests we are handling. Empty means there are no join requests
     *
@@ -254,6 +311,20 @@ public interface ClusterProcessorState extends ProcessorState {
     */
    void setReplicateState(ReplicatedState replicatedState);
 
+   /**
+    * Returns a node-local registry of leases on distributed write locks.
+    *
+    * @return the node-local registry of lock leases.
+    */
+   LockLeaseRegistry getLockLeaseRegistry();
+
+   /**
+    * Returns a node-local manager of the lock partitions owned by this node.
+    *
+    * @return the node-local manager of the lock partitions.
+    */
+   PartitionedLockManager getPartitionedLockManager();
+
    /**
     * Returns a timer that measures time for how long a node stayed alone without other nodes present to form a
     * cluster.
@@ -288,6 +359,13 @@ public interface ClusterProcessorState extends ProcessorState {
     */
    ReceivedList getReceivedList();
 
+   /**
+    * Returns flow control for multicast frames sent by this node.
+    *
+    * @return flow control for multicast frames sent by this node.
+    */
+   MulticastFlowControl getMulticastFlowControl();
+
    /**
     * Adds user's cluster event subscriber. User's event subscribers are notified about cluster asynchronously to
     * prevent the cluster thread from blocking.
@@ -310,7 +388,7 @@ public interface ClusterProcessorState extends ProcessorState {
     *
     * @return the executor responsible for executing user event notifications.
     */
-   ExecutorService getUserEventExecutor();
+   OrderedEventExecutor getUserEventExecutor();
 
    /**
     * Returns a list of user cluster event subscribers.
@@ -20,22 +20,19 @@ import java.util.List;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.cacheonix.cluster.ClusterEventSubscriber;
 import org.cacheonix.cluster.ClusterState;
 import org.cacheonix.impl.cluster.ClusterStateChangedEventImpl;
 import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.lock.LockLeaseRegistry;
+import org.cacheonix.impl.lock.PartitionedLockManager;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.util.array.HashSet;
 import org.cacheonix.impl.util.logging.Logger;
-import org.cacheonix.impl.util.thread.UserThreadFactory;
+import org.cacheonix.impl.util.thread.OrderedEventExecutor;
 import org.cacheonix.impl.util.time.Timeout;
 
 import static org.cacheonix.impl.cluster.ClusterEventUtil.convertStateMachineToUserClusterState;
@@ -84,6 +81,22 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
     */
    private long worstCaseLatencyMillis = 0L;
 
+   /**
+    * Adaptive failure detector fed by arrival times of heartbeats from the previous node on the ring, or
+    * <code>null</code> if failures are detected by the marker timeout only.
+    */
+   private PhiAccrualFailureDetector neighborFailureDetector = null;
+
+   /**
+    * The node that sent the last heartbeat.
+    */
+   private ClusterNodeAddress heartbeatNeighbor = null;
+
+   /**
+    * Maximum size of a multicast datagram, in bytes.
+    */
+   private int maximumMulticastPacketSize = Frame.MAXIMUM_MULTICAST_PACKET_SIZE;
+
 
    /**
     * Time interval that defines how often Cacheonix cluster announces itself using multicast. Use system property
@@ -141,15 +154,30 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
     */
    private final LinkedList<JoiningNode> joinRequests = new LinkedList<JoiningNode>(); // NOPMD LooseCoupling
 
+   /**
+    * A transfer of the replicated state to this node after it joined a cluster.
+    */
+   private final ReplicatedStateTransfer replicatedStateTransfer = new ReplicatedStateTransfer();
+
    /**
     * This cluster processor replicated state.
     */
    private ReplicatedState replicatedState = null;
 
+   /**
+    * Node-local leases on distributed write locks.
+    */
+   private final LockLeaseRegistry lockLeaseRegistry = new LockLeaseRegistry();
+
+   /**
+    * Node-local lock partitions.
+    */
+   private final PartitionedLockManager partitionedLockManager = new PartitionedLockManager();
+
    /**
     * An async executor of events sent to API clients.
     */
-   private final ThreadPoolExecutor userEventExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new UserThreadFactory("CacheonixEventExecutor"));
+   private final OrderedEventExecutor userEventExecutor = OrderedEventExecutor.createUserEventExecutor("CacheonixEventExecutor");
 
    /**
     * A list of cluster event subscribers.
@@ -225,6 +253,11 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
     */
    private final ReceivedList receivedList = new ReceivedListImpl();
 
+   /**
+    * Flow control for multicast frames sent by this node.
+    */
+   private final MulticastFlowControl multicastFlowControl = new MulticastFlowControl();
+
 
    /**
     * Returns the state machine's state.
@@ -312,6 +345,24 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
    }
 
 
+   /**
+    * {@inheritDoc}
+    */
+   public int getMaximumMulticastPacketSize() {
+
+      return maximumMulticastPacketSize;
+   }
+
+
+   /**
+    * {@inheritDoc}
+    */
+   public void setMaximumMulticastPacketSize(final int maximumMulticastPacketSize) {
+
+      this.maximumMulticastPacketSize = maximumMulticastPacketSize;
+   }
+
+
    /**
     * Returns the time interval that defines how often Cacheonix cluster announces itself using multicast.
     *
@@ -386,6 +437,42 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
    }
 
 
+   public PhiAccrualFailureDetector getNeighborFailureDetector() {
+
+      return neighborFailureDetector;
+   }
+
+
+   public void setNeighborFailureDetector(final PhiAccrualFailureDetector neighborFailureDetector) {
+
+      this.neighborFailureDetector = neighborFailureDetector;
+      this.heartbeatNeighbor = null;
+   }
+
+
+   public void registerNeighborHeartbeat(final ClusterNodeAddress neighbor, final long timeMillis) {
+
+      if (neighborFailureDetector == null || !getClusterView().contains(neighbor)) {
+         return;
+      }
+
+      // Start a new history if the ring has changed
+      if (!neighbor.equals(heartbeatNeighbor)) {
+
+         neighborFailureDetector.reset();
+         heartbeatNeighbor = neighbor;
+      }
+
+      neighborFailureDetector.heartbeat(timeMillis);
+   }
+
+
+   public ClusterNodeAddress getHeartbeatNeighbor() {
+
+      return heartbeatNeighbor;
+   }
+
+
    /**
     * Calculates heuristic wost-case multicast marker timeout.
     *
@@ -476,6 +563,15 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
    }
 
 
+   /**
+    * {@inheritDoc}
+    */
+   public ReplicatedStateTransfer getReplicatedStateTransfer() {
+
+      return replicatedStateTransfer;
+   }
+
+
    /**
     * Returns join requests we are handling. Empty means there are no join requests
     *
@@ -504,6 +600,18 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
    }
 
 
+   public LockLeaseRegistry getLockLeaseRegistry() {
+
+      return lockLeaseRegistry;
+   }
+
+
+   public PartitionedLockManager getPartitionedLockManager() {
+
+      return partitionedLockManager;
+   }
+
+
    /**
     * Returns a timer that measures time for how long a node stayed alone without other nodes present to form a
     * cluster.
@@ -551,6 +659,12 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
    }
 
 
+   public MulticastFlowControl getMulticastFlowControl() {
+
+      return multicastFlowControl;
+   }
+
+
    /**
     * Adds user's cluster event subscriber. User's event subscribers are notified about cluster asynchronously to
     * prevent the cluster thread from blocking.
@@ -615,9 +729,11 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
 
    public void notifySubscribersClusterStateChanged(final int newClusterState) {
 
-      final Executor userEventExecutor = getUserEventExecutor();
+      final OrderedEventExecutor userEventExecutor = getUserEventExecutor();
       for (final ClusterEventSubscriber clusterEventSubscriber : clusterEventSubscribers) {
-         userEventExecutor.execute(new Runnable() {
+
+         // Keep notifications for a subscriber in order. A pending state change may be replaced by a newer one.
+         userEventExecutor.execute(clusterEventSubscriber, clusterEventSubscriber, new Runnable() {
 
             public void run() {
 
@@ -643,7 +759,7 @@ final class ClusterProcessorStateImpl implements ClusterProcessorState {
     *
     * @return the executor responsible for executing user event notifications.
     */
-   public ExecutorService getUserEventExecutor() {
+   public OrderedEventExecutor getUserEventExecutor() {
 
       return userEventExecutor;
    }
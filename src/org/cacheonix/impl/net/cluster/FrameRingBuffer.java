@@ -0,0 +1,348 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import java.util.Arrays;
+
+import org.cacheonix.impl.net.processor.Frame;
+
+/**
+ * A sliding window of frames indexed by the frame sequence number.
+ * <p/>
+ * Frames are kept in a ring of slots addressed by the offset of the sequence number from the first frame in the window.
+ * A bitmap that parallels the ring marks occupied slots so that gaps can be found by scanning 64 slots at a time. The
+ * ring grows to the next power of two when a frame falls outside of the window.
+ * <p/>
+ * This class is not thread safe.
+ */
+final class FrameRingBuffer {
+
+   private static final int BITS_PER_WORD = 64;
+
+   private static final int ADDRESS_BITS_PER_WORD = 6;
+
+   /**
+    * Frame slots.
+    */
+   private Frame[] frames;
+
+   /**
+    * A bitmap of occupied slots.
+    */
+   private long[] occupied;
+
+   /**
+    * <code>frames.length - 1</code>.
+    */
+   private int mask;
+
+   /**
+    * Slot of the first frame.
+    */
+   private int firstIndex = 0;
+
+   /**
+    * Sequence number of the first frame.
+    */
+   private long firstSequenceNumber = 0L;
+
+   /**
+    * Sequence number of the last frame.
+    */
+   private long lastSequenceNumber = 0L;
+
+   /**
+    * Number of frames in the buffer.
+    */
+   private int size = 0;
+
+
+   /**
+    * Creates the ring buffer.
+    *
+    * @param initialCapacity initial number of slots. Rounded up to a power of two that is not less than 64.
+    */
+   FrameRingBuffer(final int initialCapacity) {
+
+      allocate(capacityFor(initialCapacity));
+   }
+
+
+   /**
+    * Puts a frame to the buffer.
+    *
+    * @param sequenceNumber the sequence number of the frame.
+    * @param frame          the frame.
+    */
+   void put(final long sequenceNumber, final Frame frame) {
+
+      if (size == 0) {
+
+         firstSequenceNumber = sequenceNumber;
+         lastSequenceNumber = sequenceNumber;
+      } else if (sequenceNumber < firstSequenceNumber) {
+
+         ensureCapacity(lastSequenceNumber - sequenceNumber + 1L);
+         firstIndex = (firstIndex - (int) (firstSequenceNumber - sequenceNumber)) & mask;
+         firstSequenceNumber = sequenceNumber;
+      } else if (sequenceNumber > lastSequenceNumber) {
+
+         ensureCapacity(sequenceNumber - firstSequenceNumber + 1L);
+         lastSequenceNumber = sequenceNumber;
+      }
+
+      final int index = indexOf(sequenceNumber);
+      if (frames[index] == null) {
+
+         size++;
+      }
+      frames[index] = frame;
+      occupied[index >>> ADDRESS_BITS_PER_WORD] |= 1L << index;
+   }
+
+
+   /**
+    * Returns a frame with the given sequence number.
+    *
+    * @param sequenceNumber the sequence number.
+    * @return the frame or <code>null</code> if the buffer does not contain the frame.
+    */
+   Frame get(final long sequenceNumber) {
+
+      if (size == 0 || sequenceNumber < firstSequenceNumber || sequenceNumber > lastSequenceNumber) {
+
+         return null;
+      }
+
+      return frames[indexOf(sequenceNumber)];
+   }
+
+
+   /**
+    * Returns <code>true</code> if the buffer contains a frame with the given sequence number.
+    *
+    * @param sequenceNumber the sequence number.
+    * @return <code>true</code> if the buffer contains a frame with the given sequence number.
+    */
+   boolean contains(final long sequenceNumber) {
+
+      return get(sequenceNumber) != null;
+   }
+
+
+   /**
+    * Removes the first frame and slides the window to the next frame present.
+    *
+    * @return the removed frame or <code>null</code> if the buffer is empty.
+    */
+   Frame removeFirst() {
+
+      if (size == 0) {
+
+         return null;
+      }
+
+      final Frame frame = frames[firstIndex];
+      frames[firstIndex] = null;
+      occupied[firstIndex >>> ADDRESS_BITS_PER_WORD] &= ~(1L << firstIndex);
+      size--;
+
+      if (size > 0) {
+
+         final int distance = scan(firstIndex, (int) (lastSequenceNumber - firstSequenceNumber) + 1, true);
+         firstIndex = (firstIndex + distance) & mask;
+         firstSequenceNumber += distance;
+      }
+
+      return frame;
+   }
+
+
+   /**
+    * Returns the highest sequence number such that all frames between the given sequence number and it are present.
+    *
+    * @param sequenceNumber the sequence number to start from.
+    * @return the highest sequence number such that all frames between the given sequence number and it are present or
+    *         <code>sequenceNumber - 1</code> if the frame with the given sequence number is not present.
+    */
+   long getContinuousEnd(final long sequenceNumber) {
+
+      if (!contains(sequenceNumber)) {
+
+         return sequenceNumber - 1L;
+      }
+
+      final int limit = (int) (lastSequenceNumber - sequenceNumber) + 1;
+      return sequenceNumber + scan(indexOf(sequenceNumber), limit, false) - 1L;
+   }
+
+
+   /**
+    * Returns the sequence number of the first frame. The result is undefined if the buffer is empty.
+    *
+    * @return the sequence number of the first frame.
+    */
+   long getFirstSequenceNumber() {
+
+      return firstSequenceNumber;
+   }
+
+
+   /**
+    * Returns the sequence number of the last frame. The result is undefined if the buffer is empty.
+    *
+    * @return the sequence number of the last frame.
+    */
+   long getLastSequenceNumber() {
+
+      return lastSequenceNumber;
+   }
+
+
+   int size() {
+
+      return size;
+   }
+
+
+   boolean isEmpty() {
+
+      return size == 0;
+   }
+
+
+   int capacity() {
+
+      return frames.length;
+   }
+
+
+   /**
+    * Releases all frames at once.
+    */
+   void clear() {
+
+      Arrays.fill(frames, null);
+      Arrays.fill(occupied, 0L);
+      firstIndex = 0;
+      firstSequenceNumber = 0L;
+      lastSequenceNumber = 0L;
+      size = 0;
+   }
+
+
+   /**
+    * Scans slots starting from the given slot for the first slot that is occupied or, if <code>occupied</code> is
+    * <code>false</code>, for the first slot that is free.
+    *
+    * @param fromIndex    the slot to start from.
+    * @param limit        the maximum number of slots to scan.
+    * @param findOccupied <code>true</code> to look for an occupied slot, <code>false</code> to look for a free slot.
+    * @return the distance from <code>fromIndex</code> to the found slot or <code>limit</code> if not found.
+    */
+   private int scan(final int fromIndex, final int limit, final boolean findOccupied) {
+
+      int distance = 0;
+      int index = fromIndex;
+      while (distance < limit) {
+
+         final int wordIndex = index >>> ADDRESS_BITS_PER_WORD;
+         final long bits = findOccupied ? occupied[wordIndex] : ~occupied[wordIndex];
+         final long word = bits & -1L << index;
+         if (word != 0L) {
+
+            return Math.min(limit, distance + Long.numberOfTrailingZeros(word) - (index & BITS_PER_WORD - 1));
+         }
+
+         // Move to the beginning of the next word
+         final int skipped = BITS_PER_WORD - (index & BITS_PER_WORD - 1);
+         distance += skipped;
+         index = index + skipped & mask;
+      }
+      return limit;
+   }
+
+
+   private int indexOf(final long sequenceNumber) {
+
+      return firstIndex + (int) (sequenceNumber - firstSequenceNumber) & mask;
+   }
+
+
+   /**
+    * Grows the ring so that it can hold the given number of consecutive sequence numbers.
+    *
+    * @param span the number of consecutive sequence numbers the ring should hold.
+    */
+   private void ensureCapacity(final long span) {
+
+      if (span <= (long) frames.length) {
+
+         return;
+      }
+
+      if (span > (long) (1 << 30)) {
+
+         throw new IllegalStateException("Frame window is too large: " + span + ", " + this);
+      }
+
+      final Frame[] oldFrames = frames;
+      final int oldFirstIndex = firstIndex;
+      final int oldMask = mask;
+      final int oldSpan = (int) (lastSequenceNumber - firstSequenceNumber) + 1;
+
+      allocate(capacityFor((int) span));
+      for (int i = 0; i < oldSpan; i++) {
+
+         final Frame frame = oldFrames[oldFirstIndex + i & oldMask];
+         if (frame != null) {
+
+            frames[i] = frame;
+            occupied[i >>> ADDRESS_BITS_PER_WORD] |= 1L << i;
+         }
+      }
+      firstIndex = 0;
+   }
+
+
+   private void allocate(final int capacity) {
+
+      frames = new Frame[capacity];
+      occupied = new long[capacity >>> ADDRESS_BITS_PER_WORD];
+      mask = capacity - 1;
+   }
+
+
+   private static int capacityFor(final int required) {
+
+      int capacity = BITS_PER_WORD;
+      while (capacity < required) {
+
+         capacity <<= 1;
+      }
+      return capacity;
+   }
+
+
+   public String toString() {
+
+      return "FrameRingBuffer{" +
+              "capacity=" + frames.length +
+              ", firstIndex=" + firstIndex +
+              ", firstSequenceNumber=" + firstSequenceNumber +
+              ", lastSequenceNumber=" + lastSequenceNumber +
+              ", size=" + size +
+              '}';
+   }
+}
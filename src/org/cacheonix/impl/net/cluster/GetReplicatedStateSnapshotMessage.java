@@ -0,0 +1,125 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * A request of a joined node for a snapshot of the replicated state. The receiver responds with a {@link
+ * ReplicatedStateSnapshotMessage} that carries the snapshot and its version.
+ * <p/>
+ * The snapshot is serialized by the processor thread of the receiver when it processes this message. The marker is not
+ * held while the snapshot is being serialized.
+ *
+ * @see ReplicatedStateTransfer
+ */
+public final class GetReplicatedStateSnapshotMessage extends ClusterMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(GetReplicatedStateSnapshotMessage.class); // NOPMD
+
+
+   public GetReplicatedStateSnapshotMessage() {
+
+      super(TYPE_CLUSTER_GET_REPLICATED_STATE_SNAPSHOT);
+   }
+
+
+   protected void processNormal() {
+
+      sendSnapshot();
+   }
+
+
+   protected void processBlocked() {
+
+      sendSnapshot();
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The replicated state is not sent while the cluster is recovering. The joined node will repeat the request.
+    */
+   protected void processRecovery() {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Ignored snapshot request in Recovery state: " + this); // NOPMD
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * The replicated state is not sent while the cluster is cleaning up. The joined node will repeat the request.
+    */
+   protected void processCleanup() {
+
+      //noinspection ControlFlowStatementWithoutBraces
+      if (LOG.isDebugEnabled()) LOG.debug("Ignored snapshot request in Cleanup state: " + this); // NOPMD
+   }
+
+
+   private void sendSnapshot() {
+
+      final ClusterProcessor processor = getClusterProcessor();
+      final ClusterProcessorState processorState = processor.getProcessorState();
+
+      // A node that is waiting for a snapshot itself cannot provide one. The joined node will repeat the request.
+      if (processorState.getReplicatedStateTransfer().isPending()) {
+
+         //noinspection ControlFlowStatementWithoutBraces
+         if (LOG.isDebugEnabled()) LOG.debug("Ignored snapshot request while waiting for a snapshot: " + this); // NOPMD
+         return;
+      }
+
+      final Long highestSequenceNumberDelivered = processorState.getHighestSequenceNumberDelivered();
+      final long version = highestSequenceNumberDelivered == null ? -1L : highestSequenceNumberDelivered;
+
+      final ReplicatedStateSnapshotMessage snapshot = new ReplicatedStateSnapshotMessage(version,
+              processorState.getReplicatedState());
+      snapshot.setReceiver(getSender());
+      processor.post(snapshot);
+   }
+
+
+   public String toString() {
+
+      return "GetReplicatedStateSnapshotMessage{} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new GetReplicatedStateSnapshotMessage();
+      }
+   }
+}
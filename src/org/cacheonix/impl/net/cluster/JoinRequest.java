@@ -13,7 +13,12 @@
  */
 package org.cacheonix.impl.net.cluster;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.net.processor.Request;
 import org.cacheonix.impl.net.processor.Response;
 import org.cacheonix.impl.net.serializer.Wireable;
@@ -41,6 +46,12 @@ public final class JoinRequest extends ClusterRequest {
     */
    private static final Logger LOG = Logger.getLogger(JoinRequest.class); // NOPMD
 
+   /**
+    * Maximum multicast datagram size used by the joining node. A node can join only a cluster that uses the same
+    * size.
+    */
+   private int maximumMulticastPacketSize = Frame.MAXIMUM_MULTICAST_PACKET_SIZE;
+
 
    /**
     * Required by Externalizable.
@@ -66,6 +77,31 @@ public final class JoinRequest extends ClusterRequest {
    }
 
 
+   /**
+    * Creates JoinMessage.
+    *
+    * @param joinToMember               a process that we would like to join.
+    * @param maximumMulticastPacketSize the maximum multicast datagram size used by the joining node.
+    */
+   public JoinRequest(final ClusterNodeAddress joinToMember, final int maximumMulticastPacketSize) {
+
+      this(joinToMember);
+
+      this.maximumMulticastPacketSize = maximumMulticastPacketSize;
+   }
+
+
+   /**
+    * Returns the maximum multicast datagram size used by the joining node.
+    *
+    * @return the maximum multicast datagram size used by the joining node.
+    */
+   public int getMaximumMulticastPacketSize() {
+
+      return maximumMulticastPacketSize;
+   }
+
+
    /**
     * {@inheritDoc}
     */
@@ -91,6 +127,23 @@ public final class JoinRequest extends ClusterRequest {
          return;
       }
 
+      // We cannot serve join if the joining node splits messages into datagrams of a different size
+      final int ourMaximumMulticastPacketSize = clusterProcessor.getProcessorState().getMaximumMulticastPacketSize();
+      if (maximumMulticastPacketSize != ourMaximumMulticastPacketSize) {
+
+         final String errorDescription = "Rejecting join request from " + getSender()
+                 + " because its maximum multicast packet size " + maximumMulticastPacketSize
+                 + " is different from the cluster's " + ourMaximumMulticastPacketSize;
+
+         LOG.warn(errorDescription);
+
+         final Response errorResponse = createResponse(Response.RESULT_ERROR);
+         errorResponse.setResult(errorDescription);
+         clusterProcessor.post(errorResponse);
+
+         return;
+      }
+
       // We cannot serve join if we are in process of shutting down. Generally it is not possible
       // to guarantee that a node serving joining won't start leaving, but, at least, it is possible
       // to avoid situation when a node know to be leaving responds to the join request with 'SUCCESS'.
@@ -202,9 +255,50 @@ public final class JoinRequest extends ClusterRequest {
    }
 
 
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeInt(maximumMulticastPacketSize);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      maximumMulticastPacketSize = in.readInt();
+   }
+
+
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final JoinRequest that = (JoinRequest) o;
+
+      return maximumMulticastPacketSize == that.maximumMulticastPacketSize;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + maximumMulticastPacketSize;
+      return result;
+   }
+
+
    public String toString() {
 
       return "JoinMessage{" +
+              "maximumMulticastPacketSize=" + maximumMulticastPacketSize +
               "} " + super.toString();
    }
 
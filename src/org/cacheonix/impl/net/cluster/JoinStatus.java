@@ -15,7 +15,6 @@ package org.cacheonix.impl.net.cluster;
 
 import java.util.List;
 
-import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.util.time.Timeout;
@@ -60,20 +59,6 @@ public interface JoinStatus {
 
    void setLastOperationalCluster(ClusterView lastOperationalClusterView);
 
-   /**
-    * Sets a replicated state of the process we are joining.
-    *
-    * @param replicatedState the replicated state of the process we are joining.
-    */
-   void setReplicatedState(ReplicatedState replicatedState);
-
-   /**
-    * Returns a replicated state of the process we are joining.
-    *
-    * @return the replicated state of the process we are joining.
-    */
-   ReplicatedState getReplicatedState();
-
    /**
     * Join timeout.
     *
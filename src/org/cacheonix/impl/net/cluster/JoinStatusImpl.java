@@ -16,7 +16,6 @@ package org.cacheonix.impl.net.cluster;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.config.ClusterConfiguration;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
@@ -66,11 +65,6 @@ final class JoinStatusImpl implements JoinStatus {
     */
    private final Timeout clusterSurveyTimeout;
 
-   /**
-    * Replicated state that we received from the {@link #joiningToProcess}.
-    */
-   private ReplicatedState replicatedState = null;
-
    /**
     * Message assembler parts at the moment of join.
     */
@@ -135,18 +129,6 @@ final class JoinStatusImpl implements JoinStatus {
    }
 
 
-   public void setReplicatedState(final ReplicatedState replicatedState) {
-
-      this.replicatedState = replicatedState;
-   }
-
-
-   public ReplicatedState getReplicatedState() {
-
-      return replicatedState;
-   }
-
-
    public Timeout getTimeout() {
 
       return timeout;
@@ -225,7 +207,6 @@ final class JoinStatusImpl implements JoinStatus {
       messageAssemblerParts = null;
       joiningToProcess = null;
       joiningToCluster = null;
-      replicatedState = null;
 
       clusterSurveyTimeout.cancel();
       timeout.cancel();
@@ -238,7 +219,6 @@ final class JoinStatusImpl implements JoinStatus {
               "joiningToProcess=" + joiningToProcess +
               ", joiningToCluster=" + joiningToCluster +
               ", timeout=" + clusterSurveyTimeout +
-              ", replicatedState=" + replicatedState +
               ", messageAssemblerParts=" + messageAssemblerParts +
               ", lastOperationalClusterView=" + lastOperationalClusterView +
               '}';
@@ -20,12 +20,10 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.net.processor.Request;
 import org.cacheonix.impl.net.processor.Response;
-import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
 import org.cacheonix.impl.util.logging.Logger;
@@ -53,8 +51,6 @@ public final class MarkerListRequest extends ClusterRequest {
 
    private ClusterView clusterView = null;
 
-   private ReplicatedState replicatedState = null;
-
    /**
     * Frames present in the message assembler at the time of creating MarkerListRequest.
     */
@@ -84,20 +80,17 @@ public final class MarkerListRequest extends ClusterRequest {
     * @param lastOperationalClusterView last operational cluster view to send to the joining node. Having the same last
     *                                   operational cluster view ensures that all nodes produce the same left and joined
     *                                   lists on recovery and join.
-    * @param replicatedState            the replicated state.
     * @param messageAssemblerParts      parts a list of frames present in the message assembler at the time of creating
     *                                   the
     */
    public MarkerListRequest(final ClusterNodeAddress sender, final ClusterView clusterView,
-           final ClusterView lastOperationalClusterView, final ReplicatedState replicatedState,
-           final List<Frame> messageAssemblerParts) {
+           final ClusterView lastOperationalClusterView, final List<Frame> messageAssemblerParts) {
 
       super(TYPE_CLUSTER_MARKER_LIST);
       setRequiresSameCluster(false);
       this.setSender(sender);
       this.clusterView = clusterView.copy();
       this.lastOperationalClusterView = lastOperationalClusterView == null ? null : lastOperationalClusterView.copy();
-      this.replicatedState = replicatedState.copy();
       this.messageAssemblerParts = new LinkedList<Frame>(messageAssemblerParts);
    }
 
@@ -176,9 +169,6 @@ public final class MarkerListRequest extends ClusterRequest {
       joinStatus.setJoiningToCluster(clusterView);
       joinStatus.setLastOperationalCluster(lastOperationalClusterView);
 
-      // Set replicated state to join status
-      final ReplicatedState replicatedState = this.replicatedState.copy();
-      joinStatus.setReplicatedState(replicatedState);
       joinStatus.getTimeout().cancel();
 
       // Set parts
@@ -239,8 +229,6 @@ public final class MarkerListRequest extends ClusterRequest {
 
       super.writeWire(out);
       clusterView.writeWire(out);
-      SerializerUtils.writeString(replicatedState.getClass().getName(), out);
-      replicatedState.writeWire(out);
 
       //
       out.writeInt(messageAssemblerParts.size());
@@ -267,9 +255,6 @@ public final class MarkerListRequest extends ClusterRequest {
       super.readWire(in);
       clusterView = new ClusterViewImpl();
       clusterView.readWire(in);
-      final String repStateClassName = SerializerUtils.readString(in);
-      replicatedState = (ReplicatedState) SerializerUtils.newInstance(Class.forName(repStateClassName));
-      replicatedState.readWire(in);
 
       final int size = in.readInt();
       messageAssemblerParts = new ArrayList<Frame>(size);
@@ -314,9 +299,6 @@ public final class MarkerListRequest extends ClusterRequest {
               that.messageAssemblerParts) : that.messageAssemblerParts != null) {
          return false;
       }
-      if (replicatedState != null ? !replicatedState.equals(that.replicatedState) : that.replicatedState != null) {
-         return false;
-      }
 
       return true;
    }
@@ -326,7 +308,6 @@ public final class MarkerListRequest extends ClusterRequest {
 
       int result = super.hashCode();
       result = 31 * result + (clusterView != null ? clusterView.hashCode() : 0);
-      result = 31 * result + (replicatedState != null ? replicatedState.hashCode() : 0);
       result = 31 * result + (messageAssemblerParts != null ? messageAssemblerParts.hashCode() : 0);
       result = 31 * result + (lastOperationalClusterView != null ? lastOperationalClusterView.hashCode() : 0);
       return result;
@@ -337,7 +318,6 @@ public final class MarkerListRequest extends ClusterRequest {
 
       return "MarkerListRequest{" +
               "clusterView=" + clusterView +
-              ", replicatedState=" + replicatedState +
               ", messageAssemblerParts=" + messageAssemblerParts +
               ", lastOperationalClusterView=" + lastOperationalClusterView +
               "} " + super.toString();
@@ -70,7 +70,7 @@ final class MessageAssemblerImpl implements MessageAssembler {
 
             // Single-part message, deserialize
             final Message message = deserialize(frame.getSerializerType(), frame.getPayload());
-            assembledMessages.add(new AssembledMessageImpl(message, frame.getSequenceNumber()));
+            assembledMessages.add(new AssembledMessageImpl(message, frame.getSequenceNumber(), frame.getSequenceNumber()));
          } else {
 
             // Partial packet
@@ -125,7 +125,7 @@ final class MessageAssemblerImpl implements MessageAssembler {
 
                // Add to assembled requests
                final Message message = deserialize(frame.getSerializerType(), whole);
-               assembledMessages.add(new AssembledMessageImpl(message, firstFrameNumber));
+               assembledMessages.add(new AssembledMessageImpl(message, firstFrameNumber, frame.getSequenceNumber()));
             }
          } else {
 
@@ -0,0 +1,205 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+/**
+ * Flow control for the multicast marker. Limits the number of frames that a node holding the marker may multicast.
+ * <p/>
+ * The window grows additively after each marker rotation that used up the window without congestion and shrinks
+ * multiplicatively after a rotation that saw congestion. Congestion is either a retransmit or a gap in the received
+ * list, both meaning that some receiver could not keep up with the rate of multicast frames.
+ * <p/>
+ * The flow control is modified by the cluster processor thread only. The counters may be read by any thread.
+ *
+ * @see MulticastMarker
+ */
+public final class MulticastFlowControl {
+
+   /**
+    * The initial window.
+    */
+   static final int INITIAL_WINDOW = 100;
+
+   /**
+    * The smallest window.
+    */
+   static final int MIN_WINDOW = 10;
+
+   /**
+    * The largest window.
+    */
+   static final int MAX_WINDOW = 1000;
+
+   /**
+    * A number of frames added to the window after a rotation without congestion.
+    */
+   static final int WINDOW_INCREMENT = 10;
+
+   /**
+    * The current window.
+    */
+   private volatile int window = INITIAL_WINDOW;
+
+   /**
+    * <code>true</code> if congestion was detected during the current rotation.
+    */
+   private boolean congested = false;
+
+   /**
+    * A number of frames sent during the last completed rotation.
+    */
+   private volatile int lastRotationSentFrameCount = 0;
+
+   /**
+    * A total number of completed rotations.
+    */
+   private volatile long rotationCount = 0L;
+
+   /**
+    * A total number of frames sent.
+    */
+   private volatile long sentFrameCount = 0L;
+
+   /**
+    * A total number of frames retransmitted.
+    */
+   private volatile long retransmittedFrameCount = 0L;
+
+   /**
+    * A total number of gaps detected.
+    */
+   private volatile long gapCount = 0L;
+
+
+   /**
+    * Returns the number of frames that can be multicast during the current rotation.
+    *
+    * @return the number of frames that can be multicast during the current rotation.
+    */
+   public int getWindow() {
+
+      return window;
+   }
+
+
+   /**
+    * Registers a retransmitted frame.
+    */
+   public void registerRetransmit() {
+
+      congested = true;
+      retransmittedFrameCount++;
+   }
+
+
+   /**
+    * Registers a gap in the received list or a receiver lagging behind the marker.
+    */
+   public void registerGap() {
+
+      congested = true;
+      gapCount++;
+   }
+
+
+   /**
+    * Completes a rotation and adjusts the window for the next one.
+    *
+    * @param sentFrameCount a number of new frames sent during the rotation.
+    */
+   public void completeRotation(final int sentFrameCount) {
+
+      if (congested) {
+
+         window = Math.max(MIN_WINDOW, window / 2);
+      } else if (sentFrameCount >= window) {
+
+         window = Math.min(MAX_WINDOW, window + WINDOW_INCREMENT);
+      }
+
+      congested = false;
+      lastRotationSentFrameCount = sentFrameCount;
+      this.sentFrameCount += sentFrameCount;
+      rotationCount++;
+   }
+
+
+   /**
+    * Returns a number of frames sent during the last completed rotation.
+    *
+    * @return the number of frames sent during the last completed rotation.
+    */
+   public int getLastRotationSentFrameCount() {
+
+      return lastRotationSentFrameCount;
+   }
+
+
+   /**
+    * Returns a total number of completed rotations.
+    *
+    * @return the total number of completed rotations.
+    */
+   public long getRotationCount() {
+
+      return rotationCount;
+   }
+
+
+   /**
+    * Returns a total number of frames sent.
+    *
+    * @return the total number of frames sent.
+    */
+   public long getSentFrameCount() {
+
+      return sentFrameCount;
+   }
+
+
+   /**
+    * Returns a total number of frames retransmitted.
+    *
+    * @return the total number of frames retransmitted.
+    */
+   public long getRetransmittedFrameCount() {
+
+      return retransmittedFrameCount;
+   }
+
+
+   /**
+    * Returns a total number of gaps detected.
+    *
+    * @return the total number of gaps detected.
+    */
+   public long getGapCount() {
+
+      return gapCount;
+   }
+
+
+   public String toString() {
+
+      return "MulticastFlowControl{" +
+              "window=" + window +
+              ", congested=" + congested +
+              ", lastRotationSentFrameCount=" + lastRotationSentFrameCount +
+              ", rotationCount=" + rotationCount +
+              ", sentFrameCount=" + sentFrameCount +
+              ", retransmittedFrameCount=" + retransmittedFrameCount +
+              ", gapCount=" + gapCount +
+              '}';
+   }
+}
@@ -17,11 +17,14 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.net.processor.Message;
 import org.cacheonix.impl.net.processor.ProcessorKey;
+import org.cacheonix.impl.net.processor.ReceiverAddress;
 import org.cacheonix.impl.net.processor.SenderInetAddressAware;
 import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
@@ -32,6 +35,13 @@ import org.cacheonix.impl.util.logging.Logger;
 
 /**
  * A message carrying a multicast frame when Cacheonix uses TCP broadcast.
+ * <p/>
+ * In the tree fan-out mode the originator of the frame splits members of its cluster view into at most
+ * <code>fanOut</code> subtrees and sends the frame to the first node of each subtree together with the rest of the
+ * subtree as a list of targets. Each receiver does the same with its targets, so no node sends more than
+ * <code>fanOut</code> copies of a frame to cluster members. Nodes outside of the cluster view receive the frame
+ * directly with the visited list pre-populated from the cluster view so that they do not forward it back to the
+ * members.
  */
 @SuppressWarnings("RedundantIfStatement")
 public final class MulticastFrameMessage extends Message implements SenderInetAddressAware {
@@ -74,6 +84,24 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
     */
    private boolean sendToKnownAddresses = true;
 
+   /**
+    * Maximum number of children a node forwards the frame to in the tree fan-out mode or zero if the tree fan-out is
+    * not used.
+    */
+   private int fanOut = 0;
+
+   /**
+    * Cluster members the receiver of this message is responsible for forwarding the frame to in the tree fan-out mode
+    * or <code>null</code> if this message is not a part of the tree fan-out.
+    */
+   private List<ClusterNodeAddress> targets = null; // NOPMD
+
+   /**
+    * Known addresses of the originator. Set only for a message the originator routes to itself to start the tree
+    * fan-out. Never sent over the wire.
+    */
+   private transient List<ReceiverAddress> knownAddresses = null; // NOPMD
+
 
    /**
     * Required by Externalizable.
@@ -114,7 +142,19 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
       // Send to known processors
       final ClusterProcessorState processorState = clusterProcessor.getProcessorState();
       final HashSet<ClusterNodeAddress> knownReceivers = processorState.getKnownReceivers();
-      if (sendToKnownAddresses) {
+      if (knownAddresses != null) {
+
+         // This node is the originator, start the tree fan-out
+         final List<ClusterNodeAddress> members = getOtherMembers(clusterProcessor);
+         forwardToTargets(clusterProcessor, members, true);
+         sendToKnownAddressesOutsideOfClusterView(clusterProcessor, members);
+         forwardToKnownReceiversOutsideOfClusterView(clusterProcessor, members);
+      } else if (targets != null) {
+
+         // This node is a part of the tree fan-out
+         forwardToTargets(clusterProcessor, targets, false);
+         forwardToKnownReceiversOutsideOfClusterView(clusterProcessor, getOtherMembers(clusterProcessor));
+      } else if (sendToKnownAddresses) {
 
          knownReceivers.forEach(new ObjectProcedure<ClusterNodeAddress>() {
 
@@ -146,6 +186,154 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
    }
 
 
+   /**
+    * Splits the targets into at most <code>fanOut</code> subtrees of equal size and sends the frame to the first node
+    * of each subtree. The rest of the subtree becomes the targets of the message sent to the first node.
+    *
+    * @param clusterProcessor the cluster processor.
+    * @param targets          the nodes to deliver the frame to.
+    * @param fromOriginator   <code>true</code> if this node is the originator of the frame.
+    */
+   private void forwardToTargets(final ClusterProcessor clusterProcessor, final List<ClusterNodeAddress> targets,
+           final boolean fromOriginator) {
+
+      final int targetCount = targets.size();
+      final int childCount = Math.min(fanOut, targetCount);
+      int from = 0;
+      for (int child = 0; child < childCount; child++) {
+
+         final int to = from + (targetCount - from) / (childCount - child);
+
+         final MulticastFrameMessage multicastFrameMessage = new MulticastFrameMessage();
+         multicastFrameMessage.setReceiver(targets.get(from));
+         multicastFrameMessage.setOriginator(fromOriginator);
+         multicastFrameMessage.setFrame(frame);
+         multicastFrameMessage.setFanOut(fanOut);
+         multicastFrameMessage.targets = new ArrayList<ClusterNodeAddress>(targets.subList(from + 1, to));
+
+         clusterProcessor.post(multicastFrameMessage);
+
+         from = to;
+      }
+   }
+
+
+   /**
+    * Sends the frame to the originator's known addresses that do not belong to members of the cluster view.
+    *
+    * @param clusterProcessor the cluster processor.
+    * @param members          members of the cluster view except this node.
+    */
+   private void sendToKnownAddressesOutsideOfClusterView(final ClusterProcessor clusterProcessor,
+           final List<ClusterNodeAddress> members) {
+
+      for (final ReceiverAddress knownAddress : knownAddresses) {
+
+         if (knownAddress.isAddressOf(clusterProcessor.getAddress()) || isAddressOfAny(knownAddress, members)) {
+            continue;
+         }
+
+         final MulticastFrameMessage multicastFrameMessage = new MulticastFrameMessage();
+         multicastFrameMessage.setReceiver(knownAddress);
+         multicastFrameMessage.setOriginator(true);
+         multicastFrameMessage.setFrame(frame);
+         multicastFrameMessage.prePopulateVisited(clusterProcessor, members);
+
+         clusterProcessor.post(multicastFrameMessage);
+      }
+   }
+
+
+   /**
+    * Forwards the frame to the known receivers that are not members of the cluster view. Such receivers are usually
+    * joining nodes or nodes of another cluster.
+    *
+    * @param clusterProcessor the cluster processor.
+    * @param members          members of the cluster view except this node.
+    */
+   private void forwardToKnownReceiversOutsideOfClusterView(final ClusterProcessor clusterProcessor,
+           final List<ClusterNodeAddress> members) {
+
+      final ClusterNodeAddress self = clusterProcessor.getAddress();
+      final HashSet<ClusterNodeAddress> memberSet = new HashSet<ClusterNodeAddress>(members.size());
+      memberSet.addAll(members);
+      clusterProcessor.getProcessorState().getKnownReceivers().forEach(new ObjectProcedure<ClusterNodeAddress>() {
+
+         public boolean execute(final ClusterNodeAddress knownReceiver) {
+
+            if (knownReceiver.equals(self) || getSender().equals(knownReceiver) || memberSet.contains(knownReceiver)
+                    || getVisited().contains(knownReceiver)) {
+               return true; // Continue
+            }
+
+            if (knownAddresses != null && isAnyAddressOf(knownAddresses, knownReceiver)) {
+               return true; // Already sent by sendToKnownAddressesOutsideOfClusterView()
+            }
+
+            final MulticastFrameMessage multicastFrameMessage = new MulticastFrameMessage();
+            multicastFrameMessage.setReceiver(knownReceiver);
+            multicastFrameMessage.setOriginator(knownAddresses != null);
+            multicastFrameMessage.setFrame(frame);
+            multicastFrameMessage.prePopulateVisited(clusterProcessor, members);
+
+            clusterProcessor.post(multicastFrameMessage);
+
+            return true;
+         }
+      });
+   }
+
+
+   /**
+    * Pre-populates the visited list with this node and the members of its cluster view so that a receiver outside of
+    * the cluster view does not forward the frame back to them.
+    *
+    * @param clusterProcessor the cluster processor.
+    * @param members          members of the cluster view except this node.
+    */
+   private void prePopulateVisited(final ClusterProcessor clusterProcessor, final List<ClusterNodeAddress> members) {
+
+      final HashSet<ClusterNodeAddress> visitedSet = getVisited();
+      visitedSet.add(clusterProcessor.getAddress());
+      visitedSet.addAll(members);
+   }
+
+
+   private static List<ClusterNodeAddress> getOtherMembers(final ClusterProcessor clusterProcessor) {
+
+      final List<ClusterNodeAddress> members = new ArrayList<ClusterNodeAddress>(
+              clusterProcessor.getProcessorState().getClusterView().getClusterNodeList());
+      members.remove(clusterProcessor.getAddress());
+      return members;
+   }
+
+
+   private static boolean isAddressOfAny(final ReceiverAddress receiverAddress,
+           final List<ClusterNodeAddress> clusterNodeAddresses) {
+
+      for (final ClusterNodeAddress clusterNodeAddress : clusterNodeAddresses) {
+
+         if (receiverAddress.isAddressOf(clusterNodeAddress)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+
+   private static boolean isAnyAddressOf(final List<ReceiverAddress> receiverAddresses,
+           final ClusterNodeAddress clusterNodeAddress) {
+
+      for (final ReceiverAddress receiverAddress : receiverAddresses) {
+
+         if (receiverAddress.isAddressOf(clusterNodeAddress)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+
    public void setFrame(final Frame frame) {
 
       this.frame = frame;
@@ -174,6 +362,47 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
    }
 
 
+   /**
+    * Sets the maximum number of children a node forwards the frame to in the tree fan-out mode.
+    *
+    * @param fanOut the maximum number of children a node forwards the frame to in the tree fan-out mode.
+    */
+   public void setFanOut(final int fanOut) {
+
+      this.fanOut = fanOut;
+   }
+
+
+   int getFanOut() {
+
+      return fanOut;
+   }
+
+
+   /**
+    * Makes this message start the tree fan-out when executed by the originator's cluster processor.
+    *
+    * @param knownAddresses the originator's known addresses. The frame is sent directly to the known addresses that do
+    *                       not belong to the members of the cluster view.
+    */
+   public void setKnownAddresses(final List<ReceiverAddress> knownAddresses) {
+
+      this.knownAddresses = knownAddresses;
+   }
+
+
+   List<ClusterNodeAddress> getTargets() {
+
+      return targets;
+   }
+
+
+   void setTargets(final List<ClusterNodeAddress> targets) {
+
+      this.targets = targets;
+   }
+
+
    public void setOriginator(final boolean originator) {
 
       this.originator = originator;
@@ -256,6 +485,20 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
             SerializerUtils.writeAddress(visitedAddress, out);
          }
       }
+
+      out.writeInt(fanOut);
+      if (targets == null) {
+
+         out.writeBoolean(true);
+      } else {
+
+         out.writeBoolean(false);
+         out.writeInt(targets.size());
+         for (final ClusterNodeAddress target : targets) {
+
+            SerializerUtils.writeAddress(target, out);
+         }
+      }
    }
 
 
@@ -288,6 +531,20 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
             visited.add(SerializerUtils.readAddress(in));
          }
       }
+
+      fanOut = in.readInt();
+      if (in.readBoolean()) {
+
+         targets = null;
+      } else {
+
+         final int targetCount = in.readInt();
+         targets = new ArrayList<ClusterNodeAddress>(targetCount);
+         for (int i = 0; i < targetCount; i++) {
+
+            targets.add(SerializerUtils.readAddress(in));
+         }
+      }
    }
 
 
@@ -320,6 +577,12 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
       if (visited != null ? !visited.equals(message.visited) : message.visited != null) {
          return false;
       }
+      if (fanOut != message.fanOut) {
+         return false;
+      }
+      if (targets != null ? !targets.equals(message.targets) : message.targets != null) {
+         return false;
+      }
 
       return true;
    }
@@ -333,6 +596,8 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
       result = 31 * result + (originator ? 1 : 0);
       result = 31 * result + (frame != null ? frame.hashCode() : 0);
       result = 31 * result + (sendToKnownAddresses ? 1 : 0);
+      result = 31 * result + fanOut;
+      result = 31 * result + (targets != null ? targets.hashCode() : 0);
       return result;
    }
 
@@ -344,6 +609,8 @@ public final class MulticastFrameMessage extends Message implements SenderInetAd
               ", sendToKnownAddresses=" + sendToKnownAddresses +
               ", senderInetAddress=" + senderInetAddress +
               ", visited=" + visited +
+              ", fanOut=" + fanOut +
+              ", targets=" + targets +
               ", frame=" + frame +
               "} " + super.toString();
    }
@@ -23,11 +23,6 @@ import java.util.Queue;
 import java.util.Set;
 
 import org.cacheonix.impl.clock.Time;
-import org.cacheonix.impl.lock.LockOwner;
-import org.cacheonix.impl.lock.LockQueue;
-import org.cacheonix.impl.lock.LockQueueKey;
-import org.cacheonix.impl.lock.LockRegistry;
-import org.cacheonix.impl.lock.ReleaseLockRequest;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.net.processor.Response;
@@ -36,8 +31,6 @@ import org.cacheonix.impl.net.serializer.SerializerUtils;
 import org.cacheonix.impl.net.serializer.Wireable;
 import org.cacheonix.impl.net.serializer.WireableBuilder;
 import org.cacheonix.impl.util.Assert;
-import org.cacheonix.impl.util.array.HashMap;
-import org.cacheonix.impl.util.array.ObjectObjectProcedure;
 import org.cacheonix.impl.util.logging.Logger;
 
 import static org.cacheonix.impl.net.cluster.ClusterProcessorState.STATE_NORMAL;
@@ -62,16 +55,6 @@ public final class MulticastMarker extends OperationalMarker {
     */
    private static final Logger LOG = Logger.getLogger(MulticastMarker.class); // NOPMD
 
-   /**
-    * Max multicast messages messages allowed to send.
-    * <p/>
-    * OPTIMIZEME: slava@cacheonix.org - 20090-12-08 - As for this writing MulticastReceiver is single threaded, so
-    * setting the max number of messages too high causes receive buffer overflow in the MulticastReceiver because it
-    * cannot pull the messages fast enough. This value should a function of flow control rather then a constant. The
-    * function should minimize the number of retransmits.
-    */
-   private static final int MAX_MULTICAST_MESSAGES_ALLOWED_TO_SEND = 100;
-
    private ClusterNodeAddress originator = null;
 
    private long seqNum = 0L; // not set
@@ -405,9 +388,6 @@ public final class MulticastMarker extends OperationalMarker {
          // Receive frames
          receiveFrames();
 
-         // Process distributed locks unlock timeouts
-         processUnlockTimeouts();
-
          // Begin joining if there are proper cluster announcements.
          processClusterAnnouncements();
 
@@ -419,96 +399,6 @@ public final class MulticastMarker extends OperationalMarker {
    }
 
 
-   /**
-    * If this is a cluster representative, posts unlock message if unlock has timed out
-    */
-   private void processUnlockTimeouts() {
-
-      final ClusterProcessor processor = getClusterProcessor();
-
-      final ClusterView clusterView = processor.getProcessorState().getClusterView();
-
-      // This method is only executed at a representative so that
-      // the unlock requests are sent from an only place
-      final ClusterNodeAddress address = processor.getAddress();
-      final ClusterNodeAddress representative = clusterView.getRepresentative();
-      if (!address.equals(representative)) {
-
-         // Not a representative
-         return;
-      }
-
-      // This a representative
-
-      final LockRegistry lockRegistry = processor.getProcessorState().getReplicatedState().getLockRegistry();
-      final HashMap<LockQueueKey, LockQueue> lockQueues = lockRegistry.getLockQueues();
-      if (lockQueues.isEmpty()) {
-
-         // No locks
-         return;
-      }
-
-      // Process each keyed lock region
-      lockQueues.forEachEntry(new ObjectObjectProcedure<LockQueueKey, LockQueue>() {
-
-         public boolean execute(final LockQueueKey lockQueueKey, final LockQueue lockQueue) {
-
-            // Begin to release timed out write lock
-            final LockOwner writeLockOwner = lockQueue.getWriteLockOwner();
-            beginReleasingExpiredLocks(lockQueueKey, lockQueue, writeLockOwner);
-
-            // Begin to release timed out read locks
-            final List<LockOwner> lockOwners = lockQueue.getReadLockOwners();
-            for (final LockOwner readLockOwner : lockOwners) {
-
-               beginReleasingExpiredLocks(lockQueueKey, lockQueue, readLockOwner);
-            }
-
-            // Next entry
-            return true;
-         }
-      });
-   }
-
-
-   /**
-    * For a given lock owner, if its time to unlock expired, posts a reliable mcast message to release the lock.
-    *
-    * @param lockQueueKey the lock name.
-    * @param lockQueue    the lock queue.
-    * @param lockOwner    the lock owner.
-    */
-   private void beginReleasingExpiredLocks(final LockQueueKey lockQueueKey, final LockQueue lockQueue,
-           final LockOwner lockOwner) {
-
-      // Nothing to release
-      if (lockOwner == null) {
-         return;
-      }
-
-      // Check if already registered
-      if (lockQueue.isRegisteredInForcedReleases(lockOwner)) {
-         return;
-      }
-
-      // Lazy init unlock time
-
-      final ClusterProcessor processor = getClusterProcessor();
-      if (processor.getClock().currentTime().compareTo(lockOwner.getUnlockTimeout()) > 0) {
-
-         // Register unlock announcement
-         lockQueue.registerForcedRelease(lockOwner);
-
-         // Announce unlock
-         final ReleaseLockRequest announcement = new ReleaseLockRequest(lockQueueKey.getLockRegionName(),
-                 lockQueueKey.getLockKey(), lockOwner.getAddress(), lockOwner.getThreadID(), lockOwner.getThreadName(),
-                 lockOwner.isReadLock());
-         announcement.setResponseRequired(false); // Important to avoid sending useless response
-         processor.post(announcement);
-      }
-   }
-
-
    @SuppressWarnings("ForLoopReplaceableByForEach")
    private void processNormalNormal() throws IOException, InterruptedException {
 
@@ -574,13 +464,22 @@ public final class MulticastMarker extends OperationalMarker {
          }
       }
 
-      // Init allowed number of mcast messages
-      int messagesAllowedToSend = MAX_MULTICAST_MESSAGES_ALLOWED_TO_SEND;
+      // Init allowed number of mcast messages. The window is adjusted by
+      // flow control to minimize the number of retransmits.
+      final MulticastFlowControl flowControl = clusterProcessor.getProcessorState().getMulticastFlowControl();
+      int messagesAllowedToSend = flowControl.getWindow();
 
       // Ri
 
       final Long highestContinuousNumberReceived = clusterProcessor.getProcessorState().getReceivedList().getHighestContinuousNumberReceived();
 
+      // A gap in the received list means that this node could not keep up with the multicast rate
+      final Long highestSequenceNumberReceived = clusterProcessor.getProcessorState().getReceivedList().getHighestSequenceNumberReceived();
+      if (highestSequenceNumberReceived != null && (highestContinuousNumberReceived == null || highestSequenceNumberReceived > highestContinuousNumberReceived)) {
+
+         flowControl.registerGap();
+      }
+
       // Di
       final Long highestSequenceNumberDelivered = clusterProcessor.getProcessorState().getHighestSequenceNumberDelivered();
 
@@ -616,6 +515,7 @@ public final class MulticastMarker extends OperationalMarker {
                   // Send packet
                   final Frame frame = receivedList.getMessage(resubmitNum);
                   clusterProcessor.sendMulticastFrame(frame);
+                  flowControl.registerRetransmit();
 
                   // Decrement to implement basic flow control. If lesser or
                   // equal zero, multicasting code below should not send.
@@ -787,8 +687,12 @@ public final class MulticastMarker extends OperationalMarker {
       //
       // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
 
+      // A node that is waiting for a snapshot of the replicated state holds its messages back
+      // until it is in sync, so that the messages it sends are never included in the snapshot.
+      int sentFrameCount = 0;
       final Queue<List<Frame>> submittalQueue = clusterProcessor.getProcessorState().getSubmittalQueue();
-      for (List<Frame> frames; messagesAllowedToSend > 0 && (frames = submittalQueue.poll()) != null; ) {
+      final boolean inSync = !clusterProcessor.getProcessorState().getReplicatedStateTransfer().isPending();
+      for (List<Frame> frames; inSync && messagesAllowedToSend > 0 && (frames = submittalQueue.poll()) != null; ) {
 
          //         if (LOG.isDebugEnabled()) LOG.debug("Parts to send: " + messageParts);
          for (int i = 0; i < frames.size(); i++) {
@@ -817,9 +721,13 @@ public final class MulticastMarker extends OperationalMarker {
             // Decrement number of packet allowed to send. It can go negative because we may
             // have to over-send to send all parts of an object.
             messagesAllowedToSend--;
+            sentFrameCount++;
          }
       }
 
+      // Adjust the window for the next rotation
+      flowControl.completeRotation(sentFrameCount);
+
       // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
       //
       // Handle join request(s) pending at this node.
@@ -871,7 +779,6 @@ public final class MulticastMarker extends OperationalMarker {
                      final MarkerListRequest markerListRequest = new MarkerListRequest(self,
                              clusterProcessor.getProcessorState().getClusterView(),
                              clusterProcessor.getProcessorState().getLastOperationalClusterView(),
-                             clusterProcessor.getProcessorState().getReplicatedState(),
                              clusterProcessor.getMessageAssembler().getParts());
                      markerListRequest.setReceiver(joiningNodeAddress);
 
@@ -995,8 +902,8 @@ public final class MulticastMarker extends OperationalMarker {
       processor.getProcessorState().setClusterView(joinStatus.getJoiningToCluster());
       processor.getRouter().setClusterUUID(joinStatus.getJoiningToCluster().getClusterUUID());
 
-      processor.getProcessorState().getReplicatedState().reset(joinStatus.getReplicatedState());
       processor.getMessageAssembler().setParts(joinStatus.getMessageAssemblerParts());
+      processor.beginReplicatedStateTransfer(joinStatus.getJoiningToProcess(), marker.previous);
       joinStatus.clear();
 
       // Notify
@@ -1082,7 +989,6 @@ public final class MulticastMarker extends OperationalMarker {
 
          processor.reset();
 
-         processor.getProcessorState().getReplicatedState().reset(joinStatus.getReplicatedState());
          processor.getMessageAssembler().setParts(joinStatus.getMessageAssemblerParts());
 
          //noinspection ControlFlowStatementWithoutBraces
@@ -1103,6 +1009,7 @@ public final class MulticastMarker extends OperationalMarker {
          processor.getRouter().setClusterUUID(joinStatus.getJoiningToCluster().getClusterUUID());
 
          processor.getProcessorState().updateLastOperationalClusterView(joinStatus.getLastOperationalClusterView());
+         processor.beginReplicatedStateTransfer(joinStatus.getJoiningToProcess(), marker.previous);
          joinStatus.clear();
 
          // Change state
@@ -0,0 +1,87 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+
+/**
+ * A heartbeat a cluster node sends periodically to the next node on the ring. The receiver feeds arrival times of the
+ * heartbeats to the neighbor failure detector.
+ * <p/>
+ * The heartbeats are sent by the timer thread, not by the cluster processor thread, so a node that holds the marker
+ * while it is busy processing it keeps sending heartbeats.
+ */
+public final class NeighborHeartbeat extends ClusterMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+
+   public NeighborHeartbeat() {
+
+      super(TYPE_CLUSTER_NEIGHBOR_HEARTBEAT);
+   }
+
+
+   protected void processNormal() {
+
+      registerHeartbeat();
+   }
+
+
+   protected void processBlocked() {
+
+      registerHeartbeat();
+   }
+
+
+   protected void processRecovery() {
+
+      registerHeartbeat();
+   }
+
+
+   protected void processCleanup() {
+
+      registerHeartbeat();
+   }
+
+
+   private void registerHeartbeat() {
+
+      final ClusterProcessor processor = getClusterProcessor();
+      processor.getProcessorState().registerNeighborHeartbeat(getSender(), processor.getClock().currentTimeMillis());
+   }
+
+
+   public String toString() {
+
+      return "NeighborHeartbeat{} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new NeighborHeartbeat();
+      }
+   }
+}
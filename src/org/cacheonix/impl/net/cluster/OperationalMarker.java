@@ -201,7 +201,8 @@ abstract class OperationalMarker extends MarkerRequest {
 
       // Post join request
 
-      final JoinRequest joinRequest = new JoinRequest(member);
+      final int maximumMulticastPacketSize = processor.getProcessorState().getMaximumMulticastPacketSize();
+      final JoinRequest joinRequest = new JoinRequest(member, maximumMulticastPacketSize);
       processor.post(joinRequest);
 
       processor.getProcessorState().getHomeAloneTimeout().reset();
@@ -41,10 +41,39 @@ final class PayloadPartitioner {
     */
    private static final Logger LOG = Logger.getLogger(PayloadPartitioner.class); // NOPMD
 
-   private static final int MAXIMUM_PART_LENGTH = Frame.MAXIMUM_MCAST_PAYLOAD_LENGTH; // NOPMD
-
    private final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
 
+   /**
+    * Maximum length of a frame produced by this partitioner, including the header.
+    */
+   private final int maximumMessageLength;
+
+   /**
+    * Maximum length of a part of the payload carried by a single frame.
+    */
+   private final int maximumPartLength;
+
+
+   /**
+    * Creates a payload partitioner that produces frames that fit the default maximum multicast datagram size.
+    */
+   PayloadPartitioner() {
+
+      this(Frame.MAXIMUM_MCAST_MESSAGE_LENGTH);
+   }
+
+
+   /**
+    * Creates a payload partitioner that produces frames that fit the given maximum multicast datagram size.
+    *
+    * @param maximumMessageLength the maximum length of a frame, including the header.
+    */
+   PayloadPartitioner(final int maximumMessageLength) {
+
+      this.maximumMessageLength = maximumMessageLength;
+      this.maximumPartLength = maximumMessageLength - Frame.HEADER_LENGTH;
+   }
+
 
    /**
     * Splits a message into a list of <code>Frame</code> objects.
@@ -65,7 +94,7 @@ final class PayloadPartitioner {
          final byte[] bytes = serialize(message);
 
          // Get counters
-         final int partLength = MAXIMUM_PART_LENGTH;
+         final int partLength = maximumPartLength;
          final int lastPartLength = bytes.length % partLength;
          final int completePartCount = bytes.length / partLength;
          final int incompletePartCount = lastPartLength > 0 ? 1 : 0;
@@ -96,9 +125,9 @@ final class PayloadPartitioner {
    /**
     * Helper method to create a packet using given set of parameters.
     */
-   private static Frame makeFrame(final int totalPartCount, final int partIndex, final byte[] part) {
+   private Frame makeFrame(final int totalPartCount, final int partIndex, final byte[] part) {
 
-      return new Frame(Frame.MAXIMUM_MCAST_MESSAGE_LENGTH, Serializer.TYPE_JAVA, -1L, totalPartCount, partIndex, part);
+      return new Frame(maximumMessageLength, Serializer.TYPE_JAVA, -1L, totalPartCount, partIndex, part);
    }
 
 
@@ -114,6 +143,7 @@ final class PayloadPartitioner {
    public String toString() {
 
       return "PayloadPartitioner{" +
+              "maximumMessageLength=" + maximumMessageLength +
               '}';
    }
 }
@@ -0,0 +1,316 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+/**
+ * An adaptive phi-accrual failure detector. Instead of reporting a binary suspicion after a fixed timeout, the
+ * detector keeps a sliding window of heartbeat inter-arrival times and computes a suspicion level phi for the time
+ * passed since the last heartbeat. A phi of 1 means that there is about 10% chance that the suspicion is wrong, a phi
+ * of 2 means 1%, a phi of 3 means 0.1% and so on. The inter-arrival times are assumed to be normally distributed.
+ * <p/>
+ * The cluster processor feeds the detector with arrival times of heartbeats from the previous node on the ring and
+ * begins recovery when the detector suspects that the node has failed.
+ * <p/>
+ * The detector is not thread-safe. It is accessed only by the cluster processor thread.
+ *
+ * @see <a href="http://dx.doi.org/10.1109/RELDIS.2004.1353004">The phi accrual failure detector</a>
+ */
+public final class PhiAccrualFailureDetector {
+
+   /**
+    * Suspicion threshold recommended when the detector is enabled.
+    */
+   public static final double DEFAULT_THRESHOLD = 8.0;
+
+   /**
+    * Default acceptable pause in heartbeats, in milliseconds.
+    */
+   public static final long DEFAULT_ACCEPTABLE_PAUSE_MILLIS = 1000L;
+
+   /**
+    * Default number of inter-arrival times kept in the sliding window.
+    */
+   private static final int DEFAULT_MAX_SAMPLE_SIZE = 1000;
+
+   /**
+    * Minimum number of inter-arrival times necessary for the detector to become available.
+    */
+   private static final int MIN_SAMPLE_SIZE = 16;
+
+   /**
+    * Minimum standard deviation of the inter-arrival times, in milliseconds. The minimum standard deviation keeps very
+    * regular heartbeats from making the detector overly sensitive to a small delay.
+    */
+   private static final double MIN_STD_DEVIATION_MILLIS = 100.0;
+
+   /**
+    * Suspicion level at that the detector considers the monitored process failed.
+    */
+   private final double threshold;
+
+   /**
+    * Time in milliseconds added to the mean inter-arrival time to tolerate an occasional pause such as a garbage
+    * collection.
+    */
+   private final long acceptablePauseMillis;
+
+   /**
+    * A ring of inter-arrival times.
+    */
+   private final long[] intervals;
+
+   /**
+    * Index of the next slot to write an interval to.
+    */
+   private int next = 0;
+
+   /**
+    * Number of valid intervals in the ring.
+    */
+   private int size = 0;
+
+   /**
+    * Sum of the intervals in the ring.
+    */
+   private long intervalSum = 0L;
+
+   /**
+    * Sum of squares of the intervals in the ring.
+    */
+   private double squaredIntervalSum = 0.0;
+
+   /**
+    * Time of the last heartbeat or -1 if there were no heartbeats yet.
+    */
+   private long lastHeartbeatMillis = -1L;
+
+
+   /**
+    * Creates a failure detector with the default window size.
+    *
+    * @param threshold             a suspicion level at that the detector considers the monitored process failed. Must
+    *                              be positive.
+    * @param acceptablePauseMillis time in milliseconds to tolerate an occasional pause in heartbeats.
+    */
+   public PhiAccrualFailureDetector(final double threshold, final long acceptablePauseMillis) {
+
+      this(threshold, acceptablePauseMillis, DEFAULT_MAX_SAMPLE_SIZE);
+   }
+
+
+   /**
+    * Creates a failure detector.
+    *
+    * @param threshold             a suspicion level at that the detector considers the monitored process failed. Must
+    *                              be positive.
+    * @param acceptablePauseMillis time in milliseconds to tolerate an occasional pause in heartbeats.
+    * @param maxSampleSize         number of inter-arrival times kept in the sliding window.
+    */
+   public PhiAccrualFailureDetector(final double threshold, final long acceptablePauseMillis,
+           final int maxSampleSize) {
+
+      if (threshold <= 0.0) {
+         throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+      }
+      if (maxSampleSize < MIN_SAMPLE_SIZE) {
+         throw new IllegalArgumentException("Sample size should be at least " + MIN_SAMPLE_SIZE + ": " + maxSampleSize);
+      }
+
+      this.threshold = threshold;
+      this.acceptablePauseMillis = acceptablePauseMillis;
+      this.intervals = new long[maxSampleSize];
+   }
+
+
+   /**
+    * Records a heartbeat.
+    *
+    * @param timeMillis the time the heartbeat arrived.
+    */
+   public void heartbeat(final long timeMillis) {
+
+      if (lastHeartbeatMillis >= 0L) {
+
+         addInterval(Math.max(0L, timeMillis - lastHeartbeatMillis));
+      }
+      lastHeartbeatMillis = timeMillis;
+   }
+
+
+   /**
+    * Forgets all heartbeats. The detector becomes unavailable until enough new heartbeats arrive.
+    */
+   public void reset() {
+
+      next = 0;
+      size = 0;
+      intervalSum = 0L;
+      squaredIntervalSum = 0.0;
+      lastHeartbeatMillis = -1L;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the detector has collected enough heartbeats to produce meaningful results.
+    *
+    * @return <code>true</code> if the detector has collected enough heartbeats to produce meaningful results.
+    */
+   public boolean isAvailable() {
+
+      return size >= MIN_SAMPLE_SIZE;
+   }
+
+
+   /**
+    * Calculates the suspicion level at the given time.
+    *
+    * @param timeMillis the time to calculate the suspicion level for.
+    * @return the suspicion level or zero if the detector is not available.
+    */
+   public double phi(final long timeMillis) {
+
+      if (!isAvailable()) {
+         return 0.0;
+      }
+
+      final double elapsed = (double) (timeMillis - lastHeartbeatMillis);
+      final double y = (elapsed - adjustedMean()) / adjustedStdDeviation();
+      final double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+      if (elapsed > adjustedMean()) {
+
+         return -Math.log10(e / (1.0 + e));
+      } else {
+
+         return -Math.log10(1.0 - 1.0 / (1.0 + e));
+      }
+   }
+
+
+   /**
+    * Returns <code>true</code> if the suspicion level at the given time reached the threshold.
+    *
+    * @param timeMillis the time to check.
+    * @return <code>true</code> if the suspicion level at the given time reached the threshold.
+    */
+   public boolean isSuspected(final long timeMillis) {
+
+      return phi(timeMillis) >= threshold;
+   }
+
+
+   /**
+    * Calculates time in milliseconds after the last heartbeat at that the suspicion level reaches the threshold.
+    *
+    * @return the time in milliseconds after the last heartbeat at that the suspicion level reaches the threshold.
+    * @throws IllegalStateException if the detector is not available.
+    * @see #isAvailable()
+    */
+   public long calculateTimeoutMillis() {
+
+      if (!isAvailable()) {
+         throw new IllegalStateException("Failure detector has not collected enough heartbeats");
+      }
+
+      // phi = -log10(p) where p = e / (1 + e) and e = exp(-y * (1.5976 + 0.070566 * y^2)). Solve for y
+      // using bisection, the left side is monotonic in y.
+      final double p = Math.pow(10.0, -threshold);
+      final double target = -Math.log(p / (1.0 - p));
+      double low = 0.0;
+      double high = 100.0;
+      for (int i = 0; i < 64; i++) {
+
+         final double y = (low + high) / 2.0;
+         if (y * (1.5976 + 0.070566 * y * y) < target) {
+            low = y;
+         } else {
+            high = y;
+         }
+      }
+
+      return (long) Math.ceil(adjustedMean() + high * adjustedStdDeviation());
+   }
+
+
+   /**
+    * Returns the mean inter-arrival time in milliseconds.
+    *
+    * @return the mean inter-arrival time in milliseconds.
+    */
+   public double getMeanMillis() {
+
+      return size == 0 ? 0.0 : (double) intervalSum / (double) size;
+   }
+
+
+   /**
+    * Returns the standard deviation of inter-arrival times in milliseconds.
+    *
+    * @return the standard deviation of inter-arrival times in milliseconds.
+    */
+   public double getStdDeviationMillis() {
+
+      if (size == 0) {
+         return 0.0;
+      }
+
+      final double mean = getMeanMillis();
+      final double variance = squaredIntervalSum / (double) size - mean * mean;
+      return variance > 0.0 ? Math.sqrt(variance) : 0.0;
+   }
+
+
+   private double adjustedMean() {
+
+      return getMeanMillis() + (double) acceptablePauseMillis;
+   }
+
+
+   private double adjustedStdDeviation() {
+
+      return Math.max(getStdDeviationMillis(), MIN_STD_DEVIATION_MILLIS);
+   }
+
+
+   private void addInterval(final long interval) {
+
+      if (size == intervals.length) {
+
+         // Evict the oldest interval
+         final long evicted = intervals[next];
+         intervalSum -= evicted;
+         squaredIntervalSum -= (double) evicted * (double) evicted;
+      } else {
+
+         size++;
+      }
+
+      intervals[next] = interval;
+      intervalSum += interval;
+      squaredIntervalSum += (double) interval * (double) interval;
+      next = (next + 1) % intervals.length;
+   }
+
+
+   public String toString() {
+
+      return "PhiAccrualFailureDetector{" +
+              "threshold=" + threshold +
+              ", acceptablePauseMillis=" + acceptablePauseMillis +
+              ", size=" + size +
+              ", mean=" + getMeanMillis() +
+              ", stdDeviation=" + getStdDeviationMillis() +
+              ", lastHeartbeatMillis=" + lastHeartbeatMillis +
+              '}';
+   }
+}
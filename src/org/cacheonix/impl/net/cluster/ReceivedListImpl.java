@@ -14,21 +14,18 @@
 package org.cacheonix.impl.net.cluster;
 
 
-import java.util.Iterator;
-import java.util.SortedMap;
-import java.util.TreeMap;
-
 import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.util.logging.Logger;
 
 /**
  * ReceivedList
  * <p/>
+ * Received frames are kept in a {@link FrameRingBuffer} indexed by the sequence number so that adding a frame, closing
+ * a gap and delivering a frame do not allocate or rebalance a tree on the cluster processor thread.
  *
  * @author <a href="mailto:simeshev@cacheonix.org">Slava Imeshev</a>
  * @since Mar 31, 2008 2:09:16 PM
  */
-@SuppressWarnings({"unchecked", "AutoUnboxing"})
 public final class ReceivedListImpl implements ReceivedList {
 
    /**
@@ -39,14 +36,22 @@ public final class ReceivedListImpl implements ReceivedList {
    private static final Logger LOG = Logger.getLogger(ReceivedListImpl.class); // NOPMD
 
    /**
-    * A list ordered by the message sequence number.
+    * Initial capacity of the received frame window.
     */
-   private final SortedMap<Long, Frame> received = new TreeMap<Long, Frame>();
+   private static final int INITIAL_CAPACITY = 1024;
 
    /**
-    * Highest continuous sequence number received by this protocol stub, or Ri
+    * Received frames ordered by the message sequence number.
     */
-   private Long highestContinuousNumberReceived = null;
+   private final FrameRingBuffer received = new FrameRingBuffer(INITIAL_CAPACITY);
+
+   /**
+    * Highest continuous sequence number received by this protocol stub, or Ri. Valid only if {@link
+    * #highestContinuousNumberReceivedSet} is <code>true</code>.
+    */
+   private long highestContinuousNumberReceived = 0L;
+
+   private boolean highestContinuousNumberReceivedSet = false;
 
 
    /**
@@ -57,15 +62,15 @@ public final class ReceivedListImpl implements ReceivedList {
 
    public void add(final Frame frame) {
 
-      final Long sequenceNumber = frame.getSequenceNumber();
+      final long sequenceNumber = frame.getSequenceNumber();
 
-      if (highestContinuousNumberReceived == null) {
+      if (!highestContinuousNumberReceivedSet) {
 
          // Receive first packet
          received.put(sequenceNumber, frame);
 
          // Set highest continuous number received
-         highestContinuousNumberReceived = sequenceNumber;
+         setHighestContinuousNumberReceived(sequenceNumber);
 
          // Set highest sequence number received
          highestSequenceNumberReceived = sequenceNumber;
@@ -82,42 +87,20 @@ public final class ReceivedListImpl implements ReceivedList {
             // Packet is in order receive
             received.put(sequenceNumber, frame);
 
-            // Advance highest continuous number received
-            highestContinuousNumberReceived = sequenceNumber;
-
             // Advance highest sequence number received
             highestSequenceNumberReceived = sequenceNumber;
 
-            // Check if this is the last one
-            if (received.lastKey().equals(sequenceNumber)) {
-//            if (LOG.isDebugEnabled()) {
-//               LOG.debug("Is last key: " + longSequenceNumber + ", sequenceNumber: " + sequenceNumber + ", own: " + ourOwn);
-//            }
-               return;
-            }
-
-            // Check if the packet closes the gap
-            for (final Long next : received.tailMap(sequenceNumber + 1L).keySet()) {
+            // Advance highest continuous number received, closing the gap if the packet closes it
+            highestContinuousNumberReceived = received.getContinuousEnd(sequenceNumber);
 
-               if (next == highestContinuousNumberReceived + 1L) {
-
-                  // Closed gap
-                  highestContinuousNumberReceived = next;
-
-                  if (LOG.isDebugEnabled()) {
-                     LOG.debug("<<<<<<<<<<<<< CLOSED THE GAP! <<<<< sequenceNumber: " + sequenceNumber + ", highestSequenceNumberReceived: " + highestContinuousNumberReceived);
-                  }
-               } else {
-
-                  // Hit the gap
-                  break;
-               }
+            if (highestContinuousNumberReceived > sequenceNumber && LOG.isDebugEnabled()) {
+               LOG.debug("<<<<<<<<<<<<< CLOSED THE GAP! <<<<< sequenceNumber: " + sequenceNumber + ", highestSequenceNumberReceived: " + highestContinuousNumberReceived);
             }
          } else {
 
             // Packet has a gap
             // Check if already received
-            if (received.containsKey(sequenceNumber)) {
+            if (received.contains(sequenceNumber)) {
 
                // Do nothing
                return;
@@ -146,7 +129,7 @@ public final class ReceivedListImpl implements ReceivedList {
 
    public Long getHighestContinuousNumberReceived() {
 
-      return highestContinuousNumberReceived;
+      return highestContinuousNumberReceivedSet ? Long.valueOf(highestContinuousNumberReceived) : null;
    }
 
 
@@ -158,7 +141,7 @@ public final class ReceivedListImpl implements ReceivedList {
 
    public Frame getMessage(final long messageSequenceNumber) {
 
-      final Frame frame = received.get(Long.valueOf(messageSequenceNumber));
+      final Frame frame = received.get(messageSequenceNumber);
       if (frame == null) {
 
          throw new IllegalStateException("Messaged not found in received list: "
@@ -170,23 +153,12 @@ public final class ReceivedListImpl implements ReceivedList {
 
    public Frame poll(final long messageNumToDeliver) {
 
-      final Long key = Long.valueOf(messageNumToDeliver);
-      final Frame frame = received.get(key);
-      if (frame == null) {
+      if (received.isEmpty() || received.getFirstSequenceNumber() != messageNumToDeliver) {
 
          return null;
-      } else {
-
-         final Long firstKey = received.firstKey();
-         if (key.equals(firstKey)) {
-
-            received.remove(key);
-            return frame;
-         } else {
-
-            return null;
-         }
       }
+
+      return received.removeFirst();
    }
 
 
@@ -199,6 +171,20 @@ public final class ReceivedListImpl implements ReceivedList {
                  "is allowed only for an empty receive list: " + this);
       }
 
+      if (sequenceNumber == null) {
+
+         highestContinuousNumberReceivedSet = false;
+         highestContinuousNumberReceived = 0L;
+      } else {
+
+         setHighestContinuousNumberReceived(sequenceNumber.longValue());
+      }
+   }
+
+
+   private void setHighestContinuousNumberReceived(final long sequenceNumber) {
+
+      highestContinuousNumberReceivedSet = true;
       highestContinuousNumberReceived = sequenceNumber;
    }
 
@@ -224,7 +210,7 @@ public final class ReceivedListImpl implements ReceivedList {
          return null;
       }
 
-      return received.firstKey();
+      return received.getFirstSequenceNumber();
    }
 
 
@@ -235,23 +221,7 @@ public final class ReceivedListImpl implements ReceivedList {
          return null;
       }
 
-      // Find the number gap if any
-      final Iterator numberIter = received.keySet().iterator();
-      Long number = (Long) numberIter.next();
-      while (numberIter.hasNext()) {
-
-         final Long nextNumber = (Long) numberIter.next();
-         if (nextNumber - number == 1L) {
-
-            // Next please
-            number = nextNumber;
-         } else {
-
-            // Hit the gap
-            break;
-         }
-      }
-      return number;
+      return received.getContinuousEnd(received.getFirstSequenceNumber());
    }
 
 
@@ -261,7 +231,7 @@ public final class ReceivedListImpl implements ReceivedList {
          return null;
       }
 
-      return received.lastKey();
+      return received.getLastSequenceNumber();
    }
 
 
@@ -273,7 +243,8 @@ public final class ReceivedListImpl implements ReceivedList {
 
    public void clear() {
 
-      this.highestContinuousNumberReceived = null;
+      this.highestContinuousNumberReceivedSet = false;
+      this.highestContinuousNumberReceived = 0L;
       this.highestSequenceNumberReceived = null;
       this.received.clear();
    }
@@ -282,7 +253,7 @@ public final class ReceivedListImpl implements ReceivedList {
    public String toString() {
 
       return "ReceivedList{" +
-              "highestContinuousNumberReceived=" + highestContinuousNumberReceived +
+              "highestContinuousNumberReceived=" + getHighestContinuousNumberReceived() +
               ", highestSequenceNumberReceived=" + highestSequenceNumberReceived +
               ", received.size=" + Integer.toString(received.size()) +
               '}';
@@ -0,0 +1,243 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.cacheonix.impl.RuntimeIOException;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.cacheonix.impl.net.serializer.SerializerUtils;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.cacheonix.impl.net.serializer.WireableBuilder;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * A versioned snapshot of the replicated state sent to a joined node in response to a {@link
+ * GetReplicatedStateSnapshotMessage}.
+ * <p/>
+ * The version is the number of the last frame delivered to the replicated state when the snapshot was taken. The
+ * joined node drops the buffered messages that the snapshot already includes and applies the rest on top of it.
+ *
+ * @see ReplicatedStateTransfer
+ */
+public final class ReplicatedStateSnapshotMessage extends ClusterMessage {
+
+   /**
+    * Builder used by WireableFactory.
+    */
+   public static final WireableBuilder BUILDER = new Builder();
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(ReplicatedStateSnapshotMessage.class); // NOPMD
+
+   /**
+    * The number of the last frame delivered to the replicated state when the snapshot was taken.
+    */
+   private long version = -1L;
+
+   /**
+    * The serialized replicated state.
+    */
+   private byte[] replicatedState = null;
+
+
+   /**
+    * Required by Wireable.
+    */
+   public ReplicatedStateSnapshotMessage() {
+
+      super(TYPE_CLUSTER_REPLICATED_STATE_SNAPSHOT);
+   }
+
+
+   /**
+    * Creates a snapshot of the replicated state.
+    *
+    * @param version         the number of the last frame delivered to the replicated state.
+    * @param replicatedState the replicated state to serialize.
+    */
+   public ReplicatedStateSnapshotMessage(final long version, final ReplicatedState replicatedState) {
+
+      super(TYPE_CLUSTER_REPLICATED_STATE_SNAPSHOT);
+      this.version = version;
+      this.replicatedState = createSnapshot(replicatedState);
+   }
+
+
+   public long getVersion() {
+
+      return version;
+   }
+
+
+   protected void processNormal() {
+
+      applySnapshot();
+   }
+
+
+   protected void processBlocked() {
+
+      applySnapshot();
+   }
+
+
+   protected void processRecovery() {
+
+      applySnapshot();
+   }
+
+
+   protected void processCleanup() {
+
+      applySnapshot();
+   }
+
+
+   private void applySnapshot() {
+
+      final ClusterProcessor processor = getClusterProcessor();
+      final ReplicatedStateTransfer transfer = processor.getProcessorState().getReplicatedStateTransfer();
+
+      if (!transfer.isPending()) {
+
+         //noinspection ControlFlowStatementWithoutBraces
+         if (LOG.isDebugEnabled()) LOG.debug("Ignored snapshot, transfer is not pending: " + this); // NOPMD
+         return;
+      }
+
+      if (!transfer.isApplicable(version)) {
+
+         //noinspection ControlFlowStatementWithoutBraces
+         if (LOG.isDebugEnabled()) LOG.debug("Ignored outdated snapshot: " + this + ", transfer: " + transfer); // NOPMD
+         return;
+      }
+
+      processor.finishReplicatedStateTransfer(version, restoreSnapshot(replicatedState));
+   }
+
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * This implementation returns {@link #PRIORITY_BULK} because the snapshot carries the replicated state.
+    */
+   public int getPriority() {
+
+      return PRIORITY_BULK;
+   }
+
+
+   private static byte[] createSnapshot(final ReplicatedState replicatedState) {
+
+      final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      try {
+         return serializer.serialize(replicatedState);
+      } catch (final IOException e) {
+         throw new RuntimeIOException(e);
+      }
+   }
+
+
+   private static ReplicatedState restoreSnapshot(final byte[] snapshot) {
+
+      final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      try {
+         return (ReplicatedState) serializer.deserialize(snapshot);
+      } catch (final IOException e) {
+         throw new RuntimeIOException(e);
+      }
+   }
+
+
+   public void writeWire(final DataOutputStream out) throws IOException {
+
+      super.writeWire(out);
+      out.writeLong(version);
+      SerializerUtils.writeByteArray(out, replicatedState);
+   }
+
+
+   public void readWire(final DataInputStream in) throws IOException, ClassNotFoundException {
+
+      super.readWire(in);
+      version = in.readLong();
+      replicatedState = SerializerUtils.readByteArray(in);
+   }
+
+
+   @SuppressWarnings("RedundantIfStatement")
+   public boolean equals(final Object o) {
+
+      if (this == o) {
+         return true;
+      }
+      if (o == null || !o.getClass().equals(getClass())) {
+         return false;
+      }
+      if (!super.equals(o)) {
+         return false;
+      }
+
+      final ReplicatedStateSnapshotMessage that = (ReplicatedStateSnapshotMessage) o;
+
+      if (version != that.version) {
+         return false;
+      }
+      if (!Arrays.equals(replicatedState, that.replicatedState)) {
+         return false;
+      }
+
+      return true;
+   }
+
+
+   public int hashCode() {
+
+      int result = super.hashCode();
+      result = 31 * result + (int) (version ^ version >>> 32);
+      result = 31 * result + (replicatedState != null ? Arrays.hashCode(replicatedState) : 0);
+      return result;
+   }
+
+
+   public String toString() {
+
+      return "ReplicatedStateSnapshotMessage{" +
+              "version=" + version +
+              ", replicatedStateSize=" + (replicatedState == null ? 0 : replicatedState.length) +
+              "} " + super.toString();
+   }
+
+
+   /**
+    * A class factory.
+    */
+   private static final class Builder implements WireableBuilder {
+
+      public Wireable create() {
+
+         return new ReplicatedStateSnapshotMessage();
+      }
+   }
+}
@@ -0,0 +1,213 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cacheonix.impl.net.ClusterNodeAddress;
+
+/**
+ * A transfer of the replicated state to a joined node.
+ * <p/>
+ * The replicated state is versioned by the number of the last frame delivered to it. After joining, the node requests
+ * a snapshot of the replicated state from a cluster member. The member serializes the snapshot on its own processor
+ * thread, outside of the marker rotation, and tags it with the version of its state. While the snapshot is on its way,
+ * the joined node keeps delivering multicast frames, but instead of applying replicated state messages it buffers them
+ * as deltas. Once the snapshot arrives, the deltas that the snapshot already includes are dropped and the rest are
+ * applied on top of the snapshot in the delivery order.
+ * <p/>
+ * This class is not thread safe. It is accessed by the cluster processor thread only.
+ */
+public final class ReplicatedStateTransfer {
+
+   /**
+    * Replicated state messages delivered while the snapshot is pending, in the delivery order.
+    */
+   private final LinkedList<AssembledMessage> deltas = new LinkedList<AssembledMessage>(); // NOPMD
+
+   /**
+    * <code>true</code> if the snapshot has been requested but has not been applied yet.
+    */
+   private boolean pending = false;
+
+   /**
+    * The cluster member that is asked for the snapshot.
+    */
+   private ClusterNodeAddress provider = null;
+
+   /**
+    * The number of the last frame delivered to this node before it joined or <code>null</code> if unknown. A snapshot
+    * of an older version would miss messages that this node has not delivered.
+    */
+   private Long baseline = null;
+
+   /**
+    * The version of the applied snapshot or <code>-1</code> if no snapshot has been applied.
+    */
+   private long snapshotVersion = -1L;
+
+   /**
+    * The time the snapshot was last requested.
+    */
+   private long requestTimeMillis = 0L;
+
+
+   /**
+    * Begins a transfer. Deltas buffered by a previous transfer are discarded.
+    *
+    * @param provider the cluster member to ask for the snapshot.
+    * @param baseline the number of the last frame delivered to this node before it joined or <code>null</code> if
+    *                 unknown.
+    */
+   public void begin(final ClusterNodeAddress provider, final Long baseline) {
+
+      this.pending = true;
+      this.provider = provider;
+      this.baseline = baseline;
+      this.snapshotVersion = -1L;
+      this.requestTimeMillis = 0L;
+      this.deltas.clear();
+   }
+
+
+   /**
+    * Returns <code>true</code> if the snapshot has been requested but has not been applied yet.
+    *
+    * @return <code>true</code> if the snapshot has been requested but has not been applied yet.
+    */
+   public boolean isPending() {
+
+      return pending;
+   }
+
+
+   public ClusterNodeAddress getProvider() {
+
+      return provider;
+   }
+
+
+   public void setProvider(final ClusterNodeAddress provider) {
+
+      this.provider = provider;
+   }
+
+
+   public long getRequestTimeMillis() {
+
+      return requestTimeMillis;
+   }
+
+
+   public void setRequestTimeMillis(final long requestTimeMillis) {
+
+      this.requestTimeMillis = requestTimeMillis;
+   }
+
+
+   /**
+    * Buffers a replicated state message delivered while the snapshot is pending.
+    *
+    * @param assembledMessage the delivered message.
+    */
+   public void addDelta(final AssembledMessage assembledMessage) {
+
+      deltas.add(assembledMessage);
+   }
+
+
+   /**
+    * Returns the number of buffered deltas.
+    *
+    * @return the number of buffered deltas.
+    */
+   public int getDeltaCount() {
+
+      return deltas.size();
+   }
+
+
+   /**
+    * Returns <code>true</code> if a snapshot of the given version can be applied. A snapshot older than the baseline
+    * misses messages that this node has not delivered and cannot be completed with the deltas.
+    *
+    * @param version the version of the snapshot.
+    * @return <code>true</code> if a snapshot of the given version can be applied.
+    */
+   public boolean isApplicable(final long version) {
+
+      return baseline == null || version >= baseline;
+   }
+
+
+   /**
+    * Completes the transfer.
+    *
+    * @param version the version of the applied snapshot.
+    * @return the buffered deltas in the delivery order.
+    */
+   public List<AssembledMessage> complete(final long version) {
+
+      final List<AssembledMessage> result = new ArrayList<AssembledMessage>(deltas);
+
+      this.pending = false;
+      this.provider = null;
+      this.baseline = null;
+      this.snapshotVersion = version;
+      this.deltas.clear();
+
+      return result;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the applied snapshot already includes the changes made by the message.
+    *
+    * @param assembledMessage the delivered message.
+    * @return <code>true</code> if the applied snapshot already includes the changes made by the message.
+    */
+   public boolean isIncludedInSnapshot(final AssembledMessage assembledMessage) {
+
+      return assembledMessage.getEndFrameNumber() <= snapshotVersion;
+   }
+
+
+   /**
+    * Drops the transfer. This method is called when the node resets its sequence numbers.
+    */
+   public void clear() {
+
+      pending = false;
+      provider = null;
+      baseline = null;
+      snapshotVersion = -1L;
+      requestTimeMillis = 0L;
+      deltas.clear();
+   }
+
+
+   public String toString() {
+
+      return "ReplicatedStateTransfer{" +
+              "deltas.size()=" + deltas.size() +
+              ", pending=" + pending +
+              ", provider=" + provider +
+              ", baseline=" + baseline +
+              ", snapshotVersion=" + snapshotVersion +
+              ", requestTimeMillis=" + requestTimeMillis +
+              '}';
+   }
+}
@@ -44,9 +44,9 @@ public final class PlainMulticastSender implements MulticastSender {
    private static final Logger LOG = Logger.getLogger(PlainMulticastSender.class); // NOPMD
 
    /**
-    * Send buffer size.
+    * A number of maximum-size datagrams the socket send buffer should be able to hold.
     */
-   private static final int SEND_BUFFER_SIZE = 4096 * (Frame.MAXIMUM_MULTICAST_PACKET_SIZE + 1);
+   private static final int SEND_BUFFER_PACKET_COUNT = 4096;
 
    private static final String NO_BUFFER_SPACE_AVAILABLE = "No buffer space available";
 
@@ -67,6 +67,11 @@ public final class PlainMulticastSender implements MulticastSender {
     */
    private final MulticastSocket[] mcastSockets;
 
+   /**
+    * Maximum size of a multicast datagram.
+    */
+   private final int maximumMulticastPacketSize;
+
    /**
     * Sent messages.
     */
@@ -84,21 +89,39 @@ public final class PlainMulticastSender implements MulticastSender {
    public PlainMulticastSender(final InetAddress mcastAddress, final int mcastPort,
            final int mcastTTL) throws IOException {
 
+      this(mcastAddress, mcastPort, mcastTTL, Frame.MAXIMUM_MULTICAST_PACKET_SIZE);
+   }
+
+
+   /**
+    * Constructs multicast message sender.
+    *
+    * @param mcastAddress               multicast address
+    * @param mcastPort                  multicast port
+    * @param mcastTTL                   multicast TTL
+    * @param maximumMulticastPacketSize maximum size of a multicast datagram.
+    * @throws IOException if I/O error occurred while creating a multicast socket.
+    */
+   public PlainMulticastSender(final InetAddress mcastAddress, final int mcastPort,
+           final int mcastTTL, final int maximumMulticastPacketSize) throws IOException {
+
       this.mcastAddress = mcastAddress;
       this.mcastPort = mcastPort;
-      this.mcastSockets = createSockets(mcastTTL);
+      this.maximumMulticastPacketSize = maximumMulticastPacketSize;
+      this.mcastSockets = createSockets(mcastTTL, SEND_BUFFER_PACKET_COUNT * (maximumMulticastPacketSize + 1));
    }
 
 
    /**
     * Creates an array of sockets with TTL and network interface set.
     *
-    * @param mcastTTL multicast TTL.
+    * @param mcastTTL       multicast TTL.
+    * @param sendBufferSize the size of the socket send buffer.
     * @return an array of multicast sockets to broadcast on.
     * @throws IOException if I/O error occurred while creating a multicast socket.
     * @noinspection SocketOpenedButNotSafelyClosed
     */
-   private static MulticastSocket[] createSockets(final int mcastTTL) throws IOException {
+   private static MulticastSocket[] createSockets(final int mcastTTL, final int sendBufferSize) throws IOException {
 
       Exception lastException = null; // Records last error in case we could not create any sockets
       final List<MulticastSocket> socketList = new ArrayList<>(11);
@@ -111,7 +134,7 @@ public final class PlainMulticastSender implements MulticastSender {
                final MulticastSocket socket = new MulticastSocket(); // NOPMD
                socket.setTimeToLive(mcastTTL);
                socket.setNetworkInterface(netIf);
-               socket.setSendBufferSize(SEND_BUFFER_SIZE);
+               socket.setSendBufferSize(sendBufferSize);
                socketList.add(socket);
             }
          } catch (final Exception e) {
@@ -155,12 +178,12 @@ public final class PlainMulticastSender implements MulticastSender {
    }
 
 
-   private static byte[] toValidMessage(final Frame frame) throws IOException {
+   private byte[] toValidMessage(final Frame frame) throws IOException {
 
       final byte[] message = frame.toBytes();
-      if (message.length > Frame.MAXIMUM_MULTICAST_PACKET_SIZE) {
+      if (message.length > maximumMulticastPacketSize) {
          throw new IOException("Message size " + message.length + " exceeds maximum allowed "
-                 + Frame.MAXIMUM_MULTICAST_PACKET_SIZE);
+                 + maximumMulticastPacketSize);
       }
       return message;
    }
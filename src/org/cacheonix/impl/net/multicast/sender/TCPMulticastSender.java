@@ -45,14 +45,37 @@ public final class TCPMulticastSender implements MulticastSender {
 
    private final Router router;
 
+   /**
+    * Maximum number of cluster members a node forwards a frame to or zero if frames are sent to every known address
+    * directly.
+    */
+   private final int fanOut;
+
 
    public TCPMulticastSender(final Router router, final ClusterNodeAddress localAddress,
            final List<ReceiverAddress> receiverAddresses) {
 
+      this(router, localAddress, receiverAddresses, 0);
+   }
+
+
+   /**
+    * Creates a TCP multicast sender.
+    *
+    * @param router            the router.
+    * @param localAddress      the address of this node.
+    * @param receiverAddresses the known addresses.
+    * @param fanOut            the maximum number of cluster members a node forwards a frame to. Zero means that the
+    *                          originator sends the frame to every known address directly.
+    */
+   public TCPMulticastSender(final Router router, final ClusterNodeAddress localAddress,
+           final List<ReceiverAddress> receiverAddresses, final int fanOut) {
+
       this.loopbackReceiverAddress = new ReceiverAddress(localAddress.getAddresses(), localAddress.getTcpPort());
       this.receiverAddresses = new ArrayList<>(receiverAddresses);
       this.localAddress = localAddress;
       this.router = router;
+      this.fanOut = fanOut;
    }
 
 
@@ -60,12 +83,16 @@ public final class TCPMulticastSender implements MulticastSender {
     * {@inheritDoc}
     * <p/>
     * This implementation wraps the frame into a MulticastFrameMessage and sends the MulticastFrameMessage to the known
-    * address.
+    * address. If the fan-out is set, the frame is routed to the local cluster processor that forwards it to the members
+    * of the cluster view through a tree of at most <code>fanOut</code> children per node.
     */
    public void sendFrame(final Frame frame) {
 
-      // OPTIMIZEME: simeshev@cacheonix.org - There is an opportunity here to pre-populate MulticastFrameMessage's
-      // visited list to reduce re-broadcasts. Consider it once the processor's state known receivers are available.
+      if (fanOut > 0) {
+
+         sendFrameThroughTree(frame);
+         return;
+      }
 
       // Send the frame message to receivers
       boolean sentToSelf = false;
@@ -87,16 +114,8 @@ public final class TCPMulticastSender implements MulticastSender {
 
          try {
 
-            // Create a frame copy
-            final ByteArrayOutputStream out = new ByteArrayOutputStream(
-                    frame.getPayload().length + Frame.HEADER_LENGTH);
-            frame.write(out);
-            out.flush();
-            final Frame frameCopy = new Frame();
-            frameCopy.read(new ByteArrayInputStream(out.toByteArray()));
-
             // Send to self, no need to broadcast
-            final MulticastFrameMessage loopbackMessage = createMulticastFrameMessage(frameCopy,
+            final MulticastFrameMessage loopbackMessage = createMulticastFrameMessage(copy(frame),
                     loopbackReceiverAddress);
             loopbackMessage.setSendToKnownAddresses(false);
             router.route(loopbackMessage);
@@ -108,6 +127,37 @@ public final class TCPMulticastSender implements MulticastSender {
    }
 
 
+   /**
+    * Routes the frame to self. The local cluster processor receives the frame and starts the tree fan-out.
+    *
+    * @param frame the frame to send.
+    */
+   private void sendFrameThroughTree(final Frame frame) {
+
+      try {
+
+         final MulticastFrameMessage rootMessage = createMulticastFrameMessage(copy(frame), loopbackReceiverAddress);
+         rootMessage.setFanOut(fanOut);
+         rootMessage.setKnownAddresses(receiverAddresses);
+         router.route(rootMessage);
+      } catch (final IOException e) {
+
+         LOG.warn("Error while sending a frame to self: " + e, e);
+      }
+   }
+
+
+   private static Frame copy(final Frame frame) throws IOException {
+
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(frame.getPayload().length + Frame.HEADER_LENGTH);
+      frame.write(out);
+      out.flush();
+      final Frame frameCopy = new Frame();
+      frameCopy.read(new ByteArrayInputStream(out.toByteArray()));
+      return frameCopy;
+   }
+
+
    private static MulticastFrameMessage createMulticastFrameMessage(final Frame frame,
            final ReceiverAddress receiverAddress) {
 
@@ -126,6 +176,7 @@ public final class TCPMulticastSender implements MulticastSender {
               ", receiverAddresses=" + receiverAddresses +
               ", localAddress=" + localAddress +
               ", router=" + router +
+              ", fanOut=" + fanOut +
               '}';
    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.multicast.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of received datagrams backed by direct byte buffers of the same size. The pool is thread-safe.
+ * <p/>
+ * The pool never blocks. If the pool is empty, a new datagram is allocated. If the pool is full, a released datagram
+ * is left for garbage collection.
+ */
+final class DatagramPool {
+
+   /**
+    * Size of a datagram buffer.
+    */
+   private final int bufferSize;
+
+   /**
+    * Maximum number of datagrams kept in the pool.
+    */
+   private final int maxPooledDatagrams;
+
+   /**
+    * Datagrams available for reuse.
+    */
+   private final Queue<ReceivedDatagram> datagrams = new ConcurrentLinkedQueue<ReceivedDatagram>();
+
+   /**
+    * Number of datagrams in <code>datagrams</code>. Tracked separately because ConcurrentLinkedQueue.size() is not a
+    * constant-time operation.
+    */
+   private final AtomicInteger pooledDatagramCount = new AtomicInteger(0);
+
+
+   /**
+    * Creates a new pool.
+    *
+    * @param bufferSize         size of a datagram buffer.
+    * @param maxPooledDatagrams maximum number of datagrams kept in the pool.
+    */
+   DatagramPool(final int bufferSize, final int maxPooledDatagrams) {
+
+      this.bufferSize = bufferSize;
+      this.maxPooledDatagrams = maxPooledDatagrams;
+   }
+
+
+   /**
+    * Takes a cleared datagram from the pool or allocates a new one if the pool is empty.
+    *
+    * @return the cleared datagram.
+    */
+   ReceivedDatagram acquire() {
+
+      final ReceivedDatagram datagram = datagrams.poll();
+      if (datagram == null) {
+
+         return new ReceivedDatagram(bufferSize);
+      }
+
+      pooledDatagramCount.decrementAndGet();
+      datagram.clear();
+      return datagram;
+   }
+
+
+   /**
+    * Returns a datagram to the pool.
+    *
+    * @param datagram the datagram to return.
+    */
+   void release(final ReceivedDatagram datagram) {
+
+      if (pooledDatagramCount.incrementAndGet() <= maxPooledDatagrams) {
+
+         datagrams.add(datagram);
+      } else {
+
+         pooledDatagramCount.decrementAndGet();
+      }
+   }
+
+
+   /**
+    * Returns the number of datagrams available for reuse.
+    *
+    * @return the number of datagrams available for reuse.
+    */
+   int getPooledDatagramCount() {
+
+      return pooledDatagramCount.get();
+   }
+
+
+   public String toString() {
+
+      return "DatagramPool{" +
+              "bufferSize=" + bufferSize +
+              ", maxPooledDatagrams=" + maxPooledDatagrams +
+              ", pooledDatagramCount=" + pooledDatagramCount +
+              '}';
+   }
+}
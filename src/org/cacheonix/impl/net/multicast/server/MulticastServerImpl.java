@@ -14,12 +14,27 @@
 package org.cacheonix.impl.net.multicast.server;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
+import java.io.UncheckedIOException;
+import java.net.DatagramSocket;
+import java.net.Inet6Address;
 import java.net.InetAddress;
-import java.net.MulticastSocket;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.ProtocolFamily;
 import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.cacheonix.impl.net.processor.Frame;
@@ -31,6 +46,10 @@ import org.cacheonix.impl.util.thread.DaemonThreadFactory;
 
 /**
  * Multicast server that receives multicast packets.
+ * <p/>
+ * The server is split into two stages running in their own threads. The receiver stage drains the datagram channel
+ * into pooled datagrams as fast as it can so that the socket receive buffer does not overflow. The decoder stage reads
+ * frames directly from the datagram buffers, notifies the listeners and returns the datagrams to the pool.
  */
 public final class MulticastServerImpl implements Runnable, MulticastServer {
 
@@ -45,14 +64,21 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
    private static final String MCAST_SERVER = "McastServer";
 
    /**
-    * A packet size guard.
+    * A number of maximum-size datagrams the socket receive buffer should be able to hold.
     */
-   private static final int MAXIMUM_MULTICAST_PACKET_SIZE_PLUS_ONE = Frame.MAXIMUM_MULTICAST_PACKET_SIZE + 1;
+   private static final int RECEIVE_BUFFER_PACKET_COUNT = 128;
 
    /**
-    * Receive buffer size.
+    * A maximum number of received datagrams waiting for the decoder. Datagrams received when the queue is full are
+    * dropped, and the multicast protocol requests their retransmission.
     */
-   private static final int RECEIVE_BUFFER_SIZE = 128 * MAXIMUM_MULTICAST_PACKET_SIZE_PLUS_ONE;
+   private static final int DECODE_QUEUE_CAPACITY = 1024;
+
+   /**
+    * A maximum number of datagrams kept for reuse. The pool holds enough datagrams for a full decode queue, the
+    * datagram being received and the datagram being decoded, so a backlog does not allocate new buffers.
+    */
+   private static final int MAX_POOLED_DATAGRAMS = DECODE_QUEUE_CAPACITY + 2;
 
    /**
     * Multicast address this server accepts requests at.
@@ -65,9 +91,40 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
    private final int multicastPort;
 
    /**
-    * Socket the multicast server is listening on.
+    * Channel the multicast server is listening on.
+    */
+   private volatile DatagramChannel channel = null;
+
+   /**
+    * Membership of the channel in the multicast group.
+    */
+   private volatile MembershipKey membershipKey = null;
+
+   /**
+    * Selector used by the receiver to wait for datagrams.
+    */
+   private volatile Selector selector = null;
+
+   /**
+    * Thread running the decoder stage.
+    */
+   private volatile Thread decoderThread = null;
+
+   /**
+    * Pool of datagrams.
+    */
+   private final DatagramPool datagramPool;
+
+   /**
+    * A packet size guard. A datagram that fills the whole buffer is larger than the maximum multicast packet size.
     */
-   private volatile MulticastSocket multicastSocket = null;
+   private final int maximumPacketSizePlusOne;
+
+   /**
+    * Datagrams received but not decoded yet.
+    */
+   private final BlockingQueue<ReceivedDatagram> decodeQueue = new ArrayBlockingQueue<ReceivedDatagram>(
+           DECODE_QUEUE_CAPACITY);
 
 
    /**
@@ -126,6 +183,8 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
       this.multicastPort = multicastPort;
       this.threadFactoryName = MCAST_SERVER;
       this.addressAndPort = createAddressAndPort(this.multicastAddress, this.multicastPort);
+      this.maximumPacketSizePlusOne = Frame.MAXIMUM_MULTICAST_PACKET_SIZE + 1;
+      this.datagramPool = new DatagramPool(maximumPacketSizePlusOne, MAX_POOLED_DATAGRAMS);
    }
 
 
@@ -139,10 +198,29 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
     */
    public MulticastServerImpl(final InetAddress multicastAddress, final int multicastPort, final int tcpPort) {
 
+      this(multicastAddress, multicastPort, tcpPort, Frame.MAXIMUM_MULTICAST_PACKET_SIZE);
+   }
+
+
+   /**
+    * Constructor.
+    *
+    * @param multicastAddress           a valid IP multicast address.
+    * @param multicastPort              a multicat port
+    * @param tcpPort                    the TCP port the server listens on. Used only to build a name for thread
+    *                                   factory.
+    * @param maximumMulticastPacketSize the maximum size of a multicast datagram. Larger datagrams are discarded.
+    * @throws IllegalArgumentException if not a multicast address.
+    */
+   public MulticastServerImpl(final InetAddress multicastAddress, final int multicastPort, final int tcpPort,
+           final int maximumMulticastPacketSize) {
+
       this.multicastAddress = IOUtils.validateMulticastAddress(multicastAddress);
       this.multicastPort = multicastPort;
       this.threadFactoryName = MCAST_SERVER + ':' + tcpPort;
       this.addressAndPort = createAddressAndPort(multicastAddress, multicastPort);
+      this.maximumPacketSizePlusOne = maximumMulticastPacketSize + 1;
+      this.datagramPool = new DatagramPool(maximumPacketSizePlusOne, MAX_POOLED_DATAGRAMS);
    }
 
 
@@ -191,22 +269,33 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
 
       try {
 
-         // Initialize socket
-         multicastSocket = new MulticastSocket(multicastPort);
-         multicastSocket.setReceiveBufferSize(RECEIVE_BUFFER_SIZE);
-         multicastSocket.joinGroup(multicastAddress);
+         // Initialize channel
+         final ProtocolFamily protocolFamily = multicastAddress instanceof Inet6Address
+                 ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET;
+         channel = DatagramChannel.open(protocolFamily);
+         channel.setOption(StandardSocketOptions.SO_REUSEADDR, Boolean.TRUE);
+         channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_PACKET_COUNT * maximumPacketSizePlusOne);
+         channel.bind(new InetSocketAddress(multicastPort));
+         membershipKey = channel.join(multicastAddress, getMulticastInterface(multicastAddress, multicastPort));
+         channel.configureBlocking(false);
+         selector = Selector.open();
+         channel.register(selector, SelectionKey.OP_READ);
 
          // Notify that started
          informServerStarted();
 
-         // Start listener thread
-         final Thread listenerThread = new DaemonThreadFactory(threadFactoryName).newThread(this);
+         // Start decoder and receiver threads
+         final DaemonThreadFactory threadFactory = new DaemonThreadFactory(threadFactoryName);
+         decoderThread = threadFactory.newThread(new Decoder());
+         decoderThread.start();
+         final Thread listenerThread = threadFactory.newThread(this);
          listenerThread.start();
 
          started = true;
       } catch (final IOException e) {
 
-         IOUtils.closeHard(multicastSocket);
+         IOUtils.closeHard(selector);
+         IOUtils.closeHard(channel);
 
          throw e;
       }
@@ -214,6 +303,9 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
 
 
    /**
+    * Receives datagrams. Each time the channel becomes readable, the receiver drains all datagrams available in the
+    * channel and passes them to the decoder.
+    *
     * @noinspection OverlyBroadCatchBlock, ConstantConditions
     */
    public void run() {
@@ -222,16 +314,41 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
 
          try {
 
-            // Wait for packet
-            final byte[] buffer = new byte[MAXIMUM_MULTICAST_PACKET_SIZE_PLUS_ONE];
-            final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-            multicastSocket.receive(packet);
+            // Wait for datagrams
+            if (selector.select() == 0) {
+
+               continue;
+            }
+            selector.selectedKeys().clear();
+
+            // Drain the channel
+            while (true) {
+
+               final ReceivedDatagram datagram = datagramPool.acquire();
+               final InetSocketAddress sender = (InetSocketAddress) channel.receive(datagram.getBuffer());
+               if (sender == null) {
+
+                  // Drained
+                  datagramPool.release(datagram);
+                  break;
+               }
 
-            // Notify listeners
-            notifyListeners(packet);
+               datagram.getBuffer().flip();
+               datagram.setSenderAddress(sender.getAddress());
+               if (!decodeQueue.offer(datagram)) {
+
+                  // Decoder is behind, drop the datagram. Dropped
+                  // frames are retransmitted by the multicast protocol.
+                  datagramPool.release(datagram);
+               }
+            }
+         } catch (final ClosedSelectorException ignored) {
+
+            // Part of shutdown
+            return;
          } catch (final Exception e) {
 
-            if ("socket closed".equalsIgnoreCase(e.getMessage())) {
+            if (shutdown) {
 
                // No point to send to ignore - part of shutdown
                return;
@@ -258,18 +375,27 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
 
       try {
 
-         if (multicastSocket != null) {
+         if (membershipKey != null) {
 
-            multicastSocket.leaveGroup(multicastAddress);
-            multicastSocket.close();
+            membershipKey.drop();
          }
-      } catch (final IOException e) {
-
-         ExceptionUtils.ignoreException(e, "Shutdown procedure, nothing we can do");
       } finally {
 
-         IOUtils.closeHard(multicastSocket);
+         // Wake up the receiver so that it releases the selector and exits
+         if (selector != null) {
+
+            selector.wakeup();
+         }
+         IOUtils.closeHard(selector);
+         IOUtils.closeHard(channel);
+      }
+
+      // Stop the decoder
+      if (decoderThread != null) {
+
+         decoderThread.interrupt();
       }
+      releaseDatagrams();
 
       LOG.info("Multicast server has been shutdown: " + addressAndPort());
    }
@@ -285,33 +411,27 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
 
 
    /**
-    * Notifies listeners about receiving the packet.
+    * Notifies listeners about receiving the datagram. Returns the datagram to the pool.
     *
-    * @param datagramPacket packet to notify listeners about
+    * @param datagram the datagram to notify listeners about
     */
-   private void notifyListeners(final DatagramPacket datagramPacket) {
-
-      // Make sure listeners are there
-      if (listeners.isEmpty()) {
+   private void notifyListeners(final ReceivedDatagram datagram) {
 
-         return;
-      }
+      try {
 
-      // Make sure this is a valid packet
-      if (datagramPacket.getLength() >= MAXIMUM_MULTICAST_PACKET_SIZE_PLUS_ONE) {
+         final ByteBuffer buffer = datagram.getBuffer();
 
-         return;
-      }
+         // Make sure listeners are there and this is a valid packet
+         if (listeners.isEmpty() || buffer.remaining() >= maximumPacketSizePlusOne) {
 
-      // Send to listeners
-      try {
+            return;
+         }
 
          // Get frame out of the packet
-         final Frame mcastFrame = Frame.fromBytes(datagramPacket.getData(),
-                 datagramPacket.getOffset(), datagramPacket.getLength());
+         final Frame mcastFrame = Frame.fromByteBuffer(buffer);
 
          // Set sender address
-         mcastFrame.setSenderInetAddress(datagramPacket.getAddress());
+         mcastFrame.setSenderInetAddress(datagram.getSenderAddress());
 
          // Notify listeners
          for (final MulticastServerListener listener : listeners) {
@@ -327,7 +447,156 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
       } catch (final IOException e) {
 
          ExceptionUtils.ignoreException(e, "Bad packet");
+      } finally {
+
+         // The frame does not reference the buffer, so the datagram can be reused
+         datagramPool.release(datagram);
+      }
+   }
+
+
+   /**
+    * Returns datagrams that were not decoded to the pool.
+    */
+   private void releaseDatagrams() {
+
+      for (ReceivedDatagram datagram = decodeQueue.poll(); datagram != null; datagram = decodeQueue.poll()) {
+
+         datagramPool.release(datagram);
+      }
+   }
+
+
+   /**
+    * Returns a network interface to receive multicast datagrams at. The interface is the one that the routing table
+    * selects for the multicast group. This is the same interface that a <code>MulticastSocket</code> joins when the
+    * interface is not specified. If the route cannot be resolved, for example when there is no route to the group,
+    * the method falls back to the default multicast interface.
+    *
+    * @param multicastAddress the multicast address.
+    * @param multicastPort    the multicast port.
+    * @return the network interface to receive multicast datagrams at.
+    * @throws IOException if the interface cannot be determined.
+    * @see #getDefaultMulticastInterface(InetAddress)
+    */
+   private static NetworkInterface getMulticastInterface(final InetAddress multicastAddress,
+           final int multicastPort) throws IOException {
+
+      final NetworkInterface routedInterface = getRoutedInterface(multicastAddress, multicastPort);
+      if (routedInterface != null) {
+
+         return routedInterface;
+      }
+
+      final NetworkInterface defaultInterface = getDefaultMulticastInterface(multicastAddress);
+      if (defaultInterface == null) {
+
+         throw new SocketException("Cannot find a network interface to receive at " + multicastAddress);
+      }
+
+      LOG.info("Cannot resolve a route to " + multicastAddress.getHostAddress()
+              + ", receiving multicast at the default interface " + defaultInterface.getName());
+      return defaultInterface;
+   }
+
+
+   /**
+    * Returns a network interface that the routing table selects for the multicast group.
+    *
+    * @param multicastAddress the multicast address.
+    * @param multicastPort    the multicast port.
+    * @return the network interface that the routing table selects for the multicast group or <code>null</code> if the
+    *         route cannot be resolved.
+    * @throws SocketException if a probe socket cannot be created.
+    */
+   private static NetworkInterface getRoutedInterface(final InetAddress multicastAddress,
+           final int multicastPort) throws SocketException {
+
+      final DatagramSocket probe = new DatagramSocket();
+      try {
+
+         // Connecting a datagram socket does not send anything, it only resolves the route
+         probe.connect(multicastAddress, multicastPort);
+         final InetAddress localAddress = probe.getLocalAddress();
+         if (localAddress == null || localAddress.isAnyLocalAddress()) {
+
+            return null;
+         }
+         return NetworkInterface.getByInetAddress(localAddress);
+      } catch (final UncheckedIOException e) {
+
+         ExceptionUtils.ignoreException(e, "No route to the group");
+         return null;
+      } finally {
+
+         IOUtils.closeHard(probe);
+      }
+   }
+
+
+   /**
+    * Returns a default network interface to receive multicast datagrams at. The default interface is the first
+    * interface that is up, supports multicast and has an address of the multicast group's family. A non-loopback
+    * interface is preferred.
+    *
+    * @param multicastAddress the multicast address.
+    * @return the default network interface to receive multicast datagrams at or <code>null</code> if there is no such
+    *         interface.
+    * @throws SocketException if an I/O error occurs.
+    */
+   static NetworkInterface getDefaultMulticastInterface(final InetAddress multicastAddress) throws SocketException {
+
+      final Enumeration<NetworkInterface> networkInterfaces = NetworkInterface.getNetworkInterfaces();
+      if (networkInterfaces == null) {
+
+         return null;
+      }
+
+      NetworkInterface loopbackInterface = null;
+      while (networkInterfaces.hasMoreElements()) {
+
+         final NetworkInterface networkInterface = networkInterfaces.nextElement();
+         if (!networkInterface.isUp() || !networkInterface.supportsMulticast()
+                 || !hasAddressOfFamily(networkInterface, multicastAddress)) {
+
+            continue;
+         }
+
+         if (!networkInterface.isLoopback()) {
+
+            return networkInterface;
+         }
+
+         if (loopbackInterface == null) {
+
+            loopbackInterface = networkInterface;
+         }
+      }
+
+      return loopbackInterface;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the network interface has an address of the same family as the given address.
+    *
+    * @param networkInterface the network interface.
+    * @param address          the address.
+    * @return <code>true</code> if the network interface has an address of the same family as the given address.
+    */
+   private static boolean hasAddressOfFamily(final NetworkInterface networkInterface, final InetAddress address) {
+
+      final boolean inet6 = address instanceof Inet6Address;
+      final Enumeration<InetAddress> addresses = networkInterface.getInetAddresses();
+      while (addresses.hasMoreElements()) {
+
+         if (addresses.nextElement() instanceof Inet6Address == inet6) {
+
+            return true;
+         }
       }
+
+      return false;
    }
 
 
@@ -407,8 +676,8 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
       String bufferSize;
       try {
 
-         bufferSize = Integer.toString(multicastSocket.getReceiveBufferSize());
-      } catch (final SocketException e) {
+         bufferSize = Integer.toString(channel.getOption(StandardSocketOptions.SO_RCVBUF));
+      } catch (final IOException e) {
 
          bufferSize = "Cannot identify - " + StringUtils.toString(e);
       }
@@ -434,9 +703,34 @@ public final class MulticastServerImpl implements Runnable, MulticastServer {
       return "MulticastServerImpl{" +
               ", multicastAddress='" + multicastAddress + '\'' +
               ", multicastPort=" + multicastPort +
-              ", multicastSocket=" + multicastSocket +
+              ", maximumPacketSizePlusOne=" + maximumPacketSizePlusOne +
+              ", channel=" + channel +
+              ", datagramPool=" + datagramPool +
+              ", decodeQueue.size()=" + decodeQueue.size() +
               ", shutdown=" + shutdown +
               ", started=" + started +
               '}';
    }
+
+
+   /**
+    * The decoder stage. Decodes received datagrams and notifies listeners.
+    */
+   private final class Decoder implements Runnable {
+
+      public void run() {
+
+         while (!shutdown) {
+
+            try {
+
+               notifyListeners(decodeQueue.take());
+            } catch (final InterruptedException ignored) {
+
+               // Part of shutdown
+               return;
+            }
+         }
+      }
+   }
 }
@@ -0,0 +1,82 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.multicast.server;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * A datagram received by the multicast server. A datagram owns a direct buffer and is reused through a {@link
+ * DatagramPool}.
+ */
+final class ReceivedDatagram {
+
+   /**
+    * The buffer holding the datagram.
+    */
+   private final ByteBuffer buffer;
+
+   /**
+    * The address the datagram came from.
+    */
+   private InetAddress senderAddress = null;
+
+
+   /**
+    * Creates a new datagram.
+    *
+    * @param bufferSize the size of the datagram buffer.
+    */
+   ReceivedDatagram(final int bufferSize) {
+
+      this.buffer = ByteBuffer.allocateDirect(bufferSize);
+   }
+
+
+   ByteBuffer getBuffer() {
+
+      return buffer;
+   }
+
+
+   InetAddress getSenderAddress() {
+
+      return senderAddress;
+   }
+
+
+   void setSenderAddress(final InetAddress senderAddress) {
+
+      this.senderAddress = senderAddress;
+   }
+
+
+   /**
+    * Prepares the datagram for receiving.
+    */
+   void clear() {
+
+      buffer.clear();
+      senderAddress = null;
+   }
+
+
+   public String toString() {
+
+      return "ReceivedDatagram{" +
+              "buffer=" + buffer +
+              ", senderAddress=" + senderAddress +
+              '}';
+   }
+}
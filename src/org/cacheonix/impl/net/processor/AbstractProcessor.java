@@ -15,6 +15,7 @@ package org.cacheonix.impl.net.processor;
 
 import org.cacheonix.impl.util.Assert;
 import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.impl.util.thread.OrderedEventExecutor;
 import org.cacheonix.impl.util.thread.UserThreadFactory;
 
 /**
@@ -67,8 +68,8 @@ public abstract class AbstractProcessor implements Processor {
       // Create worker object
       final Runnable worker = createWorker();
 
-      // Create worker thread
-      thread = new UserThreadFactory(threadFactoryName).newThread(worker);
+      // Create worker thread. The processor thread must never wait for user event notifications.
+      thread = new UserThreadFactory(threadFactoryName).newThread(OrderedEventExecutor.nonBlocking(worker));
 
       // Start thread
       thread.start();
@@ -0,0 +1,96 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.processor;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream that reads the remaining bytes of a byte buffer. Reading advances the buffer's position. The stream
+ * is not thread-safe.
+ */
+final class ByteBufferInputStream extends InputStream {
+
+   /**
+    * The buffer to read.
+    */
+   private final ByteBuffer buffer;
+
+
+   /**
+    * Creates a new stream.
+    *
+    * @param buffer the buffer to read. The stream reads bytes between the buffer's position and its limit.
+    */
+   ByteBufferInputStream(final ByteBuffer buffer) {
+
+      this.buffer = buffer;
+   }
+
+
+   public int read() {
+
+      if (!buffer.hasRemaining()) {
+
+         return -1;
+      }
+
+      return buffer.get() & 0xFF;
+   }
+
+
+   public int read(final byte[] bytes, final int offset, final int length) {
+
+      if (length == 0) {
+
+         return 0;
+      }
+
+      if (!buffer.hasRemaining()) {
+
+         return -1;
+      }
+
+      final int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+   }
+
+
+   public long skip(final long n) {
+
+      if (n <= 0L) {
+
+         return 0L;
+      }
+
+      final int count = (int) Math.min(n, (long) buffer.remaining());
+      buffer.position(buffer.position() + count);
+      return (long) count;
+   }
+
+
+   public int available() {
+
+      return buffer.remaining();
+   }
+
+
+   public String toString() {
+
+      return "ByteBufferInputStream{" +
+              "buffer=" + buffer +
+              '}';
+   }
+}
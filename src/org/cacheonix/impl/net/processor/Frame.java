@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.InvalidObjectException;
 import java.io.OutputStream;
 import java.net.InetAddress;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.cacheonix.impl.net.Protocol;
@@ -51,6 +52,17 @@ public final class Frame {
     */
    public static final int MAXIMUM_MULTICAST_PACKET_SIZE = 1468;
 
+   /**
+    * The smallest maximum multicast datagram size a cluster can be configured with.
+    */
+   public static final int MINIMUM_CONFIGURABLE_MULTICAST_PACKET_SIZE = 576;
+
+   /**
+    * The largest maximum multicast datagram size a cluster can be configured with. This is the largest UDP payload that
+    * fits an IPv4 datagram.
+    */
+   public static final int MAXIMUM_CONFIGURABLE_MULTICAST_PACKET_SIZE = 65507;
+
    /**
     * Maximum length produced by toBytes().
     * <p/>
@@ -453,6 +465,21 @@ public final class Frame {
    }
 
 
+   /**
+    * Reads a frame from the remaining bytes of a buffer without copying them to an intermediate array.
+    *
+    * @param buffer the buffer holding a serialized frame between its position and its limit.
+    * @return the frame.
+    * @throws IOException if the buffer does not hold a valid frame.
+    */
+   public static Frame fromByteBuffer(final ByteBuffer buffer) throws IOException {
+
+      final Frame frame = new Frame();
+      frame.read(new ByteBufferInputStream(buffer));
+      return frame;
+   }
+
+
    private byte[] validatePayloadSize(final byte[] p) {
 
       if (p != null && (p.length + HEADER_LENGTH > maximumMessageLength)) {
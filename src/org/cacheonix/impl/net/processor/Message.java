@@ -44,6 +44,28 @@ public abstract class Message implements Command, Wireable {
     */
    private static final Logger LOG = Logger.getLogger(Message.class); // NOPMD
 
+   /**
+    * Priority class of cluster control traffic such as markers, joins and multicast frames. Control messages are always
+    * sent ahead of data and bulk messages.
+    */
+   public static final int PRIORITY_CONTROL = 0;
+
+   /**
+    * Priority class of ordinary data traffic such as cache requests and responses.
+    */
+   public static final int PRIORITY_DATA = 1;
+
+   /**
+    * Priority class of bulk transfers such as bucket transfers and replicated state copies. Bulk messages are sent only
+    * when there are no control and data messages waiting to be sent to the same receiver.
+    */
+   public static final int PRIORITY_BULK = 2;
+
+   /**
+    * Number of priority classes.
+    */
+   public static final int PRIORITY_COUNT = 3;
+
    /**
     * Request type.
     */
@@ -322,6 +344,25 @@ public abstract class Message implements Command, Wireable {
    }
 
 
+   /**
+    * Returns a priority class of this message. The sender uses the priority class to decide the order in which the
+    * messages waiting for the same receiver are written to the network.
+    * <p/>
+    * This implementation returns {@link #PRIORITY_CONTROL} for messages destined to the cluster processor and {@link
+    * #PRIORITY_DATA} for all other messages. Messages that carry large payloads should override this method to return
+    * {@link #PRIORITY_BULK}.
+    *
+    * @return the priority class of this message.
+    * @see #PRIORITY_CONTROL
+    * @see #PRIORITY_DATA
+    * @see #PRIORITY_BULK
+    */
+   public int getPriority() {
+
+      return getDestination() == DESTINATION_CLUSTER_PROCESSOR ? PRIORITY_CONTROL : PRIORITY_DATA;
+   }
+
+
    public void writeWire(final DataOutputStream out) throws IOException {
 
       out.writeInt(type);
@@ -205,6 +205,15 @@ public class RouterImpl implements Router {
                //
                // --------------------------------------------------------------------
 
+               // A shutdown processor will not receive a response, fail the request right away
+               if (processor.isShutdown()) {
+
+                  respondWithShutdownError(message);
+
+                  final Request request = Request.toRequest(message);
+                  return request != null && request.isResponseRequired() ? request.getWaiter() : NOWAIT_WAITER;
+               }
+
                Waiter waiter = null;
                if (message instanceof Request) {
 
@@ -13,6 +13,8 @@
  */
 package org.cacheonix.impl.net.processor;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
@@ -101,6 +103,17 @@ public final class WaiterList {
    }
 
 
+   /**
+    * Returns a copy of the registered waiters.
+    *
+    * @return the copy of the registered waiters.
+    */
+   public Collection<Waiter> getWaiters() {
+
+      return new ArrayList<Waiter>(waiters.values());
+   }
+
+
    public void notifyReceived(final Response response) throws InterruptedException {
 
       // Check if this is a response
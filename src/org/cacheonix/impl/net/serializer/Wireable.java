@@ -122,6 +122,8 @@ public interface Wireable {
 
    int TYPE_STRING_HEADER = DESTINATION_NONE << 8 | 41;
 
+   int TYPE_LOCK_PARTITION_ASSIGNMENT = DESTINATION_NONE << 8 | 42;
+
 
    /*
      ++++++++++++++++++++++++++++++++++++++ Connection-related messages  ++++++++++++++++++++++++++++++++++++++
@@ -236,6 +238,56 @@ public interface Wireable {
     */
    int TYPE_REMOVE_USER_CLUSTER_EVENT_SUBSCRIBER = DESTINATION_CLUSTER_PROCESSOR << 8 | 18;
 
+   /**
+    * A heartbeat sent to the next node on the ring.
+    */
+   int TYPE_CLUSTER_NEIGHBOR_HEARTBEAT = DESTINATION_CLUSTER_PROCESSOR << 8 | 19;
+
+   /**
+    * A request of a joined node for a snapshot of the replicated state.
+    */
+   int TYPE_CLUSTER_GET_REPLICATED_STATE_SNAPSHOT = DESTINATION_CLUSTER_PROCESSOR << 8 | 20;
+
+   /**
+    * A versioned snapshot of the replicated state sent to a joined node.
+    */
+   int TYPE_CLUSTER_REPLICATED_STATE_SNAPSHOT = DESTINATION_CLUSTER_PROCESSOR << 8 | 21;
+
+   /**
+    * A request to acquire a lock sent to the owner of the lock partition.
+    */
+   int TYPE_ACQUIRE_LOCK_REQUEST = DESTINATION_CLUSTER_PROCESSOR << 8 | 22;
+
+   /**
+    * A request to release a lock sent to the owner of the lock partition.
+    */
+   int TYPE_RELEASE_LOCK_REQUEST = DESTINATION_CLUSTER_PROCESSOR << 8 | 23;
+
+   /**
+    * A notification to the owner of the lock partition that a wait for a lock has expired.
+    */
+   int TYPE_WAIT_FOR_LOCK_EXPIRED_ANNOUNCEMENT = DESTINATION_CLUSTER_PROCESSOR << 8 | 24;
+
+   /**
+    * A lock partition handed off to its new owner.
+    */
+   int TYPE_LOCK_PARTITION_TRANSFER = DESTINATION_CLUSTER_PROCESSOR << 8 | 25;
+
+   /**
+    * A change of a lock queue sent to the backup owner of the lock partition.
+    */
+   int TYPE_LOCK_QUEUE_BACKUP = DESTINATION_CLUSTER_PROCESSOR << 8 | 26;
+
+   /**
+    * A probe that follows the edges of the distributed wait-for graph to detect deadlocks.
+    */
+   int TYPE_LOCK_DEADLOCK_PROBE = DESTINATION_CLUSTER_PROCESSOR << 8 | 27;
+
+   /**
+    * A notification to a node holding a lock lease that the lease is contended or has been released.
+    */
+   int TYPE_LOCK_LEASE_ANNOUNCEMENT = DESTINATION_CLUSTER_PROCESSOR << 8 | 28;
+
    /*
      ++++++++++++++++++++++++++++++++++++++ Cache processor messages  ++++++++++++++++++++++++++++++++++++++
     */
@@ -342,6 +394,20 @@ public interface Wireable {
 
    int TYPE_CACHE_REPLACE_IF_MAPPED_REQUEST = DESTINATION_CACHE_PROCESSOR << 8 | 46;
 
+   int TYPE_CACHE_PUSH_HOT_KEY_MESSAGE = DESTINATION_CACHE_PROCESSOR << 8 | 47;
+
+   int TYPE_CACHE_INVOKE_REQUEST = DESTINATION_CACHE_PROCESSOR << 8 | 48;
+
+   int TYPE_CACHE_ADD_CACHE_ENTRY_MODIFIED_SUBSCRIBER_REQUEST = DESTINATION_CACHE_PROCESSOR << 8 | 49;
+
+   int TYPE_CACHE_REMOVE_CACHE_ENTRY_MODIFIED_SUBSCRIBER_REQUEST = DESTINATION_CACHE_PROCESSOR << 8 | 50;
+
+   int TYPE_CACHE_ADD_REMOTE_CACHE_SUBSCRIBER_MESSAGE = DESTINATION_CACHE_PROCESSOR << 8 | 51;
+
+   int TYPE_CACHE_REMOVE_REMOTE_CACHE_SUBSCRIBER_MESSAGE = DESTINATION_CACHE_PROCESSOR << 8 | 52;
+
+   int TYPE_CACHE_ENTRY_PAGE_REQUEST = DESTINATION_CACHE_PROCESSOR << 8 | 53;
+
 
    /*
      ++++++++++++++++++++++++++++++++++++++ Replicated state messages  ++++++++++++++++++++++++++++++++++++++
@@ -389,22 +455,13 @@ public interface Wireable {
     */
    int TYPE_NODE_JOINED_MESSAGE = DESTINATION_REPLICATED_STATE << 8 | 12;
 
-   /**
-    *
-    */
-   int TYPE_ACQUIRE_LOCK_REQUEST = DESTINATION_REPLICATED_STATE << 8 | 13;
+   int TYPE_CACHE_INVALIDATE_FRONT_CACHE_ANNOUNCEMENT = DESTINATION_REPLICATED_STATE << 8 | 16;
 
-   /**
-    *
-    */
-   int TYPE_RELEASE_LOCK_REQUEST = DESTINATION_REPLICATED_STATE << 8 | 14;
+   int TYPE_CACHE_PUSH_HOT_KEY_ANNOUNCEMENT = DESTINATION_REPLICATED_STATE << 8 | 17;
 
-   /**
-    *
-    */
-   int TYPE_WAIT_FOR_LOCK_EXPIRED_ANNOUNCEMENT = DESTINATION_REPLICATED_STATE << 8 | 15;
+   int TYPE_REGISTER_CACHE_SUBSCRIPTION_ANNOUNCEMENT = DESTINATION_REPLICATED_STATE << 8 | 18;
 
-   int TYPE_CACHE_INVALIDATE_FRONT_CACHE_ANNOUNCEMENT = DESTINATION_REPLICATED_STATE << 8 | 16;
+   int TYPE_UNREGISTER_CACHE_SUBSCRIPTION_ANNOUNCEMENT = DESTINATION_REPLICATED_STATE << 8 | 19;
 
    /**
     * ++++++++++++++++++++++++++++++++++++++ Multicast clients messages  ++++++++++++++++++++++++++++++++++++++
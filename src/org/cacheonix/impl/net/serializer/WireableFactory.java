@@ -13,8 +13,11 @@
  */
 package org.cacheonix.impl.net.serializer;
 
+import org.cacheonix.impl.cache.distributed.partitioned.AddCacheEntryModifiedSubscriberRequest;
+import org.cacheonix.impl.cache.distributed.partitioned.AddCacheEntryModifiedSubscriptionAnnouncement;
 import org.cacheonix.impl.cache.distributed.partitioned.AddEntryModifiedSubscriberRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.AddEntryModifiedSubscriptionAnnouncement;
+import org.cacheonix.impl.cache.distributed.partitioned.AddRemoteCacheEntryModifiedSubscriberMessage;
 import org.cacheonix.impl.cache.distributed.partitioned.AddRemoteEntryModifiedSubscriberMessage;
 import org.cacheonix.impl.cache.distributed.partitioned.AggregatingAnnouncementResponse;
 import org.cacheonix.impl.cache.distributed.partitioned.AggregatingResponse;
@@ -44,6 +47,7 @@ import org.cacheonix.impl.cache.distributed.partitioned.ExecuteAllRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.ExecuteRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.FinishBucketTransferMessage;
 import org.cacheonix.impl.cache.distributed.partitioned.GetAllRequest;
+import org.cacheonix.impl.cache.distributed.partitioned.GetEntryPageRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.GetEntrySetRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.GetKeyOwnerRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.GetKeyOwnersRequest;
@@ -51,13 +55,19 @@ import org.cacheonix.impl.cache.distributed.partitioned.GetKeySetRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.GetMaxSizeRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.GetRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.GetStatisticsRequest;
+import org.cacheonix.impl.cache.distributed.partitioned.InvokeRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.LeaveCacheGroupAnnouncement;
 import org.cacheonix.impl.cache.distributed.partitioned.OrphanBucketMessage;
+import org.cacheonix.impl.cache.distributed.partitioned.PushHotKeyAnnouncement;
+import org.cacheonix.impl.cache.distributed.partitioned.PushHotKeyMessage;
 import org.cacheonix.impl.cache.distributed.partitioned.PutAllRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.PutRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.RemoveAllRequest;
+import org.cacheonix.impl.cache.distributed.partitioned.RemoveCacheEntryModifiedSubscriberRequest;
+import org.cacheonix.impl.cache.distributed.partitioned.RemoveCacheEntryModifiedSubscriptionAnnouncement;
 import org.cacheonix.impl.cache.distributed.partitioned.RemoveEntryModifiedSubscriberRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.RemoveEntryModifiedSubscriptionAnnouncement;
+import org.cacheonix.impl.cache.distributed.partitioned.RemoveRemoteCacheEntryModifiedSubscriberMessage;
 import org.cacheonix.impl.cache.distributed.partitioned.RemoveRequest;
 import org.cacheonix.impl.cache.distributed.partitioned.RepartitionAnnouncement;
 import org.cacheonix.impl.cache.distributed.partitioned.ReplaceIfMappedRequest;
@@ -96,8 +106,13 @@ import org.cacheonix.impl.cluster.node.state.group.Group;
 import org.cacheonix.impl.cluster.node.state.group.GroupMember;
 import org.cacheonix.impl.cluster.node.state.group.JoinGroupMessage;
 import org.cacheonix.impl.lock.AcquireLockRequest;
+import org.cacheonix.impl.lock.DeadlockProbe;
 import org.cacheonix.impl.lock.EntryCountRequest;
+import org.cacheonix.impl.lock.LockLeaseAnnouncement;
 import org.cacheonix.impl.lock.LockOwner;
+import org.cacheonix.impl.lock.LockPartitionAssignment;
+import org.cacheonix.impl.lock.LockPartitionTransfer;
+import org.cacheonix.impl.lock.LockQueueBackup;
 import org.cacheonix.impl.lock.LockQueueImpl;
 import org.cacheonix.impl.lock.LockQueueKey;
 import org.cacheonix.impl.lock.LockRegistryImpl;
@@ -112,13 +127,16 @@ import org.cacheonix.impl.net.cluster.ClusterNodeLeftAnnouncement;
 import org.cacheonix.impl.net.cluster.ClusterResponse;
 import org.cacheonix.impl.net.cluster.ClusterViewImpl;
 import org.cacheonix.impl.net.cluster.GetClusterViewSizeRequest;
+import org.cacheonix.impl.net.cluster.GetReplicatedStateSnapshotMessage;
 import org.cacheonix.impl.net.cluster.JoinRequest;
 import org.cacheonix.impl.net.cluster.JoiningNode;
 import org.cacheonix.impl.net.cluster.MarkerListRequest;
 import org.cacheonix.impl.net.cluster.MarkerTimeoutMessage;
+import org.cacheonix.impl.net.cluster.NeighborHeartbeat;
 import org.cacheonix.impl.net.cluster.MulticastFrameMessage;
 import org.cacheonix.impl.net.cluster.MulticastMarker;
 import org.cacheonix.impl.net.cluster.RecoveryMarker;
+import org.cacheonix.impl.net.cluster.ReplicatedStateSnapshotMessage;
 import org.cacheonix.impl.net.cluster.TestMessage;
 import org.cacheonix.impl.net.processor.Message;
 import org.cacheonix.impl.net.processor.ReceiverAddress;
@@ -174,6 +192,7 @@ public final class WireableFactory {
       addMaker(Wireable.TYPE_LOCK_REGISTRY, LockRegistryImpl.BUILDER);
       addMaker(Wireable.TYPE_LOCK_QUEUE, LockQueueImpl.BUILDER);
       addMaker(Wireable.TYPE_LOCK_OWNER, LockOwner.BUILDER);
+      addMaker(Wireable.TYPE_LOCK_PARTITION_ASSIGNMENT, LockPartitionAssignment.BUILDER);
       addMaker(Wireable.TYPE_BINARY_STORE, BinaryStore.BUILDER);
       addMaker(Wireable.TYPE_BINARY_STORE_ELEMENT, BinaryStoreElement.BUILDER);
       addMaker(Wireable.TYPE_CACHE_STATISTICS, CacheStatisticsImpl.BUILDER);
@@ -205,6 +224,9 @@ public final class WireableFactory {
       addMaker(Wireable.TYPE_MULTICAST_FRAME_MESSAGE, MulticastFrameMessage.BUILDER);
       addMaker(Wireable.TYPE_ADD_USER_CLUSTER_EVENT_SUBSCRIBER, AddClusterEventSubscriberRequest.BUILDER);
       addMaker(Wireable.TYPE_REMOVE_USER_CLUSTER_EVENT_SUBSCRIBER, RemoveClusterEventSubscriberRequest.BUILDER);
+      addMaker(Wireable.TYPE_CLUSTER_NEIGHBOR_HEARTBEAT, NeighborHeartbeat.BUILDER);
+      addMaker(Wireable.TYPE_CLUSTER_GET_REPLICATED_STATE_SNAPSHOT, GetReplicatedStateSnapshotMessage.BUILDER);
+      addMaker(Wireable.TYPE_CLUSTER_REPLICATED_STATE_SNAPSHOT, ReplicatedStateSnapshotMessage.BUILDER);
 
       addMaker(Wireable.TYPE_CACHE_PUT_REQUEST, PutRequest.BUILDER);
       addMaker(Wireable.TYPE_CACHE_RESPONSE, CacheResponse.BUILDER);
@@ -241,10 +263,21 @@ public final class WireableFactory {
               RemoveEntryModifiedSubscriberRequest.BUILDER);
       addMaker(Wireable.TYPE_CACHE_ORPHAN_BUCKET, OrphanBucketMessage.BUILDER);
       addMaker(Wireable.TYPE_CACHE_INVALIDATE_FRONT_CACHE_MESSAGE, ClearFrontCacheBucketMessage.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_PUSH_HOT_KEY_MESSAGE, PushHotKeyMessage.BUILDER);
       addMaker(Wireable.TYPE_CACHE_UPDATE_KEY_REQUEST, UpdateKeyRequest.BUILDER);
       addMaker(Wireable.TYPE_CACHE_ATOMIC_REMOVE_REQUEST, AtomicRemoveRequest.BUILDER);
       addMaker(Wireable.TYPE_CACHE_ATOMIC_REPLACE_REQUEST, AtomicReplaceRequest.BUILDER);
       addMaker(Wireable.TYPE_CACHE_REPLACE_IF_MAPPED_REQUEST, ReplaceIfMappedRequest.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_INVOKE_REQUEST, InvokeRequest.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_ADD_CACHE_ENTRY_MODIFIED_SUBSCRIBER_REQUEST,
+              AddCacheEntryModifiedSubscriberRequest.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_REMOVE_CACHE_ENTRY_MODIFIED_SUBSCRIBER_REQUEST,
+              RemoveCacheEntryModifiedSubscriberRequest.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_ADD_REMOTE_CACHE_SUBSCRIBER_MESSAGE,
+              AddRemoteCacheEntryModifiedSubscriberMessage.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_REMOVE_REMOTE_CACHE_SUBSCRIBER_MESSAGE,
+              RemoveRemoteCacheEntryModifiedSubscriberMessage.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_ENTRY_PAGE_REQUEST, GetEntryPageRequest.BUILDER);
 
       addMaker(Wireable.TYPE_GROUP_JOIN_GROUP, JoinGroupMessage.BUILDER);
       addMaker(Wireable.TYPE_GROUP_LEAVE_ANNOUNCEMENT, LeaveCacheGroupAnnouncement.BUILDER);
@@ -256,10 +289,19 @@ public final class WireableFactory {
       addMaker(Wireable.TYPE_WAIT_FOR_LOCK_EXPIRED_ANNOUNCEMENT, WaitForLockExpiredAnnouncement.BUILDER);
       addMaker(Wireable.TYPE_LOCK_ENTRY_COUNT_REQUEST, EntryCountRequest.BUILDER);
       addMaker(Wireable.TYPE_LOCK_QUEUE_KEY, LockQueueKey.BUILDER);
+      addMaker(Wireable.TYPE_LOCK_PARTITION_TRANSFER, LockPartitionTransfer.BUILDER);
+      addMaker(Wireable.TYPE_LOCK_QUEUE_BACKUP, LockQueueBackup.BUILDER);
+      addMaker(Wireable.TYPE_LOCK_DEADLOCK_PROBE, DeadlockProbe.BUILDER);
+      addMaker(Wireable.TYPE_LOCK_LEASE_ANNOUNCEMENT, LockLeaseAnnouncement.BUILDER);
       addMaker(Wireable.TYPE_REGISTER_SUBSCRIPTION_ANNOUNCEMENT, AddEntryModifiedSubscriptionAnnouncement.BUILDER);
       addMaker(Wireable.TYPE_UNREGISTER_SUBSCRIPTION_ANNOUNCEMENT, RemoveEntryModifiedSubscriptionAnnouncement.BUILDER);
       addMaker(Wireable.TYPE_AGGREGATING_ANNOUNCEMENT_RESPONSE, AggregatingAnnouncementResponse.BUILDER);
       addMaker(Wireable.TYPE_CACHE_INVALIDATE_FRONT_CACHE_ANNOUNCEMENT, ClearFrontCacheBucketAnnouncement.BUILDER);
+      addMaker(Wireable.TYPE_CACHE_PUSH_HOT_KEY_ANNOUNCEMENT, PushHotKeyAnnouncement.BUILDER);
+      addMaker(Wireable.TYPE_REGISTER_CACHE_SUBSCRIPTION_ANNOUNCEMENT,
+              AddCacheEntryModifiedSubscriptionAnnouncement.BUILDER);
+      addMaker(Wireable.TYPE_UNREGISTER_CACHE_SUBSCRIPTION_ANNOUNCEMENT,
+              RemoveCacheEntryModifiedSubscriptionAnnouncement.BUILDER);
       addMaker(Wireable.TYPE_TRANSFER_BUCKET_RESULT, TransferBucketResult.BUILDER);
 
 
@@ -0,0 +1,167 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.tcp;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cacheonix.impl.net.processor.Message;
+
+/**
+ * A queue of messages waiting to be sent to a single receiver. The queue keeps a FIFO list for each message priority
+ * class and always returns the oldest message of the highest priority class first. Messages of the same priority class
+ * are sent in the order they were enqueued.
+ * <p/>
+ * The queue is not thread-safe and is accessed only by the sender selector thread.
+ *
+ * @see Message#getPriority()
+ */
+final class PrioritizedMessageQueue {
+
+   /**
+    * FIFO lists of messages indexed by a priority class.
+    */
+   private final List<LinkedList<Message>> lanes = new ArrayList<LinkedList<Message>>(Message.PRIORITY_COUNT); // NOPMD
+
+   /**
+    * Total number of messages in all lanes.
+    */
+   private int size = 0;
+
+
+   /**
+    * Creates an empty queue.
+    */
+   PrioritizedMessageQueue() {
+
+      for (int i = 0; i < Message.PRIORITY_COUNT; i++) {
+
+         lanes.add(new LinkedList<Message>()); // NOPMD
+      }
+   }
+
+
+   /**
+    * Adds a message to the tail of the lane for the message's priority class.
+    *
+    * @param message the message to add.
+    */
+   public void add(final Message message) {
+
+      lanes.get(laneIndex(message)).add(message);
+      size++;
+   }
+
+
+   /**
+    * Returns the oldest message of the highest priority class without removing it.
+    *
+    * @return the oldest message of the highest priority class or <code>null</code> if the queue is empty.
+    */
+   public Message peek() {
+
+      if (size == 0) {
+         return null;
+      }
+
+      for (final LinkedList<Message> lane : lanes) {
+
+         if (!lane.isEmpty()) {
+
+            return lane.getFirst();
+         }
+      }
+
+      return null;
+   }
+
+
+   /**
+    * Removes a message that was earlier returned by {@link #peek()}.
+    *
+    * @param message the message to remove.
+    * @return <code>true</code> if the message was removed.
+    */
+   public boolean remove(final Message message) {
+
+      final LinkedList<Message> lane = lanes.get(laneIndex(message));
+      if (lane.removeFirstOccurrence(message)) {
+
+         size--;
+         return true;
+      }
+
+      return false;
+   }
+
+
+   /**
+    * Removes all messages from the queue.
+    *
+    * @return the list of removed messages, ordered by priority class.
+    */
+   public List<Message> removeAll() {
+
+      final List<Message> result = new ArrayList<Message>(size);
+      for (final LinkedList<Message> lane : lanes) {
+
+         result.addAll(lane);
+         lane.clear();
+      }
+      size = 0;
+      return result;
+   }
+
+
+   /**
+    * Returns <code>true</code> if the queue does not contain messages.
+    *
+    * @return <code>true</code> if the queue does not contain messages.
+    */
+   public boolean isEmpty() {
+
+      return size == 0;
+   }
+
+
+   /**
+    * Returns the number of messages in the queue.
+    *
+    * @return the number of messages in the queue.
+    */
+   public int size() {
+
+      return size;
+   }
+
+
+   private static int laneIndex(final Message message) {
+
+      final int priority = message.getPriority();
+      if (priority < 0 || priority >= Message.PRIORITY_COUNT) {
+
+         throw new IllegalArgumentException("Unknown message priority: " + priority + ", message: " + message);
+      }
+      return priority;
+   }
+
+
+   public String toString() {
+
+      return "PrioritizedMessageQueue{" +
+              "size=" + size +
+              '}';
+   }
+}
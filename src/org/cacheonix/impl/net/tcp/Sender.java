@@ -66,6 +66,13 @@ public final class Sender extends AbstractProcessor {
     */
    private final long networkTimeoutMillis;
 
+   /**
+    * If <code>true</code>, bulk messages are sent through separate connections.
+    *
+    * @see Message#PRIORITY_BULK
+    */
+   private final boolean separateBulkConnection;
+
    /**
     * Cluster service is responsible for sending reliable mcast messages and for managing cluster membership.
     */
@@ -95,7 +102,26 @@ public final class Sender extends AbstractProcessor {
    public Sender(final ClusterNodeAddress localAddress, final long networkTimeoutMillis,
            final long selectorTimeoutMillis, final Clock clock) throws IOException {
 
+      this(localAddress, networkTimeoutMillis, selectorTimeoutMillis, clock, false);
+   }
+
+
+   /**
+    * Creates message sender.
+    *
+    * @param localAddress           the localAddress.
+    * @param networkTimeoutMillis   a network timeout in milliseconds.
+    * @param selectorTimeoutMillis  a time the selector should block for while waiting for a channel to become ready,
+    *                               must be greater than zero.
+    * @param clock                  the clock.
+    * @param separateBulkConnection <code>true</code> if bulk messages should be sent through separate connections so
+    *                               that they don't delay control and data messages to the same receiver.
+    */
+   public Sender(final ClusterNodeAddress localAddress, final long networkTimeoutMillis,
+           final long selectorTimeoutMillis, final Clock clock, final boolean separateBulkConnection) throws IOException {
+
       super("Sender:" + localAddress.getTcpPort());
+      this.separateBulkConnection = separateBulkConnection;
       this.selectorTimeoutMillis = selectorTimeoutMillis;
       this.networkTimeoutMillis = networkTimeoutMillis;
       this.localAddress = localAddress;
@@ -136,7 +162,7 @@ public final class Sender extends AbstractProcessor {
    protected Runnable createWorker() {
 
       return new SenderSelectorWorker(localAddress, selector, queue, router, networkTimeoutMillis,
-              selectorTimeoutMillis, clock);
+              selectorTimeoutMillis, clock, separateBulkConnection);
    }
 
 
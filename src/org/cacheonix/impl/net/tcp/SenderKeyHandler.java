@@ -22,7 +22,6 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.LinkedList;
 
 import org.cacheonix.impl.clock.Clock;
@@ -88,9 +87,12 @@ final class SenderKeyHandler extends KeyHandler {
    private final LinkedList<InetAddress> addressesToTry = new LinkedList<InetAddress>(); // NOPMD
 
    /**
-    * A queue of messages to send.
+    * A queue of messages to send. Control messages are written ahead of data messages, and data messages are written
+    * ahead of bulk messages.
+    *
+    * @see Message#getPriority()
     */
-   private final LinkedList<Message> messages = new LinkedList<Message>(); // NOPMD
+   private final PrioritizedMessageQueue messages = new PrioritizedMessageQueue();
 
    /**
     * An address of the message receiver.
@@ -112,6 +114,12 @@ final class SenderKeyHandler extends KeyHandler {
     */
    private ByteBuffer leftover = null;
 
+   /**
+    * A message which write is not finished yet. The message stays in the queue until the leftover is written
+    * completely.
+    */
+   private Message inFlight = null;
+
 
    /**
     * Constructor.
@@ -267,9 +275,10 @@ final class SenderKeyHandler extends KeyHandler {
                // that there won't be valid input from this side on this channel.
                IOUtils.closeHard(socketChannel(key));
 
-               // Clear partial message
+               // Clear partial message. The message stays in the queue and will be re-sent after re-connecting.
 
                leftover = null;
+               inFlight = null;
 
                // Begin connecting from the beginning of the address list
                beginConnecting(true);
@@ -320,6 +329,7 @@ final class SenderKeyHandler extends KeyHandler {
 
                // Clear partial message
                leftover = null;
+               inFlight = null;
 
                state = INIT;
 
@@ -422,7 +432,9 @@ final class SenderKeyHandler extends KeyHandler {
          leftover = null;
 
          // Remove failed message
-         final Message message = messages.removeFirst();
+         final Message message = inFlight;
+         messages.remove(message);
+         inFlight = null;
 
          //noinspection ControlFlowStatementWithoutBraces
 //         if (LOG.isDebugEnabled()) {
@@ -470,13 +482,14 @@ final class SenderKeyHandler extends KeyHandler {
       if (bytesWritten == bytesToWrite) {
 
          // Completely wrote the message, remove the written from the queue
-         messages.removeFirst();
+         messages.remove(inFlight);
 
 //         //noinspection ControlFlowStatementWithoutBraces
 //         if (LOG.isDebugEnabled()) LOG.debug("Sent: " + message); // NOPMD
 
          // Mark that no leftovers
          leftover = null;
+         inFlight = null;
 
          // Unregister interest in write
          key.interestOps(OP_READ);
@@ -499,9 +512,8 @@ final class SenderKeyHandler extends KeyHandler {
 
       final SocketChannel channel = socketChannel(key);
 
-      for (final Iterator<Message> iter = messages.iterator(); iter.hasNext(); ) {
-
-         final Message message = iter.next();
+      // Always write the oldest message of the highest priority class first
+      for (Message message = messages.peek(); message != null; message = messages.peek()) {
 
          // Time stamp the message
          message.setTimestamp(clock.currentTime());
@@ -528,6 +540,7 @@ final class SenderKeyHandler extends KeyHandler {
 
             // Register leftover buffer
             leftover = buffer;
+            inFlight = message;
 
             // Exit message writing loop to wait for write readiness
             break;
@@ -537,7 +550,7 @@ final class SenderKeyHandler extends KeyHandler {
 //            if (LOG.isDebugEnabled()) LOG.debug("Sent: " + message); // NOPMD
 
             // Completely wrote the message, process next
-            iter.remove();
+            messages.remove(message);
          }
       }
 
@@ -559,14 +572,10 @@ final class SenderKeyHandler extends KeyHandler {
 //         LOG.debug("Responding to all messages with failure, message count: " + messages.size()); // NOPMD
 //      }
 
-      for (final Iterator<Message> iterator = messages.iterator(); iterator.hasNext(); ) {
+      // Delete all messages from the queue and respond
+      for (final Message message : messages.removeAll()) {
 
-         // Respond
-         final Message message = iterator.next();
          respondWithFailure(message, errorDescription);
-
-         // Delete from the queue
-         iterator.remove();
       }
    }
 
@@ -683,6 +692,7 @@ final class SenderKeyHandler extends KeyHandler {
               ", addressesToTry=" + addressesToTry +
               ", state=" + state +
               ", leftover=" + leftover +
+              ", inFlight=" + inFlight +
               '}';
    }
 }
@@ -38,6 +38,21 @@ final class SenderSelectorWorker extends SelectorWorker {
     */
    private final Map<ReceiverAddress, SenderKeyHandler> senders = new HashMap<ReceiverAddress, SenderKeyHandler>(111);
 
+   /**
+    * Map of addresses to senders that use separate connections to send bulk messages. The map is used only if
+    * <code>separateBulkConnection</code> is set.
+    *
+    * @see Message#PRIORITY_BULK
+    */
+   private final Map<ReceiverAddress, SenderKeyHandler> bulkSenders = new HashMap<ReceiverAddress, SenderKeyHandler>(
+           111);
+
+   /**
+    * If <code>true</code>, bulk messages are sent through separate connections so that a bulk message being written
+    * does not delay control and data messages to the same receiver.
+    */
+   private final boolean separateBulkConnection;
+
    /**
     * Local address.
     */
@@ -55,21 +70,24 @@ final class SenderSelectorWorker extends SelectorWorker {
 
 
    /**
-    * @param localAddress          the local address.
-    * @param selector              the selector to process.
-    * @param queue                 the  queue with messages to send.
-    * @param router                the cluster processor.
-    * @param networkTimeoutMillis  the network timeout in milliseconds.
-    * @param selectorTimeoutMillis the time the selector should block for while waiting for a channel to become ready,
-    *                              must be greater than zero.
-    * @param clock                 the cluster node's clock.
+    * @param localAddress           the local address.
+    * @param selector               the selector to process.
+    * @param queue                  the  queue with messages to send.
+    * @param router                 the cluster processor.
+    * @param networkTimeoutMillis   the network timeout in milliseconds.
+    * @param selectorTimeoutMillis  the time the selector should block for while waiting for a channel to become ready,
+    *                               must be greater than zero.
+    * @param clock                  the cluster node's clock.
+    * @param separateBulkConnection <code>true</code> if bulk messages should be sent through separate connections.
     */
    @SuppressWarnings("AssignmentToCollectionOrArrayFieldFromParameter")
    SenderSelectorWorker(final ClusterNodeAddress localAddress, final Selector selector,
            final ConcurrentLinkedQueue<Message> queue, final Router router,
-           final long networkTimeoutMillis, final long selectorTimeoutMillis, final Clock clock) {
+           final long networkTimeoutMillis, final long selectorTimeoutMillis, final Clock clock,
+           final boolean separateBulkConnection) {
 
       super(selector, networkTimeoutMillis, selectorTimeoutMillis);
+      this.separateBulkConnection = separateBulkConnection;
       this.localAddress = localAddress;
       this.router = router;
       this.queue = queue;
@@ -133,14 +151,18 @@ final class SenderSelectorWorker extends SelectorWorker {
       }
 
 
-      SenderKeyHandler senderKeyHandler = senders.get(receiverAddress);
+      // Bulk messages use their own connections if configured
+      final Map<ReceiverAddress, SenderKeyHandler> lane = separateBulkConnection
+              && message.getPriority() == Message.PRIORITY_BULK ? bulkSenders : senders;
+
+      SenderKeyHandler senderKeyHandler = lane.get(receiverAddress);
       if (senderKeyHandler == null) {
 
          // SenderKeyHandler does not exist - create
          senderKeyHandler = new SenderKeyHandler(selector, receiverAddress, router, networkTimeoutMillis, clock);
 
          // Register the senderKeyHandler
-         senders.put(receiverAddress, senderKeyHandler);
+         lane.put(receiverAddress, senderKeyHandler);
       }
 
       // Enqueue message
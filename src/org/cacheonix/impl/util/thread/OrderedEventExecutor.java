@@ -0,0 +1,596 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.util.thread;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.cacheonix.impl.config.SystemProperty;
+import org.cacheonix.impl.util.array.HashMap;
+import org.cacheonix.impl.util.logging.Logger;
+
+/**
+ * An executor that runs event notifications in parallel while keeping the order of notifications that share an
+ * ordering key.
+ * <p/>
+ * The executor consists of a fixed number of lanes. Each lane has a bounded queue and a single thread that is started
+ * when the first task is submitted to the lane. A task submitted with an ordering key is assigned to a lane by the hash
+ * code of the key, so tasks with equal keys run one after another in the order of submission, and tasks with different
+ * keys may run in parallel. Tasks submitted using {@link #execute(Runnable)} are run by the first lane in the order of
+ * submission.
+ * <p/>
+ * When the queue of a lane is full, the executor follows its {@link OverflowPolicy}. A thread of a lane never waits for
+ * the room in its own lane; such task is queued over the capacity to avoid a self-deadlock. A thread running a worker
+ * wrapped by {@link #nonBlocking(Runnable)}, such as a processor thread, never waits for the room in any lane either, so
+ * that a slow subscriber cannot stall the processor. Unless the policy is {@link OverflowPolicy#DROP_OLDEST}, its task
+ * is queued over the capacity and counted by {@link #getOverflowCount()}. Ordinary threads keep waiting until the lane
+ * drains below the capacity, so the overflow is bounded by the rate of non-blocking submissions. Tasks are discarded
+ * only by the {@link OverflowPolicy#DROP_OLDEST} policy and are counted by {@link #getDroppedCount()}.
+ */
+public final class OrderedEventExecutor extends AbstractExecutorService {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(OrderedEventExecutor.class); // NOPMD
+
+   /**
+    * Set to <code>Boolean.TRUE</code> for threads that must never wait for the room in a lane.
+    */
+   private static final ThreadLocal<Boolean> NON_BLOCKING = new ThreadLocal<Boolean>();
+
+   /**
+    * A warning about tasks queued over the capacity is logged once per this number of such tasks.
+    */
+   private static final long OVERFLOW_WARNING_INTERVAL = 1000L;
+
+   /**
+    * Lanes.
+    */
+   private final Lane[] lanes;
+
+   /**
+    * Maximum number of queued tasks per lane.
+    */
+   private final int capacity;
+
+   /**
+    * Action to take when a lane is full.
+    */
+   private final OverflowPolicy overflowPolicy;
+
+   /**
+    * A factory to create lane threads.
+    */
+   private final ThreadFactory threadFactory;
+
+   /**
+    * Number of tasks discarded according to {@link OverflowPolicy#DROP_OLDEST}.
+    */
+   private final AtomicLong droppedCount = new AtomicLong(0L);
+
+   /**
+    * Number of tasks replaced according to {@link OverflowPolicy#COALESCE}.
+    */
+   private final AtomicLong coalescedCount = new AtomicLong(0L);
+
+   /**
+    * Number of tasks queued over the capacity by non-blocking threads.
+    */
+   private final AtomicLong overflowCount = new AtomicLong(0L);
+
+   /**
+    * Set to <code>true</code> when shutdown is requested.
+    */
+   private volatile boolean shutdown = false;
+
+
+   /**
+    * Creates a new OrderedEventExecutor.
+    *
+    * @param threadFactory  a factory to create lane threads.
+    * @param laneCount      the number of lanes, that is the maximum number of tasks that can run in parallel.
+    * @param capacity       the maximum number of queued tasks per lane.
+    * @param overflowPolicy the action to take when a lane is full.
+    * @throws IllegalArgumentException if the lane count or capacity is not positive.
+    */
+   public OrderedEventExecutor(final ThreadFactory threadFactory, final int laneCount, final int capacity,
+           final OverflowPolicy overflowPolicy) {
+
+      if (laneCount <= 0) {
+         throw new IllegalArgumentException("Lane count should be positive: " + laneCount);
+      }
+
+      if (capacity <= 0) {
+         throw new IllegalArgumentException("Capacity should be positive: " + capacity);
+      }
+
+      this.threadFactory = threadFactory;
+      this.overflowPolicy = overflowPolicy;
+      this.capacity = capacity;
+      this.lanes = new Lane[laneCount];
+      for (int i = 0; i < laneCount; i++) {
+
+         lanes[i] = new Lane();
+      }
+   }
+
+
+   /**
+    * Creates an executor for user event notifications configured by the system properties.
+    *
+    * @param threadName the name of the lane threads.
+    * @return a new executor for user event notifications.
+    * @see SystemProperty#getEventNotificationThreads()
+    * @see SystemProperty#getEventNotificationQueueCapacity()
+    * @see SystemProperty#getEventNotificationOverflowPolicy()
+    */
+   public static OrderedEventExecutor createUserEventExecutor(final String threadName) {
+
+      return new OrderedEventExecutor(new UserThreadFactory(threadName), SystemProperty.getEventNotificationThreads(),
+              SystemProperty.getEventNotificationQueueCapacity(), SystemProperty.getEventNotificationOverflowPolicy());
+   }
+
+
+   /**
+    * Wraps a worker so that the thread running it never waits for the room in a lane of any executor. Tasks that such
+    * thread submits to a full lane are queued over the capacity, or replace the oldest queued task if the policy is
+    * {@link OverflowPolicy#DROP_OLDEST}.
+    *
+    * @param worker the worker to wrap.
+    * @return a worker that marks its thread as non-blocking before running the given worker.
+    */
+   public static Runnable nonBlocking(final Runnable worker) {
+
+      return new Runnable() {
+
+         public void run() {
+
+            NON_BLOCKING.set(Boolean.TRUE);
+            try {
+
+               worker.run();
+            } finally {
+
+               NON_BLOCKING.remove();
+            }
+         }
+
+
+         public String toString() {
+
+            return worker.toString();
+         }
+      };
+   }
+
+
+   /**
+    * Executes the task after all tasks previously submitted using this method.
+    *
+    * @param command the task to execute.
+    * @throws RejectedExecutionException if this executor has been shut down.
+    */
+   public void execute(final Runnable command) {
+
+      lanes[0].offer(new Task(null, command));
+   }
+
+
+   /**
+    * Executes the task after all tasks previously submitted with an equal ordering key.
+    *
+    * @param orderingKey the ordering key.
+    * @param command     the task to execute.
+    * @throws RejectedExecutionException if this executor has been shut down.
+    */
+   public void execute(final Object orderingKey, final Runnable command) {
+
+      execute(orderingKey, null, command);
+   }
+
+
+   /**
+    * Executes the task after all tasks previously submitted with an equal ordering key. If the overflow policy is
+    * {@link OverflowPolicy#COALESCE} and the lane holds a queued task with an equal coalescing key, the queued task is
+    * replaced by the given task.
+    *
+    * @param orderingKey   the ordering key.
+    * @param coalescingKey the coalescing key or <code>null</code> if the task should never be coalesced. Tasks with
+    *                      equal coalescing keys should have equal ordering keys.
+    * @param command       the task to execute.
+    * @throws RejectedExecutionException if this executor has been shut down.
+    */
+   public void execute(final Object orderingKey, final Object coalescingKey, final Runnable command) {
+
+      lanes[laneIndex(orderingKey)].offer(new Task(coalescingKey, command));
+   }
+
+
+   /**
+    * Returns the action this executor takes when a lane is full.
+    *
+    * @return the action this executor takes when a lane is full.
+    */
+   public OverflowPolicy getOverflowPolicy() {
+
+      return overflowPolicy;
+   }
+
+
+   /**
+    * Returns the number of tasks discarded according to {@link OverflowPolicy#DROP_OLDEST}.
+    *
+    * @return the number of discarded tasks.
+    */
+   public long getDroppedCount() {
+
+      return droppedCount.get();
+   }
+
+
+   /**
+    * Returns the number of tasks replaced according to {@link OverflowPolicy#COALESCE}.
+    *
+    * @return the number of replaced tasks.
+    */
+   public long getCoalescedCount() {
+
+      return coalescedCount.get();
+   }
+
+
+   /**
+    * Returns the number of tasks that non-blocking threads queued over the capacity of a full lane.
+    *
+    * @return the number of tasks queued over the capacity.
+    * @see #nonBlocking(Runnable)
+    */
+   public long getOverflowCount() {
+
+      return overflowCount.get();
+   }
+
+
+   public void shutdown() {
+
+      shutdown = true;
+      for (final Lane lane : lanes) {
+
+         lane.shutdown(false);
+      }
+   }
+
+
+   public List<Runnable> shutdownNow() {
+
+      shutdown = true;
+      final List<Runnable> result = new ArrayList<Runnable>(1);
+      for (final Lane lane : lanes) {
+
+         result.addAll(lane.shutdown(true));
+      }
+      return result;
+   }
+
+
+   public boolean isShutdown() {
+
+      return shutdown;
+   }
+
+
+   public boolean isTerminated() {
+
+      if (!shutdown) {
+         return false;
+      }
+
+      for (final Lane lane : lanes) {
+
+         if (!lane.isTerminated()) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+
+   public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+
+      final long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+      for (final Lane lane : lanes) {
+
+         final long timeLeft = deadline - System.currentTimeMillis();
+         if (!lane.awaitTermination(timeLeft)) {
+            return false;
+         }
+      }
+      return isTerminated();
+   }
+
+
+   private int laneIndex(final Object orderingKey) {
+
+      if (orderingKey == null) {
+         return 0;
+      }
+
+      final int hashCode = orderingKey.hashCode();
+      return ((hashCode ^ (hashCode >>> 16)) & Integer.MAX_VALUE) % lanes.length;
+   }
+
+
+   public String toString() {
+
+      return "OrderedEventExecutor{" +
+              "laneCount=" + lanes.length +
+              ", capacity=" + capacity +
+              ", overflowPolicy=" + overflowPolicy +
+              ", droppedCount=" + droppedCount +
+              ", coalescedCount=" + coalescedCount +
+              ", overflowCount=" + overflowCount +
+              ", shutdown=" + shutdown +
+              '}';
+   }
+
+
+   /**
+    * A queued task.
+    */
+   private static final class Task {
+
+      private final Object coalescingKey;
+
+      private Runnable command;
+
+
+      Task(final Object coalescingKey, final Runnable command) {
+
+         if (command == null) {
+            throw new NullPointerException("Command cannot be null");
+         }
+
+         this.coalescingKey = coalescingKey;
+         this.command = command;
+      }
+   }
+
+
+   /**
+    * A lane with a bounded queue served by a single thread.
+    */
+   private final class Lane implements Runnable {
+
+      private final ReentrantLock lock = new ReentrantLock();
+
+      private final Condition notEmpty = lock.newCondition();
+
+      private final Condition notFull = lock.newCondition();
+
+      private final LinkedList<Task> queue = new LinkedList<Task>(); // NOPMD
+
+      /**
+       * Queued tasks by their coalescing keys. Used only by {@link OverflowPolicy#COALESCE}.
+       */
+      private final Map<Object, Task> queuedByCoalescingKey = new HashMap<Object, Task>(1);
+
+      private Thread thread = null;
+
+      private boolean stopped = false;
+
+
+      void offer(final Task task) {
+
+         lock.lock();
+         try {
+
+            if (stopped) {
+               throw new RejectedExecutionException("Executor has been shut down");
+            }
+
+            final boolean coalesce = overflowPolicy == OverflowPolicy.COALESCE && task.coalescingKey != null;
+            if (coalesce) {
+
+               final Task queued = queuedByCoalescingKey.get(task.coalescingKey);
+               if (queued != null) {
+
+                  queued.command = task.command;
+                  coalescedCount.incrementAndGet();
+                  return;
+               }
+            }
+
+            final boolean nonBlocking = NON_BLOCKING.get() != null;
+            if (queue.size() >= capacity && nonBlocking && overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+
+               // Queue over the capacity instead of blocking
+               final long overflows = overflowCount.incrementAndGet();
+               if (overflows % OVERFLOW_WARNING_INTERVAL == 1L) {
+                  LOG.warn("Lane is full, queued task over the capacity instead of blocking "
+                          + Thread.currentThread().getName() + ", total queued over the capacity: " + overflows);
+               }
+            }
+
+            while (queue.size() >= capacity && Thread.currentThread() != thread
+                    && (overflowPolicy == OverflowPolicy.DROP_OLDEST || !nonBlocking)) {
+
+               if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+
+                  final Task dropped = queue.removeFirst();
+                  forget(dropped);
+                  droppedCount.incrementAndGet();
+                  if (LOG.isDebugEnabled()) {
+                     LOG.debug("Lane is full, dropped oldest task: " + dropped.command);
+                  }
+               } else {
+
+                  try {
+                     notFull.await();
+                  } catch (final InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                     throw new RejectedExecutionException("Interrupted while waiting for the room in a lane", e);
+                  }
+
+                  if (stopped) {
+                     throw new RejectedExecutionException("Executor has been shut down");
+                  }
+               }
+            }
+
+            queue.addLast(task);
+            if (coalesce) {
+               queuedByCoalescingKey.put(task.coalescingKey, task);
+            }
+
+            if (thread == null) {
+
+               thread = threadFactory.newThread(this);
+               thread.start();
+            } else {
+
+               notEmpty.signal();
+            }
+         } finally {
+            lock.unlock();
+         }
+      }
+
+
+      /**
+       * Runs queued tasks until the lane is stopped and its queue is empty.
+       */
+      public void run() {
+
+         while (true) {
+
+            final Runnable command;
+            lock.lock();
+            try {
+
+               while (queue.isEmpty() && !stopped) {
+
+                  try {
+                     notEmpty.await();
+                  } catch (final InterruptedException ignored) {
+                     // Interrupted by shutdownNow(), the loop checks the stopped flag
+                  }
+               }
+
+               if (queue.isEmpty()) {
+                  return;
+               }
+
+               final Task task = queue.removeFirst();
+               forget(task);
+               command = task.command;
+               notFull.signal();
+            } finally {
+               lock.unlock();
+            }
+
+            try {
+
+               command.run();
+            } catch (final Throwable e) { // NOPMD A catch statement should never catch throwable since it includes errors.
+
+               // Isolate errors thrown by user code
+               LOG.warn("Error while running event notification " + command + ": " + e, e);
+            }
+         }
+      }
+
+
+      List<Runnable> shutdown(final boolean now) {
+
+         lock.lock();
+         try {
+
+            stopped = true;
+            final List<Runnable> result = new ArrayList<Runnable>(now ? queue.size() : 0);
+            if (now) {
+
+               for (final Iterator<Task> iterator = queue.iterator(); iterator.hasNext(); ) {
+
+                  result.add(iterator.next().command);
+                  iterator.remove();
+               }
+               queuedByCoalescingKey.clear();
+               if (thread != null) {
+                  thread.interrupt();
+               }
+            }
+
+            notEmpty.signalAll();
+            notFull.signalAll();
+            return result;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+
+      boolean isTerminated() {
+
+         lock.lock();
+         try {
+            return stopped && (thread == null || !thread.isAlive());
+         } finally {
+            lock.unlock();
+         }
+      }
+
+
+      boolean awaitTermination(final long timeoutMillis) throws InterruptedException {
+
+         final Thread laneThread;
+         lock.lock();
+         try {
+            laneThread = thread;
+         } finally {
+            lock.unlock();
+         }
+
+         if (laneThread == null) {
+            return true;
+         }
+
+         if (timeoutMillis > 0L) {
+            laneThread.join(timeoutMillis);
+         }
+         return !laneThread.isAlive();
+      }
+
+
+      private void forget(final Task task) {
+
+         if (task.coalescingKey != null && queuedByCoalescingKey.get(task.coalescingKey) == task) {
+
+            queuedByCoalescingKey.remove(task.coalescingKey);
+         }
+      }
+   }
+}
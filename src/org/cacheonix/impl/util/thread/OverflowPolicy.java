@@ -0,0 +1,41 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.util.thread;
+
+/**
+ * Defines what {@link OrderedEventExecutor} does when a task is submitted to a lane which queue is full. Policies that
+ * wait for the room apply only to ordinary threads: a non-blocking thread, such as a processor thread, queues its task
+ * over the capacity instead of waiting.
+ *
+ * @see OrderedEventExecutor#nonBlocking(Runnable)
+ */
+public enum OverflowPolicy {
+
+   /**
+    * The submitting thread waits until the lane has room for the task.
+    */
+   BLOCK,
+
+   /**
+    * The oldest queued task of the lane is discarded to make room for the task. This is the only policy that loses
+    * notifications; discarded tasks are counted by {@link OrderedEventExecutor#getDroppedCount()}.
+    */
+   DROP_OLDEST,
+
+   /**
+    * A task that has a coalescing key replaces a queued, not yet started task with an equal coalescing key. A task
+    * that cannot be coalesced waits until the lane has room for it, as with {@link #BLOCK}.
+    */
+   COALESCE
+}
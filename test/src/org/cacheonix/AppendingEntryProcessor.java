@@ -0,0 +1,52 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix;
+
+import java.io.Serializable;
+
+import org.cacheonix.cache.entry.MutableCacheEntry;
+import org.cacheonix.cache.executor.EntryProcessor;
+
+/**
+ * A test entry processor that appends a suffix to a string value and returns the previous value. An entry that does
+ * not exist is created with the suffix as a value.
+ */
+public final class AppendingEntryProcessor implements EntryProcessor {
+
+   private static final long serialVersionUID = 3203939620488212845L;
+
+   private final String suffix;
+
+
+   public AppendingEntryProcessor(final String suffix) {
+
+      this.suffix = suffix;
+   }
+
+
+   public Serializable process(final MutableCacheEntry entry) {
+
+      final String previousValue = (String) entry.getValue();
+      entry.setValue(entry.exists() ? previousValue + suffix : suffix);
+      return previousValue;
+   }
+
+
+   public String toString() {
+
+      return "AppendingEntryProcessor{" +
+              "suffix='" + suffix + '\'' +
+              '}';
+   }
+}
@@ -1,7 +1,6 @@
 package org.cacheonix;
 
 import java.net.InetAddress;
-import java.util.concurrent.ExecutorService;
 
 import junit.framework.TestCase;
 import org.cacheonix.impl.clock.Clock;
@@ -14,6 +13,9 @@ import org.cacheonix.impl.net.cluster.JoinStatus;
 import org.cacheonix.impl.net.processor.Response;
 import org.cacheonix.impl.net.processor.UUID;
 import org.cacheonix.impl.util.IOUtils;
+import org.cacheonix.impl.util.thread.DaemonThreadFactory;
+import org.cacheonix.impl.util.thread.OrderedEventExecutor;
+import org.cacheonix.impl.util.thread.OverflowPolicy;
 import org.mockito.ArgumentCaptor;
 
 import static org.cacheonix.TestUtils.toInetAddresses;
@@ -30,7 +32,7 @@ public class RequestTestCase extends TestCase {
 
    protected ClusterProcessor clusterProcessor = mock(ClusterProcessor.class);
 
-   protected ExecutorService userEventExecutor = mock(ExecutorService.class);
+   protected OrderedEventExecutor userEventExecutor = new OrderedEventExecutor(new DaemonThreadFactory("TestUserEventExecutor"), 1, 100, OverflowPolicy.BLOCK);
 
    protected ClusterView clusterView = mock(ClusterView.class);
 
@@ -74,6 +76,7 @@ public class RequestTestCase extends TestCase {
 
       messageArgumentCaptor = null;
       clusterProcessorState = null;
+      userEventExecutor.shutdownNow();
       userEventExecutor = null;
       clusterProcessor = null;
       clusterView = null;
@@ -83,6 +83,20 @@ public final class BucketExpirationTest extends CacheonixTestCase {
    }
 
 
+   public void testExpireRemovesExpiredKeys() throws InterruptedException {
+
+      bucket.put(key, value, null);
+
+      // Wait past the configured expiration time and the tick of the expiration wheel
+      Thread.sleep(EXPIRATION_INTERVAL_MILLIS * 5L);
+      assertEquals(1, bucket.size());
+
+      // Assert key is gone without being accessed
+      assertEquals(1, bucket.expire(10));
+      assertEquals(0, bucket.size());
+   }
+
+
    protected void setUp() throws Exception {
 
       super.setUp();
@@ -46,6 +46,40 @@ public final class BucketIndexCalculatorTest extends TestCase {
    }
 
 
+   public void testCalculateBucketIndexForHashCode() {
+
+      assertEquals(calculator.calculateBucketIndex("test_key"),
+              BucketIndexCalculator.calculateBucketIndex("test_key".hashCode(), ConfigurationConstants.BUCKET_COUNT));
+      assertEquals(0, BucketIndexCalculator.calculateBucketIndex(Integer.MIN_VALUE, 1));
+      assertEquals(0, BucketIndexCalculator.calculateBucketIndex(Integer.MAX_VALUE, 1));
+   }
+
+
+   /**
+    * Tests that sequential keys spread evenly between buckets.
+    */
+   public void testSequentialKeysSpreadEvenly() {
+
+      final int bucketCount = 64;
+      final int keysPerBucket = 1000;
+      final BucketIndexCalculator smallCalculator = new BucketIndexCalculator(bucketCount);
+      final int[] keyCounts = new int[bucketCount];
+      for (long i = 0; i < (long) bucketCount * keysPerBucket; i++) {
+         keyCounts[smallCalculator.calculateBucketIndex(Long.valueOf(i << 8))]++;
+      }
+      for (int bucketNumber = 0; bucketNumber < bucketCount; bucketNumber++) {
+         assertTrue("Bucket " + bucketNumber + " has " + keyCounts[bucketNumber] + " keys",
+                 keyCounts[bucketNumber] > keysPerBucket * 3 / 4 && keyCounts[bucketNumber] < keysPerBucket * 5 / 4);
+      }
+   }
+
+
+   public void testGetBucketCount() {
+
+      assertEquals(ConfigurationConstants.BUCKET_COUNT, calculator.getBucketCount());
+   }
+
+
    public void testToString() {
 
       assertNotNull(calculator.toString());
@@ -14,10 +14,14 @@
 package org.cacheonix.impl.cache.distributed.partitioned;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.TestUtils;
+import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
+import org.cacheonix.cache.subscriber.EntryModifiedEventType;
+import org.cacheonix.cache.subscriber.EntryModifiedNotificationMode;
 import org.cacheonix.impl.cache.datasource.DummyBinaryStoreDataSource;
 import org.cacheonix.impl.cache.datastore.DummyDataStore;
 import org.cacheonix.impl.cache.invalidator.DummyCacheInvalidator;
@@ -31,6 +35,7 @@ import org.cacheonix.impl.cache.store.SharedCounter;
 import org.cacheonix.impl.cache.util.DummyObjectSizeCalculator;
 import org.cacheonix.impl.clock.Time;
 import org.cacheonix.impl.clock.TimeImpl;
+import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.net.serializer.SerializerFactory;
 import org.cacheonix.impl.util.array.HashMap;
@@ -153,6 +158,58 @@ public final class BucketTest extends CacheonixTestCase {
    }
 
 
+   public void testStaleUpdate() {
+
+      final Time first = new TimeImpl(10L, 0L);
+      final Time second = new TimeImpl(10L, 1L);
+      assertFalse(bucket.isStaleUpdate(key, first));
+
+      bucket.notifyUpdateApplied(key, second, first);
+
+      assertTrue(bucket.isStaleUpdate(key, first));
+      assertTrue(bucket.isStaleUpdate(key, second));
+      assertFalse(bucket.isStaleUpdate(key, new TimeImpl(11L, 0L)));
+      assertFalse(bucket.isStaleUpdate(toBinary("other.key"), first));
+   }
+
+
+   public void testSerializeDeserializeKeepsUpdateSequences() throws IOException {
+
+      final Time sequence = new TimeImpl(10L, 0L);
+      bucket.notifyUpdateApplied(key, sequence, sequence);
+
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final Bucket deserialized = (Bucket) ser.deserialize(ser.serialize(bucket));
+      assertTrue(deserialized.isStaleUpdate(key, sequence));
+   }
+
+
+   public void testCacheEventSubscribersAreKeyedByAddressAndIdentity() {
+
+      final int identity = 7;
+      final ClusterNodeAddress address1 = TestUtils.createTestAddress(7676);
+      final ClusterNodeAddress address2 = TestUtils.createTestAddress(7677);
+      bucket.addCacheEventSubscriber(address1, null, createRemoteSubscriber(identity, address1));
+      bucket.addCacheEventSubscriber(address2, null, createRemoteSubscriber(identity, address2));
+
+      // Removing the subscriber of one node keeps the subscriber with the same identity at the other node
+      assertTrue(bucket.removeCacheEventSubscriber(address1, identity));
+      assertFalse(bucket.removeCacheEventSubscriber(address1, identity));
+      assertTrue(bucket.removeCacheEventSubscriber(address2, identity));
+   }
+
+
+   private static RemoteEntryModifiedSubscriber createRemoteSubscriber(final int identity,
+           final ClusterNodeAddress address) {
+
+      final RemoteEntryModifiedSubscriber subscriber = new RemoteEntryModifiedSubscriber();
+      subscriber.setSubscription(new EntryModifiedSubscription(identity, address, EntryModifiedNotificationMode.SINGLE,
+              Collections.singletonList(EntryModifiedEventContentFlag.NEED_KEY),
+              Collections.singleton(EntryModifiedEventType.UPDATE), null));
+      return subscriber;
+   }
+
+
    protected void setUp() throws Exception {
 
       super.setUp();
@@ -14,6 +14,8 @@
 package org.cacheonix.impl.cache.distributed.partitioned;
 
 import junit.framework.TestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.util.logging.Logger;
 
 import static org.mockito.Mockito.mock;
@@ -46,6 +48,7 @@ public final class CacheNodeLeftMessageTest extends TestCase {
       final CacheProcessor cacheProcessor = mock(CacheProcessor.class);
       when(cacheProcessor.getState()).thenReturn(CacheProcessor.STATE_OPERATIONAL);
       when(cacheProcessor.getFrontCache()).thenReturn(frontCache);
+      when(cacheProcessor.getReplicationLagTracker()).thenReturn(new ReplicationLagTracker(1000L));
 
       // Execute
       final CacheNodeLeftMessage cacheNodeLeftMessage = new CacheNodeLeftMessage();
@@ -57,6 +60,29 @@ public final class CacheNodeLeftMessageTest extends TestCase {
    }
 
 
+   public void testForgetsReplicationLagOfLeftNode() {
+
+      final ClusterNodeAddress leftAddress = TestUtils.createTestAddress(1);
+      final ReplicationLagTracker replicationLagTracker = new ReplicationLagTracker(1000L);
+      replicationLagTracker.notifyUpdateSent(leftAddress, 100L);
+
+      // Mock Cache processor
+      final CacheProcessor cacheProcessor = mock(CacheProcessor.class);
+      when(cacheProcessor.getState()).thenReturn(CacheProcessor.STATE_OPERATIONAL);
+      when(cacheProcessor.getReplicationLagTracker()).thenReturn(replicationLagTracker);
+
+      // Execute
+      final CacheNodeLeftMessage cacheNodeLeftMessage = new CacheNodeLeftMessage();
+      cacheNodeLeftMessage.setLeftAddress(leftAddress);
+      cacheNodeLeftMessage.setProcessor(cacheProcessor);
+      cacheNodeLeftMessage.execute();
+
+      // Verify
+      verify(cacheProcessor).notifyNodeLeft(leftAddress);
+      assertTrue(replicationLagTracker.getReplicaOwners().isEmpty());
+   }
+
+
    /**
     * Tests that no exceptions occur when creating the object using a default constructor.
     */
@@ -0,0 +1,78 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import junit.framework.TestCase;
+import org.cacheonix.impl.cache.item.Binary;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tester for {@link DistributedCacheEntry}.
+ */
+public final class DistributedCacheEntryTest extends TestCase {
+
+   private Binary key;
+
+   private Binary value;
+
+   /**
+    * Object under test.
+    */
+   private DistributedCacheEntry cacheEntry;
+
+
+   public void testGetValueDeserializesOnce() {
+
+      assertEquals("value", cacheEntry.getValue());
+      assertEquals("value", cacheEntry.getValue());
+      verify(value, times(1)).getValue();
+   }
+
+
+   public void testGetNullValueDeserializesOnce() {
+
+      final Binary nullValue = mock(Binary.class);
+      final DistributedCacheEntry entry = new DistributedCacheEntry(key, nullValue, null, null);
+
+      assertNull(entry.getValue());
+      assertNull(entry.getValue());
+      verify(nullValue, times(1)).getValue();
+   }
+
+
+   public void testGetKeyDoesNotDeserializeValue() {
+
+      assertEquals("key", cacheEntry.getKey());
+      assertEquals("key", cacheEntry.getKey());
+      verify(key, times(1)).getValue();
+      verify(value, never()).getValue();
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      key = mock(Binary.class);
+      when(key.getValue()).thenReturn("key");
+      value = mock(Binary.class);
+      when(value.getValue()).thenReturn("value");
+      cacheEntry = new DistributedCacheEntry(key, value, null, null);
+   }
+}
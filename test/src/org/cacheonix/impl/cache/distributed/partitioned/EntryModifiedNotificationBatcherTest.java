@@ -0,0 +1,213 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.Timer;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
+import org.cacheonix.cache.subscriber.EntryModifiedEventType;
+import org.cacheonix.cache.subscriber.EntryModifiedNotificationMode;
+import org.cacheonix.impl.cache.subscriber.BinaryEntryModifiedEvent;
+import org.cacheonix.impl.net.processor.Message;
+import org.cacheonix.impl.util.array.HashSet;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tester for {@link EntryModifiedNotificationBatcher}.
+ */
+public final class EntryModifiedNotificationBatcherTest extends CacheonixTestCase {
+
+   private static final String CACHE_NAME = "test.cache";
+
+   private static final long WINDOW_MILLIS = 60000L;
+
+   private static final int MAX_BATCH_SIZE = 3;
+
+   private static final EntryModifiedSubscription BATCH_SUBSCRIPTION = createSubscription(1,
+           EntryModifiedNotificationMode.BATCH);
+
+   private static final EntryModifiedSubscription SINGLE_SUBSCRIPTION = createSubscription(2,
+           EntryModifiedNotificationMode.SINGLE);
+
+   private CacheProcessor processor;
+
+   private Timer timer;
+
+
+   public void testDisabledBatcherPostsImmediately() {
+
+      final EntryModifiedNotificationBatcher batcher = new EntryModifiedNotificationBatcher(processor, 0L,
+              MAX_BATCH_SIZE, false);
+      assertFalse(batcher.isEnabled());
+
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key", "value"));
+
+      verify(processor, times(1)).post(any(Message.class));
+      assertEquals(0, batcher.getPendingEventCount());
+   }
+
+
+   public void testSingleModeSubscriberIsNotBatched() {
+
+      final EntryModifiedNotificationBatcher batcher = createBatcher(false);
+
+      batcher.submit(SINGLE_SUBSCRIPTION, createEvents("key", "value"));
+
+      verify(processor, times(1)).post(any(Message.class));
+      assertEquals(0, batcher.getPendingEventCount());
+   }
+
+
+   public void testEventsAreSentAsSingleMessageOnFlush() {
+
+      final EntryModifiedNotificationBatcher batcher = createBatcher(false);
+
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key1", "value1"));
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key2", "value2"));
+      verify(processor, never()).post(any(Message.class));
+      assertEquals(2, batcher.getPendingEventCount());
+
+      batcher.flush();
+
+      final EntryModifiedNotificationMessage message = captureMessage();
+      assertEquals(BATCH_SUBSCRIPTION.getSubscriberIdentity(), message.getSubscriberIdentity());
+      assertEquals(BATCH_SUBSCRIPTION.getSubscriberAddress().getTcpPort(), message.getReceiver().getTcpPort());
+      assertEquals(2, message.getEvents().size());
+      assertEquals(0, batcher.getPendingEventCount());
+   }
+
+
+   public void testFullBatchIsSentBeforeWindowCloses() {
+
+      final EntryModifiedNotificationBatcher batcher = createBatcher(false);
+
+      for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+         batcher.submit(BATCH_SUBSCRIPTION, createEvents("key" + i, "value" + i));
+      }
+
+      assertEquals(MAX_BATCH_SIZE, captureMessage().getEvents().size());
+      assertEquals(0, batcher.getPendingEventCount());
+   }
+
+
+   public void testCoalescingKeepsLastValue() {
+
+      final EntryModifiedNotificationBatcher batcher = createBatcher(true);
+
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key", "value1"));
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key", "value2"));
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key", "value3"));
+      assertEquals(1, batcher.getPendingEventCount());
+
+      batcher.flush();
+
+      final List<BinaryEntryModifiedEvent> events = captureMessage().getEvents();
+      assertEquals(1, events.size());
+      assertEquals(toBinary("value3"), events.get(0).getNewValue());
+   }
+
+
+   public void testWithoutCoalescingKeepsAllValues() {
+
+      final EntryModifiedNotificationBatcher batcher = createBatcher(false);
+
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key", "value1"));
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key", "value2"));
+
+      assertEquals(2, batcher.getPendingEventCount());
+   }
+
+
+   public void testShutdownDiscardsPendingEvents() {
+
+      final EntryModifiedNotificationBatcher batcher = createBatcher(false);
+
+      batcher.submit(BATCH_SUBSCRIPTION, createEvents("key", "value"));
+      batcher.shutdown();
+      batcher.flush();
+
+      verify(processor, never()).post(any(Message.class));
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(createBatcher(true).toString());
+   }
+
+
+   private EntryModifiedNotificationBatcher createBatcher(final boolean coalescing) {
+
+      return new EntryModifiedNotificationBatcher(processor, WINDOW_MILLIS, MAX_BATCH_SIZE, coalescing);
+   }
+
+
+   private EntryModifiedNotificationMessage captureMessage() {
+
+      final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+      verify(processor, times(1)).post(captor.capture());
+      return (EntryModifiedNotificationMessage) captor.getValue();
+   }
+
+
+   private static List<BinaryEntryModifiedEvent> createEvents(final String key, final String value) {
+
+      return Collections.singletonList(new BinaryEntryModifiedEvent(EntryModifiedEventType.UPDATE, toBinary(key),
+              toBinary(value), null, null, 0L, null));
+   }
+
+
+   private static EntryModifiedSubscription createSubscription(final int identity,
+           final EntryModifiedNotificationMode notificationMode) {
+
+      final Set<EntryModifiedEventType> eventTypes = new HashSet<EntryModifiedEventType>(1);
+      eventTypes.add(EntryModifiedEventType.UPDATE);
+      return new EntryModifiedSubscription(identity, TestUtils.createTestAddress(333), notificationMode,
+              Collections.singletonList(EntryModifiedEventContentFlag.NEED_ALL), eventTypes);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      timer = new Timer("EntryModifiedNotificationBatcherTest", true);
+
+      processor = mock(CacheProcessor.class);
+      when(processor.getCacheName()).thenReturn(CACHE_NAME);
+      when(processor.getTimer()).thenReturn(timer);
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      timer.cancel();
+      timer = null;
+      processor = null;
+
+      super.tearDown();
+   }
+}
@@ -24,6 +24,8 @@ import org.cacheonix.ShutdownMode;
 import org.cacheonix.TestUtils;
 import org.cacheonix.cache.Cache;
 import org.cacheonix.cache.NotSubscribedException;
+import org.cacheonix.cache.entry.CacheEntry;
+import org.cacheonix.cache.entry.EntryFilter;
 import org.cacheonix.cache.subscriber.EntryModifiedEvent;
 import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
 import org.cacheonix.cache.subscriber.EntryModifiedEventType;
@@ -552,6 +554,87 @@ public final class EntryModifiedSubscriberDistributedTest extends CacheonixTestC
    }
 
 
+   public void testCacheEventSubscriberReceivesMatching() throws InterruptedException {
+
+      // Create subscriber
+      final List<EntryModifiedEventContentFlag> contentFlags = new ArrayList<EntryModifiedEventContentFlag>(2);
+      contentFlags.add(NEED_KEY);
+      contentFlags.add(NEED_NEW_VALUE);
+
+      final int keyCount = 100;
+      final TestEntryModifiedSubscriber subscriber = new TestEntryModifiedSubscriber(contentFlags, keyCount / 2);
+      getCache(0).addCacheEventSubscriber(new ValueEntryFilter(VALUE_2), subscriber);
+
+      // Put from another node, every other value matches
+      for (int i = 0; i < keyCount; i++) {
+
+         getCache(1).put(KEY_PREFIX + Integer.toString(i), i % 2 == 0 ? VALUE : VALUE_2);
+      }
+
+      // Assert
+      final List<EntryModifiedEvent> receivedEvents = subscriber.getReceivedEvents();
+      assertEquals(keyCount / 2, receivedEvents.size());
+      for (final EntryModifiedEvent event : receivedEvents) {
+
+         assertEquals(ADD, event.getUpdateType());
+         assertEquals(VALUE_2, event.getNewValue());
+      }
+   }
+
+
+   public void testCacheEventSubscriberReceivesUpdatesWhenABucketOwnerIsGone() throws InterruptedException {
+
+      // Create subscriber
+      final List<EntryModifiedEventContentFlag> contentFlags = new ArrayList<EntryModifiedEventContentFlag>(1);
+      contentFlags.add(NEED_KEY);
+
+      final int keyCount = 1000;
+      final TestEntryModifiedSubscriber subscriber = new TestEntryModifiedSubscriber(contentFlags, keyCount);
+      getCache(0).addCacheEventSubscriber(null, subscriber);
+
+      // Shutdown forcibly so that the buckets move to the remaining nodes
+      cacheManagerList.get(1).shutdown(FORCED_SHUTDOWN, true);
+
+      // Update
+      final HashMap<String, String> content = new HashMap<String, String>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+
+         content.put(KEY_PREFIX + Integer.toString(i), VALUE);
+      }
+      getCache(2).putAll(content);
+
+      // Assert
+      assertEquals(keyCount, subscriber.getReceivedEvents().size());
+   }
+
+
+   public void testCacheEventSubscriberUnSubscribe() throws InterruptedException {
+
+      // Create subscriber
+      final List<EntryModifiedEventContentFlag> contentFlags = new ArrayList<EntryModifiedEventContentFlag>(1);
+      contentFlags.add(NEED_KEY);
+
+      final TestEntryModifiedSubscriber subscriber = new TestEntryModifiedSubscriber(contentFlags, 1);
+      getCache(0).addCacheEventSubscriber(null, subscriber);
+      getCache(0).put(KEY, VALUE);
+      assertEquals(1, subscriber.getReceivedEvents().size());
+
+      // Remove subscriber
+      getCache(0).removeCacheEventSubscriber(subscriber);
+      getCache(0).put(KEY, VALUE_2);
+      assertEquals(1, subscriber.getReceivedEvents().size());
+
+      // Remove subscriber second time
+      boolean thrown = false;
+      try {
+         getCache(0).removeCacheEventSubscriber(subscriber);
+      } catch (final NotSubscribedException e) {
+         thrown = true;
+      }
+      assertTrue("Exception should be thrown", thrown);
+   }
+
+
    private Cache<String, String> getCache(final int cacheIndex) {
 
       return cacheList.get(cacheIndex);
@@ -618,6 +701,26 @@ public final class EntryModifiedSubscriberDistributedTest extends CacheonixTestC
    }
 
 
+   private static final class ValueEntryFilter implements EntryFilter {
+
+      private static final long serialVersionUID = 0L;
+
+      private final String value;
+
+
+      ValueEntryFilter(final String value) {
+
+         this.value = value;
+      }
+
+
+      public boolean matches(final CacheEntry cacheEntry) {
+
+         return value.equals(cacheEntry.getValue());
+      }
+   }
+
+
    private static class TestEntryModifiedSubscriber implements EntryModifiedSubscriber {
 
       private final List<EntryModifiedEvent> receivedEvents = new ArrayList<EntryModifiedEvent>(2);
@@ -13,8 +13,37 @@
  */
 package org.cacheonix.impl.cache.distributed.partitioned;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.cache.entry.CacheEntry;
+import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.executor.Executable;
+import org.cacheonix.impl.cache.datasource.DummyBinaryStoreDataSource;
+import org.cacheonix.impl.cache.datastore.DummyDataStore;
+import org.cacheonix.impl.cache.invalidator.DummyCacheInvalidator;
+import org.cacheonix.impl.cache.storage.disk.DummyDiskStorage;
+import org.cacheonix.impl.cache.store.BinaryStore;
+import org.cacheonix.impl.cache.store.SharedCounter;
+import org.cacheonix.impl.cache.util.DummyObjectSizeCalculator;
+import org.cacheonix.impl.net.processor.Command;
+import org.cacheonix.impl.net.processor.Message;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.util.array.IntHashSet;
 import org.cacheonix.impl.util.logging.Logger;
-import junit.framework.TestCase;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * ExecuteRequestTest
@@ -23,7 +52,7 @@ import junit.framework.TestCase;
  * @author <a href="mailto:simeshev@cacheonix.org">Slava Imeshev</a>
  * @since May 24, 2010 9:42:44 PM
  */
-public final class ExecuteRequestTest extends TestCase {
+public final class ExecuteRequestTest extends CacheonixTestCase {
 
    /**
     * Logger.
@@ -32,6 +61,19 @@ public final class ExecuteRequestTest extends TestCase {
     */
    private static final Logger LOG = Logger.getLogger(ExecuteRequestTest.class); // NOPMD
 
+   private static final String CACHE_NAME = "test.cache";
+
+   private final List<Message> posted = new ArrayList<Message>(1);
+
+   private final List<Bucket> buckets = new ArrayList<Bucket>(3);
+
+   private CacheProcessor processor;
+
+   /**
+    * Runs before the processor takes the next snapshot.
+    */
+   private Runnable beforeNextSnapshot = null;
+
 
    /**
     * Tests that no exceptions occur when creating the object using a default constructor.
@@ -40,4 +82,292 @@ public final class ExecuteRequestTest extends TestCase {
 
       assertNotNull(new ExecuteRequest().toString());
    }
+
+
+   /**
+    * Tests that the entries of several buckets are executed in batches.
+    */
+   public void testExecutesInBatches() {
+
+      addBucket(0, ExecuteRequest.BATCH_SIZE);
+      addBucket(ExecuteRequest.BATCH_SIZE, ExecuteRequest.BATCH_SIZE);
+      addBucket(ExecuteRequest.BATCH_SIZE * 2, 1);
+
+      final List<Object> results = execute(new CountingExecutable(), null);
+      assertEquals(3, results.size());
+      assertEquals(ExecuteRequest.BATCH_SIZE * 2 + 1, sum(results));
+   }
+
+
+   /**
+    * Tests that the entry filter is applied before entries are batched.
+    */
+   public void testExecutesWithFilter() {
+
+      addBucket(0, ExecuteRequest.BATCH_SIZE);
+      addBucket(ExecuteRequest.BATCH_SIZE, ExecuteRequest.BATCH_SIZE);
+
+      final List<Object> results = execute(new CountingExecutable(), new EvenKeyFilter());
+      assertEquals(1, results.size());
+      assertEquals(ExecuteRequest.BATCH_SIZE, sum(results));
+   }
+
+
+   /**
+    * Tests that the executable is called once even if there are no entries.
+    */
+   public void testExecutesEmptyBuckets() {
+
+      addBucket(0, 0);
+
+      final List<Object> results = execute(new CountingExecutable(), null);
+      assertEquals(1, results.size());
+      assertEquals(0, sum(results));
+   }
+
+
+   /**
+    * Tests that an exception thrown by the executable becomes a partial result.
+    */
+   public void testExecutesFailingExecutable() {
+
+      addBucket(0, 1);
+
+      final List<Object> results = execute(new FailingExecutable(), null);
+      assertEquals(1, results.size());
+      assertTrue(results.get(0) instanceof IllegalStateException);
+   }
+
+
+   /**
+    * Tests that a bucket is not read before the entries of the previous buckets have been executed.
+    */
+   public void testTakesSnapshotOfNextBucketAfterExecutingBatch() {
+
+      final Bucket firstBucket = addBucket(0, ExecuteRequest.BATCH_SIZE);
+      final Bucket secondBucket = addBucket(ExecuteRequest.BATCH_SIZE, ExecuteRequest.BATCH_SIZE);
+      beforeNextSnapshot = new Runnable() {
+
+         public void run() {
+
+            // Only the bucket that has not been visited yet sees its new entry
+            firstBucket.put(toBinary(ExecuteRequest.BATCH_SIZE * 2), toBinary("value"), null);
+            secondBucket.put(toBinary(ExecuteRequest.BATCH_SIZE * 2 + 1), toBinary("value"), null);
+         }
+      };
+
+      final List<Object> results = execute(new CountingExecutable(), null);
+      assertEquals(ExecuteRequest.BATCH_SIZE * 2 + 1, sum(results));
+   }
+
+
+   /**
+    * Tests that a bucket that changed the owner before its snapshot was taken is rejected.
+    */
+   public void testRejectsBucketThatChangedOwner() {
+
+      addBucket(0, ExecuteRequest.BATCH_SIZE);
+      addBucket(ExecuteRequest.BATCH_SIZE, ExecuteRequest.BATCH_SIZE);
+      beforeNextSnapshot = new Runnable() {
+
+         public void run() {
+
+            when(processor.isBucketOwner(0, 0)).thenReturn(false);
+            when(processor.isBucketOwner(0, 1)).thenReturn(false);
+         }
+      };
+
+      final List<Object> results = execute(new CountingExecutable(), null);
+      assertEquals(ExecuteRequest.BATCH_SIZE, sum(results));
+
+      // Only the bucket that has not been visited yet is rejected
+      final IntHashSet rejectedBuckets = ((AggregatingResponse) posted.get(0)).getRejectedBuckets();
+      assertEquals(1, rejectedBuckets.size());
+   }
+
+
+   /**
+    * Tests that the buckets are re-submitted if the executable executor rejects the execution.
+    */
+   public void testRetriesIfExecutorRejectsExecution() {
+
+      addBucket(0, 1);
+      when(processor.getExecutableExecutor()).thenReturn(new Executor() {
+
+         public void execute(final Runnable command) {
+
+            throw new RejectedExecutionException("Test exception");
+         }
+      });
+
+      executeRequest(new CountingExecutable(), null);
+
+      assertEquals(1, posted.size());
+      assertEquals(Response.RESULT_RETRY, ((Response) posted.get(0)).getResultCode());
+   }
+
+
+   @SuppressWarnings("unchecked")
+   private List<Object> execute(final Executable executable, final EntryFilter entryFilter) {
+
+      executeRequest(executable, entryFilter);
+
+      assertEquals(1, posted.size());
+      final AggregatingResponse response = (AggregatingResponse) posted.get(0);
+      assertEquals(Response.RESULT_SUCCESS, response.getResultCode());
+      return (List<Object>) response.getResult();
+   }
+
+
+   private void executeRequest(final Executable executable, final EntryFilter entryFilter) {
+
+      final IntHashSet bucketSet = new IntHashSet(buckets.size());
+      for (final Bucket bucket : buckets) {
+
+         bucketSet.add(bucket.getBucketNumber());
+      }
+
+      final ExecuteRequest request = new ExecuteRequest(CACHE_NAME);
+      request.setExecutable(executable);
+      request.setEntryFilter(entryFilter);
+      request.setStorageNumber(0);
+      request.setBucketSet(bucketSet);
+      request.setSender(TestUtils.createTestAddress(1));
+      request.setProcessor(processor);
+      request.execute();
+   }
+
+
+   private Bucket addBucket(final int firstKey, final int count) {
+
+      final BinaryStoreContext context = new BinaryStoreContextImpl();
+      context.setObjectSizeCalculator(new DummyObjectSizeCalculator());
+      context.setDiskStorage(new DummyDiskStorage(CACHE_NAME));
+      context.setDataSource(new DummyBinaryStoreDataSource());
+      context.setInvalidator(new DummyCacheInvalidator());
+      context.setDataStore(new DummyDataStore());
+
+      final BinaryStore keyStore = new BinaryStore(getClock(), 0L, 0L);
+      keyStore.setContext(context);
+      keyStore.attachToByteCounter(new SharedCounter(0L));
+      keyStore.attachToElementCounter(new SharedCounter(0L));
+
+      final int bucketNumber = buckets.size();
+      final Bucket bucket = new Bucket(bucketNumber, keyStore, 0L);
+      for (int i = firstKey; i < firstKey + count; i++) {
+
+         bucket.put(toBinary(i), toBinary("value"), null);
+      }
+
+      buckets.add(bucket);
+      when(processor.isBucketOwner(0, bucketNumber)).thenReturn(true);
+      when(processor.getBucket(0, bucketNumber)).thenReturn(bucket);
+      return bucket;
+   }
+
+
+   private static int sum(final Collection<Object> results) {
+
+      int sum = 0;
+      for (final Object result : results) {
+
+         sum += (Integer) result;
+      }
+      return sum;
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      processor = mock(CacheProcessor.class);
+      when(processor.getAddress()).thenReturn(TestUtils.createTestAddress(2));
+      when(processor.getClock()).thenReturn(getClock());
+      when(processor.getState()).thenReturn(CacheProcessor.STATE_OPERATIONAL);
+      when(processor.getExecutableExecutor()).thenReturn(new Executor() {
+
+         public void execute(final Runnable command) {
+
+            command.run();
+         }
+      });
+      doAnswer(new Answer<Void>() {
+
+         public Void answer(final InvocationOnMock invocation) throws InterruptedException {
+
+            if (beforeNextSnapshot != null) {
+
+               beforeNextSnapshot.run();
+            }
+            ((Command) invocation.getArgument(0)).execute();
+            return null;
+         }
+      }).when(processor).enqueue(any(Command.class));
+      doAnswer(new Answer<Void>() {
+
+         public Void answer(final InvocationOnMock invocation) {
+
+            posted.add((Message) invocation.getArgument(0));
+            return null;
+         }
+      }).when(processor).post(any(Message.class));
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      posted.clear();
+      buckets.clear();
+      processor = null;
+      beforeNextSnapshot = null;
+
+      super.tearDown();
+   }
+
+
+   /**
+    * Returns a number of entries in a batch.
+    */
+   private static final class CountingExecutable implements Executable {
+
+      private static final long serialVersionUID = 0L;
+
+
+      public Serializable execute(final Collection<CacheEntry> cacheEntries) {
+
+         assertTrue(cacheEntries.size() <= ExecuteRequest.BATCH_SIZE);
+         return cacheEntries.size();
+      }
+   }
+
+
+   /**
+    * Always fails.
+    */
+   private static final class FailingExecutable implements Executable {
+
+      private static final long serialVersionUID = 0L;
+
+
+      public Serializable execute(final Collection<CacheEntry> cacheEntries) {
+
+         throw new IllegalStateException("Test exception");
+      }
+   }
+
+
+   /**
+    * Matches entries with even integer keys.
+    */
+   private static final class EvenKeyFilter implements EntryFilter {
+
+      private static final long serialVersionUID = 0L;
+
+
+      public boolean matches(final CacheEntry cacheEntry) {
+
+         return (Integer) cacheEntry.getKey() % 2 == 0;
+      }
+   }
 }
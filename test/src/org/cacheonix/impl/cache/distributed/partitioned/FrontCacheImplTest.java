@@ -15,7 +15,9 @@ package org.cacheonix.impl.cache.distributed.partitioned;
 
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.TestUtils;
+import org.cacheonix.impl.cache.item.Binary;
 import org.cacheonix.impl.config.CacheonixConfiguration;
+import org.cacheonix.impl.config.ConfigurationConstants;
 import org.cacheonix.impl.config.ConfigurationReader;
 import org.cacheonix.impl.config.FrontCacheConfiguration;
 
@@ -32,6 +34,34 @@ public final class FrontCacheImplTest extends CacheonixTestCase {
    }
 
 
+   public void testRefreshAheadIsDisabledByDefault() {
+
+      assertFalse(frontCache.getRefreshAheadTracker().isEnabled());
+      assertEquals(0L, frontCache.getFrontCacheConfiguration().getRefreshAheadTimeMillis());
+      assertEquals(FrontCacheConfiguration.DEFAULT_REFRESH_AHEAD_READS,
+              frontCache.getFrontCacheConfiguration().getRefreshAheadReads());
+   }
+
+
+   public void testRefreshAheadWithUnlimitedElements() throws Exception {
+
+      final ConfigurationReader reader = new ConfigurationReader();
+      final CacheonixConfiguration configuration = reader.readConfiguration(TestUtils.getTestFile("cacheonix-config-with-front-cache-refresh-ahead.xml").toString());
+      final FrontCacheConfiguration frontCacheConfiguration = configuration.getServer().enumeratePartitionedCaches().get(0).getFrontCacheConfiguration();
+      assertEquals(0L, frontCacheConfiguration.getStore().getLru().getMaxElements());
+
+      final FrontCache unlimitedFrontCache = new FrontCacheImpl(getClock(), ConfigurationConstants.BUCKET_COUNT, frontCacheConfiguration);
+      final RefreshAheadTracker tracker = unlimitedFrontCache.getRefreshAheadTracker();
+      assertEquals(RefreshAheadTracker.DEFAULT_MAX_TRACKED_KEYS, tracker.getMaxTrackedKeys());
+
+      // An often read element close to expiration is refreshed
+      final Binary key = toBinary("key");
+      final long expirationMillis = 10000L;
+      assertFalse(tracker.registerRead(key, expirationMillis, expirationMillis - 1L));
+      assertTrue(tracker.registerRead(key, expirationMillis, expirationMillis - 1L));
+   }
+
+
    public void setUp() throws Exception {
 
       super.setUp();
@@ -39,7 +69,7 @@ public final class FrontCacheImplTest extends CacheonixTestCase {
       final ConfigurationReader reader = new ConfigurationReader();
       final CacheonixConfiguration configuration = reader.readConfiguration(TestUtils.getTestFile("cacheonix-config-with-front-cache.xml").toString());
       final FrontCacheConfiguration frontCacheConfiguration = configuration.getServer().enumeratePartitionedCaches().get(0).getFrontCacheConfiguration();
-      frontCache = new FrontCacheImpl(getClock(), frontCacheConfiguration);
+      frontCache = new FrontCacheImpl(getClock(), ConfigurationConstants.BUCKET_COUNT, frontCacheConfiguration);
    }
 
 
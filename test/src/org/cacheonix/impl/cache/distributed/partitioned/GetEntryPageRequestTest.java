@@ -0,0 +1,105 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.IOException;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.cacheonix.impl.util.array.IntHashSet;
+
+/**
+ * Tester for {@link GetEntryPageRequest}.
+ */
+public final class GetEntryPageRequestTest extends CacheonixTestCase {
+
+   private static final String CACHE_NAME = "cache.name";
+
+   private static final int BUCKET_COUNT = 2053;
+
+   private GetEntryPageRequest request = null;
+
+
+   public void testToString() {
+
+      assertNotNull(request.toString());
+   }
+
+
+   public void testSetGetSender() {
+
+      final ClusterNodeAddress clusterNodeAddress = TestUtils.createTestAddress();
+      request.setSender(clusterNodeAddress);
+      assertEquals(clusterNodeAddress, request.getSender());
+   }
+
+
+   public void testSerializeDeserialize() throws IOException {
+
+      request.setSender(TestUtils.createTestAddress());
+      request.setBucketSet(request.createRootBucketSet(BUCKET_COUNT));
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      assertEquals(request, ser.deserialize(ser.serialize(request)));
+   }
+
+
+   public void testCreateRootBucketSet() {
+
+      final IntHashSet bucketSet = request.createRootBucketSet(BUCKET_COUNT);
+      assertEquals(100, bucketSet.size());
+      assertTrue(bucketSet.contains(10));
+      assertTrue(bucketSet.contains(109));
+      assertFalse(bucketSet.contains(110));
+   }
+
+
+   public void testCreateRootBucketSetForLastPage() {
+
+      final GetEntryPageRequest lastPageRequest = new GetEntryPageRequest(CACHE_NAME, BUCKET_COUNT - 3, 100);
+      final IntHashSet bucketSet = lastPageRequest.createRootBucketSet(BUCKET_COUNT);
+      assertEquals(3, bucketSet.size());
+      assertTrue(bucketSet.contains(BUCKET_COUNT - 1));
+   }
+
+
+   public void testHashCode() {
+
+      assertTrue(request.hashCode() != 0);
+   }
+
+
+   public void testMandatoryDefaultConstructor() {
+
+      assertNotNull(new GetEntryPageRequest().toString());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+      request = new GetEntryPageRequest(CACHE_NAME, 10, 100);
+      request.setSender(TestUtils.createTestAddress());
+   }
+
+
+   public String toString() {
+
+      return "GetEntryPageRequestTest{" +
+              "request=" + request +
+              '}';
+   }
+}
@@ -31,7 +31,7 @@ public class GetKeyOwnersRequestsTest extends TestCase {
 
    private static final int STORAGE_NUMBER = 0;
 
-   private static final int BUCKET_NUMBER = 999;
+   private static final int KEY_HASH_CODE = 999999;
 
 
    public void testToString() {
@@ -49,7 +49,7 @@ public class GetKeyOwnersRequestsTest extends TestCase {
       assertEquals(request, newRequest);
       assertEquals(TEST_CACHE, newRequest.getCacheName());
       assertEquals(STORAGE_NUMBER, newRequest.getStorageNumber());
-      assertEquals(BUCKET_NUMBER, newRequest.getBucketNumber());
+      assertEquals(KEY_HASH_CODE, newRequest.getKeyHashCode());
    }
 
 
@@ -62,6 +62,6 @@ public class GetKeyOwnersRequestsTest extends TestCase {
    protected void setUp() throws Exception {
 
       super.setUp();
-      request = new GetKeyOwnerRequest(TEST_CACHE, STORAGE_NUMBER, BUCKET_NUMBER);
+      request = new GetKeyOwnerRequest(TEST_CACHE, STORAGE_NUMBER, KEY_HASH_CODE);
    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.List;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.impl.cache.item.Binary;
+
+import static org.cacheonix.impl.cache.distributed.partitioned.HotKeyTracker.MEASUREMENT_PERIOD_MILLIS;
+
+/**
+ * Tester for {@link HotKeyTracker}.
+ */
+public final class HotKeyTrackerTest extends CacheonixTestCase {
+
+   private static final int HOT_KEY_THRESHOLD = 100;
+
+   private static final int SKETCH_SIZE = 4;
+
+   private HotKeyTracker tracker;
+
+   private Binary hotKey;
+
+
+   public void testDisabledTrackerDoesNotDetectHotKeys() {
+
+      final HotKeyTracker disabledTracker = new HotKeyTracker(0, SKETCH_SIZE);
+      assertFalse(disabledTracker.isEnabled());
+      for (int i = 0; i < 1000; i++) {
+         assertFalse(disabledTracker.registerRead(hotKey, i));
+      }
+      assertTrue(disabledTracker.getHotKeys().isEmpty());
+   }
+
+
+   public void testKeyBecomesHotAfterMeasurementPeriod() {
+
+      // Read the key at twice the threshold rate
+      final int reads = HOT_KEY_THRESHOLD * 2;
+      for (int i = 0; i < reads; i++) {
+         assertFalse(tracker.registerRead(hotKey, i * MEASUREMENT_PERIOD_MILLIS / reads));
+      }
+
+      // The next period starts with the key promoted
+      assertTrue(tracker.registerRead(hotKey, MEASUREMENT_PERIOD_MILLIS));
+
+      final List<HotKeyTracker.HotKey> hotKeys = tracker.getHotKeys();
+      assertEquals(1, hotKeys.size());
+      assertEquals(hotKey, hotKeys.get(0).getKey());
+      assertEquals((long) reads, hotKeys.get(0).getReadRate());
+   }
+
+
+   public void testColdKeysAreNotPromoted() {
+
+      for (int i = 0; i < HOT_KEY_THRESHOLD / 2; i++) {
+         tracker.registerRead(toBinary("cold." + i % 2), i);
+      }
+      assertFalse(tracker.registerRead(toBinary("cold.0"), MEASUREMENT_PERIOD_MILLIS));
+      assertTrue(tracker.getHotKeys().isEmpty());
+   }
+
+
+   public void testHotKeySurvivesEvictionOfColdKeys() {
+
+      // Mix one hot key with many distinct cold keys that exceed the sketch size
+      for (int i = 0; i < HOT_KEY_THRESHOLD * 2; i++) {
+         tracker.registerRead(hotKey, i);
+         tracker.registerRead(toBinary("cold." + i), i);
+      }
+      tracker.registerRead(hotKey, MEASUREMENT_PERIOD_MILLIS);
+
+      final List<HotKeyTracker.HotKey> hotKeys = tracker.getHotKeys();
+      assertEquals(1, hotKeys.size());
+      assertEquals(hotKey, hotKeys.get(0).getKey());
+   }
+
+
+   public void testPushRequiredUntilLeaseExpires() {
+
+      for (int i = 0; i < HOT_KEY_THRESHOLD * 2; i++) {
+         tracker.registerRead(hotKey, i);
+      }
+      tracker.registerRead(hotKey, MEASUREMENT_PERIOD_MILLIS);
+
+      assertTrue(tracker.isPushRequired(hotKey, MEASUREMENT_PERIOD_MILLIS));
+      tracker.notifyPushed(hotKey, MEASUREMENT_PERIOD_MILLIS + 5L);
+      assertFalse(tracker.isPushRequired(hotKey, MEASUREMENT_PERIOD_MILLIS + 4L));
+      assertTrue(tracker.isPushRequired(hotKey, MEASUREMENT_PERIOD_MILLIS + 5L));
+      assertEquals(1L, tracker.getHotKeys().get(0).getPushCount());
+      assertFalse(tracker.isPushRequired(toBinary("cold"), MEASUREMENT_PERIOD_MILLIS));
+   }
+
+
+   public void testToString() {
+
+      tracker.registerRead(hotKey, 0L);
+      assertNotNull(tracker.toString());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      tracker = new HotKeyTracker(HOT_KEY_THRESHOLD, SKETCH_SIZE);
+      hotKey = toBinary("hot");
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      hotKey = null;
+      tracker = null;
+
+      super.tearDown();
+   }
+
+
+   public String toString() {
+
+      return "HotKeyTrackerTest{" +
+              "tracker=" + tracker +
+              ", hotKey=" + hotKey +
+              "} " + super.toString();
+   }
+}
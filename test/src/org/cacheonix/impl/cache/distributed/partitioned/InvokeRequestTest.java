@@ -0,0 +1,228 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.cacheonix.AppendingEntryProcessor;
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.cache.entry.MutableCacheEntry;
+import org.cacheonix.cache.executor.EntryProcessor;
+import org.cacheonix.impl.cache.datasource.DummyBinaryStoreDataSource;
+import org.cacheonix.impl.cache.datastore.DummyDataStore;
+import org.cacheonix.impl.cache.invalidator.DummyCacheInvalidator;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.cache.storage.disk.DummyDiskStorage;
+import org.cacheonix.impl.cache.store.BinaryStore;
+import org.cacheonix.impl.cache.store.SharedCounter;
+import org.cacheonix.impl.cache.util.DummyObjectSizeCalculator;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.cacheonix.impl.net.serializer.Wireable;
+
+/**
+ * InvokeRequestTest Tester.
+ */
+public final class InvokeRequestTest extends CacheonixTestCase {
+
+   private static final String CACHE_NAME = "cache.name";
+
+   private static final Binary KEY = toBinary("key");
+
+   private InvokeRequest request = null;
+
+   private ClusterNodeAddress clusterNodeAddress;
+
+
+   /**
+    * Tests that no exceptions occur when creating the object using a default constructor.
+    */
+   public void testDefaultConstructor() {
+
+      assertNotNull(new InvokeRequest().toString());
+   }
+
+
+   public void testGetCacheName() {
+
+      assertEquals(CACHE_NAME, request.getCacheName());
+   }
+
+
+   public void testGetKey() {
+
+      assertEquals(KEY, request.getKey());
+   }
+
+
+   public void testGetEntryProcessor() {
+
+      assertNotNull(request.getEntryProcessor());
+   }
+
+
+   public void testGetReplicaUpdate() {
+
+      assertEquals(InvokeRequest.REPLICA_UPDATE_NONE, request.getReplicaUpdate());
+      assertNull(request.getReplicaValue());
+   }
+
+
+   public void testCreateRequestDoesNotCarryEntryProcessor() {
+
+      final InvokeRequest replicaRequest = (InvokeRequest) request.createRequest();
+      assertNull(replicaRequest.getEntryProcessor());
+      assertEquals(KEY, replicaRequest.getKey());
+      assertEquals(CACHE_NAME, replicaRequest.getCacheName());
+   }
+
+
+   public void testResubmittedReplicaRequestAppliesOutcome() throws Exception {
+
+      final Bucket bucket = createBucket();
+      bucket.put(KEY, toBinary("value"), null);
+
+      // Run the entry processor at the primary owner
+      final ProcessingResult primaryResult = request.processKey(bucket, KEY);
+      assertEquals(KEY, primaryResult.getModifiedKey());
+      assertEquals("value_suffix", bucket.get(KEY).getValue().getValue());
+
+      // A retried replica subrequest is re-submitted using createRequest() and arrives as a primary request
+      final InvokeRequest replicaRequest = (InvokeRequest) request.createRequest();
+      final InvokeRequest resubmittedRequest = (InvokeRequest) replicaRequest.createRequest();
+      assertNull(resubmittedRequest.getEntryProcessor());
+
+      final Bucket replicaBucket = createBucket();
+      final ProcessingResult resubmittedResult = resubmittedRequest.processKey(replicaBucket, KEY);
+      assertNull(resubmittedResult.getResult());
+      assertEquals(KEY, resubmittedResult.getModifiedKey());
+      assertEquals("value_suffix", replicaBucket.get(KEY).getValue().getValue());
+   }
+
+
+   public void testResubmittedReplicaRequestAppliesRemove() throws Exception {
+
+      final Bucket bucket = createBucket();
+      bucket.put(KEY, toBinary("value"), null);
+
+      final InvokeRequest removingRequest = new InvokeRequest(clusterNodeAddress, CACHE_NAME, KEY,
+              new RemovingEntryProcessor());
+      removingRequest.processKey(bucket, KEY);
+      assertNull(bucket.get(KEY));
+
+      final Bucket replicaBucket = createBucket();
+      replicaBucket.put(KEY, toBinary("value"), null);
+      final InvokeRequest resubmittedRequest = (InvokeRequest) removingRequest.createRequest().createRequest();
+      final ProcessingResult resubmittedResult = resubmittedRequest.processKey(replicaBucket, KEY);
+      assertEquals(KEY, resubmittedResult.getModifiedKey());
+      assertNull(replicaBucket.get(KEY));
+   }
+
+
+   private Bucket createBucket() {
+
+      final BinaryStoreContext context = new BinaryStoreContextImpl();
+      context.setObjectSizeCalculator(new DummyObjectSizeCalculator());
+      context.setDiskStorage(new DummyDiskStorage("test.cache"));
+      context.setDataSource(new DummyBinaryStoreDataSource());
+      context.setInvalidator(new DummyCacheInvalidator());
+      context.setDataStore(new DummyDataStore());
+
+      final BinaryStore keyStore = new BinaryStore(getClock(), Integer.MAX_VALUE, Integer.MAX_VALUE);
+      keyStore.attachToElementCounter(new SharedCounter(0L));
+      keyStore.attachToByteCounter(new SharedCounter(0L));
+      keyStore.setContext(context);
+
+      return new Bucket(0, keyStore, 1000L);
+   }
+
+
+   /**
+    * An entry processor that removes the entry.
+    */
+   private static final class RemovingEntryProcessor implements EntryProcessor {
+
+      private static final long serialVersionUID = 0L;
+
+
+      public Serializable process(final MutableCacheEntry entry) {
+
+         entry.remove();
+         return null;
+      }
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(request.toString());
+   }
+
+
+   public void testGetSender() {
+
+      assertEquals(clusterNodeAddress, request.getSender());
+   }
+
+
+   public void testSerializeDeserialize() throws IOException {
+
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final InvokeRequest deserializedRequest = (InvokeRequest) ser.deserialize(ser.serialize(request));
+      assertEquals(request, deserializedRequest);
+      assertNotNull(deserializedRequest.getEntryProcessor());
+   }
+
+
+   public void testSerializeDeserializeReplicaRequest() throws IOException {
+
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final InvokeRequest replicaRequest = (InvokeRequest) request.createRequest();
+      final InvokeRequest deserializedRequest = (InvokeRequest) ser.deserialize(ser.serialize(replicaRequest));
+      assertEquals(replicaRequest, deserializedRequest);
+      assertNull(deserializedRequest.getEntryProcessor());
+   }
+
+
+   public void testHashCode() {
+
+      assertTrue(request.hashCode() != 0);
+   }
+
+
+   public void testGetType() {
+
+      assertEquals(Wireable.TYPE_CACHE_INVOKE_REQUEST, request.getWireableType());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+      clusterNodeAddress = TestUtils.createTestAddress();
+      request = new InvokeRequest(clusterNodeAddress, CACHE_NAME, KEY, new AppendingEntryProcessor("_suffix"));
+   }
+
+
+   public String toString() {
+
+      return "InvokeRequestTest{" +
+              "request=" + request +
+              ", clusterNodeAddress=" + clusterNodeAddress +
+              "} " + super.toString();
+   }
+}
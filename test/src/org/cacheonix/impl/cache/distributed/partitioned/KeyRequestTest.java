@@ -0,0 +1,243 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.cache.datasource.DummyBinaryStoreDataSource;
+import org.cacheonix.impl.cache.datastore.DummyDataStore;
+import org.cacheonix.impl.cache.invalidator.DummyCacheInvalidator;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.cache.item.InvalidObjectException;
+import org.cacheonix.impl.cache.storage.disk.DummyDiskStorage;
+import org.cacheonix.impl.cache.storage.disk.StorageException;
+import org.cacheonix.impl.cache.store.BinaryStore;
+import org.cacheonix.impl.cache.store.SharedCounter;
+import org.cacheonix.impl.cache.util.DummyObjectSizeCalculator;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.processor.Message;
+import org.cacheonix.impl.net.processor.Response;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests replica updates of {@link KeyRequest} with a replication factor of two and one acknowledged replica.
+ */
+public final class KeyRequestTest extends CacheonixTestCase {
+
+   private static final String CACHE_NAME = "test.cache";
+
+   private static final int BUCKET_NUMBER = 1;
+
+   private static final Binary KEY = toBinary("key");
+
+   private static final Binary VALUE = toBinary("value");
+
+   private static final Binary NEW_VALUE = toBinary("new.value");
+
+   private final ClusterNodeAddress clientAddress = TestUtils.createTestAddress(1);
+
+   private final ClusterNodeAddress primaryOwner = TestUtils.createTestAddress(2);
+
+   private final ClusterNodeAddress synchronousReplicaOwner = TestUtils.createTestAddress(3);
+
+   private final ClusterNodeAddress asynchronousReplicaOwner = TestUtils.createTestAddress(4);
+
+   private final List<Message> posted = new ArrayList<Message>(11);
+
+   private ReplicationLagTracker replicationLagTracker;
+
+   private CacheProcessor primaryProcessor;
+
+   private CacheProcessor replicaProcessor;
+
+   private Bucket replicaBucket;
+
+
+   public void testRespondsAfterAcknowledgedReplicaWhileOtherReplicaCatchesUp() throws InterruptedException {
+
+      put(VALUE);
+
+      // Both replica updates are posted but the client response waits for the acknowledged replica
+      final KeyRequest synchronousUpdate = replicaUpdate(synchronousReplicaOwner);
+      final KeyRequest asynchronousUpdate = replicaUpdate(asynchronousReplicaOwner);
+      assertNull(clientResponse());
+      assertEquals(1, replicationLagTracker.getPendingUpdateCount(asynchronousReplicaOwner));
+
+      // The acknowledged replica applies the update, the client gets its response
+      acknowledge(synchronousUpdate, Response.RESULT_SUCCESS);
+      assertNotNull(clientResponse());
+      assertEquals(1, replicationLagTracker.getPendingUpdateCount(asynchronousReplicaOwner));
+
+      // The other replica catches up
+      acknowledge(asynchronousUpdate, Response.RESULT_SUCCESS);
+      assertEquals(0, replicationLagTracker.getPendingUpdateCount(asynchronousReplicaOwner));
+      assertEquals(1L, replicationLagTracker.getAcknowledgedUpdateCount(asynchronousReplicaOwner));
+   }
+
+
+   public void testReplicaRejectsSupersededResubmittedUpdate() throws InterruptedException, InvalidObjectException,
+           StorageException {
+
+      // The first update is re-submitted after a retry
+      put(VALUE);
+      acknowledge(replicaUpdate(asynchronousReplicaOwner), Response.RESULT_RETRY);
+      final KeyRequest resubmittedUpdate = replicaUpdate(asynchronousReplicaOwner);
+      posted.clear();
+
+      // The second update reaches the replica before the re-submitted first one
+      put(NEW_VALUE);
+      executeAtReplica(replicaUpdate(asynchronousReplicaOwner));
+      executeAtReplica(resubmittedUpdate);
+
+      assertEquals(NEW_VALUE, replicaBucket.get(KEY).getValue());
+   }
+
+
+   private void put(final Binary value) {
+
+      final PutRequest request = new PutRequest(clientAddress, CACHE_NAME, KEY, value, null, false);
+      request.setProcessor(primaryProcessor);
+      request.prepare();
+      request.execute();
+   }
+
+
+   private static void acknowledge(final KeyRequest replicaUpdate, final int resultCode) throws InterruptedException {
+
+      replicaUpdate.getWaiter().notifyResponseReceived(replicaUpdate.createResponse(resultCode));
+   }
+
+
+   private void executeAtReplica(final KeyRequest replicaUpdate) {
+
+      replicaUpdate.setProcessor(replicaProcessor);
+      replicaUpdate.prepare();
+      replicaUpdate.execute();
+   }
+
+
+   /**
+    * Returns the last replica update posted to the replica owner.
+    */
+   private KeyRequest replicaUpdate(final ClusterNodeAddress replicaOwner) {
+
+      KeyRequest result = null;
+      for (final Message message : posted) {
+
+         if (message instanceof KeyRequest && message.getReceiver().isAddressOf(replicaOwner)) {
+
+            result = (KeyRequest) message;
+         }
+      }
+      assertNotNull(result);
+
+      // Emulate routing
+      result.setSender(primaryOwner);
+      result.setProcessor(primaryProcessor);
+      return result;
+   }
+
+
+   private Message clientResponse() {
+
+      for (final Message message : posted) {
+
+         if (message instanceof Response && message.getReceiver().isAddressOf(clientAddress)) {
+
+            return message;
+         }
+      }
+      return null;
+   }
+
+
+   private Bucket createBucket() {
+
+      final BinaryStoreContext context = new BinaryStoreContextImpl();
+      context.setObjectSizeCalculator(new DummyObjectSizeCalculator());
+      context.setDiskStorage(new DummyDiskStorage(CACHE_NAME));
+      context.setDataSource(new DummyBinaryStoreDataSource());
+      context.setInvalidator(new DummyCacheInvalidator());
+      context.setDataStore(new DummyDataStore());
+
+      final BinaryStore keyStore = new BinaryStore(getClock(), 0L, 0L);
+      keyStore.setContext(context);
+      keyStore.attachToByteCounter(new SharedCounter(0L));
+      keyStore.attachToElementCounter(new SharedCounter(0L));
+      return new Bucket(BUCKET_NUMBER, keyStore, 0L);
+   }
+
+
+   private CacheProcessor createProcessor(final ClusterNodeAddress address) {
+
+      final CacheProcessor processor = mock(CacheProcessor.class);
+      when(processor.getAddress()).thenReturn(address);
+      when(processor.getClock()).thenReturn(getClock());
+      when(processor.getState()).thenReturn(CacheProcessor.STATE_OPERATIONAL);
+      when(processor.getReplicaCount()).thenReturn(2);
+      when(processor.getAcknowledgedReplicaCount()).thenReturn(1);
+      when(processor.getReplicationLagTracker()).thenReturn(replicationLagTracker);
+      when(processor.getBucketNumber(KEY)).thenReturn(BUCKET_NUMBER);
+      when(processor.getBucketOwner(0, BUCKET_NUMBER)).thenReturn(primaryOwner);
+      when(processor.getBucketOwner(1, BUCKET_NUMBER)).thenReturn(synchronousReplicaOwner);
+      when(processor.getBucketOwner(2, BUCKET_NUMBER)).thenReturn(asynchronousReplicaOwner);
+      return processor;
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      replicationLagTracker = new ReplicationLagTracker(Long.MAX_VALUE);
+
+      primaryProcessor = createProcessor(primaryOwner);
+      when(primaryProcessor.isBucketOwner(0, BUCKET_NUMBER)).thenReturn(true);
+      when(primaryProcessor.getBucket(0, BUCKET_NUMBER)).thenReturn(createBucket());
+      doAnswer(new Answer<Void>() {
+
+         public Void answer(final InvocationOnMock invocation) {
+
+            posted.add((Message) invocation.getArgument(0));
+            return null;
+         }
+      }).when(primaryProcessor).post(any(Message.class));
+
+      replicaBucket = createBucket();
+      replicaProcessor = createProcessor(asynchronousReplicaOwner);
+      when(replicaProcessor.isBucketOwner(2, BUCKET_NUMBER)).thenReturn(true);
+      when(replicaProcessor.getBucket(2, BUCKET_NUMBER)).thenReturn(replicaBucket);
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      replicaBucket = null;
+      replicaProcessor = null;
+      primaryProcessor = null;
+      replicationLagTracker = null;
+      posted.clear();
+
+      super.tearDown();
+   }
+}
@@ -14,17 +14,23 @@
 package org.cacheonix.impl.cache.distributed.partitioned;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.cacheonix.AppendingEntryProcessor;
 import org.cacheonix.Cacheonix;
 import org.cacheonix.ShutdownException;
 import org.cacheonix.ShutdownMode;
 import org.cacheonix.TestUtils;
 import org.cacheonix.cache.Cache;
 import org.cacheonix.cache.entry.EntryFilter;
+import org.cacheonix.cache.entry.EqualsFilter;
+import org.cacheonix.cache.entry.InFilter;
+import org.cacheonix.cache.entry.RangeFilter;
 import org.cacheonix.cluster.CacheMember;
 import org.cacheonix.impl.cache.CacheonixCache;
 import org.cacheonix.impl.config.SystemProperty;
@@ -299,6 +305,134 @@ public abstract class MultiplePartitionedCacheTestCase extends PartitionedCacheT
    }
 
 
+   public void testQueryWithIndexedFilter() {
+
+      // Put element into cache
+      final int keyCount = 5000;
+      final Map<String, String> map = new HashMap<String, String>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+         map.put(createKey(i), createValue(i % 10));
+      }
+
+      // Put to cache
+      cache().putAll(map);
+
+      final ValueAttributeExtractor extractor = new ValueAttributeExtractor();
+      for (int i = 0; i < cacheList.size(); i++) {
+
+         final Cache<String, String> remoteCache = cache(i);
+
+         final Map<String, String> equalResult = remoteCache.query(new EqualsFilter(extractor, createValue(3)));
+         assertEquals(keyCount / 10, equalResult.size());
+         for (final String value : equalResult.values()) {
+            assertEquals(createValue(3), value);
+         }
+
+         final Map<String, String> rangeResult = remoteCache.query(
+                 new RangeFilter(extractor, createValue(2), true, createValue(4), false));
+         assertEquals(keyCount / 10 * 2, rangeResult.size());
+
+         final Map<String, String> inResult = remoteCache.query(
+                 new InFilter(extractor, Arrays.asList(createValue(1), createValue(7))));
+         assertEquals(keyCount / 10 * 2, inResult.size());
+      }
+
+      // Update and remove indexed entries
+      cache().put(createKey(3), createValue(4));
+      cache().remove(createKey(13));
+      assertEquals(keyCount / 10 - 2, cache(1).query(new EqualsFilter(extractor, createValue(3))).size());
+      assertEquals(keyCount / 10 + 1, cache(1).query(new EqualsFilter(extractor, createValue(4))).size());
+   }
+
+
+   public void testProject() {
+
+      // Put element into cache
+      final int keyCount = 5000;
+      final Map<String, String> map = new HashMap<String, String>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+         map.put(createKey(i), createValue(i % 10));
+      }
+
+      // Put to cache
+      cache().putAll(map);
+
+      final ValueAttributeExtractor extractor = new ValueAttributeExtractor();
+      for (int i = 0; i < cacheList.size(); i++) {
+
+         final Map<String, Object> result = cache(i).project(new EqualsFilter(extractor, createValue(5)), extractor);
+         assertEquals(keyCount / 10, result.size());
+         for (final Map.Entry<String, Object> entry : result.entrySet()) {
+
+            assertEquals(map.get(entry.getKey()), entry.getValue());
+         }
+      }
+   }
+
+
+   public void testEntryIterator() {
+
+      // Put element into cache
+      final int keyCount = 5000;
+      final Map<String, String> map = new HashMap<String, String>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+         map.put(createKey(i), createValue(i));
+      }
+
+      // Put to cache
+      cache().putAll(map);
+
+      for (int i = 0; i < cacheList.size(); i++) {
+
+         final Set<String> keys = new HashSet<String>(keyCount);
+         for (final Iterator<Map.Entry<String, String>> iterator = cache(i).entryIterator(100); iterator.hasNext(); ) {
+
+            final Map.Entry<String, String> entry = iterator.next();
+            assertEquals(map.get(entry.getKey()), entry.getValue());
+            assertTrue("Entry should be returned once: " + entry, keys.add(entry.getKey()));
+         }
+         assertEquals(map.keySet(), keys);
+      }
+
+      // Remove through the iterator
+      for (final Iterator<Map.Entry<String, String>> iterator = cache(1).entryIterator(1000); iterator.hasNext(); ) {
+
+         iterator.next();
+         iterator.remove();
+      }
+      assertTrue(cache().isEmpty());
+      assertFalse(cache().entryIterator(10).hasNext());
+   }
+
+
+   public void testEntryIteratorToleratesRebalancing() {
+
+      // Put element into cache
+      final int keyCount = 5000;
+      final Map<String, String> map = new HashMap<String, String>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+         map.put(createKey(i), createValue(i));
+      }
+
+      // Put to cache
+      cache().putAll(map);
+
+      // Leave the cluster in the middle of the iteration
+      final Set<String> keys = new HashSet<String>(keyCount);
+      final Iterator<Map.Entry<String, String>> iterator = cache(0).entryIterator(50);
+      while (iterator.hasNext()) {
+
+         final Map.Entry<String, String> entry = iterator.next();
+         assertTrue("Entry should be returned once: " + entry, keys.add(entry.getKey()));
+         if (keys.size() == keyCount / 2) {
+
+            cacheManagerList.get(cacheManagerList.size() - 1).shutdown(ShutdownMode.GRACEFUL_SHUTDOWN, true);
+         }
+      }
+      assertEquals(map.keySet(), keys);
+   }
+
+
    public void testSize() {
 
       assertEquals(0, cache().size());
@@ -766,6 +900,35 @@ public abstract class MultiplePartitionedCacheTestCase extends PartitionedCacheT
    }
 
 
+   public void testCoherenceInvoke() {
+
+      // Populate
+      final String key = createKey(0);
+      final String value0 = createValue(0);
+      cache().put(key, value0);
+
+      // Fill front caches
+      for (int i = 0; i < cacheList.size(); i++) {
+
+         assertEquals(value0, cache(i).get(key));
+      }
+
+      // Invoke from each cache
+      String expectedValue = value0;
+      for (int i = 0; i < cacheList.size(); i++) {
+
+         assertEquals(expectedValue, cache(i).invoke(key, new AppendingEntryProcessor("_" + i)));
+         expectedValue += "_" + i;
+      }
+
+      // Assert all caches see the result
+      for (final Cache<String, String> cache : cacheList) {
+
+         assertEquals(expectedValue, cache.get(key));
+      }
+   }
+
+
    /**
     * @throws InterruptedException if the execution was interrupted.
     */
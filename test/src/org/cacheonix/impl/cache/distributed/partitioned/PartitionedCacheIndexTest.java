@@ -0,0 +1,187 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.cacheonix.Cacheonix;
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.ShutdownMode;
+import org.cacheonix.TestUtils;
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.entry.EqualsFilter;
+import org.cacheonix.cache.entry.InFilter;
+import org.cacheonix.cache.entry.RangeFilter;
+import org.cacheonix.impl.util.array.HashMap;
+import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.impl.util.time.Timeout;
+import org.cacheonix.impl.util.time.TimeoutImpl;
+
+/**
+ * Tests queries served by secondary indexes of a partitioned cache.
+ *
+ * @noinspection ProhibitedExceptionDeclared, JUnitTestCaseWithNonTrivialConstructors
+ */
+public final class PartitionedCacheIndexTest extends CacheonixTestCase {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(PartitionedCacheIndexTest.class); // NOPMD
+
+   /**
+    * Cacheonix configurations, one per cluster node. The cache is indexed by {@link ValueAttributeExtractor}.
+    */
+   private static final String[] NODE_CONFIGURATIONS = {
+           "cacheonix-config-cluster-member-with-index-1.xml",
+           "cacheonix-config-cluster-member-with-index-2.xml",
+           "cacheonix-config-cluster-member-with-index-3.xml",
+   };
+
+   private static final int NODE_COUNT = NODE_CONFIGURATIONS.length;
+
+   private static final String DISTRIBUTED_CACHE_NAME = "partitioned.distributed.cache";
+
+   private static final int KEY_COUNT = 5000;
+
+   private static final int VALUE_COUNT = 10;
+
+   /**
+    * List of cache managers.
+    */
+   private final List<Cacheonix> cacheManagerList = new ArrayList<Cacheonix>(NODE_COUNT);
+
+   /**
+    * List of clustered caches.
+    */
+   private final List<Cache<String, String>> cacheList = new ArrayList<Cache<String, String>>(NODE_COUNT);
+
+
+   public void testQueryWithIndexedFilter() {
+
+      final ValueAttributeExtractor extractor = new ValueAttributeExtractor();
+      for (int i = 0; i < NODE_COUNT; i++) {
+
+         final Cache<String, String> cache = cache(i);
+
+         final Map<String, String> equalResult = cache.query(new EqualsFilter(extractor, createTestObject(3L)));
+         assertEquals(KEY_COUNT / VALUE_COUNT, equalResult.size());
+         for (final String value : equalResult.values()) {
+            assertEquals(createTestObject(3L), value);
+         }
+
+         final Map<String, String> rangeResult = cache.query(
+                 new RangeFilter(extractor, createTestObject(2L), true, createTestObject(4L), false));
+         assertEquals(KEY_COUNT / VALUE_COUNT * 2, rangeResult.size());
+
+         final Map<String, String> inResult = cache.query(
+                 new InFilter(extractor, Arrays.asList(createTestObject(1L), createTestObject(7L))));
+         assertEquals(KEY_COUNT / VALUE_COUNT * 2, inResult.size());
+      }
+
+      // Update and remove indexed entries
+      cache(0).put(createTestKey(3L), createTestObject(4L));
+      cache(0).remove(createTestKey(13L));
+      assertEquals(KEY_COUNT / VALUE_COUNT - 2, cache(1).query(new EqualsFilter(extractor, createTestObject(3L))).size());
+      assertEquals(KEY_COUNT / VALUE_COUNT + 1, cache(1).query(new EqualsFilter(extractor, createTestObject(4L))).size());
+   }
+
+
+   public void testIndexedQueryDoesNotScanBuckets() {
+
+      final ValueAttributeExtractor extractor = new ValueAttributeExtractor();
+      ValueAttributeExtractor.EXTRACT_COUNT.set(0);
+
+      assertEquals(KEY_COUNT / VALUE_COUNT, cache(0).query(new EqualsFilter(extractor, createTestObject(5L))).size());
+
+      // Only the candidates found in the index are filtered, a scan would extract the attribute from every entry
+      assertTrue(ValueAttributeExtractor.EXTRACT_COUNT.get() < KEY_COUNT);
+   }
+
+
+   public void testProject() {
+
+      final ValueAttributeExtractor extractor = new ValueAttributeExtractor();
+      for (int i = 0; i < NODE_COUNT; i++) {
+
+         final Map<String, Object> result = cache(i).project(new EqualsFilter(extractor, createTestObject(5L)), extractor);
+         assertEquals(KEY_COUNT / VALUE_COUNT, result.size());
+         for (final Object attribute : result.values()) {
+
+            assertEquals(createTestObject(5L), attribute);
+         }
+      }
+   }
+
+
+   private Cache<String, String> cache(final int index) {
+
+      return cacheList.get(index);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      for (int i = 0; i < NODE_COUNT; i++) {
+
+         final String configurationPath = TestUtils.getTestFile(NODE_CONFIGURATIONS[i]).toString();
+         final Cacheonix manager = Cacheonix.getInstance(configurationPath);
+         cacheManagerList.add(manager);
+         cacheList.add(manager.<String, String>getCache(DISTRIBUTED_CACHE_NAME));
+      }
+
+      // Wait for all members to own keys
+      final Timeout timeoutForOwnersToArrive = new TimeoutImpl(10000L).reset();
+      while (!timeoutForOwnersToArrive.isExpired()
+              && ((PartitionedCache) cache(0)).getKeyOwners().size() != NODE_COUNT) {
+
+         Thread.sleep(100L);
+      }
+      assertEquals(NODE_COUNT, ((PartitionedCache) cache(0)).getKeyOwners().size());
+
+      // Populate
+      final Map<String, String> map = new HashMap<String, String>(KEY_COUNT);
+      for (int i = 0; i < KEY_COUNT; i++) {
+
+         map.put(createTestKey((long) i), createTestObject((long) (i % VALUE_COUNT)));
+      }
+      cache(0).putAll(map);
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      for (final Cacheonix cacheonix : cacheManagerList) {
+
+         cacheonix.shutdown(ShutdownMode.GRACEFUL_SHUTDOWN, true);
+      }
+      cacheManagerList.clear();
+      cacheList.clear();
+
+      super.tearDown();
+   }
+
+
+   public PartitionedCacheIndexTest(final String name) {
+
+      super(name);
+   }
+}
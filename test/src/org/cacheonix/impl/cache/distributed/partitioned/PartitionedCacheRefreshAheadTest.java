@@ -0,0 +1,169 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cacheonix.Cacheonix;
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.ShutdownMode;
+import org.cacheonix.TestUtils;
+import org.cacheonix.cache.Cache;
+import org.cacheonix.cache.entry.CacheEntry;
+import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.impl.util.time.Timeout;
+import org.cacheonix.impl.util.time.TimeoutImpl;
+
+/**
+ * Tests refresh-ahead of front cache elements in a partitioned cache.
+ *
+ * @noinspection ProhibitedExceptionDeclared, JUnitTestCaseWithNonTrivialConstructors
+ */
+public final class PartitionedCacheRefreshAheadTest extends CacheonixTestCase {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(PartitionedCacheRefreshAheadTest.class); // NOPMD
+
+   /**
+    * Cacheonix configurations, one per cluster node. Front cache elements are leased for 3 seconds and are refreshed
+    * when read twice during the last second of the lease.
+    */
+   private static final String[] NODE_CONFIGURATIONS = {
+           "cacheonix-config-cluster-member-with-refresh-ahead-1.xml",
+           "cacheonix-config-cluster-member-with-refresh-ahead-2.xml",
+           "cacheonix-config-cluster-member-with-refresh-ahead-3.xml",
+   };
+
+   private static final int NODE_COUNT = NODE_CONFIGURATIONS.length;
+
+   private static final String DISTRIBUTED_CACHE_NAME = "partitioned.distributed.cache";
+
+   /**
+    * Time to keep reading a front cache element. It is shorter than the lease, so the element cannot get a new
+    * expiration time by expiring and being fetched again.
+    */
+   private static final long READ_TIME_MILLIS = 2500L;
+
+   /**
+    * List of cache managers.
+    */
+   private final List<Cacheonix> cacheManagerList = new ArrayList<Cacheonix>(NODE_COUNT);
+
+   /**
+    * List of clustered caches.
+    */
+   private final List<Cache<String, String>> cacheList = new ArrayList<Cache<String, String>>(NODE_COUNT);
+
+
+   public void testRefreshAheadRenewsExpirationOfHotKey() throws InterruptedException {
+
+      final String key = createTestKey(1L);
+      cache(0).put(key, createTestObject(1L));
+
+      // Cache the element in the front caches of the members that do not own the key
+      for (int i = 0; i < NODE_COUNT; i++) {
+
+         assertEquals(createTestObject(1L), cache(i).get(key));
+      }
+
+      // Remember expiration times of the cached elements
+      final long[] initialExpirationMillis = new long[NODE_COUNT];
+      for (int i = 0; i < NODE_COUNT; i++) {
+
+         final CacheEntry entry = cache(i).entry(key);
+         assertEquals(createTestObject(1L), entry.getValue());
+         initialExpirationMillis[i] = entry.getExpirationTime() == null ? 0L : entry.getExpirationTime().getMillis();
+      }
+
+      // Read the hot key into the refresh-ahead window before the front cache elements expire
+      boolean renewed = false;
+      final Timeout timeout = new TimeoutImpl(READ_TIME_MILLIS).reset();
+      while (!renewed && !timeout.isExpired()) {
+
+         for (int i = 0; i < NODE_COUNT; i++) {
+
+            final CacheEntry entry = cache(i).entry(key);
+            assertEquals(createTestObject(1L), entry.getValue());
+            if (initialExpirationMillis[i] > 0L && entry.getExpirationTime() != null
+                    && entry.getExpirationTime().getMillis() > initialExpirationMillis[i]) {
+
+               renewed = true;
+            }
+         }
+         Thread.sleep(50L);
+      }
+
+      assertTrue("Front cache element should have been refreshed ahead of expiration", renewed);
+
+      // An update is visible to all members after the refreshes
+      cache(0).put(key, createTestObject(2L));
+      for (int i = 0; i < NODE_COUNT; i++) {
+
+         assertEquals(createTestObject(2L), cache(i).get(key));
+      }
+   }
+
+
+   private Cache<String, String> cache(final int index) {
+
+      return cacheList.get(index);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      for (int i = 0; i < NODE_COUNT; i++) {
+
+         final String configurationPath = TestUtils.getTestFile(NODE_CONFIGURATIONS[i]).toString();
+         final Cacheonix manager = Cacheonix.getInstance(configurationPath);
+         cacheManagerList.add(manager);
+         cacheList.add(manager.<String, String>getCache(DISTRIBUTED_CACHE_NAME));
+      }
+
+      // Wait for all members to own keys
+      final Timeout timeoutForOwnersToArrive = new TimeoutImpl(10000L).reset();
+      while (!timeoutForOwnersToArrive.isExpired()
+              && ((PartitionedCache) cache(0)).getKeyOwners().size() != NODE_COUNT) {
+
+         Thread.sleep(100L);
+      }
+      assertEquals(NODE_COUNT, ((PartitionedCache) cache(0)).getKeyOwners().size());
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      for (final Cacheonix cacheonix : cacheManagerList) {
+
+         cacheonix.shutdown(ShutdownMode.GRACEFUL_SHUTDOWN, true);
+      }
+      cacheManagerList.clear();
+      cacheList.clear();
+
+      super.tearDown();
+   }
+
+
+   public PartitionedCacheRefreshAheadTest(final String name) {
+
+      super(name);
+   }
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.cacheonix.AppendingEntryProcessor;
 import org.cacheonix.Cacheonix;
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.SavedSystemProperty;
@@ -664,6 +665,44 @@ public abstract class PartitionedCacheTestCase extends CacheonixTestCase {
    }
 
 
+   public void testInvoke() {
+
+      cache().put(KEY_0, OBJECT_0);
+
+      // Invoke on existing entry
+      assertEquals(OBJECT_0, cache().invoke(KEY_0, new AppendingEntryProcessor("_1")));
+      assertEquals(OBJECT_0 + "_1", cache().get(KEY_0));
+
+      // Invoke on nonexistent entry
+      assertNull(cache().invoke(KEY_1, new AppendingEntryProcessor("_2")));
+      assertEquals("_2", cache().get(KEY_1));
+   }
+
+
+   public void testInvokeAll() {
+
+      // Prepare
+      final int keyCount = 100;
+      final Set<String> keys = new HashSet<String>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+
+         final String key = createTestKey(i);
+         cache().put(key, createTestObject(i));
+         keys.add(key);
+      }
+
+      // Invoke and assert
+      final Map<String, Serializable> results = cache().invokeAll(keys, new AppendingEntryProcessor("_1"));
+      assertEquals(keyCount, results.size());
+      for (int i = 0; i < keyCount; i++) {
+
+         final String key = createTestKey(i);
+         assertEquals(createTestObject(i), results.get(key));
+         assertEquals(createTestObject(i) + "_1", cache().get(key));
+      }
+   }
+
+
    public void testAtomicReplace() {
 
       // Prepare
@@ -0,0 +1,82 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.impl.clock.TimeImpl;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+
+/**
+ * Tester for PushHotKeyAnnouncement
+ */
+public final class PushHotKeyAnnouncementTest extends CacheonixTestCase {
+
+
+   private static final String TEST_CACHE = "test.cache";
+
+   private PushHotKeyAnnouncement announcement;
+
+
+   public void testCreate() {
+
+      assertEquals(TEST_CACHE, announcement.getGroupName());
+      assertEquals(toBinary("key"), announcement.getKey());
+      assertEquals(toBinary("value"), announcement.getValue());
+      assertEquals(new TimeImpl(1000L, 0L), announcement.getLeaseExpirationTime());
+   }
+
+
+   public void testWriteReadWire() throws Exception {
+
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      assertEquals(announcement, ser.deserialize(ser.serialize(announcement)));
+   }
+
+
+   public void testHashCode() {
+
+      assertTrue(announcement.hashCode() != 0);
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(announcement.toString());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      announcement = new PushHotKeyAnnouncement(TEST_CACHE, toBinary("key"), toBinary("value"), new TimeImpl(1000L, 0L));
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      announcement = null;
+
+      super.tearDown();
+   }
+
+
+   public String toString() {
+
+      return "PushHotKeyAnnouncementTest{" +
+              "announcement=" + announcement +
+              "} " + super.toString();
+   }
+}
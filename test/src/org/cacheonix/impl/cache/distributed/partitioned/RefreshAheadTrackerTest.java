@@ -0,0 +1,141 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.impl.cache.item.Binary;
+
+/**
+ * Tester for {@link RefreshAheadTracker}.
+ */
+public final class RefreshAheadTrackerTest extends CacheonixTestCase {
+
+   private static final long REFRESH_AHEAD_TIME_MILLIS = 1000L;
+
+   private static final int REFRESH_AHEAD_READS = 3;
+
+   private static final long EXPIRATION_MILLIS = 10000L;
+
+   /**
+    * Object under test.
+    */
+   private RefreshAheadTracker tracker;
+
+   private Binary key;
+
+
+   public void testIsEnabled() {
+
+      assertTrue(tracker.isEnabled());
+      assertFalse(new RefreshAheadTracker(0L, REFRESH_AHEAD_READS, 10).isEnabled());
+   }
+
+
+   public void testDisabledTrackerDoesNotRefresh() {
+
+      final RefreshAheadTracker disabledTracker = new RefreshAheadTracker(0L, 1, 10);
+      assertFalse(disabledTracker.registerRead(key, EXPIRATION_MILLIS, EXPIRATION_MILLIS - 1L));
+   }
+
+
+   public void testRefreshesOftenReadElementCloseToExpiration() {
+
+      final long currentMillis = EXPIRATION_MILLIS - REFRESH_AHEAD_TIME_MILLIS;
+      assertFalse(tracker.registerRead(key, EXPIRATION_MILLIS, currentMillis));
+      assertFalse(tracker.registerRead(key, EXPIRATION_MILLIS, currentMillis));
+      assertTrue(tracker.registerRead(key, EXPIRATION_MILLIS, currentMillis));
+      assertEquals(1, tracker.getRefreshingKeyCount());
+   }
+
+
+   public void testDoesNotRefreshElementFarFromExpiration() {
+
+      final long currentMillis = EXPIRATION_MILLIS - REFRESH_AHEAD_TIME_MILLIS - 1L;
+      for (int i = 0; i < REFRESH_AHEAD_READS * 2; i++) {
+
+         assertFalse(tracker.registerRead(key, EXPIRATION_MILLIS, currentMillis));
+      }
+   }
+
+
+   public void testRefreshesOnlyOnceAtATime() {
+
+      readUntilRefresh(EXPIRATION_MILLIS);
+      assertFalse(tracker.registerRead(key, EXPIRATION_MILLIS, EXPIRATION_MILLIS - 1L));
+
+      // A failed refresh is restarted by next reads
+      tracker.notifyRefreshFinished(key);
+      assertEquals(0, tracker.getRefreshingKeyCount());
+      readUntilRefresh(EXPIRATION_MILLIS);
+   }
+
+
+   public void testReplacedElementStartsCountingOver() {
+
+      readUntilRefresh(EXPIRATION_MILLIS);
+      tracker.notifyRefreshFinished(key);
+
+      // The refreshed element has a new expiration time
+      final long newExpirationMillis = EXPIRATION_MILLIS * 2L;
+      assertFalse(tracker.registerRead(key, newExpirationMillis, newExpirationMillis - 1L));
+   }
+
+
+   public void testTracksLimitedNumberOfKeys() {
+
+      final RefreshAheadTracker smallTracker = new RefreshAheadTracker(REFRESH_AHEAD_TIME_MILLIS, 1, 1);
+      assertFalse(smallTracker.registerRead(toBinary("key.1"), EXPIRATION_MILLIS, 0L));
+
+      // No room for another key while the first one has not expired
+      assertFalse(smallTracker.registerRead(key, EXPIRATION_MILLIS, EXPIRATION_MILLIS - 1L));
+
+      // Expired counters are dropped to make room
+      final long laterExpirationMillis = EXPIRATION_MILLIS * 2L;
+      assertTrue(smallTracker.registerRead(key, laterExpirationMillis, laterExpirationMillis - 1L));
+   }
+
+
+   public void testZeroMaxTrackedKeysMeansDefault() {
+
+      final RefreshAheadTracker unlimitedTracker = new RefreshAheadTracker(REFRESH_AHEAD_TIME_MILLIS, 1, 0);
+      assertEquals(RefreshAheadTracker.DEFAULT_MAX_TRACKED_KEYS, unlimitedTracker.getMaxTrackedKeys());
+      assertTrue(unlimitedTracker.registerRead(key, EXPIRATION_MILLIS, EXPIRATION_MILLIS - 1L));
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(tracker.toString());
+   }
+
+
+   private void readUntilRefresh(final long expirationMillis) {
+
+      final long currentMillis = expirationMillis - 1L;
+      for (int i = 1; i < REFRESH_AHEAD_READS; i++) {
+
+         assertFalse(tracker.registerRead(key, expirationMillis, currentMillis));
+      }
+      assertTrue(tracker.registerRead(key, expirationMillis, currentMillis));
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      tracker = new RefreshAheadTracker(REFRESH_AHEAD_TIME_MILLIS, REFRESH_AHEAD_READS, 100);
+      key = toBinary("key");
+   }
+}
@@ -0,0 +1,150 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import junit.framework.TestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.clock.Time;
+import org.cacheonix.impl.clock.TimeImpl;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+
+/**
+ * Tester for {@link ReplicationLagTracker}.
+ */
+public final class ReplicationLagTrackerTest extends TestCase {
+
+   private static final long MAX_REPLICATION_LAG_MILLIS = 1000L;
+
+   private static final int BUCKET_NUMBER = 1;
+
+   private ReplicationLagTracker tracker;
+
+   private ClusterNodeAddress replicaOwner;
+
+
+   public void testEmptyTrackerHasNoLag() {
+
+      assertEquals(0L, tracker.getReplicationLagMillis(replicaOwner, 5000L));
+      assertEquals(0, tracker.getPendingUpdateCount(replicaOwner));
+      assertFalse(tracker.isLagExceeded(replicaOwner, 5000L));
+      assertTrue(tracker.getReplicaOwners().isEmpty());
+   }
+
+
+   public void testReplicationLagIsAgeOfOldestPendingUpdate() {
+
+      tracker.notifyUpdateSent(replicaOwner, 100L);
+      tracker.notifyUpdateSent(replicaOwner, 200L);
+
+      assertEquals(2, tracker.getPendingUpdateCount(replicaOwner));
+      assertEquals(400L, tracker.getReplicationLagMillis(replicaOwner, 500L));
+
+      tracker.notifyUpdateFinished(replicaOwner, 100L, 150L);
+
+      assertEquals(1, tracker.getPendingUpdateCount(replicaOwner));
+      assertEquals(300L, tracker.getReplicationLagMillis(replicaOwner, 500L));
+      assertEquals(50L, tracker.getLastReplicationLagMillis(replicaOwner));
+      assertEquals(1L, tracker.getAcknowledgedUpdateCount(replicaOwner));
+      assertEquals(1, tracker.getReplicaOwners().size());
+   }
+
+
+   public void testLagExceeded() {
+
+      tracker.notifyUpdateSent(replicaOwner, 100L);
+
+      assertFalse(tracker.isLagExceeded(replicaOwner, 100L + MAX_REPLICATION_LAG_MILLIS));
+      assertTrue(tracker.isLagExceeded(replicaOwner, 101L + MAX_REPLICATION_LAG_MILLIS));
+
+      tracker.notifyUpdateFinished(replicaOwner, 100L, 2000L);
+
+      assertFalse(tracker.isLagExceeded(replicaOwner, 3000L));
+      assertEquals(1900L, tracker.getMaxReplicationLagMillis(replicaOwner));
+   }
+
+
+   public void testOutOfOrderCompletion() {
+
+      tracker.notifyUpdateSent(replicaOwner, 100L);
+      tracker.notifyUpdateSent(replicaOwner, 200L);
+      tracker.notifyUpdateFinished(replicaOwner, 200L, 300L);
+
+      assertEquals(1, tracker.getPendingUpdateCount(replicaOwner));
+      assertEquals(300L, tracker.getReplicationLagMillis(replicaOwner, 400L));
+   }
+
+
+   public void testUpdateFloorIsOldestPendingSequence() {
+
+      final Time first = new TimeImpl(100L, 0L);
+      final Time second = new TimeImpl(200L, 0L);
+      final Time current = new TimeImpl(300L, 0L);
+      assertEquals(current, tracker.getUpdateFloor(BUCKET_NUMBER, current));
+
+      tracker.notifySequenceSent(BUCKET_NUMBER, first);
+      tracker.notifySequenceSent(BUCKET_NUMBER, second);
+      assertEquals(first, tracker.getUpdateFloor(BUCKET_NUMBER, current));
+      assertEquals(current, tracker.getUpdateFloor(BUCKET_NUMBER + 1, current));
+
+      tracker.notifySequenceFinished(BUCKET_NUMBER, first);
+      assertEquals(second, tracker.getUpdateFloor(BUCKET_NUMBER, current));
+
+      tracker.notifySequenceFinished(BUCKET_NUMBER, second);
+      assertEquals(current, tracker.getUpdateFloor(BUCKET_NUMBER, current));
+   }
+
+
+   public void testRemoveReplicaOwner() {
+
+      tracker.notifyUpdateSent(replicaOwner, 100L);
+      tracker.removeReplicaOwner(replicaOwner);
+
+      assertTrue(tracker.getReplicaOwners().isEmpty());
+      assertEquals(0, tracker.getPendingUpdateCount(replicaOwner));
+   }
+
+
+   public void testToString() {
+
+      tracker.notifyUpdateSent(replicaOwner, 100L);
+      assertNotNull(tracker.toString());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      tracker = new ReplicationLagTracker(MAX_REPLICATION_LAG_MILLIS);
+      replicaOwner = TestUtils.createTestAddress(1);
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      replicaOwner = null;
+      tracker = null;
+
+      super.tearDown();
+   }
+
+
+   public String toString() {
+
+      return "ReplicationLagTrackerTest{" +
+              "tracker=" + tracker +
+              ", replicaOwner=" + replicaOwner +
+              "} " + super.toString();
+   }
+}
@@ -0,0 +1,39 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.distributed.partitioned;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cacheonix.cache.entry.AttributeExtractor;
+
+/**
+ * An attribute extractor that uses the cache value as the attribute. The extractor is configured as an index in the
+ * indexed test cluster configurations. It counts its invocations so that tests can tell an index lookup from a scan.
+ */
+public final class ValueAttributeExtractor implements AttributeExtractor {
+
+   private static final long serialVersionUID = 0L;
+
+   /**
+    * Number of extractions made by all instances.
+    */
+   static final AtomicInteger EXTRACT_COUNT = new AtomicInteger(0);
+
+
+   public Object extract(final Object value) {
+
+      EXTRACT_COUNT.incrementAndGet();
+      return value;
+   }
+}
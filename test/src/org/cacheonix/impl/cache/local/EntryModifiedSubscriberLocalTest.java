@@ -20,6 +20,8 @@ import java.util.Set;
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.TestConstants;
 import org.cacheonix.cache.NotSubscribedException;
+import org.cacheonix.cache.entry.CacheEntry;
+import org.cacheonix.cache.entry.EntryFilter;
 import org.cacheonix.cache.subscriber.EntryModifiedEvent;
 import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
 import org.cacheonix.cache.subscriber.EntryModifiedEventType;
@@ -285,11 +287,104 @@ public final class EntryModifiedSubscriberLocalTest extends CacheonixTestCase {
    }
 
 
+   public void testCacheEventSubscriberReceivesMatching() {
+
+      // Create subscriber
+      final List<EntryModifiedEventContentFlag> contentFlags = new ArrayList<EntryModifiedEventContentFlag>(4);
+      contentFlags.add(EntryModifiedEventContentFlag.NEED_KEY);
+      contentFlags.add(EntryModifiedEventContentFlag.NEED_NEW_VALUE);
+      contentFlags.add(EntryModifiedEventContentFlag.NEED_PREVIOUS_VALUE);
+
+      final TestEntryModifiedSubscriber subscriber = new TestEntryModifiedSubscriber(contentFlags);
+      cache.addCacheEventSubscriber(new ValueEntryFilter(VALUE_2), subscriber);
+
+      // Put a value that doesn't match
+      cache.put(KEY, VALUE);
+      assertEquals(0, subscriber.getReceivedEvents().size());
+
+      // Update to a value that matches
+      cache.put(KEY, VALUE_2);
+      assertEquals(1, subscriber.getReceivedEvents().size());
+      assertEquals(EntryModifiedEventType.UPDATE, subscriber.getReceivedEvents().get(0).getUpdateType());
+      assertEquals(KEY, subscriber.getReceivedEvents().get(0).getUpdatedKey());
+      assertEquals(VALUE_2, subscriber.getReceivedEvents().get(0).getNewValue());
+      assertEquals(VALUE, subscriber.getReceivedEvents().get(0).getPreviousValue());
+
+      // Update to a value that doesn't match, the previous value matches
+      cache.put(KEY, VALUE);
+      assertEquals(2, subscriber.getReceivedEvents().size());
+      assertEquals(VALUE, subscriber.getReceivedEvents().get(1).getNewValue());
+      assertEquals(VALUE_2, subscriber.getReceivedEvents().get(1).getPreviousValue());
+
+      // Add another key that doesn't match
+      cache.put(KEY + 1, VALUE);
+      assertEquals(2, subscriber.getReceivedEvents().size());
+
+      // Add another key that matches and remove it
+      cache.put(KEY + 2, VALUE_2);
+      cache.remove(KEY + 2);
+      assertEquals(4, subscriber.getReceivedEvents().size());
+      assertEquals(EntryModifiedEventType.ADD, subscriber.getReceivedEvents().get(2).getUpdateType());
+      assertEquals(EntryModifiedEventType.REMOVE, subscriber.getReceivedEvents().get(3).getUpdateType());
+      assertEquals(VALUE_2, subscriber.getReceivedEvents().get(3).getPreviousValue());
+   }
+
+
+   public void testCacheEventSubscriberWithoutFilterReceivesAll() {
+
+      // Create subscriber
+      final List<EntryModifiedEventContentFlag> contentFlags = new ArrayList<EntryModifiedEventContentFlag>(1);
+      contentFlags.add(EntryModifiedEventContentFlag.NEED_KEY);
+
+      final TestEntryModifiedSubscriber subscriber = new TestEntryModifiedSubscriber(contentFlags);
+      cache.addCacheEventSubscriber(null, subscriber);
+
+      cache.put(KEY, VALUE);
+      cache.put(KEY + 1, VALUE);
+
+      // Assert
+      assertEquals(2, subscriber.getReceivedEvents().size());
+      assertEquals(KEY, subscriber.getReceivedEvents().get(0).getUpdatedKey());
+      assertEquals(KEY + 1, subscriber.getReceivedEvents().get(1).getUpdatedKey());
+      assertNull(subscriber.getReceivedEvents().get(1).getNewValue());
+   }
+
+
+   public void testCacheEventSubscriberUnSubscribe() {
+
+      // Create subscriber
+      final List<EntryModifiedEventContentFlag> contentFlags = new ArrayList<EntryModifiedEventContentFlag>(1);
+      contentFlags.add(EntryModifiedEventContentFlag.NEED_KEY);
+
+      final TestEntryModifiedSubscriber subscriber = new TestEntryModifiedSubscriber(contentFlags);
+      cache.addCacheEventSubscriber(null, subscriber);
+      cache.put(KEY, VALUE);
+      assertEquals(1, subscriber.getReceivedEvents().size());
+
+      // Remove subscriber
+      cache.removeCacheEventSubscriber(subscriber);
+      cache.put(KEY, VALUE_2);
+      assertEquals(1, subscriber.getReceivedEvents().size());
+
+      // Remove subscriber second time
+      boolean thrown = false;
+      try {
+
+         cache.removeCacheEventSubscriber(subscriber);
+      } catch (final NotSubscribedException ignored) {
+
+         thrown = true;
+      }
+      assertTrue("Exception should be thrown", thrown);
+   }
+
+
    protected void setUp() throws Exception {
 
       super.setUp();
       cache = new LocalCache<String, String>(TestConstants.LOCAL_TEST_CACHE, MAX_SIZE, 0, 0, 0,
-              getClock(), getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
+              getClock(), getTimer(), getEventNotificationExecutor(),
+              new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
               new DummyObjectSizeCalculator(), new DummyBinaryStoreDataSource(), new DummyDataStore(),
               new DummyCacheInvalidator(), new DummyCacheLoader(), ElementEventNotification.SYNCHRONOUS);
 
@@ -306,6 +401,26 @@ public final class EntryModifiedSubscriberLocalTest extends CacheonixTestCase {
    }
 
 
+   private static final class ValueEntryFilter implements EntryFilter {
+
+      private static final long serialVersionUID = 0L;
+
+      private final String value;
+
+
+      ValueEntryFilter(final String value) {
+
+         this.value = value;
+      }
+
+
+      public boolean matches(final CacheEntry cacheEntry) {
+
+         return value.equals(cacheEntry.getValue());
+      }
+   }
+
+
    private static class TestEntryModifiedSubscriber implements EntryModifiedSubscriber {
 
       private final List<EntryModifiedEvent> receivedEvents = new ArrayList<EntryModifiedEvent>(1);
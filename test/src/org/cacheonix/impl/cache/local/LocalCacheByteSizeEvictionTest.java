@@ -251,7 +251,8 @@ public final class LocalCacheByteSizeEvictionTest extends CacheonixTestCase {
       final DiskStorage diskStorage = new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE);
       final ObjectSizeCalculator objectSizeCalculator = new StandardObjectSizeCalculator();
       cache = new LocalCache<String, String>(TestConstants.LOCAL_TEST_CACHE, CACHE_MAX_SIZE, MAX_SIZE_BYTES,
-              ZERO_EXPIRATION_TIME_MILLIS, ZERO_IDLE_TIME_MILLIS, getClock(), getEventNotificationExecutor(),
+              ZERO_EXPIRATION_TIME_MILLIS, ZERO_IDLE_TIME_MILLIS, getClock(), getTimer(),
+              getEventNotificationExecutor(),
               diskStorage, objectSizeCalculator, new DummyBinaryStoreDataSource(), new DummyDataStore(),
               new DummyCacheInvalidator(), new DummyCacheLoader(), ElementEventNotification.SYNCHRONOUS);
    }
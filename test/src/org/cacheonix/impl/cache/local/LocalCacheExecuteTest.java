@@ -20,6 +20,7 @@ import java.util.Set;
 
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.TestConstants;
+import org.cacheonix.cache.entry.AttributeExtractor;
 import org.cacheonix.cache.entry.CacheEntry;
 import org.cacheonix.cache.entry.EntryFilter;
 import org.cacheonix.cache.executor.Executable;
@@ -43,6 +44,21 @@ public final class LocalCacheExecuteTest extends CacheonixTestCase {
    private static final int KEY_COUNT = 5000;
 
 
+   /**
+    * An extractor that projects an integer value to its negation.
+    */
+   private static final class NegatingExtractor implements AttributeExtractor {
+
+      private static final long serialVersionUID = 0L;
+
+
+      public Object extract(final Object value) {
+
+         return Integer.valueOf(-((Integer) value).intValue());
+      }
+   }
+
+
    private LocalCache<Integer, Integer> cache;
 
 
@@ -105,13 +121,35 @@ public final class LocalCacheExecuteTest extends CacheonixTestCase {
    }
 
 
+   public void testProject() {
+
+      // Put element into cache
+      final int keyCount = KEY_COUNT;
+      final Map<Integer, Integer> map = new HashMap<Integer, Integer>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+         map.put(i, i);
+      }
+
+      // Put to cache
+      cache.putAll(map);
+
+      final Map<Integer, Object> result = cache.project(new EvenEntryFilter(), new NegatingExtractor());
+      assertEquals(keyCount / 2, result.size());
+      for (final Map.Entry<Integer, Object> entry : result.entrySet()) {
+
+         assertEquals(Integer.valueOf(-entry.getKey().intValue()), entry.getValue());
+      }
+   }
+
+
    protected void setUp() throws Exception {
 
       super.setUp();
 
       // Create cache
       cache = new LocalCache<Integer, Integer>(TestConstants.LOCAL_TEST_CACHE, KEY_COUNT, 0, 0, 0,
-              getClock(), getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
+              getClock(), getTimer(), getEventNotificationExecutor(),
+              new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
               new DummyObjectSizeCalculator(), new DummyBinaryStoreDataSource(), new DummyDataStore(),
               new DummyCacheInvalidator(), new DummyCacheLoader(), ElementEventNotification.SYNCHRONOUS);
 
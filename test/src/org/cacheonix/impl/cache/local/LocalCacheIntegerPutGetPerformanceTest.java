@@ -74,7 +74,7 @@ public final class LocalCacheIntegerPutGetPerformanceTest extends CacheonixTestC
 
       super.setUp();
       cache = new LocalCache<Integer, Integer>(TestConstants.LOCAL_TEST_CACHE, SIZE, 0, 0, 0, getClock(),
-              getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
+              getTimer(), getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
               new DummyObjectSizeCalculator(), new DummyBinaryStoreDataSource(), new DummyDataStore(),
               new DummyCacheInvalidator(), new DummyCacheLoader(), ElementEventNotification.SYNCHRONOUS);
    }
@@ -110,7 +110,7 @@ public final class LocalCachePerformanceTest extends CacheonixTestCase {
       super.setUp();
       threadFactory = new DaemonThreadFactory("LocalCachePerformanceTest");
       cache = new LocalCache<Long, Boolean>(TestConstants.LOCAL_TEST_CACHE, MAX_SIZE, 0, 0, 0, getClock(),
-              getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
+              getTimer(), getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
               new DummyObjectSizeCalculator(), new DummyBinaryStoreDataSource(), new DummyDataStore(),
               new DummyCacheInvalidator(), new DummyCacheLoader(), ElementEventNotification.SYNCHRONOUS);
    }
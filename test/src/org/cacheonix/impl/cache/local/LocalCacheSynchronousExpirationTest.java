@@ -121,7 +121,7 @@ public final class LocalCacheSynchronousExpirationTest extends CacheonixTestCase
       super.setUp();
 
       cache = new LocalCache<String, String>(TEST_CACHE, MAX_SIZE, MAX_SIZE_M_BYTES, EXPIRATION_TIME_MILLIS,
-              IDLE_TIME_MILLIS, getClock(), getEventNotificationExecutor(),
+              IDLE_TIME_MILLIS, getClock(), getTimer(), getEventNotificationExecutor(),
               new DummyDiskStorage(TEST_CACHE), new DummyObjectSizeCalculator(),
               new DummyBinaryStoreDataSource(), new DummyDataStore(),
               new DummyCacheInvalidator(), new DummyCacheLoader(), ElementEventNotification.SYNCHRONOUS);
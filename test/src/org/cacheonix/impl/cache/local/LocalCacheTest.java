@@ -16,11 +16,13 @@ package org.cacheonix.impl.cache.local;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.cacheonix.AppendingEntryProcessor;
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.cache.Cache;
 import org.cacheonix.cache.subscriber.EntryModifiedEvent;
@@ -241,6 +243,23 @@ public final class LocalCacheTest extends CacheonixTestCase {
    }
 
 
+   public void testEntryIterator() {
+
+      populate(MAX_SIZE);
+
+      int count = 0;
+      for (final Iterator<Map.Entry<String, String>> iterator = cache.entryIterator(7); iterator.hasNext(); ) {
+
+         final Map.Entry<String, String> entry = iterator.next();
+         assertEquals(cache.get(entry.getKey()), entry.getValue());
+         iterator.remove();
+         count++;
+      }
+      assertEquals(MAX_SIZE, count);
+      assertTrue(cache.isEmpty());
+   }
+
+
    public void testIsEmpty() {
 
       assertTrue(cache.isEmpty());
@@ -557,6 +576,38 @@ public final class LocalCacheTest extends CacheonixTestCase {
    }
 
 
+   public void testInvoke() {
+
+      cache.put(KEY_0, OBJECT_0);
+
+      // Invoke on existing entry
+      assertEquals(OBJECT_0, cache.invoke(KEY_0, new AppendingEntryProcessor(SUFFIX_ONE)));
+      assertEquals(OBJECT_0 + SUFFIX_ONE, cache.get(KEY_0));
+
+      // Invoke on nonexistent entry
+      assertNull(cache.invoke(KEY_1, new AppendingEntryProcessor(SUFFIX_TWO)));
+      assertEquals(SUFFIX_TWO, cache.get(KEY_1));
+   }
+
+
+   public void testInvokeAll() {
+
+      cache.put(KEY_0, OBJECT_0);
+      cache.put(KEY_1, OBJECT_1);
+
+      final Set<String> keys = new HashSet<String>(2);
+      keys.add(KEY_0);
+      keys.add(KEY_1);
+      final Map<String, Serializable> results = cache.invokeAll(keys, new AppendingEntryProcessor(SUFFIX_ONE));
+
+      assertEquals(2, results.size());
+      assertEquals(OBJECT_0, results.get(KEY_0));
+      assertEquals(OBJECT_1, results.get(KEY_1));
+      assertEquals(OBJECT_0 + SUFFIX_ONE, cache.get(KEY_0));
+      assertEquals(OBJECT_1 + SUFFIX_ONE, cache.get(KEY_1));
+   }
+
+
    public void testPutIfAbsent() {
 
       // Put to empty, should get null back
@@ -589,8 +640,8 @@ public final class LocalCacheTest extends CacheonixTestCase {
 
       final long expirationIntervalMillis = 50L;
       final Cache<String, String> cacheWithExpiration = new LocalCache<String, String>(LOCAL_TEST_CACHE, MAX_SIZE, 0,
-              expirationIntervalMillis, 0, getClock(), getEventNotificationExecutor(), DUMMY_DISK_STORAGE,
-              DUMMY_OBJECT_SIZE_CALCULATOR, DUMMY_BINARY_STORE_DATA_SOURCE, DUMMY_DATA_STORE,
+              expirationIntervalMillis, 0, getClock(), getTimer(), getEventNotificationExecutor(),
+              DUMMY_DISK_STORAGE, DUMMY_OBJECT_SIZE_CALCULATOR, DUMMY_BINARY_STORE_DATA_SOURCE, DUMMY_DATA_STORE,
               DUMMY_CACHE_INVALIDATOR, DUMMY_CACHE_LOADER, SYNCHRONOUS);
       cacheWithExpiration.put(KEY_0, OBJECT_0, 0, TimeUnit.MILLISECONDS);
 
@@ -602,6 +653,29 @@ public final class LocalCacheTest extends CacheonixTestCase {
    }
 
 
+   public void testExpiredElementsAreRemovedWithoutAccess() throws InterruptedException {
+
+      final long expirationIntervalMillis = 50L;
+      final LocalCache<String, String> cacheWithExpiration = new LocalCache<String, String>(LOCAL_TEST_CACHE,
+              MAX_SIZE, 0, expirationIntervalMillis, 0, getClock(), getTimer(), getEventNotificationExecutor(),
+              DUMMY_DISK_STORAGE, DUMMY_OBJECT_SIZE_CALCULATOR, DUMMY_BINARY_STORE_DATA_SOURCE, DUMMY_DATA_STORE,
+              DUMMY_CACHE_INVALIDATOR, DUMMY_CACHE_LOADER, SYNCHRONOUS);
+      try {
+
+         cacheWithExpiration.put(KEY_0, OBJECT_0);
+         assertEquals(1, cacheWithExpiration.size());
+
+         // Wait for the periodic expiration to run
+         sleep(1500L);
+
+         assertEquals(0, cacheWithExpiration.size());
+      } finally {
+
+         cacheWithExpiration.shutdown();
+      }
+   }
+
+
    private List<Entry<String, String>> populate(final int maxSize) {
 
       final List<Entry<String, String>> entries = new ArrayList<Entry<String, String>>(maxSize);
@@ -647,7 +721,7 @@ public final class LocalCacheTest extends CacheonixTestCase {
 
       super.setUp();
       cache = new LocalCache<String, String>(LOCAL_TEST_CACHE, MAX_SIZE, 0, 0, 0,
-              getClock(), getEventNotificationExecutor(), DUMMY_DISK_STORAGE,
+              getClock(), getTimer(), getEventNotificationExecutor(), DUMMY_DISK_STORAGE,
               DUMMY_OBJECT_SIZE_CALCULATOR, DUMMY_BINARY_STORE_DATA_SOURCE, DUMMY_DATA_STORE,
               DUMMY_CACHE_INVALIDATOR, DUMMY_CACHE_LOADER, SYNCHRONOUS);
 
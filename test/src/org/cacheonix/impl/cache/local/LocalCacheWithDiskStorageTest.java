@@ -103,7 +103,7 @@ public final class LocalCacheWithDiskStorageTest extends CacheonixTestCase {
 
          assertEquals(MAX_SIZE_ELEMENTS, cache.size());
 
-         assertEquals("Number of elements evicted to disk", 21925, cache.getSizeOnDisk());
+         assertEquals("Number of elements evicted to disk", 28191, cache.getSizeOnDisk());
       } finally {
          cache.shutdown();
       }
@@ -300,7 +300,8 @@ public final class LocalCacheWithDiskStorageTest extends CacheonixTestCase {
               STORAGE_PATH);
 
       return new LocalCache<ByteArrayKey, byte[]>(LOCAL_TEST_CACHE, maxSizeElements, maxSizeBytes,
-              ZERO_EXPIRATION_TIME_MILLIS, ZERO_IDLE_TIME_MILLIS, getClock(), getEventNotificationExecutor(),
+              ZERO_EXPIRATION_TIME_MILLIS, ZERO_IDLE_TIME_MILLIS, getClock(), getTimer(),
+              getEventNotificationExecutor(),
               diskStorage, new StandardObjectSizeCalculator(), new DummyBinaryStoreDataSource(), new DummyDataStore(),
               new DummyCacheInvalidator(), new DummyCacheLoader(), SYNCHRONOUS);
    }
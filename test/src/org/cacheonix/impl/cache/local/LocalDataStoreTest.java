@@ -103,7 +103,8 @@ public final class LocalDataStoreTest extends CacheonixTestCase {
       super.setUp();
       dataStore = new TestDataStore();
       cache = new LocalCache<String, String>(TestConstants.LOCAL_TEST_CACHE, MAX_SIZE, 0, 0, 0,
-              getClock(), getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
+              getClock(), getTimer(),
+              getEventNotificationExecutor(), new DummyDiskStorage(TestConstants.LOCAL_TEST_CACHE),
               new DummyObjectSizeCalculator(), new DummyBinaryStoreDataSource(), dataStore, new DummyCacheInvalidator(),
               new DummyCacheLoader(), ElementEventNotification.SYNCHRONOUS);
 
@@ -13,9 +13,22 @@
  */
 package org.cacheonix.impl.cache.store;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.cache.entry.AttributeExtractor;
+import org.cacheonix.cache.entry.EqualsFilter;
+import org.cacheonix.cache.entry.InFilter;
+import org.cacheonix.cache.entry.RangeFilter;
+import org.cacheonix.cache.subscriber.EntryModifiedEventContentFlag;
+import org.cacheonix.cache.subscriber.EntryModifiedEventType;
+import org.cacheonix.cache.subscriber.EntryModifiedNotificationMode;
 import org.cacheonix.impl.cache.datasource.DummyBinaryStoreDataSource;
 import org.cacheonix.impl.cache.datastore.DummyDataStore;
 import org.cacheonix.impl.cache.distributed.partitioned.BinaryStoreContext;
@@ -29,7 +42,10 @@ import org.cacheonix.impl.cache.item.CompressedBinary;
 import org.cacheonix.impl.cache.item.InvalidObjectException;
 import org.cacheonix.impl.cache.storage.disk.DummyDiskStorage;
 import org.cacheonix.impl.cache.storage.disk.StorageException;
+import org.cacheonix.impl.cache.subscriber.BinaryEntryModifiedEvent;
 import org.cacheonix.impl.cache.util.DummyObjectSizeCalculator;
+import org.cacheonix.impl.clock.Clock;
+import org.cacheonix.impl.clock.ClockImpl;
 import org.cacheonix.impl.clock.Time;
 import org.cacheonix.impl.clock.TimeImpl;
 import org.cacheonix.impl.net.serializer.Serializer;
@@ -49,6 +65,8 @@ public final class BinaryStoreTest extends CacheonixTestCase {
 
    private static final String DISK_STORAGE_NAME = "test";
 
+   private static final long TICK_PERIOD_MILLIS = ClockImpl.DEFAULT_TICK_PERIOD_MILLIS;
+
    private BinaryStore binaryStore = null;
 
    private BinaryFactory binaryFactory;
@@ -136,6 +154,21 @@ public final class BinaryStoreTest extends CacheonixTestCase {
    }
 
 
+   public void testPutRemovesExpiredElements() throws Exception {
+
+      final Time expirationTime = getClock().currentTime().add(10L);
+      for (int i = 0; i < 5; i++) {
+
+         binaryStore.put(toBinary(i), toBinary(i), expirationTime);
+      }
+
+      Thread.sleep(250L);
+      binaryStore.put(toBinary("key"), toBinary("value"));
+
+      assertEquals(1, binaryStore.size());
+   }
+
+
    public void testPutGetNullValue() throws InvalidObjectException {
 
       final Binary key = binaryFactory.createBinary("key");
@@ -167,6 +200,159 @@ public final class BinaryStoreTest extends CacheonixTestCase {
    }
 
 
+   public void testAddIndexIndexesExistingElements() {
+
+      for (int i = 0; i < MAX_SIZE; i++) {
+
+         binaryStore.put(toBinary(i), toBinary(Integer.valueOf(i % 10)));
+      }
+
+      final IntegerExtractor extractor = new IntegerExtractor();
+      assertFalse(binaryStore.hasIndex(extractor));
+      assertNull(binaryStore.entrySet(new EqualsFilter(extractor, Integer.valueOf(3))));
+
+      binaryStore.addIndex(extractor);
+      assertTrue(binaryStore.hasIndex(extractor));
+
+      final Set<Entry<Binary, Binary>> entries = binaryStore.entrySet(new EqualsFilter(extractor, Integer.valueOf(3)));
+      assertEquals(MAX_SIZE / 10, entries.size());
+      for (final Entry<Binary, Binary> entry : entries) {
+
+         assertEquals(Integer.valueOf(3), entry.getValue().getValue());
+      }
+   }
+
+
+   public void testIndexFollowsModifications() {
+
+      binaryStore.addIndex(new IntegerExtractor());
+      for (int i = 0; i < MAX_SIZE; i++) {
+
+         binaryStore.put(toBinary(i), toBinary(Integer.valueOf(i % 10)));
+      }
+
+      final IntegerExtractor extractor = new IntegerExtractor();
+      binaryStore.put(toBinary(3), toBinary(Integer.valueOf(4)));
+      binaryStore.remove(toBinary(13));
+      assertEquals(MAX_SIZE / 10 - 2, binaryStore.entrySet(new EqualsFilter(extractor, Integer.valueOf(3))).size());
+      assertEquals(MAX_SIZE / 10 + 1, binaryStore.entrySet(new EqualsFilter(extractor, Integer.valueOf(4))).size());
+
+      final List<Integer> values = Arrays.asList(Integer.valueOf(1), Integer.valueOf(2));
+      assertEquals(MAX_SIZE / 10 * 2, binaryStore.entrySet(new InFilter(extractor, values)).size());
+      assertEquals(MAX_SIZE / 10 * 3 - 2, binaryStore.entrySet(new RangeFilter(extractor, Integer.valueOf(1), true,
+              Integer.valueOf(3), true)).size());
+      assertEquals(MAX_SIZE / 10 * 2, binaryStore.entrySet(new RangeFilter(extractor, Integer.valueOf(7), false,
+              null, true)).size());
+      assertEquals(0, binaryStore.entrySet(new RangeFilter(extractor, Integer.valueOf(5), true, Integer.valueOf(4),
+              true)).size());
+
+      binaryStore.clear();
+      assertEquals(0, binaryStore.entrySet(new EqualsFilter(extractor, Integer.valueOf(4))).size());
+   }
+
+
+   public void testRetainAllUnindexesRemovedElements() {
+
+      final IntegerExtractor extractor = new IntegerExtractor();
+      binaryStore.addIndex(extractor);
+      for (int i = 0; i < MAX_SIZE; i++) {
+
+         binaryStore.put(toBinary(i), toBinary(Integer.valueOf(i % 10)));
+      }
+
+      final HashSet<Binary> keySetToRetain = new HashSet<Binary>(1);
+      keySetToRetain.add(toBinary(3));
+      assertTrue(binaryStore.retainAll(keySetToRetain));
+      assertEquals(1, binaryStore.findIndex(extractor).size());
+      assertEquals(1, binaryStore.entrySet(new EqualsFilter(extractor, Integer.valueOf(3))).size());
+   }
+
+
+   public void testSubscriberNotInterestedInEventTypeDoesNotStopNotification() {
+
+      final Binary key = toBinary(1);
+      binaryStore.put(key, toBinary(1));
+
+      final RecordingSubscriber removeSubscriber = new RecordingSubscriber(1, EntryModifiedEventType.REMOVE);
+      final RecordingSubscriber updateSubscriber = new RecordingSubscriber(2, EntryModifiedEventType.UPDATE);
+      binaryStore.addEventSubscriber(key, removeSubscriber);
+      binaryStore.addEventSubscriber(key, updateSubscriber);
+
+      // The update subscriber follows the subscriber that is not interested in updates
+      binaryStore.put(key, toBinary(2));
+      assertTrue(removeSubscriber.events.isEmpty());
+      assertEquals(1, updateSubscriber.events.size());
+      assertEquals(EntryModifiedEventType.UPDATE, updateSubscriber.events.get(0).getUpdateType());
+      assertEquals(key, updateSubscriber.events.get(0).getUpdatedKey());
+   }
+
+
+   public void testElementExpiresAtMostOneTickLate() {
+
+      final TickedClock clock = new TickedClock(10000L);
+      final BinaryStore store = createBinaryStore(clock);
+      final Binary key = toBinary(1);
+      final long expirationMillis = 10102L;
+      store.put(key, toBinary(1), new TimeImpl(expirationMillis, 0L));
+
+      // Tick until the element expires
+      while (store.containsKey(key)) {
+
+         // Between ticks the element is visible even if the wall time is past its expiration time
+         clock.currentTimeMillis += TICK_PERIOD_MILLIS;
+         assertTrue(store.containsKey(key));
+         clock.tick();
+      }
+
+      assertTrue(clock.currentTimeMillis > expirationMillis);
+      assertTrue(clock.currentTimeMillis - expirationMillis <= TICK_PERIOD_MILLIS);
+   }
+
+
+   public void testExpireRemovesExpiredElementsWithoutPuts() {
+
+      final TickedClock clock = new TickedClock(10000L);
+      final BinaryStore store = createBinaryStore(clock);
+      for (int i = 0; i < 5; i++) {
+
+         store.put(toBinary(i), toBinary(i), new TimeImpl(10100L, 0L));
+      }
+      store.put(toBinary("key"), toBinary("value"));
+      clock.currentTimeMillis = 10300L;
+      clock.tick();
+
+      // Processing is bounded, the rest is left for the next call
+      assertEquals(2, store.expire(2));
+      assertEquals(4, store.size());
+      assertEquals(3, store.expire(100));
+      assertEquals(1, store.size());
+      assertEquals(0, store.expire(100));
+   }
+
+
+   public void testForEachEntrySkipsExpiredElements() {
+
+      final TickedClock clock = new TickedClock(10000L);
+      final BinaryStore store = createBinaryStore(clock);
+      store.put(toBinary(1), toBinary(1), new TimeImpl(10100L, 0L));
+      store.put(toBinary(2), toBinary(2));
+      clock.currentTimeMillis = 10101L;
+      clock.tick();
+
+      final HashMap<Binary, Binary> visited = new HashMap<Binary, Binary>(2);
+      store.forEachEntry(new BinaryStoreElementProcedure() {
+
+         public boolean processEntry(final Binary key, final Binary value) {
+
+            visited.put(key, value);
+            return true;
+         }
+      });
+      assertEquals(1, visited.size());
+      assertEquals(toBinary(2), visited.get(toBinary(2)));
+   }
+
+
    public void testGetWireableType() {
 
       assertEquals(Wireable.TYPE_BINARY_STORE, binaryStore.getWireableType());
@@ -188,8 +374,128 @@ public final class BinaryStoreTest extends CacheonixTestCase {
    }
 
 
+   /**
+    * An extractor that uses an integer value as the attribute.
+    */
+   private static final class IntegerExtractor implements AttributeExtractor {
+
+      private static final long serialVersionUID = 0L;
+
+
+      public Object extract(final Object value) {
+
+         return value;
+      }
+   }
+
+
+   /**
+    * A subscriber that records events of a single modification type.
+    */
+   private static final class RecordingSubscriber implements BinaryEntryModifiedSubscriber {
+
+      private final List<BinaryEntryModifiedEvent> events = new ArrayList<BinaryEntryModifiedEvent>(1);
+
+      private final int identity;
+
+      private final EntryModifiedEventType modificationType;
+
+
+      RecordingSubscriber(final int identity, final EntryModifiedEventType modificationType) {
+
+         this.identity = identity;
+         this.modificationType = modificationType;
+      }
+
+
+      public void notifyKeysUpdated(final List<BinaryEntryModifiedEvent> events) {
+
+         this.events.addAll(events);
+      }
+
+
+      public EntryModifiedNotificationMode getNotificationMode() {
+
+         return EntryModifiedNotificationMode.SINGLE;
+      }
+
+
+      public List<EntryModifiedEventContentFlag> getEventContentFlags() {
+
+         return Collections.singletonList(EntryModifiedEventContentFlag.NEED_KEY);
+      }
+
+
+      public Set<EntryModifiedEventType> getModificationTypes() {
+
+         return Collections.singleton(modificationType);
+      }
+
+
+      public int getIdentity() {
+
+         return identity;
+      }
+   }
+
+
+   /**
+    * A clock that updates coarse time only when ticked.
+    */
+   private static final class TickedClock implements Clock {
+
+      private long currentTimeMillis;
+
+      private long coarseTimeMillis;
+
+      private long count = 0L;
+
+
+      TickedClock(final long currentTimeMillis) {
+
+         this.currentTimeMillis = currentTimeMillis;
+         this.coarseTimeMillis = currentTimeMillis;
+      }
+
+
+      void tick() {
+
+         coarseTimeMillis = currentTimeMillis;
+      }
+
+
+      public Time currentTime() {
+
+         return new TimeImpl(currentTimeMillis, count++);
+      }
+
+
+      public long currentTimeMillis() {
+
+         return currentTimeMillis;
+      }
+
+
+      public long coarseTimeMillis() {
+
+         return coarseTimeMillis;
+      }
+
+
+      public void adjust(final Time time) {
+
+      }
+   }
+
+
    private BinaryStore createBinaryStore() {
 
+      return createBinaryStore(getClock());
+   }
+
+
+   private static BinaryStore createBinaryStore(final Clock clock) {
+
       // Test context
       final BinaryStoreContext context = new BinaryStoreContextImpl();
       context.setObjectSizeCalculator(new DummyObjectSizeCalculator());
@@ -198,7 +504,7 @@ public final class BinaryStoreTest extends CacheonixTestCase {
       context.setInvalidator(new DummyCacheInvalidator());
       context.setDataStore(new DummyDataStore());
 
-      final BinaryStore keyStore = new BinaryStore(getClock(), Integer.MAX_VALUE, Integer.MAX_VALUE);
+      final BinaryStore keyStore = new BinaryStore(clock, Integer.MAX_VALUE, Integer.MAX_VALUE);
       keyStore.attachToElementCounter(new SharedCounter(MAX_SIZE));
       keyStore.attachToByteCounter(new SharedCounter(0L));
       keyStore.setContext(context);
@@ -0,0 +1,181 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.cache.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import org.cacheonix.impl.clock.TimeImpl;
+import org.cacheonix.impl.util.array.ObjectProcedure;
+
+/**
+ * Tester for ExpirationWheel.
+ */
+public final class ExpirationWheelTest extends TestCase {
+
+   private static final long TICK_MILLIS = 100L;
+
+   private static final long START_MILLIS = 1000000L;
+
+   private ExpirationWheel wheel;
+
+   private List<BinaryStoreElement> expired;
+
+   private ObjectProcedure<BinaryStoreElement> procedure;
+
+
+   public void testExpiresOnlyDueElements() {
+
+      final BinaryStoreElement element1 = createElement(START_MILLIS + 150L);
+      final BinaryStoreElement element2 = createElement(START_MILLIS + 550L);
+      wheel.schedule(element1);
+      wheel.schedule(element2);
+      assertEquals(2, wheel.size());
+
+      assertEquals(0, wheel.expire(START_MILLIS + 150L, Integer.MAX_VALUE, procedure));
+      assertEquals(1, wheel.expire(START_MILLIS + 200L, Integer.MAX_VALUE, procedure));
+      assertEquals(1, expired.size());
+      assertSame(element1, expired.get(0));
+
+      assertEquals(1, wheel.expire(START_MILLIS + 600L, Integer.MAX_VALUE, procedure));
+      assertSame(element2, expired.get(1));
+      assertEquals(0, wheel.size());
+   }
+
+
+   public void testExpiresFarElementsAfterCascading() {
+
+      final long[] deadlines = {START_MILLIS + 10000L, START_MILLIS + 500000L, START_MILLIS + 30000000L};
+      for (final long deadline : deadlines) {
+
+         wheel.schedule(createElement(deadline));
+      }
+
+      for (final long deadline : deadlines) {
+
+         assertEquals(0, wheel.expire(deadline, Integer.MAX_VALUE, procedure));
+         assertEquals(1, wheel.expire(deadline + TICK_MILLIS, Integer.MAX_VALUE, procedure));
+         assertEquals(deadline, expired.get(expired.size() - 1).getExpirationTime().getMillis());
+      }
+      assertEquals(0, wheel.size());
+   }
+
+
+   public void testUsesEarliestOfExpirationAndIdleTime() {
+
+      final BinaryStoreElement element = new BinaryStoreElement(null, null, TimeImpl.ZERO,
+              new TimeImpl(START_MILLIS + 5000L, 0L), new TimeImpl(START_MILLIS + 300L, 0L));
+      wheel.schedule(element);
+
+      assertEquals(1, wheel.expire(START_MILLIS + 400L, Integer.MAX_VALUE, procedure));
+   }
+
+
+   public void testDoesNotScheduleElementsWithoutDeadline() {
+
+      wheel.schedule(new BinaryStoreElement(null, null, TimeImpl.ZERO, null, null));
+
+      assertEquals(0, wheel.size());
+   }
+
+
+   public void testCancel() {
+
+      final BinaryStoreElement element1 = createElement(START_MILLIS + 150L);
+      final BinaryStoreElement element2 = createElement(START_MILLIS + 150L);
+      final BinaryStoreElement element3 = createElement(START_MILLIS + 150L);
+      wheel.schedule(element1);
+      wheel.schedule(element2);
+      wheel.schedule(element3);
+
+      wheel.cancel(element2);
+      wheel.cancel(element2);
+      assertEquals(2, wheel.size());
+
+      assertEquals(2, wheel.expire(START_MILLIS + 1000L, Integer.MAX_VALUE, procedure));
+      for (final BinaryStoreElement element : expired) {
+
+         assertNotSame(element2, element);
+      }
+   }
+
+
+   public void testRescheduleMovesElement() {
+
+      final BinaryStoreElement element = createElement(START_MILLIS + 150L);
+      wheel.schedule(element);
+      element.setIdleTime(new TimeImpl(START_MILLIS + 100L, 0L));
+      wheel.schedule(element);
+
+      assertEquals(1, wheel.size());
+      assertEquals(1, wheel.expire(START_MILLIS + 1000L, Integer.MAX_VALUE, procedure));
+   }
+
+
+   public void testExpireHonorsMaxElements() {
+
+      for (int i = 0; i < 10; i++) {
+
+         wheel.schedule(createElement(START_MILLIS + 50L));
+      }
+
+      assertEquals(4, wheel.expire(START_MILLIS + 1000L, 4, procedure));
+      assertEquals(4, wheel.expire(START_MILLIS + 1000L, 4, procedure));
+      assertEquals(2, wheel.expire(START_MILLIS + 1000L, 4, procedure));
+      assertEquals(0, wheel.size());
+   }
+
+
+   public void testClear() {
+
+      final BinaryStoreElement element = createElement(START_MILLIS + 150L);
+      wheel.schedule(element);
+
+      wheel.clear();
+
+      assertEquals(0, wheel.size());
+      assertEquals(-1, element.getExpirationSlot());
+      assertEquals(0, wheel.expire(START_MILLIS + 1000L, Integer.MAX_VALUE, procedure));
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(wheel.toString());
+   }
+
+
+   private static BinaryStoreElement createElement(final long expirationTimeMillis) {
+
+      return new BinaryStoreElement(null, null, TimeImpl.ZERO, new TimeImpl(expirationTimeMillis, 0L), null);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      wheel = new ExpirationWheel(TICK_MILLIS, START_MILLIS);
+      expired = new ArrayList<BinaryStoreElement>(1);
+      procedure = new ObjectProcedure<BinaryStoreElement>() {
+
+         public boolean execute(final BinaryStoreElement element) {
+
+            expired.add(element);
+            return true;
+         }
+      };
+   }
+}
@@ -99,6 +99,44 @@ public final class ClockDiscontinuityTest extends CacheonixTestCase {
    }
 
 
+   public void testCurrentTimeMillisDoesNotAdvanceCount() {
+
+      wallClock.setCurrentTimeMillis(10000L);
+
+      final Time time1 = clock.currentTime();
+      assertEquals(10000L, clock.currentTimeMillis());
+      final Time time2 = clock.currentTime();
+
+      assertEquals(time1.getCount() + 1, time2.getCount());
+   }
+
+
+   public void testAdjustWithSameMillis() {
+
+      wallClock.setCurrentTimeMillis(10000L);
+      clock.currentTime();
+
+      clock.adjust(new TimeImpl(10000L, 5L));
+
+      final Time time = clock.currentTime();
+      assertEquals(10000L, time.getMillis());
+      assertEquals(6L, time.getCount());
+   }
+
+
+   public void testAdjustIsCumulative() {
+
+      wallClock.setCurrentTimeMillis(10000L);
+      clock.adjust(new TimeImpl(10100L, 0L));
+      clock.adjust(new TimeImpl(10200L, 0L));
+
+      assertEquals(10200L, clock.currentTimeMillis());
+
+      wallClock.setCurrentTimeMillis(10050L);
+      assertEquals(10250L, clock.currentTime().getMillis());
+   }
+
+
    public void testToString() {
 
       assertNotNull(clock.toString());
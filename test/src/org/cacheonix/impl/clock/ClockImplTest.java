@@ -13,6 +13,8 @@
  */
 package org.cacheonix.impl.clock;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Timer;
 
 import org.cacheonix.CacheonixTestCase;
@@ -50,6 +52,117 @@ public final class ClockImplTest extends CacheonixTestCase {
    }
 
 
+   public void testAdjustTwice() {
+
+      final Time newTime1 = clock.currentTime().add(1000);
+      clock.adjust(newTime1);
+      final Time newTime2 = clock.currentTime().add(1000);
+      clock.adjust(newTime2);
+
+      assertTrue(clock.currentTime().compareTo(newTime2) > 0);
+   }
+
+
+   public void testAdjustToPastDoesNotMoveClockBack() {
+
+      final Time time = clock.currentTime();
+      clock.adjust(time.add(-1000));
+
+      assertTrue(clock.currentTime().compareTo(time) > 0);
+   }
+
+
+   public void testCurrentTimeMillis() {
+
+      final Time time = clock.currentTime();
+      final long currentTimeMillis = clock.currentTimeMillis();
+
+      assertTrue(currentTimeMillis >= time.getMillis());
+      assertTrue(clock.currentTime().getMillis() >= currentTimeMillis);
+   }
+
+
+   public void testCurrentTimeIsUniqueAcrossThreads() throws InterruptedException {
+
+      final int threadCount = 4;
+      final int readCount = 10000;
+      final Time[][] readings = new Time[threadCount][readCount];
+      final Thread[] threads = new Thread[threadCount];
+      for (int i = 0; i < threadCount; i++) {
+
+         final Time[] threadReadings = readings[i];
+         threads[i] = new Thread(new Runnable() {
+
+            public void run() {
+
+               for (int j = 0; j < readCount; j++) {
+
+                  threadReadings[j] = clock.currentTime();
+               }
+            }
+         });
+         threads[i].start();
+      }
+
+      final Set<Time> allReadings = new HashSet<Time>(threadCount * readCount);
+      for (int i = 0; i < threadCount; i++) {
+
+         threads[i].join();
+         for (int j = 0; j < readCount; j++) {
+
+            assertTrue(allReadings.add(readings[i][j]));
+            if (j > 0) {
+
+               assertTrue(readings[i][j].compareTo(readings[i][j - 1]) > 0);
+            }
+         }
+      }
+   }
+
+
+   public void testCoarseTimeFallsBackToCurrentTimeMillisWithoutTicker() {
+
+      final StoppedWallClock wallClock = new StoppedWallClock(10000L);
+      final ClockImpl clockWithoutTicker = new ClockImpl(100L, 1000L, wallClock);
+      assertEquals(10000L, clockWithoutTicker.coarseTimeMillis());
+
+      wallClock.currentTimeMillis = 10003L;
+      assertEquals(10003L, clockWithoutTicker.coarseTimeMillis());
+   }
+
+
+   public void testTickAdvancesCoarseTime() {
+
+      final StoppedWallClock wallClock = new StoppedWallClock(10000L);
+      final ClockImpl tickedClock = new ClockImpl(100L, 1000L, wallClock);
+      tickedClock.tick();
+      assertEquals(10000L, tickedClock.coarseTimeMillis());
+
+      // Coarse time stays at the last tick until the next tick
+      wallClock.currentTimeMillis = 10003L;
+      assertEquals(10000L, tickedClock.coarseTimeMillis());
+      assertEquals(10003L, tickedClock.currentTimeMillis());
+
+      tickedClock.tick();
+      assertEquals(10003L, tickedClock.coarseTimeMillis());
+   }
+
+
+   public void testAttachTickerToAdvancesCoarseTime() throws InterruptedException {
+
+      clock.attachTickerTo(timer, ClockImpl.DEFAULT_TICK_PERIOD_MILLIS);
+      final long firstTickMillis = clock.coarseTimeMillis();
+      assertTrue(firstTickMillis <= clock.currentTimeMillis());
+
+      final long deadlineMillis = System.currentTimeMillis() + 5000L;
+      while (clock.coarseTimeMillis() == firstTickMillis && System.currentTimeMillis() < deadlineMillis) {
+
+         Thread.sleep(ClockImpl.DEFAULT_TICK_PERIOD_MILLIS);
+      }
+      assertTrue(clock.coarseTimeMillis() > firstTickMillis);
+   }
+
+
    public void testToString() {
 
       assertNotNull(clock.toString());
@@ -74,6 +187,27 @@ public final class ClockImplTest extends CacheonixTestCase {
    }
 
 
+   /**
+    * A wall clock that moves only when told to.
+    */
+   private static final class StoppedWallClock implements WallClock {
+
+      private long currentTimeMillis;
+
+
+      StoppedWallClock(final long currentTimeMillis) {
+
+         this.currentTimeMillis = currentTimeMillis;
+      }
+
+
+      public long currentTimeMillis() {
+
+         return currentTimeMillis;
+      }
+   }
+
+
    public String toString() {
 
       return "ClockTest{" +
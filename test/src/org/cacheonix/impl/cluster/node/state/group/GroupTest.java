@@ -60,6 +60,12 @@ public final class GroupTest extends CacheonixTestCase {
    }
 
 
+   public void testGetBucketCount() {
+
+      assertEquals(BUCKET_COUNT, group.getBucketCount());
+   }
+
+
    public void testSerialze() throws IOException {
 
       final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
@@ -118,7 +124,7 @@ public final class GroupTest extends CacheonixTestCase {
       final GroupMember member = new GroupMember(address, true, PARTITION_SIZE_BYTES);
       member.setCacheConfigName(NAME);
       group = new Group(NAME, Group.GROUP_TYPE_CACHE);
-      group.configurePartition(REPLICA_COUNT, PARTITION_SIZE_BYTES, MAX_SIZE);
+      group.configurePartition(BUCKET_COUNT, REPLICA_COUNT, PARTITION_SIZE_BYTES, MAX_SIZE);
       group.reattachGroupEventSubscriberList(new GroupEventSubscriberList());
       group.addMember(member);
    }
@@ -43,6 +43,8 @@ public final class JoinGroupMessageTest extends TestCase {
 
    private static final int MAX_SIZE = 2000;
 
+   private static final int BUCKET_COUNT = 4099;
+
 
    public void testToString() {
 
@@ -65,7 +67,9 @@ public final class JoinGroupMessageTest extends TestCase {
    public void testSerialize() throws IOException {
 
       final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
-      assertEquals(message, serializer.deserialize(serializer.serialize(message)));
+      final JoinGroupMessage deserializedMessage = (JoinGroupMessage) serializer.deserialize(serializer.serialize(message));
+      assertEquals(message, deserializedMessage);
+      assertEquals(BUCKET_COUNT, deserializedMessage.getBucketCount());
    }
 
 
@@ -74,6 +78,7 @@ public final class JoinGroupMessageTest extends TestCase {
       super.setUp();
       message = new JoinGroupMessage(TestUtils.createTestAddress(), CACHE_NAME, true, 1000000L, 1000000000L, MAX_SIZE);
       message.setCacheConfigName(CACHE_NAME);
+      message.setBucketCount(BUCKET_COUNT);
    }
 
 
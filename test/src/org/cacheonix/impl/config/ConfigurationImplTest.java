@@ -78,6 +78,8 @@ public final class ConfigurationImplTest extends TestCase {
 
       assertEquals(100, serverConfiguration.getSelectorTimeoutMillis());
       assertEquals(5000, serverConfiguration.getSocketTimeoutMillis());
+      assertFalse(serverConfiguration.isSeparateBulkConnection());
+      assertFalse(serverConfiguration.isLockAffinity());
       assertEquals(MULTICAST_ADDRESS, StringUtils.toString(multicastBroadcast.getMulticastAddress()));
       assertEquals(MULTICAST_PORT, multicastBroadcast.getMulticastPort());
       assertEquals(8877, serverConfiguration.getListener().getTcp().getPort());
@@ -109,6 +111,35 @@ public final class ConfigurationImplTest extends TestCase {
    }
 
 
+   public void testGetDefaultMaximumMulticastPacketSize() throws IOException {
+
+      final ClusterConfiguration clusterConfiguration = read(
+              TestConstants.CACHEONIX_CLUSTER_XML).getServer().getClusterConfiguration();
+      assertEquals(1468, clusterConfiguration.getMaximumMulticastPacketSize());
+   }
+
+
+   public void testGetDefaultFailureDetectorSettings() throws IOException {
+
+      final ClusterConfiguration clusterConfiguration = read(
+              TestConstants.CACHEONIX_CLUSTER_XML).getServer().getClusterConfiguration();
+      assertEquals(8.0, clusterConfiguration.getFailureDetectorThreshold(), 0.0);
+      assertEquals(1000L, clusterConfiguration.getFailureDetectorAcceptablePauseMillis());
+   }
+
+
+   public void testSetMaximumMulticastPacketSizeOutOfRange() {
+
+      final ClusterConfiguration clusterConfiguration = new ClusterConfiguration();
+      try {
+         clusterConfiguration.setMaximumMulticastPacketSize(65508);
+         fail("Expected exception but it was not thrown");
+      } catch (final IllegalArgumentException ignored) {
+         // Expected
+      }
+   }
+
+
    public void testGetDefaultClusterSurveyTimeout() throws IOException {
 
       final Long systemClusterSurveyTimeout = SystemProperty.CACHEONIX_CLUSTER_SURVEY_TIMEOUT_VALUE_MILLIS;
@@ -23,16 +23,17 @@ import org.cacheonix.impl.cluster.node.state.ReplicatedState;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.cluster.ClusterProcessor;
 import org.cacheonix.impl.net.cluster.ClusterProcessorState;
+import org.cacheonix.impl.net.cluster.ReplicatedStateTransfer;
 import org.cacheonix.impl.net.processor.InvalidMessageException;
 import org.cacheonix.impl.net.processor.Response;
 import org.cacheonix.impl.net.processor.UUID;
 import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.net.serializer.SerializerFactory;
 import org.cacheonix.impl.net.serializer.Wireable;
+import org.mockito.ArgumentCaptor;
 
 import static org.cacheonix.impl.lock.AcquireLockRequest.RESULT_LOCK_GRANTED;
 import static org.cacheonix.impl.lock.AcquireLockRequest.RESULT_LOCK_WAIT_EXPIRED;
-import static org.cacheonix.impl.net.ClusterNodeAddress.createAddress;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -94,7 +95,7 @@ public class AcquireLockRequestTest extends CacheonixTestCase {
 
    public void testGetReceiver() {
 
-      assertFalse(request.isReceiverSet());
+      assertTrue(request.getReceiver().isAddressOf(OWNER_ADDRESS));
    }
 
 
@@ -140,11 +141,14 @@ public class AcquireLockRequestTest extends CacheonixTestCase {
    }
 
 
-   public void testValidateFailsIfReceiverSet() throws IOException {
+   public void testValidateFailsIfReceiverNotSet() throws IOException {
 
       try {
-         request.setReceiver(createAddress("127.0.0.1", 9999));
-         request.validate();
+         final AcquireLockRequest requestWithoutReceiver = new AcquireLockRequest(TEST_LOCK_REGION, LOCK_KEY,
+                 OWNER_ADDRESS, threadID, threadName, READ_LOCK, forcedUnlockTime);
+         requestWithoutReceiver.setClusterUUID(UUID.randomUUID());
+         requestWithoutReceiver.setSender(OWNER_ADDRESS);
+         requestWithoutReceiver.validate();
       } catch (final InvalidMessageException expected) {
          return;
       }
@@ -170,29 +174,63 @@ public class AcquireLockRequestTest extends CacheonixTestCase {
    public void testExecute() {
 
       // Prepare
-      final ClusterProcessor clusterProcessor = mock(ClusterProcessor.class);
-      final ClusterProcessorState clusterProcessorState = mock(ClusterProcessorState.class);
-      final ReplicatedState replicatedState = mock(ReplicatedState.class);
-      final LockRegistry lockRegistry = mock(LockRegistry.class);
-      final LockQueue lockQueue = mock(LockQueue.class);
-
-      when(lockRegistry.getLockQueue(TEST_LOCK_REGION, LOCK_KEY)).thenReturn(lockQueue);
-      when(replicatedState.getLockRegistry()).thenReturn(lockRegistry);
-      when(clusterProcessorState.getReplicatedState()).thenReturn(replicatedState);
-      when(clusterProcessor.getProcessorState()).thenReturn(clusterProcessorState);
-      when(clusterProcessor.getAddress()).thenReturn(OWNER_ADDRESS);
+      final PartitionedLockManager lockManager = new PartitionedLockManager();
+      final ClusterProcessor clusterProcessor = mockClusterProcessor(lockManager, OWNER_ADDRESS);
       request.setProcessor(clusterProcessor);
 
-
       // Execute
       request.execute();
 
       // Verify
-      verify(lockQueue).grantLockRequest(request);
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, LOCK_KEY);
+      final LockQueue lockQueue = lockManager.findPartition(partition).getRegistry().findLockQueue(TEST_LOCK_REGION,
+              LOCK_KEY);
+      assertEquals(1, lockQueue.getReadLockOwners().size());
       verify(clusterProcessor).post(any(Response.class));
    }
 
 
+   public void testExecuteRejectsIfNotOwner() {
+
+      // Prepare
+      final PartitionedLockManager lockManager = new PartitionedLockManager();
+      final ClusterProcessor clusterProcessor = mockClusterProcessor(lockManager, OWNER_ADDRESS);
+      when(clusterProcessor.getAddress()).thenReturn(TestUtils.createTestAddress(2));
+      request.setProcessor(clusterProcessor);
+
+      // Execute
+      request.execute();
+
+      // Verify
+      final ArgumentCaptor<Response> captor = ArgumentCaptor.forClass(Response.class);
+      verify(clusterProcessor).post(captor.capture());
+      assertEquals(Response.RESULT_RETRY, captor.getValue().getResultCode());
+   }
+
+
+   /**
+    * Creates a cluster processor that owns all lock partitions.
+    */
+   static ClusterProcessor mockClusterProcessor(final PartitionedLockManager lockManager,
+           final ClusterNodeAddress address) {
+
+      final ClusterProcessor clusterProcessor = mock(ClusterProcessor.class);
+      final ClusterProcessorState clusterProcessorState = mock(ClusterProcessorState.class);
+      final ReplicatedState replicatedState = mock(ReplicatedState.class);
+      final LockPartitionAssignment assignment = new LockPartitionAssignment().addMember(address);
+
+      when(replicatedState.getLockPartitionAssignment()).thenReturn(assignment);
+      when(clusterProcessorState.getReplicatedState()).thenReturn(replicatedState);
+      when(clusterProcessorState.getReplicatedStateTransfer()).thenReturn(new ReplicatedStateTransfer());
+      when(clusterProcessorState.getPartitionedLockManager()).thenReturn(lockManager);
+      when(clusterProcessor.getProcessorState()).thenReturn(clusterProcessorState);
+      when(clusterProcessor.getAddress()).thenReturn(address);
+
+      lockManager.reassign(clusterProcessor, new LockPartitionAssignment(), assignment);
+      return clusterProcessor;
+   }
+
+
    protected void setUp() throws Exception {
 
       super.setUp();
@@ -206,5 +244,6 @@ public class AcquireLockRequestTest extends CacheonixTestCase {
               READ_LOCK, forcedUnlockTime);
       request.setClusterUUID(clusterUUID);
       request.setSender(OWNER_ADDRESS);
+      request.setReceiver(OWNER_ADDRESS);
    }
 }
@@ -0,0 +1,256 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cacheonix.Cacheonix;
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.ShutdownMode;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.util.MutableBoolean;
+import org.cacheonix.impl.util.logging.Logger;
+import org.cacheonix.locks.BrokenLockException;
+import org.cacheonix.locks.Lock;
+import org.cacheonix.locks.ReadWriteLock;
+
+/**
+ * Tester for distributed locks with lock affinity enabled.
+ */
+public final class DistributedLockAffinityTest extends CacheonixTestCase {
+
+   /**
+    * Logger.
+    *
+    * @noinspection UNUSED_SYMBOL, UnusedDeclaration
+    */
+   private static final Logger LOG = Logger.getLogger(DistributedLockAffinityTest.class); // NOPMD
+
+   /**
+    * Cacheonix configurations, one per cluster.
+    */
+   private static final String[] CACHEONIX_CONFIGURATIONS = {
+           "cacheonix-config-lock-affinity-member-1.xml",
+           "cacheonix-config-lock-affinity-member-2.xml"
+   };
+
+   /**
+    * List of cache managers.
+    */
+   private final List<Cacheonix> cacheManagerList = new ArrayList<Cacheonix>(2);
+
+
+   public void testRepeatedLockingOnSameNode() {
+
+      final Lock writeLock = cacheManagerList.get(0).getCluster().getReadWriteLock().writeLock();
+      for (int i = 0; i < 100; i++) {
+
+         writeLock.lock();
+         writeLock.unlock();
+      }
+   }
+
+
+   public void testOtherNodeCannotLockWhileLeaseIsHeld() throws InterruptedException {
+
+      final Lock writeLock0 = cacheManagerList.get(0).getCluster().getReadWriteLock().writeLock();
+      writeLock0.lock();
+      try {
+
+         assertFalse(cacheManagerList.get(1).getCluster().getReadWriteLock().writeLock().tryLock(100L));
+      } finally {
+         writeLock0.unlock();
+      }
+   }
+
+
+   public void testOtherNodeAcquiresUnlockedLease() throws InterruptedException {
+
+      final Lock writeLock0 = cacheManagerList.get(0).getCluster().getReadWriteLock().writeLock();
+      final Lock writeLock1 = cacheManagerList.get(1).getCluster().getReadWriteLock().writeLock();
+
+      // Node 0 keeps the lease after unlocking
+      writeLock0.lock();
+      writeLock0.unlock();
+
+      // Node 1 asks for the lock and gets it
+      assertTrue(writeLock1.tryLock(10000L));
+      writeLock1.unlock();
+
+      // Node 0 gets it back
+      assertTrue(writeLock0.tryLock(10000L));
+      writeLock0.unlock();
+   }
+
+
+   public void testWaitingNodeAcquiresLockWhenHolderUnlocks() throws InterruptedException {
+
+      final Lock writeLock0 = cacheManagerList.get(0).getCluster().getReadWriteLock().writeLock();
+      final Lock writeLock1 = cacheManagerList.get(1).getCluster().getReadWriteLock().writeLock();
+      final MutableBoolean acquired = new MutableBoolean();
+      writeLock0.lock();
+      final Thread thread;
+      try {
+
+         thread = new Thread(new Runnable() {
+
+            public void run() {
+
+               try {
+                  acquired.set(writeLock1.tryLock(10000L));
+                  if (acquired.get()) {
+                     writeLock1.unlock();
+                  }
+               } catch (final InterruptedException ignored) {
+                  Thread.currentThread().interrupt();
+               }
+            }
+         });
+         thread.start();
+
+         // Let node 1 enqueue
+         Thread.sleep(100L);
+      } finally {
+         writeLock0.unlock();
+      }
+
+      thread.join();
+      assertTrue(acquired.get());
+   }
+
+
+   public void testLocalThreadsExcludeEachOther() throws InterruptedException {
+
+      final Lock writeLock = cacheManagerList.get(0).getCluster().getReadWriteLock().writeLock();
+      final int[] counter = {0};
+      final AtomicInteger errors = new AtomicInteger();
+      final Thread[] threads = new Thread[4];
+      for (int i = 0; i < threads.length; i++) {
+
+         threads[i] = new Thread(new Runnable() {
+
+            public void run() {
+
+               for (int j = 0; j < 50; j++) {
+
+                  writeLock.lock();
+                  try {
+                     final int value = counter[0];
+                     Thread.yield();
+                     counter[0] = value + 1;
+                  } catch (final RuntimeException ignored) {
+                     errors.incrementAndGet();
+                  } finally {
+                     writeLock.unlock();
+                  }
+               }
+            }
+         });
+         threads[i].start();
+      }
+
+      for (final Thread thread : threads) {
+         thread.join();
+      }
+
+      assertEquals(0, errors.get());
+      writeLock.lock();
+      try {
+         assertEquals(threads.length * 50, counter[0]);
+      } finally {
+         writeLock.unlock();
+      }
+   }
+
+
+   public void testNestedWriteLocks() {
+
+      final Lock writeLock = cacheManagerList.get(0).getCluster().getReadWriteLock().writeLock();
+      writeLock.lock();
+      try {
+         writeLock.lock();
+         writeLock.unlock();
+      } finally {
+         writeLock.unlock();
+      }
+
+      try {
+         writeLock.unlock();
+         fail("Expected exception not thrown");
+      } catch (final BrokenLockException ignored) {
+         // Expected
+      }
+   }
+
+
+   public void testWriteLockAllowsRead() {
+
+      final ReadWriteLock readWriteLock = cacheManagerList.get(0).getCluster().getReadWriteLock();
+      readWriteLock.writeLock().lock();
+      try {
+         readWriteLock.readLock().lock();
+         readWriteLock.readLock().unlock();
+      } finally {
+         readWriteLock.writeLock().unlock();
+      }
+   }
+
+
+   public void testReadLockUpgradesToWrite() throws InterruptedException {
+
+      final ReadWriteLock readWriteLock = cacheManagerList.get(0).getCluster().getReadWriteLock();
+      readWriteLock.readLock().lock();
+      try {
+         assertTrue(readWriteLock.writeLock().tryLock(10000L));
+         readWriteLock.writeLock().unlock();
+      } finally {
+         readWriteLock.readLock().unlock();
+      }
+
+      // The lock is free
+      final Lock writeLock1 = cacheManagerList.get(1).getCluster().getReadWriteLock().writeLock();
+      assertTrue(writeLock1.tryLock(10000L));
+      writeLock1.unlock();
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      assertTrue(cacheManagerList.isEmpty());
+      for (final String configuration : CACHEONIX_CONFIGURATIONS) {
+         final Cacheonix manager = Cacheonix.getInstance(TestUtils.getTestFile(configuration).toString());
+         cacheManagerList.add(manager);
+      }
+
+      // Wait for cluster to form
+      waitForClusterToForm(cacheManagerList);
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      for (final Cacheonix cacheonix : cacheManagerList) {
+         if (!cacheonix.isShutdown()) {
+            cacheonix.shutdown(ShutdownMode.GRACEFUL_SHUTDOWN, true);
+         }
+      }
+      cacheManagerList.clear();
+
+      super.tearDown();
+   }
+}
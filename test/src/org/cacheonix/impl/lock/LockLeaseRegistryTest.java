@@ -0,0 +1,266 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.LinkedList;
+import java.util.concurrent.CountDownLatch;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.cluster.ClusterProcessorState;
+import org.cacheonix.impl.util.MutableBoolean;
+import org.cacheonix.locks.DeadlockException;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tester for LockLeaseRegistry.
+ */
+public final class LockLeaseRegistryTest extends CacheonixTestCase {
+
+   private static final String TEST_LOCK_REGION = "test.lock.region";
+
+   private static final Binary LOCK_KEY = toBinary("test.lock");
+
+   private static final LockQueueKey LOCK_QUEUE_KEY = new LockQueueKey(TEST_LOCK_REGION, LOCK_KEY);
+
+   private LockLeaseRegistry registry;
+
+   private ClusterNodeAddress address;
+
+   private ClusterProcessor processor;
+
+   private LockQueue lockQueue;
+
+
+   public void testIsDisabledByDefault() {
+
+      assertFalse(registry.isEnabled());
+   }
+
+
+   public void testGetLease() {
+
+      final LockLease lease = registry.getLease(LOCK_QUEUE_KEY);
+      assertSame(lease, registry.getLease(LOCK_QUEUE_KEY));
+      assertSame(lease, registry.findLease(LOCK_QUEUE_KEY));
+      assertTrue(registry.isCurrent(LOCK_QUEUE_KEY, lease));
+   }
+
+
+   public void testRemoveIfIdle() {
+
+      final LockLease lease = registry.getLease(LOCK_QUEUE_KEY);
+      lease.granted(null);
+      registry.removeIfIdle(LOCK_QUEUE_KEY, lease);
+      assertSame(lease, registry.findLease(LOCK_QUEUE_KEY));
+
+      lease.released();
+      registry.removeIfIdle(LOCK_QUEUE_KEY, lease);
+      assertNull(registry.findLease(LOCK_QUEUE_KEY));
+      assertFalse(registry.isCurrent(LOCK_QUEUE_KEY, lease));
+   }
+
+
+   public void testIsLeaseOwner() {
+
+      final LockOwner leaseOwner = new LockOwner(LockLeaseRegistry.LEASE_THREAD_ID, address,
+              LockLeaseRegistry.LEASE_THREAD_NAME, null, false);
+      assertTrue(LockLeaseRegistry.isLeaseOwner(leaseOwner, address));
+      assertFalse(LockLeaseRegistry.isLeaseOwner(leaseOwner, TestUtils.createTestAddress(9999)));
+      assertFalse(LockLeaseRegistry.isLeaseOwner(new LockOwner(1, address, "thread", null, false), address));
+      assertFalse(LockLeaseRegistry.isLeaseOwner(null, address));
+   }
+
+
+   public void testRevokeIfContendedAsksLeaseHolder() {
+
+      LockLeaseRegistry.revokeIfContended(processor, TEST_LOCK_REGION, LOCK_KEY, lockQueue);
+
+      final ArgumentCaptor<LockLeaseAnnouncement> captor = ArgumentCaptor.forClass(LockLeaseAnnouncement.class);
+      verify(processor).post(captor.capture());
+      assertTrue(captor.getValue().getReceiver().isAddressOf(address));
+   }
+
+
+   public void testRevokeReleasesIdleLease() {
+
+      final LockLease lease = registry.getLease(LOCK_QUEUE_KEY);
+      lease.granted(null);
+
+      registry.revoke(processor, TEST_LOCK_REGION, LOCK_KEY);
+
+      assertFalse(lease.isHeld());
+      assertTrue(lease.isRevokeRequested());
+      verify(processor).post(any(ReleaseLockRequest.class));
+   }
+
+
+   public void testRevokeLeavesHeldLeaseToHolder() throws InterruptedException {
+
+      final LockLease lease = registry.getLease(LOCK_QUEUE_KEY);
+      lease.granted(null);
+
+      final CountDownLatch lockedLatch = new CountDownLatch(1);
+      final CountDownLatch revokedLatch = new CountDownLatch(1);
+      final Thread holder = new Thread(new Runnable() {
+
+         public void run() {
+
+            lease.getLocalLock().lock();
+            try {
+               lockedLatch.countDown();
+               revokedLatch.await();
+            } catch (final InterruptedException ignored) {
+               Thread.currentThread().interrupt();
+            } finally {
+               lease.getLocalLock().unlock();
+            }
+         }
+      });
+      holder.start();
+      lockedLatch.await();
+
+      registry.revoke(processor, TEST_LOCK_REGION, LOCK_KEY);
+      revokedLatch.countDown();
+      holder.join();
+
+      assertTrue(lease.isHeld());
+      assertTrue(lease.isRevokeRequested());
+      verify(processor, never()).post(any(ReleaseLockRequest.class));
+   }
+
+
+   public void testRevokeIfContendedIgnoresUncontendedLease() {
+
+      lockQueue.getPendingRequests().clear();
+
+      LockLeaseRegistry.revokeIfContended(processor, TEST_LOCK_REGION, LOCK_KEY, lockQueue);
+
+      verify(processor, never()).post(any(LockLeaseAnnouncement.class));
+   }
+
+
+   public void testLeaseReleased() {
+
+      final LockLease lease = registry.getLease(LOCK_QUEUE_KEY);
+      lease.granted(null);
+      registry.leaseReleased(TEST_LOCK_REGION, LOCK_KEY);
+      assertFalse(lease.isHeld());
+   }
+
+
+   public void testInvalidate() {
+
+      final LockLease lease = registry.getLease(LOCK_QUEUE_KEY);
+      lease.granted(null);
+      registry.invalidate();
+      assertFalse(lease.isHeld());
+   }
+
+
+   public void testLockLocallyTimesOut() throws InterruptedException {
+
+      final LockLease lease = registry.getLease(LOCK_QUEUE_KEY);
+      final Thread holder = new Thread(new Runnable() {
+
+         public void run() {
+
+            lease.getLocalLock().lock();
+         }
+      });
+      holder.start();
+      holder.join();
+
+      assertFalse(registry.lockLocally(lease, 20L));
+   }
+
+
+   public void testLockLocallyDetectsDeadlock() throws InterruptedException {
+
+      final LockLease lease0 = registry.getLease(LOCK_QUEUE_KEY);
+      final LockLease lease1 = registry.getLease(new LockQueueKey(TEST_LOCK_REGION, toBinary("other.lock")));
+      final CountDownLatch lockedLatch = new CountDownLatch(1);
+      final MutableBoolean acquired = new MutableBoolean();
+      final Thread other = new Thread(new Runnable() {
+
+         public void run() {
+
+            assertTrue(registry.lockLocally(lease1, null));
+            try {
+               lockedLatch.countDown();
+               acquired.set(registry.lockLocally(lease0, 10000L));
+               if (acquired.get()) {
+                  lease0.getLocalLock().unlock();
+               }
+            } finally {
+               lease1.getLocalLock().unlock();
+            }
+         }
+      });
+
+      assertTrue(registry.lockLocally(lease0, null));
+      try {
+         other.start();
+         lockedLatch.await();
+
+         // Let the other thread begin waiting for the lease held by this thread
+         Thread.sleep(50L);
+
+         registry.lockLocally(lease1, 10000L);
+         fail("Expected exception not thrown");
+      } catch (final DeadlockException ignored) {
+         // Expected
+      } finally {
+         lease0.getLocalLock().unlock();
+      }
+
+      other.join();
+      assertTrue(acquired.get());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      registry = new LockLeaseRegistry();
+      address = TestUtils.createTestAddress();
+      processor = mock(ClusterProcessor.class);
+      when(processor.getAddress()).thenReturn(address);
+
+      final ReplicatedState replicatedState = mock(ReplicatedState.class);
+      when(replicatedState.getLockPartitionAssignment()).thenReturn(
+              new LockPartitionAssignment().addMember(address));
+      final ClusterProcessorState processorState = mock(ClusterProcessorState.class);
+      when(processorState.getReplicatedState()).thenReturn(replicatedState);
+      when(processor.getProcessorState()).thenReturn(processorState);
+
+      final LinkedList<AcquireLockRequest> pendingRequests = new LinkedList<AcquireLockRequest>(); // NOPMD
+      pendingRequests.add(new AcquireLockRequest());
+      lockQueue = mock(LockQueue.class);
+      when(lockQueue.getPendingRequests()).thenReturn(pendingRequests);
+      when(lockQueue.getWriteLockOwner()).thenReturn(new LockOwner(LockLeaseRegistry.LEASE_THREAD_ID, address,
+              LockLeaseRegistry.LEASE_THREAD_NAME, null, false));
+   }
+}
@@ -0,0 +1,182 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.Collections;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.cacheonix.impl.net.serializer.Wireable;
+
+import static org.cacheonix.impl.lock.LockPartitionAssignment.PARTITION_COUNT;
+
+/**
+ * Tester for LockPartitionAssignment.
+ */
+public final class LockPartitionAssignmentTest extends CacheonixTestCase {
+
+   private static final ClusterNodeAddress ADDRESS_1 = TestUtils.createTestAddress(1);
+
+   private static final ClusterNodeAddress ADDRESS_2 = TestUtils.createTestAddress(2);
+
+   private static final ClusterNodeAddress ADDRESS_3 = TestUtils.createTestAddress(3);
+
+   private LockPartitionAssignment assignment;
+
+
+   public void testEmptyAssignmentHasNoOwners() {
+
+      final LockPartitionAssignment empty = new LockPartitionAssignment();
+      assertEquals(0L, empty.getVersion());
+      assertTrue(empty.getMembers().isEmpty());
+      assertNull(empty.getPrimaryOwner(0));
+      assertNull(empty.getBackupOwner(0));
+   }
+
+
+   public void testSingleMemberOwnsAllPartitions() {
+
+      final LockPartitionAssignment single = new LockPartitionAssignment().addMember(ADDRESS_1);
+      for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+
+         assertEquals(ADDRESS_1, single.getPrimaryOwner(partition));
+         assertNull(single.getBackupOwner(partition));
+      }
+   }
+
+
+   public void testBackupOwnerDiffersFromPrimaryOwner() {
+
+      for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+
+         assertNotNull(assignment.getPrimaryOwner(partition));
+         assertNotNull(assignment.getBackupOwner(partition));
+         assertFalse(assignment.getPrimaryOwner(partition).equals(assignment.getBackupOwner(partition)));
+      }
+   }
+
+
+   public void testPartitionsAreSpreadOverMembers() {
+
+      int ownedByFirst = 0;
+      for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+
+         if (ADDRESS_1.equals(assignment.getPrimaryOwner(partition))) {
+
+            ownedByFirst++;
+         }
+      }
+
+      assertTrue(ownedByFirst > PARTITION_COUNT / 6);
+      assertTrue(ownedByFirst < PARTITION_COUNT / 2);
+   }
+
+
+   public void testAddMemberIncrementsVersion() {
+
+      assertEquals(3L, assignment.getVersion());
+      assertSame(assignment, assignment.addMember(ADDRESS_2));
+   }
+
+
+   public void testAddMemberDoesNotDependOnOrder() {
+
+      final LockPartitionAssignment reversed = new LockPartitionAssignment().addMember(ADDRESS_3).addMember(
+              ADDRESS_2).addMember(ADDRESS_1);
+      assertEquals(assignment, reversed);
+      for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+
+         assertEquals(assignment.getPrimaryOwner(partition), reversed.getPrimaryOwner(partition));
+         assertEquals(assignment.getBackupOwner(partition), reversed.getBackupOwner(partition));
+      }
+   }
+
+
+   /**
+    * Tests that only the partitions of the left member move and that its backup takes them over.
+    */
+   public void testRemoveMembersMovesOnlyPartitionsOfLeftMember() {
+
+      final LockPartitionAssignment reduced = assignment.removeMembers(Collections.singletonList(ADDRESS_3));
+      assertEquals(4L, reduced.getVersion());
+      assertFalse(reduced.contains(ADDRESS_3));
+      for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+
+         final ClusterNodeAddress primaryOwner = assignment.getPrimaryOwner(partition);
+         if (ADDRESS_3.equals(primaryOwner)) {
+
+            assertEquals(assignment.getBackupOwner(partition), reduced.getPrimaryOwner(partition));
+         } else {
+
+            assertEquals(primaryOwner, reduced.getPrimaryOwner(partition));
+         }
+      }
+   }
+
+
+   public void testRemoveMembersReturnsSameIfNotMember() {
+
+      assertSame(assignment, assignment.removeMembers(Collections.singletonList(TestUtils.createTestAddress(4))));
+   }
+
+
+   public void testGetPartition() {
+
+      final int partition = LockPartitionAssignment.getPartition("test.region", toBinary("key"));
+      assertTrue(partition >= 0 && partition < PARTITION_COUNT);
+      assertEquals(partition, LockPartitionAssignment.getPartition("test.region", toBinary("key")));
+      assertEquals(assignment.getPrimaryOwner(partition), assignment.getPrimaryOwner("test.region", toBinary("key")));
+   }
+
+
+   public void testSerializeDeserialize() throws Exception {
+
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final LockPartitionAssignment restored = (LockPartitionAssignment) ser.deserialize(ser.serialize(assignment));
+      assertEquals(assignment, restored);
+      for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+
+         assertEquals(assignment.getPrimaryOwner(partition), restored.getPrimaryOwner(partition));
+         assertEquals(assignment.getBackupOwner(partition), restored.getBackupOwner(partition));
+      }
+   }
+
+
+   public void testGetWireableType() {
+
+      assertEquals(Wireable.TYPE_LOCK_PARTITION_ASSIGNMENT, assignment.getWireableType());
+   }
+
+
+   public void testHashCode() {
+
+      assertTrue(assignment.hashCode() != 0);
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(assignment.toString());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+      assignment = new LockPartitionAssignment().addMember(ADDRESS_1).addMember(ADDRESS_2).addMember(ADDRESS_3);
+   }
+}
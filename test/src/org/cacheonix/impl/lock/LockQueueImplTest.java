@@ -89,6 +89,32 @@ public class LockQueueImplTest extends CacheonixTestCase {
    }
 
 
+   public void testSerializeDeserializeWithReadLockOwners() throws IOException {
+
+      lockQueue.grantLockRequest(request);
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final LockQueue actual = (LockQueue) ser.deserialize(ser.serialize(lockQueue));
+      assertEquals(lockQueue, actual);
+      assertEquals(1, actual.getReadLockOwners().size());
+   }
+
+
+   public void testIsEmpty() {
+
+      assertTrue(lockQueue.isEmpty());
+
+      lockQueue.getPendingRequests().add(request);
+      assertFalse(lockQueue.isEmpty());
+   }
+
+
+   public void testIsEmptyWhenLockGranted() {
+
+      lockQueue.grantLockRequest(request);
+      assertFalse(lockQueue.isEmpty());
+   }
+
+
    public void testIsReadLock() {
 
       assertEquals(READ_LOCK, request.isReadLock());
@@ -90,6 +90,51 @@ public class LockRegistryImplTest extends CacheonixTestCase {
    }
 
 
+   public void testSerializeSkipsEmptyQueues() throws IOException {
+
+      registry.getLockQueue(TEST_LOCK_REGION, toBinary("empty.lock"));
+      final LockQueue lockQueue = registry.getLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK));
+      lockQueue.getPendingRequests().add(request);
+      assertEquals(2, registry.getLockQueues().size());
+
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final LockRegistry actual = (LockRegistry) ser.deserialize(ser.serialize(registry));
+      assertEquals(1, actual.getLockQueues().size());
+      assertEquals(request, actual.getLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK)).getPendingRequests().peek());
+   }
+
+
+   public void testFindLockQueue() {
+
+      assertNull(registry.findLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK)));
+      assertTrue(registry.getLockQueues().isEmpty());
+
+      final LockQueue lockQueue = registry.getLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK));
+      assertSame(lockQueue, registry.findLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK)));
+   }
+
+
+   public void testRemoveLockQueueIfEmpty() {
+
+      registry.getLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK));
+
+      registry.removeLockQueueIfEmpty(TEST_LOCK_REGION, toBinary(TEST_LOCK));
+
+      assertNull(registry.findLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK)));
+   }
+
+
+   public void testRemoveLockQueueIfEmptyKeepsNonEmptyQueue() {
+
+      final LockQueue lockQueue = registry.getLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK));
+      lockQueue.getPendingRequests().add(request);
+
+      registry.removeLockQueueIfEmpty(TEST_LOCK_REGION, toBinary(TEST_LOCK));
+
+      assertSame(lockQueue, registry.findLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK)));
+   }
+
+
    public void testIsReadLock() {
 
       assertEquals(READ_LOCK, request.isReadLock());
@@ -0,0 +1,419 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.lock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.cache.item.Binary;
+import org.cacheonix.impl.clock.Clock;
+import org.cacheonix.impl.clock.TimeImpl;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.cluster.node.state.ReplicatedStateImpl;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.cluster.ClusterProcessorState;
+import org.cacheonix.impl.net.cluster.ReplicatedStateTransfer;
+import org.cacheonix.impl.net.processor.Message;
+import org.cacheonix.impl.net.processor.Response;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tester for PartitionedLockManager.
+ */
+public final class PartitionedLockManagerTest extends CacheonixTestCase {
+
+   private static final String TEST_LOCK_REGION = "test.lock.region";
+
+   private static final ClusterNodeAddress ADDRESS_A = TestUtils.createTestAddress(1);
+
+   private static final ClusterNodeAddress ADDRESS_B = TestUtils.createTestAddress(2);
+
+   private PartitionedLockManager lockManager;
+
+   private ClusterProcessor processor;
+
+   private ReplicatedState replicatedState;
+
+   private Clock clock;
+
+   /**
+    * The address of the node the lock manager runs on or <code>null</code> if it has not joined yet.
+    */
+   private ClusterNodeAddress self;
+
+
+   public void testAloneOwnsAllPartitions() {
+
+      joinSelf(ADDRESS_A);
+
+      for (int partition = 0; partition < LockPartitionAssignment.PARTITION_COUNT; partition++) {
+
+         assertTrue(lockManager.findPartition(partition).isActive());
+      }
+   }
+
+
+   public void testUncontendedAcquireIsGrantedAndReplicated() {
+
+      joinSelf(ADDRESS_A);
+      joinOther(ADDRESS_B);
+      final Binary lockKey = findLockKey(ADDRESS_A);
+      reset(processor);
+      initProcessor();
+
+      createAcquireLockRequest(lockKey, 1, ADDRESS_A).execute();
+
+      final List<Message> posted = capturePosted();
+      assertEquals(2, posted.size());
+      assertTrue(posted.get(0) instanceof Response);
+      final LockQueueBackup backup = (LockQueueBackup) posted.get(1);
+      assertTrue(backup.getReceiver().isAddressOf(ADDRESS_B));
+      assertNotNull(backup.getLockQueue().getWriteLockOwner());
+   }
+
+
+   public void testHandOffToJoinedMember() {
+
+      joinSelf(ADDRESS_A);
+      final Binary lockKey = findLockKey(ADDRESS_B, ADDRESS_A);
+      final AcquireLockRequest holder = createAcquireLockRequest(lockKey, 1, ADDRESS_A);
+      holder.execute();
+      createAcquireLockRequest(lockKey, 2, ADDRESS_A).execute();
+      reset(processor);
+      initProcessor();
+
+      joinOther(ADDRESS_B);
+
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, lockKey);
+      assertFalse(lockManager.findPartition(partition).isActive());
+      assertNotNull(lockManager.findPartition(partition).getBackup());
+
+      LockPartitionTransfer handOff = null;
+      int retries = 0;
+      for (final Message message : capturePosted()) {
+
+         if (message instanceof LockPartitionTransfer && ((LockPartitionTransfer) message).getPartition() == partition) {
+
+            handOff = (LockPartitionTransfer) message;
+         } else if (message instanceof Response && ((Response) message).getResultCode() == Response.RESULT_RETRY) {
+
+            retries++;
+         }
+      }
+      assertNotNull(handOff);
+      assertFalse(handOff.isBackup());
+      assertTrue(handOff.getReceiver().isAddressOf(ADDRESS_B));
+      assertEquals(1, retries);
+      final LockQueue lockQueue = handOff.getRegistry().findLockQueue(TEST_LOCK_REGION, lockKey);
+      assertTrue(lockQueue.getWriteLockOwner().cameFromRequester(holder));
+      assertTrue(lockQueue.getPendingRequests().isEmpty());
+   }
+
+
+   public void testJoinerParksRequestsUntilHandOff() {
+
+      joinOther(ADDRESS_A);
+      joinSelf(ADDRESS_B);
+      final Binary lockKey = findLockKey(ADDRESS_B);
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, lockKey);
+      assertTrue(lockManager.findPartition(partition).isAwaiting());
+
+      // Request arrives before the hand-off
+      createAcquireLockRequest(lockKey, 1, ADDRESS_A).execute();
+      assertFalse(lockManager.findPartition(partition).isActive());
+
+      // Hand-off arrives
+      final LockPartitionTransfer handOff = new LockPartitionTransfer(partition, getAssignment().getVersion(), false,
+              new LockRegistryImpl());
+      handOff.setSender(ADDRESS_A);
+      handOff.setReceiver(ADDRESS_B);
+      lockManager.receive(processor, handOff);
+
+      assertTrue(lockManager.findPartition(partition).isActive());
+      final LockQueue lockQueue = lockManager.findPartition(partition).getRegistry().findLockQueue(TEST_LOCK_REGION,
+              lockKey);
+      assertNotNull(lockQueue.getWriteLockOwner());
+   }
+
+
+   public void testHandOffTimeoutActivatesPartition() {
+
+      joinOther(ADDRESS_A);
+      joinSelf(ADDRESS_B);
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, findLockKey(ADDRESS_B));
+      assertTrue(lockManager.findPartition(partition).isAwaiting());
+
+      advance(PartitionedLockManager.HAND_OFF_TIMEOUT_MILLIS);
+      lockManager.processTimeouts(processor);
+
+      assertTrue(lockManager.findPartition(partition).isActive());
+   }
+
+
+   public void testBackupOwnerTakesOverWhenPrimaryOwnerLeaves() {
+
+      joinOther(ADDRESS_A);
+      joinSelf(ADDRESS_B);
+      final Binary lockKey = findLockKey(ADDRESS_A);
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, lockKey);
+
+      // Receive a backup from the primary owner
+      final LockQueue lockQueue = createLockQueue(lockKey, ADDRESS_B);
+      final LockQueueBackup backup = new LockQueueBackup(partition, getAssignment().getVersion(),
+              new LockQueueKey(TEST_LOCK_REGION, lockKey), lockQueue);
+      backup.setSender(ADDRESS_A);
+      backup.setReceiver(ADDRESS_B);
+      lockManager.receive(processor, backup);
+
+      // Primary owner leaves
+      final LockPartitionAssignment previous = getAssignment();
+      replicatedState.notifyClusterNodesLeft(Collections.singletonList(ADDRESS_A));
+      lockManager.reassign(processor, previous, getAssignment());
+
+      final LockPartition lockPartition = lockManager.findPartition(partition);
+      assertTrue(lockPartition.isActive());
+      assertNotNull(lockPartition.getRegistry().findLockQueue(TEST_LOCK_REGION, lockKey).getWriteLockOwner());
+   }
+
+
+   public void testBackupFromNonOwnerIsIgnored() {
+
+      joinOther(ADDRESS_A);
+      joinSelf(ADDRESS_B);
+      final Binary lockKey = findLockKey(ADDRESS_A);
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, lockKey);
+
+      final LockQueue lockQueue = createLockQueue(lockKey, ADDRESS_B);
+      final LockQueueBackup backup = new LockQueueBackup(partition, getAssignment().getVersion(),
+              new LockQueueKey(TEST_LOCK_REGION, lockKey), lockQueue);
+      backup.setSender(TestUtils.createTestAddress(3));
+      backup.setReceiver(ADDRESS_B);
+      lockManager.receive(processor, backup);
+
+      final LockPartition lockPartition = lockManager.findPartition(partition);
+      assertTrue(lockPartition == null || lockPartition.getBackup() == null);
+   }
+
+
+   public void testMessageForNewerAssignmentIsDeferred() {
+
+      joinSelf(ADDRESS_A);
+      final Binary lockKey = findLockKey(ADDRESS_B, ADDRESS_A);
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, lockKey);
+      final long nextVersion = getAssignment().getVersion() + 1L;
+
+      // Backup sent by B that has already seen itself join and activated the partition
+      final LockQueue lockQueue = createLockQueue(lockKey, ADDRESS_B);
+      final LockQueueBackup backup = new LockQueueBackup(partition, nextVersion,
+              new LockQueueKey(TEST_LOCK_REGION, lockKey), lockQueue);
+      backup.setSender(ADDRESS_B);
+      backup.setReceiver(ADDRESS_A);
+      lockManager.receive(processor, backup);
+      assertNull(lockManager.findPartition(partition).getBackup());
+
+      joinOther(ADDRESS_B);
+
+      final LockRegistry backupRegistry = lockManager.findPartition(partition).getBackup();
+      assertNotNull(backupRegistry.findLockQueue(TEST_LOCK_REGION, lockKey));
+   }
+
+
+   public void testExpiredLockIsReleased() {
+
+      joinSelf(ADDRESS_A);
+      final Binary lockKey = findLockKey(ADDRESS_A);
+      final AcquireLockRequest request = new AcquireLockRequest(TEST_LOCK_REGION, lockKey, ADDRESS_A, 1, "thread1",
+              false, new TimeImpl(clock.currentTimeMillis() + 1000L, 0L));
+      prepare(request);
+      request.execute();
+      reset(processor);
+      initProcessor();
+
+      advance(1001L);
+      lockManager.processTimeouts(processor);
+
+      final ArgumentCaptor<ReleaseLockRequest> captor = ArgumentCaptor.forClass(ReleaseLockRequest.class);
+      verify(processor).post(captor.capture());
+      assertFalse(captor.getValue().isResponseRequired());
+      assertTrue(captor.getValue().getReceiver().isAddressOf(ADDRESS_A));
+   }
+
+
+   public void testClear() {
+
+      joinSelf(ADDRESS_A);
+      lockManager.clear();
+      assertNull(lockManager.findPartition(0));
+   }
+
+
+   public void testSerializeTransfer() throws Exception {
+
+      final LockRegistry registry = new LockRegistryImpl();
+      registry.getLockQueues().put(new LockQueueKey(TEST_LOCK_REGION, toBinary("key")),
+              createLockQueue(toBinary("key"), ADDRESS_A));
+      final LockPartitionTransfer transfer = new LockPartitionTransfer(7, 3L, true, registry);
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      assertEquals(transfer, ser.deserialize(ser.serialize(transfer)));
+   }
+
+
+   public void testSerializeBackup() throws Exception {
+
+      final LockQueue lockQueue = createLockQueue(toBinary("key"), ADDRESS_A);
+      final LockQueueBackup backup = new LockQueueBackup(7, 3L, new LockQueueKey(TEST_LOCK_REGION, toBinary("key")),
+              lockQueue);
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      assertEquals(backup, ser.deserialize(ser.serialize(backup)));
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(lockManager.toString());
+   }
+
+
+   private void joinSelf(final ClusterNodeAddress address) {
+
+      self = address;
+      when(processor.getAddress()).thenReturn(address);
+      replicatedState.notifyClusterNodeJoined(address);
+      final LockPartitionAssignment current = getAssignment();
+      lockManager.reassign(processor, current.removeMembers(Collections.singletonList(address)), current);
+   }
+
+
+   private void joinOther(final ClusterNodeAddress address) {
+
+      final LockPartitionAssignment previous = getAssignment();
+      replicatedState.notifyClusterNodeJoined(address);
+      if (self != null) {
+
+         lockManager.reassign(processor, previous, getAssignment());
+      }
+   }
+
+
+   /**
+    * Finds a lock key which partition is owned by the given primary owner after both members have joined.
+    */
+   private Binary findLockKey(final ClusterNodeAddress primaryOwner) {
+
+      return findLockKey(primaryOwner, primaryOwner.equals(ADDRESS_A) ? ADDRESS_B : ADDRESS_A);
+   }
+
+
+   private static Binary findLockKey(final ClusterNodeAddress primaryOwner, final ClusterNodeAddress otherMember) {
+
+      final LockPartitionAssignment assignment = new LockPartitionAssignment().addMember(primaryOwner).addMember(
+              otherMember);
+      for (int i = 0; ; i++) {
+
+         final Binary lockKey = toBinary("key" + i);
+         if (primaryOwner.equals(assignment.getPrimaryOwner(TEST_LOCK_REGION, lockKey))) {
+
+            return lockKey;
+         }
+      }
+   }
+
+
+   private LockQueue createLockQueue(final Binary lockKey, final ClusterNodeAddress ownerAddress) {
+
+      final LockQueue lockQueue = new LockQueueImpl();
+      lockQueue.grantLockRequest(new AcquireLockRequest(TEST_LOCK_REGION, lockKey, ownerAddress, 1, "thread1", false,
+              getClock().currentTime().add(10000L)));
+      return lockQueue;
+   }
+
+
+   private AcquireLockRequest createAcquireLockRequest(final Binary lockKey, final int threadID,
+           final ClusterNodeAddress ownerAddress) {
+
+      final AcquireLockRequest request = new AcquireLockRequest(TEST_LOCK_REGION, lockKey, ownerAddress, threadID,
+              "thread" + threadID, false, getClock().currentTime().add(10000L));
+      prepare(request);
+      return request;
+   }
+
+
+   private void prepare(final LockRequest request) {
+
+      request.setSender(request.getOwnerAddress());
+      request.setReceiver(processor.getAddress());
+      request.setProcessor(processor);
+   }
+
+
+   private List<Message> capturePosted() {
+
+      final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+      verify(processor, atLeastOnce()).post(captor.capture());
+      return new ArrayList<Message>(captor.getAllValues());
+   }
+
+
+   private LockPartitionAssignment getAssignment() {
+
+      return replicatedState.getLockPartitionAssignment();
+   }
+
+
+   private void advance(final long millis) {
+
+      final long currentTimeMillis = clock.currentTimeMillis() + millis;
+      when(clock.currentTimeMillis()).thenReturn(currentTimeMillis);
+      when(clock.currentTime()).thenReturn(new TimeImpl(currentTimeMillis, 0L));
+   }
+
+
+   private void initProcessor() {
+
+      final ClusterProcessorState processorState = mock(ClusterProcessorState.class);
+      when(processorState.getReplicatedState()).thenReturn(replicatedState);
+      when(processorState.getReplicatedStateTransfer()).thenReturn(new ReplicatedStateTransfer());
+      when(processorState.getPartitionedLockManager()).thenReturn(lockManager);
+      when(processor.getProcessorState()).thenReturn(processorState);
+      when(processor.getClock()).thenReturn(clock);
+      when(processor.getAddress()).thenReturn(self);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      lockManager = new PartitionedLockManager();
+      replicatedState = new ReplicatedStateImpl();
+      clock = mock(Clock.class);
+      when(clock.currentTimeMillis()).thenReturn(getClock().currentTimeMillis());
+      when(clock.currentTime()).thenReturn(getClock().currentTime());
+      processor = mock(ClusterProcessor.class);
+      initProcessor();
+   }
+}
@@ -18,6 +18,8 @@ import java.io.IOException;
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.TestUtils;
 import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.cluster.ClusterProcessor;
+import org.cacheonix.impl.net.processor.UUID;
 import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.net.serializer.SerializerFactory;
 import org.cacheonix.impl.net.serializer.Wireable;
@@ -37,6 +39,8 @@ public final class WaitForLockExpiredAnnouncementTest extends CacheonixTestCase
 
    private String threadName;
 
+   private UUID requestUUID;
+
    private static final ClusterNodeAddress OWNER_ADDRESS = TestUtils.createTestAddress(1);
 
 
@@ -70,7 +74,57 @@ public final class WaitForLockExpiredAnnouncementTest extends CacheonixTestCase
 
    public void testGetReceiver() {
 
-      assertFalse(request.isReceiverSet());
+      assertTrue(request.getReceiver().isAddressOf(OWNER_ADDRESS));
+   }
+
+
+   public void testGetRequestUUID() {
+
+      assertEquals(requestUUID, request.getRequestUUID());
+   }
+
+
+   public void testExecuteRemovesPendingRequest() {
+
+      // Prepare
+      final PartitionedLockManager lockManager = new PartitionedLockManager();
+      final ClusterProcessor clusterProcessor = AcquireLockRequestTest.mockClusterProcessor(lockManager, OWNER_ADDRESS);
+      final AcquireLockRequest holderRequest = createAcquireLockRequest(threadID + 1, clusterProcessor);
+      holderRequest.execute();
+      final AcquireLockRequest waitingRequest = createAcquireLockRequest(threadID, clusterProcessor);
+      waitingRequest.execute();
+      final LockQueue lockQueue = findLockQueue(lockManager);
+      assertEquals(1, lockQueue.getPendingRequests().size());
+
+      // Execute
+      request = new WaitForLockExpiredAnnouncement(TEST_LOCK_REGION, toBinary(TEST_LOCK), OWNER_ADDRESS, threadID,
+              threadName, false, waitingRequest.getUuid());
+      request.setSender(OWNER_ADDRESS);
+      request.setReceiver(OWNER_ADDRESS);
+      request.setProcessor(clusterProcessor);
+      request.execute();
+
+      // Verify
+      assertTrue(lockQueue.getPendingRequests().isEmpty());
+      assertNotNull(lockQueue.getWriteLockOwner());
+   }
+
+
+   private AcquireLockRequest createAcquireLockRequest(final int ownerThreadID, final ClusterProcessor processor) {
+
+      final AcquireLockRequest result = new AcquireLockRequest(TEST_LOCK_REGION, toBinary(TEST_LOCK), OWNER_ADDRESS,
+              ownerThreadID, threadName, false, getClock().currentTime().add(10000L));
+      result.setSender(OWNER_ADDRESS);
+      result.setReceiver(OWNER_ADDRESS);
+      result.setProcessor(processor);
+      return result;
+   }
+
+
+   private static LockQueue findLockQueue(final PartitionedLockManager lockManager) {
+
+      final int partition = LockPartitionAssignment.getPartition(TEST_LOCK_REGION, toBinary(TEST_LOCK));
+      return lockManager.findPartition(partition).getRegistry().findLockQueue(TEST_LOCK_REGION, toBinary(TEST_LOCK));
    }
 
 
@@ -111,8 +165,11 @@ public final class WaitForLockExpiredAnnouncementTest extends CacheonixTestCase
       final Thread currentThread = Thread.currentThread();
       threadID = System.identityHashCode(currentThread);
       threadName = currentThread.getName();
-      request = new WaitForLockExpiredAnnouncement(TEST_LOCK_REGION, toBinary(TEST_LOCK), OWNER_ADDRESS, threadID, threadName, false);
+      requestUUID = UUID.randomUUID();
+      request = new WaitForLockExpiredAnnouncement(TEST_LOCK_REGION, toBinary(TEST_LOCK), OWNER_ADDRESS, threadID,
+              threadName, false, requestUUID);
       request.setSender(OWNER_ADDRESS);
+      request.setReceiver(OWNER_ADDRESS);
    }
 }
 
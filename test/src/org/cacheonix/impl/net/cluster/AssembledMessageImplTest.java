@@ -24,6 +24,8 @@ public final class AssembledMessageImplTest extends TestCase {
 
    private static final long START_FRAME = 7777L;
 
+   private static final long END_FRAME = 7779L;
+
    private BucketTransferCompletedAnnouncement message;
 
    private AssembledMessageImpl assembledMessage;
@@ -41,6 +43,12 @@ public final class AssembledMessageImplTest extends TestCase {
    }
 
 
+   public void testGetEndFrameNumber() {
+
+      assertEquals(END_FRAME, assembledMessage.getEndFrameNumber());
+   }
+
+
    public void testToString() {
 
       assertNotNull(assembledMessage.toString());
@@ -52,7 +60,7 @@ public final class AssembledMessageImplTest extends TestCase {
       super.setUp();
 
       message = new BucketTransferCompletedAnnouncement("cache.name");
-      assembledMessage = new AssembledMessageImpl(message, START_FRAME);
+      assembledMessage = new AssembledMessageImpl(message, START_FRAME, END_FRAME);
    }
 
 
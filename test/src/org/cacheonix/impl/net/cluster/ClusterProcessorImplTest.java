@@ -514,7 +514,8 @@ public final class ClusterProcessorImplTest extends CacheonixTestCase {
 
       return new ClusterProcessorImpl(TEST_CLUSTER_NAME, getClock(), getTimer(), router, multicastSender, newAddress,
               HOME_ALONE_TIMEOUT_MILLIS, WORST_CASE_LATENCY_MILLIS, GRACEFUL_SHUTDOWN_TIMEOUT_MILLIS,
-              CLUSTER_SURVEY_TIMEOUT_MILLS, CLUSTER_ANNOUNCEMENT_TIMEOUT_MILLS, initialClusterUUID);
+              CLUSTER_SURVEY_TIMEOUT_MILLS, CLUSTER_ANNOUNCEMENT_TIMEOUT_MILLS, Frame.MAXIMUM_MULTICAST_PACKET_SIZE,
+              initialClusterUUID);
    }
 
 
@@ -0,0 +1,148 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import junit.framework.TestCase;
+import org.cacheonix.impl.net.processor.Frame;
+
+/**
+ * Tester for {@link FrameRingBuffer}.
+ */
+public final class FrameRingBufferTest extends TestCase {
+
+   private static final byte[] PART = {(byte) 0};
+
+   private FrameRingBuffer buffer;
+
+
+   public void testPutGet() {
+
+      final Frame frame = makeFrame(100L);
+      buffer.put(100L, frame);
+      assertSame(frame, buffer.get(100L));
+      assertNull(buffer.get(99L));
+      assertNull(buffer.get(101L));
+      assertEquals(1, buffer.size());
+      assertEquals(100L, buffer.getFirstSequenceNumber());
+      assertEquals(100L, buffer.getLastSequenceNumber());
+   }
+
+
+   public void testGetContinuousEnd() {
+
+      buffer.put(1L, makeFrame(1L));
+      buffer.put(2L, makeFrame(2L));
+      buffer.put(4L, makeFrame(4L));
+      assertEquals(2L, buffer.getContinuousEnd(1L));
+      assertEquals(2L, buffer.getContinuousEnd(3L));
+      assertEquals(4L, buffer.getContinuousEnd(4L));
+
+      buffer.put(3L, makeFrame(3L));
+      assertEquals(4L, buffer.getContinuousEnd(1L));
+   }
+
+
+   public void testGetContinuousEndAcrossWords() {
+
+      for (long i = 10L; i < 210L; i++) {
+         buffer.put(i, makeFrame(i));
+      }
+      assertEquals(209L, buffer.getContinuousEnd(10L));
+   }
+
+
+   public void testRemoveFirstSkipsGap() {
+
+      buffer.put(1L, makeFrame(1L));
+      buffer.put(70L, makeFrame(70L));
+      assertEquals(1L, buffer.removeFirst().getSequenceNumber());
+      assertEquals(70L, buffer.getFirstSequenceNumber());
+      assertEquals(70L, buffer.removeFirst().getSequenceNumber());
+      assertTrue(buffer.isEmpty());
+      assertNull(buffer.removeFirst());
+   }
+
+
+   public void testPutBeforeFirst() {
+
+      buffer.put(10L, makeFrame(10L));
+      buffer.put(5L, makeFrame(5L));
+      assertEquals(5L, buffer.getFirstSequenceNumber());
+      assertEquals(10L, buffer.getLastSequenceNumber());
+      assertEquals(5L, buffer.get(5L).getSequenceNumber());
+      assertEquals(10L, buffer.get(10L).getSequenceNumber());
+   }
+
+
+   public void testWrapAround() {
+
+      final int capacity = buffer.capacity();
+      for (long i = 0L; i < (long) (3 * capacity); i++) {
+         buffer.put(i, makeFrame(i));
+         if (i >= 10L) {
+            assertEquals(i - 10L, buffer.removeFirst().getSequenceNumber());
+         }
+      }
+      assertEquals(capacity, buffer.capacity());
+      assertEquals(10, buffer.size());
+      assertEquals((long) (3 * capacity - 1), buffer.getContinuousEnd(buffer.getFirstSequenceNumber()));
+   }
+
+
+   public void testGrow() {
+
+      final int capacity = buffer.capacity();
+      buffer.put(5L, makeFrame(5L));
+      buffer.removeFirst();
+      buffer.put(7L, makeFrame(7L));
+      buffer.put(7L + (long) capacity * 2L, makeFrame(7L + (long) capacity * 2L));
+      assertTrue(buffer.capacity() > capacity);
+      assertEquals(7L, buffer.get(7L).getSequenceNumber());
+      assertEquals(7L, buffer.removeFirst().getSequenceNumber());
+      assertEquals(7L + (long) capacity * 2L, buffer.getFirstSequenceNumber());
+   }
+
+
+   public void testClear() {
+
+      buffer.put(1L, makeFrame(1L));
+      buffer.put(2L, makeFrame(2L));
+      buffer.clear();
+      assertTrue(buffer.isEmpty());
+      assertNull(buffer.get(1L));
+      buffer.put(50L, makeFrame(50L));
+      assertEquals(50L, buffer.getFirstSequenceNumber());
+   }
+
+
+   private static Frame makeFrame(final long sequenceNumber) {
+
+      return new Frame(Frame.MAXIMUM_MCAST_MESSAGE_LENGTH, (byte) 1, sequenceNumber, 1, 0, PART);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+      buffer = new FrameRingBuffer(64);
+   }
+
+
+   public String toString() {
+
+      return "FrameRingBufferTest{" +
+              "buffer=" + buffer +
+              "} " + super.toString();
+   }
+}
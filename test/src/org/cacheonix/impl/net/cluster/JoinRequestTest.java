@@ -18,6 +18,7 @@ import java.io.IOException;
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.TestUtils;
 import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.processor.Frame;
 import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.net.serializer.SerializerFactory;
 
@@ -54,6 +55,22 @@ public final class JoinRequestTest extends CacheonixTestCase {
    }
 
 
+   public void testSerializeDeserializeMaximumMulticastPacketSize() throws IOException {
+
+      final JoinRequest jumboRequest = new JoinRequest(clusterNodeAddress, 8972);
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final JoinRequest deserialized = (JoinRequest) ser.deserialize(ser.serialize(jumboRequest));
+      assertEquals(8972, deserialized.getMaximumMulticastPacketSize());
+      assertFalse(request.equals(jumboRequest));
+   }
+
+
+   public void testDefaultMaximumMulticastPacketSize() {
+
+      assertEquals(Frame.MAXIMUM_MULTICAST_PACKET_SIZE, request.getMaximumMulticastPacketSize());
+   }
+
+
    public void testDefaultConstructor() {
 
       assertNotNull(new JoinRequest().toString());
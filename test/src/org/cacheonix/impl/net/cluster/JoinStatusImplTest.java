@@ -19,8 +19,6 @@ import java.util.List;
 import org.cacheonix.CacheonixTestCase;
 import org.cacheonix.TestConstants;
 import org.cacheonix.TestUtils;
-import org.cacheonix.impl.cluster.node.state.ReplicatedState;
-import org.cacheonix.impl.cluster.node.state.ReplicatedStateImpl;
 import org.cacheonix.impl.config.ClusterConfiguration;
 import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.UUID;
@@ -54,14 +52,6 @@ public final class JoinStatusImplTest extends CacheonixTestCase {
    }
 
 
-   public void testSetGetReplicatedState() {
-
-      final ReplicatedState replicatedState = new ReplicatedStateImpl();
-      joinStatus.setReplicatedState(replicatedState);
-      assertEquals(replicatedState, joinStatus.getReplicatedState());
-   }
-
-
    public void testGetTimeout() {
 
       assertEquals(DEFAULT_JOIN_TIMEOUT_MILLIS, joinStatus.getTimeout().getDuration());
@@ -98,7 +98,7 @@ public final class MessageAssemblerImplTest extends TestCase {
       for (final Object part : parts) {
          messageAssembler.add((Frame) part);
       }
-      assertEquals(new AssembledMessageImpl(messageToPartition, -1), messageAssembler.poll());
+      assertEquals(new AssembledMessageImpl(messageToPartition, -1, -1), messageAssembler.poll());
       assertNull(messageAssembler.poll());
    }
 
@@ -0,0 +1,114 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import junit.framework.TestCase;
+
+/**
+ * Tester for MulticastFlowControl.
+ */
+public final class MulticastFlowControlTest extends TestCase {
+
+   private MulticastFlowControl flowControl = null;
+
+
+   public void testInitialWindow() {
+
+      assertEquals(MulticastFlowControl.INITIAL_WINDOW, flowControl.getWindow());
+   }
+
+
+   public void testGrowsWhenWindowUsedUp() {
+
+      flowControl.completeRotation(MulticastFlowControl.INITIAL_WINDOW);
+      assertEquals(MulticastFlowControl.INITIAL_WINDOW + MulticastFlowControl.WINDOW_INCREMENT,
+              flowControl.getWindow());
+   }
+
+
+   public void testDoesNotGrowWhenIdle() {
+
+      flowControl.completeRotation(1);
+      assertEquals(MulticastFlowControl.INITIAL_WINDOW, flowControl.getWindow());
+   }
+
+
+   public void testShrinksOnRetransmit() {
+
+      flowControl.registerRetransmit();
+      flowControl.completeRotation(MulticastFlowControl.INITIAL_WINDOW);
+      assertEquals(MulticastFlowControl.INITIAL_WINDOW / 2, flowControl.getWindow());
+      assertEquals(1L, flowControl.getRetransmittedFrameCount());
+
+      // Congestion is cleared by the completed rotation
+      flowControl.completeRotation(MulticastFlowControl.INITIAL_WINDOW / 2);
+      assertEquals(MulticastFlowControl.INITIAL_WINDOW / 2 + MulticastFlowControl.WINDOW_INCREMENT,
+              flowControl.getWindow());
+   }
+
+
+   public void testShrinksOnGap() {
+
+      flowControl.registerGap();
+      flowControl.completeRotation(0);
+      assertEquals(MulticastFlowControl.INITIAL_WINDOW / 2, flowControl.getWindow());
+      assertEquals(1L, flowControl.getGapCount());
+   }
+
+
+   public void testBounds() {
+
+      for (int i = 0; i < 100; i++) {
+         flowControl.registerGap();
+         flowControl.completeRotation(0);
+      }
+      assertEquals(MulticastFlowControl.MIN_WINDOW, flowControl.getWindow());
+
+      for (int i = 0; i < 1000; i++) {
+         flowControl.completeRotation(flowControl.getWindow());
+      }
+      assertEquals(MulticastFlowControl.MAX_WINDOW, flowControl.getWindow());
+   }
+
+
+   public void testCounters() {
+
+      flowControl.completeRotation(5);
+      flowControl.completeRotation(7);
+      assertEquals(2L, flowControl.getRotationCount());
+      assertEquals(12L, flowControl.getSentFrameCount());
+      assertEquals(7, flowControl.getLastRotationSentFrameCount());
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(flowControl.toString());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+      flowControl = new MulticastFlowControl();
+   }
+
+
+   public String toString() {
+
+      return "MulticastFlowControlTest{" +
+              "flowControl=" + flowControl +
+              "} " + super.toString();
+   }
+}
@@ -14,11 +14,23 @@
 package org.cacheonix.impl.net.cluster;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.cacheonix.CacheonixTestCase;
+import org.cacheonix.TestUtils;
+import org.cacheonix.impl.net.ClusterNodeAddress;
 import org.cacheonix.impl.net.processor.Frame;
+import org.cacheonix.impl.net.processor.ReceiverAddress;
 import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.cacheonix.impl.util.array.HashSet;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * A tester for MulticastFrameMessage.
@@ -76,6 +88,71 @@ public class MulticastFrameMessageTest extends CacheonixTestCase {
    }
 
 
+   public void testWriteReadWireWithTargets() throws Exception {
+
+      final List<ClusterNodeAddress> targets = new ArrayList<ClusterNodeAddress>(2);
+      targets.add(TestUtils.createTestAddress(7001));
+      targets.add(TestUtils.createTestAddress(7002));
+      message.setFanOut(4);
+      message.setTargets(targets);
+
+      final Serializer ser = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final MulticastFrameMessage deserialized = (MulticastFrameMessage) ser.deserialize(ser.serialize(message));
+      assertEquals(message, deserialized);
+      assertEquals(4, deserialized.getFanOut());
+      assertEquals(targets, deserialized.getTargets());
+   }
+
+
+   /**
+    * Tests that the originator sends a frame to no more than fan-out members and the members together are responsible
+    * for the rest of the cluster.
+    */
+   public void testOriginatorForwardsToBoundedNumberOfChildren() {
+
+      final ClusterNodeAddress self = TestUtils.createTestAddress(7000);
+      final List<ClusterNodeAddress> members = new ArrayList<ClusterNodeAddress>(11);
+      members.add(self);
+      for (int i = 1; i <= 10; i++) {
+         members.add(TestUtils.createTestAddress(7000 + i));
+      }
+
+      final ClusterView clusterView = Mockito.mock(ClusterView.class);
+      when(clusterView.getClusterNodeList()).thenReturn(members);
+      final ClusterProcessorState processorState = Mockito.mock(ClusterProcessorState.class);
+      when(processorState.getClusterView()).thenReturn(clusterView);
+      when(processorState.getKnownReceivers()).thenReturn(new HashSet<ClusterNodeAddress>(1));
+      final ClusterProcessor clusterProcessor = Mockito.mock(ClusterProcessor.class);
+      when(clusterProcessor.getAddress()).thenReturn(self);
+      when(clusterProcessor.getProcessorState()).thenReturn(processorState);
+
+      message.setSender(self);
+      message.setFrame(new Frame());
+      message.setFanOut(4);
+      message.setKnownAddresses(new ArrayList<ReceiverAddress>(0));
+      message.setProcessor(clusterProcessor);
+      message.execute();
+
+      final ArgumentCaptor<MulticastFrameMessage> captor = ArgumentCaptor.forClass(MulticastFrameMessage.class);
+      verify(clusterProcessor, times(4)).post(captor.capture());
+
+      final List<ClusterNodeAddress> covered = new ArrayList<ClusterNodeAddress>(10);
+      for (final MulticastFrameMessage child : captor.getAllValues()) {
+
+         assertEquals(4, child.getFanOut());
+         assertTrue(child.isOriginator());
+         covered.addAll(child.getTargets());
+         for (final ClusterNodeAddress member : members) {
+            if (child.getReceiver().isAddressOf(member)) {
+               covered.add(member);
+            }
+         }
+      }
+      assertEquals(10, covered.size());
+      assertTrue(covered.containsAll(members.subList(1, members.size())));
+   }
+
+
    public void testHashCode() {
 
       assertTrue(message.hashCode() != 0);
@@ -0,0 +1,262 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import java.io.IOException;
+import java.util.Timer;
+
+import junit.framework.TestCase;
+import org.cacheonix.TestConstants;
+import org.cacheonix.impl.clock.Clock;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.multicast.sender.MulticastSender;
+import org.cacheonix.impl.net.processor.Frame;
+import org.cacheonix.impl.net.processor.Router;
+import org.cacheonix.impl.net.processor.UUID;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.cacheonix.impl.net.serializer.Wireable;
+
+import static org.cacheonix.TestUtils.createTestAddress;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A tester for {@link NeighborHeartbeat} and for the neighbor failure detection it feeds.
+ */
+public final class NeighborHeartbeatTest extends TestCase {
+
+   private static final long HEARTBEAT_INTERVAL_MILLIS = ClusterProcessorImpl.HEARTBEAT_INTERVAL_MILLIS;
+
+   private static final long WORST_CASE_LATENCY_MILLIS = 10000L;
+
+   private ClusterNodeAddress self;
+
+   private ClusterNodeAddress neighbor;
+
+   private Clock clock;
+
+   private Router router;
+
+   private Timer timer;
+
+   private ClusterProcessorImpl processor;
+
+   /**
+    * Current time of the mock clock.
+    */
+   private long timeMillis;
+
+
+   public void testDefaultConstructor() {
+
+      final NeighborHeartbeat heartbeat = new NeighborHeartbeat();
+      assertEquals(Wireable.TYPE_CLUSTER_NEIGHBOR_HEARTBEAT, heartbeat.getWireableType());
+      assertNotNull(heartbeat.toString());
+   }
+
+
+   public void testSerialize() throws IOException {
+
+      final NeighborHeartbeat heartbeat = createHeartbeat();
+      final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      assertEquals(heartbeat, serializer.deserialize(serializer.serialize(heartbeat)));
+   }
+
+
+   public void testHeartbeatIsRegistered() throws InterruptedException {
+
+      heartbeat();
+      assertEquals(neighbor, processor.getProcessorState().getHeartbeatNeighbor());
+   }
+
+
+   public void testHeartbeatFromNonMemberIsIgnored() throws InterruptedException {
+
+      final NeighborHeartbeat heartbeat = new NeighborHeartbeat();
+      heartbeat.setSender(createTestAddress(TestConstants.PORT_7678));
+      heartbeat.setReceiver(self);
+      heartbeat.setProcessor(processor);
+      heartbeat.execute();
+
+      assertNull(processor.getProcessorState().getHeartbeatNeighbor());
+   }
+
+
+   /**
+    * Tests that the detector does not suspect the neighbor while no markers arrive for a minute but the heartbeats,
+    * that are sent independently of the marker, keep arriving with a jitter.
+    */
+   public void testNotSuspectedDuringMarkerHold() throws InterruptedException {
+
+      for (int i = 0; i < 120; i++) {
+
+         advance(HEARTBEAT_INTERVAL_MILLIS + (i % 3 - 1) * 50L);
+         heartbeat();
+         advance(HEARTBEAT_INTERVAL_MILLIS / 2L);
+         processor.detectNeighborFailure();
+         advance(-HEARTBEAT_INTERVAL_MILLIS / 2L);
+      }
+
+      assertTrue(processor.getProcessorState().getNeighborFailureDetector().isAvailable());
+      verify(router, never()).route(isA(MarkerTimeoutMessage.class));
+   }
+
+
+   /**
+    * Tests that the detector tolerates a garbage collection pause of a second.
+    */
+   public void testNotSuspectedDuringPause() throws InterruptedException {
+
+      warmUp();
+
+      final long pauseMillis = 1000L;
+      for (long elapsed = 0L; elapsed <= HEARTBEAT_INTERVAL_MILLIS + pauseMillis; elapsed += 100L) {
+
+         processor.detectNeighborFailure();
+         advance(100L);
+      }
+      heartbeat();
+      processor.detectNeighborFailure();
+
+      verify(router, never()).route(isA(MarkerTimeoutMessage.class));
+   }
+
+
+   /**
+    * Tests that the neighbor that stopped sending heartbeats is suspected long before the marker timeout expires.
+    */
+   public void testSuspectedWhenHeartbeatsStop() throws InterruptedException {
+
+      final long lastHeartbeatMillis = warmUp();
+      while (timeMillis - lastHeartbeatMillis <= 2500L) {
+
+         advance(HEARTBEAT_INTERVAL_MILLIS);
+         processor.detectNeighborFailure();
+      }
+
+      verify(router, times(1)).route(isA(MarkerTimeoutMessage.class));
+      assertTrue(2500L < processor.getProcessorState().calculateMarkerTimeout());
+
+      // The detector starts a new history after suspecting
+      assertFalse(processor.getProcessorState().getNeighborFailureDetector().isAvailable());
+   }
+
+
+   public void testNotSuspectedIfNotNormal() throws InterruptedException {
+
+      final long lastHeartbeatMillis = warmUp();
+      processor.getProcessorState().setState(ClusterProcessorState.STATE_RECOVERY);
+      while (timeMillis - lastHeartbeatMillis <= 2500L) {
+
+         advance(HEARTBEAT_INTERVAL_MILLIS);
+         processor.detectNeighborFailure();
+      }
+
+      verify(router, never()).route(isA(MarkerTimeoutMessage.class));
+   }
+
+
+   public void testNotSuspectedIfDisabled() throws InterruptedException {
+
+      final long lastHeartbeatMillis = warmUp();
+      processor.getProcessorState().setNeighborFailureDetector(null);
+      while (timeMillis - lastHeartbeatMillis <= 2500L) {
+
+         advance(HEARTBEAT_INTERVAL_MILLIS);
+         processor.detectNeighborFailure();
+      }
+
+      verify(router, never()).route(isA(MarkerTimeoutMessage.class));
+   }
+
+
+   /**
+    * Feeds the failure detector with regular heartbeats until it becomes available.
+    *
+    * @return the time of the last heartbeat.
+    */
+   private long warmUp() throws InterruptedException {
+
+      for (int i = 0; i < 20; i++) {
+
+         advance(HEARTBEAT_INTERVAL_MILLIS);
+         heartbeat();
+      }
+      assertTrue(processor.getProcessorState().getNeighborFailureDetector().isAvailable());
+      reset(router);
+      return timeMillis;
+   }
+
+
+   private void heartbeat() throws InterruptedException {
+
+      final NeighborHeartbeat heartbeat = createHeartbeat();
+      heartbeat.setProcessor(processor);
+      heartbeat.execute();
+   }
+
+
+   private NeighborHeartbeat createHeartbeat() {
+
+      final NeighborHeartbeat heartbeat = new NeighborHeartbeat();
+      heartbeat.setSender(neighbor);
+      heartbeat.setReceiver(self);
+      return heartbeat;
+   }
+
+
+   private void advance(final long millis) {
+
+      timeMillis += millis;
+      when(clock.currentTimeMillis()).thenReturn(timeMillis);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      self = createTestAddress(TestConstants.PORT_7676);
+      neighbor = createTestAddress(TestConstants.PORT_7677);
+      clock = mock(Clock.class);
+      router = mock(Router.class);
+      timer = new Timer();
+      timeMillis = 1000000L;
+      advance(0L);
+
+      processor = new ClusterProcessorImpl("test", clock, timer, router, mock(MulticastSender.class), self, 1000L,
+              WORST_CASE_LATENCY_MILLIS, 1000L, 1000L, 100L, Frame.MAXIMUM_MULTICAST_PACKET_SIZE, UUID.randomUUID());
+      processor.getProcessorState().getClusterView().insert(self, neighbor);
+      processor.getProcessorState().setState(ClusterProcessorState.STATE_NORMAL);
+      processor.getProcessorState().setNeighborFailureDetector(new PhiAccrualFailureDetector(
+              PhiAccrualFailureDetector.DEFAULT_THRESHOLD, PhiAccrualFailureDetector.DEFAULT_ACCEPTABLE_PAUSE_MILLIS));
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      timer.cancel();
+      processor = null;
+      router = null;
+      clock = null;
+
+      super.tearDown();
+   }
+}
@@ -35,6 +35,8 @@ public final class PayloadPartitionerTest extends TestCase {
 
    private static final int SINGLE_PART_OBJECT_SIZE = 10;
 
+   private static final int JUMBO_MULTICAST_PACKET_SIZE = 8972;
+
    private PayloadPartitioner partitioner;
 
 
@@ -46,7 +48,15 @@ public final class PayloadPartitionerTest extends TestCase {
 
    public void testPartitionMultipart() throws IOException {
 
-      runPartitionTest(MULTIPART_OBJECT_SIZE, 4);
+      runPartitionTest(partitioner, Frame.MAXIMUM_MCAST_MESSAGE_LENGTH, MULTIPART_OBJECT_SIZE, 4);
+   }
+
+
+   public void testPartitionJumbo() throws IOException {
+
+      final PayloadPartitioner jumboPartitioner = new PayloadPartitioner(JUMBO_MULTICAST_PACKET_SIZE);
+      runPartitionTest(jumboPartitioner, JUMBO_MULTICAST_PACKET_SIZE, MULTIPART_OBJECT_SIZE, 1);
+      runPartitionTest(jumboPartitioner, JUMBO_MULTICAST_PACKET_SIZE, 4 * MULTIPART_OBJECT_SIZE, 3);
    }
 
 
@@ -59,13 +69,14 @@ public final class PayloadPartitionerTest extends TestCase {
 
    public void test() throws IOException {
 
-      runPartitionTest(SINGLE_PART_OBJECT_SIZE, 1);
+      runPartitionTest(partitioner, Frame.MAXIMUM_MCAST_MESSAGE_LENGTH, SINGLE_PART_OBJECT_SIZE, 1);
    }
 
 
-   private void runPartitionTest(final int objectSize, final int expectedPartCount)
-           throws IOException {
+   private static void runPartitionTest(final PayloadPartitioner partitioner, final int maximumMessageLength,
+           final int objectSize, final int expectedPartCount) throws IOException {
 
+      final int maximumPayloadLength = maximumMessageLength - Frame.HEADER_LENGTH;
       final TestMessage objectToPartition = makeObject(objectSize);
       final List parts = partitioner.partition(objectToPartition);
       assertEquals(expectedPartCount, parts.size());
@@ -78,11 +89,11 @@ public final class PayloadPartitionerTest extends TestCase {
          assertEquals(-1L, frame.getSequenceNumber());
          assertEquals(Serializer.TYPE_JAVA, frame.getSerializerType());
          if (i < parts.size() - 1) {
-            assertEquals(Frame.MAXIMUM_MCAST_PAYLOAD_LENGTH, frame.getPayload().length);
+            assertEquals(maximumPayloadLength, frame.getPayload().length);
             // control call to make sure no exceptions thrown
-            assertEquals(Frame.MAXIMUM_MCAST_MESSAGE_LENGTH, frame.toBytes().length);
+            assertEquals(maximumMessageLength, frame.toBytes().length);
          } else {
-            assertTrue(frame.getPayload().length < Frame.MAXIMUM_MCAST_PAYLOAD_LENGTH);
+            assertTrue(frame.getPayload().length < maximumPayloadLength);
          }
          baos.write(frame.getPayload());
       }
@@ -0,0 +1,179 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import junit.framework.TestCase;
+
+/**
+ * A tester for {@link PhiAccrualFailureDetector}.
+ */
+public final class PhiAccrualFailureDetectorTest extends TestCase {
+
+   private static final long INTERVAL_MILLIS = 10L;
+
+   private static final long ACCEPTABLE_PAUSE_MILLIS = 500L;
+
+   /**
+    * Object under test.
+    */
+   private PhiAccrualFailureDetector detector;
+
+
+   public void testNotAvailableInitially() {
+
+      assertFalse(detector.isAvailable());
+      assertEquals(0.0, detector.phi(1000L), 0.0);
+      assertFalse(detector.isSuspected(1000000L));
+   }
+
+
+   public void testCalculateTimeoutMillisFailsIfNotAvailable() {
+
+      try {
+         detector.calculateTimeoutMillis();
+         fail("Expected exception but it was not thrown");
+      } catch (final IllegalStateException ignored) {
+         // Expected
+      }
+   }
+
+
+   public void testBecomesAvailable() {
+
+      final long last = feed(100);
+      assertTrue(detector.isAvailable());
+      assertEquals((double) INTERVAL_MILLIS, detector.getMeanMillis(), 0.001);
+      assertEquals(0.0, detector.getStdDeviationMillis(), 0.001);
+      assertFalse(detector.isSuspected(last + INTERVAL_MILLIS));
+   }
+
+
+   public void testPhiGrowsWithTime() {
+
+      final long last = feed(100);
+      final double phi1 = detector.phi(last + ACCEPTABLE_PAUSE_MILLIS);
+      final double phi2 = detector.phi(last + ACCEPTABLE_PAUSE_MILLIS * 2L);
+      final double phi3 = detector.phi(last + ACCEPTABLE_PAUSE_MILLIS * 3L);
+      assertTrue(phi1 < phi2);
+      assertTrue(phi2 < phi3);
+   }
+
+
+   public void testCalculateTimeoutMillisMatchesThreshold() {
+
+      final long last = feed(100);
+      final long timeoutMillis = detector.calculateTimeoutMillis();
+      assertTrue(timeoutMillis > ACCEPTABLE_PAUSE_MILLIS);
+      assertTrue(timeoutMillis < 2000L);
+      assertFalse(detector.isSuspected(last + timeoutMillis - 5L));
+      assertTrue(detector.isSuspected(last + timeoutMillis + 5L));
+   }
+
+
+   public void testTimeoutAdaptsToJitter() {
+
+      feed(100);
+      final long steadyTimeoutMillis = detector.calculateTimeoutMillis();
+
+      // Add irregular intervals
+      long time = 100000L;
+      for (int i = 0; i < 100; i++) {
+
+         time += i % 2 == 0 ? 10L : 500L;
+         detector.heartbeat(time);
+      }
+
+      assertTrue(detector.calculateTimeoutMillis() > steadyTimeoutMillis);
+   }
+
+
+   public void testReset() {
+
+      feed(100);
+      detector.reset();
+      assertFalse(detector.isAvailable());
+      assertEquals(0.0, detector.getMeanMillis(), 0.0);
+   }
+
+
+   public void testSlidingWindowEvictsOldIntervals() {
+
+      final PhiAccrualFailureDetector smallDetector = new PhiAccrualFailureDetector(8.0, 0L, 16);
+      long time = 0L;
+      for (int i = 0; i <= 16; i++) {
+
+         time += 1000L;
+         smallDetector.heartbeat(time);
+      }
+      assertEquals(1000.0, smallDetector.getMeanMillis(), 0.001);
+
+      for (int i = 0; i < 16; i++) {
+
+         time += 10L;
+         smallDetector.heartbeat(time);
+      }
+      assertEquals(10.0, smallDetector.getMeanMillis(), 0.001);
+   }
+
+
+   public void testInvalidThreshold() {
+
+      try {
+         new PhiAccrualFailureDetector(0.0, ACCEPTABLE_PAUSE_MILLIS);
+         fail("Expected exception but it was not thrown");
+      } catch (final IllegalArgumentException ignored) {
+         // Expected
+      }
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(detector.toString());
+   }
+
+
+   /**
+    * Feeds the detector with regular heartbeats.
+    *
+    * @param count the number of heartbeats.
+    * @return the time of the last heartbeat.
+    */
+   private long feed(final int count) {
+
+      long time = 0L;
+      for (int i = 0; i < count; i++) {
+
+         time += INTERVAL_MILLIS;
+         detector.heartbeat(time);
+      }
+      return time;
+   }
+
+
+   public void setUp() throws Exception {
+
+      super.setUp();
+
+      detector = new PhiAccrualFailureDetector(8.0, ACCEPTABLE_PAUSE_MILLIS);
+   }
+
+
+   public void tearDown() throws Exception {
+
+      detector = null;
+
+      super.tearDown();
+   }
+}
@@ -96,6 +96,23 @@ public final class ReceivedListTest extends TestCase {
    }
 
 
+   public void testAddClosesGap() {
+
+      receivedList.add(makePacket(1));
+      receivedList.add(makePacket(3));
+      receivedList.add(makePacket(4));
+      assertEquals(Long.valueOf(1L), receivedList.getHighestContinuousNumberReceived());
+      assertEquals(Long.valueOf(4L), receivedList.getHighestSequenceNumberReceived());
+
+      receivedList.add(makePacket(2));
+      assertEquals(Long.valueOf(4L), receivedList.getHighestContinuousNumberReceived());
+      assertEquals(Long.valueOf(4L), receivedList.getHighestContinuousNumberReceivedButNotDelivered());
+      assertNull(receivedList.poll(2L));
+      assertEquals(1L, receivedList.poll(1L).getSequenceNumber());
+      assertEquals(2L, receivedList.poll(2L).getSequenceNumber());
+   }
+
+
    public void testAdd() {
 
       receivedList.add(makePacket(0));
@@ -0,0 +1,350 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.cluster;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Timer;
+
+import junit.framework.TestCase;
+import org.cacheonix.TestConstants;
+import org.cacheonix.impl.clock.Clock;
+import org.cacheonix.impl.cluster.node.state.ReplicatedState;
+import org.cacheonix.impl.cluster.node.state.ReplicatedStateImpl;
+import org.cacheonix.impl.lock.LockPartitionAssignment;
+import org.cacheonix.impl.net.ClusterNodeAddress;
+import org.cacheonix.impl.net.multicast.sender.MulticastSender;
+import org.cacheonix.impl.net.processor.Frame;
+import org.cacheonix.impl.net.processor.Message;
+import org.cacheonix.impl.net.processor.Router;
+import org.cacheonix.impl.net.processor.UUID;
+import org.cacheonix.impl.net.serializer.Serializer;
+import org.cacheonix.impl.net.serializer.SerializerFactory;
+import org.cacheonix.impl.net.serializer.Wireable;
+import org.mockito.ArgumentCaptor;
+
+import static org.cacheonix.TestUtils.createTestAddress;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A tester for {@link ReplicatedStateTransfer}, {@link GetReplicatedStateSnapshotMessage} and {@link
+ * ReplicatedStateSnapshotMessage}.
+ */
+public final class ReplicatedStateTransferTest extends TestCase {
+
+   private ClusterNodeAddress self;
+
+   private ClusterNodeAddress provider;
+
+   private Clock clock;
+
+   private Router router;
+
+   private Timer timer;
+
+   private ClusterProcessorImpl processor;
+
+   private ReplicatedStateTransfer transfer;
+
+   /**
+    * Current time of the mock clock.
+    */
+   private long timeMillis;
+
+
+   public void testDefaultConstructors() {
+
+      assertEquals(Wireable.TYPE_CLUSTER_GET_REPLICATED_STATE_SNAPSHOT,
+              new GetReplicatedStateSnapshotMessage().getWireableType());
+      assertEquals(Wireable.TYPE_CLUSTER_REPLICATED_STATE_SNAPSHOT,
+              new ReplicatedStateSnapshotMessage().getWireableType());
+   }
+
+
+   public void testSerializeSnapshot() throws IOException {
+
+      final ReplicatedStateSnapshotMessage snapshot = new ReplicatedStateSnapshotMessage(11L, createState());
+      final Serializer serializer = SerializerFactory.getInstance().getSerializer(Serializer.TYPE_JAVA);
+      final ReplicatedStateSnapshotMessage restored = (ReplicatedStateSnapshotMessage) serializer.deserialize(
+              serializer.serialize(snapshot));
+      assertEquals(snapshot, restored);
+      assertEquals(11L, restored.getVersion());
+      assertEquals(Message.PRIORITY_BULK, restored.getPriority());
+   }
+
+
+   public void testBeginClearsStateAndRequestsSnapshot() {
+
+      processor.getProcessorState().setReplicateState(createState());
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+
+      assertTrue(transfer.isPending());
+      assertTrue(processor.getProcessorState().getReplicatedState().getLockPartitionAssignment().getMembers().isEmpty());
+      final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+      verify(router).route(captor.capture());
+      assertTrue(captor.getValue() instanceof GetReplicatedStateSnapshotMessage);
+      assertTrue(captor.getValue().getReceiver().isAddressOf(provider));
+   }
+
+
+   public void testDeltasAreBufferedWhilePending() throws IOException {
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+
+      deliverNodeLeft(self, 11L);
+
+      assertEquals(1, transfer.getDeltaCount());
+   }
+
+
+   /**
+    * Tests that the buffered messages that the snapshot includes are dropped and the rest are applied on top of the
+    * snapshot.
+    */
+   public void testSnapshotIsAppliedWithDeltas() throws InterruptedException, IOException {
+
+      final ClusterNodeAddress leftBeforeSnapshot = createTestAddress(TestConstants.PORT_7678);
+      final ClusterNodeAddress leftAfterSnapshot = createTestAddress(TestConstants.PORT_7678 + 1);
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+      deliverNodeLeft(leftBeforeSnapshot, 11L);
+      deliverNodeLeft(leftAfterSnapshot, 12L);
+
+      // The snapshot is taken after the first node left, the member is still there to see if the delta is dropped
+      final ReplicatedState state = createState();
+      state.notifyClusterNodeJoined(leftBeforeSnapshot);
+      state.notifyClusterNodeJoined(leftAfterSnapshot);
+      receiveSnapshot(11L, state);
+
+      assertFalse(transfer.isPending());
+      final LockPartitionAssignment assignment = processor.getProcessorState().getReplicatedState()
+              .getLockPartitionAssignment();
+      assertEquals(2, assignment.getMembers().size());
+      assertTrue(assignment.contains(leftBeforeSnapshot));
+      assertFalse(assignment.contains(leftAfterSnapshot));
+
+      // Messages delivered after the transfer that the snapshot includes are dropped too
+      assertTrue(transfer.isIncludedInSnapshot(new AssembledMessageImpl(new ClusterNodeLeftAnnouncement(), 11L, 11L)));
+      assertFalse(transfer.isIncludedInSnapshot(new AssembledMessageImpl(new ClusterNodeLeftAnnouncement(), 11L, 12L)));
+   }
+
+
+   public void testOutdatedSnapshotIsIgnored() throws InterruptedException {
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+
+      receiveSnapshot(9L, createState());
+
+      assertTrue(transfer.isPending());
+   }
+
+
+   public void testAnySnapshotIsAppliedIfBaselineIsUnknown() throws InterruptedException {
+
+      processor.beginReplicatedStateTransfer(provider, null);
+
+      receiveSnapshot(-1L, createState());
+
+      assertFalse(transfer.isPending());
+   }
+
+
+   public void testRetry() {
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+      reset(router);
+
+      advance(ClusterProcessorImpl.STATE_TRANSFER_RETRY_MILLIS - 1L);
+      processor.retryReplicatedStateTransfer();
+      verify(router, never()).route(isA(GetReplicatedStateSnapshotMessage.class));
+
+      advance(1L);
+      processor.retryReplicatedStateTransfer();
+      verify(router, times(1)).route(isA(GetReplicatedStateSnapshotMessage.class));
+   }
+
+
+   public void testRetryAfterProviderLeft() {
+
+      processor.beginReplicatedStateTransfer(createTestAddress(TestConstants.PORT_7678), 10L);
+
+      advance(ClusterProcessorImpl.STATE_TRANSFER_RETRY_MILLIS);
+      processor.retryReplicatedStateTransfer();
+
+      assertEquals(provider, transfer.getProvider());
+   }
+
+
+   public void testRetryWhenAlone() throws IOException {
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+      deliverNodeLeft(provider, 11L);
+      processor.getProcessorState().getClusterView().remove(provider);
+
+      advance(ClusterProcessorImpl.STATE_TRANSFER_RETRY_MILLIS);
+      processor.retryReplicatedStateTransfer();
+
+      assertFalse(transfer.isPending());
+      assertEquals(0, transfer.getDeltaCount());
+   }
+
+
+   public void testSnapshotIsProvided() throws InterruptedException {
+
+      processor.getProcessorState().setHighestSequenceNumberDelivered(42L);
+
+      requestSnapshot();
+
+      final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+      verify(router).route(captor.capture());
+      final ReplicatedStateSnapshotMessage snapshot = (ReplicatedStateSnapshotMessage) captor.getValue();
+      assertEquals(42L, snapshot.getVersion());
+      assertTrue(snapshot.getReceiver().isAddressOf(provider));
+   }
+
+
+   public void testSnapshotIsNotProvidedWhilePending() throws InterruptedException {
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+      reset(router);
+
+      requestSnapshot();
+
+      verify(router, never()).route(isA(ReplicatedStateSnapshotMessage.class));
+   }
+
+
+   public void testSnapshotIsNotProvidedInRecovery() throws InterruptedException {
+
+      processor.getProcessorState().setState(ClusterProcessorState.STATE_RECOVERY);
+
+      requestSnapshot();
+
+      verify(router, never()).route(isA(ReplicatedStateSnapshotMessage.class));
+   }
+
+
+   public void testClear() {
+
+      processor.beginReplicatedStateTransfer(provider, 10L);
+
+      processor.reset();
+
+      assertFalse(transfer.isPending());
+      assertNull(transfer.getProvider());
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(transfer.toString());
+      assertNotNull(new GetReplicatedStateSnapshotMessage().toString());
+      assertNotNull(new ReplicatedStateSnapshotMessage().toString());
+   }
+
+
+   private void requestSnapshot() throws InterruptedException {
+
+      final GetReplicatedStateSnapshotMessage request = new GetReplicatedStateSnapshotMessage();
+      request.setSender(provider);
+      request.setReceiver(self);
+      request.setProcessor(processor);
+      request.execute();
+   }
+
+
+   private void receiveSnapshot(final long version, final ReplicatedState state) throws InterruptedException {
+
+      final ReplicatedStateSnapshotMessage snapshot = new ReplicatedStateSnapshotMessage(version, state);
+      snapshot.setSender(provider);
+      snapshot.setReceiver(self);
+      snapshot.setProcessor(processor);
+      snapshot.execute();
+   }
+
+
+   /**
+    * Delivers a node left announcement completed by the given frame the same way the marker does.
+    */
+   private void deliverNodeLeft(final ClusterNodeAddress leave, final long frameNumber) throws IOException {
+
+      final ClusterNodeLeftAnnouncement announcement = new ClusterNodeLeftAnnouncement();
+      announcement.setLeave(leave);
+      announcement.setSender(provider);
+      announcement.setClusterUUID(processor.getProcessorState().getClusterView().getClusterUUID());
+
+      final List<Frame> frames = new PayloadPartitioner().partition(announcement);
+      for (final Frame frame : frames) {
+
+         frame.setSequenceNumber(frameNumber);
+         processor.getMessageAssembler().add(frame);
+      }
+      processor.deliverAssembledMulticastMessages();
+   }
+
+
+   private static ReplicatedState createState() {
+
+      final ReplicatedState state = new ReplicatedStateImpl();
+      state.notifyClusterNodeJoined(createTestAddress(TestConstants.PORT_7677));
+      return state;
+   }
+
+
+   private void advance(final long millis) {
+
+      timeMillis += millis;
+      when(clock.currentTimeMillis()).thenReturn(timeMillis);
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+
+      self = createTestAddress(TestConstants.PORT_7676);
+      provider = createTestAddress(TestConstants.PORT_7677);
+      clock = mock(Clock.class);
+      router = mock(Router.class);
+      timer = new Timer();
+      timeMillis = 1000000L;
+      advance(0L);
+
+      processor = new ClusterProcessorImpl("test", clock, timer, router, mock(MulticastSender.class), self, 1000L,
+              10000L, 1000L, 1000L, 100L, Frame.MAXIMUM_MULTICAST_PACKET_SIZE, UUID.randomUUID());
+      processor.getProcessorState().setReplicateState(new ReplicatedStateImpl());
+      processor.getProcessorState().getClusterView().insert(self, provider);
+      processor.getProcessorState().setState(ClusterProcessorState.STATE_NORMAL);
+      transfer = processor.getProcessorState().getReplicatedStateTransfer();
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      timer.cancel();
+      transfer = null;
+      processor = null;
+      router = null;
+      clock = null;
+
+      super.tearDown();
+   }
+}
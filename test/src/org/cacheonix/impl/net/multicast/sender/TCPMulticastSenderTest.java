@@ -60,6 +60,26 @@ public final class TCPMulticastSenderTest extends TestCase {
    }
 
 
+   public void testSendFrameThroughTree() throws IOException {
+
+      final ArgumentCaptor<MulticastFrameMessage> routeArgumentCaptor = ArgumentCaptor.forClass(
+              MulticastFrameMessage.class);
+
+      final ClusterNodeAddress localAddress = createTestAddress(TestConstants.PORT_7677);
+      final List<ReceiverAddress> receiverAddresses = new ArrayList<ReceiverAddress>(1);
+      receiverAddresses.add(new ReceiverAddress(localAddress.getAddresses(), PORT_7676));
+      final TCPMulticastSender treeSender = new TCPMulticastSender(router, localAddress, receiverAddresses, 4);
+
+      final Frame frame = new Frame(Frame.MAXIMUM_MCAST_MESSAGE_LENGTH);
+      frame.setPayload(Serializer.TYPE_JAVA, TestConstants.OBJECT_TO_MULTICAST);
+      treeSender.sendFrame(frame);
+
+      // Verify that routed only once, to self
+      verify(router, times(1)).route(routeArgumentCaptor.capture());
+      assertTrue(routeArgumentCaptor.getValue().getReceiver().isAddressOf(localAddress));
+   }
+
+
    public void testToString() throws Exception {
 
       assertNotNull(sender.toString());
@@ -0,0 +1,89 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.multicast.server;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * Tester for DatagramPool.
+ */
+public final class DatagramPoolTest extends TestCase {
+
+   private static final int BUFFER_SIZE = 16;
+
+   private static final int MAX_POOLED_DATAGRAMS = 2;
+
+   private DatagramPool pool = null;
+
+
+   public void testAcquireAllocatesWhenEmpty() {
+
+      final ByteBuffer buffer = pool.acquire().getBuffer();
+      assertEquals(BUFFER_SIZE, buffer.capacity());
+      assertTrue(buffer.isDirect());
+      assertEquals(0, pool.getPooledDatagramCount());
+   }
+
+
+   public void testReleasedDatagramIsReusedCleared() throws UnknownHostException {
+
+      final ReceivedDatagram datagram = pool.acquire();
+      datagram.getBuffer().put((byte) 1);
+      datagram.getBuffer().flip();
+      datagram.setSenderAddress(InetAddress.getLocalHost());
+      pool.release(datagram);
+      assertEquals(1, pool.getPooledDatagramCount());
+
+      final ReceivedDatagram reused = pool.acquire();
+      assertSame(datagram, reused);
+      assertEquals(0, reused.getBuffer().position());
+      assertEquals(BUFFER_SIZE, reused.getBuffer().limit());
+      assertNull(reused.getSenderAddress());
+      assertEquals(0, pool.getPooledDatagramCount());
+   }
+
+
+   public void testPoolSizeIsBounded() {
+
+      for (int i = 0; i < MAX_POOLED_DATAGRAMS + 1; i++) {
+         pool.release(new ReceivedDatagram(BUFFER_SIZE));
+      }
+      assertEquals(MAX_POOLED_DATAGRAMS, pool.getPooledDatagramCount());
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(pool.toString());
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+      pool = new DatagramPool(BUFFER_SIZE, MAX_POOLED_DATAGRAMS);
+   }
+
+
+   public String toString() {
+
+      return "DatagramPoolTest{" +
+              "pool=" + pool +
+              "} " + super.toString();
+   }
+}
@@ -18,8 +18,16 @@ import java.io.InputStream;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.cacheonix.TestConstants;
+import org.cacheonix.impl.net.processor.Frame;
+import org.cacheonix.impl.net.serializer.Serializer;
 import org.cacheonix.impl.util.IOUtils;
 import org.cacheonix.impl.util.StringUtils;
 import org.cacheonix.impl.util.exception.ExceptionUtils;
@@ -78,6 +86,54 @@ public final class MulticastServerImplTest extends TestCase {
    }
 
 
+   /**
+    * Tests that a frame sent to the group is decoded from the pooled datagram and passed to listeners.
+    */
+   public void testReceivesFrame() throws IOException, InterruptedException {
+
+      final BlockingQueue<Frame> receivedFrames = new LinkedBlockingQueue<Frame>();
+      server.addListener(new MulticastServerListener() {
+
+         public void receiveFrame(final Frame frame) {
+
+            receivedFrames.add(frame);
+         }
+      });
+
+      final Frame frame = new Frame(Frame.MAXIMUM_MULTICAST_PACKET_SIZE, Serializer.TYPE_JAVA, 0, 1, 0,
+              "Test".getBytes());
+      final byte[] bytes = frame.toBytes();
+      final MulticastSocket socket = new MulticastSocket();
+      try {
+         server.startup();
+         socket.send(new DatagramPacket(bytes, bytes.length, InetAddress.getByName(MULTICAST_ADDRESS),
+                 MULTICAST_PORT));
+
+         final Frame receivedFrame = receivedFrames.poll(5L, TimeUnit.SECONDS);
+         assertNotNull(receivedFrame);
+         assertTrue(Arrays.equals(frame.getPayload(), receivedFrame.getPayload()));
+      } finally {
+         IOUtils.closeHard(socket);
+         server.shutdown();
+      }
+   }
+
+
+   /**
+    * Tests that the default multicast interface is up and supports multicast.
+    */
+   public void testGetDefaultMulticastInterface() throws IOException {
+
+      final NetworkInterface networkInterface = MulticastServerImpl.getDefaultMulticastInterface(
+              InetAddress.getByName(MULTICAST_ADDRESS));
+      if (networkInterface != null) {
+
+         assertTrue(networkInterface.isUp());
+         assertTrue(networkInterface.supportsMulticast());
+      }
+   }
+
+
    public void testStartupDoesntBindToInvalidMulticastAddress() {
 
       try {
@@ -17,6 +17,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import junit.framework.TestCase;
@@ -104,6 +105,20 @@ public final class FrameTest extends TestCase {
    }
 
 
+   public void testFromByteBuffer() throws IOException {
+
+      final Frame frame = new Frame(Integer.MAX_VALUE, Serializer.TYPE_JAVA, 0, 1, 0, "Test".getBytes());
+      frame.setSenderInetAddress(InetAddress.getByAddress(new byte[16]));
+      final byte[] bytes = frame.toBytes();
+
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 1);
+      buffer.put(bytes);
+      buffer.flip();
+      assertEquals(frame, Frame.fromByteBuffer(buffer));
+      assertFalse(buffer.hasRemaining());
+   }
+
+
    public void testToString() {
 
       assertNotNull(frame.toString());
@@ -0,0 +1,130 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.net.tcp;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import org.cacheonix.impl.net.processor.Message;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A tester for {@link PrioritizedMessageQueue}.
+ */
+public final class PrioritizedMessageQueueTest extends TestCase {
+
+   /**
+    * Object under test.
+    */
+   private PrioritizedMessageQueue queue;
+
+
+   public void testIsEmptyInitially() {
+
+      assertTrue(queue.isEmpty());
+      assertEquals(0, queue.size());
+      assertNull(queue.peek());
+   }
+
+
+   public void testControlGoesAheadOfDataAndBulk() {
+
+      final Message bulk = createMessage(Message.PRIORITY_BULK);
+      final Message data = createMessage(Message.PRIORITY_DATA);
+      final Message control = createMessage(Message.PRIORITY_CONTROL);
+      queue.add(bulk);
+      queue.add(data);
+      queue.add(control);
+
+      assertEquals(3, queue.size());
+      assertSame(control, queue.peek());
+      assertTrue(queue.remove(control));
+      assertSame(data, queue.peek());
+      assertTrue(queue.remove(data));
+      assertSame(bulk, queue.peek());
+      assertTrue(queue.remove(bulk));
+      assertTrue(queue.isEmpty());
+   }
+
+
+   public void testSamePriorityIsFifo() {
+
+      final Message data1 = createMessage(Message.PRIORITY_DATA);
+      final Message data2 = createMessage(Message.PRIORITY_DATA);
+      queue.add(data1);
+      queue.add(data2);
+
+      assertSame(data1, queue.peek());
+      queue.remove(data1);
+      assertSame(data2, queue.peek());
+   }
+
+
+   public void testRemoveAll() {
+
+      final Message bulk = createMessage(Message.PRIORITY_BULK);
+      final Message control = createMessage(Message.PRIORITY_CONTROL);
+      queue.add(bulk);
+      queue.add(control);
+
+      final List<Message> removed = queue.removeAll();
+      assertEquals(2, removed.size());
+      assertSame(control, removed.get(0));
+      assertSame(bulk, removed.get(1));
+      assertTrue(queue.isEmpty());
+   }
+
+
+   public void testAddWithUnknownPriorityFails() {
+
+      try {
+         queue.add(createMessage(Message.PRIORITY_COUNT));
+         fail("Expected exception but it was not thrown");
+      } catch (final IllegalArgumentException ignored) {
+         // Expected
+      }
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(queue.toString());
+   }
+
+
+   private static Message createMessage(final int priority) {
+
+      final Message message = mock(Message.class);
+      when(message.getPriority()).thenReturn(priority);
+      return message;
+   }
+
+
+   public void setUp() throws Exception {
+
+      super.setUp();
+
+      queue = new PrioritizedMessageQueue();
+   }
+
+
+   public void tearDown() throws Exception {
+
+      queue = null;
+
+      super.tearDown();
+   }
+}
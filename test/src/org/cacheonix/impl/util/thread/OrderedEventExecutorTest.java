@@ -0,0 +1,375 @@
+/*
+ * Cacheonix Systems licenses this file to You under the LGPL 2.1
+ * (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.cacheonix.org/products/cacheonix/license-lgpl-2.1.htm
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cacheonix.impl.util.thread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link OrderedEventExecutor}
+ */
+public final class OrderedEventExecutorTest extends TestCase {
+
+   private static final long TIMEOUT_MILLIS = 5000L;
+
+   private static final int LANE_COUNT = 2;
+
+   private static final int CAPACITY = 2;
+
+   private final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>(11));
+
+   private final CountDownLatch release = new CountDownLatch(1);
+
+   private OrderedEventExecutor executor;
+
+
+   public void testExecutesInOrderPerKey() throws InterruptedException {
+
+      final OrderedEventExecutor unbounded = new OrderedEventExecutor(new DaemonThreadFactory("TestOrdered"),
+              LANE_COUNT, 1000, OverflowPolicy.BLOCK);
+      final List<Integer> first = Collections.synchronizedList(new ArrayList<Integer>(100));
+      final List<Integer> second = Collections.synchronizedList(new ArrayList<Integer>(100));
+      for (int i = 0; i < 100; i++) {
+
+         unbounded.execute("first", new Recorder(first, i));
+         unbounded.execute("second", new Recorder(second, i));
+      }
+      unbounded.shutdown();
+      assertTrue(unbounded.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+      for (int i = 0; i < 100; i++) {
+
+         assertEquals(Integer.valueOf(i), first.get(i));
+         assertEquals(Integer.valueOf(i), second.get(i));
+      }
+   }
+
+
+   public void testExecutesDifferentLanesInParallel() throws InterruptedException {
+
+      final CountDownLatch done = new CountDownLatch(1);
+      executor.execute(0, new Blocker());
+      executor.execute(1, new Runnable() {
+
+         public void run() {
+
+            done.countDown();
+         }
+      });
+      assertTrue(done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+   }
+
+
+   public void testDropOldest() throws InterruptedException {
+
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestDropOldest"), 1, CAPACITY,
+              OverflowPolicy.DROP_OLDEST);
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.execute(new Blocker(started));
+      assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.execute(new Recorder(executed, 1));
+      executor.execute(new Recorder(executed, 2));
+      executor.execute(new Recorder(executed, 3));
+      release.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+      assertEquals(1L, executor.getDroppedCount());
+      assertEquals(2, executed.size());
+      assertEquals(Integer.valueOf(2), executed.get(0));
+      assertEquals(Integer.valueOf(3), executed.get(1));
+   }
+
+
+   public void testCoalesce() throws InterruptedException {
+
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestCoalesce"), 1, CAPACITY,
+              OverflowPolicy.COALESCE);
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.execute(new Blocker(started));
+      assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.execute("key", "a", new Recorder(executed, 1));
+      executor.execute("key", "b", new Recorder(executed, 2));
+      executor.execute("key", "a", new Recorder(executed, 3));
+      release.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+      assertEquals(1L, executor.getCoalescedCount());
+      assertEquals(2, executed.size());
+      assertEquals(Integer.valueOf(3), executed.get(0));
+      assertEquals(Integer.valueOf(2), executed.get(1));
+   }
+
+
+   public void testBlockWaitsForRoom() throws InterruptedException {
+
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestBlock"), 1, 1, OverflowPolicy.BLOCK);
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.execute(new Blocker(started));
+      assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.execute(new Recorder(executed, 1));
+
+      final CountDownLatch submitted = new CountDownLatch(1);
+      final Thread submitter = new Thread(new Runnable() {
+
+         public void run() {
+
+            executor.execute(new Recorder(executed, 2));
+            submitted.countDown();
+         }
+      });
+      submitter.start();
+      assertFalse(submitted.await(100L, TimeUnit.MILLISECONDS));
+
+      release.countDown();
+      assertTrue(submitted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      assertEquals(2, executed.size());
+   }
+
+
+   public void testNonBlockingThreadQueuesOverCapacityInsteadOfBlocking() throws InterruptedException {
+
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestNonBlocking"), 1, 1, OverflowPolicy.BLOCK);
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.execute(new Blocker(started));
+      assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.execute(new Recorder(executed, 1));
+
+      executeNonBlocking(new Runnable() {
+
+         public void run() {
+
+            executor.execute(new Recorder(executed, 2));
+         }
+      });
+
+      release.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      assertEquals(0L, executor.getDroppedCount());
+      assertEquals(1L, executor.getOverflowCount());
+      assertEquals(2, executed.size());
+      assertEquals(Integer.valueOf(1), executed.get(0));
+      assertEquals(Integer.valueOf(2), executed.get(1));
+   }
+
+
+   public void testNonBlockingThreadCoalesces() throws InterruptedException {
+
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestNonBlockingCoalesce"), 1, 1,
+              OverflowPolicy.COALESCE);
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.execute(new Blocker(started));
+      assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+      executeNonBlocking(new Runnable() {
+
+         public void run() {
+
+            executor.execute("key", "a", new Recorder(executed, 1));
+            executor.execute("key", "b", new Recorder(executed, 2));
+            executor.execute("key", "b", new Recorder(executed, 3));
+         }
+      });
+
+      release.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      assertEquals(0L, executor.getDroppedCount());
+      assertEquals(1L, executor.getOverflowCount());
+      assertEquals(1L, executor.getCoalescedCount());
+      assertEquals(2, executed.size());
+      assertEquals(Integer.valueOf(1), executed.get(0));
+      assertEquals(Integer.valueOf(3), executed.get(1));
+   }
+
+
+   public void testNonBlockingThreadDropsOldestIfPolicyIsDropOldest() throws InterruptedException {
+
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestNonBlockingDropOldest"), 1, 1,
+              OverflowPolicy.DROP_OLDEST);
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.execute(new Blocker(started));
+      assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.execute(new Recorder(executed, 1));
+
+      executeNonBlocking(new Runnable() {
+
+         public void run() {
+
+            executor.execute(new Recorder(executed, 2));
+         }
+      });
+
+      release.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      assertEquals(1L, executor.getDroppedCount());
+      assertEquals(0L, executor.getOverflowCount());
+      assertEquals(1, executed.size());
+      assertEquals(Integer.valueOf(2), executed.get(0));
+   }
+
+
+   public void testLaneThreadDoesNotBlockOnItsOwnLane() throws InterruptedException {
+
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestSelfSubmit"), 1, 1, OverflowPolicy.BLOCK);
+      final CountDownLatch submitted = new CountDownLatch(1);
+      executor.execute(new Runnable() {
+
+         public void run() {
+
+            executor.execute(new Recorder(executed, 1));
+            executor.execute(new Recorder(executed, 2));
+            submitted.countDown();
+         }
+      });
+
+      // Shut down only after the nested tasks were accepted
+      assertTrue(submitted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      assertEquals(2, executed.size());
+   }
+
+
+   public void testShutdownNow() throws InterruptedException {
+
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.execute(new Blocker(started));
+      assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      executor.execute(new Recorder(executed, 1));
+
+      assertEquals(1, executor.shutdownNow().size());
+      assertTrue(executor.isShutdown());
+      assertTrue(executor.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      assertTrue(executor.isTerminated());
+      assertTrue(executed.isEmpty());
+      try {
+         executor.execute(new Recorder(executed, 2));
+         fail("Expected exception but it was not thrown");
+      } catch (final RejectedExecutionException ignored) {
+         // Expected
+      }
+   }
+
+
+   public void testToString() {
+
+      assertNotNull(executor.toString());
+   }
+
+
+   /**
+    * Runs the task in a thread marked as non-blocking and waits for it to complete.
+    *
+    * @param task the task to run.
+    * @throws InterruptedException if interrupted while waiting.
+    */
+   private static void executeNonBlocking(final Runnable task) throws InterruptedException {
+
+      final CountDownLatch submitted = new CountDownLatch(1);
+      final Thread submitter = new Thread(OrderedEventExecutor.nonBlocking(new Runnable() {
+
+         public void run() {
+
+            task.run();
+            submitted.countDown();
+         }
+      }));
+      submitter.start();
+      assertTrue(submitted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+   }
+
+
+   protected void setUp() throws Exception {
+
+      super.setUp();
+      executor = new OrderedEventExecutor(new DaemonThreadFactory("TestOrderedEventExecutor"), LANE_COUNT, CAPACITY,
+              OverflowPolicy.BLOCK);
+   }
+
+
+   protected void tearDown() throws Exception {
+
+      release.countDown();
+      executor.shutdownNow();
+      executor = null;
+      super.tearDown();
+   }
+
+
+   /**
+    * Records its number.
+    */
+   private static final class Recorder implements Runnable {
+
+      private final List<Integer> list;
+
+      private final int number;
+
+
+      Recorder(final List<Integer> list, final int number) {
+
+         this.list = list;
+         this.number = number;
+      }
+
+
+      public void run() {
+
+         list.add(number);
+      }
+   }
+
+   /**
+    * Occupies a lane until released.
+    */
+   private final class Blocker implements Runnable {
+
+      private final CountDownLatch started;
+
+
+      Blocker() {
+
+         this(new CountDownLatch(1));
+      }
+
+
+      Blocker(final CountDownLatch started) {
+
+         this.started = started;
+      }
+
+
+      public void run() {
+
+         started.countDown();
+         try {
+            release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+         } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+}